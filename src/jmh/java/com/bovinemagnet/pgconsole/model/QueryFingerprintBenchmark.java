@@ -0,0 +1,50 @@
+package com.bovinemagnet.pgconsole.model;
+
+import com.bovinemagnet.pgconsole.benchmark.BenchmarkFixtures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link QueryFingerprint#recalculateStats()} over groups of
+ * varying size.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryFingerprintBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    int instanceCount;
+
+    private QueryFingerprint fingerprint;
+
+    @Setup
+    public void setUp() {
+        fingerprint = new QueryFingerprint("bench", "select ? from bench");
+        fingerprint.setInstances(new java.util.ArrayList<>(
+                BenchmarkFixtures.slowQueries(instanceCount, BenchmarkFixtures.SEED)));
+    }
+
+    @Benchmark
+    public double recalculateStats() {
+        fingerprint.recalculateStats();
+        return fingerprint.getAvgMeanTime();
+    }
+}
@@ -0,0 +1,89 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Comparator;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Metric;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Rule;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Sample;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks one sampling tick of {@link AlertRuleEngine}: every instance's
+ * sample evaluated against the whole rule set.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AlertRuleEngineBenchmark {
+
+    @Param({"10", "1000"})
+    int ruleCount;
+
+    @Param({"1", "200"})
+    int instanceCount;
+
+    private AlertRuleEngine engine;
+    private String[] instances;
+    private Sample[] samples;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        Metric[] metrics = Metric.values();
+        Comparator[] comparators = Comparator.values();
+
+        List<Rule> rules = new ArrayList<>(ruleCount);
+        for (int i = 0; i < ruleCount; i++) {
+            rules.add(new Rule("RULE_" + i, "Rule " + i,
+                    metrics[random.nextInt(metrics.length)],
+                    comparators[random.nextInt(comparators.length)],
+                    random.nextDouble() * 100,
+                    random.nextBoolean() ? 0 : 120_000,
+                    random.nextDouble() * 5,
+                    null));
+        }
+        engine = new AlertRuleEngine(rules);
+
+        instances = new String[instanceCount];
+        samples = new Sample[instanceCount];
+        for (int i = 0; i < instanceCount; i++) {
+            instances[i] = "instance-" + i;
+            Sample sample = new Sample();
+            for (Metric metric : metrics) {
+                sample.set(metric, random.nextDouble() * 100);
+            }
+            samples[i] = sample;
+        }
+    }
+
+    @Benchmark
+    public int evaluateTick() {
+        now += 60_000;
+        int firing = 0;
+        for (int i = 0; i < instances.length; i++) {
+            firing += engine.evaluate(instances[i], samples[i], now, (rule, value, newlyFiring) -> { });
+        }
+        return firing;
+    }
+}
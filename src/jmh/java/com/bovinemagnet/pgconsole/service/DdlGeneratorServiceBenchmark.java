@@ -0,0 +1,79 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.MigrationScript;
+import com.bovinemagnet.pgconsole.model.ObjectDifference;
+import com.bovinemagnet.pgconsole.model.SchemaComparisonResult;
+import com.bovinemagnet.pgconsole.model.TableSchema;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks DDL generation over large schemas: per-table CREATE TABLE
+ * rendering and a full migration script for a schema missing every table.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class DdlGeneratorServiceBenchmark {
+
+    @Param({"500", "5000"})
+    int tableCount;
+
+    private DdlGeneratorService service;
+    private List<TableSchema> tables;
+    private SchemaComparisonResult comparison;
+
+    @Setup
+    public void setUp() {
+        service = new DdlGeneratorService();
+        tables = TestDataFactory.createSchema("public", tableCount, 12);
+
+        comparison = new SchemaComparisonResult();
+        comparison.setSuccess(true);
+        comparison.setSourceInstance("source");
+        comparison.setDestinationInstance("destination");
+        comparison.setSourceSchema("public");
+        comparison.setDestinationSchema("public");
+        for (TableSchema table : tables) {
+            comparison.addDifference(ObjectDifference.builder()
+                    .objectType(ObjectDifference.ObjectType.TABLE)
+                    .objectName(table.getTableName())
+                    .differenceType(ObjectDifference.DifferenceType.MISSING)
+                    .severity(ObjectDifference.Severity.INFO)
+                    .sourceDefinition(service.generateFullTableDdl(table, "public"))
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public void generateFullTableDdl(Blackhole bh) {
+        for (TableSchema table : tables) {
+            bh.consume(service.generateFullTableDdl(table, "public"));
+        }
+    }
+
+    @Benchmark
+    public MigrationScript generateMigrationScript() {
+        return service.generateMigrationScript(comparison, MigrationScript.WrapOption.SINGLE_TRANSACTION, false);
+    }
+}
@@ -0,0 +1,77 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.benchmark.BenchmarkFixtures;
+import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the in-memory metrics store: windowed reads over a full deque
+ * and appends at the per-deque cap.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class InMemoryMetricsStoreBenchmark {
+
+    private static final String INSTANCE = "bench";
+
+    @Param({"1000", "10000"})
+    int pointCount;
+
+    private InMemoryMetricsStore store;
+    private int counter;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = new InMemoryMetricsStore();
+        store.config = BenchmarkFixtures.instanceConfig(false);
+        random = new Random(BenchmarkFixtures.SEED);
+        Duration interval = Duration.ofSeconds(5);
+        for (SystemMetricsHistory m : TestDataFactory.createSystemMetricsSeries(pointCount,
+                BenchmarkFixtures.seriesStart(pointCount, interval), interval, BenchmarkFixtures.SEED)) {
+            store.addSystemMetrics(INSTANCE, m);
+        }
+    }
+
+    @Benchmark
+    public List<SystemMetricsHistory> readOneHour() {
+        return store.getSystemMetricsHistory(INSTANCE, 1);
+    }
+
+    @Benchmark
+    public List<SystemMetricsHistory> readFullWindow() {
+        return store.getSystemMetricsHistory(INSTANCE, 24);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int append() {
+        store.addSystemMetrics(INSTANCE, TestDataFactory.createSystemMetricsHistory(Instant.now(), counter++, random));
+        return store.getMetricsCount(INSTANCE);
+    }
+}
@@ -0,0 +1,76 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.benchmark.BenchmarkFixtures;
+import com.bovinemagnet.pgconsole.model.LiveChartHistoryPoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks live chart history reads (the Metrics History page) and the
+ * five-second sampler's append path.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LiveChartHistoryStoreBenchmark {
+
+    private static final String INSTANCE = "bench";
+
+    @Param({"720", "17280"})
+    int pointCount;
+
+    private LiveChartHistoryStore store;
+    private LiveChartHistoryPoint template;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        store = new LiveChartHistoryStore();
+        List<LiveChartHistoryPoint> points = BenchmarkFixtures.liveChartPoints(pointCount,
+                BenchmarkFixtures.seriesStart(pointCount, Duration.ofSeconds(5)), BenchmarkFixtures.SEED);
+        for (LiveChartHistoryPoint p : points) {
+            store.addPoint(INSTANCE, p);
+        }
+        template = points.get(points.size() - 1);
+    }
+
+    @Benchmark
+    public List<LiveChartHistoryPoint> readFifteenMinutes() {
+        return store.getHistory(INSTANCE, 15);
+    }
+
+    @Benchmark
+    public List<LiveChartHistoryPoint> readTwentyFourHours() {
+        return store.getHistory(INSTANCE, 24 * 60);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void append() {
+        store.addPoint(INSTANCE, new LiveChartHistoryPoint(Instant.now(),
+                template.getActive(), template.getIdle(), template.getIdleInTransaction(),
+                template.getCommits(), template.getRollbacks(),
+                template.getInserted(), template.getUpdated(), template.getDeleted(),
+                template.getBufferCacheHitRatio(), template.getIndexCacheHitRatio()));
+    }
+}
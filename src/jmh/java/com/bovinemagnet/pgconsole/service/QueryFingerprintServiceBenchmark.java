@@ -0,0 +1,69 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.benchmark.BenchmarkFixtures;
+import com.bovinemagnet.pgconsole.model.QueryFingerprint;
+import com.bovinemagnet.pgconsole.model.SlowQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks query normalisation, fingerprinting and grouping over an
+ * ORM-style corpus, as run by the slow queries page.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryFingerprintServiceBenchmark {
+
+    @Param({"500", "5000"})
+    int queryCount;
+
+    private QueryFingerprintService service;
+    private List<SlowQuery> queries;
+    private List<String> normalised;
+
+    @Setup
+    public void setUp() {
+        service = new QueryFingerprintService();
+        queries = BenchmarkFixtures.slowQueries(queryCount, BenchmarkFixtures.SEED);
+        normalised = queries.stream().map(q -> service.normaliseQuery(q.getQuery())).toList();
+    }
+
+    @Benchmark
+    public void normaliseQuery(Blackhole bh) {
+        for (SlowQuery q : queries) {
+            bh.consume(service.normaliseQuery(q.getQuery()));
+        }
+    }
+
+    @Benchmark
+    public void computeFingerprint(Blackhole bh) {
+        for (String n : normalised) {
+            bh.consume(service.computeFingerprint(n));
+        }
+    }
+
+    @Benchmark
+    public List<QueryFingerprint> groupQueriesSortedByTotalTime() {
+        return service.groupQueriesSortedByTotalTime(queries);
+    }
+}
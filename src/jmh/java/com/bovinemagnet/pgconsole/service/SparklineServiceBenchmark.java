@@ -0,0 +1,75 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.benchmark.BenchmarkFixtures;
+import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks SVG sparkline generation, both from raw value lists and through
+ * the in-memory history path used by the dashboard.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SparklineServiceBenchmark {
+
+    private static final String INSTANCE = "bench";
+
+    @Param({"100", "10000"})
+    int pointCount;
+
+    private SparklineService service;
+    private List<Double> values;
+
+    @Setup
+    public void setUp() {
+        InMemoryMetricsStore store = new InMemoryMetricsStore();
+        store.config = BenchmarkFixtures.instanceConfig(false);
+        Duration interval = Duration.ofSeconds(5);
+        for (SystemMetricsHistory m : TestDataFactory.createSystemMetricsSeries(pointCount,
+                BenchmarkFixtures.seriesStart(pointCount, interval), interval, BenchmarkFixtures.SEED)) {
+            store.addSystemMetrics(INSTANCE, m);
+        }
+
+        service = new SparklineService();
+        service.config = store.config;
+        service.inMemoryMetricsStore = store;
+        values = BenchmarkFixtures.series(pointCount, BenchmarkFixtures.SEED);
+    }
+
+    @Benchmark
+    public String generateSparkline() {
+        return service.generateSparkline(values, 120, 24, SparklineService.COLOUR_INFO);
+    }
+
+    @Benchmark
+    public String generateAreaSparkline() {
+        return service.generateAreaSparkline(values, 120, 24, SparklineService.COLOUR_PRIMARY);
+    }
+
+    @Benchmark
+    public String connectionsSparklineFromStore() {
+        return service.getConnectionsSparkline(INSTANCE, 24, 120, 24);
+    }
+}
@@ -0,0 +1,185 @@
+package com.bovinemagnet.pgconsole.cli;
+
+import com.bovinemagnet.pgconsole.repository.HistoryRepository.HistoryTable;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.IndexEntry;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchiveService;
+import jakarta.inject.Inject;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Set;
+import picocli.CommandLine.Command;
+import picocli.CommandLine.Option;
+
+/**
+ * CLI command to export stored history to a columnar archive, or import one.
+ * <p>
+ * The archive holds the {@code pgconsole} history tables in compressed,
+ * per-column chunks with a footer index by instance and time, so a week of
+ * history can be copied off a production console for offline analysis or
+ * used to seed another pg-console's history.
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * # Archive the last week of history for all instances
+ * pg-console history-archive -o history.pgch
+ *
+ * # Archive query history for one instance over a fixed range
+ * pg-console history-archive -i production --tables query \
+ *     --from 2026-01-01T00:00:00Z --to 2026-01-08T00:00:00Z -o prod-queries.pgch
+ *
+ * # List the chunks in an archive
+ * pg-console history-archive --list history.pgch
+ *
+ * # Import an archive, recording every row against the "staging" instance
+ * pg-console history-archive --import prod-queries.pgch --as-instance staging
+ * }</pre>
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchiveService
+ * @since 0.0.0
+ */
+@Command(name = "history-archive", description = "Export or import a columnar history archive and exit", mixinStandardHelpOptions = true)
+public class HistoryArchiveCommand implements Runnable {
+
+	/**
+	 * Instance whose history is exported.
+	 * <p>
+	 * If not specified, history for every instance is exported.
+	 */
+	@Option(names = { "-i", "--instance" }, description = "Instance to export (default: all instances)")
+	private String instance;
+
+	/**
+	 * Archive file to write when exporting.
+	 */
+	@Option(names = { "-o", "--output" }, description = "Archive file to write")
+	private String outputFile;
+
+	/**
+	 * Start of the exported range as an ISO-8601 instant.
+	 * <p>
+	 * Defaults to {@link #hours} before the end of the range.
+	 */
+	@Option(names = { "--from" }, description = "Start of range, ISO-8601 (default: --hours before --to)")
+	private String from;
+
+	/**
+	 * End of the exported range as an ISO-8601 instant. Defaults to now.
+	 */
+	@Option(names = { "--to" }, description = "End of range, ISO-8601 (default: now)")
+	private String to;
+
+	/**
+	 * Length of the exported range in hours when {@link #from} is not given.
+	 */
+	@Option(names = { "--hours" }, description = "Hours of history to export (default: 168)")
+	private int hours = 168;
+
+	/**
+	 * Comma-separated history tables to export.
+	 * <p>
+	 * Accepts {@code system}, {@code query}, {@code database} and
+	 * {@code infrastructure}. All tables are exported by default.
+	 */
+	@Option(names = { "--tables" }, description = "Tables to export: system, query, database, infrastructure (default: all)")
+	private String tables;
+
+	/**
+	 * Archive file to import instead of exporting.
+	 */
+	@Option(names = { "--import" }, description = "Import the given archive file")
+	private String importFile;
+
+	/**
+	 * Instance to record imported rows against.
+	 * <p>
+	 * If not specified, rows keep the instance recorded in the archive.
+	 */
+	@Option(names = { "--as-instance" }, description = "Record imported rows against this instance")
+	private String asInstance;
+
+	/**
+	 * Archive file whose index is listed instead of exporting.
+	 */
+	@Option(names = { "--list" }, description = "List the chunk index of the given archive file")
+	private String listFile;
+
+	/**
+	 * Service that reads and writes history archives.
+	 */
+	@Inject
+	HistoryArchiveService archiveService;
+
+	/**
+	 * Executes the export, import or listing.
+	 * <p>
+	 * The application exits with status code 0 on success or 1 on failure.
+	 * Error messages are written to stderr.
+	 */
+	@Override
+	public void run() {
+		try {
+			if (listFile != null) {
+				listIndex(Path.of(listFile));
+			} else if (importFile != null) {
+				importArchive(Path.of(importFile));
+			} else {
+				exportArchive();
+			}
+			System.exit(0);
+		} catch (Exception e) {
+			System.err.println("ERROR: " + e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	private void exportArchive() throws Exception {
+		if (outputFile == null || outputFile.isBlank()) {
+			throw new IllegalArgumentException("An output file is required (-o)");
+		}
+		Instant end = to != null ? Instant.parse(to) : Instant.now();
+		Instant start = from != null ? Instant.parse(from) : end.minus(hours, ChronoUnit.HOURS);
+		if (!start.isBefore(end)) {
+			throw new IllegalArgumentException("--from must be before --to");
+		}
+		Set<HistoryTable> selected = HistoryArchiveService.parseTables(tables);
+
+		HistoryArchiveService.Summary summary;
+		try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(outputFile)))) {
+			summary = archiveService.exportArchive(instance, start, end, selected, out);
+		}
+		System.out.printf("Archived %d rows in %d chunks (%d bytes) to: %s%n",
+			summary.totalRows(), summary.chunks(), Files.size(Path.of(outputFile)), outputFile);
+	}
+
+	private void importArchive(Path file) throws Exception {
+		HistoryArchiveService.Summary summary;
+		try (InputStream in = new BufferedInputStream(Files.newInputStream(file))) {
+			summary = archiveService.importArchive(in, asInstance);
+		}
+		System.out.printf("Imported %d rows from %d chunks%n", summary.totalRows(), summary.chunks());
+		summary.rowsByTable().forEach((table, rows) ->
+			System.out.printf("  %-16s %,d%n", table.getTableName(), rows));
+	}
+
+	private void listIndex(Path file) throws Exception {
+		List<IndexEntry> index = archiveService.readIndex(file);
+		System.out.printf("%-16s %-20s %-24s %-24s %8s %10s%n", "TABLE", "INSTANCE", "FROM", "TO", "ROWS", "BYTES");
+		for (IndexEntry entry : index) {
+			System.out.printf("%-16s %-20s %-24s %-24s %8d %10d%n",
+				entry.table().toLowerCase(), entry.instance(),
+				Instant.EPOCH.plus(entry.minMicros(), ChronoUnit.MICROS),
+				Instant.EPOCH.plus(entry.maxMicros(), ChronoUnit.MICROS),
+				entry.rows(), entry.length());
+		}
+		System.out.println(index.size() + " chunks");
+	}
+}
@@ -76,7 +76,7 @@ import picocli.CommandLine.Option;
 	mixinStandardHelpOptions = true,
 	version = "PG Console 1.0.0",
 	description = "PostgreSQL monitoring and performance analysis console",
-	subcommands = { HealthCheckCommand.class, ListInstancesCommand.class, InitSchemaCommand.class, ResetStatsCommand.class, ExportReportCommand.class, ExportConfigCommand.class, ValidateConfigCommand.class, GenerateCompletionCommand.class },
+	subcommands = { HealthCheckCommand.class, ListInstancesCommand.class, InitSchemaCommand.class, ResetStatsCommand.class, ExportReportCommand.class, HistoryArchiveCommand.class, ExportConfigCommand.class, ValidateConfigCommand.class, GenerateCompletionCommand.class },
 	footer = { "", "Configuration priority: CLI args > environment variables > application.properties", "", "For more information, visit: https://github.com/bovinemagnet/pg-console" }
 )
 public class PgConsoleCommand implements Runnable {
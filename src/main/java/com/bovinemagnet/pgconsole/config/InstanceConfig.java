@@ -168,6 +168,109 @@ public interface InstanceConfig {
 	 */
 	MetadataConfig metadata();
 
+	/**
+	 * Retrieves the PDF export configuration.
+	 * <p>
+	 * Bounds the worker threads, queue and memory used to render PDF exports
+	 * such as schema comparisons and runbook executions.
+	 *
+	 * @return the {@link PdfConfig} for PDF rendering limits
+	 * @see PdfConfig
+	 */
+	PdfConfig pdf();
+
+	/**
+	 * Retrieves the conditional GET configuration.
+	 * <p>
+	 * Controls the entity tags and last-modified times that let auto-refresh
+	 * and API clients revalidate unchanged responses cheaply.
+	 *
+	 * @return the {@link ConditionalGetConfig} for response validators
+	 * @see ConditionalGetConfig
+	 */
+	@WithName("conditional-get")
+	ConditionalGetConfig conditionalGet();
+
+	/**
+	 * Retrieves the relation catalogue snapshot configuration.
+	 * <p>
+	 * Controls how often the shared per-instance snapshot of table and index
+	 * statistics used by the analysis pages is refreshed.
+	 *
+	 * @return the {@link CatalogSnapshotConfig} for the catalogue snapshot
+	 * @see CatalogSnapshotConfig
+	 */
+	@WithName("catalog-snapshot")
+	CatalogSnapshotConfig catalogSnapshot();
+
+	/**
+	 * Retrieves the maintenance job configuration.
+	 * <p>
+	 * Bounds how many VACUUM, ANALYZE, REINDEX and CLUSTER jobs run at once
+	 * and sets the cost-based throttling they run with.
+	 *
+	 * @return the {@link MaintenanceJobsConfig} for maintenance jobs
+	 * @see MaintenanceJobsConfig
+	 */
+	@WithName("maintenance-jobs")
+	MaintenanceJobsConfig maintenanceJobs();
+
+	/**
+	 * Retrieves the cluster coordination configuration.
+	 * <p>
+	 * Lets several pg-console replicas share the metadata database without
+	 * running scheduled jobs twice.
+	 *
+	 * @return the {@link ClusterConfig} for replica coordination
+	 * @see ClusterConfig
+	 */
+	ClusterConfig cluster();
+
+	/**
+	 * Retrieves the metadata cache configuration.
+	 * <p>
+	 * Controls the in-memory copies of notification channels, escalation
+	 * policies and comparison profiles, which are kept coherent across
+	 * replicas by {@code LISTEN}/{@code NOTIFY}.
+	 *
+	 * @return the {@link MetadataCacheConfig} for cached metadata
+	 * @see MetadataCacheConfig
+	 */
+	MetadataCacheConfig metadataCache();
+
+	/**
+	 * Retrieves the runtime instance registry configuration.
+	 * <p>
+	 * Controls instances registered through the API rather than configured,
+	 * their per-workload-class connection pools and the cap on connections
+	 * open to them.
+	 *
+	 * @return the {@link RegistryConfig} for registered instances
+	 * @see RegistryConfig
+	 */
+	RegistryConfig registry();
+
+	/**
+	 * Retrieves the fleet fan-out configuration.
+	 * <p>
+	 * Controls how fleet-wide views query every instance concurrently.
+	 *
+	 * @return the {@link FleetConfig} for fleet views
+	 * @see FleetConfig
+	 */
+	FleetConfig fleet();
+
+	/**
+	 * Retrieves the unified recommendations configuration.
+	 * <p>
+	 * Controls how each recommendation source is collected and how long its
+	 * results are cached.
+	 *
+	 * @return the {@link RecommendationsConfig} for unified recommendations
+	 * @see RecommendationsConfig
+	 */
+	RecommendationsConfig recommendations();
+
 	/**
 	 * Configuration properties for an individual PostgreSQL instance.
 	 * <p>
@@ -274,6 +377,67 @@ public interface InstanceConfig {
 		@WithName("top-queries")
 		@WithDefault("50")
 		int topQueries();
+
+		/**
+		 * Retrieves the number of rows fetched per round trip when streaming exports
+		 * and history charts.
+		 * <p>
+		 * Exports and charts read through a server-side cursor, so the driver holds
+		 * at most this many rows at a time rather than the whole result. Larger
+		 * values reduce round trips at the cost of more memory per read.
+		 *
+		 * @return rows fetched per round trip (default: 1000)
+		 */
+		@WithName("export-fetch-size")
+		@WithDefault("1000")
+		int exportFetchSize();
+
+		/**
+		 * Retrieves the heavy-hitter statement tracking configuration.
+		 * <p>
+		 * Heavy hitters are ranked by what each statement did between two samples
+		 * rather than by cumulative totals, so briefly busy statements are kept.
+		 *
+		 * @return the {@link HeavyHittersConfig} for heavy-hitter tracking
+		 */
+		@WithName("heavy-hitters")
+		HeavyHittersConfig heavyHitters();
+
+		/**
+		 * Configuration for heavy-hitter statement tracking.
+		 * <p>
+		 * Example configuration:
+		 * <pre>{@code
+		 * pg-console.history.heavy-hitters.enabled=true
+		 * pg-console.history.heavy-hitters.top-k=20
+		 * }</pre>
+		 *
+		 * @author Paul Snow
+		 * @version 0.0.0
+		 * @since 0.0.0
+		 */
+		interface HeavyHittersConfig {
+			/**
+			 * Determines whether heavy-hitter statements are tracked.
+			 *
+			 * @return {@code true} if heavy hitters are tracked (default: {@code true})
+			 */
+			@WithDefault("true")
+			boolean enabled();
+
+			/**
+			 * Retrieves how many statements are kept per interval for each of
+			 * execution time, calls and I/O.
+			 * <p>
+			 * Higher values tighten the error bounds of window totals at the cost
+			 * of up to three times this many rows per instance and interval.
+			 *
+			 * @return statements kept per metric and interval (default: 20)
+			 */
+			@WithName("top-k")
+			@WithDefault("20")
+			int topK();
+		}
 	}
 
 	/**
@@ -407,198 +571,1140 @@ public interface InstanceConfig {
 	}
 
 	/**
-	 * Configuration for web interface security controls.
-	 * <p>
-	 * Controls authentication requirements for accessing the pg-console web interface.
-	 * When enabled, HTTP Basic authentication is enforced for all dashboard endpoints,
-	 * requiring users to provide credentials before viewing database metrics.
+	 * Configuration for PDF export rendering.
 	 * <p>
-	 * Authentication is implemented using Quarkus Security with credentials managed
-	 * through Quarkus's identity provider configuration (typically properties-based,
-	 * LDAP, or database authentication). By default, security is disabled for ease
-	 * of development, but should be enabled in production environments.
+	 * PDF exports are rendered by a small pool of background workers rather than on
+	 * the request thread. Each job reserves an estimate of its memory use, based on
+	 * the size of its HTML, from a shared budget; exports that would exceed the
+	 * queue or the budget are refused with {@code 503 Service Unavailable} instead of
+	 * exhausting the heap. Rendered documents are written to temporary files and
+	 * streamed to the client.
 	 * <p>
 	 * Example configuration:
 	 * <pre>{@code
-	 * # Enable HTTP Basic authentication
-	 * pg-console.security.enabled=true
-	 *
-	 * # Configure users (Quarkus Security)
-	 * quarkus.security.users.embedded.enabled=true
-	 * quarkus.security.users.embedded.plain-text=true
-	 * quarkus.security.users.embedded.users.admin=secretPassword
-	 * quarkus.security.users.embedded.roles.admin=admin
+	 * pg-console.pdf.workers=2
+	 * pg-console.pdf.queue-capacity=8
+	 * pg-console.pdf.memory-budget-mb=256
 	 * }</pre>
 	 *
 	 * @author Paul Snow
 	 * @version 0.0.0
 	 * @since 0.0.0
 	 */
-	interface SecurityConfig {
+	interface PdfConfig {
 		/**
-		 * Determines whether HTTP Basic authentication is required for web access.
+		 * Retrieves the number of threads rendering PDFs concurrently.
+		 *
+		 * @return worker thread count (default: 2)
+		 */
+		@WithDefault("2")
+		int workers();
+
+		/**
+		 * Retrieves the number of PDF jobs that may wait for a worker.
 		 * <p>
-		 * When {@code true}, all pg-console dashboard endpoints require valid credentials.
-		 * Unauthenticated requests receive a 401 Unauthorised response with a WWW-Authenticate
-		 * challenge, prompting the browser for credentials.
+		 * Further exports are refused until the queue drains.
+		 *
+		 * @return queued job limit (default: 8)
+		 */
+		@WithName("queue-capacity")
+		@WithDefault("8")
+		int queueCapacity();
+
+		/**
+		 * Retrieves the heap budget shared by queued and running PDF jobs.
 		 * <p>
-		 * When {@code false} (default), the web interface is accessible without authentication.
-		 * This is suitable for development environments or when pg-console is deployed behind
-		 * a reverse proxy or VPN that handles authentication.
+		 * A single document estimated to need more than the whole budget is still
+		 * rendered, but only when no other job holds any of it.
 		 *
-		 * @return {@code true} if authentication is required, {@code false} for open access (default: {@code false})
+		 * @return memory budget in megabytes (default: 256)
 		 */
-		@WithDefault("false")
-		boolean enabled();
+		@WithName("memory-budget-mb")
+		@WithDefault("256")
+		int memoryBudgetMb();
+
+		/**
+		 * Retrieves how long a synchronous PDF export waits for its document.
+		 * <p>
+		 * If rendering takes longer, the request returns {@code 202 Accepted} with
+		 * a job the client can poll, and rendering continues in the background.
+		 *
+		 * @return wait time in seconds (default: 30)
+		 */
+		@WithName("wait-seconds")
+		@WithDefault("30")
+		int waitSeconds();
+
+		/**
+		 * Retrieves how long a finished PDF is kept for download.
+		 *
+		 * @return retention in minutes (default: 10)
+		 */
+		@WithName("result-ttl-minutes")
+		@WithDefault("10")
+		int resultTtlMinutes();
 	}
 
 	/**
-	 * Configuration for automated alerting based on database health thresholds.
+	 * Configuration for conditional GET on versioned responses.
 	 * <p>
-	 * Enables proactive monitoring by automatically sending notifications when database
-	 * conditions exceed configured thresholds. Alerts can be delivered via webhooks
-	 * (e.g., Slack, Microsoft Teams, PagerDuty) or email, with configurable cooldown
-	 * periods to prevent alert fatigue.
+	 * Versioned dashboard fragments and API responses carry an {@code ETag} and
+	 * {@code Last-Modified} derived from the versions of the data they are built
+	 * from. A request whose {@code If-None-Match} or {@code If-Modified-Since}
+	 * still matches is answered with {@code 304 Not Modified} without querying
+	 * the database.
 	 * <p>
-	 * The alerting system monitors conditions such as:
-	 * <ul>
-	 *   <li>Connection pool exhaustion (percentage of maximum connections)</li>
-	 *   <li>Blocked query count (queries waiting on locks)</li>
-	 *   <li>Long-running queries exceeding time limits</li>
-	 *   <li>Low cache hit ratios indicating insufficient shared buffers</li>
-	 * </ul>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.conditional-get.enabled=true
+	 * pg-console.conditional-get.max-age-seconds=30
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface ConditionalGetConfig {
+		/**
+		 * Indicates whether versioned responses carry validators and honour
+		 * conditional requests.
+		 *
+		 * @return {@code true} if conditional GET is enabled (default: true)
+		 */
+		@WithDefault("true")
+		boolean enabled();
+
+		/**
+		 * Retrieves the longest time a validator stays current.
+		 * <p>
+		 * Bounds how stale a revalidated response can be when its data source
+		 * is not refreshed, for example with history sampling disabled.
+		 *
+		 * @return maximum validator age in seconds (default: 30)
+		 */
+		@WithName("max-age-seconds")
+		@WithDefault("30")
+		int maxAgeSeconds();
+	}
+
+	/**
+	 * Configuration for the shared relation catalogue snapshot.
 	 * <p>
-	 * Alerts are evaluated periodically by a scheduled background task. Each alert
-	 * type respects a cooldown period to avoid repeated notifications for the same
-	 * ongoing condition. Alert history is stored in the {@code pgconsole.alert_log}
-	 * table (when schema is enabled).
+	 * The index advisor, table maintenance and table analysis pages read table
+	 * and index statistics from one snapshot per instance rather than each
+	 * scanning {@code pg_stat_user_tables} and {@code pg_index} themselves. A
+	 * snapshot older than the refresh interval is still served while a
+	 * background refresh runs; the refresh first compares a cheap fingerprint
+	 * of the statistics and only reloads the snapshot when it has changed.
 	 * <p>
 	 * Example configuration:
 	 * <pre>{@code
-	 * # Enable alerting
-	 * pg-console.alerting.enabled=true
-	 *
-	 * # Slack webhook integration
-	 * pg-console.alerting.webhook-url=https://hooks.slack.com/services/T00/B00/XX
-	 *
-	 * # Email integration (requires Quarkus Mailer configuration)
-	 * pg-console.alerting.email-to=dba-team@example.com
-	 *
-	 * # Threshold configuration
-	 * pg-console.alerting.thresholds.connection-percent=85
-	 * pg-console.alerting.thresholds.blocked-queries=3
-	 * pg-console.alerting.thresholds.long-query-seconds=600
-	 * pg-console.alerting.thresholds.cache-hit-ratio=95
-	 *
-	 * # Alert cooldown (5 minutes)
-	 * pg-console.alerting.cooldown-seconds=300
+	 * pg-console.catalog-snapshot.enabled=true
+	 * pg-console.catalog-snapshot.refresh-interval-seconds=60
 	 * }</pre>
 	 *
 	 * @author Paul Snow
 	 * @version 0.0.0
-	 * @see ThresholdsConfig
 	 * @since 0.0.0
 	 */
-	interface AlertingConfig {
+	interface CatalogSnapshotConfig {
 		/**
-		 * Determines whether the alerting system is active.
-		 * <p>
-		 * When {@code true}, a scheduled background task periodically evaluates database
-		 * metrics against configured thresholds and sends notifications when conditions
-		 * are breached. When {@code false} (default), no alerts are generated regardless
-		 * of database conditions.
+		 * Indicates whether snapshots are cached between requests.
 		 * <p>
-		 * At least one delivery method ({@link #webhookUrl()} or {@link #emailTo()})
-		 * must be configured for alerts to be sent.
+		 * When disabled every request loads a fresh snapshot.
 		 *
-		 * @return {@code true} if alerting is enabled, {@code false} otherwise (default: {@code false})
+		 * @return {@code true} if snapshots are cached (default: true)
 		 */
-		@WithDefault("false")
+		@WithDefault("true")
 		boolean enabled();
 
 		/**
-		 * Retrieves the webhook URL for delivering alerts via HTTP POST.
-		 * <p>
-		 * When configured, alerts are sent as JSON POST requests to this URL. This
-		 * enables integration with platforms such as Slack (incoming webhooks),
-		 * Microsoft Teams (connectors), PagerDuty, or custom alerting systems.
-		 * <p>
-		 * The JSON payload includes alert metadata such as instance name, alert type,
-		 * severity, threshold values, current values, and timestamps. The exact schema
-		 * is designed to be compatible with common webhook receivers.
-		 * <p>
-		 * Example Slack webhook:
-		 * {@code https://hooks.slack.com/services/T00000000/B00000000/XXXXXXXXXXXX}
+		 * Retrieves the age after which a snapshot is refreshed in the background.
 		 *
-		 * @return optional webhook URL, or empty if webhook delivery is not configured
+		 * @return refresh interval in seconds (default: 60)
 		 */
-		@WithName("webhook-url")
-		Optional<String> webhookUrl();
+		@WithName("refresh-interval-seconds")
+		@WithDefault("60")
+		int refreshIntervalSeconds();
+	}
 
+	/**
+	 * Configuration for background maintenance jobs.
+	 * <p>
+	 * Maintenance commands are queued and run by a small pool of workers
+	 * rather than on the request thread. At most a set number of jobs run on
+	 * each instance at once, and jobs may wait for a maintenance window. Each
+	 * job runs with session-level {@code vacuum_cost_delay},
+	 * {@code vacuum_cost_limit} and {@code maintenance_work_mem} settings,
+	 * which a job may override, and its progress is read from the
+	 * {@code pg_stat_progress_*} views while it runs. With the schema enabled
+	 * the queue is stored in {@code pgconsole.maintenance_job} and survives a
+	 * restart.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.maintenance-jobs.workers=2
+	 * pg-console.maintenance-jobs.max-per-instance=1
+	 * pg-console.maintenance-jobs.cost-delay-ms=2
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface MaintenanceJobsConfig {
 		/**
-		 * Retrieves the email address for delivering alerts via SMTP.
-		 * <p>
-		 * When configured, alerts are sent as formatted emails to this address. Email
-		 * delivery requires Quarkus Mailer to be configured with SMTP settings in
-		 * {@code application.properties} (e.g., {@code quarkus.mailer.host},
-		 * {@code quarkus.mailer.username}, {@code quarkus.mailer.password}).
-		 * <p>
-		 * Alert emails include subject lines indicating severity and instance, with
-		 * HTML-formatted bodies containing detailed threshold breach information and
-		 * links to relevant pg-console dashboards.
-		 * <p>
-		 * Example configuration:
-		 * <pre>{@code
-		 * pg-console.alerting.email-to=database-alerts@example.com
-		 * quarkus.mailer.host=smtp.example.com
-		 * quarkus.mailer.port=587
-		 * quarkus.mailer.start-tls=REQUIRED
-		 * quarkus.mailer.username=alerts@example.com
-		 * quarkus.mailer.password=secret
-		 * }</pre>
+		 * Retrieves the number of maintenance jobs that may run at once across
+		 * all instances.
 		 *
-		 * @return optional email address, or empty if email delivery is not configured
+		 * @return worker thread count (default: 2)
 		 */
-		@WithName("email-to")
-		Optional<String> emailTo();
+		@WithDefault("2")
+		int workers();
 
 		/**
-		 * Retrieves the threshold configuration defining alert trigger conditions.
-		 * <p>
-		 * Thresholds determine when alerts are generated based on database metrics.
-		 * Each threshold type has a default value suitable for typical production
-		 * environments, but should be tuned based on specific database workloads
-		 * and operational requirements.
+		 * Retrieves the number of maintenance jobs that may run at once on one
+		 * instance. Each running job holds one connection from the instance's
+		 * pool.
 		 *
-		 * @return the {@link ThresholdsConfig} containing alert thresholds
-		 * @see ThresholdsConfig
+		 * @return running job limit per instance (default: 1)
 		 */
-		ThresholdsConfig thresholds();
+		@WithName("max-per-instance")
+		@WithDefault("1")
+		int maxPerInstance();
 
 		/**
-		 * Retrieves the minimum time between repeated alerts of the same type.
-		 * <p>
-		 * The cooldown period prevents alert storms when a database condition remains
-		 * breached over an extended period. After an alert is sent, subsequent alerts
-		 * of the same type (e.g., high connection usage on the same instance) are
-		 * suppressed until this duration elapses.
-		 * <p>
-		 * Cooldown tracking is per-alert-type and per-instance, allowing different
-		 * alert types to fire independently whilst preventing duplicate notifications
-		 * for ongoing conditions.
+		 * Retrieves the number of jobs that may wait to run.
 		 * <p>
-		 * Typical values:
-		 * <ul>
-		 *   <li>300 seconds (5 minutes) - default, suitable for most environments</li>
-		 *   <li>600 seconds (10 minutes) - for less critical alerts</li>
-		 *   <li>60 seconds (1 minute) - for critical production systems requiring rapid awareness</li>
-		 * </ul>
+		 * Further submissions are refused until the queue drains.
+		 *
+		 * @return queued job limit (default: 32)
+		 */
+		@WithName("queue-capacity")
+		@WithDefault("32")
+		int queueCapacity();
+
+		/**
+		 * Retrieves the default {@code vacuum_cost_delay} for VACUUM and ANALYZE
+		 * jobs. Manual VACUUM is unthrottled by default in PostgreSQL; a delay
+		 * makes it yield I/O to other sessions.
+		 *
+		 * @return cost delay in milliseconds, or 0 for none (default: 2)
+		 */
+		@WithName("cost-delay-ms")
+		@WithDefault("2")
+		int costDelayMs();
+
+		/**
+		 * Retrieves the default {@code vacuum_cost_limit}: the cost accumulated
+		 * before a throttled job sleeps.
+		 *
+		 * @return cost limit, or 0 for the server setting (default: 200)
+		 */
+		@WithName("cost-limit")
+		@WithDefault("200")
+		int costLimit();
+
+		/**
+		 * Retrieves the default {@code maintenance_work_mem} for jobs.
+		 *
+		 * @return memory in megabytes, or 0 for the server setting (default: 0)
+		 */
+		@WithName("maintenance-work-mem-mb")
+		@WithDefault("0")
+		int maintenanceWorkMemMb();
+
+		/**
+		 * Retrieves how often running jobs' progress is read and queued jobs are
+		 * reconsidered.
+		 *
+		 * @return poll interval in seconds (default: 2)
+		 */
+		@WithName("poll-interval-seconds")
+		@WithDefault("2")
+		int pollIntervalSeconds();
+
+		/**
+		 * Retrieves how long finished jobs are listed.
+		 *
+		 * @return retention in minutes (default: 60)
+		 */
+		@WithName("result-ttl-minutes")
+		@WithDefault("60")
+		int resultTtlMinutes();
+	}
+
+	/**
+	 * Configuration for running several pg-console replicas together.
+	 * <p>
+	 * Replicas sharing a metadata database register in
+	 * {@code pgconsole.cluster_member} and renew a heartbeat there. Jobs that
+	 * must run once, such as escalation, reports and retention cleanup, are
+	 * run by whichever replica holds the job's lease in
+	 * {@code pgconsole.cluster_lease}. Metrics sampling is sharded instead:
+	 * each monitored instance is sampled by one live replica, chosen by
+	 * consistent hashing, and instances move between replicas as they join
+	 * and leave. Coordination needs the schema to be enabled.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.cluster.enabled=true
+	 * pg-console.cluster.replica-id=console-a
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface ClusterConfig {
+		/**
+		 * Determines whether this replica coordinates with others through the
+		 * metadata database.
+		 * <p>
+		 * When disabled, the replica runs every scheduled job and samples every
+		 * instance, which suits a single replica.
+		 *
+		 * @return true if coordination is enabled (default: false)
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * Retrieves the replica's identifier, which must be unique among the
+		 * replicas and should be stable across restarts, such as a pod name.
+		 * <p>
+		 * If not specified, the host name and a random suffix are used.
+		 *
+		 * @return optional replica identifier
+		 */
+		@WithName("replica-id")
+		Optional<String> replicaId();
+
+		/**
+		 * Retrieves how often the replica renews its heartbeat and leases, and
+		 * rereads the live replicas.
+		 *
+		 * @return heartbeat interval in seconds (default: 10)
+		 */
+		@WithName("heartbeat-interval-seconds")
+		@WithDefault("10")
+		int heartbeatIntervalSeconds();
+
+		/**
+		 * Retrieves how long after its last heartbeat a replica is considered
+		 * gone, and its instances are sampled by the others.
+		 *
+		 * @return member timeout in seconds (default: 30)
+		 */
+		@WithName("member-timeout-seconds")
+		@WithDefault("30")
+		int memberTimeoutSeconds();
+
+		/**
+		 * Retrieves how long a job lease lasts without renewal. A replica that
+		 * stops renewing loses its jobs to another after this time.
+		 *
+		 * @return lease duration in seconds (default: 30)
+		 */
+		@WithName("lease-seconds")
+		@WithDefault("30")
+		int leaseSeconds();
+
+		/**
+		 * Retrieves the number of points each replica has on the hash ring.
+		 * More points spread instances more evenly.
+		 *
+		 * @return virtual nodes per replica (default: 128)
+		 */
+		@WithName("virtual-nodes")
+		@WithDefault("128")
+		int virtualNodes();
+	}
+
+	/**
+	 * Configuration for the in-memory metadata cache.
+	 * <p>
+	 * Notification channels, escalation policies and comparison profiles are
+	 * read on every alert dispatch, escalation check or comparison page, yet
+	 * change rarely. They are held in memory and reloaded after a change. Each
+	 * write sends a {@code NOTIFY} on the metadata database, and every replica
+	 * listens on a dedicated connection, so a change on one replica reaches the
+	 * others at once. While that connection is down, reads go to the database.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.metadata-cache.enabled=true
+	 * pg-console.metadata-cache.reconnect-seconds=5
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface MetadataCacheConfig {
+		/**
+		 * Determines whether metadata is cached in memory.
+		 * <p>
+		 * Caching also needs the schema to be enabled and a PostgreSQL metadata
+		 * database; otherwise every read goes to the database.
+		 *
+		 * @return true if caching is enabled (default: true)
+		 */
+		@WithDefault("true")
+		boolean enabled();
+
+		/**
+		 * Retrieves how long to wait before listening again after the
+		 * listening connection is lost.
+		 *
+		 * @return reconnect delay in seconds (default: 5)
+		 */
+		@WithName("reconnect-seconds")
+		@WithDefault("5")
+		int reconnectSeconds();
+	}
+
+	/**
+	 * Configuration for instances registered at runtime.
+	 * <p>
+	 * Instances can be registered and removed through the API without a
+	 * restart. They are stored in the metadata schema, so every replica
+	 * monitors them. Each has a connection pool that is built on first use,
+	 * closes its connections after they have been idle for the instance's
+	 * workload class idle time, and is itself closed once unused for
+	 * {@code pool-close-minutes}. Connections in use across all registered
+	 * instances are capped at {@code max-total-connections}; a caller over the
+	 * cap waits for a connection to be returned, and idle connections are
+	 * closed to make room.
+	 * <p>
+	 * The registry is off by default. Registering and removing instances
+	 * also needs security to be enabled, so that only admins can reach the
+	 * registry, and storing a password needs {@code credential-key}.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.registry.enabled=true
+	 * pg-console.registry.credential-key=${PG_CONSOLE_REGISTRY_CREDENTIAL_KEY}
+	 * pg-console.registry.max-total-connections=100
+	 * pg-console.registry.workload-class.standard.max-size=2
+	 * pg-console.registry.workload-class.standard.idle-seconds=30
+	 * pg-console.registry.workload-class.heavy.max-size=6
+	 * pg-console.registry.workload-class.heavy.idle-seconds=300
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface RegistryConfig {
+		/**
+		 * Determines whether instances can be registered at runtime.
+		 * <p>
+		 * The registry also needs the schema to be enabled, and registering
+		 * or removing instances needs security to be enabled.
+		 *
+		 * @return true if the registry is enabled (default: false)
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * Retrieves the key that registered instance passwords are
+		 * encrypted with before they are stored.
+		 * <p>
+		 * The key is the Base64 of 16, 24 or 32 random bytes, for example
+		 * from {@code openssl rand -base64 32}, and must be the same on
+		 * every replica. Without it, instances can only be registered
+		 * without a password.
+		 *
+		 * @return optional Base64 AES key, or empty if not configured
+		 */
+		@WithName("credential-key")
+		Optional<String> credentialKey();
+
+		/**
+		 * Retrieves the maximum number of connections in use at once across
+		 * all registered instances.
+		 *
+		 * @return connection cap (default: 100)
+		 */
+		@WithName("max-total-connections")
+		@WithDefault("100")
+		int maxTotalConnections();
+
+		/**
+		 * Retrieves how long a caller waits for a connection when the cap or
+		 * its instance's pool is exhausted.
+		 *
+		 * @return wait in seconds (default: 10)
+		 */
+		@WithName("acquisition-timeout-seconds")
+		@WithDefault("10")
+		int acquisitionTimeoutSeconds();
+
+		/**
+		 * Retrieves how long a pool may go unused before it is closed,
+		 * releasing its housekeeping thread. It is rebuilt on next use.
+		 *
+		 * @return idle time in minutes (default: 10)
+		 */
+		@WithName("pool-close-minutes")
+		@WithDefault("10")
+		int poolCloseMinutes();
+
+		/**
+		 * Retrieves how often each replica re-reads the registry to pick up
+		 * instances registered or removed on another replica.
+		 *
+		 * @return refresh interval in seconds (default: 10)
+		 */
+		@WithName("refresh-seconds")
+		@WithDefault("10")
+		int refreshSeconds();
+
+		/**
+		 * Retrieves the workload class of instances registered without one.
+		 *
+		 * @return workload class name (default: standard)
+		 */
+		@WithName("default-workload-class")
+		@WithDefault("standard")
+		String defaultWorkloadClass();
+
+		/**
+		 * Retrieves the pool settings of each workload class.
+		 * <p>
+		 * Classes are configured using the pattern
+		 * {@code pg-console.registry.workload-class.<name>.<property>}. An
+		 * instance whose class is not configured uses the defaults.
+		 *
+		 * @return pool settings keyed by class name
+		 * @see WorkloadClassConfig
+		 */
+		@WithName("workload-class")
+		Map<String, WorkloadClassConfig> workloadClasses();
+	}
+
+	/**
+	 * Connection pool settings for a workload class of registered instances.
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface WorkloadClassConfig {
+		/**
+		 * Retrieves the most connections one instance of this class may hold.
+		 *
+		 * @return maximum pool size (default: 2)
+		 */
+		@WithName("max-size")
+		@WithDefault("2")
+		int maxSize();
+
+		/**
+		 * Retrieves how long a connection may be idle before it is closed.
+		 * Pools keep no minimum, so an idle instance holds no connections.
+		 *
+		 * @return idle time in seconds (default: 30)
+		 */
+		@WithName("idle-seconds")
+		@WithDefault("30")
+		int idleSeconds();
+
+		/**
+		 * Retrieves how long a connection is kept before it is replaced.
+		 *
+		 * @return maximum lifetime in minutes (default: 30)
+		 */
+		@WithName("max-lifetime-minutes")
+		@WithDefault("30")
+		int maxLifetimeMinutes();
+	}
+
+	/**
+	 * Configuration for fleet-wide views.
+	 * <p>
+	 * The fleet overview, fleet top queries and instance comparison query
+	 * every instance at once on a shared pool of threads. An instance that
+	 * has not answered within {@code instance-timeout-seconds} of its query
+	 * starting is reported as timed out, and the others are still returned.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.fleet.parallelism=16
+	 * pg-console.fleet.instance-timeout-seconds=10
+	 * pg-console.fleet.request-timeout-seconds=30
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface FleetConfig {
+		/**
+		 * Retrieves how many instances are queried at once, across all
+		 * fleet requests.
+		 *
+		 * @return thread count (default: 16)
+		 */
+		@WithDefault("16")
+		int parallelism();
+
+		/**
+		 * Retrieves how long one instance may take to answer, from when its
+		 * query is submitted.
+		 *
+		 * @return deadline in seconds (default: 10)
+		 */
+		@WithName("instance-timeout-seconds")
+		@WithDefault("10")
+		int instanceTimeoutSeconds();
+
+		/**
+		 * Retrieves how long one fleet request waits for all instances.
+		 *
+		 * @return deadline in seconds (default: 30)
+		 */
+		@WithName("request-timeout-seconds")
+		@WithDefault("30")
+		int requestTimeoutSeconds();
+	}
+
+	/**
+	 * Configuration for unified recommendations.
+	 * <p>
+	 * The recommendation sources are collected concurrently on a pool of
+	 * {@code collector-threads} threads. Each source's result is cached per
+	 * instance: it is served as-is for {@code ttl-seconds}, then served while
+	 * a background refresh runs until it is {@code max-stale-seconds} old.
+	 * After that, or when nothing is cached, a request waits up to
+	 * {@code deadline-ms} for a fresh result.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * pg-console.recommendations.collector-threads=8
+	 * pg-console.recommendations.source.anomaly.ttl-seconds=60
+	 * pg-console.recommendations.source.anomaly.max-stale-seconds=300
+	 * pg-console.recommendations.source.anomaly.deadline-ms=5000
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface RecommendationsConfig {
+		/**
+		 * Retrieves how many sources are collected at once, across all
+		 * instances.
+		 *
+		 * @return thread count (default: 8)
+		 */
+		@WithName("collector-threads")
+		@WithDefault("8")
+		int collectorThreads();
+
+		/**
+		 * Retrieves the cache and deadline settings of each source.
+		 * <p>
+		 * Sources are configured using the pattern
+		 * {@code pg-console.recommendations.source.<name>.<property>}, where
+		 * the name is {@code index-advisor}, {@code table-maintenance},
+		 * {@code query-regression}, {@code anomaly} or {@code config-tuning}.
+		 * A source that is not configured uses the defaults.
+		 *
+		 * @return settings keyed by source name
+		 * @see RecommendationSourceConfig
+		 */
+		@WithName("source")
+		Map<String, RecommendationSourceConfig> sources();
+	}
+
+	/**
+	 * Cache and deadline settings for one recommendation source.
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface RecommendationSourceConfig {
+		/**
+		 * Retrieves how long a result is served without being refreshed.
+		 *
+		 * @return freshness period in seconds (default: 300)
+		 */
+		@WithName("ttl-seconds")
+		@WithDefault("300")
+		int ttlSeconds();
+
+		/**
+		 * Retrieves the age up to which a result is still served while it is
+		 * refreshed in the background.
+		 *
+		 * @return maximum age in seconds (default: 1800)
+		 */
+		@WithName("max-stale-seconds")
+		@WithDefault("1800")
+		int maxStaleSeconds();
+
+		/**
+		 * Retrieves how long a request waits for a fresh result.
+		 *
+		 * @return deadline in milliseconds (default: 10000)
+		 */
+		@WithName("deadline-ms")
+		@WithDefault("10000")
+		int deadlineMs();
+	}
+
+	/**
+	 * Configuration for web interface security controls.
+	 * <p>
+	 * Controls authentication requirements for accessing the pg-console web interface.
+	 * When enabled, HTTP Basic authentication is enforced for all dashboard endpoints,
+	 * requiring users to provide credentials before viewing database metrics.
+	 * <p>
+	 * Authentication is implemented using Quarkus Security with credentials managed
+	 * through Quarkus's identity provider configuration (typically properties-based,
+	 * LDAP, or database authentication). By default, security is disabled for ease
+	 * of development, but should be enabled in production environments.
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * # Enable HTTP Basic authentication
+	 * pg-console.security.enabled=true
+	 *
+	 * # Configure users (Quarkus Security)
+	 * quarkus.security.users.embedded.enabled=true
+	 * quarkus.security.users.embedded.plain-text=true
+	 * quarkus.security.users.embedded.users.admin=secretPassword
+	 * quarkus.security.users.embedded.roles.admin=admin
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface SecurityConfig {
+		/**
+		 * Determines whether HTTP Basic authentication is required for web access.
+		 * <p>
+		 * When {@code true}, all pg-console dashboard endpoints require valid credentials.
+		 * Unauthenticated requests receive a 401 Unauthorised response with a WWW-Authenticate
+		 * challenge, prompting the browser for credentials.
+		 * <p>
+		 * When {@code false} (default), the web interface is accessible without authentication.
+		 * This is suitable for development environments or when pg-console is deployed behind
+		 * a reverse proxy or VPN that handles authentication.
+		 *
+		 * @return {@code true} if authentication is required, {@code false} for open access (default: {@code false})
+		 */
+		@WithDefault("false")
+		boolean enabled();
+	}
+
+	/**
+	 * Configuration for automated alerting based on database health thresholds.
+	 * <p>
+	 * Enables proactive monitoring by automatically sending notifications when database
+	 * conditions exceed configured thresholds. Alerts can be delivered via webhooks
+	 * (e.g., Slack, Microsoft Teams, PagerDuty) or email, with configurable cooldown
+	 * periods to prevent alert fatigue.
+	 * <p>
+	 * The alerting system monitors conditions such as:
+	 * <ul>
+	 *   <li>Connection pool exhaustion (percentage of maximum connections)</li>
+	 *   <li>Blocked query count (queries waiting on locks)</li>
+	 *   <li>Long-running queries exceeding time limits</li>
+	 *   <li>Low cache hit ratios indicating insufficient shared buffers</li>
+	 * </ul>
+	 * <p>
+	 * Alerts are evaluated periodically by a scheduled background task. Each alert
+	 * type respects a cooldown period to avoid repeated notifications for the same
+	 * ongoing condition. Alert history is stored in the {@code pgconsole.alert_log}
+	 * table (when schema is enabled).
+	 * <p>
+	 * Example configuration:
+	 * <pre>{@code
+	 * # Enable alerting
+	 * pg-console.alerting.enabled=true
+	 *
+	 * # Slack webhook integration
+	 * pg-console.alerting.webhook-url=https://hooks.slack.com/services/T00/B00/XX
+	 *
+	 * # Email integration (requires Quarkus Mailer configuration)
+	 * pg-console.alerting.email-to=dba-team@example.com
+	 *
+	 * # Threshold configuration
+	 * pg-console.alerting.thresholds.connection-percent=85
+	 * pg-console.alerting.thresholds.blocked-queries=3
+	 * pg-console.alerting.thresholds.long-query-seconds=600
+	 * pg-console.alerting.thresholds.cache-hit-ratio=95
+	 *
+	 * # Alert cooldown (5 minutes)
+	 * pg-console.alerting.cooldown-seconds=300
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @see ThresholdsConfig
+	 * @since 0.0.0
+	 */
+	interface AlertingConfig {
+		/**
+		 * Determines whether the alerting system is active.
+		 * <p>
+		 * When {@code true}, a scheduled background task periodically evaluates database
+		 * metrics against configured thresholds and sends notifications when conditions
+		 * are breached. When {@code false} (default), no alerts are generated regardless
+		 * of database conditions.
+		 * <p>
+		 * At least one delivery method ({@link #webhookUrl()} or {@link #emailTo()})
+		 * must be configured for alerts to be sent.
+		 *
+		 * @return {@code true} if alerting is enabled, {@code false} otherwise (default: {@code false})
+		 */
+		@WithDefault("false")
+		boolean enabled();
+
+		/**
+		 * Retrieves the webhook URL for delivering alerts via HTTP POST.
+		 * <p>
+		 * When configured, alerts are sent as JSON POST requests to this URL. This
+		 * enables integration with platforms such as Slack (incoming webhooks),
+		 * Microsoft Teams (connectors), PagerDuty, or custom alerting systems.
+		 * <p>
+		 * The JSON payload includes alert metadata such as instance name, alert type,
+		 * severity, threshold values, current values, and timestamps. The exact schema
+		 * is designed to be compatible with common webhook receivers.
+		 * <p>
+		 * Example Slack webhook:
+		 * {@code https://hooks.slack.com/services/T00000000/B00000000/XXXXXXXXXXXX}
+		 *
+		 * @return optional webhook URL, or empty if webhook delivery is not configured
+		 */
+		@WithName("webhook-url")
+		Optional<String> webhookUrl();
+
+		/**
+		 * Retrieves the email address for delivering alerts via SMTP.
+		 * <p>
+		 * When configured, alerts are sent as formatted emails to this address. Email
+		 * delivery requires Quarkus Mailer to be configured with SMTP settings in
+		 * {@code application.properties} (e.g., {@code quarkus.mailer.host},
+		 * {@code quarkus.mailer.username}, {@code quarkus.mailer.password}).
+		 * <p>
+		 * Alert emails include subject lines indicating severity and instance, with
+		 * HTML-formatted bodies containing detailed threshold breach information and
+		 * links to relevant pg-console dashboards.
+		 * <p>
+		 * Example configuration:
+		 * <pre>{@code
+		 * pg-console.alerting.email-to=database-alerts@example.com
+		 * quarkus.mailer.host=smtp.example.com
+		 * quarkus.mailer.port=587
+		 * quarkus.mailer.start-tls=REQUIRED
+		 * quarkus.mailer.username=alerts@example.com
+		 * quarkus.mailer.password=secret
+		 * }</pre>
+		 *
+		 * @return optional email address, or empty if email delivery is not configured
+		 */
+		@WithName("email-to")
+		Optional<String> emailTo();
+
+		/**
+		 * Retrieves the threshold configuration defining alert trigger conditions.
+		 * <p>
+		 * Thresholds determine when alerts are generated based on database metrics.
+		 * Each threshold type has a default value suitable for typical production
+		 * environments, but should be tuned based on specific database workloads
+		 * and operational requirements.
+		 *
+		 * @return the {@link ThresholdsConfig} containing alert thresholds
+		 * @see ThresholdsConfig
+		 */
+		ThresholdsConfig thresholds();
+
+		/**
+		 * Retrieves the minimum time between repeated alerts of the same type.
+		 * <p>
+		 * The cooldown period prevents alert storms when a database condition remains
+		 * breached over an extended period. After an alert is sent, subsequent alerts
+		 * of the same type (e.g., high connection usage on the same instance) are
+		 * suppressed until this duration elapses.
+		 * <p>
+		 * Cooldown tracking is per-alert-type and per-instance, allowing different
+		 * alert types to fire independently whilst preventing duplicate notifications
+		 * for ongoing conditions.
+		 * <p>
+		 * Typical values:
+		 * <ul>
+		 *   <li>300 seconds (5 minutes) - default, suitable for most environments</li>
+		 *   <li>600 seconds (10 minutes) - for less critical alerts</li>
+		 *   <li>60 seconds (1 minute) - for critical production systems requiring rapid awareness</li>
+		 * </ul>
 		 *
 		 * @return cooldown period in seconds (default: 300)
 		 */
 		@WithName("cooldown-seconds")
 		@WithDefault("300")
 		int cooldownSeconds();
+
+		/**
+		 * Retrieves the notification channel rate limiter settings.
+		 * <p>
+		 * Each channel's hourly limit is still set per channel; these settings
+		 * only shape how that limit is applied.
+		 *
+		 * @return the {@link RateLimitConfig} for notification channels
+		 * @see RateLimitConfig
+		 */
+		@WithName("rate-limit")
+		RateLimitConfig rateLimit();
+
+		/**
+		 * Retrieves the notification delivery settings.
+		 * <p>
+		 * Sizes the per-channel delivery queues and the threads that drain
+		 * them, and controls retries and batched history writes.
+		 *
+		 * @return the {@link NotificationConfig} for notification delivery
+		 * @see NotificationConfig
+		 */
+		NotificationConfig notifications();
+
+		/**
+		 * Retrieves additional threshold rules, keyed by rule name.
+		 * <p>
+		 * These are evaluated alongside the built-in {@link #thresholds()} rules
+		 * against every metrics sample. Each rule names a metric, a comparator
+		 * and a threshold, and may require the threshold to stay breached for a
+		 * period before it fires.
+		 * <pre>{@code
+		 * pg-console.alerting.rules.long-transactions.metric=longest-transaction-seconds
+		 * pg-console.alerting.rules.long-transactions.threshold=1800
+		 * pg-console.alerting.rules.long-transactions.for-seconds=300
+		 * pg-console.alerting.rules.long-transactions.hysteresis=600
+		 * }</pre>
+		 *
+		 * @return rules keyed by name, empty by default
+		 * @see RuleConfig
+		 */
+		Map<String, RuleConfig> rules();
+	}
+
+	/**
+	 * Configuration for one additional alert rule.
+	 * <p>
+	 * The alert type reported for a rule is its name in upper case with
+	 * hyphens replaced by underscores, e.g. {@code long-transactions} becomes
+	 * {@code LONG_TRANSACTIONS}.
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface RuleConfig {
+		/**
+		 * Retrieves the metric the rule is evaluated against.
+		 * <p>
+		 * One of {@code connections-used}, {@code max-connections},
+		 * {@code connection-percent}, {@code active-queries},
+		 * {@code blocked-queries}, {@code idle-in-transaction},
+		 * {@code longest-query-seconds}, {@code longest-transaction-seconds},
+		 * {@code cache-hit-ratio}, {@code deadlock-count},
+		 * {@code deadlocks-per-hour}, {@code replication-lag-seconds},
+		 * {@code table-bloat-percent}, {@code xid-wraparound-percent} or
+		 * {@code query-mean-time-ms}.
+		 *
+		 * @return the metric name
+		 */
+		String metric();
+
+		/**
+		 * Retrieves the comparison between the metric and the threshold.
+		 *
+		 * @return one of {@code >=}, {@code >}, {@code <=} or {@code <} (default: {@code >=})
+		 */
+		@WithDefault(">=")
+		String comparator();
+
+		/**
+		 * Retrieves the threshold value.
+		 *
+		 * @return the threshold
+		 */
+		double threshold();
+
+		/**
+		 * Retrieves how long the threshold must stay breached before the rule fires.
+		 *
+		 * @return duration in seconds (default: 0, fire on the first breaching sample)
+		 */
+		@WithName("for-seconds")
+		@WithDefault("0")
+		int forSeconds();
+
+		/**
+		 * Retrieves how far the metric must recover past the threshold before
+		 * a firing rule clears.
+		 *
+		 * @return hysteresis in the metric's units (default: 0)
+		 */
+		@WithDefault("0")
+		double hysteresis();
+
+		/**
+		 * Retrieves the alert title.
+		 *
+		 * @return optional title; the rule name is used when empty
+		 */
+		Optional<String> title();
+	}
+
+	/**
+	 * Configuration for the per-channel notification rate limiter.
+	 * <p>
+	 * Each channel's {@code rate_limit_per_hour} is enforced as a token bucket
+	 * that refills at that rate. The burst size controls how many notifications
+	 * may be sent back to back before the refill rate applies; by default a
+	 * channel may use its whole hourly allowance at once, matching the previous
+	 * "N per hour" behaviour.
+	 * <p>
+	 * Optionally, each alert type can be given its own smaller bucket within a
+	 * channel, so a storm of one alert type cannot use up the channel's
+	 * allowance and hide other alerts.
+	 * <pre>{@code
+	 * # At most 10 notifications back to back, then the channel's hourly rate
+	 * pg-console.alerting.rate-limit.burst=10
+	 *
+	 * # At most 20 notifications per hour for any single alert type
+	 * pg-console.alerting.rate-limit.per-alert-type-per-hour=20
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface RateLimitConfig {
+		/**
+		 * Retrieves the maximum number of notifications a channel may send back to back.
+		 * <p>
+		 * Values greater than the channel's hourly limit are capped at that limit.
+		 *
+		 * @return burst size, or 0 to allow the channel's full hourly limit (default: 0)
+		 */
+		@WithDefault("0")
+		int burst();
+
+		/**
+		 * Retrieves the hourly limit applied to each alert type within a channel.
+		 *
+		 * @return per-alert-type limit per hour, or 0 to disable per-type buckets (default: 0)
+		 */
+		@WithName("per-alert-type-per-hour")
+		@WithDefault("0")
+		int perAlertTypePerHour();
+	}
+
+	/**
+	 * Configuration for asynchronous notification delivery.
+	 * <p>
+	 * Each channel has a queue of at most {@code queue-capacity} deliveries,
+	 * drained by one of {@code delivery-threads} shared threads at a time.
+	 * A failed send is retried up to {@code max-attempts} times in all, with
+	 * exponential backoff from {@code initial-backoff-ms} to
+	 * {@code max-backoff-ms}; the channel waits for the retry before sending
+	 * anything queued behind it. History rows are written in batches of
+	 * {@code history-batch-size}, or every {@code history-flush-interval-ms}.
+	 * On shutdown, queued deliveries have {@code shutdown-seconds} to be sent.
+	 * <pre>{@code
+	 * pg-console.alerting.notifications.queue-capacity=200
+	 * pg-console.alerting.notifications.delivery-threads=8
+	 * pg-console.alerting.notifications.max-attempts=3
+	 * }</pre>
+	 *
+	 * @author Paul Snow
+	 * @version 0.0.0
+	 * @since 0.0.0
+	 */
+	interface NotificationConfig {
+		/**
+		 * Retrieves how many deliveries may wait for one channel; further
+		 * deliveries to it fail fast.
+		 *
+		 * @return queue capacity per channel (default: 200)
+		 */
+		@WithName("queue-capacity")
+		@WithDefault("200")
+		int queueCapacity();
+
+		/**
+		 * Retrieves how many channels may send at once.
+		 *
+		 * @return thread count (default: 8)
+		 */
+		@WithName("delivery-threads")
+		@WithDefault("8")
+		int deliveryThreads();
+
+		/**
+		 * Retrieves how many times a delivery is attempted, including the first.
+		 *
+		 * @return attempts per delivery (default: 3)
+		 */
+		@WithName("max-attempts")
+		@WithDefault("3")
+		int maxAttempts();
+
+		/**
+		 * Retrieves the delay before the first retry, doubled for each further retry.
+		 *
+		 * @return delay in milliseconds (default: 1000)
+		 */
+		@WithName("initial-backoff-ms")
+		@WithDefault("1000")
+		int initialBackoffMs();
+
+		/**
+		 * Retrieves the longest delay between retries.
+		 *
+		 * @return delay in milliseconds (default: 30000)
+		 */
+		@WithName("max-backoff-ms")
+		@WithDefault("30000")
+		int maxBackoffMs();
+
+		/**
+		 * Retrieves how many pending history rows trigger an immediate write.
+		 *
+		 * @return batch size (default: 50)
+		 */
+		@WithName("history-batch-size")
+		@WithDefault("50")
+		int historyBatchSize();
+
+		/**
+		 * Retrieves how often pending history rows are written when the batch
+		 * size is not reached.
+		 *
+		 * @return interval in milliseconds (default: 2000)
+		 */
+		@WithName("history-flush-interval-ms")
+		@WithDefault("2000")
+		int historyFlushIntervalMs();
+
+		/**
+		 * Retrieves how long queued deliveries may still be sent on shutdown.
+		 * Deliveries not sent by then, and deliveries waiting for a retry,
+		 * complete as failed.
+		 *
+		 * @return grace period in seconds (default: 10)
+		 */
+		@WithName("shutdown-seconds")
+		@WithDefault("10")
+		int shutdownSeconds();
 	}
 
 	/**
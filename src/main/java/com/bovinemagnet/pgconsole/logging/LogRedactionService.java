@@ -50,24 +50,38 @@ public class LogRedactionService {
     private static final Pattern BASIC_AUTH_PATTERN =
         Pattern.compile("(Basic\\s+)([A-Za-z0-9+/]+=*)", Pattern.CASE_INSENSITIVE);
 
-    // PII patterns
-    private static final Pattern EMAIL_PATTERN =
-        Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
+    // PII patterns are shared with the single-pass engine
+    private static final Pattern EMAIL_PATTERN = RedactionEngine.EMAIL_PATTERN;
 
-    private static final Pattern PHONE_PATTERN =
-        Pattern.compile("\\b(\\+?[0-9]{1,3}[-.\\s]?)?\\(?[0-9]{3}\\)?[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}\\b");
+    private static final Pattern PHONE_PATTERN = RedactionEngine.PHONE_PATTERN;
 
-    private static final Pattern SSN_PATTERN =
-        Pattern.compile("\\b[0-9]{3}-[0-9]{2}-[0-9]{4}\\b");
+    private static final Pattern SSN_PATTERN = RedactionEngine.SSN_PATTERN;
 
-    private static final Pattern CREDIT_CARD_PATTERN =
-        Pattern.compile("\\b[0-9]{4}[-.\\s]?[0-9]{4}[-.\\s]?[0-9]{4}[-.\\s]?[0-9]{4}\\b");
+    private static final Pattern CREDIT_CARD_PATTERN = RedactionEngine.CREDIT_CARD_PATTERN;
 
     @Inject
     LoggingConfig loggingConfig;
 
+    /** Engine built for the current configuration; rebuilt if the configuration changes. */
+    private volatile EngineHolder engine;
+
+    /**
+     * Compiled engine together with the configuration it was built from.
+     */
+    private record EngineHolder(RedactionEngine engine, List<String> patterns, String replacement,
+                                boolean connectionStrings, boolean maskPii) {
+
+        boolean matches(List<String> patterns, String replacement, boolean connectionStrings, boolean maskPii) {
+            return this.patterns == patterns && this.replacement.equals(replacement)
+                    && this.connectionStrings == connectionStrings && this.maskPii == maskPii;
+        }
+    }
+
     /**
      * Redacts sensitive data from the given message.
+     * <p>
+     * Uses the single-pass {@link RedactionEngine}; messages with no trigger
+     * keyword or digit run are returned unchanged without allocating.
      *
      * @param message the message to redact
      * @return redacted message
@@ -81,6 +95,32 @@ public class LogRedactionService {
             return message;
         }
 
+        RedactionEngine current = engine();
+        if (current == null) {
+            return redactWithRegexChain(message);
+        }
+        return current.redact(message);
+    }
+
+    /**
+     * Redacts using one regular expression pass per rule.
+     * <p>
+     * This is the original implementation. It is kept as the fallback for
+     * custom patterns the engine cannot compile, and as the baseline the
+     * engine is benchmarked against.
+     *
+     * @param message the message to redact
+     * @return redacted message
+     */
+    String redactWithRegexChain(String message) {
+        if (message == null || message.isEmpty()) {
+            return message;
+        }
+
+        if (!loggingConfig.redactEnabled()) {
+            return message;
+        }
+
         String result = message;
 
         // Redact connection strings
@@ -108,6 +148,29 @@ public class LogRedactionService {
         return result;
     }
 
+    /**
+     * Returns the engine for the current configuration, building it on first
+     * use or when the configuration has changed.
+     *
+     * @return the engine, or null if the custom patterns cannot be compiled into one
+     */
+    private RedactionEngine engine() {
+        List<String> patterns = loggingConfig.redactPatterns();
+        String replacement = loggingConfig.redactReplacement();
+        boolean connectionStrings = loggingConfig.redactConnectionStrings();
+        boolean maskPii = loggingConfig.redactMaskPii();
+
+        EngineHolder holder = engine;
+        if (holder == null || !holder.matches(patterns, replacement, connectionStrings, maskPii)) {
+            RedactionEngine built = RedactionEngine.supports(patterns)
+                    ? new RedactionEngine(patterns, replacement, connectionStrings, maskPii)
+                    : null;
+            holder = new EngineHolder(built, patterns, replacement, connectionStrings, maskPii);
+            engine = holder;
+        }
+        return holder.engine();
+    }
+
     /**
      * Redacts sensitive values from a key-value pair.
      *
@@ -0,0 +1,775 @@
+package com.bovinemagnet.pgconsole.logging;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single-pass redaction engine used by {@link LogRedactionService}.
+ * <p>
+ * Instead of running one regular expression per rule over the whole message,
+ * the engine scans the message once with an Aho-Corasick automaton built over
+ * every trigger keyword (JSON keys, query parameter names, {@code password=},
+ * {@code ://}, {@code bearer}, {@code basic}, the configured custom patterns and
+ * {@code @} for e-mail addresses). While scanning it also tracks runs of digits
+ * and separators that could hold a phone, SSN or card number. Only at those
+ * candidate offsets does a specialised sub-matcher run, and the message is
+ * rebuilt once at the end. A message with no candidates is returned as-is
+ * without allocating.
+ * <p>
+ * Rules keep the precedence of the original regex chain: when two candidate
+ * replacements overlap, the one from the earlier rule wins, which also avoids
+ * re-redacting an already inserted replacement.
+ * <p>
+ * Keywords are matched ASCII case-insensitively, as the regex chain did. An
+ * engine cannot be built for custom patterns containing non-ASCII characters;
+ * {@link #supports(List)} lets the caller fall back to the regex chain.
+ * <p>
+ * Instances are immutable and thread-safe.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+final class RedactionEngine {
+
+    // Rule identifiers, in the precedence order of the original regex chain
+    private static final int RULE_JDBC_PASSWORD = 0;
+    private static final int RULE_URI_USERINFO = 1;
+    private static final int RULE_JSON = 2;
+    private static final int RULE_QUERY_PARAM = 3;
+    private static final int RULE_BEARER = 4;
+    private static final int RULE_BASIC = 5;
+    private static final int RULE_CUSTOM = 6;
+    private static final int RULE_EMAIL = 7;
+    private static final int RULE_DIGITS = 8;
+
+    private static final List<String> JSON_KEYS = List.of(
+        "password", "secret", "token", "key", "credential", "auth", "apikey", "api_key", "bearer", "jwt");
+
+    private static final List<String> QUERY_PARAM_KEYS = List.of("password", "secret", "token", "key", "auth");
+
+    /** Minimum digits a run needs before any of the phone, SSN or card patterns can match. */
+    private static final int MIN_PII_DIGITS = 9;
+
+    // PII patterns, applied only inside candidate windows
+    static final Pattern EMAIL_PATTERN =
+        Pattern.compile("\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b");
+
+    static final Pattern PHONE_PATTERN =
+        Pattern.compile("\\b(\\+?[0-9]{1,3}[-.\\s]?)?\\(?[0-9]{3}\\)?[-.\\s]?[0-9]{3}[-.\\s]?[0-9]{4}\\b");
+
+    static final Pattern SSN_PATTERN =
+        Pattern.compile("\\b[0-9]{3}-[0-9]{2}-[0-9]{4}\\b");
+
+    static final Pattern CREDIT_CARD_PATTERN =
+        Pattern.compile("\\b[0-9]{4}[-.\\s]?[0-9]{4}[-.\\s]?[0-9]{4}[-.\\s]?[0-9]{4}\\b");
+
+    private final String replacement;
+    private final boolean maskPii;
+    private final Automaton automaton;
+
+    /**
+     * A replacement of {@code [start, end)} with {@code text}. The rule matched
+     * {@code [matchStart, end)}; the prefix before {@code start} (a keyword,
+     * separator or scheme) is kept.
+     */
+    private record Span(int matchStart, int start, int end, String text, int rule) {
+
+        Span(int start, int end, String text, int rule) {
+            this(start, start, end, text, rule);
+        }
+    }
+
+    /**
+     * Builds an engine for the given configuration.
+     *
+     * @param customPatterns          literal key names from {@code redact.patterns}
+     * @param replacement             replacement text for redacted values
+     * @param redactConnectionStrings whether JDBC passwords and URI userinfo are redacted
+     * @param maskPii                 whether e-mail, phone, SSN and card numbers are masked
+     */
+    RedactionEngine(List<String> customPatterns, String replacement,
+                    boolean redactConnectionStrings, boolean maskPii) {
+        this.replacement = replacement;
+        this.maskPii = maskPii;
+
+        // keyword -> bitmask of rules it triggers
+        Map<String, Integer> keywords = new LinkedHashMap<>();
+        if (redactConnectionStrings) {
+            keywords.merge("password=", 1 << RULE_JDBC_PASSWORD, (a, b) -> a | b);
+            keywords.merge("://", 1 << RULE_URI_USERINFO, (a, b) -> a | b);
+        }
+        for (String key : JSON_KEYS) {
+            keywords.merge(key, 1 << RULE_JSON, (a, b) -> a | b);
+        }
+        for (String key : QUERY_PARAM_KEYS) {
+            keywords.merge(key, 1 << RULE_QUERY_PARAM, (a, b) -> a | b);
+        }
+        keywords.merge("bearer", 1 << RULE_BEARER, (a, b) -> a | b);
+        keywords.merge("basic", 1 << RULE_BASIC, (a, b) -> a | b);
+        for (String pattern : customPatterns) {
+            if (pattern != null && !pattern.isEmpty()) {
+                keywords.merge(toLowerAscii(pattern), 1 << RULE_CUSTOM, (a, b) -> a | b);
+            }
+        }
+        if (maskPii) {
+            keywords.merge("@", 1 << RULE_EMAIL, (a, b) -> a | b);
+        }
+        this.automaton = new Automaton(keywords);
+    }
+
+    /**
+     * Checks whether an engine can be built for the given custom patterns.
+     *
+     * @param customPatterns literal key names from {@code redact.patterns}
+     * @return false if any pattern contains a non-ASCII character
+     */
+    static boolean supports(List<String> customPatterns) {
+        for (String pattern : customPatterns) {
+            if (pattern == null) {
+                continue;
+            }
+            for (int i = 0; i < pattern.length(); i++) {
+                if (pattern.charAt(i) >= 128) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Redacts a message in a single scan.
+     *
+     * @param message the message to redact (not null)
+     * @return the redacted message, or the same instance if nothing matched
+     */
+    String redact(String message) {
+        int length = message.length();
+        List<Span> candidates = null;
+        List<int[]> digitRuns = null;
+
+        int state = 0;
+        int runStart = -1;
+        int runDigits = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = message.charAt(i);
+
+            state = automaton.next(state, c);
+            int[] hits = automaton.output[state];
+            if (hits != null) {
+                for (int keyword : hits) {
+                    int end = i + 1;
+                    int start = end - automaton.lengths[keyword];
+                    candidates = matchKeyword(message, start, end, automaton.rules[keyword], candidates);
+                }
+            }
+
+            if (maskPii) {
+                if (isPhoneChar(c)) {
+                    if (runStart < 0) {
+                        runStart = i;
+                        runDigits = 0;
+                    }
+                    if (c >= '0' && c <= '9') {
+                        runDigits++;
+                    }
+                } else if (runStart >= 0) {
+                    if (runDigits >= MIN_PII_DIGITS) {
+                        digitRuns = addRun(digitRuns, runStart, i);
+                    }
+                    runStart = -1;
+                }
+            }
+        }
+        if (runStart >= 0 && runDigits >= MIN_PII_DIGITS) {
+            digitRuns = addRun(digitRuns, runStart, length);
+        }
+
+        // Fast path: no trigger anywhere in the message
+        if (candidates == null && digitRuns == null) {
+            return message;
+        }
+
+        List<Span> accepted = resolve(candidates);
+        if (digitRuns != null) {
+            accepted = addDigitSpans(message, digitRuns, accepted);
+        }
+        if (accepted.isEmpty()) {
+            return message;
+        }
+
+        StringBuilder sb = new StringBuilder(length + accepted.size() * replacement.length());
+        int pos = 0;
+        for (Span span : accepted) {
+            sb.append(message, pos, span.start()).append(span.text());
+            pos = span.end();
+        }
+        sb.append(message, pos, length);
+        return sb.toString();
+    }
+
+    // --- Keyword sub-matchers ---
+
+    /**
+     * Runs the sub-matchers for every rule triggered by a keyword occurrence.
+     */
+    private List<Span> matchKeyword(String s, int start, int end, int ruleMask, List<Span> candidates) {
+        for (int rule = 0; rule <= RULE_EMAIL; rule++) {
+            if ((ruleMask & (1 << rule)) == 0) {
+                continue;
+            }
+            Span span = switch (rule) {
+                case RULE_JDBC_PASSWORD -> matchJdbcPassword(s, end);
+                case RULE_URI_USERINFO -> matchUriUserinfo(s, start, end);
+                case RULE_JSON -> matchJson(s, start, end);
+                case RULE_QUERY_PARAM -> matchQueryParam(s, start, end);
+                case RULE_BEARER -> matchAuthToken(s, start, end, RULE_BEARER);
+                case RULE_BASIC -> matchAuthToken(s, start, end, RULE_BASIC);
+                case RULE_CUSTOM -> matchCustom(s, start, end);
+                case RULE_EMAIL -> matchEmail(s, start);
+                default -> null;
+            };
+            if (span != null) {
+                if (candidates == null) {
+                    candidates = new ArrayList<>();
+                }
+                candidates.add(span);
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * {@code password=VALUE} where VALUE runs to {@code & ; } or whitespace.
+     */
+    private Span matchJdbcPassword(String s, int valueStart) {
+        int i = valueStart;
+        while (i < s.length() && s.charAt(i) != '&' && s.charAt(i) != ';' && !isRegexSpace(s.charAt(i))) {
+            i++;
+        }
+        return i > valueStart ? new Span(valueStart - 9, valueStart, i, replacement, RULE_JDBC_PASSWORD) : null;
+    }
+
+    /**
+     * {@code scheme://user:PASSWORD@}, keeping the scheme and user.
+     */
+    private Span matchUriUserinfo(String s, int start, int end) {
+        // A scheme is [a-zA-Z][a-zA-Z0-9+.-]* immediately before "://"
+        int schemeStart = -1;
+        for (int i = start - 1; i >= 0 && isSchemeChar(s.charAt(i)); i--) {
+            if (isAsciiLetter(s.charAt(i))) {
+                schemeStart = i;
+            }
+        }
+        if (schemeStart < 0) {
+            return null;
+        }
+
+        int i = end;
+        while (i < s.length() && !isUserStop(s.charAt(i)) && s.charAt(i) != ':') {
+            i++;
+        }
+        if (i == end || i >= s.length() || s.charAt(i) != ':') {
+            return null;
+        }
+        int passwordStart = ++i;
+        while (i < s.length() && !isUserStop(s.charAt(i))) {
+            i++;
+        }
+        if (i == passwordStart || i >= s.length() || s.charAt(i) != '@') {
+            return null;
+        }
+        return new Span(schemeStart, passwordStart, i + 1, replacement + "@", RULE_URI_USERINFO);
+    }
+
+    /**
+     * {@code "key"\s*:\s*"VALUE"}, rewritten as {@code "key": "REPLACEMENT"}.
+     */
+    private Span matchJson(String s, int start, int end) {
+        if (start == 0 || s.charAt(start - 1) != '"' || end >= s.length() || s.charAt(end) != '"') {
+            return null;
+        }
+        int i = skipSpaces(s, end + 1);
+        if (i >= s.length() || s.charAt(i) != ':') {
+            return null;
+        }
+        i = skipSpaces(s, i + 1);
+        if (i >= s.length() || s.charAt(i) != '"') {
+            return null;
+        }
+        int valueStart = ++i;
+        while (i < s.length() && s.charAt(i) != '"') {
+            i++;
+        }
+        if (i == valueStart || i >= s.length()) {
+            return null;
+        }
+        String text = "\"" + s.substring(start, end) + "\": \"" + replacement + "\"";
+        return new Span(start - 1, i + 1, text, RULE_JSON);
+    }
+
+    /**
+     * {@code [?&]key=VALUE} where VALUE runs to {@code &} or whitespace.
+     */
+    private Span matchQueryParam(String s, int start, int end) {
+        if (start == 0 || (s.charAt(start - 1) != '?' && s.charAt(start - 1) != '&')
+                || end >= s.length() || s.charAt(end) != '=') {
+            return null;
+        }
+        int valueStart = end + 1;
+        int i = valueStart;
+        while (i < s.length() && s.charAt(i) != '&' && !isRegexSpace(s.charAt(i))) {
+            i++;
+        }
+        return i > valueStart ? new Span(start - 1, valueStart, i, replacement, RULE_QUERY_PARAM) : null;
+    }
+
+    /**
+     * {@code Bearer\s+TOKEN} or {@code Basic\s+TOKEN}, with optional {@code =} padding.
+     */
+    private Span matchAuthToken(String s, int start, int end, int rule) {
+        int i = end;
+        while (i < s.length() && isRegexSpace(s.charAt(i))) {
+            i++;
+        }
+        if (i == end) {
+            return null;
+        }
+        int tokenStart = i;
+        while (i < s.length() && (rule == RULE_BEARER ? isBearerChar(s.charAt(i)) : isBasicChar(s.charAt(i)))) {
+            i++;
+        }
+        if (i == tokenStart) {
+            return null;
+        }
+        while (i < s.length() && s.charAt(i) == '=') {
+            i++;
+        }
+        return new Span(start, tokenStart, i, replacement, rule);
+    }
+
+    /**
+     * {@code pattern["']?\s*[=:]\s*["']?VALUE} where VALUE excludes quotes,
+     * whitespace and {@code , ; } { ]}.
+     */
+    private Span matchCustom(String s, int start, int end) {
+        int i = end;
+        if (i < s.length() && isQuote(s.charAt(i))) {
+            i++;
+        }
+        i = skipSpaces(s, i);
+        if (i >= s.length() || (s.charAt(i) != '=' && s.charAt(i) != ':')) {
+            return null;
+        }
+        i = skipSpaces(s, i + 1);
+        if (i < s.length() && isQuote(s.charAt(i))) {
+            i++;
+        }
+        int valueStart = i;
+        while (i < s.length() && isCustomValueChar(s.charAt(i))) {
+            i++;
+        }
+        return i > valueStart ? new Span(start, valueStart, i, replacement, RULE_CUSTOM) : null;
+    }
+
+    /**
+     * E-mail address around an {@code @}, masked as {@code [email]@domain}.
+     */
+    private Span matchEmail(String s, int at) {
+        int from = at;
+        while (from > 0 && isEmailLocalChar(s.charAt(from - 1))) {
+            from--;
+        }
+        int to = at + 1;
+        while (to < s.length() && isEmailDomainChar(s.charAt(to))) {
+            to++;
+        }
+        if (from == at || to == at + 1) {
+            return null;
+        }
+        Matcher m = EMAIL_PATTERN.matcher(s).region(from, to).useTransparentBounds(true);
+        while (m.find()) {
+            if (m.start() <= at && m.end() > at) {
+                String email = m.group();
+                String domain = email.substring(email.indexOf('@') + 1);
+                return new Span(m.start(), m.end(), "[email]@" + domain, RULE_EMAIL);
+            }
+        }
+        return null;
+    }
+
+    // --- Digit-based PII ---
+
+    /**
+     * Masks phone, SSN and card numbers inside runs of digits and separators,
+     * skipping the parts of each run already covered by an accepted span.
+     */
+    private List<Span> addDigitSpans(String s, List<int[]> runs, List<Span> accepted) {
+        List<Span> digitSpans = new ArrayList<>();
+        for (int[] run : runs) {
+            int segmentStart = run[0];
+            for (Span span : accepted) {
+                if (span.end() <= segmentStart || span.start() >= run[1]) {
+                    continue;
+                }
+                maskDigitSegment(s, segmentStart, span.start(), accepted, digitSpans);
+                segmentStart = Math.max(segmentStart, span.end());
+            }
+            maskDigitSegment(s, segmentStart, run[1], accepted, digitSpans);
+        }
+        if (digitSpans.isEmpty()) {
+            return accepted;
+        }
+        List<Span> merged = new ArrayList<>(accepted);
+        merged.addAll(digitSpans);
+        merged.sort((a, b) -> Integer.compare(a.start(), b.start()));
+        return merged;
+    }
+
+    /**
+     * Applies the phone, SSN and card patterns, in that order, to one segment.
+     * <p>
+     * The characters either side of the segment (as they will appear in the
+     * output) are included as context so that {@code \b} behaves as it does
+     * on the full message, then stripped again.
+     */
+    private void maskDigitSegment(String s, int start, int end, List<Span> accepted, List<Span> out) {
+        if (end <= start || countDigits(s, start, end) < MIN_PII_DIGITS) {
+            return;
+        }
+        char before = outputCharBefore(s, start, accepted);
+        char after = outputCharAfter(s, end, accepted);
+        StringBuilder window = new StringBuilder(end - start + 2);
+        if (before != 0) {
+            window.append(before);
+        }
+        window.append(s, start, end);
+        if (after != 0) {
+            window.append(after);
+        }
+
+        String original = window.toString();
+        String masked = maskPhone(original);
+        masked = SSN_PATTERN.matcher(masked).replaceAll("***-**-****");
+        masked = maskCreditCard(masked);
+        if (masked.equals(original)) {
+            return;
+        }
+        String text = masked.substring(before != 0 ? 1 : 0, masked.length() - (after != 0 ? 1 : 0));
+        out.add(new Span(start, end, text, RULE_DIGITS));
+    }
+
+    /**
+     * Masks phone numbers, keeping the last four digits.
+     */
+    static String maskPhone(String text) {
+        Matcher phoneMatcher = PHONE_PATTERN.matcher(text);
+        StringBuilder sb = null;
+        while (phoneMatcher.find()) {
+            if (sb == null) {
+                sb = new StringBuilder(text.length());
+            }
+            String phone = phoneMatcher.group();
+            String masked = "***-***-" + phone.substring(Math.max(0, phone.length() - 4));
+            phoneMatcher.appendReplacement(sb, masked);
+        }
+        if (sb == null) {
+            return text;
+        }
+        phoneMatcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    /**
+     * Masks card numbers, keeping the last four digits.
+     */
+    static String maskCreditCard(String text) {
+        Matcher ccMatcher = CREDIT_CARD_PATTERN.matcher(text);
+        StringBuilder sb = null;
+        while (ccMatcher.find()) {
+            if (sb == null) {
+                sb = new StringBuilder(text.length());
+            }
+            String cc = ccMatcher.group();
+            String masked = "****-****-****-" + cc.substring(Math.max(0, cc.length() - 4));
+            ccMatcher.appendReplacement(sb, masked);
+        }
+        if (sb == null) {
+            return text;
+        }
+        ccMatcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private static char outputCharBefore(String s, int pos, List<Span> accepted) {
+        if (pos == 0) {
+            return 0;
+        }
+        for (Span span : accepted) {
+            if (span.end() == pos && !span.text().isEmpty()) {
+                return span.text().charAt(span.text().length() - 1);
+            }
+        }
+        return s.charAt(pos - 1);
+    }
+
+    private static char outputCharAfter(String s, int pos, List<Span> accepted) {
+        if (pos >= s.length()) {
+            return 0;
+        }
+        for (Span span : accepted) {
+            if (span.start() == pos && !span.text().isEmpty()) {
+                return span.text().charAt(0);
+            }
+        }
+        return s.charAt(pos);
+    }
+
+    // --- Overlap resolution ---
+
+    /**
+     * Keeps non-overlapping candidates, preferring earlier rules, then earlier offsets.
+     * <p>
+     * Within one rule a candidate must not overlap an earlier match at all, as
+     * a regex scan would have consumed it. Across rules only the replaced part
+     * of the earlier match counts, because later passes of the chain still saw
+     * the kept prefix.
+     *
+     * @return accepted spans ordered by start offset
+     */
+    private static List<Span> resolve(List<Span> candidates) {
+        if (candidates == null) {
+            return new ArrayList<>();
+        }
+        Span[] ordered = candidates.toArray(new Span[0]);
+        Arrays.sort(ordered, (a, b) -> a.rule() != b.rule()
+                ? Integer.compare(a.rule(), b.rule())
+                : Integer.compare(a.matchStart(), b.matchStart()));
+
+        List<Span> accepted = new ArrayList<>(ordered.length);
+        for (Span candidate : ordered) {
+            boolean overlaps = false;
+            for (Span kept : accepted) {
+                int keptStart = kept.rule() == candidate.rule() ? kept.matchStart() : kept.start();
+                if (candidate.matchStart() < kept.end() && keptStart < candidate.end()) {
+                    overlaps = true;
+                    break;
+                }
+            }
+            if (!overlaps) {
+                accepted.add(candidate);
+            }
+        }
+        accepted.sort((a, b) -> Integer.compare(a.start(), b.start()));
+        return accepted;
+    }
+
+    // --- Character classes ---
+
+    private static List<int[]> addRun(List<int[]> runs, int start, int end) {
+        if (runs == null) {
+            runs = new ArrayList<>();
+        }
+        runs.add(new int[]{start, end});
+        return runs;
+    }
+
+    private static int countDigits(String s, int start, int end) {
+        int digits = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits++;
+            }
+        }
+        return digits;
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && isRegexSpace(s.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    /** Matches the regex {@code \s} class: {@code [ \t\n\x0B\f\r]}. */
+    private static boolean isRegexSpace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isAsciiDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isSchemeChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '+' || c == '.' || c == '-';
+    }
+
+    private static boolean isUserStop(char c) {
+        return c == '@' || c == '/' || isRegexSpace(c);
+    }
+
+    private static boolean isBearerChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '-' || c == '_' || c == '.' || c == '~'
+                || c == '+' || c == '/';
+    }
+
+    private static boolean isBasicChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '+' || c == '/';
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '"' || c == '\'';
+    }
+
+    private static boolean isCustomValueChar(char c) {
+        return !isQuote(c) && !isRegexSpace(c) && c != ',' && c != ';' && c != '}' && c != '{' && c != ']';
+    }
+
+    private static boolean isEmailLocalChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isEmailDomainChar(char c) {
+        return isAsciiLetter(c) || isAsciiDigit(c) || c == '.' || c == '-' || c == '|';
+    }
+
+    /** Characters that can appear inside a phone, SSN or card number. */
+    private static boolean isPhoneChar(char c) {
+        return isAsciiDigit(c) || c == '-' || c == '.' || c == '(' || c == ')' || c == '+' || isRegexSpace(c);
+    }
+
+    private static String toLowerAscii(String s) {
+        char[] chars = s.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            if (chars[i] >= 'A' && chars[i] <= 'Z') {
+                chars[i] = (char) (chars[i] + 32);
+            }
+        }
+        return new String(chars);
+    }
+
+    // --- Aho-Corasick automaton ---
+
+    /**
+     * Aho-Corasick automaton over ASCII keywords, compiled to a dense DFA.
+     * <p>
+     * Input is folded to lower case on the fly; non-ASCII input characters
+     * reset to the root since no keyword contains them.
+     */
+    private static final class Automaton {
+
+        private static final int ALPHABET = 128;
+
+        /** Transition table: {@code delta[state * ALPHABET + c]}. */
+        private final int[] delta;
+
+        /** Keyword ids ending at each state (including via failure links), or null. */
+        final int[][] output;
+
+        /** Length of each keyword. */
+        final int[] lengths;
+
+        /** Rule bitmask of each keyword. */
+        final int[] rules;
+
+        Automaton(Map<String, Integer> keywords) {
+            lengths = new int[keywords.size()];
+            rules = new int[keywords.size()];
+
+            // Build the trie
+            List<int[]> children = new ArrayList<>();
+            List<List<Integer>> outputs = new ArrayList<>();
+            children.add(newNode());
+            outputs.add(new ArrayList<>());
+
+            int id = 0;
+            for (Map.Entry<String, Integer> entry : keywords.entrySet()) {
+                String keyword = entry.getKey();
+                int state = 0;
+                for (int i = 0; i < keyword.length(); i++) {
+                    char c = keyword.charAt(i);
+                    int next = children.get(state)[c];
+                    if (next < 0) {
+                        next = children.size();
+                        children.get(state)[c] = next;
+                        children.add(newNode());
+                        outputs.add(new ArrayList<>());
+                    }
+                    state = next;
+                }
+                outputs.get(state).add(id);
+                lengths[id] = keyword.length();
+                rules[id] = entry.getValue();
+                id++;
+            }
+
+            // Breadth-first construction of failure links and the full DFA
+            int states = children.size();
+            delta = new int[states * ALPHABET];
+            int[] failure = new int[states];
+            int[] queue = new int[states];
+            int head = 0;
+            int tail = 0;
+
+            for (int c = 0; c < ALPHABET; c++) {
+                int child = children.get(0)[c];
+                if (child < 0) {
+                    delta[c] = 0;
+                } else {
+                    delta[c] = child;
+                    failure[child] = 0;
+                    queue[tail++] = child;
+                }
+            }
+            while (head < tail) {
+                int state = queue[head++];
+                outputs.get(state).addAll(outputs.get(failure[state]));
+                for (int c = 0; c < ALPHABET; c++) {
+                    int child = children.get(state)[c];
+                    if (child < 0) {
+                        delta[state * ALPHABET + c] = delta[failure[state] * ALPHABET + c];
+                    } else {
+                        delta[state * ALPHABET + c] = child;
+                        failure[child] = delta[failure[state] * ALPHABET + c];
+                        queue[tail++] = child;
+                    }
+                }
+            }
+
+            output = new int[states][];
+            for (int s = 0; s < states; s++) {
+                List<Integer> ids = outputs.get(s);
+                if (!ids.isEmpty()) {
+                    output[s] = ids.stream().distinct().mapToInt(Integer::intValue).toArray();
+                }
+            }
+        }
+
+        int next(int state, char c) {
+            if (c >= ALPHABET) {
+                return 0;
+            }
+            if (c >= 'A' && c <= 'Z') {
+                c = (char) (c + 32);
+            }
+            return delta[state * ALPHABET + c];
+        }
+
+        private static int[] newNode() {
+            int[] node = new int[ALPHABET];
+            Arrays.fill(node, -1);
+            return node;
+        }
+    }
+}
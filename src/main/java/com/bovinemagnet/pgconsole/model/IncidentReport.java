@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Represents a point-in-time snapshot of database state for incident analysis.
@@ -36,6 +38,32 @@ import java.util.List;
  */
 public class IncidentReport {
 
+    /**
+     * Sections of an incident report, in report order.
+     * <p>
+     * Sections are captured independently, so each records its own capture
+     * latency and, if it failed, an error message.
+     */
+    public enum Section {
+        OVERVIEW("Overview stats"),
+        ACTIVITY("Current activity"),
+        WAIT_EVENTS("Wait events"),
+        BLOCKING_TREE("Blocking tree"),
+        LOCKS("Locks"),
+        SLOW_QUERIES("Top slow queries"),
+        DATABASE_INFO("Database info");
+
+        private final String displayName;
+
+        Section(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+    }
+
     /**
      * Date-time formatter for generating filename-safe timestamps.
      * Format: yyyyMMdd-HHmmss (e.g., "20260105-143022")
@@ -151,6 +179,17 @@ public class IncidentReport {
      */
     private DatabaseInfo databaseInfo;
 
+    /**
+     * Time taken to capture each section, in milliseconds.
+     * Sections are captured concurrently, so this map is written from several threads.
+     */
+    private final Map<Section, Long> sectionCaptureMillis = new ConcurrentHashMap<>();
+
+    /**
+     * Error message for each section whose capture failed or timed out.
+     */
+    private final Map<Section, String> sectionErrors = new ConcurrentHashMap<>();
+
     /**
      * Constructs a new incident report with the current timestamp.
      * <p>
@@ -445,6 +484,44 @@ public class IncidentReport {
         this.databaseInfo = databaseInfo;
     }
 
+    /**
+     * Records how long a section took to capture.
+     *
+     * @param section the captured section
+     * @param millis capture latency in milliseconds
+     */
+    public void recordSectionCapture(Section section, long millis) {
+        sectionCaptureMillis.put(section, millis);
+    }
+
+    /**
+     * Returns the capture latency of each captured section.
+     *
+     * @return map of section to latency in milliseconds; sections not yet captured are absent
+     */
+    public Map<Section, Long> getSectionCaptureMillis() {
+        return sectionCaptureMillis;
+    }
+
+    /**
+     * Records that a section could not be captured.
+     *
+     * @param section the failed section
+     * @param error description of the failure
+     */
+    public void recordSectionError(Section section, String error) {
+        sectionErrors.put(section, error);
+    }
+
+    /**
+     * Returns the error of each section that could not be captured.
+     *
+     * @return map of section to error message; empty if every section was captured
+     */
+    public Map<Section, String> getSectionErrors() {
+        return sectionErrors;
+    }
+
     /**
      * Recalculates activity counts from the activities list.
      * <p>
@@ -60,6 +60,18 @@ public class IndexRedundancy {
          */
         OVERLAPPING,
 
+        /**
+         * Partially overlapping index that shares leading columns with another
+         * but diverges after them.
+         * <p>
+         * For example, indexes on (a, b) and (a, c). Neither can replace the
+         * other, but a single index may serve the queries of both, so the pair
+         * is worth reviewing.
+         * </p>
+         * Severity: Low
+         */
+        PARTIAL_OVERLAP,
+
         /**
          * Missing index on a foreign key column.
          * <p>
@@ -104,7 +116,8 @@ public class IndexRedundancy {
     /**
      * The name of the related index causing redundancy.
      * <p>
-     * For {@link RedundancyType#DUPLICATE} and {@link RedundancyType#OVERLAPPING} types,
+     * For {@link RedundancyType#DUPLICATE}, {@link RedundancyType#OVERLAPPING} and
+     * {@link RedundancyType#PARTIAL_OVERLAP} types,
      * this indicates the other index involved in the redundancy relationship.
      * May be null for {@link RedundancyType#MISSING_FK}, {@link RedundancyType#UNUSED},
      * and {@link RedundancyType#OVER_INDEXED} types.
@@ -135,6 +148,9 @@ public class IndexRedundancy {
     /** The disk space consumed by the index in bytes. */
     private long indexSizeBytes;
 
+    /** The disk space consumed by the related index in bytes. */
+    private long relatedIndexSizeBytes;
+
     /** The disk space consumed by the table (excluding indexes) in bytes. */
     private long tableSizeBytes;
 
@@ -293,6 +309,20 @@ public class IndexRedundancy {
      */
     public void setIndexSizeBytes(long indexSizeBytes) { this.indexSizeBytes = indexSizeBytes; }
 
+    /**
+     * Returns the disk space consumed by the related index in bytes.
+     *
+     * @return the related index size in bytes
+     */
+    public long getRelatedIndexSizeBytes() { return relatedIndexSizeBytes; }
+
+    /**
+     * Sets the disk space consumed by the related index in bytes.
+     *
+     * @param relatedIndexSizeBytes the related index size in bytes
+     */
+    public void setRelatedIndexSizeBytes(long relatedIndexSizeBytes) { this.relatedIndexSizeBytes = relatedIndexSizeBytes; }
+
     /**
      * Returns the disk space consumed by the table (excluding indexes) in bytes.
      *
@@ -446,6 +476,15 @@ public class IndexRedundancy {
         return formatBytes(indexSizeBytes);
     }
 
+    /**
+     * Returns the related index size in human-readable format.
+     *
+     * @return formatted size string (e.g., "512 KB", "2.3 GB")
+     */
+    public String getRelatedIndexSizeDisplay() {
+        return formatBytes(relatedIndexSizeBytes);
+    }
+
     /**
      * Formats a byte count into a human-readable string with appropriate units.
      * <p>
@@ -479,6 +518,7 @@ public class IndexRedundancy {
         return switch (redundancyType) {
             case DUPLICATE -> "Duplicate Index";
             case OVERLAPPING -> "Overlapping Index";
+            case PARTIAL_OVERLAP -> "Partial Overlap";
             case MISSING_FK -> "Missing FK Index";
             case UNUSED -> "Unused Index";
             case OVER_INDEXED -> "Over-indexed Table";
@@ -493,7 +533,7 @@ public class IndexRedundancy {
      * <ul>
      * <li>DUPLICATE, OVERLAPPING: text-danger (red) - high priority issues</li>
      * <li>MISSING_FK, OVER_INDEXED: text-warning (amber) - medium priority</li>
-     * <li>UNUSED: text-info (blue) - low priority optimisation opportunity</li>
+     * <li>UNUSED, PARTIAL_OVERLAP: text-info (blue) - low priority optimisation opportunity</li>
      * <li>null: text-muted (grey) - unknown state</li>
      * </ul>
      *
@@ -504,7 +544,7 @@ public class IndexRedundancy {
         return switch (redundancyType) {
             case DUPLICATE, OVERLAPPING -> "text-danger";
             case MISSING_FK -> "text-warning";
-            case UNUSED -> "text-info";
+            case UNUSED, PARTIAL_OVERLAP -> "text-info";
             case OVER_INDEXED -> "text-warning";
         };
     }
@@ -517,7 +557,7 @@ public class IndexRedundancy {
      * <ul>
      * <li>high: DUPLICATE - immediate attention recommended</li>
      * <li>medium: OVERLAPPING, MISSING_FK - should be addressed soon</li>
-     * <li>low: UNUSED, OVER_INDEXED - optimisation opportunities</li>
+     * <li>low: PARTIAL_OVERLAP, UNUSED, OVER_INDEXED - optimisation opportunities</li>
      * </ul>
      *
      * @return severity level as "high", "medium", or "low"
@@ -527,7 +567,7 @@ public class IndexRedundancy {
         return switch (redundancyType) {
             case DUPLICATE -> "high";
             case OVERLAPPING, MISSING_FK -> "medium";
-            case UNUSED, OVER_INDEXED -> "low";
+            case PARTIAL_OVERLAP, UNUSED, OVER_INDEXED -> "low";
         };
     }
 }
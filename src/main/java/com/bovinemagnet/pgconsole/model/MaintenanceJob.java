@@ -0,0 +1,409 @@
+package com.bovinemagnet.pgconsole.model;
+
+import com.bovinemagnet.pgconsole.model.ScheduledMaintenance.TaskType;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * A VACUUM, ANALYZE, REINDEX or CLUSTER command run in the background by
+ * {@link com.bovinemagnet.pgconsole.service.MaintenanceJobService}.
+ * <p>
+ * The command and its throttling settings are fixed when the job is
+ * submitted. Its status, backend process and progress change as it runs;
+ * getters describe the job and are serialised as its status, and
+ * {@link #subscribe(Consumer)} observes each change.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.MaintenanceJobService
+ */
+public class MaintenanceJob {
+
+    /**
+     * Lifecycle of a maintenance job.
+     */
+    public enum Status {
+        /** Waiting for a worker, the instance's job limit or a maintenance window. */
+        QUEUED,
+        /** Running on a backend. */
+        RUNNING,
+        /** Finished successfully. */
+        COMPLETED,
+        /** Failed or was interrupted. */
+        FAILED,
+        /** Cancelled while queued or running. */
+        CANCELLED;
+
+        /** @return whether a job in this status has finished */
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    private final String id;
+    private final String instanceName;
+    private final TaskType taskType;
+    private final String targetSchema;
+    private final String targetTable;
+    private final Instant submittedAt;
+    private Long taskId;
+    private boolean requireWindow;
+    private Integer costDelayMs;
+    private Integer costLimit;
+    private Integer maintenanceWorkMemMb;
+    private String submittedBy;
+
+    private final CompletableFuture<MaintenanceJob> completion = new CompletableFuture<>();
+    private final List<Consumer<MaintenanceJob>> listeners = new CopyOnWriteArrayList<>();
+    private volatile Status status = Status.QUEUED;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant completedAt;
+    private volatile int backendPid;
+    private volatile String phase;
+    private volatile String relation;
+    private volatile long blocksDone;
+    private volatile long blocksTotal;
+    private volatile String error;
+
+    /**
+     * Creates a queued job.
+     *
+     * @param id the job id
+     * @param instanceName the instance to run on
+     * @param taskType the maintenance command
+     * @param targetSchema the schema, or {@code null} for the whole database
+     * @param targetTable the table, or {@code null} for the whole schema or database
+     * @param submittedAt when the job was submitted
+     */
+    public MaintenanceJob(String id, String instanceName, TaskType taskType, String targetSchema,
+                          String targetTable, Instant submittedAt) {
+        this.id = id;
+        this.instanceName = instanceName;
+        this.taskType = taskType;
+        this.targetSchema = targetSchema;
+        this.targetTable = targetTable;
+        this.submittedAt = submittedAt;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getInstanceName() {
+        return instanceName;
+    }
+
+    public TaskType getTaskType() {
+        return taskType;
+    }
+
+    public String getTargetSchema() {
+        return targetSchema;
+    }
+
+    public String getTargetTable() {
+        return targetTable;
+    }
+
+    public Instant getSubmittedAt() {
+        return submittedAt;
+    }
+
+    /** @return the scheduled maintenance task the job runs, or {@code null} if submitted directly */
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    /** @return whether the job waits for an active maintenance window covering its instance */
+    public boolean isRequireWindow() {
+        return requireWindow;
+    }
+
+    public void setRequireWindow(boolean requireWindow) {
+        this.requireWindow = requireWindow;
+    }
+
+    /** @return the job's {@code vacuum_cost_delay} in milliseconds, or {@code null} for the default */
+    public Integer getCostDelayMs() {
+        return costDelayMs;
+    }
+
+    public void setCostDelayMs(Integer costDelayMs) {
+        this.costDelayMs = costDelayMs;
+    }
+
+    /** @return the job's {@code vacuum_cost_limit}, or {@code null} for the default */
+    public Integer getCostLimit() {
+        return costLimit;
+    }
+
+    public void setCostLimit(Integer costLimit) {
+        this.costLimit = costLimit;
+    }
+
+    /** @return the job's {@code maintenance_work_mem} in megabytes, or {@code null} for the default */
+    public Integer getMaintenanceWorkMemMb() {
+        return maintenanceWorkMemMb;
+    }
+
+    public void setMaintenanceWorkMemMb(Integer maintenanceWorkMemMb) {
+        this.maintenanceWorkMemMb = maintenanceWorkMemMb;
+    }
+
+    public String getSubmittedBy() {
+        return submittedBy;
+    }
+
+    public void setSubmittedBy(String submittedBy) {
+        this.submittedBy = submittedBy;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status.isFinished();
+    }
+
+    public boolean isCancelRequested() {
+        return cancelRequested;
+    }
+
+    public Instant getStartedAt() {
+        return startedAt;
+    }
+
+    public Instant getCompletedAt() {
+        return completedAt;
+    }
+
+    /**
+     * Returns how long the job ran.
+     *
+     * @return milliseconds from start to completion or now, or 0 if it has not started
+     */
+    public long getDurationMs() {
+        Instant start = startedAt;
+        if (start == null) {
+            return 0;
+        }
+        Instant end = completedAt;
+        return Duration.between(start, end != null ? end : Instant.now()).toMillis();
+    }
+
+    /** @return the process id of the backend running the job, or 0 if it is not running */
+    public int getBackendPid() {
+        return backendPid;
+    }
+
+    /** @return the current phase from the {@code pg_stat_progress_*} view, or {@code null} */
+    public String getPhase() {
+        return phase;
+    }
+
+    /** @return the relation being processed, or {@code null} */
+    public String getRelation() {
+        return relation;
+    }
+
+    public long getBlocksDone() {
+        return blocksDone;
+    }
+
+    public long getBlocksTotal() {
+        return blocksTotal;
+    }
+
+    /**
+     * Returns the progress through the current relation.
+     *
+     * @return the percentage of blocks processed, or {@code null} if not known
+     */
+    public Double getProgressPercent() {
+        long total = blocksTotal;
+        return total > 0 ? Math.min(100.0, Math.round(blocksDone * 1000.0 / total) / 10.0) : null;
+    }
+
+    /**
+     * Returns why the job failed.
+     *
+     * @return the error message, or {@code null} unless the job failed or was cancelled
+     */
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * Returns the statement the job runs.
+     *
+     * @return the SQL, or {@code null} if the command needs a table it was not given
+     */
+    public String getStatement() {
+        if (taskType == null) {
+            return null;
+        }
+        String table = targetTable != null ? quoteIdent(targetSchema != null ? targetSchema : "public")
+                + "." + quoteIdent(targetTable) : null;
+        return switch (taskType) {
+            case VACUUM -> table != null ? "VACUUM " + table : "VACUUM";
+            case VACUUM_FULL -> table != null ? "VACUUM FULL " + table : "VACUUM FULL";
+            case ANALYSE -> table != null ? "ANALYZE " + table : "ANALYZE";
+            case REINDEX -> {
+                if (table != null) {
+                    yield "REINDEX TABLE " + table;
+                } else if (targetSchema != null) {
+                    yield "REINDEX SCHEMA " + quoteIdent(targetSchema);
+                } else {
+                    yield "REINDEX DATABASE";
+                }
+            }
+            case CLUSTER -> table != null ? "CLUSTER " + table : null;
+        };
+    }
+
+    /**
+     * Returns the Bootstrap badge class for the status.
+     *
+     * @return the CSS class
+     */
+    public String getStatusCssClass() {
+        return switch (status) {
+            case QUEUED -> "bg-secondary";
+            case RUNNING -> "bg-primary";
+            case COMPLETED -> "bg-success";
+            case FAILED -> "bg-danger";
+            case CANCELLED -> "bg-warning text-dark";
+        };
+    }
+
+    /**
+     * Returns a future completed when the job finishes, however it ends.
+     *
+     * @return the future, completed with this job
+     */
+    public CompletableFuture<MaintenanceJob> completion() {
+        return completion;
+    }
+
+    /**
+     * Observes changes to the job's status and progress.
+     *
+     * @param listener called with this job after each change, on the thread making it
+     * @return an action that stops observing
+     */
+    public Runnable subscribe(Consumer<MaintenanceJob> listener) {
+        listeners.add(listener);
+        return () -> listeners.remove(listener);
+    }
+
+    /**
+     * Records that the job should stop.
+     *
+     * @return {@code true} unless the job has already finished
+     */
+    public boolean requestCancel() {
+        cancelRequested = true;
+        return !isFinished();
+    }
+
+    /**
+     * Records that the job has started on a backend.
+     *
+     * @param pid the backend process id
+     */
+    public void markRunning(int pid) {
+        backendPid = pid;
+        startedAt = Instant.now();
+        status = Status.RUNNING;
+        changed();
+    }
+
+    /**
+     * Records the job's latest progress.
+     *
+     * @param currentPhase the phase reported by the progress view
+     * @param currentRelation the relation being processed
+     * @param done blocks processed
+     * @param total blocks to process
+     */
+    public void updateProgress(String currentPhase, String currentRelation, long done, long total) {
+        if (status != Status.RUNNING || (done == blocksDone && total == blocksTotal
+                && Objects.equals(currentPhase, phase)
+                && Objects.equals(currentRelation, relation))) {
+            return;
+        }
+        phase = currentPhase;
+        relation = currentRelation;
+        blocksDone = done;
+        blocksTotal = total;
+        changed();
+    }
+
+    /**
+     * Records that the job has finished.
+     *
+     * @param finalStatus a finished status
+     * @param message the error message, or {@code null}
+     * @throws IllegalArgumentException if the status is not a finished one
+     */
+    public void markFinished(Status finalStatus, String message) {
+        if (!finalStatus.isFinished()) {
+            throw new IllegalArgumentException("Not a finished status: " + finalStatus);
+        }
+        error = message;
+        completedAt = Instant.now();
+        status = finalStatus;
+        changed();
+        listeners.clear();
+        completion.complete(this);
+    }
+
+    /**
+     * Restores the state of a job read back from the queue table.
+     *
+     * @param storedStatus the stored status
+     * @param storedStartedAt when it started, or {@code null}
+     * @param storedCompletedAt when it finished, or {@code null}
+     * @param storedError the stored error, or {@code null}
+     */
+    public void restore(Status storedStatus, Instant storedStartedAt, Instant storedCompletedAt, String storedError) {
+        status = storedStatus;
+        startedAt = storedStartedAt;
+        completedAt = storedCompletedAt;
+        error = storedError;
+        if (storedStatus.isFinished()) {
+            completion.complete(this);
+        }
+    }
+
+    private void changed() {
+        for (Consumer<MaintenanceJob> listener : listeners) {
+            try {
+                listener.accept(this);
+            } catch (RuntimeException e) {
+                // A failing observer, such as a closed event stream, must not stop the job
+                listeners.remove(listener);
+            }
+        }
+    }
+
+    /**
+     * Quotes a SQL identifier, doubling any embedded double-quote so that a
+     * name containing one cannot break out of the quotes.
+     */
+    private static String quoteIdent(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
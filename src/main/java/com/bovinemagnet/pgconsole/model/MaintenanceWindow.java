@@ -179,6 +179,19 @@ public class MaintenanceWindow {
         return now.isAfter(startTime) && now.isBefore(endTime);
     }
 
+    /**
+     * Checks if this maintenance window applies to an instance, whether or not
+     * it is active.
+     * <p>
+     * An empty or null instance filter applies to every instance.
+     *
+     * @param instanceName the name of the database instance
+     * @return true if the window's instance filter matches the instance
+     */
+    public boolean coversInstance(String instanceName) {
+        return instanceFilter == null || instanceFilter.isEmpty() || instanceFilter.contains(instanceName);
+    }
+
     /**
      * Checks if this maintenance window suppresses the specified alert.
      * <p>
@@ -0,0 +1,162 @@
+package com.bovinemagnet.pgconsole.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * A PostgreSQL instance registered at runtime rather than configured.
+ * <p>
+ * Registered instances are stored in {@code pgconsole.registered_instance}
+ * and monitored like configured ones. Their connection pools are built on
+ * first use, sized by the instance's workload class, and closed when idle.
+ * The password is accepted when registering but never returned, and is
+ * stored only encrypted, as {@link #getEncryptedPassword()}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.InstanceRegistry
+ */
+public class RegisteredInstance {
+
+    private String name;
+    private String displayName;
+    private String jdbcUrl;
+    private String username;
+
+    @JsonProperty(access = JsonProperty.Access.WRITE_ONLY)
+    private String password;
+
+    @JsonIgnore
+    private String encryptedPassword;
+
+    private String workloadClass;
+    private boolean enabled = true;
+    private Instant createdAt;
+    private Instant updatedAt;
+
+    public RegisteredInstance() {
+    }
+
+    /**
+     * Returns a copy, so that callers cannot change a shared instance.
+     *
+     * @return the copy
+     */
+    public RegisteredInstance copy() {
+        RegisteredInstance copy = new RegisteredInstance();
+        copy.name = name;
+        copy.displayName = displayName;
+        copy.jdbcUrl = jdbcUrl;
+        copy.username = username;
+        copy.password = password;
+        copy.encryptedPassword = encryptedPassword;
+        copy.workloadClass = workloadClass;
+        copy.enabled = enabled;
+        copy.createdAt = createdAt;
+        copy.updatedAt = updatedAt;
+        return copy;
+    }
+
+    /**
+     * Returns whether connecting to this instance needs a new pool, because
+     * its address, credentials or workload class differ from another's.
+     *
+     * @param other the instance as previously registered
+     * @return {@code true} if a pool built for {@code other} cannot be reused
+     */
+    public boolean connectsDifferentlyFrom(RegisteredInstance other) {
+        return !Objects.equals(jdbcUrl, other.jdbcUrl)
+                || !Objects.equals(username, other.username)
+                || !Objects.equals(encryptedPassword, other.encryptedPassword)
+                || !Objects.equals(workloadClass, other.workloadClass);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public void setDisplayName(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getJdbcUrl() {
+        return jdbcUrl;
+    }
+
+    public void setJdbcUrl(String jdbcUrl) {
+        this.jdbcUrl = jdbcUrl;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public void setUsername(String username) {
+        this.username = username;
+    }
+
+    public String getPassword() {
+        return password;
+    }
+
+    public void setPassword(String password) {
+        this.password = password;
+    }
+
+    /**
+     * Returns the password as stored, encrypted with
+     * {@link com.bovinemagnet.pgconsole.util.CredentialCipher}.
+     *
+     * @return the encrypted password, or {@code null} if none is stored
+     */
+    public String getEncryptedPassword() {
+        return encryptedPassword;
+    }
+
+    public void setEncryptedPassword(String encryptedPassword) {
+        this.encryptedPassword = encryptedPassword;
+    }
+
+    public String getWorkloadClass() {
+        return workloadClass;
+    }
+
+    public void setWorkloadClass(String workloadClass) {
+        this.workloadClass = workloadClass;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Instant getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(Instant updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
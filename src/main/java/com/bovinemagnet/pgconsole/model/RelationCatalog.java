@@ -0,0 +1,707 @@
+package com.bovinemagnet.pgconsole.model;
+
+import java.time.Instant;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable snapshot of the user tables and indexes of one instance, with
+ * their sizes and statistics counters.
+ * <p>
+ * The snapshot is columnar: each attribute is held in a primitive array with
+ * one entry per table (or index), rows are ordered by oid so a table is found
+ * by binary search, and each table's indexes are stored contiguously. Tens of
+ * thousands of relations therefore take a few megabytes and no per-row
+ * objects. {@link Table} and {@link Index} are lightweight views onto a row.
+ * <p>
+ * Snapshots are built once per refresh by the catalogue snapshot service and
+ * shared read-only between the analysis services.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class RelationCatalog {
+
+    /** Stored in place of a maintenance time that has never happened. */
+    private static final long NEVER = Long.MIN_VALUE;
+
+    private static final byte PRIMARY = 1;
+
+    private static final byte UNIQUE = 2;
+
+    private static final RelationCatalog EMPTY = new Builder(0, 0).build(0, 0);
+
+    private long loadedAtMillis;
+    private long fingerprint;
+
+    // Tables, in ascending oid order
+    private int tableCount;
+    private long[] tableOids = new long[0];
+    private String[] schemaNames = new String[0];
+    private String[] tableNames = new String[0];
+    private long[] relationBytes = new long[0];
+    private long[] tableBytes = new long[0];
+    private long[] liveTuples = new long[0];
+    private long[] deadTuples = new long[0];
+    private long[] modsSinceAnalyse = new long[0];
+    private long[] inserts = new long[0];
+    private long[] updates = new long[0];
+    private long[] hotUpdates = new long[0];
+    private long[] deletes = new long[0];
+    private long[] seqScans = new long[0];
+    private long[] seqTupRead = new long[0];
+    private long[] idxScans = new long[0];
+    private long[] idxTupFetch = new long[0];
+    private long[] lastVacuum = new long[0];
+    private long[] lastAutoVacuum = new long[0];
+    private long[] lastAnalyse = new long[0];
+    private long[] lastAutoAnalyse = new long[0];
+    private String[] toastNames = new String[0];
+    private long[] toastBytes = new long[0];
+    private long[] toastLiveTuples = new long[0];
+    private long[] toastDeadTuples = new long[0];
+
+    /** The indexes of table row {@code r} are {@code firstIndex[r]} up to {@code firstIndex[r + 1]}. */
+    private int[] firstIndex = new int[1];
+    private long[] tableIndexBytes = new long[0];
+
+    // Indexes, grouped by table in table row order
+    private int indexCount;
+    private long[] indexOids = new long[0];
+    private int[] indexTables = new int[0];
+    private String[] indexNames = new String[0];
+    private String[][] indexColumns = new String[0][];
+    /** Expression text per key, or {@code null} for an index whose keys are all columns. */
+    private String[][] indexExpressions = new String[0][];
+    private String[] indexMethods = new String[0];
+    private long[][] indexOpclasses = new long[0][];
+    private short[][] indexOptions = new short[0][];
+    private String[][] indexIncludes = new String[0][];
+    private String[] indexPredicates = new String[0];
+    private byte[] indexFlags = new byte[0];
+    private long[] indexBytes = new long[0];
+    private long[] indexScans = new long[0];
+    private long[] indexTupRead = new long[0];
+
+    private RelationCatalog() {
+    }
+
+    /**
+     * Returns a snapshot with no relations, used when an instance cannot be read.
+     *
+     * @return the empty snapshot
+     */
+    public static RelationCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Starts a snapshot.
+     *
+     * @param expectedTables the expected number of tables, used to size the columns
+     * @param expectedIndexes the expected number of indexes, used to size the columns
+     * @return a builder
+     */
+    public static Builder builder(int expectedTables, int expectedIndexes) {
+        return new Builder(expectedTables, expectedIndexes);
+    }
+
+    /**
+     * Returns when the snapshot was loaded.
+     *
+     * @return load time in epoch milliseconds
+     */
+    public long getLoadedAtMillis() {
+        return loadedAtMillis;
+    }
+
+    /**
+     * Returns the statistics fingerprint the snapshot was loaded at. A later
+     * fingerprint that differs means the snapshot is out of date.
+     *
+     * @return the fingerprint
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns the number of tables.
+     *
+     * @return the table count
+     */
+    public int getTableCount() {
+        return tableCount;
+    }
+
+    /**
+     * Returns the number of indexes.
+     *
+     * @return the index count
+     */
+    public int getIndexCount() {
+        return indexCount;
+    }
+
+    /**
+     * Returns the tables, in oid order.
+     *
+     * @return an unmodifiable list view of the tables
+     */
+    public List<Table> tables() {
+        return new AbstractList<>() {
+            @Override
+            public Table get(int row) {
+                return new Table(Objects.checkIndex(row, tableCount));
+            }
+
+            @Override
+            public int size() {
+                return tableCount;
+            }
+        };
+    }
+
+    /**
+     * Returns the indexes, grouped by table.
+     *
+     * @return an unmodifiable list view of the indexes
+     */
+    public List<Index> indexes() {
+        return indexes(0, indexCount);
+    }
+
+    /**
+     * Looks up a table by oid.
+     *
+     * @param oid the table's oid
+     * @return the table, or {@code null} if the snapshot does not contain it
+     */
+    public Table table(long oid) {
+        int row = Arrays.binarySearch(tableOids, 0, tableCount, oid);
+        return row >= 0 ? new Table(row) : null;
+    }
+
+    private List<Index> indexes(int from, int to) {
+        return new AbstractList<>() {
+            @Override
+            public Index get(int i) {
+                return new Index(from + Objects.checkIndex(i, to - from));
+            }
+
+            @Override
+            public int size() {
+                return to - from;
+            }
+        };
+    }
+
+    private static Instant instant(long millis) {
+        return millis == NEVER ? null : Instant.ofEpochMilli(millis);
+    }
+
+    /**
+     * A table in the snapshot: an ordinary, partitioned or materialised
+     * relation listed by {@code pg_stat_user_tables}.
+     */
+    public final class Table {
+
+        private final int row;
+
+        private Table(int row) {
+            this.row = row;
+        }
+
+        public long getOid() {
+            return tableOids[row];
+        }
+
+        public String getSchemaName() {
+            return schemaNames[row];
+        }
+
+        public String getName() {
+            return tableNames[row];
+        }
+
+        /** @return the main fork size, as {@code pg_relation_size} */
+        public long getRelationSizeBytes() {
+            return relationBytes[row];
+        }
+
+        /** @return the size without indexes but with TOAST, as {@code pg_table_size} */
+        public long getTableSizeBytes() {
+            return tableBytes[row];
+        }
+
+        /** @return the combined size of the table's indexes */
+        public long getIndexesSizeBytes() {
+            return tableIndexBytes[row];
+        }
+
+        /** @return the size with indexes and TOAST, as {@code pg_total_relation_size} */
+        public long getTotalSizeBytes() {
+            return tableBytes[row] + tableIndexBytes[row];
+        }
+
+        public long getLiveTuples() {
+            return liveTuples[row];
+        }
+
+        public long getDeadTuples() {
+            return deadTuples[row];
+        }
+
+        public long getModsSinceAnalyse() {
+            return modsSinceAnalyse[row];
+        }
+
+        public long getInserts() {
+            return inserts[row];
+        }
+
+        public long getUpdates() {
+            return updates[row];
+        }
+
+        public long getHotUpdates() {
+            return hotUpdates[row];
+        }
+
+        public long getDeletes() {
+            return deletes[row];
+        }
+
+        public long getSeqScans() {
+            return seqScans[row];
+        }
+
+        public long getSeqTupRead() {
+            return seqTupRead[row];
+        }
+
+        public long getIdxScans() {
+            return idxScans[row];
+        }
+
+        public long getIdxTupFetch() {
+            return idxTupFetch[row];
+        }
+
+        public Instant getLastVacuum() {
+            return instant(lastVacuum[row]);
+        }
+
+        public Instant getLastAutoVacuum() {
+            return instant(lastAutoVacuum[row]);
+        }
+
+        public Instant getLastAnalyse() {
+            return instant(lastAnalyse[row]);
+        }
+
+        public Instant getLastAutoAnalyse() {
+            return instant(lastAutoAnalyse[row]);
+        }
+
+        /** @return the later of the manual and automatic analyse times, or {@code null} if never analysed */
+        public Instant getLastAnalysedAt() {
+            return instant(Math.max(lastAnalyse[row], lastAutoAnalyse[row]));
+        }
+
+        /** @return the TOAST table's name, or {@code null} if the table has none */
+        public String getToastName() {
+            return toastNames[row];
+        }
+
+        public long getToastSizeBytes() {
+            return toastBytes[row];
+        }
+
+        public long getToastLiveTuples() {
+            return toastLiveTuples[row];
+        }
+
+        public long getToastDeadTuples() {
+            return toastDeadTuples[row];
+        }
+
+        /**
+         * Returns the table's indexes.
+         *
+         * @return an unmodifiable list view of the indexes
+         */
+        public List<Index> indexes() {
+            return RelationCatalog.this.indexes(firstIndex[row], firstIndex[row + 1]);
+        }
+    }
+
+    /**
+     * An index of a table in the snapshot.
+     */
+    public final class Index {
+
+        private final int position;
+
+        private Index(int position) {
+            this.position = position;
+        }
+
+        public long getOid() {
+            return indexOids[position];
+        }
+
+        public String getName() {
+            return indexNames[position];
+        }
+
+        /** @return the indexed table */
+        public Table table() {
+            return new Table(indexTables[position]);
+        }
+
+        /** @return the key column names in order, with {@code null} for expression keys */
+        public List<String> getColumns() {
+            return Collections.unmodifiableList(Arrays.asList(indexColumns[position]));
+        }
+
+        /** @return the keys in order: the column name, or the expression text for expression keys */
+        public List<String> getKeys() {
+            String[] expressions = indexExpressions[position];
+            if (expressions == null) {
+                return getColumns();
+            }
+            String[] keys = indexColumns[position].clone();
+            for (int k = 0; k < keys.length; k++) {
+                if (keys[k] == null) {
+                    keys[k] = expressions[k];
+                }
+            }
+            return Collections.unmodifiableList(Arrays.asList(keys));
+        }
+
+        /** @return the access method, e.g. {@code btree} or {@code gin} */
+        public String getMethod() {
+            return indexMethods[position];
+        }
+
+        /**
+         * @param key the key position, from 0
+         * @return the oid of the key's operator class
+         */
+        public long getKeyOpclass(int key) {
+            return indexOpclasses[position][key];
+        }
+
+        /**
+         * @param key the key position, from 0
+         * @return the key's {@code pg_index.indoption} bits for sort direction and null ordering
+         */
+        public short getKeyOption(int key) {
+            return indexOptions[position][key];
+        }
+
+        /** @return the non-key columns added with {@code INCLUDE} */
+        public List<String> getIncludeColumns() {
+            return Collections.unmodifiableList(Arrays.asList(indexIncludes[position]));
+        }
+
+        /** @return the partial index predicate, or {@code null} if the index covers every row */
+        public String getPredicate() {
+            return indexPredicates[position];
+        }
+
+        public boolean isPrimary() {
+            return (indexFlags[position] & PRIMARY) != 0;
+        }
+
+        public boolean isUnique() {
+            return (indexFlags[position] & UNIQUE) != 0;
+        }
+
+        public long getSizeBytes() {
+            return indexBytes[position];
+        }
+
+        public long getScans() {
+            return indexScans[position];
+        }
+
+        public long getTupRead() {
+            return indexTupRead[position];
+        }
+    }
+
+    /**
+     * Builds a snapshot row by row. Tables must be added in ascending oid
+     * order, followed by their indexes grouped by table in the same order.
+     */
+    public static final class Builder {
+
+        private RelationCatalog catalog = new RelationCatalog();
+
+        private int lastIndexTable = -1;
+
+        private Builder(int expectedTables, int expectedIndexes) {
+            resizeTables(Math.max(expectedTables, 16));
+            resizeIndexes(Math.max(expectedIndexes, 16));
+        }
+
+        /**
+         * Adds a table. The following calls up to the next {@code addTable}
+         * describe it.
+         *
+         * @param oid the table's oid, greater than any added before
+         * @param schemaName the table's schema
+         * @param name the table's name
+         * @return this builder
+         * @throws IllegalArgumentException if the oid is not ascending
+         */
+        public Builder addTable(long oid, String schemaName, String name) {
+            RelationCatalog c = catalog;
+            if (c.tableCount > 0 && oid <= c.tableOids[c.tableCount - 1]) {
+                throw new IllegalArgumentException("Tables must be added in ascending oid order: " + oid);
+            }
+            if (c.tableCount == c.tableOids.length) {
+                resizeTables(c.tableCount * 2);
+            }
+            int row = c.tableCount++;
+            c.tableOids[row] = oid;
+            c.schemaNames[row] = schemaName;
+            c.tableNames[row] = name;
+            c.lastVacuum[row] = NEVER;
+            c.lastAutoVacuum[row] = NEVER;
+            c.lastAnalyse[row] = NEVER;
+            c.lastAutoAnalyse[row] = NEVER;
+            return this;
+        }
+
+        public Builder sizes(long relationSizeBytes, long tableSizeBytes) {
+            int row = lastTable();
+            catalog.relationBytes[row] = relationSizeBytes;
+            catalog.tableBytes[row] = tableSizeBytes;
+            return this;
+        }
+
+        public Builder tuples(long live, long dead, long modsSinceAnalyse) {
+            int row = lastTable();
+            catalog.liveTuples[row] = live;
+            catalog.deadTuples[row] = dead;
+            catalog.modsSinceAnalyse[row] = modsSinceAnalyse;
+            return this;
+        }
+
+        public Builder writes(long inserted, long updated, long hotUpdated, long deleted) {
+            int row = lastTable();
+            catalog.inserts[row] = inserted;
+            catalog.updates[row] = updated;
+            catalog.hotUpdates[row] = hotUpdated;
+            catalog.deletes[row] = deleted;
+            return this;
+        }
+
+        public Builder scans(long seqScan, long seqTupRead, long idxScan, long idxTupFetch) {
+            int row = lastTable();
+            catalog.seqScans[row] = seqScan;
+            catalog.seqTupRead[row] = seqTupRead;
+            catalog.idxScans[row] = idxScan;
+            catalog.idxTupFetch[row] = idxTupFetch;
+            return this;
+        }
+
+        public Builder maintenance(Instant vacuum, Instant autoVacuum, Instant analyse, Instant autoAnalyse) {
+            int row = lastTable();
+            catalog.lastVacuum[row] = millis(vacuum);
+            catalog.lastAutoVacuum[row] = millis(autoVacuum);
+            catalog.lastAnalyse[row] = millis(analyse);
+            catalog.lastAutoAnalyse[row] = millis(autoAnalyse);
+            return this;
+        }
+
+        public Builder toast(String toastName, long sizeBytes, long live, long dead) {
+            int row = lastTable();
+            catalog.toastNames[row] = toastName;
+            catalog.toastBytes[row] = sizeBytes;
+            catalog.toastLiveTuples[row] = live;
+            catalog.toastDeadTuples[row] = dead;
+            return this;
+        }
+
+        /**
+         * Adds an index of a table already added.
+         *
+         * @param oid the index's oid
+         * @param tableOid the indexed table's oid
+         * @param name the index's name
+         * @param columns the key column names in order, {@code null} for expression keys
+         * @param primary whether the index backs the primary key
+         * @param unique whether the index is unique
+         * @param sizeBytes the index's size
+         * @param scans the number of index scans
+         * @param tupRead the number of index entries returned by scans
+         * @return {@code true} if added, {@code false} if the table is not in the snapshot
+         * @throws IllegalArgumentException if indexes are not grouped in table order
+         */
+        public boolean addIndex(long oid, long tableOid, String name, String[] columns,
+                                boolean primary, boolean unique, long sizeBytes, long scans, long tupRead) {
+            RelationCatalog c = catalog;
+            int table = Arrays.binarySearch(c.tableOids, 0, c.tableCount, tableOid);
+            if (table < 0) {
+                return false;
+            }
+            if (table < lastIndexTable) {
+                throw new IllegalArgumentException("Indexes must be grouped in table oid order: " + oid);
+            }
+            lastIndexTable = table;
+            if (c.indexCount == c.indexOids.length) {
+                resizeIndexes(c.indexCount * 2);
+            }
+            int position = c.indexCount++;
+            c.indexOids[position] = oid;
+            c.indexTables[position] = table;
+            c.indexNames[position] = name;
+            c.indexColumns[position] = columns.clone();
+            c.indexExpressions[position] = null;
+            c.indexMethods[position] = "btree";
+            c.indexOpclasses[position] = new long[columns.length];
+            c.indexOptions[position] = new short[columns.length];
+            c.indexIncludes[position] = new String[0];
+            c.indexPredicates[position] = null;
+            c.indexFlags[position] = (byte) ((primary ? PRIMARY : 0) | (unique ? UNIQUE : 0));
+            c.indexBytes[position] = sizeBytes;
+            c.indexScans[position] = scans;
+            c.indexTupRead[position] = tupRead;
+            return true;
+        }
+
+        /**
+         * Describes the structure of the index added last. Without it an index
+         * is a plain B-tree on its columns with default operator classes.
+         *
+         * @param method the access method name
+         * @param opclasses the operator class oid of each key
+         * @param options the {@code indoption} bits of each key
+         * @param expressions the expression text of each key, {@code null} for column keys;
+         *                    or {@code null} if every key is a column
+         * @param include the {@code INCLUDE} column names
+         * @param predicate the partial index predicate, or {@code null}
+         * @return this builder
+         * @throws IllegalStateException if no index has been added
+         * @throws IllegalArgumentException if the per-key arrays do not match the key count
+         */
+        public Builder structure(String method, long[] opclasses, short[] options, String[] expressions,
+                                 String[] include, String predicate) {
+            RelationCatalog c = catalog;
+            if (c.indexCount == 0) {
+                throw new IllegalStateException("No index added");
+            }
+            int position = c.indexCount - 1;
+            int keys = c.indexColumns[position].length;
+            if (opclasses.length != keys || options.length != keys
+                    || (expressions != null && expressions.length != keys)) {
+                throw new IllegalArgumentException("Key arrays do not match the " + keys + " keys of "
+                        + c.indexNames[position]);
+            }
+            c.indexMethods[position] = method;
+            c.indexOpclasses[position] = opclasses.clone();
+            c.indexOptions[position] = options.clone();
+            c.indexExpressions[position] = expressions != null ? expressions.clone() : null;
+            c.indexIncludes[position] = include.clone();
+            c.indexPredicates[position] = predicate;
+            return this;
+        }
+
+        /**
+         * Completes the snapshot. The builder cannot be used afterwards.
+         *
+         * @param loadedAtMillis when the snapshot was loaded
+         * @param fingerprint the statistics fingerprint it was loaded at
+         * @return the snapshot
+         */
+        public RelationCatalog build(long loadedAtMillis, long fingerprint) {
+            RelationCatalog c = catalog;
+            catalog = null;
+            resizeTables(c, c.tableCount);
+            resizeIndexes(c, c.indexCount);
+            c.loadedAtMillis = loadedAtMillis;
+            c.fingerprint = fingerprint;
+
+            c.firstIndex = new int[c.tableCount + 1];
+            c.tableIndexBytes = new long[c.tableCount];
+            for (int i = 0; i < c.indexCount; i++) {
+                c.firstIndex[c.indexTables[i] + 1]++;
+                c.tableIndexBytes[c.indexTables[i]] += c.indexBytes[i];
+            }
+            for (int row = 0; row < c.tableCount; row++) {
+                c.firstIndex[row + 1] += c.firstIndex[row];
+            }
+            return c;
+        }
+
+        private int lastTable() {
+            if (catalog.tableCount == 0) {
+                throw new IllegalStateException("No table added");
+            }
+            return catalog.tableCount - 1;
+        }
+
+        private void resizeTables(int capacity) {
+            resizeTables(catalog, capacity);
+        }
+
+        private void resizeIndexes(int capacity) {
+            resizeIndexes(catalog, capacity);
+        }
+
+        private static void resizeTables(RelationCatalog c, int capacity) {
+            c.tableOids = Arrays.copyOf(c.tableOids, capacity);
+            c.schemaNames = Arrays.copyOf(c.schemaNames, capacity);
+            c.tableNames = Arrays.copyOf(c.tableNames, capacity);
+            c.relationBytes = Arrays.copyOf(c.relationBytes, capacity);
+            c.tableBytes = Arrays.copyOf(c.tableBytes, capacity);
+            c.liveTuples = Arrays.copyOf(c.liveTuples, capacity);
+            c.deadTuples = Arrays.copyOf(c.deadTuples, capacity);
+            c.modsSinceAnalyse = Arrays.copyOf(c.modsSinceAnalyse, capacity);
+            c.inserts = Arrays.copyOf(c.inserts, capacity);
+            c.updates = Arrays.copyOf(c.updates, capacity);
+            c.hotUpdates = Arrays.copyOf(c.hotUpdates, capacity);
+            c.deletes = Arrays.copyOf(c.deletes, capacity);
+            c.seqScans = Arrays.copyOf(c.seqScans, capacity);
+            c.seqTupRead = Arrays.copyOf(c.seqTupRead, capacity);
+            c.idxScans = Arrays.copyOf(c.idxScans, capacity);
+            c.idxTupFetch = Arrays.copyOf(c.idxTupFetch, capacity);
+            c.lastVacuum = Arrays.copyOf(c.lastVacuum, capacity);
+            c.lastAutoVacuum = Arrays.copyOf(c.lastAutoVacuum, capacity);
+            c.lastAnalyse = Arrays.copyOf(c.lastAnalyse, capacity);
+            c.lastAutoAnalyse = Arrays.copyOf(c.lastAutoAnalyse, capacity);
+            c.toastNames = Arrays.copyOf(c.toastNames, capacity);
+            c.toastBytes = Arrays.copyOf(c.toastBytes, capacity);
+            c.toastLiveTuples = Arrays.copyOf(c.toastLiveTuples, capacity);
+            c.toastDeadTuples = Arrays.copyOf(c.toastDeadTuples, capacity);
+        }
+
+        private static void resizeIndexes(RelationCatalog c, int capacity) {
+            c.indexOids = Arrays.copyOf(c.indexOids, capacity);
+            c.indexTables = Arrays.copyOf(c.indexTables, capacity);
+            c.indexNames = Arrays.copyOf(c.indexNames, capacity);
+            c.indexColumns = Arrays.copyOf(c.indexColumns, capacity);
+            c.indexExpressions = Arrays.copyOf(c.indexExpressions, capacity);
+            c.indexMethods = Arrays.copyOf(c.indexMethods, capacity);
+            c.indexOpclasses = Arrays.copyOf(c.indexOpclasses, capacity);
+            c.indexOptions = Arrays.copyOf(c.indexOptions, capacity);
+            c.indexIncludes = Arrays.copyOf(c.indexIncludes, capacity);
+            c.indexPredicates = Arrays.copyOf(c.indexPredicates, capacity);
+            c.indexFlags = Arrays.copyOf(c.indexFlags, capacity);
+            c.indexBytes = Arrays.copyOf(c.indexBytes, capacity);
+            c.indexScans = Arrays.copyOf(c.indexScans, capacity);
+            c.indexTupRead = Arrays.copyOf(c.indexTupRead, capacity);
+        }
+
+        private static long millis(Instant instant) {
+            return instant != null ? instant.toEpochMilli() : NEVER;
+        }
+    }
+}
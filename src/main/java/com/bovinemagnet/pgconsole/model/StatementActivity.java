@@ -0,0 +1,89 @@
+package com.bovinemagnet.pgconsole.model;
+
+/**
+ * What one statement from {@code pg_stat_statements} did, either cumulatively
+ * since statistics were reset or during one sampling interval.
+ * <p>
+ * Statements are identified by the MD5 of their normalised text, as in
+ * {@link QueryMetricsHistory}, and entries for the same text under different
+ * users or databases are summed.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see StatementInterval
+ */
+public class StatementActivity {
+
+    private String queryId;
+    private String queryText;
+    private double timeMs;
+    private long calls;
+    private long ioBlocks;
+
+    public StatementActivity() {
+    }
+
+    public StatementActivity(String queryId, double timeMs, long calls, long ioBlocks) {
+        this.queryId = queryId;
+        this.timeMs = timeMs;
+        this.calls = calls;
+        this.ioBlocks = ioBlocks;
+    }
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
+
+    /**
+     * Returns the normalised statement text; only read for statements that
+     * are kept.
+     *
+     * @return the statement text, or {@code null}
+     */
+    public String getQueryText() {
+        return queryText;
+    }
+
+    public void setQueryText(String queryText) {
+        this.queryText = queryText;
+    }
+
+    /**
+     * Returns the execution time in milliseconds.
+     *
+     * @return the execution time
+     */
+    public double getTimeMs() {
+        return timeMs;
+    }
+
+    public void setTimeMs(double timeMs) {
+        this.timeMs = timeMs;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public void setCalls(long calls) {
+        this.calls = calls;
+    }
+
+    /**
+     * Returns the blocks read from outside shared buffers plus the temporary
+     * blocks read and written.
+     *
+     * @return the I/O in blocks
+     */
+    public long getIoBlocks() {
+        return ioBlocks;
+    }
+
+    public void setIoBlocks(long ioBlocks) {
+        this.ioBlocks = ioBlocks;
+    }
+}
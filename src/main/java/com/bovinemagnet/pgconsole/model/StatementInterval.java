@@ -0,0 +1,106 @@
+package com.bovinemagnet.pgconsole.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The statement activity of one instance between two samples.
+ * <p>
+ * Only the heavy hitters are kept: the top statements by each
+ * {@link StatementMetric}. The totals cover every statement. For each metric
+ * the floor is the largest value of any statement that was not kept, so a
+ * statement that is missing from {@link #getHeavyHitters()} did at most the
+ * floor during this interval.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.StatementHeavyHitterService
+ */
+public class StatementInterval {
+
+    private Instant sampledAt;
+    private double intervalSeconds;
+    private int statements;
+    private StatementActivity totals = new StatementActivity();
+    private StatementActivity floors = new StatementActivity();
+    private List<StatementActivity> heavyHitters = new ArrayList<>();
+
+    /**
+     * Returns when the interval ended.
+     *
+     * @return the sample time
+     */
+    public Instant getSampledAt() {
+        return sampledAt;
+    }
+
+    public void setSampledAt(Instant sampledAt) {
+        this.sampledAt = sampledAt;
+    }
+
+    /**
+     * Returns the time since the previous sample.
+     *
+     * @return the interval length in seconds
+     */
+    public double getIntervalSeconds() {
+        return intervalSeconds;
+    }
+
+    public void setIntervalSeconds(double intervalSeconds) {
+        this.intervalSeconds = intervalSeconds;
+    }
+
+    /**
+     * Returns how many statements were active during the interval.
+     *
+     * @return the number of active statements
+     */
+    public int getStatements() {
+        return statements;
+    }
+
+    public void setStatements(int statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Returns the activity of every statement summed.
+     *
+     * @return the totals
+     */
+    public StatementActivity getTotals() {
+        return totals;
+    }
+
+    public void setTotals(StatementActivity totals) {
+        this.totals = totals;
+    }
+
+    /**
+     * Returns, per metric, the largest value of any statement that was not kept.
+     *
+     * @return the floors
+     */
+    public StatementActivity getFloors() {
+        return floors;
+    }
+
+    public void setFloors(StatementActivity floors) {
+        this.floors = floors;
+    }
+
+    /**
+     * Returns the statements kept, each with its exact activity for the interval.
+     *
+     * @return the heavy hitters
+     */
+    public List<StatementActivity> getHeavyHitters() {
+        return heavyHitters;
+    }
+
+    public void setHeavyHitters(List<StatementActivity> heavyHitters) {
+        this.heavyHitters = heavyHitters;
+    }
+}
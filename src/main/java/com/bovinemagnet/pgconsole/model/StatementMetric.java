@@ -0,0 +1,60 @@
+package com.bovinemagnet.pgconsole.model;
+
+import java.util.Locale;
+
+/**
+ * The measures by which heavy-hitter statements are ranked.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see StatementActivity
+ */
+public enum StatementMetric {
+    /** Execution time in milliseconds. */
+    TIME,
+    /** Number of executions. */
+    CALLS,
+    /** Blocks read from outside shared buffers plus temporary blocks. */
+    IO;
+
+    /**
+     * Returns this measure of a statement's activity.
+     *
+     * @param activity the activity
+     * @return the value
+     */
+    public double valueOf(StatementActivity activity) {
+        return switch (this) {
+            case TIME -> activity.getTimeMs();
+            case CALLS -> activity.getCalls();
+            case IO -> activity.getIoBlocks();
+        };
+    }
+
+    /**
+     * Parses a metric name, case-insensitively.
+     *
+     * @param name {@code time}, {@code calls} or {@code io}
+     * @return the metric
+     * @throws IllegalArgumentException if the name is not recognised
+     */
+    public static StatementMetric fromName(String name) {
+        if (name != null) {
+            for (StatementMetric metric : values()) {
+                if (metric.name().equalsIgnoreCase(name.trim())) {
+                    return metric;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unsupported metric: " + name + " (expected time, calls or io)");
+    }
+
+    /**
+     * Returns the lower-case name used in the API.
+     *
+     * @return the name
+     */
+    public String getName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
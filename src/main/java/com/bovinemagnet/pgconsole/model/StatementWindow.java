@@ -0,0 +1,109 @@
+package com.bovinemagnet.pgconsole.model;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The top statements of one instance by one metric over a window of time.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see TopStatement
+ */
+public class StatementWindow {
+
+    private String instanceId;
+    private StatementMetric metric;
+    private Instant from;
+    private Instant to;
+    private int intervals;
+    private double total;
+    private double floorTotal;
+    private List<TopStatement> statements = new ArrayList<>();
+
+    public String getInstanceId() {
+        return instanceId;
+    }
+
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+
+    public String getMetric() {
+        return metric != null ? metric.getName() : null;
+    }
+
+    public void setMetric(StatementMetric metric) {
+        this.metric = metric;
+    }
+
+    public Instant getFrom() {
+        return from;
+    }
+
+    public void setFrom(Instant from) {
+        this.from = from;
+    }
+
+    public Instant getTo() {
+        return to;
+    }
+
+    public void setTo(Instant to) {
+        this.to = to;
+    }
+
+    /**
+     * Returns how many sampling intervals ended within the window.
+     *
+     * @return the number of intervals
+     */
+    public int getIntervals() {
+        return intervals;
+    }
+
+    public void setIntervals(int intervals) {
+        this.intervals = intervals;
+    }
+
+    /**
+     * Returns the metric summed over every statement in the window.
+     *
+     * @return the total
+     */
+    public double getTotal() {
+        return total;
+    }
+
+    public void setTotal(double total) {
+        this.total = total;
+    }
+
+    /**
+     * Returns the sum of the window's floors: the most that any statement
+     * never kept in the window can have done.
+     *
+     * @return the floor total
+     */
+    public double getFloorTotal() {
+        return floorTotal;
+    }
+
+    public void setFloorTotal(double floorTotal) {
+        this.floorTotal = floorTotal;
+    }
+
+    /**
+     * Returns the top statements, by guaranteed total, highest first.
+     *
+     * @return the statements
+     */
+    public List<TopStatement> getStatements() {
+        return statements;
+    }
+
+    public void setStatements(List<TopStatement> statements) {
+        this.statements = statements;
+    }
+}
@@ -0,0 +1,164 @@
+package com.bovinemagnet.pgconsole.model;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * One page of the table browser: the tables on the page and the query that
+ * produced it, with the query strings for the neighbouring requests.
+ * <p>
+ * Pages are addressed by an opaque {@code after} cursor naming the last row
+ * of the previous page, so paging stays cheap however many tables there are
+ * and does not skip or repeat rows when tables are added between requests.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.TableBrowserService
+ */
+public class TablePage {
+
+    /** Page size used when a request does not give one. */
+    public static final int DEFAULT_LIMIT = 50;
+
+    private final List<TableStats> tables;
+    private final String sort;
+    private final boolean descending;
+    private final String search;
+    private final String after;
+    private final int limit;
+    private final int matchCount;
+    private final String nextCursor;
+
+    /**
+     * Creates a page.
+     *
+     * @param tables the tables on the page
+     * @param sort the sort column parameter
+     * @param descending whether the page is sorted in descending order
+     * @param search the search text, or an empty string
+     * @param after the cursor the page starts after, or {@code null} for the first page
+     * @param limit the page size
+     * @param matchCount the number of tables matching the search
+     * @param nextCursor the cursor of the next page, or {@code null} if this is the last
+     */
+    public TablePage(List<TableStats> tables, String sort, boolean descending, String search,
+                     String after, int limit, int matchCount, String nextCursor) {
+        this.tables = tables;
+        this.sort = sort;
+        this.descending = descending;
+        this.search = search;
+        this.after = after;
+        this.limit = limit;
+        this.matchCount = matchCount;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<TableStats> getTables() {
+        return tables;
+    }
+
+    public String getSort() {
+        return sort;
+    }
+
+    public boolean isDescending() {
+        return descending;
+    }
+
+    public String getSearch() {
+        return search;
+    }
+
+    public String getAfter() {
+        return after;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean isFirstPage() {
+        return after == null;
+    }
+
+    /**
+     * Returns the query string of this page, for refreshing it in place.
+     *
+     * @return the query string, without a leading {@code ?}
+     */
+    public String getQuery() {
+        return query(sort, descending, after);
+    }
+
+    /**
+     * Returns the query string of the first page with the same sort and search.
+     *
+     * @return the query string, without a leading {@code ?}
+     */
+    public String getFirstQuery() {
+        return query(sort, descending, null);
+    }
+
+    /**
+     * Returns the query string of the next page.
+     *
+     * @return the query string, or {@code null} if this is the last page
+     */
+    public String getNextQuery() {
+        return nextCursor != null ? query(sort, descending, nextCursor) : null;
+    }
+
+    /**
+     * Returns the query string for sorting by a column, keeping the search.
+     * Choosing the current column reverses the order; another column starts
+     * in its default order.
+     *
+     * @param column the sort column parameter
+     * @return the query string of the first page in that order
+     */
+    public String sortQuery(String column) {
+        if (column.equals(sort)) {
+            return query(sort, !descending, null);
+        }
+        StringBuilder query = new StringBuilder("sort=").append(encode(column));
+        appendSearch(query);
+        appendLimit(query);
+        return query.toString();
+    }
+
+    private String query(String sortColumn, boolean desc, String cursor) {
+        StringBuilder query = new StringBuilder("sort=").append(encode(sortColumn))
+                .append("&dir=").append(desc ? "desc" : "asc");
+        appendSearch(query);
+        if (cursor != null) {
+            query.append("&after=").append(encode(cursor));
+        }
+        appendLimit(query);
+        return query.toString();
+    }
+
+    private void appendSearch(StringBuilder query) {
+        if (!search.isEmpty()) {
+            query.append("&q=").append(encode(search));
+        }
+    }
+
+    private void appendLimit(StringBuilder query) {
+        if (limit != DEFAULT_LIMIT) {
+            query.append("&limit=").append(limit);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -1,5 +1,7 @@
 package com.bovinemagnet.pgconsole.model;
 
+import com.bovinemagnet.pgconsole.util.PgSize;
+
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 
@@ -59,6 +61,9 @@ public class TableStats {
     /** The estimated number of dead rows in this table requiring vacuum. */
     private long nDeadTup;
 
+    /** The total size of the table including indexes and TOAST, in bytes. */
+    private long totalSizeBytes;
+
     /** Timestamp of the last manual VACUUM on this table, or null if never vacuumed. */
     private LocalDateTime lastVacuum;
 
@@ -234,6 +239,27 @@ public class TableStats {
      */
     public void setnDeadTup(long nDeadTup) { this.nDeadTup = nDeadTup; }
 
+    /**
+     * Returns the total size of the table including indexes and TOAST.
+     *
+     * @return the total size in bytes
+     */
+    public long getTotalSizeBytes() { return totalSizeBytes; }
+
+    /**
+     * Sets the total size of the table including indexes and TOAST.
+     *
+     * @param totalSizeBytes the total size in bytes
+     */
+    public void setTotalSizeBytes(long totalSizeBytes) { this.totalSizeBytes = totalSizeBytes; }
+
+    /**
+     * Returns the total size formatted as {@code pg_size_pretty} would.
+     *
+     * @return the formatted size (e.g., "12 MB")
+     */
+    public String getTotalSize() { return PgSize.pretty(totalSizeBytes); }
+
     /**
      * Calculates the table bloat ratio as a percentage.
      * <p>
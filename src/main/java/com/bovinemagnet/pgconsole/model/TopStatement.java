@@ -0,0 +1,77 @@
+package com.bovinemagnet.pgconsole.model;
+
+/**
+ * A statement's total for one metric over a window of sampling intervals.
+ * <p>
+ * {@link #getValue()} sums the intervals in which the statement was kept as a
+ * heavy hitter and is never more than the true total. {@link #getUpperBound()}
+ * adds the floor of every other interval in the window and is never less than
+ * the true total.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see StatementWindow
+ */
+public class TopStatement {
+
+    private String queryId;
+    private String queryText;
+    private double value;
+    private double upperBound;
+    private int intervals;
+
+    public String getQueryId() {
+        return queryId;
+    }
+
+    public void setQueryId(String queryId) {
+        this.queryId = queryId;
+    }
+
+    public String getQueryText() {
+        return queryText;
+    }
+
+    public void setQueryText(String queryText) {
+        this.queryText = queryText;
+    }
+
+    /**
+     * Returns the total across the intervals in which the statement was kept.
+     *
+     * @return the guaranteed total
+     */
+    public double getValue() {
+        return value;
+    }
+
+    public void setValue(double value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the most the statement can have done in the window.
+     *
+     * @return the upper bound of the total
+     */
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(double upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    /**
+     * Returns in how many of the window's intervals the statement was kept.
+     *
+     * @return the number of intervals
+     */
+    public int getIntervals() {
+        return intervals;
+    }
+
+    public void setIntervals(int intervals) {
+        this.intervals = intervals;
+    }
+}
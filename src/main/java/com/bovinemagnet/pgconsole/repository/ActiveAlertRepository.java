@@ -10,6 +10,7 @@ import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -325,6 +326,46 @@ public class ActiveAlertRepository {
         }
     }
 
+    /**
+     * Updates the escalation tier of several alerts in one statement.
+     * <p>
+     * Each alert's {@code last_notification_at} is set to now, as in
+     * {@link #updateEscalationTier(Long, int)}.
+     *
+     * @param tiers new escalation tier keyed by alert ID
+     */
+    public void updateEscalationTiers(Map<Long, Integer> tiers) {
+        if (tiers.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            UPDATE pgconsole.active_alert a
+            SET current_escalation_tier = u.tier, last_notification_at = NOW()
+            FROM unnest(?::bigint[], ?::int[]) AS u(id, tier)
+            WHERE a.id = u.id
+            """;
+
+        Long[] ids = new Long[tiers.size()];
+        Integer[] tierOrders = new Integer[tiers.size()];
+        int i = 0;
+        for (Map.Entry<Long, Integer> entry : tiers.entrySet()) {
+            ids[i] = entry.getKey();
+            tierOrders[i] = entry.getValue();
+            i++;
+        }
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("bigint", ids));
+            stmt.setArray(2, conn.createArrayOf("integer", tierOrders));
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update escalation tiers", e);
+        }
+    }
+
     /**
      * Deletes resolved alerts older than the specified number of days.
      *
@@ -0,0 +1,212 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Repository for replica membership and job leases.
+ * <p>
+ * Replicas register in {@code pgconsole.cluster_member} and hold leases in
+ * {@code pgconsole.cluster_lease}. Every expiry is computed with the
+ * database clock, so replicas need not agree on the time.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.ClusterCoordinator
+ */
+@ApplicationScoped
+public class ClusterRepository {
+
+    @Inject
+    @MetadataDataSource
+    DataSource dataSource;
+
+    /**
+     * Records a replica's heartbeat, registering it if new.
+     *
+     * @param replicaId the replica
+     * @param hostName the replica's host
+     */
+    public void heartbeat(String replicaId, String hostName) {
+        String sql = """
+            INSERT INTO pgconsole.cluster_member (replica_id, host_name, started_at, last_seen)
+            VALUES (?, ?, NOW(), NOW())
+            ON CONFLICT (replica_id) DO UPDATE
+            SET host_name = EXCLUDED.host_name, last_seen = NOW()
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, replicaId);
+            stmt.setString(2, hostName);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record heartbeat of replica " + replicaId, e);
+        }
+    }
+
+    /**
+     * Finds the replicas with a recent heartbeat.
+     *
+     * @param timeoutSeconds how recent the heartbeat must be
+     * @return the live replica ids, sorted
+     */
+    public List<String> findLiveMembers(int timeoutSeconds) {
+        String sql = """
+            SELECT replica_id
+            FROM pgconsole.cluster_member
+            WHERE last_seen > NOW() - make_interval(secs => ?)
+            ORDER BY replica_id
+            """;
+
+        List<String> members = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, timeoutSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    members.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch live replicas", e);
+        }
+        return members;
+    }
+
+    /**
+     * Removes replicas whose heartbeat stopped long ago, with any leases they
+     * still hold.
+     *
+     * @param olderThanSeconds age of the last heartbeat
+     * @return the number of replicas removed
+     */
+    public int deleteStaleMembers(int olderThanSeconds) {
+        String sql = """
+            WITH stale AS (
+                DELETE FROM pgconsole.cluster_member
+                WHERE last_seen < NOW() - make_interval(secs => ?)
+                RETURNING replica_id
+            ), released AS (
+                DELETE FROM pgconsole.cluster_lease
+                WHERE holder IN (SELECT replica_id FROM stale)
+            )
+            SELECT count(*) FROM stale
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, olderThanSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to remove stale replicas", e);
+        }
+    }
+
+    /**
+     * Takes a lease if it is free, expired or already held by the replica,
+     * extending it in the last case.
+     *
+     * @param name the lease name
+     * @param replicaId the replica
+     * @param leaseSeconds how long the lease lasts
+     * @return whether the replica now holds the lease
+     */
+    public boolean tryAcquireLease(String name, String replicaId, int leaseSeconds) {
+        String sql = """
+            INSERT INTO pgconsole.cluster_lease (name, holder, acquired_at, expires_at)
+            VALUES (?, ?, NOW(), NOW() + make_interval(secs => ?))
+            ON CONFLICT (name) DO UPDATE
+            SET holder = EXCLUDED.holder,
+                acquired_at = CASE WHEN pgconsole.cluster_lease.holder = EXCLUDED.holder
+                                   THEN pgconsole.cluster_lease.acquired_at ELSE NOW() END,
+                expires_at = EXCLUDED.expires_at
+            WHERE pgconsole.cluster_lease.holder = EXCLUDED.holder
+               OR pgconsole.cluster_lease.expires_at < NOW()
+            RETURNING holder
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, name);
+            stmt.setString(2, replicaId);
+            stmt.setInt(3, leaseSeconds);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to acquire lease " + name, e);
+        }
+    }
+
+    /**
+     * Extends every unexpired lease a replica holds.
+     *
+     * @param replicaId the replica
+     * @param leaseSeconds how long the leases last from now
+     * @return the names of the leases still held
+     */
+    public Set<String> renewLeases(String replicaId, int leaseSeconds) {
+        String sql = """
+            UPDATE pgconsole.cluster_lease
+            SET expires_at = NOW() + make_interval(secs => ?)
+            WHERE holder = ? AND expires_at >= NOW()
+            RETURNING name
+            """;
+
+        Set<String> held = new HashSet<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setInt(1, leaseSeconds);
+            stmt.setString(2, replicaId);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    held.add(rs.getString(1));
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to renew leases of replica " + replicaId, e);
+        }
+        return held;
+    }
+
+    /**
+     * Removes a replica and releases its leases, so that others take over at
+     * once rather than after the timeout.
+     *
+     * @param replicaId the replica
+     */
+    public void leave(String replicaId) {
+        String sql = """
+            WITH released AS (
+                DELETE FROM pgconsole.cluster_lease WHERE holder = ?
+            )
+            DELETE FROM pgconsole.cluster_member WHERE replica_id = ?
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, replicaId);
+            stmt.setString(2, replicaId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to remove replica " + replicaId, e);
+        }
+    }
+}
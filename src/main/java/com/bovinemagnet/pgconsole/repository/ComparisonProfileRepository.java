@@ -6,6 +6,7 @@ import com.bovinemagnet.pgconsole.model.ComparisonProfile;
 import com.bovinemagnet.pgconsole.model.SchemaComparisonResult;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -15,13 +16,16 @@ import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repository for managing schema comparison profiles.
  * <p>
  * Handles persistence of saved comparison configurations
- * for quick re-runs.
+ * for quick re-runs. The profiles are held in a {@link MetadataCache}, and
+ * each read returns copies of the cached profiles.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -35,8 +39,21 @@ public class ComparisonProfileRepository {
     @MetadataDataSource
     DataSource dataSource;
 
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, named after the table. */
+    static final String TOPIC = "comparison_profile";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private MetadataCache<List<ComparisonProfile>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
     /**
      * Saves a new comparison profile.
      *
@@ -79,6 +96,7 @@ public class ComparisonProfileRepository {
             throw new RuntimeException("Failed to save comparison profile", e);
         }
 
+        changeBus.publish(TOPIC);
         return profile;
     }
 
@@ -119,6 +137,7 @@ public class ComparisonProfileRepository {
             throw new RuntimeException("Failed to update comparison profile", e);
         }
 
+        changeBus.publish(TOPIC);
         return profile;
     }
 
@@ -147,7 +166,9 @@ public class ComparisonProfileRepository {
 
         } catch (SQLException e) {
             LOG.errorf("Failed to update profile last run: %s", e.getMessage());
+            return;
         }
+        changeBus.publish(TOPIC);
     }
 
     /**
@@ -168,6 +189,7 @@ public class ComparisonProfileRepository {
             LOG.errorf("Failed to delete comparison profile: %s", e.getMessage());
             throw new RuntimeException("Failed to delete comparison profile", e);
         }
+        changeBus.publish(TOPIC);
     }
 
     /**
@@ -177,30 +199,10 @@ public class ComparisonProfileRepository {
      * @return profile or empty
      */
     public Optional<ComparisonProfile> findById(long id) {
-        String sql = """
-            SELECT id, name, description, source_instance, destination_instance,
-                   source_schema, destination_schema, filter_config, is_default,
-                   created_by, created_at, updated_at, last_run_at, last_run_summary
-            FROM pgconsole.comparison_profile
-            WHERE id = ?
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapProfile(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            LOG.errorf("Failed to find comparison profile: %s", e.getMessage());
-        }
-
-        return Optional.empty();
+        return cached().stream()
+                .filter(profile -> profile.getId() == id)
+                .findFirst()
+                .map(this::copyOf);
     }
 
     /**
@@ -209,29 +211,9 @@ public class ComparisonProfileRepository {
      * @return list of all profiles
      */
     public List<ComparisonProfile> findAll() {
-        String sql = """
-            SELECT id, name, description, source_instance, destination_instance,
-                   source_schema, destination_schema, filter_config, is_default,
-                   created_by, created_at, updated_at, last_run_at, last_run_summary
-            FROM pgconsole.comparison_profile
-            ORDER BY name
-            """;
-
-        List<ComparisonProfile> profiles = new ArrayList<>();
-
-        try (Connection conn = dataSource.getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-
-            while (rs.next()) {
-                profiles.add(mapProfile(rs));
-            }
-
-        } catch (SQLException e) {
-            LOG.errorf("Failed to find comparison profiles: %s", e.getMessage());
-        }
-
-        return profiles;
+        return cached().stream()
+                .map(this::copyOf)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -242,34 +224,10 @@ public class ComparisonProfileRepository {
      * @return matching profiles
      */
     public List<ComparisonProfile> findByInstances(String sourceInstance, String destInstance) {
-        String sql = """
-            SELECT id, name, description, source_instance, destination_instance,
-                   source_schema, destination_schema, filter_config, is_default,
-                   created_by, created_at, updated_at, last_run_at, last_run_summary
-            FROM pgconsole.comparison_profile
-            WHERE source_instance = ? AND destination_instance = ?
-            ORDER BY name
-            """;
-
-        List<ComparisonProfile> profiles = new ArrayList<>();
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, sourceInstance);
-            stmt.setString(2, destInstance);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    profiles.add(mapProfile(rs));
-                }
-            }
-
-        } catch (SQLException e) {
-            LOG.errorf("Failed to find profiles by instances: %s", e.getMessage());
-        }
-
-        return profiles;
+        return cached().stream()
+                .filter(profile -> matches(profile, sourceInstance, destInstance))
+                .map(this::copyOf)
+                .collect(Collectors.toList());
     }
 
     /**
@@ -280,32 +238,79 @@ public class ComparisonProfileRepository {
      * @return default profile or empty
      */
     public Optional<ComparisonProfile> findDefault(String sourceInstance, String destInstance) {
+        return cached().stream()
+                .filter(profile -> profile.isDefault() && matches(profile, sourceInstance, destInstance))
+                .findFirst()
+                .map(this::copyOf);
+    }
+
+    private static boolean matches(ComparisonProfile profile, String sourceInstance, String destInstance) {
+        return Objects.equals(profile.getSourceInstance(), sourceInstance)
+                && Objects.equals(profile.getDestinationInstance(), destInstance);
+    }
+
+    /**
+     * Returns the cached profiles, or none if they cannot be read.
+     */
+    private List<ComparisonProfile> cached() {
+        try {
+            return cache.get();
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to find comparison profiles: %s", e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Reads every profile for the cache.
+     */
+    private List<ComparisonProfile> loadAll() {
         String sql = """
             SELECT id, name, description, source_instance, destination_instance,
                    source_schema, destination_schema, filter_config, is_default,
                    created_by, created_at, updated_at, last_run_at, last_run_summary
             FROM pgconsole.comparison_profile
-            WHERE source_instance = ? AND destination_instance = ? AND is_default = TRUE
-            LIMIT 1
+            ORDER BY name
             """;
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+        List<ComparisonProfile> profiles = new ArrayList<>();
 
-            stmt.setString(1, sourceInstance);
-            stmt.setString(2, destInstance);
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery(sql)) {
 
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapProfile(rs));
-                }
+            while (rs.next()) {
+                profiles.add(mapProfile(rs));
             }
 
         } catch (SQLException e) {
-            LOG.errorf("Failed to find default profile: %s", e.getMessage());
+            throw new RuntimeException("Failed to fetch comparison profiles", e);
         }
 
-        return Optional.empty();
+        return List.copyOf(profiles);
+    }
+
+    /**
+     * Copies a cached profile, so that callers may modify it. The filter and
+     * summary are stored as JSON, so a round trip copies them exactly.
+     */
+    private ComparisonProfile copyOf(ComparisonProfile cached) {
+        ComparisonProfile profile = new ComparisonProfile();
+        profile.setId(cached.getId());
+        profile.setName(cached.getName());
+        profile.setDescription(cached.getDescription());
+        profile.setSourceInstance(cached.getSourceInstance());
+        profile.setDestinationInstance(cached.getDestinationInstance());
+        profile.setSourceSchema(cached.getSourceSchema());
+        profile.setDestinationSchema(cached.getDestinationSchema());
+        profile.setFilter(deserialiseFilter(serialiseFilter(cached.getFilter())));
+        profile.setDefault(cached.isDefault());
+        profile.setCreatedBy(cached.getCreatedBy());
+        profile.setCreatedAt(cached.getCreatedAt());
+        profile.setUpdatedAt(cached.getUpdatedAt());
+        profile.setLastRunAt(cached.getLastRunAt());
+        profile.setLastRunSummary(deserialiseSummary(serialiseSummary(cached.getLastRunSummary())));
+        return profile;
     }
 
     private ComparisonProfile mapProfile(ResultSet rs) throws SQLException {
@@ -3,6 +3,7 @@ package com.bovinemagnet.pgconsole.repository;
 import com.bovinemagnet.pgconsole.config.MetadataDataSource;
 import com.bovinemagnet.pgconsole.model.CustomDashboard;
 import com.bovinemagnet.pgconsole.model.CustomWidget;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -11,12 +12,20 @@ import java.sql.*;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repository for custom dashboard and widget persistence.
  * Provides CRUD operations for user-defined dashboards.
+ * <p>
+ * Dashboards are read on every dashboard page, so both tables are held in a
+ * {@link MetadataCache} and each read returns copies of the cached
+ * dashboards and widgets.
  *
  * @author Paul Snow
  * @since 0.0.0
@@ -28,6 +37,19 @@ public class CustomDashboardRepository {
     @MetadataDataSource
     DataSource dataSource;
 
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, covering both the dashboard and widget tables. */
+    static final String TOPIC = "custom_dashboard";
+
+    private MetadataCache<List<CustomDashboard>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
     // ========================================
     // Dashboard CRUD
     // ========================================
@@ -36,81 +58,85 @@ public class CustomDashboardRepository {
      * Get all dashboards for an instance.
      */
     public List<CustomDashboard> findByInstance(String instanceId) {
-        String sql = """
-            SELECT id, created_at, updated_at, instance_id, name, description,
-                   layout, created_by, is_default, is_shared, tags
-            FROM pgconsole.custom_dashboard
-            WHERE instance_id = ?
-            ORDER BY name
-            """;
-
-        List<CustomDashboard> dashboards = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, instanceId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    dashboards.add(mapDashboard(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch dashboards for instance: " + instanceId, e);
-        }
-        return dashboards;
+        return cache.get().stream()
+            .filter(dashboard -> Objects.equals(dashboard.getInstanceId(), instanceId))
+            .map(dashboard -> copyOf(dashboard, false))
+            .collect(Collectors.toList());
     }
 
     /**
      * Get all shared dashboards visible to a user.
      */
     public List<CustomDashboard> findShared(String instanceId) {
-        String sql = """
-            SELECT id, created_at, updated_at, instance_id, name, description,
-                   layout, created_by, is_default, is_shared, tags
-            FROM pgconsole.custom_dashboard
-            WHERE instance_id = ? AND is_shared = TRUE
-            ORDER BY name
-            """;
-
-        List<CustomDashboard> dashboards = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setString(1, instanceId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    dashboards.add(mapDashboard(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch shared dashboards", e);
-        }
-        return dashboards;
+        return cache.get().stream()
+            .filter(dashboard -> Objects.equals(dashboard.getInstanceId(), instanceId) && dashboard.isShared())
+            .map(dashboard -> copyOf(dashboard, false))
+            .collect(Collectors.toList());
     }
 
     /**
      * Get a dashboard by ID with its widgets.
      */
     public Optional<CustomDashboard> findById(Long id) {
-        String sql = """
+        return cache.get().stream()
+            .filter(dashboard -> dashboard.getId().equals(id))
+            .findFirst()
+            .map(dashboard -> copyOf(dashboard, true));
+    }
+
+    /**
+     * Reads every dashboard with its widgets for the cache. Widgets for every
+     * dashboard are read with a single query.
+     */
+    private List<CustomDashboard> loadAll() {
+        String dashboardSql = """
             SELECT id, created_at, updated_at, instance_id, name, description,
                    layout, created_by, is_default, is_shared, tags
             FROM pgconsole.custom_dashboard
-            WHERE id = ?
+            ORDER BY name
+            """;
+        String widgetSql = """
+            SELECT id, dashboard_id, widget_type, title, config, position, width, height
+            FROM pgconsole.custom_widget
+            ORDER BY dashboard_id, position
             """;
 
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    CustomDashboard dashboard = mapDashboard(rs);
-                    dashboard.setWidgets(findWidgetsByDashboardId(id));
-                    return Optional.of(dashboard);
+        Map<Long, CustomDashboard> dashboards = new LinkedHashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            // Read both tables from one snapshot, so no dashboard is seen without its widgets
+            int isolation = conn.getTransactionIsolation();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(dashboardSql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        CustomDashboard dashboard = mapDashboard(rs);
+                        dashboards.put(dashboard.getId(), dashboard);
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(widgetSql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        CustomWidget widget = mapWidget(rs);
+                        CustomDashboard dashboard = dashboards.get(widget.getDashboardId());
+                        if (dashboard != null) {
+                            dashboard.getWidgets().add(widget);
+                        }
+                    }
                 }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(isolation);
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch dashboard: " + id, e);
+            throw new RuntimeException("Failed to fetch dashboards", e);
         }
-        return Optional.empty();
+        return List.copyOf(dashboards.values());
     }
 
     /**
@@ -163,6 +189,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create dashboard: " + dashboard.getName(), e);
         }
+        changeBus.publish(TOPIC);
         return dashboard;
     }
 
@@ -196,6 +223,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update dashboard: " + dashboard.getId(), e);
         }
+        changeBus.publish(TOPIC);
         return dashboard;
     }
 
@@ -212,6 +240,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete dashboard: " + id, e);
         }
+        changeBus.publish(TOPIC);
     }
 
     // ========================================
@@ -222,26 +251,11 @@ public class CustomDashboardRepository {
      * Get all widgets for a dashboard.
      */
     public List<CustomWidget> findWidgetsByDashboardId(Long dashboardId) {
-        String sql = """
-            SELECT id, dashboard_id, widget_type, title, config, position, width, height
-            FROM pgconsole.custom_widget
-            WHERE dashboard_id = ?
-            ORDER BY position
-            """;
-
-        List<CustomWidget> widgets = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-            stmt.setLong(1, dashboardId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    widgets.add(mapWidget(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch widgets for dashboard: " + dashboardId, e);
-        }
-        return widgets;
+        return cache.get().stream()
+            .filter(dashboard -> dashboard.getId().equals(dashboardId))
+            .findFirst()
+            .map(dashboard -> copyOf(dashboard, true).getWidgets())
+            .orElseGet(ArrayList::new);
     }
 
     /**
@@ -249,10 +263,12 @@ public class CustomDashboardRepository {
      */
     public CustomWidget createWidget(CustomWidget widget) {
         try (Connection conn = dataSource.getConnection()) {
-            return createWidget(widget, conn);
+            createWidget(widget, conn);
         } catch (SQLException e) {
             throw new RuntimeException("Failed to create widget", e);
         }
+        changeBus.publish(TOPIC);
+        return widget;
     }
 
     private CustomWidget createWidget(CustomWidget widget, Connection conn) throws SQLException {
@@ -304,6 +320,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update widget: " + widget.getId(), e);
         }
+        changeBus.publish(TOPIC);
         return widget;
     }
 
@@ -320,6 +337,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete widget: " + widgetId, e);
         }
+        changeBus.publish(TOPIC);
     }
 
     /**
@@ -356,6 +374,7 @@ public class CustomDashboardRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to replace widgets for dashboard: " + dashboardId, e);
         }
+        changeBus.publish(TOPIC);
     }
 
     // ========================================
@@ -384,6 +403,42 @@ public class CustomDashboardRepository {
         return dashboard;
     }
 
+    /**
+     * Copies a cached dashboard, so that callers may modify it.
+     *
+     * @param cached the cached dashboard
+     * @param withWidgets whether to copy its widgets too; otherwise the copy has none
+     */
+    private static CustomDashboard copyOf(CustomDashboard cached, boolean withWidgets) {
+        CustomDashboard dashboard = new CustomDashboard();
+        dashboard.setId(cached.getId());
+        dashboard.setCreatedAt(cached.getCreatedAt());
+        dashboard.setUpdatedAt(cached.getUpdatedAt());
+        dashboard.setInstanceId(cached.getInstanceId());
+        dashboard.setName(cached.getName());
+        dashboard.setDescription(cached.getDescription());
+        dashboard.setLayout(cached.getLayout());
+        dashboard.setCreatedBy(cached.getCreatedBy());
+        dashboard.setDefault(cached.isDefault());
+        dashboard.setShared(cached.isShared());
+        dashboard.setTags(new ArrayList<>(cached.getTags()));
+        if (withWidgets) {
+            for (CustomWidget cachedWidget : cached.getWidgets()) {
+                CustomWidget widget = new CustomWidget();
+                widget.setId(cachedWidget.getId());
+                widget.setDashboardId(cachedWidget.getDashboardId());
+                widget.setWidgetType(cachedWidget.getWidgetType());
+                widget.setTitle(cachedWidget.getTitle());
+                widget.setConfig(cachedWidget.getConfig());
+                widget.setPosition(cachedWidget.getPosition());
+                widget.setWidth(cachedWidget.getWidth());
+                widget.setHeight(cachedWidget.getHeight());
+                dashboard.getWidgets().add(widget);
+            }
+        }
+        return dashboard;
+    }
+
     private CustomWidget mapWidget(ResultSet rs) throws SQLException {
         CustomWidget widget = new CustomWidget();
         widget.setId(rs.getLong("id"));
@@ -3,19 +3,26 @@ package com.bovinemagnet.pgconsole.repository;
 import com.bovinemagnet.pgconsole.config.MetadataDataSource;
 import com.bovinemagnet.pgconsole.model.EscalationPolicy;
 import com.bovinemagnet.pgconsole.model.EscalationPolicy.EscalationTier;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import javax.sql.DataSource;
 import java.sql.*;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repository for managing escalation policies.
  * <p>
- * Provides CRUD operations for escalation policies and their tiers.
+ * Provides CRUD operations for escalation policies and their tiers. Policies
+ * are read on every escalation check, so both tables are held in a
+ * {@link MetadataCache} and each read returns copies of the cached policies.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -30,32 +37,28 @@ public class EscalationPolicyRepository {
     @Inject
     NotificationChannelRepository channelRepository;
 
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, covering both the policy and tier tables. */
+    static final String TOPIC = "escalation_policy";
+
+    private MetadataCache<List<EscalationPolicy>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
     /**
      * Finds all escalation policies.
      *
      * @return list of all policies
      */
     public List<EscalationPolicy> findAll() {
-        String sql = """
-            SELECT id, name, description, enabled, repeat_count, created_at, updated_at
-            FROM pgconsole.escalation_policy
-            ORDER BY name
-            """;
-
-        List<EscalationPolicy> policies = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                EscalationPolicy policy = mapRow(rs);
-                policy.setTiers(findTiersByPolicyId(policy.getId()));
-                policies.add(policy);
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch escalation policies", e);
-        }
-        return policies;
+        return cache.get().stream()
+            .map(EscalationPolicyRepository::copyOf)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -65,27 +68,10 @@ public class EscalationPolicyRepository {
      * @return optional containing policy if found
      */
     public Optional<EscalationPolicy> findById(Long id) {
-        String sql = """
-            SELECT id, name, description, enabled, repeat_count, created_at, updated_at
-            FROM pgconsole.escalation_policy
-            WHERE id = ?
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    EscalationPolicy policy = mapRow(rs);
-                    policy.setTiers(findTiersByPolicyId(policy.getId()));
-                    return Optional.of(policy);
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch escalation policy by ID", e);
-        }
-        return Optional.empty();
+        return cache.get().stream()
+            .filter(policy -> policy.getId().equals(id))
+            .findFirst()
+            .map(EscalationPolicyRepository::copyOf);
     }
 
     /**
@@ -94,27 +80,81 @@ public class EscalationPolicyRepository {
      * @return list of enabled policies
      */
     public List<EscalationPolicy> findEnabled() {
-        String sql = """
+        return cache.get().stream()
+            .filter(EscalationPolicy::isEnabled)
+            .map(EscalationPolicyRepository::copyOf)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds all enabled escalation policies with their tiers, keyed by ID.
+     *
+     * @return enabled policies keyed by policy ID
+     */
+    public Map<Long, EscalationPolicy> findEnabledById() {
+        Map<Long, EscalationPolicy> policies = new HashMap<>();
+        for (EscalationPolicy policy : cache.get()) {
+            if (policy.isEnabled()) {
+                policies.put(policy.getId(), copyOf(policy));
+            }
+        }
+        return policies;
+    }
+
+    /**
+     * Reads every policy with its tiers for the cache. Tiers for every policy
+     * are read with a single query, so the cost does not grow with the number
+     * of policies.
+     */
+    private List<EscalationPolicy> loadAll() {
+        String policySql = """
             SELECT id, name, description, enabled, repeat_count, created_at, updated_at
             FROM pgconsole.escalation_policy
-            WHERE enabled = TRUE
             ORDER BY name
             """;
+        String tierSql = """
+            SELECT id, policy_id, tier_order, delay_minutes, channel_ids
+            FROM pgconsole.escalation_tier
+            ORDER BY policy_id, tier_order
+            """;
 
-        List<EscalationPolicy> policies = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                EscalationPolicy policy = mapRow(rs);
-                policy.setTiers(findTiersByPolicyId(policy.getId()));
-                policies.add(policy);
+        Map<Long, EscalationPolicy> policies = new LinkedHashMap<>();
+        try (Connection conn = dataSource.getConnection()) {
+            // Read both tables from one snapshot, so no policy is seen without its tiers
+            int isolation = conn.getTransactionIsolation();
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(policySql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        EscalationPolicy policy = mapRow(rs);
+                        policy.setTiers(new ArrayList<>());
+                        policies.put(policy.getId(), policy);
+                    }
+                }
+                try (PreparedStatement stmt = conn.prepareStatement(tierSql);
+                     ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        EscalationTier tier = mapTierRow(rs);
+                        EscalationPolicy policy = policies.get(tier.getPolicyId());
+                        if (policy != null) {
+                            policy.getTiers().add(tier);
+                        }
+                    }
+                }
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+                conn.setTransactionIsolation(isolation);
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch enabled escalation policies", e);
+            throw new RuntimeException("Failed to fetch escalation policies", e);
         }
-        return policies;
+        return List.copyOf(policies.values());
     }
 
     /**
@@ -163,6 +203,7 @@ public class EscalationPolicyRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to save escalation policy", e);
         }
+        changeBus.publish(TOPIC);
         return policy;
     }
 
@@ -215,6 +256,7 @@ public class EscalationPolicyRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update escalation policy", e);
         }
+        changeBus.publish(TOPIC);
         return policy;
     }
 
@@ -244,30 +286,7 @@ public class EscalationPolicyRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete escalation policy", e);
         }
-    }
-
-    private List<EscalationTier> findTiersByPolicyId(Long policyId) {
-        String sql = """
-            SELECT id, policy_id, tier_order, delay_minutes, channel_ids
-            FROM pgconsole.escalation_tier
-            WHERE policy_id = ?
-            ORDER BY tier_order
-            """;
-
-        List<EscalationTier> tiers = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, policyId);
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    tiers.add(mapTierRow(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch escalation tiers", e);
-        }
-        return tiers;
+        changeBus.publish(TOPIC);
     }
 
     /**
@@ -330,6 +349,35 @@ public class EscalationPolicyRepository {
         return policy;
     }
 
+    /**
+     * Copies a cached policy and its tiers, so that callers may modify them.
+     */
+    private static EscalationPolicy copyOf(EscalationPolicy cached) {
+        EscalationPolicy policy = new EscalationPolicy();
+        policy.setId(cached.getId());
+        policy.setName(cached.getName());
+        policy.setDescription(cached.getDescription());
+        policy.setEnabled(cached.isEnabled());
+        policy.setRepeatCount(cached.getRepeatCount());
+        policy.setCreatedAt(cached.getCreatedAt());
+        policy.setUpdatedAt(cached.getUpdatedAt());
+
+        List<EscalationTier> tiers = new ArrayList<>();
+        for (EscalationTier cachedTier : cached.getTiers()) {
+            EscalationTier tier = new EscalationTier();
+            tier.setId(cachedTier.getId());
+            tier.setPolicyId(cachedTier.getPolicyId());
+            tier.setTierOrder(cachedTier.getTierOrder());
+            tier.setDelayMinutes(cachedTier.getDelayMinutes());
+            if (cachedTier.getChannelIds() != null) {
+                tier.setChannelIds(new ArrayList<>(cachedTier.getChannelIds()));
+            }
+            tiers.add(tier);
+        }
+        policy.setTiers(tiers);
+        return policy;
+    }
+
     private EscalationTier mapTierRow(ResultSet rs) throws SQLException {
         EscalationTier tier = new EscalationTier();
         tier.setId(rs.getLong("id"));
@@ -1,10 +1,12 @@
 package com.bovinemagnet.pgconsole.repository;
 
 import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import com.bovinemagnet.pgconsole.model.AggregatedMetrics;
 import com.bovinemagnet.pgconsole.model.DatabaseMetricsHistory;
 import com.bovinemagnet.pgconsole.model.InfrastructureMetricsHistory;
 import com.bovinemagnet.pgconsole.model.QueryMetricsHistory;
 import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
+import com.bovinemagnet.pgconsole.util.ExportWriter;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -25,6 +27,31 @@ import java.util.List;
 @ApplicationScoped
 public class HistoryRepository {
 
+    /**
+     * The history tables written by the metrics sampler.
+     */
+    public enum HistoryTable {
+        SYSTEM("pgconsole.system_metrics_history"),
+        QUERY("pgconsole.query_metrics_history"),
+        DATABASE("pgconsole.database_metrics_history"),
+        INFRASTRUCTURE("pgconsole.infrastructure_metrics_history");
+
+        private final String tableName;
+
+        HistoryTable(String tableName) {
+            this.tableName = tableName;
+        }
+
+        /**
+         * Returns the schema-qualified table name.
+         *
+         * @return the table name
+         */
+        public String getTableName() {
+            return tableName;
+        }
+    }
+
     @Inject
     @MetadataDataSource
     DataSource dataSource;
@@ -568,16 +595,9 @@ public class HistoryRepository {
         Instant cutoff = Instant.now().minus(retentionDays, ChronoUnit.DAYS);
         int totalDeleted = 0;
 
-        String[] tables = {
-            "pgconsole.system_metrics_history",
-            "pgconsole.query_metrics_history",
-            "pgconsole.database_metrics_history",
-            "pgconsole.infrastructure_metrics_history"
-        };
-
         try (Connection conn = dataSource.getConnection()) {
-            for (String table : tables) {
-                String sql = "DELETE FROM " + table + " WHERE sampled_at < ?";
+            for (HistoryTable table : HistoryTable.values()) {
+                String sql = "DELETE FROM " + table.getTableName() + " WHERE sampled_at < ?";
                 try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                     stmt.setTimestamp(1, Timestamp.from(cutoff));
                     totalDeleted += stmt.executeUpdate();
@@ -590,6 +610,149 @@ public class HistoryRepository {
         return totalDeleted;
     }
 
+    /**
+     * Reads the rows of a streamed history query.
+     *
+     * @param <T> the result type
+     */
+    @FunctionalInterface
+    public interface HistoryRowReader<T> {
+
+        /**
+         * Reads every row of the result set.
+         *
+         * @param rs the result set, positioned before the first row
+         * @return the reader's result
+         * @throws SQLException if reading fails
+         */
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Streams history rows in a time range to an export writer.
+     *
+     * @param table the history table to export
+     * @param instanceId the instance to export, or {@code null} for all instances
+     * @param from inclusive start of the range
+     * @param to exclusive end of the range
+     * @param fetchSize rows fetched per round trip
+     * @param writer the destination
+     * @return the number of rows written
+     * @throws RuntimeException if the database query fails
+     * @see #streamHistory(HistoryTable, String, Instant, Instant, int, HistoryRowReader)
+     */
+    public long streamHistory(HistoryTable table, String instanceId, Instant from, Instant to,
+                              int fetchSize, ExportWriter writer) {
+        return streamHistory(table, instanceId, from, to, fetchSize, writer::writeAll);
+    }
+
+    /**
+     * Streams all columns of the history rows in a time range to a reader.
+     * <p>
+     * Rows are read through a server-side cursor, fetching {@code fetchSize}
+     * rows per round trip, so memory use does not grow with the size of the
+     * range. Rows are ordered by instance, then sample time.
+     *
+     * @param <T> the reader's result type
+     * @param table the history table to read
+     * @param instanceId the instance to read, or {@code null} for all instances
+     * @param from inclusive start of the range
+     * @param to exclusive end of the range
+     * @param fetchSize rows fetched per round trip
+     * @param reader consumes the result set
+     * @return the reader's result
+     * @throws RuntimeException if the database query fails
+     */
+    public <T> T streamHistory(HistoryTable table, String instanceId, Instant from, Instant to,
+                               int fetchSize, HistoryRowReader<T> reader) {
+        String sql = "SELECT * FROM " + table.getTableName()
+            + " WHERE sampled_at >= ? AND sampled_at < ?"
+            + (instanceId != null ? " AND instance_id = ?" : "")
+            + " ORDER BY instance_id, sampled_at, id";
+
+        try (Connection conn = dataSource.getConnection()) {
+            // The driver only uses a cursor outside auto-commit
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                stmt.setTimestamp(1, Timestamp.from(from));
+                stmt.setTimestamp(2, Timestamp.from(to));
+                if (instanceId != null) {
+                    stmt.setString(3, instanceId);
+                }
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return reader.read(rs);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read " + table.getTableName(), e);
+        }
+    }
+
+    /**
+     * Inserts history rows in a single batch and transaction.
+     * <p>
+     * Used to seed history from an archive. Column names must be plain
+     * lower-case identifiers; {@code id} and {@code instance_id} are not
+     * accepted because ids are reassigned and the instance is given separately.
+     *
+     * @param table the history table to insert into
+     * @param instanceId the instance the rows belong to
+     * @param columns the column names, in row order
+     * @param sqlTypes the {@link Types} of each column, used for nulls
+     * @param rows the rows to insert
+     * @return the number of rows inserted
+     * @throws IllegalArgumentException if a column name is not acceptable
+     * @throws RuntimeException if the insert fails
+     */
+    public int insertHistoryRows(HistoryTable table, String instanceId, List<String> columns,
+                                 int[] sqlTypes, List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table.getTableName()).append(" (instance_id");
+        for (String column : columns) {
+            if (!column.matches("[a-z_][a-z0-9_]*") || column.equals("id") || column.equals("instance_id")) {
+                throw new IllegalArgumentException("Unsupported history column: " + column);
+            }
+            sql.append(", ").append(column);
+        }
+        sql.append(") VALUES (?").append(", ?".repeat(columns.size())).append(')');
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
+                for (Object[] row : rows) {
+                    stmt.setString(1, instanceId);
+                    for (int i = 0; i < row.length; i++) {
+                        if (row[i] == null) {
+                            stmt.setNull(i + 2, sqlTypes[i]);
+                        } else {
+                            stmt.setObject(i + 2, row[i], sqlTypes[i]);
+                        }
+                    }
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to import rows into " + table.getTableName(), e);
+        }
+        return rows.size();
+    }
+
     /**
      * Retrieves aggregated query metrics for a specific time window.
      * <p>
@@ -778,6 +941,244 @@ public class HistoryRepository {
         return history;
     }
 
+    /**
+     * Averages the system metrics sampled within a time range, in SQL.
+     * <p>
+     * Only the averages leave the database, however many samples the range
+     * holds. Nullable columns are averaged over the samples that have them.
+     *
+     * @param instanceId the PostgreSQL instance identifier
+     * @param start      start of the time range (inclusive)
+     * @param end        end of the time range (inclusive)
+     * @return the sample count and averages; only the window and a sample
+     *         count of 0 are set if the range holds no samples
+     * @throws RuntimeException if database query fails
+     */
+    public AggregatedMetrics aggregateSystemMetrics(String instanceId, Instant start, Instant end) {
+        AggregatedMetrics agg = new AggregatedMetrics();
+        agg.setWindowStart(start);
+        agg.setWindowEnd(end);
+
+        String sql = """
+            SELECT COUNT(*) AS sample_count,
+                   AVG(total_connections) AS avg_total_connections,
+                   AVG(active_queries) AS avg_active_queries,
+                   AVG(blocked_queries) AS avg_blocked_queries,
+                   AVG(idle_in_transaction) AS avg_idle_in_transaction,
+                   AVG(cache_hit_ratio) AS avg_cache_hit_ratio,
+                   AVG(longest_query_seconds) AS avg_longest_query_seconds,
+                   TRUNC(AVG(total_database_size_bytes)) AS avg_database_size_bytes
+            FROM pgconsole.system_metrics_history
+            WHERE instance_id = ? AND sampled_at >= ? AND sampled_at <= ?
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, instanceId);
+            stmt.setTimestamp(2, Timestamp.from(start));
+            stmt.setTimestamp(3, Timestamp.from(end));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                agg.setSampleCount(rs.getInt("sample_count"));
+                if (agg.getSampleCount() == 0) {
+                    return agg;
+                }
+                agg.setAvgTotalConnections(rs.getDouble("avg_total_connections"));
+                agg.setAvgActiveQueries(rs.getDouble("avg_active_queries"));
+                agg.setAvgBlockedQueries(rs.getDouble("avg_blocked_queries"));
+                agg.setAvgIdleInTransaction(rs.getDouble("avg_idle_in_transaction"));
+                agg.setAvgCacheHitRatio(getDoubleOrNull(rs, "avg_cache_hit_ratio"));
+                Double avgLongest = getDoubleOrNull(rs, "avg_longest_query_seconds");
+                agg.setAvgLongestQuerySeconds(avgLongest != null ? avgLongest : 0.0);
+                agg.setAvgDatabaseSizeBytes(getLongOrNull(rs, "avg_database_size_bytes"));
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to aggregate system metrics for " + instanceId, e);
+        }
+
+        return agg;
+    }
+
+    /**
+     * Retrieves the first and last database metrics samples within a time
+     * range, each summed across databases.
+     * <p>
+     * Rates over the range follow from the difference between the two
+     * cumulative readings, so the samples in between are never read.
+     *
+     * @param instanceId the PostgreSQL instance identifier
+     * @param start      start of the time range (inclusive)
+     * @param end        end of the time range (inclusive)
+     * @return the first and last samples, a single sample if only one time
+     *         was sampled, or an empty list
+     * @throws RuntimeException if database query fails
+     */
+    public List<DatabaseMetricsHistory> getDatabaseCounterBounds(String instanceId, Instant start, Instant end) {
+        List<DatabaseMetricsHistory> bounds = new ArrayList<>();
+
+        String sql = """
+            WITH bounds AS (
+                SELECT MIN(sampled_at) AS first_at, MAX(sampled_at) AS last_at
+                FROM pgconsole.database_metrics_history
+                WHERE instance_id = ? AND sampled_at >= ? AND sampled_at <= ?
+            )
+            SELECT d.sampled_at,
+                   SUM(d.xact_commit) as xact_commit,
+                   SUM(d.xact_rollback) as xact_rollback,
+                   SUM(d.tup_inserted) as tup_inserted,
+                   SUM(d.tup_updated) as tup_updated,
+                   SUM(d.tup_deleted) as tup_deleted
+            FROM pgconsole.database_metrics_history d
+            JOIN bounds b ON d.sampled_at IN (b.first_at, b.last_at)
+            WHERE d.instance_id = ?
+            GROUP BY d.sampled_at
+            ORDER BY d.sampled_at ASC
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, instanceId);
+            stmt.setTimestamp(2, Timestamp.from(start));
+            stmt.setTimestamp(3, Timestamp.from(end));
+            stmt.setString(4, instanceId);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    DatabaseMetricsHistory m = new DatabaseMetricsHistory();
+                    m.setSampledAt(readInstant(rs, "sampled_at"));
+                    m.setXactCommit(rs.getLong("xact_commit"));
+                    m.setXactRollback(rs.getLong("xact_rollback"));
+                    m.setTupInserted(getLongOrNull(rs, "tup_inserted"));
+                    m.setTupUpdated(getLongOrNull(rs, "tup_updated"));
+                    m.setTupDeleted(getLongOrNull(rs, "tup_deleted"));
+                    bounds.add(m);
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to get database counter bounds for " + instanceId, e);
+        }
+
+        return bounds;
+    }
+
+    /**
+     * Counts the system metrics samples of an instance since a point in time.
+     *
+     * @param instanceId the PostgreSQL instance identifier
+     * @param since      the earliest sample time to count
+     * @return the number of samples
+     * @throws RuntimeException if database query fails
+     */
+    public int countSystemMetrics(String instanceId, Instant since) {
+        String sql = """
+            SELECT COUNT(*)
+            FROM pgconsole.system_metrics_history
+            WHERE instance_id = ? AND sampled_at >= ?
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, instanceId);
+            stmt.setTimestamp(2, Timestamp.from(since));
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                rs.next();
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to count system metrics for " + instanceId, e);
+        }
+    }
+
+    /**
+     * Streams the system metrics samples of an instance since a point in
+     * time, oldest first, through a server-side cursor.
+     * <p>
+     * Used to build charts without first loading every sample into a list.
+     * The columns are those of {@code pgconsole.system_metrics_history}.
+     *
+     * @param <T>        the reader's result type
+     * @param instanceId the PostgreSQL instance identifier
+     * @param since      the earliest sample time to read
+     * @param fetchSize  rows fetched per round trip
+     * @param reader     consumes the result set
+     * @return the reader's result
+     * @throws RuntimeException if database query fails
+     */
+    public <T> T streamSystemMetrics(String instanceId, Instant since, int fetchSize, HistoryRowReader<T> reader) {
+        String sql = """
+            SELECT sampled_at, total_connections, max_connections, active_queries,
+                   idle_connections, idle_in_transaction, blocked_queries,
+                   longest_query_seconds, longest_transaction_seconds,
+                   cache_hit_ratio, total_database_size_bytes
+            FROM pgconsole.system_metrics_history
+            WHERE instance_id = ? AND sampled_at >= ?
+            ORDER BY sampled_at ASC
+            """;
+        return streamSince(sql, instanceId, since, fetchSize, reader, "system metrics");
+    }
+
+    /**
+     * Streams the database metrics samples of an instance since a point in
+     * time, each summed across databases, oldest first, through a
+     * server-side cursor.
+     * <p>
+     * Only the transaction and tuple counters are read: {@code xact_commit},
+     * {@code xact_rollback}, {@code tup_inserted}, {@code tup_updated} and
+     * {@code tup_deleted}.
+     *
+     * @param <T>        the reader's result type
+     * @param instanceId the PostgreSQL instance identifier
+     * @param since      the earliest sample time to read
+     * @param fetchSize  rows fetched per round trip
+     * @param reader     consumes the result set
+     * @return the reader's result
+     * @throws RuntimeException if database query fails
+     */
+    public <T> T streamAggregatedDatabaseMetrics(String instanceId, Instant since, int fetchSize,
+                                                 HistoryRowReader<T> reader) {
+        String sql = """
+            SELECT sampled_at,
+                   SUM(xact_commit) as xact_commit,
+                   SUM(xact_rollback) as xact_rollback,
+                   SUM(tup_inserted) as tup_inserted,
+                   SUM(tup_updated) as tup_updated,
+                   SUM(tup_deleted) as tup_deleted
+            FROM pgconsole.database_metrics_history
+            WHERE instance_id = ? AND sampled_at >= ?
+            GROUP BY sampled_at
+            ORDER BY sampled_at ASC
+            """;
+        return streamSince(sql, instanceId, since, fetchSize, reader, "database metrics");
+    }
+
+    private <T> T streamSince(String sql, String instanceId, Instant since, int fetchSize,
+                              HistoryRowReader<T> reader, String what) {
+        try (Connection conn = dataSource.getConnection()) {
+            // The driver only uses a cursor outside auto-commit
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                stmt.setString(1, instanceId);
+                stmt.setTimestamp(2, Timestamp.from(since));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    return reader.read(rs);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to read " + what + " for " + instanceId, e);
+        }
+    }
+
     /**
      * Retrieves distinct database names from history for an instance.
      *
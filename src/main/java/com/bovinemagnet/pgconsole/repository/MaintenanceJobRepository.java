@@ -0,0 +1,219 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import com.bovinemagnet.pgconsole.model.MaintenanceJob;
+import com.bovinemagnet.pgconsole.model.ScheduledMaintenance.TaskType;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Repository for the durable maintenance job queue.
+ * <p>
+ * Records each job in {@code pgconsole.maintenance_job} when it is queued,
+ * started and finished, so that queued jobs can be resumed after a restart
+ * and finished jobs remain as history. Each job is claimed by the replica
+ * that queued it; the jobs of a replica that has stopped are adopted by
+ * another.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see MaintenanceJob
+ * @see com.bovinemagnet.pgconsole.service.MaintenanceJobService
+ */
+@ApplicationScoped
+public class MaintenanceJobRepository {
+
+    @Inject
+    @MetadataDataSource
+    DataSource dataSource;
+
+    /**
+     * Records a newly queued job.
+     *
+     * @param job the job
+     * @param replicaId the replica that will run it
+     */
+    public void insert(MaintenanceJob job, String replicaId) {
+        String sql = """
+            INSERT INTO pgconsole.maintenance_job
+                (id, instance_id, task_id, task_type, target_schema, target_table, require_window,
+                 cost_delay_ms, cost_limit, maintenance_work_mem_mb, status, submitted_by, submitted_at,
+                 claimed_by)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, job.getId());
+            stmt.setString(2, job.getInstanceName());
+            stmt.setObject(3, job.getTaskId());
+            stmt.setString(4, job.getTaskType().name());
+            stmt.setString(5, job.getTargetSchema());
+            stmt.setString(6, job.getTargetTable());
+            stmt.setBoolean(7, job.isRequireWindow());
+            stmt.setObject(8, job.getCostDelayMs());
+            stmt.setObject(9, job.getCostLimit());
+            stmt.setObject(10, job.getMaintenanceWorkMemMb());
+            stmt.setString(11, job.getStatus().name());
+            stmt.setString(12, job.getSubmittedBy());
+            stmt.setTimestamp(13, Timestamp.from(job.getSubmittedAt()));
+            stmt.setString(14, replicaId);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record maintenance job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Records that a job has started, if it is still queued and claimed by
+     * the replica starting it.
+     *
+     * @param job the running job
+     * @param replicaId the replica running it
+     * @return {@code false} if the job was cancelled or adopted by another
+     *         replica meanwhile
+     */
+    public boolean markRunning(MaintenanceJob job, String replicaId) {
+        String sql = """
+            UPDATE pgconsole.maintenance_job
+            SET status = 'RUNNING', started_at = ?, backend_pid = ?
+            WHERE id = ? AND status = 'QUEUED' AND claimed_by IS NOT DISTINCT FROM ?
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setTimestamp(1, Timestamp.from(job.getStartedAt()));
+            stmt.setInt(2, job.getBackendPid());
+            stmt.setString(3, job.getId());
+            stmt.setString(4, replicaId);
+            return stmt.executeUpdate() > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record start of maintenance job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Records that a job has finished.
+     *
+     * @param job the finished job
+     */
+    public void markFinished(MaintenanceJob job) {
+        String sql = """
+            UPDATE pgconsole.maintenance_job
+            SET status = ?, completed_at = ?, error_message = ?
+            WHERE id = ?
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, job.getStatus().name());
+            stmt.setTimestamp(2, Timestamp.from(job.getCompletedAt()));
+            stmt.setString(3, job.getError());
+            stmt.setString(4, job.getId());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to record end of maintenance job " + job.getId(), e);
+        }
+    }
+
+    /**
+     * Marks jobs left running by a stopped process as failed. Their
+     * connections closed with the process, so nothing will finish them.
+     *
+     * @param liveReplicas the replicas whose jobs are still running
+     * @return the number of jobs marked
+     */
+    public int failInterrupted(Collection<String> liveReplicas) {
+        String sql = """
+            UPDATE pgconsole.maintenance_job
+            SET status = 'FAILED', completed_at = NOW(),
+                error_message = 'Interrupted by a restart of pg-console'
+            WHERE status = 'RUNNING'
+              AND (claimed_by IS NULL OR NOT claimed_by = ANY(?))
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("varchar", liveReplicas.toArray()));
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to mark interrupted maintenance jobs", e);
+        }
+    }
+
+    /**
+     * Claims the queued jobs of replicas that are no longer live, and of
+     * none, for a replica.
+     *
+     * @param replicaId the replica adopting the jobs
+     * @param liveReplicas the replicas whose jobs are left alone
+     * @return the adopted jobs, in submission order
+     */
+    public List<MaintenanceJob> adoptQueued(String replicaId, Collection<String> liveReplicas) {
+        String sql = """
+            UPDATE pgconsole.maintenance_job
+            SET claimed_by = ?
+            WHERE status = 'QUEUED'
+              AND (claimed_by IS NULL OR NOT claimed_by = ANY(?))
+            RETURNING id, instance_id, task_id, task_type, target_schema, target_table, require_window,
+                      cost_delay_ms, cost_limit, maintenance_work_mem_mb, submitted_by, submitted_at
+            """;
+
+        List<MaintenanceJob> jobs = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, replicaId);
+            stmt.setArray(2, conn.createArrayOf("varchar", liveReplicas.toArray()));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    MaintenanceJob job = mapRow(rs);
+                    if (job != null) {
+                        jobs.add(job);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to adopt queued maintenance jobs", e);
+        }
+        // RETURNING has no order
+        jobs.sort(Comparator.comparing(MaintenanceJob::getSubmittedAt).thenComparing(MaintenanceJob::getId));
+        return jobs;
+    }
+
+    /**
+     * Maps a queued row, skipping one whose task type is no longer known.
+     */
+    private MaintenanceJob mapRow(ResultSet rs) throws SQLException {
+        TaskType taskType;
+        try {
+            taskType = TaskType.valueOf(rs.getString("task_type"));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        Timestamp submittedAt = rs.getTimestamp("submitted_at");
+        MaintenanceJob job = new MaintenanceJob(rs.getString("id"), rs.getString("instance_id"), taskType,
+                rs.getString("target_schema"), rs.getString("target_table"),
+                submittedAt != null ? submittedAt.toInstant() : Instant.now());
+        job.setTaskId((Long) rs.getObject("task_id"));
+        job.setRequireWindow(rs.getBoolean("require_window"));
+        job.setCostDelayMs((Integer) rs.getObject("cost_delay_ms"));
+        job.setCostLimit((Integer) rs.getObject("cost_limit"));
+        job.setMaintenanceWorkMemMb((Integer) rs.getObject("maintenance_work_mem_mb"));
+        job.setSubmittedBy(rs.getString("submitted_by"));
+        return job;
+    }
+}
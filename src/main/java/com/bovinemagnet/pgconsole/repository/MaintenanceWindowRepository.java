@@ -264,6 +264,22 @@ public class MaintenanceWindowRepository {
         return false;
     }
 
+    /**
+     * Checks if an active maintenance window covers the given instance, so
+     * that maintenance jobs waiting for a window may run on it.
+     *
+     * @param instanceName instance name
+     * @return true if a window covering the instance is active
+     */
+    public boolean isOpenFor(String instanceName) {
+        for (MaintenanceWindow window : findActive()) {
+            if (window.coversInstance(instanceName)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     private MaintenanceWindow mapRow(ResultSet rs) throws SQLException {
         MaintenanceWindow window = new MaintenanceWindow();
         window.setId(rs.getLong("id"));
@@ -0,0 +1,78 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * In-memory copy of a metadata table, reloaded after each change.
+ * <p>
+ * The copy is loaded on first use and dropped when {@link MetadataChangeBus}
+ * reports a change, from this replica or another. It is only kept while the
+ * bus is listening; otherwise no change would be heard, so every read goes
+ * to the database. A load that overlaps a change is returned but not kept.
+ * <p>
+ * The loaded value is shared between readers, so repositories hand out
+ * copies of the objects in it rather than the objects themselves.
+ *
+ * @param <T> the loaded value, typically every row of the table
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see MetadataChangeBus#cache(String, Supplier)
+ */
+public final class MetadataCache<T> {
+
+    private final Supplier<T> loader;
+    private final BooleanSupplier coherent;
+
+    // Guarded by this for writes
+    private volatile T value;
+    private long version;
+
+    MetadataCache(Supplier<T> loader, BooleanSupplier coherent) {
+        this.loader = loader;
+        this.coherent = coherent;
+    }
+
+    /**
+     * Returns the cached value, loading it if needed.
+     *
+     * @return the value; shared, so it must not be modified
+     */
+    public T get() {
+        if (!coherent.getAsBoolean()) {
+            return loader.get();
+        }
+        T current = value;
+        if (current != null) {
+            return current;
+        }
+        long seen;
+        synchronized (this) {
+            seen = version;
+        }
+        T loaded = loader.get();
+        synchronized (this) {
+            if (version == seen && value == null) {
+                value = loaded;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Returns the cached value without loading it.
+     *
+     * @return the value, or {@code null} if not loaded
+     */
+    public T peek() {
+        return value;
+    }
+
+    /**
+     * Drops the cached value, and any load in progress.
+     */
+    synchronized void invalidate() {
+        version++;
+        value = null;
+    }
+}
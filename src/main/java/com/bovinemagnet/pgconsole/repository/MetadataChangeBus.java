@@ -0,0 +1,216 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+/**
+ * Tells every replica when cached metadata changes, through
+ * {@code LISTEN}/{@code NOTIFY} on the metadata database.
+ * <p>
+ * Repositories register a {@link MetadataCache} per table. After a write
+ * they call {@link #publish(String)}, which drops the local copy at once
+ * and sends a {@code NOTIFY} naming the table. A listener thread on each
+ * replica holds one connection that has run {@code LISTEN}, and drops its
+ * copy when the notification arrives.
+ * <p>
+ * A notification sent while the listening connection is down is lost, so
+ * caches are only trusted while it is up. When it drops, every copy is
+ * discarded and reads go to the database until it has reconnected.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see MetadataCache
+ */
+@ApplicationScoped
+public class MetadataChangeBus {
+
+    private static final Logger LOG = Logger.getLogger(MetadataChangeBus.class);
+
+    /** The notification channel every replica listens on. */
+    static final String CHANNEL = "pgconsole_metadata_changed";
+
+    /** How long to wait for notifications between checks of the connection. */
+    private static final int POLL_MILLIS = 1000;
+
+    /** How often the listening connection is checked while idle. */
+    private static final long VALIDATE_MILLIS = 30_000;
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    @MetadataDataSource
+    DataSource dataSource;
+
+    /** Identifies this replica's notifications, which it has already applied. */
+    private final String origin = UUID.randomUUID().toString();
+
+    private final Map<String, List<MetadataCache<?>>> caches = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    /** Whether the listening connection is up; package-private for tests. */
+    volatile boolean listening;
+    private Thread listener;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!config.schema().enabled() || !config.metadataCache().enabled()) {
+            return;
+        }
+        enabled = true;
+        listener = new Thread(this::listen, "metadata-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    void stop() {
+        enabled = false;
+        if (listener != null) {
+            listener.interrupt();
+        }
+    }
+
+    /**
+     * Creates a cache that is dropped whenever a topic is published.
+     *
+     * @param topic the table or other name writes are published under
+     * @param loader reads the whole value from the database
+     * @param <T> the cached value
+     * @return the cache
+     */
+    public <T> MetadataCache<T> cache(String topic, Supplier<T> loader) {
+        MetadataCache<T> cache = new MetadataCache<>(loader, this::isListening);
+        caches.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(cache);
+        return cache;
+    }
+
+    /**
+     * Reports a committed change, dropping this replica's copies and
+     * notifying the others.
+     *
+     * @param topic the changed table
+     */
+    public void publish(String topic) {
+        invalidate(topic);
+        if (!enabled) {
+            return;
+        }
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT pg_notify(?, ?)")) {
+            stmt.setString(1, CHANNEL);
+            stmt.setString(2, topic + ":" + origin);
+            stmt.execute();
+        } catch (SQLException e) {
+            LOG.warnf("Could not notify other replicas of a change to %s: %s", topic, e.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether changes are being heard, so that caches may be kept.
+     *
+     * @return true while the listening connection is up
+     */
+    public boolean isListening() {
+        return listening;
+    }
+
+    private void listen() {
+        long reconnectMillis = Math.max(1, config.metadataCache().reconnectSeconds()) * 1000L;
+        while (enabled) {
+            try (Connection conn = dataSource.getConnection()) {
+                PGConnection pgConn;
+                try {
+                    pgConn = conn.unwrap(PGConnection.class);
+                } catch (SQLException e) {
+                    LOG.info("Metadata database does not support LISTEN; metadata will not be cached");
+                    enabled = false;
+                    return;
+                }
+                conn.setAutoCommit(true);
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("LISTEN " + CHANNEL);
+                }
+                // Changes made before LISTEN took effect were not heard
+                invalidateAll();
+                listening = true;
+                LOG.debugf("Listening for metadata changes on %s", CHANNEL);
+
+                long validatedAt = System.currentTimeMillis();
+                while (enabled) {
+                    PGNotification[] notifications = pgConn.getNotifications(POLL_MILLIS);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                    // A silently dropped connection would otherwise look idle forever
+                    if (System.currentTimeMillis() - validatedAt > VALIDATE_MILLIS) {
+                        if (!conn.isValid(5)) {
+                            throw new SQLException("listening connection is no longer valid");
+                        }
+                        validatedAt = System.currentTimeMillis();
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (enabled) {
+                    LOG.warnf("Stopped listening for metadata changes; reading metadata from the database until reconnected: %s",
+                            e.getMessage());
+                }
+            } finally {
+                listening = false;
+                invalidateAll();
+            }
+            try {
+                Thread.sleep(reconnectMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    /**
+     * Applies a notification whose payload is {@code topic:origin}.
+     */
+    void receive(String payload) {
+        if (payload == null) {
+            return;
+        }
+        int separator = payload.lastIndexOf(':');
+        String topic = separator >= 0 ? payload.substring(0, separator) : payload;
+        String sender = separator >= 0 ? payload.substring(separator + 1) : "";
+        if (!origin.equals(sender)) {
+            LOG.debugf("Metadata changed by another replica: %s", topic);
+            invalidate(topic);
+        }
+    }
+
+    private void invalidate(String topic) {
+        caches.getOrDefault(topic, List.of()).forEach(MetadataCache::invalidate);
+    }
+
+    private void invalidateAll() {
+        caches.values().forEach(list -> list.forEach(MetadataCache::invalidate));
+    }
+}
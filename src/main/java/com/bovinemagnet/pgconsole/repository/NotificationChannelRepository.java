@@ -3,6 +3,7 @@ package com.bovinemagnet.pgconsole.repository;
 import com.bovinemagnet.pgconsole.config.MetadataDataSource;
 import com.bovinemagnet.pgconsole.model.NotificationChannel;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
@@ -11,14 +12,18 @@ import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 /**
  * Repository for managing notification channels.
  * <p>
  * Provides CRUD operations for notification channel configurations
- * stored in the pgconsole.notification_channel table.
+ * stored in the pgconsole.notification_channel table. Channels are read on
+ * every alert dispatch, so the table is held in a {@link MetadataCache} and
+ * each read returns copies of the cached channels.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -30,34 +35,30 @@ public class NotificationChannelRepository {
     @MetadataDataSource
     DataSource dataSource;
 
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, named after the table. */
+    static final String TOPIC = "notification_channel";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
 
+    private MetadataCache<List<NotificationChannel>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
     /**
      * Finds all notification channels.
      *
      * @return list of all channels
      */
     public List<NotificationChannel> findAll() {
-        String sql = """
-            SELECT id, name, channel_type, enabled, config, severity_filter,
-                   alert_type_filter, instance_filter, rate_limit_per_hour,
-                   created_at, updated_at, last_used_at, test_mode
-            FROM pgconsole.notification_channel
-            ORDER BY name
-            """;
-
-        List<NotificationChannel> channels = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                channels.add(mapRow(rs));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch notification channels", e);
-        }
-        return channels;
+        return cache.get().stream()
+            .map(this::copyOf)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -66,27 +67,10 @@ public class NotificationChannelRepository {
      * @return list of enabled channels
      */
     public List<NotificationChannel> findEnabled() {
-        String sql = """
-            SELECT id, name, channel_type, enabled, config, severity_filter,
-                   alert_type_filter, instance_filter, rate_limit_per_hour,
-                   created_at, updated_at, last_used_at, test_mode
-            FROM pgconsole.notification_channel
-            WHERE enabled = TRUE
-            ORDER BY name
-            """;
-
-        List<NotificationChannel> channels = new ArrayList<>();
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql);
-             ResultSet rs = stmt.executeQuery()) {
-
-            while (rs.next()) {
-                channels.add(mapRow(rs));
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch enabled notification channels", e);
-        }
-        return channels;
+        return cache.get().stream()
+            .filter(NotificationChannel::isEnabled)
+            .map(this::copyOf)
+            .collect(Collectors.toList());
     }
 
     /**
@@ -96,27 +80,10 @@ public class NotificationChannelRepository {
      * @return optional containing channel if found
      */
     public Optional<NotificationChannel> findById(Long id) {
-        String sql = """
-            SELECT id, name, channel_type, enabled, config, severity_filter,
-                   alert_type_filter, instance_filter, rate_limit_per_hour,
-                   created_at, updated_at, last_used_at, test_mode
-            FROM pgconsole.notification_channel
-            WHERE id = ?
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, id);
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return Optional.of(mapRow(rs));
-                }
-            }
-        } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch notification channel by ID", e);
-        }
-        return Optional.empty();
+        return cache.get().stream()
+            .filter(channel -> channel.getId().equals(id))
+            .findFirst()
+            .map(this::copyOf);
     }
 
     /**
@@ -126,29 +93,36 @@ public class NotificationChannelRepository {
      * @return list of matching channels
      */
     public List<NotificationChannel> findByType(NotificationChannel.ChannelType channelType) {
+        return cache.get().stream()
+            .filter(channel -> channel.getChannelType() == channelType && channel.isEnabled())
+            .map(this::copyOf)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Reads every channel for the cache.
+     */
+    private List<NotificationChannel> loadAll() {
         String sql = """
             SELECT id, name, channel_type, enabled, config, severity_filter,
                    alert_type_filter, instance_filter, rate_limit_per_hour,
                    created_at, updated_at, last_used_at, test_mode
             FROM pgconsole.notification_channel
-            WHERE channel_type = ? AND enabled = TRUE
             ORDER BY name
             """;
 
         List<NotificationChannel> channels = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
 
-            stmt.setString(1, channelType.name());
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    channels.add(mapRow(rs));
-                }
+            while (rs.next()) {
+                channels.add(mapRow(rs));
             }
         } catch (SQLException e) {
-            throw new RuntimeException("Failed to fetch channels by type", e);
+            throw new RuntimeException("Failed to fetch notification channels", e);
         }
-        return channels;
+        return List.copyOf(channels);
     }
 
     /**
@@ -192,6 +166,7 @@ public class NotificationChannelRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to save notification channel", e);
         }
+        changeBus.publish(TOPIC);
         return channel;
     }
 
@@ -236,6 +211,7 @@ public class NotificationChannelRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update notification channel", e);
         }
+        changeBus.publish(TOPIC);
         return channel;
     }
 
@@ -255,10 +231,14 @@ public class NotificationChannelRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to delete notification channel", e);
         }
+        changeBus.publish(TOPIC);
     }
 
     /**
      * Updates the last used timestamp for a channel.
+     * <p>
+     * This changes on every dispatch and is only shown, so the cached channel
+     * is updated in place rather than reloaded on every replica.
      *
      * @param id channel ID
      */
@@ -273,6 +253,70 @@ public class NotificationChannelRepository {
         } catch (SQLException e) {
             throw new RuntimeException("Failed to update last used timestamp", e);
         }
+        markUsed(List.of(id));
+    }
+
+    /**
+     * Updates the last used timestamp for several channels in one statement,
+     * updating the cached channels in place.
+     *
+     * @param ids channel IDs
+     */
+    public void updateLastUsed(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        String sql = "UPDATE pgconsole.notification_channel SET last_used_at = NOW() WHERE id = ANY(?)";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setArray(1, conn.createArrayOf("bigint", ids.toArray()));
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to update last used timestamps", e);
+        }
+        markUsed(ids);
+    }
+
+    private void markUsed(Collection<Long> ids) {
+        List<NotificationChannel> cached = cache.peek();
+        if (cached == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        cached.stream()
+            .filter(channel -> ids.contains(channel.getId()))
+            .forEach(channel -> channel.setLastUsedAt(now));
+    }
+
+    /**
+     * Copies a cached channel, so that callers may modify it.
+     */
+    private NotificationChannel copyOf(NotificationChannel cached) {
+        NotificationChannel channel = new NotificationChannel();
+        channel.setId(cached.getId());
+        channel.setName(cached.getName());
+        channel.setChannelType(cached.getChannelType());
+        channel.setEnabled(cached.isEnabled());
+        // The settings are stored as JSON, so a round trip copies them exactly
+        deserializeConfig(channel, serializeConfig(cached));
+        if (cached.getSeverityFilter() != null) {
+            channel.setSeverityFilter(new ArrayList<>(cached.getSeverityFilter()));
+        }
+        if (cached.getAlertTypeFilter() != null) {
+            channel.setAlertTypeFilter(new ArrayList<>(cached.getAlertTypeFilter()));
+        }
+        if (cached.getInstanceFilter() != null) {
+            channel.setInstanceFilter(new ArrayList<>(cached.getInstanceFilter()));
+        }
+        channel.setRateLimitPerHour(cached.getRateLimitPerHour());
+        channel.setCreatedAt(cached.getCreatedAt());
+        channel.setUpdatedAt(cached.getUpdatedAt());
+        channel.setLastUsedAt(cached.getLastUsedAt());
+        channel.setTestMode(cached.isTestMode());
+        return channel;
     }
 
     private NotificationChannel mapRow(ResultSet rs) throws SQLException {
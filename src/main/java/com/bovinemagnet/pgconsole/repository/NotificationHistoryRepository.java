@@ -47,21 +47,7 @@ public class NotificationHistoryRepository {
         try (Connection conn = dataSource.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
 
-            stmt.setObject(1, result.getChannelId());
-            stmt.setString(2, result.getChannelName());
-            stmt.setString(3, result.getChannelType() != null ? result.getChannelType().name() : null);
-            stmt.setString(4, result.getAlertId());
-            stmt.setString(5, result.getAlertType());
-            stmt.setString(6, result.getAlertSeverity());
-            stmt.setString(7, result.getAlertMessage());
-            stmt.setString(8, result.getInstanceName());
-            stmt.setTimestamp(9, Timestamp.from(result.getSentAt()));
-            stmt.setBoolean(10, result.isSuccess());
-            stmt.setInt(11, result.getResponseCode());
-            stmt.setString(12, result.getResponseBody());
-            stmt.setString(13, result.getErrorMessage());
-            stmt.setObject(14, result.getEscalationTier());
-            stmt.setString(15, result.getDedupKey());
+            bind(stmt, result);
 
             try (ResultSet rs = stmt.executeQuery()) {
                 if (rs.next()) {
@@ -74,6 +60,58 @@ public class NotificationHistoryRepository {
         return result;
     }
 
+    /**
+     * Saves several notification results to history in one JDBC batch.
+     * <p>
+     * Generated IDs are not read back; use {@link #save(NotificationResult)}
+     * when the caller needs the ID.
+     *
+     * @param results notification results to save
+     */
+    public void saveAll(List<NotificationResult> results) {
+        if (results.isEmpty()) {
+            return;
+        }
+
+        String sql = """
+            INSERT INTO pgconsole.notification_history
+                (channel_id, channel_name, channel_type, alert_id, alert_type, alert_severity,
+                 alert_message, instance_name, sent_at, success, response_code, response_body,
+                 error_message, escalation_tier, dedup_key)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            for (NotificationResult result : results) {
+                bind(stmt, result);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save notification history batch", e);
+        }
+    }
+
+    private void bind(PreparedStatement stmt, NotificationResult result) throws SQLException {
+        stmt.setObject(1, result.getChannelId());
+        stmt.setString(2, result.getChannelName());
+        stmt.setString(3, result.getChannelType() != null ? result.getChannelType().name() : null);
+        stmt.setString(4, result.getAlertId());
+        stmt.setString(5, result.getAlertType());
+        stmt.setString(6, result.getAlertSeverity());
+        stmt.setString(7, result.getAlertMessage());
+        stmt.setString(8, result.getInstanceName());
+        stmt.setTimestamp(9, Timestamp.from(result.getSentAt()));
+        stmt.setBoolean(10, result.isSuccess());
+        stmt.setInt(11, result.getResponseCode());
+        stmt.setString(12, result.getResponseBody());
+        stmt.setString(13, result.getErrorMessage());
+        stmt.setObject(14, result.getEscalationTier());
+        stmt.setString(15, result.getDedupKey());
+    }
+
     /**
      * Finds recent notification history.
      *
@@ -0,0 +1,172 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Repository for instances registered at runtime.
+ * <p>
+ * Stores the instances in {@code pgconsole.registered_instance}. Every
+ * replica re-reads the table every few seconds to pick up instances
+ * registered elsewhere, so it is held in a {@link MetadataCache} and each
+ * read returns copies of the cached instances.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.InstanceRegistry
+ */
+@ApplicationScoped
+public class RegisteredInstanceRepository {
+
+    @Inject
+    @MetadataDataSource
+    DataSource dataSource;
+
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, named after the table. */
+    static final String TOPIC = "registered_instance";
+
+    private MetadataCache<List<RegisteredInstance>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
+    /**
+     * Finds every registered instance.
+     *
+     * @return the instances, ordered by name
+     */
+    public List<RegisteredInstance> findAll() {
+        return cache.get().stream()
+            .map(RegisteredInstance::copy)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Finds a registered instance by name.
+     *
+     * @param name the instance name
+     * @return the instance, if registered
+     */
+    public Optional<RegisteredInstance> findByName(String name) {
+        return cache.get().stream()
+            .filter(instance -> instance.getName().equals(name))
+            .findFirst()
+            .map(RegisteredInstance::copy);
+    }
+
+    /**
+     * Registers an instance, or updates it if already registered. An update
+     * without an encrypted password keeps the stored one; a plaintext
+     * password is never written.
+     *
+     * @param instance the instance
+     * @return the instance as stored
+     */
+    public RegisteredInstance save(RegisteredInstance instance) {
+        String sql = """
+            INSERT INTO pgconsole.registered_instance
+                (name, display_name, jdbc_url, username, encrypted_password, workload_class, enabled)
+            VALUES (?, ?, ?, ?, ?, ?, ?)
+            ON CONFLICT (name) DO UPDATE
+            SET display_name = EXCLUDED.display_name,
+                jdbc_url = EXCLUDED.jdbc_url,
+                username = EXCLUDED.username,
+                encrypted_password = COALESCE(EXCLUDED.encrypted_password, pgconsole.registered_instance.encrypted_password),
+                workload_class = EXCLUDED.workload_class,
+                enabled = EXCLUDED.enabled,
+                updated_at = NOW()
+            RETURNING created_at, updated_at
+            """;
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, instance.getName());
+            stmt.setString(2, instance.getDisplayName());
+            stmt.setString(3, instance.getJdbcUrl());
+            stmt.setString(4, instance.getUsername());
+            stmt.setString(5, instance.getEncryptedPassword());
+            stmt.setString(6, instance.getWorkloadClass());
+            stmt.setBoolean(7, instance.isEnabled());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    instance.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+                    instance.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to register instance " + instance.getName(), e);
+        }
+        changeBus.publish(TOPIC);
+        return instance;
+    }
+
+    /**
+     * Removes a registered instance.
+     *
+     * @param name the instance name
+     * @return {@code true} if it was registered
+     */
+    public boolean delete(String name) {
+        String sql = "DELETE FROM pgconsole.registered_instance WHERE name = ?";
+
+        int deleted;
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+
+            stmt.setString(1, name);
+            deleted = stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to remove registered instance " + name, e);
+        }
+        changeBus.publish(TOPIC);
+        return deleted > 0;
+    }
+
+    private List<RegisteredInstance> loadAll() {
+        String sql = """
+            SELECT name, display_name, jdbc_url, username, encrypted_password, workload_class,
+                   enabled, created_at, updated_at
+            FROM pgconsole.registered_instance
+            ORDER BY name
+            """;
+
+        List<RegisteredInstance> instances = new ArrayList<>();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+
+            while (rs.next()) {
+                RegisteredInstance instance = new RegisteredInstance();
+                instance.setName(rs.getString("name"));
+                instance.setDisplayName(rs.getString("display_name"));
+                instance.setJdbcUrl(rs.getString("jdbc_url"));
+                instance.setUsername(rs.getString("username"));
+                instance.setEncryptedPassword(rs.getString("encrypted_password"));
+                instance.setWorkloadClass(rs.getString("workload_class"));
+                instance.setEnabled(rs.getBoolean("enabled"));
+                instance.setCreatedAt(rs.getTimestamp("created_at").toInstant());
+                instance.setUpdatedAt(rs.getTimestamp("updated_at").toInstant());
+                instances.add(instance);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to fetch registered instances", e);
+        }
+        return instances;
+    }
+}
@@ -0,0 +1,216 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import com.bovinemagnet.pgconsole.config.MetadataDataSource;
+import com.bovinemagnet.pgconsole.model.StatementActivity;
+import com.bovinemagnet.pgconsole.model.StatementInterval;
+import com.bovinemagnet.pgconsole.model.StatementMetric;
+import com.bovinemagnet.pgconsole.model.StatementWindow;
+import com.bovinemagnet.pgconsole.model.TopStatement;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+
+/**
+ * Repository for the heavy-hitter statements of each sampling interval.
+ * <p>
+ * Window totals are computed in SQL from the kept statements and each
+ * interval's floor, so only the statements returned leave the database.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see com.bovinemagnet.pgconsole.service.StatementHeavyHitterService
+ */
+@ApplicationScoped
+public class StatementHistoryRepository {
+
+    @Inject
+    @MetadataDataSource
+    DataSource dataSource;
+
+    /**
+     * Saves an interval and its heavy hitters in one transaction.
+     *
+     * @param instanceId the PostgreSQL instance identifier
+     * @param interval the interval to save
+     * @throws RuntimeException if the insert fails
+     */
+    public void saveInterval(String instanceId, StatementInterval interval) {
+        String intervalSql = """
+            INSERT INTO pgconsole.statement_interval (
+                instance_id, sampled_at, interval_seconds, statements,
+                total_time_ms, total_calls, total_io_blocks,
+                floor_time_ms, floor_calls, floor_io_blocks
+            ) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+        String statementSql = """
+            INSERT INTO pgconsole.statement_heavy_hitter (
+                instance_id, sampled_at, query_id, query_text, time_ms, calls, io_blocks
+            ) VALUES (?, ?, ?, ?, ?, ?, ?)
+            """;
+        Timestamp sampledAt = Timestamp.from(interval.getSampledAt());
+
+        try (Connection conn = dataSource.getConnection()) {
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (PreparedStatement intervalStmt = conn.prepareStatement(intervalSql);
+                 PreparedStatement statementStmt = conn.prepareStatement(statementSql)) {
+                StatementActivity totals = interval.getTotals();
+                StatementActivity floors = interval.getFloors();
+                intervalStmt.setString(1, instanceId);
+                intervalStmt.setTimestamp(2, sampledAt);
+                intervalStmt.setDouble(3, interval.getIntervalSeconds());
+                intervalStmt.setInt(4, interval.getStatements());
+                intervalStmt.setDouble(5, totals.getTimeMs());
+                intervalStmt.setLong(6, totals.getCalls());
+                intervalStmt.setLong(7, totals.getIoBlocks());
+                intervalStmt.setDouble(8, floors.getTimeMs());
+                intervalStmt.setLong(9, floors.getCalls());
+                intervalStmt.setLong(10, floors.getIoBlocks());
+                intervalStmt.executeUpdate();
+
+                for (StatementActivity statement : interval.getHeavyHitters()) {
+                    statementStmt.setString(1, instanceId);
+                    statementStmt.setTimestamp(2, sampledAt);
+                    statementStmt.setString(3, statement.getQueryId());
+                    statementStmt.setString(4, statement.getQueryText());
+                    statementStmt.setDouble(5, statement.getTimeMs());
+                    statementStmt.setLong(6, statement.getCalls());
+                    statementStmt.setLong(7, statement.getIoBlocks());
+                    statementStmt.addBatch();
+                }
+                statementStmt.executeBatch();
+                conn.commit();
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to save statement interval for " + instanceId, e);
+        }
+    }
+
+    /**
+     * Finds the top statements by one metric over the intervals ending in a window.
+     * <p>
+     * Statements are ranked by their guaranteed total, the sum of the
+     * intervals in which they were kept. The upper bound adds the floors of
+     * the window's other intervals.
+     *
+     * @param instanceId the PostgreSQL instance identifier
+     * @param metric the metric to rank by
+     * @param from start of the window, inclusive
+     * @param to end of the window, exclusive
+     * @param limit how many statements to return
+     * @return the window's totals and top statements
+     * @throws RuntimeException if the query fails
+     */
+    public StatementWindow findTopStatements(String instanceId, StatementMetric metric, Instant from, Instant to,
+                                            int limit) {
+        String value = valueColumn(metric);
+        String summarySql = """
+            SELECT COUNT(*) AS intervals,
+                   COALESCE(SUM(total_%1$s), 0) AS total,
+                   COALESCE(SUM(floor_%1$s), 0) AS floor_total
+            FROM pgconsole.statement_interval
+            WHERE instance_id = ? AND sampled_at >= ? AND sampled_at < ?
+            """.formatted(value);
+        String topSql = """
+            WITH window_interval AS (
+                SELECT sampled_at, floor_%1$s AS floor
+                FROM pgconsole.statement_interval
+                WHERE instance_id = ? AND sampled_at >= ? AND sampled_at < ?
+            )
+            SELECT h.query_id,
+                   MAX(h.query_text) AS query_text,
+                   SUM(h.%1$s) AS value,
+                   SUM(w.floor) AS kept_floor,
+                   COUNT(*) AS intervals
+            FROM pgconsole.statement_heavy_hitter h
+            JOIN window_interval w ON w.sampled_at = h.sampled_at
+            WHERE h.instance_id = ?
+            GROUP BY h.query_id
+            HAVING SUM(h.%1$s) > 0
+            ORDER BY value DESC
+            LIMIT ?
+            """.formatted(value);
+
+        StatementWindow window = new StatementWindow();
+        window.setInstanceId(instanceId);
+        window.setMetric(metric);
+        window.setFrom(from);
+        window.setTo(to);
+
+        try (Connection conn = dataSource.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(summarySql)) {
+                stmt.setString(1, instanceId);
+                stmt.setTimestamp(2, Timestamp.from(from));
+                stmt.setTimestamp(3, Timestamp.from(to));
+                try (ResultSet rs = stmt.executeQuery()) {
+                    rs.next();
+                    window.setIntervals(rs.getInt("intervals"));
+                    window.setTotal(rs.getDouble("total"));
+                    window.setFloorTotal(rs.getDouble("floor_total"));
+                }
+            }
+
+            try (PreparedStatement stmt = conn.prepareStatement(topSql)) {
+                stmt.setString(1, instanceId);
+                stmt.setTimestamp(2, Timestamp.from(from));
+                stmt.setTimestamp(3, Timestamp.from(to));
+                stmt.setString(4, instanceId);
+                stmt.setInt(5, limit);
+                try (ResultSet rs = stmt.executeQuery()) {
+                    while (rs.next()) {
+                        TopStatement statement = new TopStatement();
+                        statement.setQueryId(rs.getString("query_id"));
+                        statement.setQueryText(rs.getString("query_text"));
+                        statement.setValue(rs.getDouble("value"));
+                        statement.setUpperBound(statement.getValue() + window.getFloorTotal()
+                                - rs.getDouble("kept_floor"));
+                        statement.setIntervals(rs.getInt("intervals"));
+                        window.getStatements().add(statement);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to find top statements for " + instanceId, e);
+        }
+        return window;
+    }
+
+    /**
+     * Deletes intervals, and their heavy hitters, sampled before a cutoff.
+     *
+     * @param cutoff the oldest sample time to keep
+     * @return the number of intervals deleted
+     * @throws RuntimeException if the delete fails
+     */
+    public int deleteOlderThan(Instant cutoff) {
+        String sql = "DELETE FROM pgconsole.statement_interval WHERE sampled_at < ?";
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setTimestamp(1, Timestamp.from(cutoff));
+            return stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to delete old statement intervals", e);
+        }
+    }
+
+    private static String valueColumn(StatementMetric metric) {
+        return switch (metric) {
+            case TIME -> "time_ms";
+            case CALLS -> "calls";
+            case IO -> "io_blocks";
+        };
+    }
+}
@@ -7,11 +7,12 @@ import com.bovinemagnet.pgconsole.model.DatabaseMetrics;
 import com.bovinemagnet.pgconsole.model.LockInfo;
 import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
-import com.bovinemagnet.pgconsole.model.TableStats;
+import com.bovinemagnet.pgconsole.model.TablePage;
 import com.bovinemagnet.pgconsole.model.WaitEventSummary;
 import com.bovinemagnet.pgconsole.model.ComparisonHistory;
 import com.bovinemagnet.pgconsole.model.ComparisonProfile;
 import com.bovinemagnet.pgconsole.model.SchemaComparisonResult;
+import com.bovinemagnet.pgconsole.service.ClusterCoordinator;
 import com.bovinemagnet.pgconsole.service.ComparisonHistoryService;
 import com.bovinemagnet.pgconsole.service.ComparisonProfileService;
 import com.bovinemagnet.pgconsole.service.ComplianceService;
@@ -25,10 +26,14 @@ import com.bovinemagnet.pgconsole.service.InfrastructureService;
 import com.bovinemagnet.pgconsole.service.PostgresService;
 import com.bovinemagnet.pgconsole.service.QueryRegressionService;
 import com.bovinemagnet.pgconsole.service.ReplicationService;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Source;
 import com.bovinemagnet.pgconsole.service.SecurityAuditService;
 import com.bovinemagnet.pgconsole.service.SecurityRecommendationService;
+import com.bovinemagnet.pgconsole.service.SparklineService;
+import com.bovinemagnet.pgconsole.service.TableBrowserService;
 import com.bovinemagnet.pgconsole.service.TableMaintenanceService;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
@@ -37,9 +42,12 @@ import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 
 import java.time.Instant;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 
 /**
  * REST API resource for programmatic access to PostgreSQL metrics.
@@ -103,6 +111,15 @@ public class ApiResource {
     @Inject
     FeatureToggleService featureToggleService;
 
+    @Inject
+    SparklineService sparklineService;
+
+    @Inject
+    TableBrowserService tableBrowserService;
+
+    @Inject
+    ClusterCoordinator clusterCoordinator;
+
     /**
      * Returns overview statistics for a PostgreSQL instance as JSON.
      * <p>
@@ -114,6 +131,7 @@ public class ApiResource {
      */
     @GET
     @Path("/overview")
+    @VersionedResponse({Source.SAMPLES, Source.CATALOG})
     public Map<String, Object> getOverview(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("dashboard");
@@ -231,23 +249,48 @@ public class ApiResource {
     /**
      * Returns table statistics as JSON.
      * <p>
-     * Retrieves statistics for all user tables from pg_stat_user_tables
-     * including sizes, row counts, index usage, and vacuum information.
+     * Retrieves statistics for user tables from pg_stat_user_tables
+     * including sizes, row counts, index usage, and vacuum information,
+     * one page at a time. Pass the returned {@code nextCursor} as
+     * {@code after} to fetch the following page; it is absent on the last.
      *
      * @param instance the PostgreSQL instance identifier (defaults to "default")
-     * @return JSON map containing timestamp, instance name, table count, and tables list
+     * @param sort the sort column: tuples, size, dead-ratio, seq-scans, writes or name (defaults to tuples)
+     * @param dir the sort direction, {@code asc} or {@code desc} (defaults to the column's natural order)
+     * @param search text to find in {@code schema.table}
+     * @param after the cursor of the previous page, omitted for the first page
+     * @param limit the page size, at most 500
+     * @return JSON map containing timestamp, instance name, page size and match count, tables list and next cursor
      */
     @GET
     @Path("/tables")
+    @VersionedResponse(Source.CATALOG)
     public Map<String, Object> getTables(
-            @QueryParam("instance") @DefaultValue("default") String instance) {
+            @QueryParam("instance") @DefaultValue("default") String instance,
+            @QueryParam("sort") String sort,
+            @QueryParam("dir") String dir,
+            @QueryParam("q") String search,
+            @QueryParam("after") String after,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
         featureToggleService.requirePageEnabled("tables");
-        List<TableStats> tables = postgresService.getTableStats(instance);
+        TablePage page;
+        try {
+            page = tableBrowserService.browse(instance, TableBrowserService.Sort.fromParam(sort),
+                    dir, search, after, limit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
         Map<String, Object> response = new HashMap<>();
         response.put("timestamp", Instant.now().toString());
         response.put("instance", instance);
-        response.put("count", tables.size());
-        response.put("tables", tables);
+        response.put("sort", page.getSort());
+        response.put("dir", page.isDescending() ? "desc" : "asc");
+        response.put("count", page.getTables().size());
+        response.put("total", page.getMatchCount());
+        response.put("tables", page.getTables());
+        if (page.getNextCursor() != null) {
+            response.put("nextCursor", page.getNextCursor());
+        }
         return response;
     }
 
@@ -262,6 +305,7 @@ public class ApiResource {
      */
     @GET
     @Path("/databases")
+    @VersionedResponse
     public Map<String, Object> getDatabases(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("databases");
@@ -285,6 +329,7 @@ public class ApiResource {
      */
     @GET
     @Path("/index-advisor")
+    @VersionedResponse(Source.CATALOG)
     public Map<String, Object> getIndexAdvisor(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("index-advisor");
@@ -410,6 +455,44 @@ public class ApiResource {
         return response;
     }
 
+    /**
+     * Returns several SVG sparklines for an instance in one call.
+     * <p>
+     * Lets a page fetch all of its sparklines with a single request; the service
+     * shares one history fetch across metrics and serves cached renders until the
+     * next sample arrives. Unknown metric names are ignored.
+     *
+     * @param instance the PostgreSQL instance identifier (defaults to "default")
+     * @param metrics comma-separated metric names; all supported metrics when empty
+     * @param hours history window in hours (1-168, defaults to 1)
+     * @param width SVG width in pixels (defaults to 120)
+     * @param height SVG height in pixels (defaults to 30)
+     * @return JSON map containing timestamp, instance name and SVG strings keyed by metric
+     */
+    @GET
+    @Path("/sparklines")
+    public Map<String, Object> getSparklines(
+            @QueryParam("instance") @DefaultValue("default") String instance,
+            @QueryParam("metrics") @DefaultValue("") String metrics,
+            @QueryParam("hours") @DefaultValue("1") int hours,
+            @QueryParam("width") @DefaultValue("120") int width,
+            @QueryParam("height") @DefaultValue("30") int height) {
+        featureToggleService.requirePageEnabled("dashboard");
+        List<String> names = metrics.isBlank()
+                ? sparklineService.getBatchMetricNames()
+                : Arrays.stream(metrics.split(",")).map(String::trim).filter(m -> !m.isEmpty()).toList();
+        int clampedHours = Math.max(1, Math.min(hours, 168));
+        int clampedWidth = Math.max(20, Math.min(width, 1000));
+        int clampedHeight = Math.max(10, Math.min(height, 200));
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("instance", instance);
+        response.put("hours", clampedHours);
+        response.put("sparklines", sparklineService.getSparklines(instance, names,
+                clampedHours, clampedWidth, clampedHeight));
+        return response;
+    }
+
     /**
      * Returns list of configured PostgreSQL instances as JSON.
      * <p>
@@ -429,6 +512,33 @@ public class ApiResource {
         return response;
     }
 
+    /**
+     * Returns this replica's view of the pg-console cluster as JSON.
+     * <p>
+     * Lists the live replicas, the job leases this replica holds and the
+     * replica sampling each instance. Without cluster coordination the
+     * replica owns every instance and leads every job.
+     *
+     * @return JSON map containing timestamp, replica id, whether coordination
+     *         is active, members, held leases and instance owners
+     */
+    @GET
+    @Path("/cluster")
+    public Map<String, Object> getCluster() {
+        Map<String, String> owners = new LinkedHashMap<>();
+        for (String instance : dataSourceManager.getAvailableInstances()) {
+            owners.put(instance, clusterCoordinator.ownerOf(instance));
+        }
+        Map<String, Object> response = new HashMap<>();
+        response.put("timestamp", Instant.now().toString());
+        response.put("replicaId", clusterCoordinator.replicaId());
+        response.put("active", clusterCoordinator.isActive());
+        response.put("members", new TreeSet<>(clusterCoordinator.liveMembers()));
+        response.put("leases", clusterCoordinator.heldLeases());
+        response.put("instanceOwners", owners);
+        return response;
+    }
+
     /**
      * Health check endpoint for monitoring and load balancers.
      * <p>
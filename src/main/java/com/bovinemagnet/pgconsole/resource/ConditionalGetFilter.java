@@ -0,0 +1,117 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Validator;
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Priorities;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * JAX-RS filter implementing conditional GET for {@link VersionedResponse}
+ * resource methods.
+ * <p>
+ * Before the resource method runs, the request's {@code If-None-Match} or
+ * {@code If-Modified-Since} is checked against the validator built from the
+ * current versions of the method's sources; a match is answered with
+ * {@code 304 Not Modified} straight away. Otherwise the full response is
+ * built and carries the validator's {@code ETag} and {@code Last-Modified},
+ * with {@code Cache-Control: no-cache} so browsers revalidate on every
+ * auto-refresh.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see ResponseVersionService
+ */
+@Provider
+@VersionedResponse
+@Priority(Priorities.USER)
+public class ConditionalGetFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    private static final String VALIDATOR_PROPERTY = ConditionalGetFilter.class.getName() + ".validator";
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    ResponseVersionService versionService;
+
+    @Context
+    ResourceInfo resourceInfo;
+
+    /**
+     * Answers a matching conditional request with {@code 304 Not Modified}.
+     *
+     * @param requestContext the request context
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext) {
+        if (!config.conditionalGet().enabled() || !HttpMethod.GET.equals(requestContext.getMethod())) {
+            return;
+        }
+        Method method = resourceInfo.getResourceMethod();
+        VersionedResponse versioned = method.getAnnotation(VersionedResponse.class);
+        if (versioned == null) {
+            return;
+        }
+        MultivaluedMap<String, String> query = requestContext.getUriInfo().getQueryParameters();
+        if (versioned.fragmentsOnly()
+                && !PageRenderer.REFRESHABLE.equals(query.getFirst(PageRenderer.FRAGMENT_PARAM))) {
+            return;
+        }
+
+        String instance = query.getFirst("instance");
+        String variant = requestContext.getUriInfo().getPath() + new TreeMap<>(query);
+        Validator validator = versionService.validator(variant,
+                instance != null ? instance : "default", versioned.value());
+        String route = resourceInfo.getResourceClass().getSimpleName() + "." + method.getName();
+
+        if (validator.matches(requestContext.getHeaderString(HttpHeaders.IF_NONE_MATCH),
+                requestContext.getHeaderString(HttpHeaders.IF_MODIFIED_SINCE))) {
+            versionService.recordHit(route);
+            Response.ResponseBuilder notModified = Response.notModified();
+            headers(validator).forEach(notModified::header);
+            requestContext.abortWith(notModified.build());
+            return;
+        }
+        versionService.recordMiss(route);
+        requestContext.setProperty(VALIDATOR_PROPERTY, validator);
+    }
+
+    /**
+     * Adds the validator headers to a successful versioned response.
+     *
+     * @param requestContext the request context
+     * @param responseContext the response context
+     */
+    @Override
+    public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+        if (requestContext.getProperty(VALIDATOR_PROPERTY) instanceof Validator validator
+                && responseContext.getStatus() == Response.Status.OK.getStatusCode()) {
+            MultivaluedMap<String, Object> headers = responseContext.getHeaders();
+            headers(validator).forEach(headers::putSingle);
+        }
+    }
+
+    private static Map<String, String> headers(Validator validator) {
+        return Map.of(
+                HttpHeaders.ETAG, validator.etag(),
+                HttpHeaders.LAST_MODIFIED, validator.lastModified(),
+                HttpHeaders.CACHE_CONTROL, "no-cache");
+    }
+}
@@ -10,11 +10,11 @@ import com.bovinemagnet.pgconsole.model.DatabaseMetricsHistory;
 import com.bovinemagnet.pgconsole.model.DeadlockConfig;
 import com.bovinemagnet.pgconsole.model.DeadlockStats;
 import com.bovinemagnet.pgconsole.model.ExplainPlan;
-import com.bovinemagnet.pgconsole.model.IncidentReport;
 import com.bovinemagnet.pgconsole.model.LockInfo;
 import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.QueryFingerprint;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
+import com.bovinemagnet.pgconsole.model.TablePage;
 import com.bovinemagnet.pgconsole.model.TableStats;
 import com.bovinemagnet.pgconsole.model.WaitEventSummary;
 import com.bovinemagnet.pgconsole.service.AuditService;
@@ -26,6 +26,7 @@ import com.bovinemagnet.pgconsole.service.ConnectionSecurityService;
 import com.bovinemagnet.pgconsole.service.DataAccessPatternService;
 import com.bovinemagnet.pgconsole.service.DataSourceManager;
 import com.bovinemagnet.pgconsole.service.LogicalReplicationService;
+import com.bovinemagnet.pgconsole.service.MaintenanceJobService;
 import com.bovinemagnet.pgconsole.service.PartitioningService;
 import com.bovinemagnet.pgconsole.service.SchemaChangeService;
 import com.bovinemagnet.pgconsole.service.IncidentReportService;
@@ -40,12 +41,15 @@ import com.bovinemagnet.pgconsole.service.HealthCheckService;
 import com.bovinemagnet.pgconsole.service.SecurityRecommendationService;
 import com.bovinemagnet.pgconsole.service.SparklineService;
 import com.bovinemagnet.pgconsole.service.ReplicationService;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Source;
 import com.bovinemagnet.pgconsole.service.StatementsManagementService;
+import com.bovinemagnet.pgconsole.service.TableBrowserService;
 import com.bovinemagnet.pgconsole.service.TableMaintenanceService;
 import com.bovinemagnet.pgconsole.util.Filenames;
 import io.quarkus.qute.Template;
 import io.quarkus.qute.TemplateInstance;
 import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.DefaultValue;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.POST;
@@ -55,12 +59,18 @@ import jakarta.ws.rs.Produces;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Main dashboard resource handling all web UI endpoints.
@@ -213,6 +223,9 @@ public class DashboardResource {
     @Inject
     PostgresService postgresService;
 
+    @Inject
+    MaintenanceJobService maintenanceJobService;
+
     @Inject
     SparklineService sparklineService;
 
@@ -237,6 +250,9 @@ public class DashboardResource {
     @Inject
     TableMaintenanceService tableMaintenanceService;
 
+    @Inject
+    TableBrowserService tableBrowserService;
+
     @Inject
     StatementsManagementService statementsManagementService;
 
@@ -288,6 +304,9 @@ public class DashboardResource {
     @Inject
     FeatureToggleService featureToggleService;
 
+    @Inject
+    PageRenderer pages;
+
     /**
      * Renders the main dashboard overview page with key PostgreSQL metrics and sparklines.
      * <p>
@@ -299,28 +318,25 @@ public class DashboardResource {
      */
     @GET
     @Produces(MediaType.TEXT_HTML)
+    @VersionedResponse(value = {Source.SAMPLES, Source.CATALOG}, fragmentsOnly = true)
     public TemplateInstance index(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("dashboard");
         OverviewStats stats = postgresService.getOverviewStats(instance);
 
-        // Generate sparklines from history (last 1 hour)
-        String connectionsSparkline = sparklineService.getConnectionsSparkline(instance, 1, 120, 30);
-        String activeQueriesSparkline = sparklineService.getActiveQueriesSparkline(instance, 1, 120, 30);
-        String blockedQueriesSparkline = sparklineService.getBlockedQueriesSparkline(instance, 1, 120, 30);
-        String cacheHitSparkline = sparklineService.getCacheHitRatioSparkline(instance, 1, 120, 30);
-
-        return index.data("stats", stats)
-                    .data("connectionsSparkline", connectionsSparkline)
-                    .data("activeQueriesSparkline", activeQueriesSparkline)
-                    .data("blockedQueriesSparkline", blockedQueriesSparkline)
-                    .data("cacheHitSparkline", cacheHitSparkline)
-                    .data("instances", dataSourceManager.getInstanceInfoList())
+        // Generate sparklines from history (last 1 hour), sharing one history fetch
+        Map<String, String> sparklines = sparklineService.getSparklines(instance,
+                List.of("connections", "active-queries", "blocked-queries", "cache-hit-ratio"), 1, 120, 30);
+
+        return pages.page(index).data("stats", stats)
+                    .data("connectionsSparkline", sparklines.get("connections"))
+                    .data("activeQueriesSparkline", sparklines.get("active-queries"))
+                    .data("blockedQueriesSparkline", sparklines.get("blocked-queries"))
+                    .data("cacheHitSparkline", sparklines.get("cache-hit-ratio"))
                     .data("currentInstance", instance)
                     .data("securityEnabled", config.security().enabled())
                     .data("schemaEnabled", config.schema().enabled())
-                    .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                    .data("toggles", featureToggleService.getAllToggles());
+                    .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -351,16 +367,14 @@ public class DashboardResource {
             order != null ? order : "desc"
         );
 
-        TemplateInstance template = slowQueries.data("queries", queries)
+        TemplateInstance template = pages.page(slowQueries).data("queries", queries)
                          .data("sortBy", sortBy != null ? sortBy : "totalTime")
                          .data("order", order != null ? order : "desc")
                          .data("view", view)
-                         .data("instances", dataSourceManager.getInstanceInfoList())
                          .data("currentInstance", instance)
                          .data("securityEnabled", config.security().enabled())
                          .data("schemaEnabled", config.schema().enabled())
-                         .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                         .data("toggles", featureToggleService.getAllToggles());
+                         .data("inMemoryMinutes", config.schema().inMemoryMinutes());
 
         // Add grouped data if viewing grouped
         if ("grouped".equals(view)) {
@@ -387,38 +401,55 @@ public class DashboardResource {
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("activity");
         List<Activity> activities = postgresService.getCurrentActivity(instance);
-        return activity.data("activities", activities)
-                      .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(activity).data("activities", activities)
                       .data("currentInstance", instance)
                       .data("securityEnabled", config.security().enabled())
                       .data("schemaEnabled", config.schema().enabled())
-                      .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                      .data("toggles", featureToggleService.getAllToggles());
+                      .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
      * Renders the tables page showing statistics for all user tables.
      * <p>
      * Displays table sizes, row counts, index usage, sequential scans,
-     * and vacuum statistics from pg_stat_user_tables.
+     * and vacuum statistics from pg_stat_user_tables, one page at a time.
+     * Pages are sorted by any of the browser's columns, filtered by a search
+     * on the schema and table name, and paged with the cursor from the
+     * previous page.
      *
      * @param instance the PostgreSQL instance identifier (defaults to "default")
+     * @param sort the sort column, e.g. {@code size} or {@code dead-ratio} (defaults to tuples)
+     * @param dir the sort direction, {@code asc} or {@code desc} (defaults to the column's natural order)
+     * @param search text to find in {@code schema.table}
+     * @param after the cursor of the previous page, omitted for the first page
+     * @param limit the page size
      * @return template instance containing table statistics
      */
     @GET
     @Path("/tables")
     @Produces(MediaType.TEXT_HTML)
+    @VersionedResponse(value = Source.CATALOG, fragmentsOnly = true)
     public TemplateInstance tables(
-            @QueryParam("instance") @DefaultValue("default") String instance) {
+            @QueryParam("instance") @DefaultValue("default") String instance,
+            @QueryParam("sort") String sort,
+            @QueryParam("dir") String dir,
+            @QueryParam("q") String search,
+            @QueryParam("after") String after,
+            @QueryParam("limit") @DefaultValue("50") int limit) {
         featureToggleService.requirePageEnabled("tables");
-        List<TableStats> stats = postgresService.getTableStats(instance);
-        return tables.data("tables", stats)
-                    .data("instances", dataSourceManager.getInstanceInfoList())
+        TablePage page;
+        try {
+            page = tableBrowserService.browse(instance, TableBrowserService.Sort.fromParam(sort),
+                    dir, search, after, limit);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return pages.page(tables).data("tables", page.getTables())
+                    .data("page", page)
                     .data("currentInstance", instance)
                     .data("securityEnabled", config.security().enabled())
                     .data("schemaEnabled", config.schema().enabled())
-                    .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                    .data("toggles", featureToggleService.getAllToggles());
+                    .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -686,7 +717,8 @@ public class DashboardResource {
     public String drilldownTable(
             @QueryParam("instance") @DefaultValue("default") String instance,
             @QueryParam("table") String tableName) {
-        var tables = postgresService.getTableStats(instance);
+        var tables = tableBrowserService.browse(instance, TableBrowserService.Sort.NAME, null, tableName, null,
+                TableBrowserService.MAX_LIMIT).getTables();
 
         // Find the specific table by constructing full name from schema.table
         var tableOpt = tables.stream()
@@ -1024,14 +1056,12 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("locks");
         List<BlockingTree> blockingTree = postgresService.getBlockingTree(instance);
         List<LockInfo> lockInfos = postgresService.getLockInfo(instance);
-        return locks.data("blockingTree", blockingTree)
+        return pages.page(locks).data("blockingTree", blockingTree)
                     .data("locks", lockInfos)
-                    .data("instances", dataSourceManager.getInstanceInfoList())
                     .data("currentInstance", instance)
                     .data("securityEnabled", config.security().enabled())
                     .data("schemaEnabled", config.schema().enabled())
-                    .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                    .data("toggles", featureToggleService.getAllToggles());
+                    .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1086,18 +1116,16 @@ public class DashboardResource {
             }
         }
 
-        return deadlocks.data("stats", stats)
+        return pages.page(deadlocks).data("stats", stats)
                         .data("config", deadlockConfig)
                         .data("totalDeadlocks", totalDeadlocks)
                         .data("highestRateDb", highestRateDb)
                         .data("highestRate", highestRate)
                         .data("highestRateFormatted", highestRateFormatted)
-                        .data("instances", dataSourceManager.getInstanceInfoList())
                         .data("currentInstance", instance)
                         .data("securityEnabled", config.security().enabled())
                         .data("schemaEnabled", config.schema().enabled())
-                        .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                        .data("toggles", featureToggleService.getAllToggles());
+                        .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1117,14 +1145,12 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("wait-events");
         List<WaitEventSummary> typeSummaries = postgresService.getWaitEventTypeSummary(instance);
         List<WaitEventSummary> waitEventList = postgresService.getWaitEventSummary(instance);
-        return waitEvents.data("typeSummaries", typeSummaries)
+        return pages.page(waitEvents).data("typeSummaries", typeSummaries)
                         .data("waitEvents", waitEventList)
-                        .data("instances", dataSourceManager.getInstanceInfoList())
                         .data("currentInstance", instance)
                         .data("securityEnabled", config.security().enabled())
                         .data("schemaEnabled", config.schema().enabled())
-                        .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                        .data("toggles", featureToggleService.getAllToggles());
+                        .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1139,19 +1165,18 @@ public class DashboardResource {
     @GET
     @Path("/index-advisor")
     @Produces(MediaType.TEXT_HTML)
+    @VersionedResponse(value = Source.CATALOG, fragmentsOnly = true)
     public TemplateInstance indexAdvisor(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("index-advisor");
         var recommendations = indexAdvisorService.getRecommendations(instance);
         var summary = indexAdvisorService.getSummary(instance);
-        return indexAdvisor.data("recommendations", recommendations)
+        return pages.page(indexAdvisor).data("recommendations", recommendations)
                           .data("summary", summary)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1176,17 +1201,15 @@ public class DashboardResource {
         var regressions = queryRegressionService.detectRegressions(instance, windowHours, thresholdPercent);
         var improvements = queryRegressionService.detectImprovements(instance, windowHours, thresholdPercent);
         var summary = queryRegressionService.getSummary(instance, windowHours, thresholdPercent);
-        return queryRegressions.data("regressions", regressions)
+        return pages.page(queryRegressions).data("regressions", regressions)
                                .data("improvements", improvements)
                                .data("summary", summary)
                                .data("windowHours", windowHours)
                                .data("thresholdPercent", thresholdPercent)
-                               .data("instances", dataSourceManager.getInstanceInfoList())
                                .data("currentInstance", instance)
                                .data("securityEnabled", config.security().enabled())
                                .data("schemaEnabled", config.schema().enabled())
-                               .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                               .data("toggles", featureToggleService.getAllToggles());
+                               .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1206,14 +1229,12 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("table-maintenance");
         var recommendations = tableMaintenanceService.getRecommendations(instance);
         var summary = tableMaintenanceService.getSummary(instance);
-        return tableMaintenance.data("recommendations", recommendations)
+        return pages.page(tableMaintenance).data("recommendations", recommendations)
                                .data("summary", summary)
-                               .data("instances", dataSourceManager.getInstanceInfoList())
                                .data("currentInstance", instance)
                                .data("securityEnabled", config.security().enabled())
                                .data("schemaEnabled", config.schema().enabled())
-                               .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                               .data("toggles", featureToggleService.getAllToggles());
+                               .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1235,15 +1256,13 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("statements-management");
         var topMovers = statementsManagementService.getTopMovers(instance, windowHours);
         var summary = statementsManagementService.getSummary(instance);
-        return statementsManagement.data("topMovers", topMovers)
+        return pages.page(statementsManagement).data("topMovers", topMovers)
                                    .data("summary", summary)
                                    .data("windowHours", windowHours)
-                                   .data("instances", dataSourceManager.getInstanceInfoList())
                                    .data("currentInstance", instance)
                                    .data("securityEnabled", config.security().enabled())
                                    .data("schemaEnabled", config.schema().enabled())
-                                   .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                   .data("toggles", featureToggleService.getAllToggles());
+                                   .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1266,17 +1285,15 @@ public class DashboardResource {
         var walStats = replicationService.getWalStats(instance);
         var summary = replicationService.getSummary(instance);
         var isReplica = replicationService.isReplica(instance);
-        return replication.data("replicas", replicas)
+        return pages.page(replication).data("replicas", replicas)
                           .data("slots", slots)
                           .data("walStats", walStats)
                           .data("summary", summary)
                           .data("isReplica", isReplica)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1297,15 +1314,13 @@ public class DashboardResource {
         var vacuumProgress = infrastructureService.getVacuumProgress(instance);
         var bgProcessStats = infrastructureService.getBackgroundProcessStats(instance);
         var storageStats = infrastructureService.getStorageStats(instance);
-        return infrastructure.data("vacuumProgress", vacuumProgress)
+        return pages.page(infrastructure).data("vacuumProgress", vacuumProgress)
                              .data("bgProcessStats", bgProcessStats)
                              .data("storageStats", storageStats)
-                             .data("instances", dataSourceManager.getInstanceInfoList())
                              .data("currentInstance", instance)
                              .data("securityEnabled", config.security().enabled())
                              .data("schemaEnabled", config.schema().enabled())
-                             .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                             .data("toggles", featureToggleService.getAllToggles());
+                             .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1338,18 +1353,16 @@ public class DashboardResource {
         long infoCount = settings.stream()
             .filter(s -> s.getStatus() == com.bovinemagnet.pgconsole.model.ConfigSetting.Status.INFO).count();
 
-        return configHealth.data("settings", settings)
+        return pages.page(configHealth).data("settings", settings)
                            .data("groupedSettings", groupedSettings)
                            .data("criticalCount", criticalCount)
                            .data("warningCount", warningCount)
                            .data("infoCount", infoCount)
                            .data("totalSettings", settings.size())
-                           .data("instances", dataSourceManager.getInstanceInfoList())
                            .data("currentInstance", instance)
                            .data("securityEnabled", config.security().enabled())
                            .data("schemaEnabled", config.schema().enabled())
-                           .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                           .data("toggles", featureToggleService.getAllToggles());
+                           .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1369,13 +1382,11 @@ public class DashboardResource {
             @QueryParam("instance") @DefaultValue("default") String instance) {
         var stats = infrastructureService.getBackgroundProcessStats(instance);
 
-        return checkpoints.data("stats", stats)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(checkpoints).data("stats", stats)
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1401,13 +1412,11 @@ public class DashboardResource {
             @QueryParam("instance") @DefaultValue("default") String instance) {
         var overview = infrastructureService.getWalCheckpointOverview(instance);
 
-        return walCheckpoints.data("overview", overview)
-                             .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(walCheckpoints).data("overview", overview)
                              .data("currentInstance", instance)
                              .data("securityEnabled", config.security().enabled())
                              .data("schemaEnabled", config.schema().enabled())
-                             .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                             .data("toggles", featureToggleService.getAllToggles());
+                             .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1435,18 +1444,16 @@ public class DashboardResource {
         var warningCount = statusCounts.getOrDefault(com.bovinemagnet.pgconsole.model.HealthCheck.Status.WARNING, 0L);
         var criticalCount = statusCounts.getOrDefault(com.bovinemagnet.pgconsole.model.HealthCheck.Status.CRITICAL, 0L);
 
-        return healthCheck.data("checks", checks)
+        return pages.page(healthCheck).data("checks", checks)
                           .data("groupedChecks", groupedChecks)
                           .data("overallStatus", overallStatus)
                           .data("okCount", okCount)
                           .data("warningCount", warningCount)
                           .data("criticalCount", criticalCount)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1466,14 +1473,12 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("audit-log");
         var logs = auditService.getRecentLogs(100);
         var summary = auditService.getSummary();
-        return auditLog.data("logs", logs)
+        return pages.page(auditLog).data("logs", logs)
                        .data("summary", summary)
-                       .data("instances", dataSourceManager.getInstanceInfoList())
                        .data("currentInstance", instance)
                        .data("securityEnabled", config.security().enabled())
                        .data("schemaEnabled", config.schema().enabled())
-                       .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                       .data("toggles", featureToggleService.getAllToggles());
+                       .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1496,15 +1501,13 @@ public class DashboardResource {
         var allBookmarks = bookmarkService.getBookmarks(instance, null, tag);
         var summary = bookmarkService.getSummary(instance);
         var tags = bookmarkService.getAllTags(instance);
-        return bookmarks.data("bookmarks", allBookmarks)
+        return pages.page(bookmarks).data("bookmarks", allBookmarks)
                         .data("summary", summary)
                         .data("tags", tags)
-                        .data("instances", dataSourceManager.getInstanceInfoList())
                         .data("currentInstance", instance)
                         .data("securityEnabled", config.security().enabled())
                         .data("schemaEnabled", config.schema().enabled())
-                        .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                        .data("toggles", featureToggleService.getAllToggles());
+                        .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1528,14 +1531,12 @@ public class DashboardResource {
                 .map(info -> info.getName())
                 .toList();
         var commonQueries = comparisonService.findCommonQueries(instanceIds, 20);
-        return comparison.data("comparisons", comparisons)
+        return pages.page(comparison).data("comparisons", comparisons)
                          .data("commonQueries", commonQueries)
-                         .data("instances", dataSourceManager.getInstanceInfoList())
                          .data("currentInstance", instance)
                          .data("securityEnabled", config.security().enabled())
                          .data("schemaEnabled", config.schema().enabled())
-                         .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                         .data("toggles", featureToggleService.getAllToggles());
+                         .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // --- Phase 8: Change Data Control & Schema Management ---
@@ -1560,17 +1561,15 @@ public class DashboardResource {
         var origins = logicalReplicationService.getReplicationOrigins(instance);
         var subscriptionStats = logicalReplicationService.getSubscriptionStats(instance);
         var summary = logicalReplicationService.getSummary(instance);
-        return logicalReplication.data("publications", publications)
+        return pages.page(logicalReplication).data("publications", publications)
                                  .data("subscriptions", subscriptions)
                                  .data("origins", origins)
                                  .data("subscriptionStats", subscriptionStats)
                                  .data("summary", summary)
-                                 .data("instances", dataSourceManager.getInstanceInfoList())
                                  .data("currentInstance", instance)
                                  .data("securityEnabled", config.security().enabled())
                                  .data("schemaEnabled", config.schema().enabled())
-                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                 .data("toggles", featureToggleService.getAllToggles());
+                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1592,16 +1591,14 @@ public class DashboardResource {
         var highChurnTables = changeDataCaptureService.getHighChurnTables(instance, 10);
         var walEstimates = changeDataCaptureService.getWalGenerationByTable(instance);
         var summary = changeDataCaptureService.getSummary(instance);
-        return cdc.data("activities", activities)
+        return pages.page(cdc).data("activities", activities)
                   .data("highChurnTables", highChurnTables)
                   .data("walEstimates", walEstimates)
                   .data("summary", summary)
-                  .data("instances", dataSourceManager.getInstanceInfoList())
                   .data("currentInstance", instance)
                   .data("securityEnabled", config.security().enabled())
                   .data("schemaEnabled", config.schema().enabled())
-                  .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                  .data("toggles", featureToggleService.getAllToggles());
+                  .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1624,17 +1621,15 @@ public class DashboardResource {
         var viewDependencies = schemaChangeService.getViewDependencies(instance);
         var functionDependencies = schemaChangeService.getFunctionDependencies(instance);
         var summary = schemaChangeService.getSummary(instance);
-        return dataLineage.data("eventTriggers", eventTriggers)
+        return pages.page(dataLineage).data("eventTriggers", eventTriggers)
                           .data("foreignKeys", foreignKeys)
                           .data("viewDependencies", viewDependencies)
                           .data("functionDependencies", functionDependencies)
                           .data("summary", summary)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1655,15 +1650,13 @@ public class DashboardResource {
         var partitionedTables = partitioningService.getPartitionedTables(instance);
         var orphanPartitions = partitioningService.getOrphanPartitions(instance);
         var summary = partitioningService.getSummary(instance);
-        return partitions.data("partitionedTables", partitionedTables)
+        return pages.page(partitions).data("partitionedTables", partitionedTables)
                          .data("orphanPartitions", orphanPartitions)
                          .data("summary", summary)
-                         .data("instances", dataSourceManager.getInstanceInfoList())
                          .data("currentInstance", instance)
                          .data("securityEnabled", config.security().enabled())
                          .data("schemaEnabled", config.schema().enabled())
-                         .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                         .data("toggles", featureToggleService.getAllToggles());
+                         .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // --- Phase 10: Security & Compliance Monitoring ---
@@ -1690,19 +1683,17 @@ public class DashboardResource {
         var recommendationSummary = securityRecommendationService.getSummary(instance);
         var warnings = securityAuditService.getAllWarnings(instance);
         var complianceScores = complianceService.getAllComplianceScores(instance);
-        return security.data("auditSummary", auditSummary)
+        return pages.page(security).data("auditSummary", auditSummary)
                        .data("connectionSummary", connectionSummary)
                        .data("accessSummary", accessSummary)
                        .data("complianceSummary", complianceSummary)
                        .data("recommendationSummary", recommendationSummary)
                        .data("warnings", warnings)
                        .data("complianceScores", complianceScores)
-                       .data("instances", dataSourceManager.getInstanceInfoList())
                        .data("currentInstance", instance)
                        .data("securityEnabled", config.security().enabled())
                        .data("schemaEnabled", config.schema().enabled())
-                       .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                       .data("toggles", featureToggleService.getAllToggles());
+                       .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1724,16 +1715,14 @@ public class DashboardResource {
         var memberships = securityAuditService.getRoleMemberships(instance);
         var warnings = securityAuditService.getAllWarnings(instance);
         var summary = securityAuditService.getSummary(instance);
-        return securityRoles.data("roles", roles)
+        return pages.page(securityRoles).data("roles", roles)
                             .data("memberships", memberships)
                             .data("warnings", warnings)
                             .data("summary", summary)
-                            .data("instances", dataSourceManager.getInstanceInfoList())
                             .data("currentInstance", instance)
                             .data("securityEnabled", config.security().enabled())
                             .data("schemaEnabled", config.schema().enabled())
-                            .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                            .data("toggles", featureToggleService.getAllToggles());
+                            .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1758,19 +1747,17 @@ public class DashboardResource {
         var sslEnabled = connectionSecurityService.isSslEnabled(instance);
         var passwordEncryption = connectionSecurityService.getPasswordEncryption(instance);
         var authMethods = connectionSecurityService.getAuthMethodBreakdown(instance);
-        return securityConnections.data("sslConnections", sslConnections)
+        return pages.page(securityConnections).data("sslConnections", sslConnections)
                                   .data("hbaRules", hbaRules)
                                   .data("warnings", warnings)
                                   .data("summary", summary)
                                   .data("sslEnabled", sslEnabled)
                                   .data("passwordEncryption", passwordEncryption)
                                   .data("authMethods", authMethods)
-                                  .data("instances", dataSourceManager.getInstanceInfoList())
                                   .data("currentInstance", instance)
                                   .data("securityEnabled", config.security().enabled())
                                   .data("schemaEnabled", config.schema().enabled())
-                                  .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                  .data("toggles", featureToggleService.getAllToggles());
+                                  .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1792,16 +1779,14 @@ public class DashboardResource {
         var piiColumns = dataAccessPatternService.getPiiColumns(instance);
         var rlsPolicies = dataAccessPatternService.getRlsPolicies(instance);
         var summary = dataAccessPatternService.getSummary(instance);
-        return securityAccess.data("sensitiveTables", sensitiveTables)
+        return pages.page(securityAccess).data("sensitiveTables", sensitiveTables)
                              .data("piiColumns", piiColumns)
                              .data("rlsPolicies", rlsPolicies)
                              .data("summary", summary)
-                             .data("instances", dataSourceManager.getInstanceInfoList())
                              .data("currentInstance", instance)
                              .data("securityEnabled", config.security().enabled())
                              .data("schemaEnabled", config.schema().enabled())
-                             .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                             .data("toggles", featureToggleService.getAllToggles());
+                             .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1821,14 +1806,12 @@ public class DashboardResource {
         featureToggleService.requirePageEnabled("security-compliance");
         var scores = complianceService.getAllComplianceScores(instance);
         var summary = complianceService.getSummary(instance);
-        return securityCompliance.data("scores", scores)
+        return pages.page(securityCompliance).data("scores", scores)
                                  .data("summary", summary)
-                                 .data("instances", dataSourceManager.getInstanceInfoList())
                                  .data("currentInstance", instance)
                                  .data("securityEnabled", config.security().enabled())
                                  .data("schemaEnabled", config.schema().enabled())
-                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                 .data("toggles", featureToggleService.getAllToggles());
+                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1864,18 +1847,16 @@ public class DashboardResource {
                         || r.getPriority() == com.bovinemagnet.pgconsole.model.SecurityRecommendation.Priority.INFORMATIONAL)
                 .toList();
 
-        return securityRecommendations.data("recommendations", recommendations)
+        return pages.page(securityRecommendations).data("recommendations", recommendations)
                                       .data("criticalRecs", criticalRecs)
                                       .data("highRecs", highRecs)
                                       .data("mediumRecs", mediumRecs)
                                       .data("lowRecs", lowRecs)
                                       .data("summary", summary)
-                                      .data("instances", dataSourceManager.getInstanceInfoList())
                                       .data("currentInstance", instance)
                                       .data("securityEnabled", config.security().enabled())
                                       .data("schemaEnabled", config.schema().enabled())
-                                      .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                      .data("toggles", featureToggleService.getAllToggles());
+                                      .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1924,17 +1905,16 @@ public class DashboardResource {
     @GET
     @Path("/databases")
     @Produces(MediaType.TEXT_HTML)
+    @VersionedResponse(fragmentsOnly = true)
     public TemplateInstance databases(
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("databases");
         List<DatabaseMetrics> dbMetrics = postgresService.getAllDatabaseMetrics(instance);
-        return databases.data("databases", dbMetrics)
-                       .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(databases).data("databases", dbMetrics)
                        .data("currentInstance", instance)
                        .data("securityEnabled", config.security().enabled())
                        .data("schemaEnabled", config.schema().enabled())
-                       .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                       .data("toggles", featureToggleService.getAllToggles());
+                       .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -1955,13 +1935,11 @@ public class DashboardResource {
             @QueryParam("instance") @DefaultValue("default") String instance) {
         featureToggleService.requirePageEnabled("databases");
         DatabaseMetrics db = postgresService.getDatabaseMetrics(instance, dbName);
-        return databaseDetail.data("db", db)
-                            .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(databaseDetail).data("db", db)
                             .data("currentInstance", instance)
                             .data("securityEnabled", config.security().enabled())
                             .data("schemaEnabled", config.schema().enabled())
-                            .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                            .data("toggles", featureToggleService.getAllToggles());
+                            .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // --- Admin Actions: Cancel/Terminate Queries ---
@@ -2092,7 +2070,8 @@ public class DashboardResource {
      * Exports slow queries as a CSV file.
      * <p>
      * Generates a CSV download containing query statistics from pg_stat_statements.
-     * The filename includes the instance name and timestamp.
+     * The filename includes the instance name and timestamp. This exports the
+     * rows shown on the dashboard; {@link ExportResource} streams the full view.
      *
      * @param instance the PostgreSQL instance identifier (defaults to "default")
      * @param sortBy the sort field (defaults to "totalTime")
@@ -2113,33 +2092,34 @@ public class DashboardResource {
             order != null ? order : "desc"
         );
 
-        StringBuilder csv = new StringBuilder();
-
-        // Header row
-        csv.append("Query ID,Query,Total Calls,Total Time (ms),Mean Time (ms),")
-           .append("Min Time (ms),Max Time (ms),Rows,Shared Blks Hit,Shared Blks Read,")
-           .append("Temp Blks Written\n");
-
-        // Data rows
-        for (SlowQuery q : queries) {
-            csv.append(escapeCsv(q.getQueryId())).append(",")
-               .append(escapeCsv(q.getQuery())).append(",")
-               .append(q.getTotalCalls()).append(",")
-               .append(String.format("%.2f", q.getTotalTime())).append(",")
-               .append(String.format("%.2f", q.getMeanTime())).append(",")
-               .append(String.format("%.2f", q.getMinTime())).append(",")
-               .append(String.format("%.2f", q.getMaxTime())).append(",")
-               .append(q.getRows()).append(",")
-               .append(q.getSharedBlksHit()).append(",")
-               .append(q.getSharedBlksRead()).append(",")
-               .append(q.getTempBlksWritten())
-               .append("\n");
-        }
-
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
         String filename = String.format("slow-queries-%s-%s.csv", instance, timestamp);
 
-        return Response.ok(csv.toString())
+        // Rows are written straight to the response rather than assembled in memory
+        StreamingOutput body = output -> {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            csv.append("Query ID,Query,Total Calls,Total Time (ms),Mean Time (ms),")
+               .append("Min Time (ms),Max Time (ms),Rows,Shared Blks Hit,Shared Blks Read,")
+               .append("Temp Blks Written\n");
+
+            for (SlowQuery q : queries) {
+                csv.append(escapeCsv(q.getQueryId())).append(",")
+                   .append(escapeCsv(q.getQuery())).append(",")
+                   .append(String.valueOf(q.getTotalCalls())).append(",")
+                   .append(String.format("%.2f", q.getTotalTime())).append(",")
+                   .append(String.format("%.2f", q.getMeanTime())).append(",")
+                   .append(String.format("%.2f", q.getMinTime())).append(",")
+                   .append(String.format("%.2f", q.getMaxTime())).append(",")
+                   .append(String.valueOf(q.getRows())).append(",")
+                   .append(String.valueOf(q.getSharedBlksHit())).append(",")
+                   .append(String.valueOf(q.getSharedBlksRead())).append(",")
+                   .append(String.valueOf(q.getTempBlksWritten()))
+                   .append("\n");
+            }
+            csv.flush();
+        };
+
+        return Response.ok(body)
                       .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
                       .build();
     }
@@ -2152,6 +2132,8 @@ public class DashboardResource {
      * Creates a point-in-time snapshot of the database state including
      * active queries, locks, configuration, and key metrics.
      * Useful for post-incident analysis and troubleshooting.
+     * <p>
+     * The report is streamed section by section as each capture completes.
      *
      * @param instance the PostgreSQL instance identifier (defaults to "default")
      * @param description optional description of the incident
@@ -2164,13 +2146,19 @@ public class DashboardResource {
             @QueryParam("instance") @DefaultValue("default") String instance,
             @QueryParam("description") String description) {
 
-        IncidentReport report = incidentReportService.captureReport(instance, description);
-        String reportText = incidentReportService.formatAsText(report);
+        // Sections are captured concurrently and streamed as each one completes
+        IncidentReportService.Capture capture = incidentReportService.startCapture(instance, description);
 
         String filename = String.format("incident-report-%s-%s.txt",
-            instance, report.getFilenameTimestamp());
+            instance, capture.report().getFilenameTimestamp());
 
-        return Response.ok(reportText)
+        StreamingOutput body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            incidentReportService.writeAsText(capture, writer);
+            writer.flush();
+        };
+
+        return Response.ok(body)
                       .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
                       .build();
     }
@@ -2198,14 +2186,12 @@ public class DashboardResource {
         var status = postgresService.getWalReceiverStatus(instance);
         boolean isStandby = postgresService.isStandby(instance);
 
-        return walReceiver.data("status", status)
+        return pages.page(walReceiver).data("status", status)
                           .data("isStandby", isStandby)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2237,19 +2223,19 @@ public class DashboardResource {
 
         int pgVersion = postgresService.getPostgresVersionNum(instance);
 
-        return maintenanceProgress.data("vacuumProgress", vacuumProgress)
+        return pages.page(maintenanceProgress).data("vacuumProgress", vacuumProgress)
                                   .data("createIndexProgress", createIndexProgress)
                                   .data("clusterProgress", clusterProgress)
                                   .data("analyzeProgress", analyzeProgress)
                                   .data("basebackupProgress", basebackupProgress)
                                   .data("copyProgress", copyProgress)
                                   .data("pgVersion", pgVersion)
-                                  .data("instances", dataSourceManager.getInstanceInfoList())
+                                  .data("maintenanceJobs", maintenanceJobService.getJobs(instance))
+                                  .data("maintenanceJobsQueued", maintenanceJobService.queued())
                                   .data("currentInstance", instance)
                                   .data("securityEnabled", config.security().enabled())
                                   .data("schemaEnabled", config.schema().enabled())
-                                  .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                  .data("toggles", featureToggleService.getAllToggles());
+                                  .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2275,15 +2261,13 @@ public class DashboardResource {
         int pgVersion = postgresService.getPostgresVersionNum(instance);
         boolean supported = pgVersion >= 160000;
 
-        return ioStatistics.data("stats", stats)
+        return pages.page(ioStatistics).data("stats", stats)
                            .data("pgVersion", pgVersion)
                            .data("supported", supported)
-                           .data("instances", dataSourceManager.getInstanceInfoList())
                            .data("currentInstance", instance)
                            .data("securityEnabled", config.security().enabled())
                            .data("schemaEnabled", config.schema().enabled())
-                           .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                           .data("toggles", featureToggleService.getAllToggles());
+                           .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2308,13 +2292,11 @@ public class DashboardResource {
 
         var stats = postgresService.getFunctionStats(instance);
 
-        return functions.data("stats", stats)
-                        .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(functions).data("stats", stats)
                         .data("currentInstance", instance)
                         .data("securityEnabled", config.security().enabled())
                         .data("schemaEnabled", config.schema().enabled())
-                        .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                        .data("toggles", featureToggleService.getAllToggles());
+                        .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2339,13 +2321,11 @@ public class DashboardResource {
 
         var settings = postgresService.getConfigFileSettings(instance);
 
-        return configFiles.data("settings", settings)
-                          .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(configFiles).data("settings", settings)
                           .data("currentInstance", instance)
                           .data("securityEnabled", config.security().enabled())
                           .data("schemaEnabled", config.schema().enabled())
-                          .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                          .data("toggles", featureToggleService.getAllToggles());
+                          .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2370,14 +2350,12 @@ public class DashboardResource {
         var statements = postgresService.getPreparedStatements(instance);
         var cursors = postgresService.getOpenCursors(instance);
 
-        return preparedStatements.data("statements", statements)
+        return pages.page(preparedStatements).data("statements", statements)
                                  .data("cursors", cursors)
-                                 .data("instances", dataSourceManager.getInstanceInfoList())
                                  .data("currentInstance", instance)
                                  .data("securityEnabled", config.security().enabled())
                                  .data("schemaEnabled", config.schema().enabled())
-                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                                 .data("toggles", featureToggleService.getAllToggles());
+                                 .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2402,13 +2380,11 @@ public class DashboardResource {
 
         var views = postgresService.getMaterialisedViews(instance);
 
-        return matviews.data("views", views)
-                       .data("instances", dataSourceManager.getInstanceInfoList())
+        return pages.page(matviews).data("views", views)
                        .data("currentInstance", instance)
                        .data("securityEnabled", config.security().enabled())
                        .data("schemaEnabled", config.schema().enabled())
-                       .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                       .data("toggles", featureToggleService.getAllToggles());
+                       .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2434,15 +2410,13 @@ public class DashboardResource {
         int pgVersion = postgresService.getPostgresVersionNum(instance);
         boolean supported = pgVersion >= 100000;
 
-        return sequences.data("sequences", seqs)
+        return pages.page(sequences).data("sequences", seqs)
                         .data("pgVersion", pgVersion)
                         .data("supported", supported)
-                        .data("instances", dataSourceManager.getInstanceInfoList())
                         .data("currentInstance", instance)
                         .data("securityEnabled", config.security().enabled())
                         .data("schemaEnabled", config.schema().enabled())
-                        .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                        .data("toggles", featureToggleService.getAllToggles());
+                        .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     // ========================================
@@ -2470,15 +2444,13 @@ public class DashboardResource {
         var installed = exts.stream().filter(e -> e.isInstalled()).toList();
         var available = exts.stream().filter(e -> !e.isInstalled()).toList();
 
-        return extensions.data("extensions", exts)
+        return pages.page(extensions).data("extensions", exts)
                          .data("installed", installed)
                          .data("available", available)
-                         .data("instances", dataSourceManager.getInstanceInfoList())
                          .data("currentInstance", instance)
                          .data("securityEnabled", config.security().enabled())
                          .data("schemaEnabled", config.schema().enabled())
-                         .data("inMemoryMinutes", config.schema().inMemoryMinutes())
-                         .data("toggles", featureToggleService.getAllToggles());
+                         .data("inMemoryMinutes", config.schema().inMemoryMinutes());
     }
 
     /**
@@ -2495,26 +2467,29 @@ public class DashboardResource {
 
         List<Activity> activities = postgresService.getCurrentActivity(instance);
 
-        StringBuilder csv = new StringBuilder();
-        csv.append("PID,User,Database,Application,State,Wait Event,Query Start,Query,Blocking PID\n");
-
-        for (Activity a : activities) {
-            csv.append(a.getPid()).append(",")
-               .append(escapeCsv(a.getUser())).append(",")
-               .append(escapeCsv(a.getDatabase())).append(",")
-               .append(escapeCsv(a.getApplicationName())).append(",")
-               .append(escapeCsv(a.getState())).append(",")
-               .append(escapeCsv(a.getWaitEvent())).append(",")
-               .append(a.getQueryStart() != null ? a.getQueryStart().toString() : "").append(",")
-               .append(escapeCsv(a.getQuery())).append(",")
-               .append(a.getBlockingPid() != null ? a.getBlockingPid() : "")
-               .append("\n");
-        }
-
         String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
         String filename = String.format("activity-%s-%s.csv", instance, timestamp);
 
-        return Response.ok(csv.toString())
+        StreamingOutput body = output -> {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            csv.append("PID,User,Database,Application,State,Wait Event,Query Start,Query,Blocking PID\n");
+
+            for (Activity a : activities) {
+                csv.append(String.valueOf(a.getPid())).append(",")
+                   .append(escapeCsv(a.getUser())).append(",")
+                   .append(escapeCsv(a.getDatabase())).append(",")
+                   .append(escapeCsv(a.getApplicationName())).append(",")
+                   .append(escapeCsv(a.getState())).append(",")
+                   .append(escapeCsv(a.getWaitEvent())).append(",")
+                   .append(a.getQueryStart() != null ? a.getQueryStart().toString() : "").append(",")
+                   .append(escapeCsv(a.getQuery())).append(",")
+                   .append(a.getBlockingPid() != null ? String.valueOf(a.getBlockingPid()) : "")
+                   .append("\n");
+            }
+            csv.flush();
+        };
+
+        return Response.ok(body)
                       .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
                       .build();
     }
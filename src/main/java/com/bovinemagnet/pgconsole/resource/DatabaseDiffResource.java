@@ -6,6 +6,7 @@ import com.bovinemagnet.pgconsole.service.*;
 import com.bovinemagnet.pgconsole.util.Filenames;
 import io.quarkus.qute.Template;
 import io.quarkus.qute.TemplateInstance;
+import io.smallrye.common.annotation.Blocking;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -18,6 +19,7 @@ import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Resource for cross-database schema comparison functionality.
@@ -51,6 +53,9 @@ public class DatabaseDiffResource {
     @Inject
     PdfExportService pdfExportService;
 
+    @Inject
+    PdfRenderService pdfRenderService;
+
     @Inject
     InstanceConfig config;
 
@@ -447,17 +452,22 @@ public class DatabaseDiffResource {
 
     /**
      * Export comparison result as PDF.
+     * <p>
+     * Rendered in the background; with {@code async=true} the response is a
+     * job to poll under {@code /api/v1/pdf-jobs} instead of the document.
      */
     @GET
     @Path("/export/pdf")
-    @Produces("application/pdf")
-    public Response exportPdf(
+    @Produces({"application/pdf", MediaType.APPLICATION_JSON})
+    @Blocking
+    public CompletionStage<Response> exportPdf(
             @QueryParam("sourceInstance") String sourceInstance,
             @QueryParam("sourceDatabase") String sourceDatabase,
             @QueryParam("sourceSchema") @DefaultValue("public") String sourceSchema,
             @QueryParam("destInstance") String destInstance,
             @QueryParam("destDatabase") String destDatabase,
-            @QueryParam("destSchema") @DefaultValue("public") String destSchema) {
+            @QueryParam("destSchema") @DefaultValue("public") String destSchema,
+            @QueryParam("async") boolean async) {
         featureToggleService.requirePageEnabled("database-diff");
 
         SchemaComparisonResult result = diffService.compareCrossDatabase(
@@ -465,8 +475,6 @@ public class DatabaseDiffResource {
                 destInstance, destDatabase, destSchema,
                 new ComparisonFilter());
 
-        byte[] pdfBytes = pdfExportService.generateSchemaComparisonPdf(result);
-
         String timestamp = DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
                 .withZone(ZoneId.systemDefault())
                 .format(Instant.now());
@@ -474,9 +482,8 @@ public class DatabaseDiffResource {
         String filename = String.format("db-diff_%s_%s_vs_%s_%s_%s.pdf",
                 sourceInstance, sourceDatabase, destInstance, destDatabase, timestamp);
 
-        return Response.ok(pdfBytes)
-                .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
-                .build();
+        PdfRenderService.Job job = pdfRenderService.submit(filename, pdfExportService.generatePrintOptimisedHtml(result));
+        return PdfJobResource.respond(pdfRenderService, job, async);
     }
 
     // =========================================================================
@@ -133,6 +133,9 @@ public class DiagnosticsResource {
     @Inject
     FeatureToggleService featureToggleService;
 
+    @Inject
+    PageRenderer pages;
+
     @Inject
     LiveChartHistoryStore liveChartHistoryStore;
 
@@ -263,17 +266,15 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<PipelineRisk> risks = postgresService.getPipelineRisk(instanceName, null, queueStaleHours);
 
-        return pipelineRisk.data("appName", appName)
+        return pages.page(pipelineRisk).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "pipeline-risk")
                 .data("pageTitle", "Pipeline Risk")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("risks", risks)
                 .data("staleThresholdHours", queueStaleHours)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -296,17 +297,15 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<ToastBloat> bloats = postgresService.getToastBloat(instanceName);
 
-        return toastBloat.data("appName", appName)
+        return pages.page(toastBloat).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "toast-bloat")
                 .data("pageTitle", "TOAST Bloat")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("bloats", bloats)
                 .data("warnPercent", toastBloatWarnPercent)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -329,16 +328,14 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<IndexRedundancy> redundancies = postgresService.getIndexRedundancy(instanceName);
 
-        return indexRedundancy.data("appName", appName)
+        return pages.page(indexRedundancy).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "index-redundancy")
                 .data("pageTitle", "Index Redundancy")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("redundancies", redundancies)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -361,16 +358,14 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<StatisticalFreshness> freshness = postgresService.getStatisticalFreshness(instanceName);
 
-        return statisticalFreshness.data("appName", appName)
+        return pages.page(statisticalFreshness).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "statistical-freshness")
                 .data("pageTitle", "Statistical Freshness")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("freshness", freshness)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -393,16 +388,14 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<WriteReadRatio> ratios = postgresService.getWriteReadRatio(instanceName);
 
-        return writeReadRatio.data("appName", appName)
+        return pages.page(writeReadRatio).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "write-read-ratio")
                 .data("pageTitle", "Write/Read Ratio")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("ratios", ratios)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -425,17 +418,15 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<HotUpdateEfficiency> efficiencies = postgresService.getHotEfficiency(instanceName);
 
-        return hotEfficiency.data("appName", appName)
+        return pages.page(hotEfficiency).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "hot-efficiency")
                 .data("pageTitle", "HOT Update Efficiency")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("efficiencies", efficiencies)
                 .data("warnPercent", hotEfficiencyWarnPercent)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -458,16 +449,14 @@ public class DiagnosticsResource {
         String instanceName = "default".equals(instance) ? getDefaultInstance() : instance;
         List<ColumnCorrelation> correlations = postgresService.getColumnCorrelation(instanceName);
 
-        return correlation.data("appName", appName)
+        return pages.page(correlation).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "correlation")
                 .data("pageTitle", "Column Correlation")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("correlations", correlations)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -537,19 +526,17 @@ public class DiagnosticsResource {
                 .distinct()
                 .toList();
 
-        return xidWraparound.data("appName", appName)
+        return pages.page(xidWraparound).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "xid-wraparound")
                 .data("pageTitle", "XID Wraparound")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("xids", xids)
                 .data("vacuumCommands", uniqueVacuumCommands)
                 .data("warnPercent", xidWarnPercent)
                 .data("criticalPercent", xidCriticalPercent)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
     }
 
     // ========================================
@@ -606,13 +593,12 @@ public class DiagnosticsResource {
         // Per-database sparklines (when a specific database is selected)
         boolean showDatabase = !"all".equals(database) && databaseList.contains(database);
 
-        var templateInstance = liveSparklines.data("appName", appName)
+        var templateInstance = pages.page(liveSparklines).data("appName", appName)
                 .data("appVersion", appVersion)
                 .data("currentPage", "live-sparklines")
                 .data("pageTitle", "Live Sparklines")
                 .data("instance", instanceName)
                 .data("currentInstance", instanceName)
-                .data("instances", dataSourceManager.getInstanceInfoList())
                 .data("databaseList", databaseList)
                 .data("selectedDatabase", database)
                 .data("selectedHours", hours)
@@ -630,8 +616,7 @@ public class DiagnosticsResource {
                 .data("checkpointsTimedSparkline", checkpointsTimedSparkline)
                 .data("checkpointsReqSparkline", checkpointsReqSparkline)
                 .data("buffersAllocSparkline", buffersAllocSparkline)
-                .data("schemaEnabled", config.schema().enabled())
-                .data("toggles", getToggles());
+                .data("schemaEnabled", config.schema().enabled());
 
         if (showDatabase) {
             templateInstance
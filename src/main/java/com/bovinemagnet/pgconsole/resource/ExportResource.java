@@ -0,0 +1,143 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.service.DataExportService;
+import com.bovinemagnet.pgconsole.service.DataExportService.Dataset;
+import com.bovinemagnet.pgconsole.util.AcceptEncoding;
+import com.bovinemagnet.pgconsole.util.ExportWriter;
+import com.bovinemagnet.pgconsole.util.Filenames;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST API resource for streaming bulk exports.
+ * <p>
+ * {@code GET /api/v1/export/{dataset}} streams one of the datasets in
+ * {@link Dataset} as CSV or newline-delimited JSON. The response is written
+ * while rows are read from a database cursor, so exports of any size run in
+ * constant memory. Responses are gzip-compressed when the client sends
+ * {@code Accept-Encoding: gzip}.
+ * <p>
+ * Example: {@code curl --compressed
+ * "/api/v1/export/system-history?instance=prod&from=2026-01-01T00:00:00Z&format=ndjson"}
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see DataExportService
+ */
+@Path("/api/v1/export")
+public class ExportResource {
+
+    private static final DateTimeFormatter FILENAME_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    DataExportService exportService;
+
+    /**
+     * Streams a dataset export.
+     *
+     * @param datasetSlug the dataset, e.g. {@code slow-queries} or {@code query-history}
+     * @param instance the instance to export; for history datasets omit it to export every instance
+     * @param from ISO-8601 start of the history range (defaults to {@code hours} before {@code to})
+     * @param to ISO-8601 end of the history range (defaults to now)
+     * @param hours length of the history range when {@code from} is omitted
+     * @param formatName {@code csv} (default) or {@code ndjson}
+     * @param acceptEncoding the request's {@code Accept-Encoding} header
+     * @return the streamed export, or 400 for invalid parameters
+     * @throws NotFoundException if the dataset is unknown, or is a history dataset while the schema is disabled
+     */
+    @GET
+    @Path("/{dataset}")
+    public Response export(
+            @PathParam("dataset") String datasetSlug,
+            @QueryParam("instance") String instance,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("hours") @DefaultValue("24") int hours,
+            @QueryParam("format") @DefaultValue("csv") String formatName,
+            @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+
+        Dataset dataset = Dataset.fromSlug(datasetSlug);
+        if (dataset == null) {
+            throw new NotFoundException("Unknown export dataset: " + datasetSlug);
+        }
+        if (dataset.isHistory() && !config.schema().enabled()) {
+            throw new NotFoundException("History is not stored when the pgconsole schema is disabled");
+        }
+
+        ExportWriter.Format format = ExportWriter.Format.fromName(formatName);
+        if (format == null) {
+            return badRequest("Unsupported format: " + formatName + " (expected csv or ndjson)");
+        }
+
+        Instant end;
+        Instant start;
+        try {
+            end = to != null && !to.isBlank() ? Instant.parse(to) : Instant.now();
+            start = from != null && !from.isBlank() ? Instant.parse(from) : end.minus(hours, ChronoUnit.HOURS);
+        } catch (DateTimeParseException e) {
+            return badRequest("Invalid timestamp: " + e.getParsedString() + " (expected ISO-8601, e.g. 2026-01-01T00:00:00Z)");
+        }
+        if (!start.isBefore(end)) {
+            return badRequest("'from' must be before 'to'");
+        }
+
+        String exportInstance = instance != null && !instance.isBlank() ? instance
+            : dataset.isHistory() ? null : "default";
+        boolean gzip = AcceptEncoding.accepts(acceptEncoding, "gzip");
+
+        StreamingOutput body = output -> {
+            OutputStream stream = gzip ? new GZIPOutputStream(output, 8192) : output;
+            BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8));
+            exportService.export(dataset, exportInstance, start, end, ExportWriter.of(format, writer));
+            writer.flush();
+            if (stream instanceof GZIPOutputStream gzipStream) {
+                gzipStream.finish();
+            }
+        };
+
+        String filename = String.format("%s-%s-%s.%s", dataset.getSlug(),
+            exportInstance != null ? exportInstance : "all", FILENAME_TIMESTAMP.format(Instant.now()), format.getExtension());
+
+        Response.ResponseBuilder response = Response.ok(body)
+            .type(format.getMediaType() + "; charset=UTF-8")
+            .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    private static Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+            .type(MediaType.TEXT_PLAIN)
+            .entity(message)
+            .build();
+    }
+}
@@ -0,0 +1,228 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.model.OverviewStats;
+import com.bovinemagnet.pgconsole.service.FleetService;
+import com.bovinemagnet.pgconsole.service.FleetService.FleetQuery;
+import com.bovinemagnet.pgconsole.service.FleetService.InstanceResult;
+import com.bovinemagnet.pgconsole.service.FleetService.Status;
+import com.bovinemagnet.pgconsole.util.ExportWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API resource for fleet-wide views across every monitored instance.
+ * <p>
+ * Every instance is queried at once by {@link FleetService}, each with its
+ * own deadline, and the response reports each instance's status alongside
+ * whatever the others returned. With {@code format=ndjson} the response is
+ * streamed as newline-delimited JSON: one {@code instance} line as each
+ * instance answers, then for top queries one {@code query} line per
+ * statement, and a closing {@code summary} line.
+ * <p>
+ * Example: {@code curl -N "/api/v1/fleet/top-queries?sort=meanTime&limit=50&format=ndjson"}
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see FleetService
+ */
+@Path("/api/v1/fleet")
+public class FleetResource {
+
+    private static final int MAX_LIMIT = 500;
+
+    @Inject
+    FleetService fleetService;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    /**
+     * Returns the overview statistics of every instance.
+     *
+     * @param formatName {@code json} (default) or {@code ndjson}
+     * @return each instance's statistics or why it has none, or 400 for an unknown format
+     */
+    @GET
+    @Path("/overview")
+    public Response overview(@QueryParam("format") @DefaultValue("json") String formatName) {
+        if ("json".equalsIgnoreCase(formatName)) {
+            Map<String, InstanceResult<OverviewStats>> results = new HashMap<>();
+            fleetService.overview(result -> results.put(result.instance(), result));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("timestamp", Instant.now().toString());
+            putSummary(response, results.values());
+            response.put("instances", inInstanceOrder(results));
+            return Response.ok(response, MediaType.APPLICATION_JSON_TYPE).build();
+        }
+        if (ExportWriter.Format.fromName(formatName) != ExportWriter.Format.NDJSON) {
+            return badRequest("Unsupported format: " + formatName + " (expected json or ndjson)");
+        }
+
+        StreamingOutput body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            List<InstanceResult<?>> results = new ArrayList<>();
+            streamLines(writer, () -> {
+                fleetService.overview(result -> {
+                    results.add(result);
+                    writeLine(writer, "instance", result);
+                });
+                writeSummary(writer, results);
+            });
+        };
+        return ndjson(body);
+    }
+
+    /**
+     * Returns the most expensive statements across every instance, from
+     * {@code pg_stat_statements}.
+     *
+     * @param sortBy {@code totalTime} (default), {@code calls}, {@code meanTime},
+     *               {@code maxTime} or {@code rows}
+     * @param limit how many statements to return, at most 500
+     * @param formatName {@code json} (default) or {@code ndjson}
+     * @return the top statements with each instance's status, or 400 for
+     *         an unknown sort or format
+     */
+    @GET
+    @Path("/top-queries")
+    public Response topQueries(
+            @QueryParam("sort") @DefaultValue("totalTime") String sortBy,
+            @QueryParam("limit") @DefaultValue("20") int limit,
+            @QueryParam("format") @DefaultValue("json") String formatName) {
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        boolean json = "json".equalsIgnoreCase(formatName);
+        if (!json && ExportWriter.Format.fromName(formatName) != ExportWriter.Format.NDJSON) {
+            return badRequest("Unsupported format: " + formatName + " (expected json or ndjson)");
+        }
+        // Checked up front so that a streamed response can still answer 400
+        if (!FleetService.supportsSort(sortBy)) {
+            return badRequest("Unsupported sort: " + sortBy + " (expected totalTime, calls, meanTime, maxTime or rows)");
+        }
+
+        if (json) {
+            Map<String, InstanceResult<Integer>> results = new HashMap<>();
+            List<FleetQuery> queries = fleetService.topQueries(sortBy, boundedLimit,
+                    result -> results.put(result.instance(), result));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("timestamp", Instant.now().toString());
+            response.put("sort", sortBy);
+            response.put("limit", boundedLimit);
+            putSummary(response, results.values());
+            response.put("instances", inInstanceOrder(results));
+            response.put("queries", queries);
+            return Response.ok(response, MediaType.APPLICATION_JSON_TYPE).build();
+        }
+
+        StreamingOutput body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            List<InstanceResult<?>> results = new ArrayList<>();
+            streamLines(writer, () -> {
+                List<FleetQuery> queries = fleetService.topQueries(sortBy, boundedLimit, result -> {
+                    results.add(result);
+                    writeLine(writer, "instance", result);
+                });
+                for (FleetQuery query : queries) {
+                    writeLine(writer, "query", query);
+                }
+                writeSummary(writer, results);
+            });
+        };
+        return ndjson(body);
+    }
+
+    private <T> List<InstanceResult<T>> inInstanceOrder(Map<String, InstanceResult<T>> results) {
+        List<InstanceResult<T>> ordered = new ArrayList<>();
+        for (String instance : fleetService.instances()) {
+            InstanceResult<T> result = results.get(instance);
+            if (result != null) {
+                ordered.add(result);
+            }
+        }
+        return ordered;
+    }
+
+    private static void putSummary(Map<String, Object> target, Iterable<? extends InstanceResult<?>> results) {
+        Map<Status, Integer> counts = new EnumMap<>(Status.class);
+        int total = 0;
+        for (InstanceResult<?> result : results) {
+            counts.merge(result.status(), 1, Integer::sum);
+            total++;
+        }
+        target.put("count", total);
+        target.put("answered", counts.getOrDefault(Status.OK, 0));
+        target.put("failed", counts.getOrDefault(Status.ERROR, 0));
+        target.put("timedOut", counts.getOrDefault(Status.TIMEOUT, 0));
+    }
+
+    /**
+     * Runs a streaming body, turning the unchecked write failures raised
+     * inside result callbacks back into the {@link IOException} the
+     * container expects.
+     */
+    private static void streamLines(Writer writer, Runnable body) throws IOException {
+        try {
+            body.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+
+    private void writeSummary(Writer writer, List<InstanceResult<?>> results) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("timestamp", Instant.now().toString());
+        putSummary(summary, results);
+        writeLine(writer, "summary", summary);
+    }
+
+    /**
+     * Writes one NDJSON line tagged with its type and flushes it, so the
+     * client sees each instance as soon as it answers.
+     */
+    private void writeLine(Writer writer, String type, Object value) {
+        ObjectNode line = objectMapper.createObjectNode().put("type", type);
+        line.setAll((ObjectNode) objectMapper.valueToTree(value));
+        try {
+            writer.write(objectMapper.writeValueAsString(line));
+            writer.write('\n');
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Response ndjson(StreamingOutput body) {
+        return Response.ok(body)
+                .type(ExportWriter.Format.NDJSON.getMediaType() + "; charset=UTF-8")
+                .build();
+    }
+
+    private static Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(message)
+                .build();
+    }
+}
@@ -0,0 +1,147 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository.HistoryTable;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchiveService;
+import com.bovinemagnet.pgconsole.util.Filenames;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * REST API resource for the columnar history archive.
+ * <p>
+ * {@code GET /api/v1/history/archive} streams stored history as a compact
+ * archive for offline analysis; {@code POST} imports such an archive into
+ * this pg-console's history tables. Both require the {@code pgconsole}
+ * schema. Import is restricted to admins when security is enabled.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchiveService
+ */
+@Path("/api/v1/history/archive")
+public class HistoryArchiveResource {
+
+    private static final DateTimeFormatter FILENAME_TIMESTAMP =
+        DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss").withZone(ZoneOffset.UTC);
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    HistoryArchiveService archiveService;
+
+    /**
+     * Streams a history archive.
+     *
+     * @param instance the instance to archive; omit for all instances
+     * @param from ISO-8601 start of the range (defaults to {@code hours} before {@code to})
+     * @param to ISO-8601 end of the range (defaults to now)
+     * @param hours length of the range when {@code from} is omitted (default: one week)
+     * @param tables comma-separated tables: {@code system}, {@code query}, {@code database},
+     *               {@code infrastructure} (default: all)
+     * @return the archive download, or 400 for invalid parameters
+     */
+    @GET
+    public Response exportArchive(
+            @QueryParam("instance") String instance,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("hours") @DefaultValue("168") int hours,
+            @QueryParam("tables") String tables) {
+        requireSchema();
+
+        Instant end;
+        Instant start;
+        try {
+            end = to != null && !to.isBlank() ? Instant.parse(to) : Instant.now();
+            start = from != null && !from.isBlank() ? Instant.parse(from) : end.minus(hours, ChronoUnit.HOURS);
+        } catch (DateTimeParseException e) {
+            return badRequest("Invalid timestamp: " + e.getParsedString() + " (expected ISO-8601, e.g. 2026-01-01T00:00:00Z)");
+        }
+        if (!start.isBefore(end)) {
+            return badRequest("'from' must be before 'to'");
+        }
+
+        Set<HistoryTable> selected;
+        try {
+            selected = HistoryArchiveService.parseTables(tables);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        String archiveInstance = instance != null && !instance.isBlank() ? instance : null;
+        StreamingOutput body = output -> archiveService.exportArchive(archiveInstance, start, end, selected, output);
+
+        String filename = String.format("history-%s-%s.%s", archiveInstance != null ? archiveInstance : "all",
+            FILENAME_TIMESTAMP.format(end), HistoryArchive.FILE_EXTENSION);
+        return Response.ok(body)
+            .type(HistoryArchive.MEDIA_TYPE)
+            .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
+            .build();
+    }
+
+    /**
+     * Imports a history archive.
+     *
+     * @param instance import every row as this instance; omit to keep the archived instances
+     * @param archive the archive body
+     * @return a JSON summary of the rows imported, or 400 if the archive is invalid
+     */
+    @POST
+    @Consumes({HistoryArchive.MEDIA_TYPE, MediaType.APPLICATION_OCTET_STREAM})
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response importArchive(@QueryParam("instance") String instance, InputStream archive) {
+        requireSchema();
+
+        try {
+            HistoryArchiveService.Summary summary = archiveService.importArchive(archive,
+                instance != null && !instance.isBlank() ? instance : null);
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("chunks", summary.chunks());
+            result.put("rows", summary.totalRows());
+            Map<String, Long> byTable = new LinkedHashMap<>();
+            summary.rowsByTable().forEach((table, rows) -> byTable.put(table.name().toLowerCase(Locale.ROOT), rows));
+            result.put("rowsByTable", byTable);
+            return Response.ok(result).build();
+        } catch (IOException e) {
+            return badRequest("Invalid history archive: " + e.getMessage());
+        }
+    }
+
+    private void requireSchema() {
+        if (!config.schema().enabled()) {
+            throw new NotFoundException("History is not stored when the pgconsole schema is disabled");
+        }
+    }
+
+    private static Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+            .type(MediaType.TEXT_PLAIN)
+            .entity(message)
+            .build();
+    }
+}
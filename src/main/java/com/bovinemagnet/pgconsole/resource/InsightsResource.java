@@ -3,9 +3,9 @@ package com.bovinemagnet.pgconsole.resource;
 import com.bovinemagnet.pgconsole.config.InstanceConfig;
 import com.bovinemagnet.pgconsole.model.*;
 import com.bovinemagnet.pgconsole.service.*;
-import com.bovinemagnet.pgconsole.util.Filenames;
 import io.quarkus.qute.Template;
 import io.quarkus.qute.TemplateInstance;
+import io.smallrye.common.annotation.Blocking;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -14,6 +14,7 @@ import org.jboss.logging.Logger;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Resource for intelligent insights dashboards.
@@ -51,6 +52,9 @@ public class InsightsResource {
     @Inject
     PdfExportService pdfExportService;
 
+    @Inject
+    PdfRenderService pdfRenderService;
+
     @Inject
     PostgresService postgresService;
 
@@ -357,6 +361,7 @@ public class InsightsResource {
             @QueryParam("instance") @DefaultValue("default") String instance) {
 
         anomalyDetectionService.resolveAnomaly(instance, anomalyId, notes);
+        recommendationService.invalidate(instance, UnifiedRecommendation.Source.ANOMALY);
         return Response.ok(Map.of("status", "resolved", "anomalyId", anomalyId)).build();
     }
 
@@ -481,14 +486,18 @@ public class InsightsResource {
      * Export runbook execution as PDF.
      * <p>
      * Generates a comprehensive PDF report containing execution details,
-     * step results, recommendations, and audit trail.
+     * step results, recommendations, and audit trail. Rendered in the
+     * background; with {@code async=true} the response is a job to poll
+     * under {@code /api/v1/pdf-jobs} instead of the document.
      */
     @GET
     @Path("/runbooks/execution/{executionId}/export/pdf")
-    @Produces("application/pdf")
-    public Response exportExecutionPdf(
+    @Produces({"application/pdf", MediaType.APPLICATION_JSON})
+    @Blocking
+    public CompletionStage<Response> exportExecutionPdf(
             @PathParam("executionId") long executionId,
-            @QueryParam("instance") @DefaultValue("default") String instance) {
+            @QueryParam("instance") @DefaultValue("default") String instance,
+            @QueryParam("async") boolean async) {
 
         if (!featureToggleService.isPageEnabled("runbooks")) {
             throw new NotFoundException("Runbooks page is disabled");
@@ -499,31 +508,19 @@ public class InsightsResource {
             throw new NotFoundException("Execution not found: " + executionId);
         }
 
-        try {
-            byte[] pdfBytes = pdfExportService.generateRunbookExecutionPdf(execution);
-
-            String runbookName = execution.getRunbook() != null
-                    ? execution.getRunbook().getName()
-                    : "runbook";
-            String timestamp = execution.getStartedAt() != null
-                    ? java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
-                            .withZone(java.time.ZoneId.systemDefault())
-                            .format(execution.getStartedAt())
-                    : "unknown";
-            String filename = String.format("runbook_execution_%d_%s_%s.pdf",
-                    executionId, runbookName, timestamp);
-
-            return Response.ok(pdfBytes)
-                    .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
-                    .header("Content-Type", "application/pdf")
-                    .build();
-        } catch (Exception e) {
-            LOG.errorf(e, "Failed to generate PDF for execution %d", executionId);
-            return Response.serverError()
-                    .entity("Failed to generate PDF: " + e.getMessage())
-                    .type(MediaType.TEXT_PLAIN)
-                    .build();
-        }
+        String runbookName = execution.getRunbook() != null
+                ? execution.getRunbook().getName()
+                : "runbook";
+        String timestamp = execution.getStartedAt() != null
+                ? java.time.format.DateTimeFormatter.ofPattern("yyyyMMdd_HHmmss")
+                        .withZone(java.time.ZoneId.systemDefault())
+                        .format(execution.getStartedAt())
+                : "unknown";
+        String filename = String.format("runbook_execution_%d_%s_%s.pdf",
+                executionId, runbookName, timestamp);
+
+        PdfRenderService.Job job = pdfRenderService.submit(filename, pdfExportService.generateRunbookExecutionHtml(execution));
+        return PdfJobResource.respond(pdfRenderService, job, async);
     }
 
     /**
@@ -0,0 +1,117 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import com.bovinemagnet.pgconsole.service.InstanceRegistry;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.PUT;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * REST API resource for instances registered at runtime.
+ * <p>
+ * Instances registered here are monitored by every replica without a
+ * restart, alongside those configured in {@code pg-console.instances}.
+ * Passwords are accepted but never returned, and are stored encrypted.
+ * Every endpoint requires the admin role when security is enabled, and
+ * instances can only be registered or removed when it is.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see InstanceRegistry
+ */
+@Path("/api/v1/registry")
+@Produces(MediaType.APPLICATION_JSON)
+public class InstanceRegistryResource {
+
+    @Inject
+    InstanceRegistry instanceRegistry;
+
+    /**
+     * Lists the registered instances, including disabled ones.
+     *
+     * @return the instances, ordered by name
+     */
+    @GET
+    @Path("/instances")
+    public List<RegisteredInstance> listInstances() {
+        return instanceRegistry.list();
+    }
+
+    /**
+     * Registers an instance, or updates it if already registered. Omitting
+     * the password on an update keeps the stored one.
+     *
+     * @param name the instance name
+     * @param instance the connection details and workload class
+     * @return 200 with the instance as stored, or 409 if the registry or security is
+     *         disabled, or a password is given without a credential key
+     * @throws BadRequestException if the instance is invalid
+     */
+    @PUT
+    @Path("/instances/{name}")
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response register(@PathParam("name") String name, RegisteredInstance instance) {
+        if (instance == null) {
+            throw new BadRequestException("An instance is required");
+        }
+        instance.setName(name);
+        try {
+            return Response.ok(instanceRegistry.register(instance)).build();
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        } catch (IllegalStateException e) {
+            return conflict(e.getMessage());
+        }
+    }
+
+    /**
+     * Removes a registered instance and closes its connections.
+     *
+     * @param name the instance name
+     * @return 204 once removed, or 409 if the registry or security is disabled
+     * @throws NotFoundException if no such instance is registered
+     */
+    @DELETE
+    @Path("/instances/{name}")
+    public Response remove(@PathParam("name") String name) {
+        try {
+            if (!instanceRegistry.remove(name)) {
+                throw new NotFoundException("Registered instance not found: " + name);
+            }
+        } catch (IllegalStateException e) {
+            return conflict(e.getMessage());
+        }
+        return Response.noContent().build();
+    }
+
+    /**
+     * Returns this replica's pools for registered instances: the connection
+     * cap, connections in use and open, and each instance's pool.
+     *
+     * @return the pool status
+     */
+    @GET
+    @Path("/pools")
+    public Map<String, Object> getPools() {
+        return instanceRegistry.poolStatus();
+    }
+
+    private static Response conflict(String message) {
+        return Response.status(Response.Status.CONFLICT)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(message)
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.model.MaintenanceJob;
+import com.bovinemagnet.pgconsole.model.ScheduledMaintenance.TaskType;
+import com.bovinemagnet.pgconsole.service.MaintenanceJobService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.SecurityContext;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.net.URI;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * REST API resource for background maintenance jobs.
+ * <p>
+ * A VACUUM, ANALYZE, REINDEX or CLUSTER submitted here answers
+ * {@code 202 Accepted} at once and is run by {@link MaintenanceJobService}.
+ * Its status and progress can be polled or followed as server-sent events,
+ * and it can be cancelled while queued or running. Submitting and cancelling
+ * require the admin role when security is enabled.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see MaintenanceJobService
+ */
+@Path("/api/v1/maintenance-jobs")
+@Produces(MediaType.APPLICATION_JSON)
+public class MaintenanceJobResource {
+
+    @Inject
+    MaintenanceJobService jobService;
+
+    /**
+     * A maintenance job submission. Unset settings take the configured defaults.
+     *
+     * @param instance the instance to run on, or {@code null} for the default
+     * @param taskType the command: VACUUM, VACUUM_FULL, ANALYSE, REINDEX or CLUSTER
+     * @param schema the schema, or {@code null} for the whole database
+     * @param table the table, or {@code null} for the whole schema or database
+     * @param requireWindow whether to wait for an active maintenance window
+     * @param costDelayMs the {@code vacuum_cost_delay} in milliseconds
+     * @param costLimit the {@code vacuum_cost_limit}
+     * @param maintenanceWorkMemMb the {@code maintenance_work_mem} in megabytes
+     */
+    public record JobRequest(String instance, TaskType taskType, String schema, String table,
+                             Boolean requireWindow, Integer costDelayMs, Integer costLimit,
+                             Integer maintenanceWorkMemMb) {
+    }
+
+    /**
+     * Lists queued, running and recently finished jobs.
+     *
+     * @param instance the instance, or omitted for every instance
+     * @return the jobs, most recently submitted first
+     */
+    @GET
+    public List<MaintenanceJob> listJobs(@QueryParam("instance") String instance) {
+        return jobService.getJobs(instance);
+    }
+
+    /**
+     * Submits a job.
+     *
+     * @param request the job to run
+     * @param securityContext the caller, recorded as the submitter
+     * @return 202 with the queued job and its location
+     * @throws BadRequestException if the request is incomplete or invalid
+     */
+    @POST
+    @Consumes(MediaType.APPLICATION_JSON)
+    public Response submit(JobRequest request, @Context SecurityContext securityContext) {
+        if (request == null || request.taskType() == null) {
+            throw new BadRequestException("taskType is required");
+        }
+        if (request.table() != null && request.table().isBlank()
+                || request.schema() != null && request.schema().isBlank()) {
+            throw new BadRequestException("schema and table must not be blank");
+        }
+
+        String instance = request.instance() != null && !request.instance().isBlank() ? request.instance() : "default";
+        MaintenanceJob job = new MaintenanceJob(MaintenanceJobService.newJobId(), instance, request.taskType(),
+                request.schema(), request.table(), Instant.now());
+        job.setRequireWindow(Boolean.TRUE.equals(request.requireWindow()));
+        job.setCostDelayMs(request.costDelayMs());
+        job.setCostLimit(request.costLimit());
+        job.setMaintenanceWorkMemMb(request.maintenanceWorkMemMb());
+        if (securityContext != null && securityContext.getUserPrincipal() != null) {
+            job.setSubmittedBy(securityContext.getUserPrincipal().getName());
+        }
+
+        try {
+            jobService.submit(job);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException(e.getMessage());
+        }
+        return Response.accepted(job)
+                .location(URI.create("/api/v1/maintenance-jobs/" + job.getId()))
+                .build();
+    }
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id the job id
+     * @return the job status
+     */
+    @GET
+    @Path("/{id}")
+    public MaintenanceJob getJob(@PathParam("id") String id) {
+        return requireJob(id);
+    }
+
+    /**
+     * Streams a job's status and progress as server-sent {@code status}
+     * events, closing the stream once the job has finished.
+     *
+     * @param id the job id
+     * @param sink the event sink
+     * @param sse the event factory
+     */
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamJob(@PathParam("id") String id, @Context SseEventSink sink, @Context Sse sse) {
+        MaintenanceJob job = requireJob(id);
+        sink.send(statusEvent(sse, job));
+        Runnable unsubscribe = job.subscribe(changed -> {
+            if (sink.isClosed()) {
+                throw new IllegalStateException("Event stream closed");
+            }
+            if (!changed.isFinished()) {
+                sink.send(statusEvent(sse, changed));
+            }
+        });
+        job.completion().thenAccept(finished -> {
+            unsubscribe.run();
+            if (!sink.isClosed()) {
+                sink.send(statusEvent(sse, finished)).whenComplete((ignored, error) -> sink.close());
+            }
+        });
+    }
+
+    /**
+     * Cancels a job.
+     *
+     * @param id the job id
+     * @return 202 with the job, which finishes as cancelled once stopped, or
+     *         409 if it has already finished
+     */
+    @POST
+    @Path("/{id}/cancel")
+    public Response cancel(@PathParam("id") String id) {
+        MaintenanceJob job = requireJob(id);
+        if (!jobService.cancel(job)) {
+            return Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity("Maintenance job " + id + " is already " + job.getStatus().name().toLowerCase())
+                    .build();
+        }
+        return Response.accepted(job).build();
+    }
+
+    private MaintenanceJob requireJob(String id) {
+        MaintenanceJob job = jobService.getJob(id);
+        if (job == null) {
+            throw new NotFoundException("Maintenance job not found or expired: " + id);
+        }
+        return job;
+    }
+
+    private static OutboundSseEvent statusEvent(Sse sse, MaintenanceJob job) {
+        return sse.newEventBuilder()
+                .name("status")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(MaintenanceJob.class, job)
+                .build();
+    }
+}
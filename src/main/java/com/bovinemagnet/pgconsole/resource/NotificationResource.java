@@ -361,6 +361,7 @@ public class NotificationResource {
     @Path("/api/channels/{id}")
     public Response deleteChannel(@PathParam("id") Long id) {
         channelRepository.delete(id);
+        dispatcher.forgetChannel(id);
         return Response.noContent().build();
     }
 
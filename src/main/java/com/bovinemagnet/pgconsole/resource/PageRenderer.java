@@ -0,0 +1,80 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.service.DataSourceManager;
+import com.bovinemagnet.pgconsole.service.FeatureToggleService;
+import io.quarkus.qute.Template;
+import io.quarkus.qute.TemplateInstance;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Renders dashboard pages either as a full page or as just their
+ * auto-refreshing data region.
+ * <p>
+ * Each refreshable page wraps the contents of its {@code #refreshable-content}
+ * element in a {@code {#fragment id=refreshable}} section, and the element's
+ * {@code hx-get} requests the page with {@code fragment=refreshable}. Such
+ * requests render only that fragment, so an auto-refresh neither renders the
+ * {@code base.html} layout nor pays for the layout data: the instance list,
+ * which checks every configured instance, and the feature toggles.
+ * <p>
+ * Resources start their template instance with {@link #page(Template)} and
+ * add their page data as before, leaving out the layout data this class
+ * provides.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ApplicationScoped
+public class PageRenderer {
+
+    /**
+     * Query parameter naming the fragment to render.
+     */
+    public static final String FRAGMENT_PARAM = "fragment";
+
+    /**
+     * Id of the fragment holding a page's auto-refreshing data region.
+     */
+    public static final String REFRESHABLE = "refreshable";
+
+    @Inject
+    HttpServerRequest request;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    FeatureToggleService featureToggleService;
+
+    /**
+     * Starts rendering a page for the current request.
+     * <p>
+     * Returns the refreshable fragment of the template when the request asks
+     * for it and the template defines it, otherwise the full page with the
+     * layout's instance list and feature toggles.
+     *
+     * @param template the page template
+     * @return the template instance to add page data to
+     */
+    public TemplateInstance page(Template template) {
+        if (isFragmentRequest()) {
+            Template fragment = template.getFragment(REFRESHABLE);
+            if (fragment != null) {
+                return fragment.instance();
+            }
+        }
+        return template.data("instances", dataSourceManager.getInstanceInfoList())
+                .data("toggles", featureToggleService.getAllToggles());
+    }
+
+    /**
+     * Returns whether the current request asks for the refreshable fragment.
+     *
+     * @return {@code true} if only the data region should be rendered
+     */
+    public boolean isFragmentRequest() {
+        return REFRESHABLE.equals(request.getParam(FRAGMENT_PARAM));
+    }
+}
@@ -0,0 +1,193 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.service.PdfRenderService;
+import com.bovinemagnet.pgconsole.service.PdfRenderService.Job;
+import com.bovinemagnet.pgconsole.util.Filenames;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.InternalServerErrorException;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+/**
+ * REST API resource for PDF render jobs.
+ * <p>
+ * PDF exports are rendered in the background by {@link PdfRenderService}.
+ * An export requested with {@code async=true}, or one that outlasts the
+ * synchronous wait, answers {@code 202 Accepted} with a job whose progress
+ * can be polled here or followed as server-sent events, and whose document
+ * is downloaded here once rendered. A document is downloaded at most once:
+ * the first download claims it, later ones are answered {@code 410 Gone},
+ * and the job and its document are discarded once sent. One never
+ * downloaded expires after the result TTL.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see PdfRenderService
+ */
+@Path("/api/v1/pdf-jobs")
+public class PdfJobResource {
+
+    private static final String PDF = "application/pdf";
+
+    @Inject
+    PdfRenderService renderService;
+
+    /**
+     * Returns the status of a job.
+     *
+     * @param id the job id
+     * @return the job status
+     */
+    @GET
+    @Path("/{id}")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Job getJob(@PathParam("id") String id) {
+        return requireJob(id);
+    }
+
+    /**
+     * Streams status changes of a job as server-sent {@code status} events,
+     * closing the stream once the job is done or has failed.
+     *
+     * @param id the job id
+     * @param sink the event sink
+     * @param sse the event factory
+     */
+    @GET
+    @Path("/{id}/events")
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void streamJob(@PathParam("id") String id, @Context SseEventSink sink, @Context Sse sse) {
+        Job job = requireJob(id);
+        sink.send(statusEvent(sse, job));
+        if (job.getStatus() == PdfRenderService.Status.QUEUED) {
+            job.started().thenAccept(started -> {
+                if (!sink.isClosed() && !started.isFinished()) {
+                    sink.send(statusEvent(sse, started));
+                }
+            });
+        }
+        job.completion().thenAccept(finished -> {
+            if (!sink.isClosed()) {
+                sink.send(statusEvent(sse, finished)).whenComplete((ignored, error) -> sink.close());
+            }
+        });
+    }
+
+    /**
+     * Downloads the document of a finished job, discarding the job and
+     * deleting its document once sent.
+     *
+     * @param id the job id
+     * @return the PDF, 409 if still rendering, 410 if already downloaded, or 500 if rendering failed
+     */
+    @GET
+    @Path("/{id}/download")
+    @Produces({PDF, MediaType.TEXT_PLAIN})
+    public Response download(@PathParam("id") String id) {
+        Job job = requireJob(id);
+        return switch (job.getStatus()) {
+            case DONE -> renderService.claim(job) ? pdf(job, renderService) : gone(job);
+            case FAILED -> throw new InternalServerErrorException("Failed to generate PDF: " + job.getError());
+            default -> Response.status(Response.Status.CONFLICT)
+                    .type(MediaType.TEXT_PLAIN)
+                    .entity("PDF job " + id + " is still " + job.getStatus().name().toLowerCase())
+                    .build();
+        };
+    }
+
+    /**
+     * Answers a PDF export request with its job.
+     * <p>
+     * Unless {@code async} is set, waits for the document without holding
+     * the request thread and streams it, deleting it afterwards. Otherwise,
+     * or if the wait elapses, answers {@code 202 Accepted} with the job
+     * status and its location.
+     *
+     * @param renderService the render service
+     * @param job the submitted job
+     * @param async whether to answer immediately
+     * @return the response, completed once the job finishes or the wait elapses
+     */
+    static CompletionStage<Response> respond(PdfRenderService renderService, Job job, boolean async) {
+        if (async) {
+            return CompletableFuture.completedFuture(accepted(job));
+        }
+        return renderService.whenFinished(job).thenApply(finished -> switch (finished.getStatus()) {
+            case DONE -> renderService.claim(finished) ? pdf(finished, renderService) : gone(finished);
+            case FAILED -> {
+                renderService.discard(finished);
+                yield Response.serverError()
+                        .type(MediaType.TEXT_PLAIN)
+                        .entity("Failed to generate PDF: " + finished.getError())
+                        .build();
+            }
+            // Still rendering: answer with the job to follow
+            default -> accepted(finished);
+        });
+    }
+
+    private static Response accepted(Job job) {
+        return Response.accepted(job)
+                .type(MediaType.APPLICATION_JSON)
+                .location(URI.create("/api/v1/pdf-jobs/" + job.getId()))
+                .build();
+    }
+
+    private static Response gone(Job job) {
+        return Response.status(Response.Status.GONE)
+                .type(MediaType.TEXT_PLAIN)
+                .entity("PDF job " + job.getId() + " has already been downloaded")
+                .build();
+    }
+
+    /**
+     * Streams a finished job's document, which the caller has claimed.
+     *
+     * @param job the job
+     * @param renderService the service to discard the job with once sent
+     */
+    private static Response pdf(Job job, PdfRenderService renderService) {
+        StreamingOutput body = output -> {
+            try (InputStream in = job.openStream()) {
+                in.transferTo(output);
+            } finally {
+                renderService.discard(job);
+            }
+        };
+        return Response.ok(body)
+                .type(PDF)
+                .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(job.getFilename()) + "\"")
+                .build();
+    }
+
+    private Job requireJob(String id) {
+        Job job = renderService.getJob(id);
+        if (job == null) {
+            throw new NotFoundException("PDF job not found or expired: " + id);
+        }
+        return job;
+    }
+
+    private static OutboundSseEvent statusEvent(Sse sse, Job job) {
+        return sse.newEventBuilder()
+                .name("status")
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(Job.class, job)
+                .build();
+    }
+}
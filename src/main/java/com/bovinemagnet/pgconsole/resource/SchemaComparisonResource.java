@@ -6,6 +6,7 @@ import com.bovinemagnet.pgconsole.service.*;
 import com.bovinemagnet.pgconsole.util.Filenames;
 import io.quarkus.qute.Template;
 import io.quarkus.qute.TemplateInstance;
+import io.smallrye.common.annotation.Blocking;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
@@ -15,6 +16,7 @@ import org.jboss.logging.Logger;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletionStage;
 
 /**
  * Resource for schema comparison and migration functionality.
@@ -64,6 +66,9 @@ public class SchemaComparisonResource {
     @Inject
     PdfExportService pdfExportService;
 
+    @Inject
+    PdfRenderService pdfRenderService;
+
     @Inject
     InstanceConfig config;
 
@@ -626,29 +631,30 @@ public class SchemaComparisonResource {
 
     /**
      * Export comparison result as PDF.
+     * <p>
+     * Rendered in the background; with {@code async=true} the response is a
+     * job to poll under {@code /api/v1/pdf-jobs} instead of the document.
      */
     @GET
     @Path("/export/pdf")
-    @Produces("application/pdf")
-    public Response exportPdf(
+    @Produces({"application/pdf", MediaType.APPLICATION_JSON})
+    @Blocking
+    public CompletionStage<Response> exportPdf(
             @QueryParam("sourceInstance") String sourceInstance,
             @QueryParam("destInstance") String destInstance,
             @QueryParam("sourceSchema") String sourceSchema,
-            @QueryParam("destSchema") String destSchema) {
+            @QueryParam("destSchema") String destSchema,
+            @QueryParam("async") boolean async) {
         featureToggleService.requirePageEnabled("schema-comparison");
 
         SchemaComparisonResult result = comparisonService.compare(
                 sourceInstance, destInstance, sourceSchema, destSchema, null);
 
-        byte[] pdfBytes = pdfExportService.generateSchemaComparisonPdf(result);
-
         String filename = String.format("comparison_%s_%s_vs_%s_%s.pdf",
                 sourceInstance, sourceSchema, destInstance, destSchema);
 
-        return Response.ok(pdfBytes)
-                .header("Content-Disposition", "attachment; filename=\"" + Filenames.sanitize(filename) + "\"")
-                .header("Content-Type", "application/pdf")
-                .build();
+        PdfRenderService.Job job = pdfRenderService.submit(filename, pdfExportService.generatePrintOptimisedHtml(result));
+        return PdfJobResource.respond(pdfRenderService, job, async);
     }
 
     /**
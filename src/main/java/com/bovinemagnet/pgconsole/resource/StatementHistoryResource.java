@@ -0,0 +1,96 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.StatementMetric;
+import com.bovinemagnet.pgconsole.service.StatementHeavyHitterService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * REST API resource for the heavy-hitter statements recorded between samples.
+ * <p>
+ * Each statement is returned with its guaranteed total over the window and
+ * an upper bound; see {@link StatementHeavyHitterService} for how the bounds
+ * arise. Requires the {@code pgconsole} schema.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see StatementHeavyHitterService
+ */
+@Path("/api/v1/history/top-statements")
+@Produces(MediaType.APPLICATION_JSON)
+public class StatementHistoryResource {
+
+    private static final int MAX_LIMIT = 500;
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    StatementHeavyHitterService statementHeavyHitterService;
+
+    /**
+     * Returns an instance's top statements over a window.
+     *
+     * @param instance the instance
+     * @param metric {@code time} (default), {@code calls} or {@code io}
+     * @param from ISO-8601 start of the window (defaults to {@code hours} before {@code to})
+     * @param to ISO-8601 end of the window (defaults to now)
+     * @param hours length of the window when {@code from} is omitted (default: 24)
+     * @param limit how many statements to return, at most 500
+     * @return the window's totals and top statements, or 400 for invalid parameters
+     */
+    @GET
+    public Response topStatements(
+            @QueryParam("instance") @DefaultValue("default") String instance,
+            @QueryParam("metric") @DefaultValue("time") String metric,
+            @QueryParam("from") String from,
+            @QueryParam("to") String to,
+            @QueryParam("hours") @DefaultValue("24") int hours,
+            @QueryParam("limit") @DefaultValue("20") int limit) {
+        if (!config.schema().enabled()) {
+            throw new NotFoundException("History is not stored when the pgconsole schema is disabled");
+        }
+
+        StatementMetric statementMetric;
+        try {
+            statementMetric = StatementMetric.fromName(metric);
+        } catch (IllegalArgumentException e) {
+            return badRequest(e.getMessage());
+        }
+
+        Instant end;
+        Instant start;
+        try {
+            end = to != null && !to.isBlank() ? Instant.parse(to) : Instant.now();
+            start = from != null && !from.isBlank() ? Instant.parse(from) : end.minus(hours, ChronoUnit.HOURS);
+        } catch (DateTimeParseException e) {
+            return badRequest("Invalid timestamp: " + e.getParsedString() + " (expected ISO-8601, e.g. 2026-01-01T00:00:00Z)");
+        }
+        if (!start.isBefore(end)) {
+            return badRequest("'from' must be before 'to'");
+        }
+
+        int boundedLimit = Math.max(1, Math.min(limit, MAX_LIMIT));
+        return Response.ok(statementHeavyHitterService.topStatements(instance, statementMetric, start, end,
+                boundedLimit)).build();
+    }
+
+    private static Response badRequest(String message) {
+        return Response.status(Response.Status.BAD_REQUEST)
+                .type(MediaType.TEXT_PLAIN)
+                .entity(message)
+                .build();
+    }
+}
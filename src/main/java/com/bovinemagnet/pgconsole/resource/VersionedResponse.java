@@ -0,0 +1,43 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Source;
+import jakarta.ws.rs.NameBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a GET resource method whose response is versioned by the data
+ * sources it is built from, so {@link ConditionalGetFilter} can answer
+ * revalidations with {@code 304 Not Modified} before the method runs.
+ * <p>
+ * The method must not depend on anything but its path, its query parameters
+ * and the listed sources.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see ConditionalGetFilter
+ */
+@NameBinding
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface VersionedResponse {
+
+    /**
+     * The data sources the response is built from.
+     *
+     * @return the sources
+     */
+    Source[] value() default Source.SAMPLES;
+
+    /**
+     * Whether only refreshable fragment requests are versioned. Full pages
+     * also render the layout, whose instance list and feature toggles are
+     * not versioned.
+     *
+     * @return {@code true} to version only {@code fragment=refreshable} requests
+     */
+    boolean fragmentsOnly() default false;
+}
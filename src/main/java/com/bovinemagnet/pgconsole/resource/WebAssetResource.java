@@ -0,0 +1,130 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.util.AcceptEncoding;
+import com.bovinemagnet.pgconsole.util.WebAssets;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.HeaderParam;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Serves the content-hashed stylesheets and scripts listed by {@link WebAssets}.
+ * <p>
+ * {@code GET /assets/{file}} returns the brotli or gzip variant built beside
+ * the asset when the client accepts it, and the asset itself otherwise. As an
+ * asset's name changes with its content, responses are cacheable for a year
+ * and marked {@code immutable}, so browsers do not revalidate them on reload.
+ * {@code GET /assets/manifest.json} lists the current asset URLs for the
+ * service worker to precache.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see WebAssets
+ */
+@Path("/assets")
+public class WebAssetResource {
+
+    private static final String IMMUTABLE = "public, max-age=31536000, immutable";
+
+    /** Encodings in order of preference, with the suffix of their variant. */
+    private static final List<String[]> ENCODINGS = List.of(
+        new String[] {"br", ".br"},
+        new String[] {"gzip", ".gz"});
+
+    /** Asset bytes by classpath file name; absent variants are cached as empty. */
+    private static final Map<String, Optional<byte[]>> CONTENT = new ConcurrentHashMap<>();
+
+    /**
+     * Lists the URLs of the current assets.
+     *
+     * @return a JSON object with an {@code assets} array of URLs
+     */
+    @GET
+    @Path("/manifest.json")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response manifest() {
+        List<String> urls = WebAssets.manifest().values().stream()
+            .map(file -> WebAssets.PATH + file)
+            .toList();
+        return Response.ok(Map.of("assets", urls))
+            .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+            .build();
+    }
+
+    /**
+     * Serves an asset, compressed if the client accepts it.
+     *
+     * @param file the content-hashed file name
+     * @param acceptEncoding the request's {@code Accept-Encoding} header
+     * @return the asset with long-lived cache headers
+     * @throws NotFoundException if the file is not a current asset
+     */
+    @GET
+    @Path("/{file}")
+    public Response asset(@PathParam("file") String file,
+                          @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding) {
+        if (!WebAssets.isPublished(file)) {
+            throw new NotFoundException("Unknown asset: " + file);
+        }
+
+        String encoding = null;
+        byte[] body = null;
+        for (String[] candidate : ENCODINGS) {
+            if (AcceptEncoding.accepts(acceptEncoding, candidate[0])) {
+                Optional<byte[]> variant = read(file + candidate[1]);
+                if (variant.isPresent()) {
+                    encoding = candidate[0];
+                    body = variant.get();
+                    break;
+                }
+            }
+        }
+        if (body == null) {
+            body = read(file).orElseThrow(() -> new NotFoundException("Unknown asset: " + file));
+        }
+
+        Response.ResponseBuilder response = Response.ok(body)
+            .type(mediaType(file))
+            .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+            .header(HttpHeaders.ETAG, "\"" + file + (encoding != null ? "-" + encoding : "") + "\"");
+        if (encoding != null) {
+            response.header(HttpHeaders.CONTENT_ENCODING, encoding);
+        }
+        return response.build();
+    }
+
+    static String mediaType(String file) {
+        if (file.endsWith(".css")) {
+            return "text/css; charset=UTF-8";
+        }
+        if (file.endsWith(".js")) {
+            return "text/javascript; charset=UTF-8";
+        }
+        return MediaType.APPLICATION_OCTET_STREAM;
+    }
+
+    private static Optional<byte[]> read(String file) {
+        return CONTENT.computeIfAbsent(file, name -> {
+            try (InputStream in = Thread.currentThread().getContextClassLoader()
+                    .getResourceAsStream(WebAssets.ROOT + name)) {
+                return in == null ? Optional.empty() : Optional.of(in.readAllBytes());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
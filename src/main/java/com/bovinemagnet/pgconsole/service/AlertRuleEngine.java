@@ -0,0 +1,516 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.OverviewStats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled threshold rules evaluated incrementally against metric samples.
+ * <p>
+ * Each {@link Rule} compares one {@link Metric} against a threshold. A rule
+ * must stay breached for its {@code forMillis} before it fires, and once
+ * firing it only clears when the value moves back past the threshold by its
+ * {@code hysteresis}. While a rule is firing, every sample reports it again so
+ * that the caller's cooldown decides how often a notification is repeated.
+ * <p>
+ * Rules are compiled into parallel primitive arrays, and the pending/firing
+ * state of each (instance, rule) pair is held in per-instance {@code long[]}
+ * and {@code boolean[]} arrays. Evaluating a sample is a single pass over
+ * those arrays with no allocation; messages are only formatted by the caller
+ * for rules that actually fire.
+ * <p>
+ * An engine is immutable once built. When the rule set changes a new engine
+ * is compiled, which starts every rule in the inactive state.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see AlertingService
+ */
+public final class AlertRuleEngine {
+
+	/**
+	 * Metrics that rules can be written against.
+	 * <p>
+	 * Each metric has a kebab-case name used in configuration.
+	 */
+	public enum Metric {
+		CONNECTIONS_USED("connections-used"),
+		MAX_CONNECTIONS("max-connections"),
+		CONNECTION_PERCENT("connection-percent"),
+		ACTIVE_QUERIES("active-queries"),
+		BLOCKED_QUERIES("blocked-queries"),
+		IDLE_IN_TRANSACTION("idle-in-transaction"),
+		LONGEST_QUERY_SECONDS("longest-query-seconds"),
+		LONGEST_TRANSACTION_SECONDS("longest-transaction-seconds"),
+		CACHE_HIT_RATIO("cache-hit-ratio"),
+		DEADLOCK_COUNT("deadlock-count"),
+		DEADLOCKS_PER_HOUR("deadlocks-per-hour"),
+		REPLICATION_LAG_SECONDS("replication-lag-seconds"),
+		TABLE_BLOAT_PERCENT("table-bloat-percent"),
+		XID_WRAPAROUND_PERCENT("xid-wraparound-percent"),
+		QUERY_MEAN_TIME_MS("query-mean-time-ms");
+
+		private static final Metric[] VALUES = values();
+
+		private final String configName;
+
+		Metric(String configName) {
+			this.configName = configName;
+		}
+
+		/**
+		 * Returns the name used for this metric in configuration.
+		 *
+		 * @return kebab-case metric name
+		 */
+		public String getConfigName() {
+			return configName;
+		}
+
+		/**
+		 * Looks up a metric by its configuration name or enum name.
+		 *
+		 * @param name the metric name, case-insensitive
+		 * @return the metric, or null if unknown
+		 */
+		public static Metric fromName(String name) {
+			if (name == null) {
+				return null;
+			}
+			String normalised = name.trim().toLowerCase(Locale.ROOT).replace('_', '-');
+			for (Metric metric : VALUES) {
+				if (metric.configName.equals(normalised)) {
+					return metric;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Comparison applied between a metric value and a rule's threshold.
+	 */
+	public enum Comparator {
+		GREATER_OR_EQUAL(">="),
+		GREATER(">"),
+		LESS_OR_EQUAL("<="),
+		LESS("<");
+
+		private final String symbol;
+
+		Comparator(String symbol) {
+			this.symbol = symbol;
+		}
+
+		/**
+		 * Returns the comparison symbol, e.g. {@code >=}.
+		 *
+		 * @return the symbol
+		 */
+		public String getSymbol() {
+			return symbol;
+		}
+
+		/**
+		 * Checks whether values below the threshold breach this comparison.
+		 *
+		 * @return true for {@code <} and {@code <=}
+		 */
+		public boolean isUpperBound() {
+			return this == LESS || this == LESS_OR_EQUAL;
+		}
+
+		/**
+		 * Looks up a comparator by symbol.
+		 *
+		 * @param symbol one of {@code >=}, {@code >}, {@code <=}, {@code <}
+		 * @return the comparator, or null if unknown
+		 */
+		public static Comparator fromSymbol(String symbol) {
+			if (symbol == null) {
+				return null;
+			}
+			String trimmed = symbol.trim();
+			for (Comparator comparator : values()) {
+				if (comparator.symbol.equals(trimmed)) {
+					return comparator;
+				}
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Builds the notification message for a firing rule.
+	 */
+	@FunctionalInterface
+	public interface MessageFormatter {
+
+		/**
+		 * Formats the message.
+		 *
+		 * @param sample the sample that fired the rule
+		 * @param value the rule's metric value in that sample
+		 * @return the message text
+		 */
+		String format(Sample sample, double value);
+	}
+
+	/**
+	 * One threshold rule.
+	 *
+	 * @param alertType alert type identifier, used for cooldown and routing
+	 * @param title short alert title
+	 * @param metric the metric compared
+	 * @param comparator how the value is compared with the threshold
+	 * @param threshold the threshold value
+	 * @param forMillis how long the threshold must stay breached before firing
+	 * @param hysteresis how far past the threshold the value must recover to clear
+	 * @param message formatter for the notification message
+	 */
+	public record Rule(String alertType, String title, Metric metric, Comparator comparator, double threshold, long forMillis, double hysteresis, MessageFormatter message) {
+
+		/**
+		 * Creates a rule that fires as soon as it is breached and clears as soon as it is not.
+		 *
+		 * @param alertType alert type identifier
+		 * @param title short alert title
+		 * @param metric the metric compared
+		 * @param comparator how the value is compared with the threshold
+		 * @param threshold the threshold value
+		 * @param message formatter for the notification message
+		 * @return the rule
+		 */
+		public static Rule immediate(String alertType, String title, Metric metric, Comparator comparator, double threshold, MessageFormatter message) {
+			return new Rule(alertType, title, metric, comparator, threshold, 0, 0, message);
+		}
+
+		/**
+		 * Formats this rule's message for a sample.
+		 *
+		 * @param sample the sample that fired the rule
+		 * @param value the rule's metric value in that sample
+		 * @return the message text
+		 */
+		public String formatMessage(Sample sample, double value) {
+			if (message != null) {
+				return message.format(sample, value);
+			}
+			return String.format("%s is %.2f. Threshold: %s %s", metric.getConfigName(), value, comparator.getSymbol(), formatThreshold(threshold));
+		}
+
+		private static String formatThreshold(double threshold) {
+			return threshold == Math.rint(threshold) ? Long.toString((long) threshold) : Double.toString(threshold);
+		}
+	}
+
+	/**
+	 * One sample of every {@link Metric} for an instance.
+	 * <p>
+	 * Metrics that were not sampled, or are not applicable (for example
+	 * replication lag on a server with no replicas), are {@code NaN} and never
+	 * breach a rule.
+	 */
+	public static final class Sample {
+
+		private final double[] values = new double[Metric.VALUES.length];
+		private String maxBloatTableName;
+		private String xidWraparoundDatabase;
+
+		/**
+		 * Creates a sample with every metric unavailable.
+		 */
+		public Sample() {
+			Arrays.fill(values, Double.NaN);
+		}
+
+		/**
+		 * Builds a sample from an overview snapshot.
+		 * <p>
+		 * Sentinel values used by {@link OverviewStats} for unavailable
+		 * metrics ({@code -1} rates and lags, a zero cache hit ratio) become
+		 * {@code NaN}.
+		 *
+		 * @param stats the overview statistics
+		 * @return the sample
+		 */
+		public static Sample from(OverviewStats stats) {
+			Sample sample = new Sample();
+			sample.set(Metric.CONNECTIONS_USED, stats.getConnectionsUsed());
+			sample.set(Metric.MAX_CONNECTIONS, stats.getConnectionsMax());
+			sample.set(Metric.CONNECTION_PERCENT, stats.getConnectionPercentage());
+			sample.set(Metric.ACTIVE_QUERIES, stats.getActiveQueries());
+			sample.set(Metric.BLOCKED_QUERIES, stats.getBlockedQueries());
+			sample.set(Metric.CACHE_HIT_RATIO, stats.getCacheHitRatio() > 0 ? stats.getCacheHitRatio() : Double.NaN);
+			sample.set(Metric.DEADLOCK_COUNT, stats.getDeadlockCount());
+			sample.set(Metric.DEADLOCKS_PER_HOUR, stats.getDeadlocksPerHour() >= 0 ? stats.getDeadlocksPerHour() : Double.NaN);
+			sample.set(Metric.REPLICATION_LAG_SECONDS, stats.getReplicationLagSeconds() >= 0 ? stats.getReplicationLagSeconds() : Double.NaN);
+			sample.set(Metric.TABLE_BLOAT_PERCENT, stats.getMaxTableBloatPercent());
+			sample.set(Metric.XID_WRAPAROUND_PERCENT, stats.getXidWraparoundPercent());
+			sample.set(Metric.QUERY_MEAN_TIME_MS, stats.getMaxQueryMeanTimeMs());
+			sample.maxBloatTableName = stats.getMaxBloatTableName();
+			sample.xidWraparoundDatabase = stats.getXidWraparoundDatabase();
+			return sample;
+		}
+
+		/**
+		 * Sets a metric value.
+		 *
+		 * @param metric the metric
+		 * @param value the value, or {@code NaN} if unavailable
+		 * @return this sample
+		 */
+		public Sample set(Metric metric, double value) {
+			values[metric.ordinal()] = value;
+			return this;
+		}
+
+		/**
+		 * Returns a metric value.
+		 *
+		 * @param metric the metric
+		 * @return the value, or {@code NaN} if unavailable
+		 */
+		public double get(Metric metric) {
+			return values[metric.ordinal()];
+		}
+
+		/**
+		 * Returns the table with the highest estimated bloat, for messages.
+		 *
+		 * @return qualified table name, or null if unknown
+		 */
+		public String getMaxBloatTableName() {
+			return maxBloatTableName;
+		}
+
+		/**
+		 * Sets the table with the highest estimated bloat.
+		 *
+		 * @param maxBloatTableName qualified table name
+		 */
+		public void setMaxBloatTableName(String maxBloatTableName) {
+			this.maxBloatTableName = maxBloatTableName;
+		}
+
+		/**
+		 * Returns the database closest to XID wraparound, for messages.
+		 *
+		 * @return database name, or null if unknown
+		 */
+		public String getXidWraparoundDatabase() {
+			return xidWraparoundDatabase;
+		}
+
+		/**
+		 * Sets the database closest to XID wraparound.
+		 *
+		 * @param xidWraparoundDatabase database name
+		 */
+		public void setXidWraparoundDatabase(String xidWraparoundDatabase) {
+			this.xidWraparoundDatabase = xidWraparoundDatabase;
+		}
+	}
+
+	/**
+	 * Receives the rules that are firing after a sample is evaluated.
+	 */
+	@FunctionalInterface
+	public interface FiringListener {
+
+		/**
+		 * Called for each firing rule, in rule order.
+		 *
+		 * @param rule the firing rule
+		 * @param value the rule's metric value in the sample
+		 * @param newlyFiring true if the rule started firing with this sample
+		 */
+		void firing(Rule rule, double value, boolean newlyFiring);
+	}
+
+	private static final byte GE = 0;
+	private static final byte GT = 1;
+	private static final byte LE = 2;
+	private static final byte LT = 3;
+
+	/** Marks a rule that is not pending. */
+	private static final long NOT_PENDING = Long.MIN_VALUE;
+
+	private final Rule[] rules;
+	private final int[] metricIndex;
+	private final byte[] comparator;
+	private final double[] threshold;
+	private final double[] clearThreshold;
+	private final long[] forMillis;
+
+	private final Map<String, InstanceState> states = new ConcurrentHashMap<>();
+
+	/**
+	 * Pending and firing state of every rule for one instance.
+	 */
+	private static final class InstanceState {
+
+		final long[] pendingSince;
+		final boolean[] firing;
+
+		InstanceState(int ruleCount) {
+			pendingSince = new long[ruleCount];
+			Arrays.fill(pendingSince, NOT_PENDING);
+			firing = new boolean[ruleCount];
+		}
+	}
+
+	/**
+	 * Compiles a rule set.
+	 *
+	 * @param rules the rules, evaluated in this order
+	 */
+	public AlertRuleEngine(List<Rule> rules) {
+		int count = rules.size();
+		this.rules = rules.toArray(new Rule[0]);
+		this.metricIndex = new int[count];
+		this.comparator = new byte[count];
+		this.threshold = new double[count];
+		this.clearThreshold = new double[count];
+		this.forMillis = new long[count];
+
+		for (int i = 0; i < count; i++) {
+			Rule rule = this.rules[i];
+			metricIndex[i] = rule.metric().ordinal();
+			comparator[i] = switch (rule.comparator()) {
+				case GREATER_OR_EQUAL -> GE;
+				case GREATER -> GT;
+				case LESS_OR_EQUAL -> LE;
+				case LESS -> LT;
+			};
+			threshold[i] = rule.threshold();
+			double hysteresis = Math.max(rule.hysteresis(), 0);
+			clearThreshold[i] = rule.comparator().isUpperBound() ? rule.threshold() + hysteresis : rule.threshold() - hysteresis;
+			forMillis[i] = Math.max(rule.forMillis(), 0);
+		}
+	}
+
+	/**
+	 * Returns the compiled rules.
+	 *
+	 * @return the rules in evaluation order
+	 */
+	public List<Rule> getRules() {
+		return List.of(rules);
+	}
+
+	/**
+	 * Evaluates a sample for an instance, advancing each rule's state.
+	 *
+	 * @param instanceName the instance the sample was taken from
+	 * @param sample the sample
+	 * @param nowMillis the sample time in epoch milliseconds
+	 * @param listener receives each rule that is firing after this sample
+	 * @return the number of firing rules
+	 */
+	public int evaluate(String instanceName, Sample sample, long nowMillis, FiringListener listener) {
+		InstanceState state = states.computeIfAbsent(instanceName, name -> new InstanceState(rules.length));
+		double[] values = sample.values;
+		int firingCount = 0;
+
+		synchronized (state) {
+			long[] pendingSince = state.pendingSince;
+			boolean[] firing = state.firing;
+
+			for (int i = 0; i < rules.length; i++) {
+				double value = values[metricIndex[i]];
+				// NaN compares false, so an unavailable metric neither breaches nor holds a rule
+				if (firing[i]) {
+					if (breaches(comparator[i], value, clearThreshold[i])) {
+						firingCount++;
+						listener.firing(rules[i], value, false);
+						continue;
+					}
+					firing[i] = false;
+					pendingSince[i] = NOT_PENDING;
+				}
+				if (!breaches(comparator[i], value, threshold[i])) {
+					pendingSince[i] = NOT_PENDING;
+					continue;
+				}
+				if (pendingSince[i] == NOT_PENDING) {
+					pendingSince[i] = nowMillis;
+				}
+				if (nowMillis - pendingSince[i] >= forMillis[i]) {
+					firing[i] = true;
+					firingCount++;
+					listener.firing(rules[i], value, true);
+				}
+			}
+		}
+		return firingCount;
+	}
+
+	/**
+	 * Returns the alert types currently firing for an instance.
+	 *
+	 * @param instanceName the instance name
+	 * @return firing alert types in rule order
+	 */
+	public List<String> getFiring(String instanceName) {
+		InstanceState state = states.get(instanceName);
+		List<String> firing = new ArrayList<>();
+		if (state == null) {
+			return firing;
+		}
+		synchronized (state) {
+			for (int i = 0; i < rules.length; i++) {
+				if (state.firing[i]) {
+					firing.add(rules[i].alertType());
+				}
+			}
+		}
+		return firing;
+	}
+
+	/**
+	 * Returns the alert types whose threshold is breached but whose
+	 * for-duration has not yet elapsed.
+	 *
+	 * @param instanceName the instance name
+	 * @return pending alert types in rule order
+	 */
+	public List<String> getPending(String instanceName) {
+		InstanceState state = states.get(instanceName);
+		List<String> pending = new ArrayList<>();
+		if (state == null) {
+			return pending;
+		}
+		synchronized (state) {
+			for (int i = 0; i < rules.length; i++) {
+				if (!state.firing[i] && state.pendingSince[i] != NOT_PENDING) {
+					pending.add(rules[i].alertType());
+				}
+			}
+		}
+		return pending;
+	}
+
+	/**
+	 * Discards the state held for an instance.
+	 *
+	 * @param instanceName the instance name
+	 */
+	public void forget(String instanceName) {
+		states.remove(instanceName);
+	}
+
+	private static boolean breaches(byte comparator, double value, double threshold) {
+		return switch (comparator) {
+			case GE -> value >= threshold;
+			case GT -> value > threshold;
+			case LE -> value <= threshold;
+			default -> value < threshold;
+		};
+	}
+}
@@ -2,6 +2,8 @@ package com.bovinemagnet.pgconsole.service;
 
 import com.bovinemagnet.pgconsole.config.InstanceConfig;
 import com.bovinemagnet.pgconsole.model.OverviewStats;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Comparator;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Metric;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -13,12 +15,21 @@ import java.net.http.HttpResponse;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Service for sending alerts when thresholds are exceeded.
  * Supports webhook and email notifications.
+ * <p>
+ * Thresholds are evaluated by an {@link AlertRuleEngine} against the samples
+ * the metrics samplers already collect.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -36,6 +47,14 @@ public class AlertingService {
     // Track when last alert was sent for each alert type to implement cooldown
     private final Map<String, LocalDateTime> lastAlertTime = new ConcurrentHashMap<>();
 
+    // Rules compiled from the configuration they were built from
+    private volatile CompiledRules compiled;
+
+    private record CompiledRules(InstanceConfig.ThresholdsConfig thresholds,
+                                 Map<String, InstanceConfig.RuleConfig> rules,
+                                 AlertRuleEngine engine) {
+    }
+
     private final HttpClient httpClient = HttpClient.newBuilder()
         .connectTimeout(Duration.ofSeconds(10))
         .build();
@@ -59,91 +78,157 @@ public class AlertingService {
      *
      * @param instanceName the database instance name being monitored
      * @param stats the current overview statistics containing metrics to evaluate
-     * @see #sendAlert(String, String, String, String)
+     * @see #evaluate(String, AlertRuleEngine.Sample)
      */
     public void checkAndAlert(String instanceName, OverviewStats stats) {
+        evaluate(instanceName, AlertRuleEngine.Sample.from(stats));
+    }
+
+    /**
+     * Evaluates a metrics sample against the threshold rules and sends alerts
+     * for rules that are firing.
+     * <p>
+     * The samplers call this with the sample they have just collected, so
+     * alerting needs no queries of its own. The built-in threshold rules and
+     * any {@code pg-console.alerting.rules.*} rules are compiled once into an
+     * {@link AlertRuleEngine}, which tracks for-durations and hysteresis per
+     * instance. Messages are only formatted for alerts that are actually sent.
+     * This method returns silently if alerting is disabled in configuration.
+     *
+     * @param instanceName the database instance name being monitored
+     * @param sample the metrics sample to evaluate
+     */
+    public void evaluate(String instanceName, AlertRuleEngine.Sample sample) {
         if (!config.alerting().enabled()) {
             return;
         }
 
-        var thresholds = config.alerting().thresholds();
-
-        // Check connection percentage
-        int connPercent = stats.getConnectionPercentage();
-        if (connPercent >= thresholds.connectionPercent()) {
-            sendAlert(instanceName, "HIGH_CONNECTIONS",
-                "Connection usage critical",
-                String.format("Connection usage is at %d%% (%d/%d). Threshold: %d%%",
-                    connPercent, stats.getConnectionsUsed(), stats.getConnectionsMax(),
-                    thresholds.connectionPercent()));
-        }
-
-        // Check blocked queries
-        int blockedQueries = stats.getBlockedQueries();
-        if (blockedQueries >= thresholds.blockedQueries()) {
-            sendAlert(instanceName, "BLOCKED_QUERIES",
-                "Multiple blocked queries detected",
-                String.format("%d queries are currently blocked. Threshold: %d",
-                    blockedQueries, thresholds.blockedQueries()));
-        }
-
-        // Check cache hit ratio
-        double cacheHitRatio = stats.getCacheHitRatio();
-        if (cacheHitRatio < thresholds.cacheHitRatio() && cacheHitRatio > 0) {
-            sendAlert(instanceName, "LOW_CACHE_HIT",
-                "Cache hit ratio is low",
-                String.format("Cache hit ratio is %.2f%%. Threshold: %d%%",
-                    cacheHitRatio, thresholds.cacheHitRatio()));
-        }
+        AlertRuleEngine engine = engine();
+        engine.evaluate(instanceName, sample, System.currentTimeMillis(),
+            (rule, value, newlyFiring) -> fire(instanceName, rule, sample, value));
+    }
 
-        // Check deadlock rate (deadlocks per hour)
-        double deadlocksPerHour = stats.getDeadlocksPerHour();
-        if (deadlocksPerHour >= 0 && deadlocksPerHour >= thresholds.deadlockRate()) {
-            sendAlert(instanceName, "HIGH_DEADLOCK_RATE",
-                "High deadlock rate detected",
-                String.format("Deadlock rate is %.2f/hour (total: %d). Threshold: %d/hour",
-                    deadlocksPerHour, stats.getDeadlockCount(), thresholds.deadlockRate()));
-        }
+    /**
+     * Returns the alert types currently firing for an instance.
+     *
+     * @param instanceName the instance name
+     * @return firing alert types, empty if none or if nothing has been evaluated yet
+     */
+    public List<String> getFiringAlerts(String instanceName) {
+        CompiledRules current = compiled;
+        return current != null ? current.engine().getFiring(instanceName) : List.of();
+    }
 
-        // Check replication lag (only if replicas exist, indicated by >= 0)
-        double replicationLag = stats.getReplicationLagSeconds();
-        if (replicationLag >= 0 && replicationLag >= thresholds.replicationLagSeconds()) {
-            sendAlert(instanceName, "HIGH_REPLICATION_LAG",
-                "Replication lag is high",
-                String.format("Replication lag is %.1f seconds. Threshold: %d seconds",
-                    replicationLag, thresholds.replicationLagSeconds()));
+    private void fire(String instanceName, AlertRuleEngine.Rule rule, AlertRuleEngine.Sample sample, double value) {
+        String alertKey = instanceName + ":" + rule.alertType();
+        if (!startCooldown(alertKey)) {
+            return;
         }
+        deliver(instanceName, rule.alertType(), rule.title(), rule.formatMessage(sample, value));
+    }
 
-        // Check table bloat percentage
-        double tableBloat = stats.getMaxTableBloatPercent();
-        if (tableBloat >= thresholds.tableBloatPercent()) {
-            String tableName = stats.getMaxBloatTableName();
-            sendAlert(instanceName, "HIGH_TABLE_BLOAT",
-                "Table bloat is high",
-                String.format("Table %s has %.1f%% bloat. Threshold: %d%%",
-                    tableName != null ? tableName : "unknown",
-                    tableBloat, thresholds.tableBloatPercent()));
+    /**
+     * Returns the compiled engine, recompiling it when the threshold or rule
+     * configuration has changed.
+     */
+    private AlertRuleEngine engine() {
+        var alerting = config.alerting();
+        var thresholds = alerting.thresholds();
+        Map<String, InstanceConfig.RuleConfig> rules = alerting.rules();
+
+        CompiledRules current = compiled;
+        if (current != null && current.thresholds() == thresholds && Objects.equals(current.rules(), rules)) {
+            return current.engine();
         }
-
-        // Check XID wraparound percentage
-        double xidPercent = stats.getXidWraparoundPercent();
-        if (xidPercent >= thresholds.xidWraparoundPercent()) {
-            String dbName = stats.getXidWraparoundDatabase();
-            sendAlert(instanceName, "XID_WRAPAROUND_WARNING",
-                "XID wraparound approaching",
-                String.format("Database %s is at %.2f%% XID usage. Threshold: %d%%. Run VACUUM FREEZE urgently.",
-                    dbName != null ? dbName : "unknown",
-                    xidPercent, thresholds.xidWraparoundPercent()));
+        synchronized (this) {
+            current = compiled;
+            if (current == null || current.thresholds() != thresholds || !Objects.equals(current.rules(), rules)) {
+                current = new CompiledRules(thresholds, rules, new AlertRuleEngine(buildRules(thresholds, rules)));
+                compiled = current;
+            }
+            return current.engine();
         }
+    }
 
-        // Check maximum query mean execution time
-        double queryMeanTime = stats.getMaxQueryMeanTimeMs();
-        if (queryMeanTime >= thresholds.queryMeanTimeMs()) {
-            sendAlert(instanceName, "SLOW_QUERY_MEAN_TIME",
-                "Slow query detected",
-                String.format("Maximum mean query time is %.2f ms. Threshold: %d ms",
-                    queryMeanTime, thresholds.queryMeanTimeMs()));
+    /**
+     * Builds the built-in threshold rules followed by any configured rules.
+     */
+    static List<AlertRuleEngine.Rule> buildRules(InstanceConfig.ThresholdsConfig thresholds,
+                                                 Map<String, InstanceConfig.RuleConfig> rules) {
+        List<AlertRuleEngine.Rule> compiled = new ArrayList<>();
+
+        int connectionPercent = thresholds.connectionPercent();
+        compiled.add(AlertRuleEngine.Rule.immediate("HIGH_CONNECTIONS", "Connection usage critical",
+            Metric.CONNECTION_PERCENT, Comparator.GREATER_OR_EQUAL, connectionPercent,
+            (sample, value) -> String.format("Connection usage is at %d%% (%d/%d). Threshold: %d%%",
+                (int) value, (int) sample.get(Metric.CONNECTIONS_USED), (int) sample.get(Metric.MAX_CONNECTIONS),
+                connectionPercent)));
+
+        int blockedQueries = thresholds.blockedQueries();
+        compiled.add(AlertRuleEngine.Rule.immediate("BLOCKED_QUERIES", "Multiple blocked queries detected",
+            Metric.BLOCKED_QUERIES, Comparator.GREATER_OR_EQUAL, blockedQueries,
+            (sample, value) -> String.format("%d queries are currently blocked. Threshold: %d",
+                (int) value, blockedQueries)));
+
+        int cacheHitRatio = thresholds.cacheHitRatio();
+        compiled.add(AlertRuleEngine.Rule.immediate("LOW_CACHE_HIT", "Cache hit ratio is low",
+            Metric.CACHE_HIT_RATIO, Comparator.LESS, cacheHitRatio,
+            (sample, value) -> String.format("Cache hit ratio is %.2f%%. Threshold: %d%%",
+                value, cacheHitRatio)));
+
+        int deadlockRate = thresholds.deadlockRate();
+        compiled.add(AlertRuleEngine.Rule.immediate("HIGH_DEADLOCK_RATE", "High deadlock rate detected",
+            Metric.DEADLOCKS_PER_HOUR, Comparator.GREATER_OR_EQUAL, deadlockRate,
+            (sample, value) -> String.format("Deadlock rate is %.2f/hour (total: %d). Threshold: %d/hour",
+                value, (long) sample.get(Metric.DEADLOCK_COUNT), deadlockRate)));
+
+        int replicationLagSeconds = thresholds.replicationLagSeconds();
+        compiled.add(AlertRuleEngine.Rule.immediate("HIGH_REPLICATION_LAG", "Replication lag is high",
+            Metric.REPLICATION_LAG_SECONDS, Comparator.GREATER_OR_EQUAL, replicationLagSeconds,
+            (sample, value) -> String.format("Replication lag is %.1f seconds. Threshold: %d seconds",
+                value, replicationLagSeconds)));
+
+        int tableBloatPercent = thresholds.tableBloatPercent();
+        compiled.add(AlertRuleEngine.Rule.immediate("HIGH_TABLE_BLOAT", "Table bloat is high",
+            Metric.TABLE_BLOAT_PERCENT, Comparator.GREATER_OR_EQUAL, tableBloatPercent,
+            (sample, value) -> String.format("Table %s has %.1f%% bloat. Threshold: %d%%",
+                sample.getMaxBloatTableName() != null ? sample.getMaxBloatTableName() : "unknown",
+                value, tableBloatPercent)));
+
+        int xidWraparoundPercent = thresholds.xidWraparoundPercent();
+        compiled.add(AlertRuleEngine.Rule.immediate("XID_WRAPAROUND_WARNING", "XID wraparound approaching",
+            Metric.XID_WRAPAROUND_PERCENT, Comparator.GREATER_OR_EQUAL, xidWraparoundPercent,
+            (sample, value) -> String.format("Database %s is at %.2f%% XID usage. Threshold: %d%%. Run VACUUM FREEZE urgently.",
+                sample.getXidWraparoundDatabase() != null ? sample.getXidWraparoundDatabase() : "unknown",
+                value, xidWraparoundPercent)));
+
+        int queryMeanTimeMs = thresholds.queryMeanTimeMs();
+        compiled.add(AlertRuleEngine.Rule.immediate("SLOW_QUERY_MEAN_TIME", "Slow query detected",
+            Metric.QUERY_MEAN_TIME_MS, Comparator.GREATER_OR_EQUAL, queryMeanTimeMs,
+            (sample, value) -> String.format("Maximum mean query time is %.2f ms. Threshold: %d ms",
+                value, queryMeanTimeMs)));
+
+        if (rules != null) {
+            for (Map.Entry<String, InstanceConfig.RuleConfig> entry : new TreeMap<>(rules).entrySet()) {
+                String name = entry.getKey();
+                InstanceConfig.RuleConfig rule = entry.getValue();
+                Metric metric = Metric.fromName(rule.metric());
+                Comparator comparator = Comparator.fromSymbol(rule.comparator());
+                if (metric == null || comparator == null) {
+                    LOG.warnf("Ignoring alert rule %s: unknown metric '%s' or comparator '%s'",
+                        name, rule.metric(), rule.comparator());
+                    continue;
+                }
+                compiled.add(new AlertRuleEngine.Rule(
+                    name.toUpperCase(Locale.ROOT).replace('-', '_'),
+                    rule.title().orElse(name),
+                    metric, comparator, rule.threshold(),
+                    TimeUnit.SECONDS.toMillis(Math.max(rule.forSeconds(), 0)),
+                    rule.hysteresis(),
+                    null));
+            }
         }
+        return compiled;
     }
 
     /**
@@ -161,8 +246,18 @@ public class AlertingService {
      * @see #logEmailAlert(String, String, String, String, String)
      */
     public void sendAlert(String instanceName, String alertType, String title, String message) {
-        String alertKey = instanceName + ":" + alertType;
+        if (!startCooldown(instanceName + ":" + alertType)) {
+            return;
+        }
+        deliver(instanceName, alertType, title, message);
+    }
 
+    /**
+     * Starts the cooldown for an alert key unless it is already cooling down.
+     *
+     * @return true if the alert may be sent now
+     */
+    private boolean startCooldown(String alertKey) {
         // Check cooldown
         LocalDateTime lastAlert = lastAlertTime.get(alertKey);
         LocalDateTime now = LocalDateTime.now();
@@ -172,13 +267,16 @@ public class AlertingService {
             if (secondsSinceLastAlert < config.alerting().cooldownSeconds()) {
                 LOG.debugf("Alert %s is in cooldown (%d seconds remaining)",
                     alertKey, config.alerting().cooldownSeconds() - secondsSinceLastAlert);
-                return;
+                return false;
             }
         }
 
         // Update cooldown tracker
         lastAlertTime.put(alertKey, now);
+        return true;
+    }
 
+    private void deliver(String instanceName, String alertType, String title, String message) {
         // Send via configured channels
         config.alerting().webhookUrl().ifPresent(url -> sendWebhook(url, instanceName, alertType, title, message));
         config.alerting().emailTo().ifPresent(email -> logEmailAlert(email, instanceName, alertType, title, message));
@@ -2,6 +2,9 @@ package com.bovinemagnet.pgconsole.service;
 
 import com.bovinemagnet.pgconsole.config.MetadataDataSource;
 import com.bovinemagnet.pgconsole.model.QueryBookmark;
+import com.bovinemagnet.pgconsole.repository.MetadataCache;
+import com.bovinemagnet.pgconsole.repository.MetadataChangeBus;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
@@ -17,9 +20,15 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Service for managing query bookmarks.
+ * <p>
+ * The bookmarks page reads the table three times per request, so it is held
+ * in a {@link MetadataCache} and each read returns copies.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -33,6 +42,19 @@ public class BookmarkService {
     @MetadataDataSource
     DataSource dataSource;
 
+    @Inject
+    MetadataChangeBus changeBus;
+
+    /** Change topic, named after the table. */
+    static final String TOPIC = "query_bookmark";
+
+    private MetadataCache<List<QueryBookmark>> cache;
+
+    @PostConstruct
+    void init() {
+        cache = changeBus.cache(TOPIC, this::loadAll);
+    }
+
     /**
      * Creates a new query bookmark in the database.
      * <p>
@@ -87,6 +109,7 @@ public class BookmarkService {
         } catch (SQLException e) {
             LOG.errorf("Failed to create bookmark: %s", e.getMessage());
         }
+        changeBus.publish(TOPIC);
 
         return bookmark;
     }
@@ -135,6 +158,7 @@ public class BookmarkService {
         } catch (SQLException e) {
             LOG.errorf("Failed to update bookmark: %s", e.getMessage());
         }
+        changeBus.publish(TOPIC);
 
         return bookmark;
     }
@@ -156,6 +180,7 @@ public class BookmarkService {
 
             if (rows > 0) {
                 LOG.infof("Deleted bookmark %d", id);
+                changeBus.publish(TOPIC);
                 return true;
             }
 
@@ -173,28 +198,11 @@ public class BookmarkService {
      * @return the bookmark, or null if not found
      */
     public QueryBookmark getById(long id) {
-        String sql = """
-            SELECT id, created_at, updated_at, instance_id, query_id, query_text,
-                   title, notes, tags, created_by, priority, status
-            FROM pgconsole.query_bookmark
-            WHERE id = ?
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setLong(1, id);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapBookmark(rs);
-                }
-            }
-        } catch (SQLException e) {
-            LOG.warnf("Failed to get bookmark %d: %s", id, e.getMessage());
-        }
-
-        return null;
+        return bookmarks()
+            .filter(bookmark -> bookmark.getId() == id)
+            .findFirst()
+            .map(BookmarkService::copyOf)
+            .orElse(null);
     }
 
     /**
@@ -208,29 +216,12 @@ public class BookmarkService {
      * @return the bookmark, or null if not found
      */
     public QueryBookmark getByQueryId(String instanceId, String queryId) {
-        String sql = """
-            SELECT id, created_at, updated_at, instance_id, query_id, query_text,
-                   title, notes, tags, created_by, priority, status
-            FROM pgconsole.query_bookmark
-            WHERE instance_id = ? AND query_id = ?
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, instanceId);
-            stmt.setString(2, queryId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    return mapBookmark(rs);
-                }
-            }
-        } catch (SQLException e) {
-            LOG.warnf("Failed to get bookmark for query %s: %s", queryId, e.getMessage());
-        }
-
-        return null;
+        return bookmarks()
+            .filter(bookmark -> Objects.equals(bookmark.getInstanceId(), instanceId)
+                && Objects.equals(bookmark.getQueryId(), queryId))
+            .findFirst()
+            .map(BookmarkService::copyOf)
+            .orElse(null);
     }
 
     /**
@@ -267,49 +258,19 @@ public class BookmarkService {
      * @return list of filtered bookmarks, ordered by updated_at descending
      */
     public List<QueryBookmark> getBookmarks(String instanceId, String status, String tag) {
-        List<QueryBookmark> bookmarks = new ArrayList<>();
-
-        StringBuilder sql = new StringBuilder("""
-            SELECT id, created_at, updated_at, instance_id, query_id, query_text,
-                   title, notes, tags, created_by, priority, status
-            FROM pgconsole.query_bookmark
-            WHERE 1=1
-            """);
-
-        List<Object> params = new ArrayList<>();
-
+        Stream<QueryBookmark> bookmarks = bookmarks();
         if (instanceId != null && !instanceId.isEmpty()) {
-            sql.append(" AND instance_id = ?");
-            params.add(instanceId);
+            bookmarks = bookmarks.filter(bookmark -> instanceId.equals(bookmark.getInstanceId()));
         }
         if (status != null && !status.isEmpty()) {
-            sql.append(" AND status = ?");
-            params.add(status.toLowerCase());
+            bookmarks = bookmarks.filter(bookmark -> bookmark.getStatus().name().equalsIgnoreCase(status));
         }
         if (tag != null && !tag.isEmpty()) {
-            sql.append(" AND ? = ANY(tags)");
-            params.add(tag);
-        }
-
-        sql.append(" ORDER BY updated_at DESC");
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql.toString())) {
-
-            for (int i = 0; i < params.size(); i++) {
-                stmt.setObject(i + 1, params.get(i));
-            }
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    bookmarks.add(mapBookmark(rs));
-                }
-            }
-        } catch (SQLException e) {
-            LOG.warnf("Failed to get bookmarks: %s", e.getMessage());
+            bookmarks = bookmarks.filter(bookmark -> bookmark.getTags() != null && bookmark.getTags().contains(tag));
         }
-
-        return bookmarks;
+        return bookmarks
+            .map(BookmarkService::copyOf)
+            .collect(Collectors.toCollection(ArrayList::new));
     }
 
     /**
@@ -322,30 +283,13 @@ public class BookmarkService {
      * @return list of unique tags in alphabetical order
      */
     public List<String> getAllTags(String instanceId) {
-        List<String> tags = new ArrayList<>();
-
-        String sql = """
-            SELECT DISTINCT UNNEST(tags) as tag
-            FROM pgconsole.query_bookmark
-            WHERE instance_id = ?
-            ORDER BY tag
-            """;
-
-        try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, instanceId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                while (rs.next()) {
-                    tags.add(rs.getString("tag"));
-                }
-            }
-        } catch (SQLException e) {
-            LOG.warnf("Failed to get tags: %s", e.getMessage());
-        }
-
-        return tags;
+        return bookmarks()
+            .filter(bookmark -> Objects.equals(bookmark.getInstanceId(), instanceId) && bookmark.getTags() != null)
+            .flatMap(bookmark -> bookmark.getTags().stream())
+            .filter(Objects::nonNull)
+            .distinct()
+            .sorted()
+            .collect(Collectors.toCollection(ArrayList::new));
     }
 
     /**
@@ -359,39 +303,85 @@ public class BookmarkService {
      */
     public BookmarkSummary getSummary(String instanceId) {
         BookmarkSummary summary = new BookmarkSummary();
+        bookmarks()
+            .filter(bookmark -> Objects.equals(bookmark.getInstanceId(), instanceId))
+            .forEach(bookmark -> {
+                summary.setTotalBookmarks(summary.getTotalBookmarks() + 1);
+                switch (bookmark.getStatus()) {
+                    case ACTIVE -> summary.setActiveBookmarks(summary.getActiveBookmarks() + 1);
+                    case INVESTIGATING -> summary.setInvestigatingBookmarks(summary.getInvestigatingBookmarks() + 1);
+                    case RESOLVED -> summary.setResolvedBookmarks(summary.getResolvedBookmarks() + 1);
+                }
+                if (bookmark.getPriority() == QueryBookmark.Priority.CRITICAL) {
+                    summary.setCriticalBookmarks(summary.getCriticalBookmarks() + 1);
+                } else if (bookmark.getPriority() == QueryBookmark.Priority.HIGH) {
+                    summary.setHighPriorityBookmarks(summary.getHighPriorityBookmarks() + 1);
+                }
+            });
+        return summary;
+    }
 
+    /**
+     * Streams the cached bookmarks, most recently updated first. If the table
+     * cannot be read the failure is logged and no bookmarks are returned, as
+     * the bookmark pages show an empty list rather than an error.
+     *
+     * @return the cached bookmarks; callers must copy any they hand out
+     */
+    private Stream<QueryBookmark> bookmarks() {
+        try {
+            return cache.get().stream();
+        } catch (RuntimeException e) {
+            LOG.warnf("Failed to get bookmarks: %s", e.getMessage());
+            return Stream.empty();
+        }
+    }
+
+    /**
+     * Reads every bookmark for the cache.
+     */
+    private List<QueryBookmark> loadAll() {
         String sql = """
-            SELECT
-                COUNT(*) as total,
-                COUNT(*) FILTER (WHERE status = 'active') as active,
-                COUNT(*) FILTER (WHERE status = 'investigating') as investigating,
-                COUNT(*) FILTER (WHERE status = 'resolved') as resolved,
-                COUNT(*) FILTER (WHERE priority = 'critical') as critical,
-                COUNT(*) FILTER (WHERE priority = 'high') as high
+            SELECT id, created_at, updated_at, instance_id, query_id, query_text,
+                   title, notes, tags, created_by, priority, status
             FROM pgconsole.query_bookmark
-            WHERE instance_id = ?
+            ORDER BY updated_at DESC
             """;
 
+        List<QueryBookmark> bookmarks = new ArrayList<>();
         try (Connection conn = dataSource.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            stmt.setString(1, instanceId);
-
-            try (ResultSet rs = stmt.executeQuery()) {
-                if (rs.next()) {
-                    summary.setTotalBookmarks(rs.getInt("total"));
-                    summary.setActiveBookmarks(rs.getInt("active"));
-                    summary.setInvestigatingBookmarks(rs.getInt("investigating"));
-                    summary.setResolvedBookmarks(rs.getInt("resolved"));
-                    summary.setCriticalBookmarks(rs.getInt("critical"));
-                    summary.setHighPriorityBookmarks(rs.getInt("high"));
-                }
+             PreparedStatement stmt = conn.prepareStatement(sql);
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                bookmarks.add(mapBookmark(rs));
             }
         } catch (SQLException e) {
-            LOG.warnf("Failed to get bookmark summary: %s", e.getMessage());
+            throw new RuntimeException("Failed to fetch bookmarks", e);
         }
+        return List.copyOf(bookmarks);
+    }
 
-        return summary;
+    /**
+     * Copies a cached bookmark, so that callers may modify it.
+     *
+     * @param cached the cached bookmark
+     * @return a copy with its own tags list
+     */
+    private static QueryBookmark copyOf(QueryBookmark cached) {
+        QueryBookmark bookmark = new QueryBookmark();
+        bookmark.setId(cached.getId());
+        bookmark.setCreatedAt(cached.getCreatedAt());
+        bookmark.setUpdatedAt(cached.getUpdatedAt());
+        bookmark.setInstanceId(cached.getInstanceId());
+        bookmark.setQueryId(cached.getQueryId());
+        bookmark.setQueryText(cached.getQueryText());
+        bookmark.setTitle(cached.getTitle());
+        bookmark.setNotes(cached.getNotes());
+        bookmark.setTags(cached.getTags() != null ? new ArrayList<>(cached.getTags()) : null);
+        bookmark.setCreatedBy(cached.getCreatedBy());
+        bookmark.setPriority(cached.getPriority());
+        bookmark.setStatus(cached.getStatus());
+        return bookmark;
     }
 
     /**
@@ -0,0 +1,356 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.LongSupplier;
+
+/**
+ * Maintains one {@link RelationCatalog} per instance, shared by the services
+ * that analyse table and index statistics.
+ * <p>
+ * Without it, the index advisor, table maintenance, scheduled maintenance and
+ * table analysis views each scan {@code pg_stat_user_tables} and
+ * {@code pg_index} and call the size functions for every relation, often
+ * several times for one page. With tens of thousands of relations each scan
+ * costs hundreds of milliseconds. Here the catalogue is read with two
+ * set-based queries and the services derive their views from the snapshot.
+ * <p>
+ * A snapshot older than {@code pg-console.catalog-snapshot.refresh-interval-seconds}
+ * is still served while a background refresh runs. The refresh first reads a
+ * fingerprint of the statistics counters, which costs no size function calls,
+ * and only reloads the snapshot when the fingerprint has changed. The
+ * fingerprint ignores the console's own {@code pgconsole} schema, whose
+ * history tables change on every sample, so a snapshot is also reloaded
+ * after {@value #MAX_UNCHANGED_REFRESHES} unchanged refreshes.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see RelationCatalog
+ */
+@ApplicationScoped
+public class CatalogSnapshotService {
+
+    private static final Logger LOG = Logger.getLogger(CatalogSnapshotService.class);
+
+    /** Refreshes whose unchanged fingerprint may keep a snapshot before it is reloaded anyway. */
+    static final int MAX_UNCHANGED_REFRESHES = 10;
+
+    private static final String FINGERPRINT_SQL = """
+        SELECT
+            count(*) AS tables,
+            COALESCE(sum(relid::bigint), 0) AS oids,
+            COALESCE(sum(n_tup_ins + n_tup_upd + n_tup_del), 0) AS writes,
+            COALESCE(sum(seq_scan + COALESCE(idx_scan, 0)), 0) AS scans,
+            COALESCE(sum(vacuum_count + autovacuum_count + analyze_count + autoanalyze_count), 0) AS maintenance,
+            (SELECT count(*) FROM pg_stat_user_indexes WHERE schemaname <> 'pgconsole') AS indexes,
+            (SELECT COALESCE(sum(c.relpages::bigint), 0)
+               FROM pg_class c
+               JOIN pg_namespace n ON n.oid = c.relnamespace
+               LEFT JOIN pg_class owner ON owner.reltoastrelid = c.oid
+               LEFT JOIN pg_namespace owner_ns ON owner_ns.oid = owner.relnamespace
+              WHERE n.nspname <> 'pgconsole'
+                AND owner_ns.nspname IS DISTINCT FROM 'pgconsole') AS pages
+        FROM pg_stat_user_tables
+        WHERE schemaname <> 'pgconsole'
+        """;
+
+    private static final String TABLES_SQL = """
+        SELECT
+            s.relid::bigint AS oid,
+            s.schemaname,
+            s.relname,
+            pg_relation_size(s.relid) AS relation_bytes,
+            pg_table_size(s.relid) AS table_bytes,
+            s.n_live_tup,
+            s.n_dead_tup,
+            s.n_mod_since_analyze,
+            s.n_tup_ins,
+            s.n_tup_upd,
+            s.n_tup_hot_upd,
+            s.n_tup_del,
+            s.seq_scan,
+            s.seq_tup_read,
+            COALESCE(s.idx_scan, 0) AS idx_scan,
+            COALESCE(s.idx_tup_fetch, 0) AS idx_tup_fetch,
+            s.last_vacuum,
+            s.last_autovacuum,
+            s.last_analyze,
+            s.last_autoanalyze,
+            t.relname AS toast_name,
+            COALESCE(pg_relation_size(t.oid), 0) AS toast_bytes,
+            COALESCE(pg_stat_get_live_tuples(t.oid), 0) AS toast_live_tuples,
+            COALESCE(pg_stat_get_dead_tuples(t.oid), 0) AS toast_dead_tuples
+        FROM pg_stat_user_tables s
+        JOIN pg_class c ON c.oid = s.relid
+        LEFT JOIN pg_class t ON t.oid = c.reltoastrelid
+        ORDER BY s.relid
+        """;
+
+    private static final String INDEXES_SQL = """
+        SELECT
+            s.indexrelid::bigint AS oid,
+            s.relid::bigint AS table_oid,
+            s.indexrelname,
+            i.indnkeyatts,
+            ARRAY(
+                SELECT a.attname::text
+                FROM unnest(i.indkey::int[]) WITH ORDINALITY AS k(attnum, ord)
+                LEFT JOIN pg_attribute a ON a.attrelid = i.indrelid AND a.attnum = k.attnum
+                ORDER BY k.ord
+            ) AS columns,
+            CASE WHEN i.indexprs IS NOT NULL THEN ARRAY(
+                SELECT CASE WHEN k.attnum = 0 THEN pg_get_indexdef(i.indexrelid, k.ord::int, true) END
+                FROM unnest(i.indkey::int[]) WITH ORDINALITY AS k(attnum, ord)
+                WHERE k.ord <= i.indnkeyatts
+                ORDER BY k.ord
+            ) END AS expressions,
+            am.amname,
+            i.indclass::oid[] AS opclasses,
+            i.indoption::int2[] AS options,
+            pg_get_expr(i.indpred, i.indrelid, true) AS predicate,
+            i.indisprimary,
+            i.indisunique,
+            pg_relation_size(s.indexrelid) AS index_bytes,
+            s.idx_scan,
+            s.idx_tup_read
+        FROM pg_stat_user_indexes s
+        JOIN pg_index i ON i.indexrelid = s.indexrelid
+        JOIN pg_class c ON c.oid = s.indexrelid
+        JOIN pg_am am ON am.oid = c.relam
+        ORDER BY s.relid, s.indexrelid
+        """;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    ResponseVersionService responseVersionService;
+
+    /** Wall clock for snapshot ages; package-private so tests can control time. */
+    LongSupplier clock = System::currentTimeMillis;
+
+    /**
+     * A cached snapshot and when its fingerprint was last checked.
+     *
+     * @param catalog the snapshot
+     * @param checkedAtMillis when the snapshot was last confirmed current
+     * @param unchangedRefreshes refreshes since the snapshot was loaded that found it current
+     */
+    record Entry(RelationCatalog catalog, long checkedAtMillis, int unchangedRefreshes) {
+    }
+
+    private final ExecutorService refresher = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "catalog-snapshot");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final ConcurrentHashMap<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    /**
+     * Returns the relation catalogue snapshot for an instance.
+     * <p>
+     * The first call for an instance waits for the snapshot to load; later
+     * calls return the cached snapshot at once, starting a background refresh
+     * when it is due.
+     *
+     * @param instanceName the PostgreSQL instance name
+     * @return the snapshot, or an empty one if the instance cannot be read
+     */
+    public RelationCatalog getCatalog(String instanceName) {
+        if (!config.catalogSnapshot().enabled()) {
+            return refreshNow(instanceName, null).catalog();
+        }
+        Entry entry = entries.get(instanceName);
+        if (entry == null) {
+            try {
+                return refresh(instanceName).join().catalog();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        long intervalMillis = Math.max(1, config.catalogSnapshot().refreshIntervalSeconds()) * 1000L;
+        if (clock.getAsLong() - entry.checkedAtMillis() >= intervalMillis) {
+            refresh(instanceName);
+        }
+        return entry.catalog();
+    }
+
+    /**
+     * Discards the snapshot for an instance, for example after maintenance
+     * the console ran itself, so the next request loads a fresh one.
+     *
+     * @param instanceName the PostgreSQL instance name
+     */
+    public void invalidate(String instanceName) {
+        entries.remove(instanceName);
+    }
+
+    /**
+     * Starts refreshing an instance's snapshot in the background, or joins a
+     * refresh already in flight.
+     */
+    private CompletableFuture<Entry> refresh(String instanceName) {
+        CompletableFuture<Entry> created = new CompletableFuture<>();
+        CompletableFuture<Entry> existing = inFlight.putIfAbsent(instanceName, created);
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            refresher.execute(() -> {
+                try {
+                    Entry entry = refreshNow(instanceName, entries.get(instanceName));
+                    entries.put(instanceName, entry);
+                    created.complete(entry);
+                } catch (RuntimeException e) {
+                    created.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(instanceName, created);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(instanceName, created);
+            created.complete(new Entry(RelationCatalog.empty(), clock.getAsLong(), 0));
+        }
+        return created;
+    }
+
+    /**
+     * Brings a snapshot up to date: keeps it if its fingerprint is unchanged,
+     * otherwise loads a new one. A failure keeps the previous snapshot, or
+     * records an empty one, until the next refresh is due.
+     */
+    Entry refreshNow(String instanceName, Entry previous) {
+        long now = clock.getAsLong();
+        try (Connection conn = dataSourceManager.getDataSource(instanceName).getConnection();
+             Statement stmt = conn.createStatement()) {
+            long fingerprint = fingerprint(stmt);
+            if (previous != null
+                    && previous.catalog().getFingerprint() == fingerprint
+                    && previous.unchangedRefreshes() < MAX_UNCHANGED_REFRESHES) {
+                return new Entry(previous.catalog(), now, previous.unchangedRefreshes() + 1);
+            }
+
+            long started = System.nanoTime();
+            RelationCatalog catalog = load(stmt, previous, now, fingerprint);
+            LOG.debugf("Loaded catalogue snapshot for %s: %d tables, %d indexes in %d ms", instanceName,
+                    catalog.getTableCount(), catalog.getIndexCount(), (System.nanoTime() - started) / 1_000_000);
+            responseVersionService.bump(ResponseVersionService.Source.CATALOG, instanceName);
+            return new Entry(catalog, now, 0);
+        } catch (SQLException e) {
+            LOG.warnf("Failed to load catalogue snapshot for %s: %s", instanceName, e.getMessage());
+            RelationCatalog fallback = previous != null ? previous.catalog() : RelationCatalog.empty();
+            return new Entry(fallback, now, previous != null ? previous.unchangedRefreshes() : 0);
+        }
+    }
+
+    private static long fingerprint(Statement stmt) throws SQLException {
+        long fingerprint = 17;
+        try (ResultSet rs = stmt.executeQuery(FINGERPRINT_SQL)) {
+            if (rs.next()) {
+                int columns = rs.getMetaData().getColumnCount();
+                for (int i = 1; i <= columns; i++) {
+                    fingerprint = fingerprint * 1_000_003 ^ rs.getLong(i);
+                }
+            }
+        }
+        return fingerprint;
+    }
+
+    private static RelationCatalog load(Statement stmt, Entry previous, long now, long fingerprint) throws SQLException {
+        RelationCatalog.Builder builder = previous != null
+                ? RelationCatalog.builder(previous.catalog().getTableCount(), previous.catalog().getIndexCount())
+                : RelationCatalog.builder(0, 0);
+
+        try (ResultSet rs = stmt.executeQuery(TABLES_SQL)) {
+            while (rs.next()) {
+                builder.addTable(rs.getLong("oid"), rs.getString("schemaname"), rs.getString("relname"))
+                        .sizes(rs.getLong("relation_bytes"), rs.getLong("table_bytes"))
+                        .tuples(rs.getLong("n_live_tup"), rs.getLong("n_dead_tup"), rs.getLong("n_mod_since_analyze"))
+                        .writes(rs.getLong("n_tup_ins"), rs.getLong("n_tup_upd"), rs.getLong("n_tup_hot_upd"),
+                                rs.getLong("n_tup_del"))
+                        .scans(rs.getLong("seq_scan"), rs.getLong("seq_tup_read"), rs.getLong("idx_scan"),
+                                rs.getLong("idx_tup_fetch"))
+                        .maintenance(instant(rs.getTimestamp("last_vacuum")), instant(rs.getTimestamp("last_autovacuum")),
+                                instant(rs.getTimestamp("last_analyze")), instant(rs.getTimestamp("last_autoanalyze")))
+                        .toast(rs.getString("toast_name"), rs.getLong("toast_bytes"),
+                                rs.getLong("toast_live_tuples"), rs.getLong("toast_dead_tuples"));
+            }
+        }
+
+        try (ResultSet rs = stmt.executeQuery(INDEXES_SQL)) {
+            while (rs.next()) {
+                String[] columns = strings(rs.getArray("columns"));
+                int keys = Math.min(rs.getInt("indnkeyatts"), columns.length);
+                boolean added = builder.addIndex(rs.getLong("oid"), rs.getLong("table_oid"),
+                        rs.getString("indexrelname"), Arrays.copyOf(columns, keys),
+                        rs.getBoolean("indisprimary"), rs.getBoolean("indisunique"),
+                        rs.getLong("index_bytes"), rs.getLong("idx_scan"), rs.getLong("idx_tup_read"));
+                if (added) {
+                    Array expressions = rs.getArray("expressions");
+                    long[] opclasses = Arrays.stream(numbers(rs.getArray("opclasses")))
+                            .mapToLong(Number::longValue).toArray();
+                    Number[] optionValues = numbers(rs.getArray("options"));
+                    short[] options = new short[optionValues.length];
+                    for (int k = 0; k < options.length; k++) {
+                        options[k] = optionValues[k].shortValue();
+                    }
+                    if (opclasses.length == keys && options.length == keys) {
+                        builder.structure(rs.getString("amname"), opclasses, options,
+                                expressions != null ? strings(expressions) : null,
+                                Arrays.copyOfRange(columns, keys, columns.length), rs.getString("predicate"));
+                    }
+                }
+            }
+        }
+
+        return builder.build(now, fingerprint);
+    }
+
+    private static String[] strings(Array array) throws SQLException {
+        return array != null ? (String[]) array.getArray() : new String[0];
+    }
+
+    /** Reads an {@code oid[]} or {@code int2[]}, whose element type depends on the driver version. */
+    private static Number[] numbers(Array array) throws SQLException {
+        if (array == null) {
+            return new Number[0];
+        }
+        Object[] values = (Object[]) array.getArray();
+        return Arrays.copyOf(values, values.length, Number[].class);
+    }
+
+    private static Instant instant(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toInstant() : null;
+    }
+}
@@ -0,0 +1,266 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.repository.ClusterRepository;
+import com.bovinemagnet.pgconsole.util.HashRing;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Coordinates several pg-console replicas sharing one metadata database.
+ * <p>
+ * Each replica records a heartbeat in {@code pgconsole.cluster_member}. From
+ * the replicas with a recent heartbeat:
+ * <ul>
+ *   <li>Jobs that must run once per cluster, such as history cleanup and
+ *       escalation, run only on the replica holding the job's lease in
+ *       {@code pgconsole.cluster_lease}. The holder renews its leases with
+ *       each heartbeat; a lease left to expire by a stopped replica is taken
+ *       by the next replica to run the job.</li>
+ *   <li>Monitored instances are shared between the replicas by a consistent
+ *       hash ring, so each instance is sampled and its alerts evaluated by
+ *       one replica. When a replica joins or leaves, only the instances
+ *       between its points on the ring move.</li>
+ * </ul>
+ * With clustering disabled, or without the schema, every replica acts alone:
+ * it leads every job and owns every instance.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see ClusterRepository
+ * @see LeaderOnly
+ */
+@ApplicationScoped
+public class ClusterCoordinator {
+
+    private static final Logger LOG = Logger.getLogger(ClusterCoordinator.class);
+
+    /** Replicas silent for this many member timeouts are removed. */
+    private static final int STALE_MEMBER_TIMEOUTS = 10;
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    ClusterRepository clusterRepository;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    /** Whether replicas coordinate; package-private for tests. */
+    boolean active;
+
+    String replicaId;
+    String hostName;
+    int memberTimeoutSeconds = 30;
+    int leaseSeconds = 30;
+    int heartbeatSeconds = 10;
+    int virtualNodes = 128;
+
+    private volatile HashRing ring = HashRing.empty();
+
+    /** Leases held, with when each was last taken or renewed. */
+    private final Map<String, Instant> leases = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        InstanceConfig.ClusterConfig settings = config.cluster();
+        active = settings.enabled() && config.schema().enabled();
+        hostName = localHostName();
+        replicaId = settings.replicaId()
+                .filter(id -> !id.isBlank())
+                .orElseGet(() -> hostName + "-" + UUID.randomUUID().toString().substring(0, 8));
+        heartbeatSeconds = Math.max(1, settings.heartbeatIntervalSeconds());
+        memberTimeoutSeconds = Math.max(heartbeatSeconds * 2, settings.memberTimeoutSeconds());
+        leaseSeconds = Math.max(heartbeatSeconds * 2, settings.leaseSeconds());
+        virtualNodes = Math.max(1, settings.virtualNodes());
+        if (settings.enabled() && !config.schema().enabled()) {
+            LOG.warn("Cluster coordination needs the pgconsole schema; running as a single replica");
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (active) {
+            LOG.infof("Joining pg-console cluster as replica %s", replicaId);
+            heartbeat();
+        }
+    }
+
+    /**
+     * Records this replica's heartbeat, renews its leases and rebuilds the
+     * instance ring if the live replicas changed. If the metadata database
+     * cannot be reached the last view is kept; leases lapse on their own.
+     */
+    @Scheduled(every = "${pg-console.cluster.heartbeat-interval-seconds:10}s",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void heartbeat() {
+        if (!active) {
+            return;
+        }
+        try {
+            clusterRepository.heartbeat(replicaId, hostName);
+            Instant renewedAt = Instant.now();
+            Set<String> held = clusterRepository.renewLeases(replicaId, leaseSeconds);
+            leases.keySet().retainAll(held);
+            held.forEach(name -> leases.put(name, renewedAt));
+
+            List<String> members = clusterRepository.findLiveMembers(memberTimeoutSeconds);
+            updateRing(members);
+
+            int removed = clusterRepository.deleteStaleMembers(memberTimeoutSeconds * STALE_MEMBER_TIMEOUTS);
+            if (removed > 0) {
+                LOG.debugf("Removed %d stale pg-console replicas", removed);
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf("Cluster heartbeat of replica %s failed: %s", replicaId, e.getMessage());
+        }
+    }
+
+    /**
+     * Replaces the ring if the live replicas changed.
+     *
+     * @param members the live replicas
+     */
+    void updateRing(List<String> members) {
+        if (!members.contains(replicaId)) {
+            // Our own heartbeat was just written; never drop ourselves from the ring
+            members = new ArrayList<>(members);
+            members.add(replicaId);
+        }
+        if (ring.members().equals(Set.copyOf(members))) {
+            return;
+        }
+        ring = HashRing.of(members, virtualNodes);
+        long owned = dataSourceManager.getAvailableInstances().stream().filter(this::owns).count();
+        LOG.infof("Cluster membership changed: %d replicas %s; replica %s now samples %d instances",
+                members.size(), ring.members(), replicaId, owned);
+    }
+
+    /**
+     * Returns whether this replica should run a cluster-wide job now, taking
+     * the job's lease if it is free or has expired.
+     *
+     * @param task the job's name
+     * @return {@code true} if this replica holds the lease, or if replicas do
+     *         not coordinate
+     */
+    public boolean isLeader(String task) {
+        if (!active) {
+            return true;
+        }
+        Instant renewedAt = leases.get(task);
+        // Trust the lease only while a missed heartbeat could not have let it expire
+        if (renewedAt != null
+                && renewedAt.plus(Duration.ofSeconds(leaseSeconds - heartbeatSeconds)).isAfter(Instant.now())) {
+            return true;
+        }
+        try {
+            Instant acquiredAt = Instant.now();
+            if (clusterRepository.tryAcquireLease(task, replicaId, leaseSeconds)) {
+                if (leases.put(task, acquiredAt) == null) {
+                    LOG.infof("Replica %s is now leader of %s", replicaId, task);
+                }
+                return true;
+            }
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not take lease %s: %s", task, e.getMessage());
+        }
+        leases.remove(task);
+        return false;
+    }
+
+    /**
+     * Returns whether this replica samples an instance.
+     *
+     * @param instanceName the instance
+     * @return {@code true} if the instance hashes to this replica, or if
+     *         replicas do not coordinate
+     */
+    public boolean owns(String instanceName) {
+        HashRing current = ring;
+        if (!active || current.isEmpty()) {
+            return true;
+        }
+        return replicaId.equals(current.ownerOf(instanceName));
+    }
+
+    /**
+     * Returns the replica sampling an instance.
+     *
+     * @param instanceName the instance
+     * @return the replica id
+     */
+    public String ownerOf(String instanceName) {
+        HashRing current = ring;
+        return !active || current.isEmpty() ? replicaId : current.ownerOf(instanceName);
+    }
+
+    /**
+     * Returns the live replicas as last seen, including this one.
+     *
+     * @return the replica ids, or an empty set if replicas do not coordinate
+     */
+    public Set<String> liveMembers() {
+        return active ? ring.members() : Set.of();
+    }
+
+    /**
+     * Returns the leases this replica holds, with when each was last renewed.
+     *
+     * @return lease names to renewal times
+     */
+    public Map<String, Instant> heldLeases() {
+        return new TreeMap<>(leases);
+    }
+
+    public String replicaId() {
+        return replicaId;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    /**
+     * Leaves the cluster, releasing this replica's leases and instances so
+     * that the others take them over at once.
+     */
+    @PreDestroy
+    void leave() {
+        if (!active) {
+            return;
+        }
+        try {
+            clusterRepository.leave(replicaId);
+            LOG.infof("Replica %s left the pg-console cluster", replicaId);
+        } catch (RuntimeException e) {
+            LOG.debugf("Could not leave the cluster cleanly: %s", e.getMessage());
+        }
+    }
+
+    private static String localHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "pg-console";
+        }
+    }
+}
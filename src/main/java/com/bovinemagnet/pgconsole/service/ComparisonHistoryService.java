@@ -169,7 +169,8 @@ public class ComparisonHistoryService {
     /**
      * Scheduled job to clean up old history records.
      */
-    @Scheduled(cron = "0 0 3 * * ?") // Daily at 3 AM
+    @Scheduled(cron = "0 0 3 * * ?", identity = "comparison-history-cleanup",
+               skipExecutionIf = LeaderOnly.class) // Daily at 3 AM
     void cleanupOldHistory() {
         int deleted = repository.deleteOlderThan(retentionDays);
         if (deleted > 0) {
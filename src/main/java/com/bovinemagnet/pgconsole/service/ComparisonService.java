@@ -2,18 +2,23 @@ package com.bovinemagnet.pgconsole.service;
 
 import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
+import com.bovinemagnet.pgconsole.util.TopN;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 /**
  * Service for comparing metrics across PostgreSQL instances.
+ * <p>
+ * Instances are queried concurrently through {@link FleetService}, so the
+ * comparison takes as long as the slowest instance rather than the sum of
+ * them, and an instance that does not answer in time is shown as such.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -24,41 +29,37 @@ public class ComparisonService {
     private static final Logger LOG = Logger.getLogger(ComparisonService.class);
 
     @Inject
-    DataSourceManager dataSourceManager;
+    PostgresService postgresService;
 
     @Inject
-    PostgresService postgresService;
+    FleetService fleetService;
 
     /**
      * Compares overview statistics across all configured PostgreSQL instances.
      * <p>
-     * Collects overview statistics from each instance and returns a unified comparison
-     * list. Instances that fail to connect are included with error information rather
-     * than being excluded from results.
+     * Collects overview statistics from every instance concurrently and returns a unified
+     * comparison list in instance order. Instances that fail or time out are included with
+     * error information rather than being excluded from results.
      *
      * @return list of instance comparisons containing stats or error details for each instance
      */
     public List<InstanceComparison> compareOverview() {
-        List<InstanceComparison> comparisons = new ArrayList<>();
+        Map<String, FleetService.InstanceResult<OverviewStats>> results = new HashMap<>();
+        fleetService.overview(result -> results.put(result.instance(), result));
 
-        for (var instanceInfo : dataSourceManager.getInstanceInfoList()) {
-            String instanceId = instanceInfo.getName();
-            try {
-                OverviewStats stats = postgresService.getOverviewStats(instanceId);
-                InstanceComparison comp = new InstanceComparison();
-                comp.setInstanceId(instanceId);
-                comp.setDisplayName(instanceInfo.getDisplayName());
-                comp.setConnected(true);
-                comp.setStats(stats);
-                comparisons.add(comp);
-            } catch (Exception e) {
-                InstanceComparison comp = new InstanceComparison();
-                comp.setInstanceId(instanceId);
-                comp.setDisplayName(instanceInfo.getDisplayName());
-                comp.setConnected(false);
-                comp.setError(e.getMessage());
-                comparisons.add(comp);
+        List<InstanceComparison> comparisons = new ArrayList<>();
+        for (String instanceId : fleetService.instances()) {
+            var result = results.get(instanceId);
+            if (result == null) {
+                continue;
             }
+            InstanceComparison comp = new InstanceComparison();
+            comp.setInstanceId(instanceId);
+            comp.setDisplayName(result.displayName());
+            comp.setConnected(result.status() == FleetService.Status.OK);
+            comp.setStats(result.data());
+            comp.setError(result.error());
+            comparisons.add(comp);
         }
 
         return comparisons;
@@ -70,6 +71,7 @@ public class ComparisonService {
      * Queries are matched using their query fingerprint (normalised query hash) to identify
      * the same logical query running on different instances. Only queries present on at least
      * two instances are returned. Results are sorted by total execution time across all instances.
+     * Instances are queried concurrently; one that fails or times out is left out.
      *
      * @param instanceIds list of instance identifiers to compare
      * @param limit maximum number of common queries to return
@@ -79,49 +81,45 @@ public class ComparisonService {
     public List<CrossInstanceQuery> findCommonQueries(List<String> instanceIds, int limit) {
         Map<String, CrossInstanceQuery> queryMap = new HashMap<>();
 
-        for (String instanceId : instanceIds) {
-            try {
-                List<SlowQuery> queries = postgresService.getSlowQueries(instanceId, "totalTime", "desc");
-
-                for (SlowQuery query : queries) {
-                    // Use query ID as fingerprint (normalized query hash)
-                    String fingerprint = query.getQueryId();
-
-                    CrossInstanceQuery crossQuery = queryMap.computeIfAbsent(fingerprint, k -> {
-                        CrossInstanceQuery cq = new CrossInstanceQuery();
-                        cq.setQueryId(fingerprint);
-                        cq.setQueryText(query.getQuery());
-                        cq.setInstanceMetrics(new HashMap<>());
-                        return cq;
-                    });
-
-                    QueryMetrics metrics = new QueryMetrics();
-                    metrics.setTotalCalls(query.getTotalCalls());
-                    metrics.setTotalTime(query.getTotalTime());
-                    metrics.setMeanTime(query.getMeanTime());
-                    metrics.setMaxTime(query.getMaxTime());
-                    metrics.setRows(query.getRows());
-
-                    crossQuery.getInstanceMetrics().put(instanceId, metrics);
-                }
-            } catch (Exception e) {
-                LOG.warnf("Failed to get queries for instance %s: %s", instanceId, e.getMessage());
+        fleetService.fanOut(instanceIds, (instanceId, timeoutSeconds) ->
+                postgresService.fetchSlowQueries(instanceId, "totalTime", "desc", timeoutSeconds), result -> {
+            String instanceId = result.instance();
+            if (result.status() != FleetService.Status.OK) {
+                LOG.warnf("Failed to get queries for instance %s: %s", instanceId, result.error());
+                return;
+            }
+            for (SlowQuery query : result.data()) {
+                // Use query ID as fingerprint (normalized query hash)
+                String fingerprint = query.getQueryId();
+
+                CrossInstanceQuery crossQuery = queryMap.computeIfAbsent(fingerprint, k -> {
+                    CrossInstanceQuery cq = new CrossInstanceQuery();
+                    cq.setQueryId(fingerprint);
+                    cq.setQueryText(query.getQuery());
+                    cq.setInstanceMetrics(new HashMap<>());
+                    return cq;
+                });
+
+                QueryMetrics metrics = new QueryMetrics();
+                metrics.setTotalCalls(query.getTotalCalls());
+                metrics.setTotalTime(query.getTotalTime());
+                metrics.setMeanTime(query.getMeanTime());
+                metrics.setMaxTime(query.getMaxTime());
+                metrics.setRows(query.getRows());
+
+                crossQuery.getInstanceMetrics().put(instanceId, metrics);
+            }
+        });
+
+        // Keep only queries present in multiple instances, ranked by total time across them
+        TopN<CrossInstanceQuery> top = new TopN<>(limit, Comparator.comparingDouble(q ->
+                q.getInstanceMetrics().values().stream().mapToDouble(QueryMetrics::getTotalTime).sum()));
+        for (CrossInstanceQuery query : queryMap.values()) {
+            if (query.getInstanceMetrics().size() > 1) {
+                top.offer(query);
             }
         }
-
-        // Filter to only queries present in multiple instances
-        List<CrossInstanceQuery> commonQueries = queryMap.values().stream()
-                .filter(q -> q.getInstanceMetrics().size() > 1)
-                .sorted((a, b) -> {
-                    // Sort by total time across all instances
-                    double totalA = a.getInstanceMetrics().values().stream()
-                            .mapToDouble(QueryMetrics::getTotalTime).sum();
-                    double totalB = b.getInstanceMetrics().values().stream()
-                            .mapToDouble(QueryMetrics::getTotalTime).sum();
-                    return Double.compare(totalB, totalA);
-                })
-                .limit(limit)
-                .collect(Collectors.toList());
+        List<CrossInstanceQuery> commonQueries = top.toList();
 
         // Calculate variance for each query
         for (CrossInstanceQuery query : commonQueries) {
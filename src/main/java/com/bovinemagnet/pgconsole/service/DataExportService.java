@@ -0,0 +1,187 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository.HistoryTable;
+import com.bovinemagnet.pgconsole.util.ExportWriter;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+
+/**
+ * Streams bulk exports of live statistics and stored history.
+ * <p>
+ * Every dataset is read through a server-side cursor with the configured
+ * {@code pg-console.history.export-fetch-size} and written row by row to an
+ * {@link ExportWriter}, so an export holds at most one fetch of rows in
+ * memory however large it is.
+ * <p>
+ * Live datasets ({@code slow-queries}, {@code activity}) are read from the
+ * monitored instance without the row limits applied by the dashboards.
+ * History datasets are read from the metadata database and filtered by
+ * sample time and, optionally, instance.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryRepository#streamHistory
+ */
+@ApplicationScoped
+public class DataExportService {
+
+    private static final Logger LOG = Logger.getLogger(DataExportService.class);
+
+    static final String SLOW_QUERIES_SQL = """
+        SELECT
+            md5(query) AS query_id,
+            query,
+            calls,
+            total_exec_time AS total_time_ms,
+            mean_exec_time AS mean_time_ms,
+            min_exec_time AS min_time_ms,
+            max_exec_time AS max_time_ms,
+            stddev_exec_time AS stddev_time_ms,
+            rows,
+            shared_blks_hit,
+            shared_blks_read,
+            shared_blks_written,
+            temp_blks_read,
+            temp_blks_written
+        FROM pg_stat_statements
+        WHERE query NOT LIKE '%pg_stat_statements%'
+        ORDER BY total_exec_time DESC
+        """;
+
+    static final String ACTIVITY_SQL = """
+        SELECT
+            pid,
+            usename AS user,
+            datname AS database,
+            application_name,
+            client_addr::text AS client_addr,
+            backend_start,
+            xact_start,
+            query_start,
+            state_change,
+            state,
+            wait_event_type,
+            wait_event,
+            (pg_blocking_pids(pid))[1] AS blocking_pid,
+            query
+        FROM pg_stat_activity
+        WHERE pid != pg_backend_pid()
+          AND state != 'idle'
+        ORDER BY query_start DESC NULLS LAST
+        """;
+
+    /**
+     * Datasets available for export.
+     */
+    public enum Dataset {
+        SLOW_QUERIES("slow-queries", null),
+        ACTIVITY("activity", null),
+        SYSTEM_HISTORY("system-history", HistoryTable.SYSTEM),
+        QUERY_HISTORY("query-history", HistoryTable.QUERY),
+        DATABASE_HISTORY("database-history", HistoryTable.DATABASE),
+        INFRASTRUCTURE_HISTORY("infrastructure-history", HistoryTable.INFRASTRUCTURE);
+
+        private final String slug;
+        private final HistoryTable historyTable;
+
+        Dataset(String slug, HistoryTable historyTable) {
+            this.slug = slug;
+            this.historyTable = historyTable;
+        }
+
+        /**
+         * Returns the URL and filename slug of this dataset.
+         *
+         * @return the slug
+         */
+        public String getSlug() {
+            return slug;
+        }
+
+        /**
+         * Returns whether this dataset is read from stored history rather
+         * than from the monitored instance.
+         *
+         * @return true for history datasets
+         */
+        public boolean isHistory() {
+            return historyTable != null;
+        }
+
+        /**
+         * Looks up a dataset by its slug.
+         *
+         * @param slug the slug, e.g. {@code system-history}
+         * @return the dataset, or {@code null} if the slug is not recognised
+         */
+        public static Dataset fromSlug(String slug) {
+            for (Dataset dataset : values()) {
+                if (dataset.slug.equals(slug)) {
+                    return dataset;
+                }
+            }
+            return null;
+        }
+    }
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    HistoryRepository historyRepository;
+
+    /**
+     * Streams a dataset to an export writer.
+     * <p>
+     * The time range applies to history datasets only; live datasets are a
+     * snapshot of the instance at the time of the export.
+     *
+     * @param dataset the dataset to export
+     * @param instance the instance to export; for history datasets {@code null} exports all instances
+     * @param from inclusive start of the history range
+     * @param to exclusive end of the history range
+     * @param writer the destination
+     * @return the number of rows written
+     * @throws RuntimeException if the export query fails
+     */
+    public long export(Dataset dataset, String instance, Instant from, Instant to, ExportWriter writer) {
+        int fetchSize = config.history().exportFetchSize();
+        long rows = dataset.isHistory()
+            ? historyRepository.streamHistory(dataset.historyTable, instance, from, to, fetchSize, writer)
+            : streamLive(dataset == Dataset.SLOW_QUERIES ? SLOW_QUERIES_SQL : ACTIVITY_SQL, instance, fetchSize, writer);
+        writer.flush();
+        LOG.debugf("Exported %d %s rows for %s", rows, dataset.getSlug(), instance != null ? instance : "all instances");
+        return rows;
+    }
+
+    private long streamLive(String sql, String instance, int fetchSize, ExportWriter writer) {
+        try (Connection conn = dataSourceManager.getDataSource(instance).getConnection()) {
+            // The driver only uses a cursor outside auto-commit
+            boolean autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+            try (Statement stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                stmt.setFetchSize(fetchSize);
+                try (ResultSet rs = stmt.executeQuery(sql)) {
+                    return writer.writeAll(rs);
+                }
+            } finally {
+                conn.rollback();
+                conn.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            throw new RuntimeException("Failed to export from " + instance, e);
+        }
+    }
+}
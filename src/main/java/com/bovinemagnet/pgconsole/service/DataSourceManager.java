@@ -25,6 +25,8 @@ import java.util.concurrent.ConcurrentHashMap;
  * <p>
  * The "default" instance uses the unnamed Quarkus datasource.
  * Named instances use Quarkus named datasources matching the instance name.
+ * Instances registered at runtime follow the configured ones and use the
+ * pools of the {@link InstanceRegistry}.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -40,6 +42,9 @@ public class DataSourceManager {
     @Inject
     InstanceConfig instanceConfig;
 
+    @Inject
+    InstanceRegistry instanceRegistry;
+
     private final Map<String, AgroalDataSource> dataSourceCache = new ConcurrentHashMap<>();
     private List<String> availableInstances;
 
@@ -68,7 +73,8 @@ public class DataSourceManager {
      * Retrieves the datasource for the specified instance name.
      * <p>
      * Returns the default unnamed datasource for instance name "default", null, or empty string.
-     * For named instances, performs a lazy lookup via Arc container and caches the result.
+     * For a registered instance, returns its pool from the {@link InstanceRegistry}.
+     * For other named instances, performs a lazy lookup via Arc container and caches the result.
      *
      * @param instanceName the instance name ("default" for the unnamed datasource)
      * @return the datasource for the specified instance
@@ -80,6 +86,10 @@ public class DataSourceManager {
             return defaultDataSource;
         }
 
+        javax.sql.DataSource registered = instanceRegistry.dataSource(instanceName);
+        if (registered != null) {
+            return registered;
+        }
         return dataSourceCache.computeIfAbsent(instanceName, this::lookupNamedDataSource);
     }
 
@@ -115,18 +125,26 @@ public class DataSourceManager {
     /**
      * Retrieves the list of available instance names.
      * <p>
-     * Returns the instance names parsed from configuration during initialisation.
+     * Returns the instance names parsed from configuration during initialisation,
+     * followed by the enabled instances registered at runtime.
      *
-     * @return immutable list of configured instance names
+     * @return immutable list of configured and registered instance names
      */
     public List<String> getAvailableInstances() {
-        return availableInstances;
+        List<String> registered = instanceRegistry.names();
+        if (registered.isEmpty()) {
+            return availableInstances;
+        }
+        List<String> all = new ArrayList<>(availableInstances.size() + registered.size());
+        all.addAll(availableInstances);
+        all.addAll(registered);
+        return List.copyOf(all);
     }
 
     /**
      * Retrieves the display name for the specified instance.
      * <p>
-     * First checks the instance configuration for a custom display name.
+     * First checks the instance configuration, then the registry, for a custom display name.
      * If not configured, returns "Default" for the default instance,
      * or capitalises the first letter of the instance name as a fallback.
      *
@@ -142,6 +160,10 @@ public class DataSourceManager {
         if (props != null && props.displayName().isPresent()) {
             return props.displayName().get();
         }
+        String registered = instanceRegistry.displayName(instanceName);
+        if (registered != null && !registered.isBlank()) {
+            return registered;
+        }
 
         // Capitalise the instance name as fallback
         return instanceName.substring(0, 1).toUpperCase() + instanceName.substring(1);
@@ -161,7 +183,7 @@ public class DataSourceManager {
     public List<InstanceInfo> getInstanceInfoList() {
         List<InstanceInfo> instances = new ArrayList<>();
 
-        for (String name : availableInstances) {
+        for (String name : getAvailableInstances()) {
             InstanceInfo info = new InstanceInfo();
             info.setName(name);
             info.setDisplayName(getDisplayName(name));
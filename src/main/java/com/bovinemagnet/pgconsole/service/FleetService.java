@@ -0,0 +1,353 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.OverviewStats;
+import com.bovinemagnet.pgconsole.model.SlowQuery;
+import com.bovinemagnet.pgconsole.util.TopN;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Queries every monitored instance at once for fleet-wide views.
+ * <p>
+ * {@link #fanOut} runs one query per instance on a shared pool of
+ * {@code parallelism} threads and hands each answer to the caller as soon as
+ * it arrives, so a response can be streamed while slow instances are still
+ * answering. Each instance has {@code instance-timeout-seconds} from the
+ * moment its query is submitted, including any time spent waiting for a
+ * thread, and no instance is waited for beyond {@code request-timeout-seconds}
+ * from the start of the request. An instance that has not answered by its
+ * deadline is reported as timed out: a queued query is never run, and a
+ * running one is interrupted. Each query is also given the time left as its
+ * JDBC query timeout, so the driver cancels it on the server rather than
+ * leaving it to hold its thread. A failure or timeout on one instance never
+ * fails the others.
+ * <p>
+ * Fleet top queries are merged with a bounded heap ({@link TopN}), so only
+ * the winners are kept however many instances answer.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see ComparisonService
+ */
+@ApplicationScoped
+public class FleetService {
+
+    private static final Logger LOG = Logger.getLogger(FleetService.class);
+
+    /**
+     * Outcome of one instance's query.
+     */
+    public enum Status {
+        /** The instance answered. */
+        OK,
+        /** The query failed. */
+        ERROR,
+        /** The instance did not answer in time. */
+        TIMEOUT
+    }
+
+    /**
+     * One instance's answer.
+     *
+     * @param instance the instance name
+     * @param displayName the instance's display name
+     * @param status whether it answered
+     * @param elapsedMs how long its query ran, or had run when it timed out
+     * @param error why it did not answer, or {@code null}
+     * @param data the answer, or {@code null} unless the status is OK
+     * @param <T> the answer type
+     */
+    public record InstanceResult<T>(String instance, String displayName, Status status, long elapsedMs,
+                                    String error, T data) {
+    }
+
+    /**
+     * A query run on one instance by {@link #fanOut}.
+     *
+     * @param <T> the answer type
+     */
+    @FunctionalInterface
+    public interface InstanceQuery<T> {
+
+        /**
+         * Queries one instance.
+         *
+         * @param instance the instance name
+         * @param timeoutSeconds the time left before the instance's deadline, to
+         *                       use as its JDBC query timeout; at least 1
+         * @return the answer
+         */
+        T query(String instance, int timeoutSeconds);
+    }
+
+    /**
+     * A statement among the fleet's top queries.
+     *
+     * @param instance the instance it ran on
+     * @param queryId the {@code pg_stat_statements} query id
+     * @param query the normalised statement text
+     * @param user the role that ran it
+     * @param database the database it ran in
+     * @param calls times executed
+     * @param totalTime total execution time in milliseconds
+     * @param meanTime mean execution time in milliseconds
+     * @param maxTime longest execution time in milliseconds
+     * @param rows rows returned or affected
+     */
+    public record FleetQuery(String instance, String queryId, String query, String user, String database,
+                             long calls, double totalTime, double meanTime, double maxTime, long rows) {
+
+        static FleetQuery of(String instance, SlowQuery query) {
+            return new FleetQuery(instance, query.getQueryId(), query.getQuery(), query.getUser(),
+                    query.getDatabase(), query.getTotalCalls(), query.getTotalTime(), query.getMeanTime(),
+                    query.getMaxTime(), query.getRows());
+        }
+    }
+
+    /** Ranking of each sort key accepted by {@link #topQueries}. */
+    private static final Map<String, Comparator<FleetQuery>> RANKINGS = Map.of(
+            "totalTime", Comparator.comparingDouble(FleetQuery::totalTime),
+            "calls", Comparator.comparingLong(FleetQuery::calls),
+            "meanTime", Comparator.comparingDouble(FleetQuery::meanTime),
+            "maxTime", Comparator.comparingDouble(FleetQuery::maxTime),
+            "rows", Comparator.comparingLong(FleetQuery::rows));
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    PostgresService postgresService;
+
+    long timeoutMillis = 10_000;
+
+    long requestTimeoutMillis = 30_000;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void init() {
+        InstanceConfig.FleetConfig settings = config.fleet();
+        start(Math.max(1, settings.parallelism()), Math.max(1, settings.instanceTimeoutSeconds()) * 1000L,
+                Math.max(1, settings.requestTimeoutSeconds()) * 1000L);
+    }
+
+    /**
+     * Starts the query threads; package-private for tests.
+     *
+     * @param parallelism how many instances are queried at once
+     * @param timeoutMillis how long each instance may take from submission
+     * @param requestTimeoutMillis how long a whole fan-out may take
+     */
+    void start(int parallelism, long timeoutMillis, long requestTimeoutMillis) {
+        this.timeoutMillis = timeoutMillis;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+        this.executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "fleet-query");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns the instances fleet views cover: the configured instances
+     * followed by the registered ones.
+     *
+     * @return the instance names
+     */
+    public List<String> instances() {
+        return dataSourceManager.getAvailableInstances();
+    }
+
+    /**
+     * Reads the overview statistics of every instance, handing each to the
+     * sink as it arrives.
+     *
+     * @param sink receives each instance's result on the calling thread
+     */
+    public void overview(Consumer<InstanceResult<OverviewStats>> sink) {
+        fanOut(instances(), postgresService::getOverviewStats, sink);
+    }
+
+    /**
+     * Returns whether {@link #topQueries} accepts a sort key.
+     *
+     * @param sortBy the sort key
+     * @return {@code true} if supported
+     */
+    public static boolean supportsSort(String sortBy) {
+        return sortBy != null && RANKINGS.containsKey(sortBy);
+    }
+
+    /**
+     * Finds the most expensive statements across every instance.
+     * <p>
+     * Each instance returns its statements sorted by the same key, so an
+     * instance's remaining statements are skipped as soon as one fails to
+     * enter the heap.
+     *
+     * @param sortBy {@code totalTime}, {@code calls}, {@code meanTime},
+     *               {@code maxTime} or {@code rows}
+     * @param limit how many statements to return
+     * @param sink receives each instance's result on the calling thread, with
+     *             the number of statements it returned
+     * @return the top statements across the fleet, highest first
+     * @throws IllegalArgumentException if the sort key is not supported
+     */
+    public List<FleetQuery> topQueries(String sortBy, int limit, Consumer<InstanceResult<Integer>> sink) {
+        Comparator<FleetQuery> ranking = sortBy != null ? RANKINGS.get(sortBy) : null;
+        if (ranking == null) {
+            throw new IllegalArgumentException("Unsupported sort: " + sortBy
+                    + " (expected totalTime, calls, meanTime, maxTime or rows)");
+        }
+        TopN<FleetQuery> top = new TopN<>(limit, ranking);
+        fanOut(instances(), (instance, timeoutSeconds) ->
+                postgresService.fetchSlowQueries(instance, sortBy, "desc", timeoutSeconds), result -> {
+            List<SlowQuery> queries = result.data();
+            if (queries != null) {
+                for (SlowQuery query : queries) {
+                    if (!top.offer(FleetQuery.of(result.instance(), query))) {
+                        break;
+                    }
+                }
+            }
+            sink.accept(new InstanceResult<>(result.instance(), result.displayName(), result.status(),
+                    result.elapsedMs(), result.error(), queries != null ? queries.size() : null));
+        });
+        return top.toList();
+    }
+
+    /**
+     * Runs a query on every instance concurrently and hands each result to
+     * the sink, on the calling thread, in the order they finish. Returns
+     * once every instance has answered, failed or timed out.
+     * <p>
+     * If the sink throws, for example because the client of a streamed
+     * response has gone, the queries still running are cancelled and the
+     * exception is rethrown.
+     *
+     * @param instances the instances to query
+     * @param query the query, called on a pool thread
+     * @param sink receives each result
+     * @param <T> the answer type
+     */
+    public <T> void fanOut(List<String> instances, InstanceQuery<T> query, Consumer<InstanceResult<T>> sink) {
+        BlockingQueue<InstanceResult<T>> finished = new LinkedBlockingQueue<>();
+        Map<String, Call> pending = new LinkedHashMap<>();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        long requestDeadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(requestTimeoutMillis);
+        try {
+            for (String instance : instances) {
+                Call call = new Call(instance, dataSourceManager.getDisplayName(instance), timeoutNanos, requestDeadline);
+                try {
+                    call.future = executor.submit(() -> {
+                        long remainingNanos = call.deadlineNanos - System.nanoTime();
+                        if (remainingNanos <= 0) {
+                            // Timed out while queued; reported by the waiting thread
+                            return;
+                        }
+                        call.startedNanos = System.nanoTime();
+                        int timeoutSeconds = (int) Math.max(1, (remainingNanos + 999_999_999) / 1_000_000_000);
+                        try {
+                            T data = query.query(instance, timeoutSeconds);
+                            finished.add(new InstanceResult<>(instance, call.displayName, Status.OK,
+                                    call.elapsedMillis(), null, data));
+                        } catch (RuntimeException e) {
+                            LOG.debugf("Fleet query on %s failed: %s", instance, e.getMessage());
+                            finished.add(new InstanceResult<>(instance, call.displayName, Status.ERROR,
+                                    call.elapsedMillis(), e.getMessage(), null));
+                        }
+                    });
+                    pending.put(instance, call);
+                } catch (RejectedExecutionException e) {
+                    sink.accept(new InstanceResult<>(instance, call.displayName, Status.ERROR, 0,
+                            "Fleet queries are shutting down", null));
+                }
+            }
+
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                long nextDeadline = Long.MAX_VALUE;
+                var calls = pending.values().iterator();
+                while (calls.hasNext()) {
+                    Call call = calls.next();
+                    if (now - call.deadlineNanos < 0) {
+                        nextDeadline = Math.min(nextDeadline, call.deadlineNanos);
+                    } else {
+                        calls.remove();
+                        call.future.cancel(true);
+                        sink.accept(new InstanceResult<>(call.instance, call.displayName, Status.TIMEOUT,
+                                call.elapsedMillis(), call.startedNanos == 0
+                                        ? "Not started within " + call.allowedMillis() + " ms; the fleet query pool is busy"
+                                        : "No answer within " + call.allowedMillis() + " ms", null));
+                    }
+                }
+                if (pending.isEmpty()) {
+                    break;
+                }
+                InstanceResult<T> result = finished.poll(nextDeadline - now, TimeUnit.NANOSECONDS);
+                // A result arriving after its instance timed out has already been reported
+                if (result != null && pending.remove(result.instance()) != null) {
+                    sink.accept(result);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            pending.values().forEach(call -> call.future.cancel(true));
+        }
+    }
+
+    /**
+     * A query queued or in progress on one instance.
+     */
+    private static final class Call {
+        final String instance;
+        final String displayName;
+        final long submittedNanos = System.nanoTime();
+        final long deadlineNanos;
+        volatile long startedNanos;
+        Future<?> future;
+
+        Call(String instance, String displayName, long timeoutNanos, long requestDeadlineNanos) {
+            this.instance = instance;
+            this.displayName = displayName;
+            this.deadlineNanos = Math.min(submittedNanos + timeoutNanos, requestDeadlineNanos);
+        }
+
+        long allowedMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(deadlineNanos - submittedNanos);
+        }
+
+        long elapsedMillis() {
+            long started = startedNanos;
+            return started == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        }
+    }
+}
@@ -35,28 +35,6 @@ public class InMemoryMetricsSampler {
 
     private static final Logger LOG = Logger.getLogger("pgconsole.InMemoryMetricsSampler");
 
-    /**
-     * SQL query for sampling system metrics.
-     * Same query as MetricsSamplerService but used for in-memory storage.
-     */
-    private static final String SYSTEM_METRICS_SQL = """
-            SELECT
-                (SELECT count(*) FROM pg_stat_activity) as total_connections,
-                (SELECT setting::int FROM pg_settings WHERE name = 'max_connections') as max_connections,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as active_queries,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle') as idle_connections,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle in transaction') as idle_in_transaction,
-                (SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock') as blocked_queries,
-                (SELECT EXTRACT(EPOCH FROM max(now() - query_start)) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as longest_query_seconds,
-                (SELECT EXTRACT(EPOCH FROM max(now() - xact_start)) FROM pg_stat_activity WHERE xact_start IS NOT NULL) as longest_transaction_seconds,
-                (SELECT
-                    CASE WHEN sum(blks_hit) + sum(blks_read) > 0
-                    THEN (sum(blks_hit) * 100.0) / (sum(blks_hit) + sum(blks_read))
-                    ELSE 100.0 END
-                FROM pg_stat_database) as cache_hit_ratio,
-                (SELECT sum(pg_database_size(datname)) FROM pg_database WHERE datistemplate = false) as total_database_size_bytes
-            """;
-
     @Inject
     DataSourceManager dataSourceManager;
 
@@ -67,10 +45,13 @@ public class InMemoryMetricsSampler {
     InstanceConfig config;
 
     @Inject
-    PostgresService postgresService;
+    AlertingService alertingService;
 
     @Inject
-    AlertingService alertingService;
+    SparklineService sparklineService;
+
+    @Inject
+    ResponseVersionService responseVersionService;
 
     /**
      * Samples system metrics every 30 seconds when schema is disabled.
@@ -89,15 +70,17 @@ public class InMemoryMetricsSampler {
         List<String> instances = dataSourceManager.getAvailableInstances();
         for (String instanceId : instances) {
             try {
-                sampleSystemMetrics(instanceId);
+                boolean alerting = config.alerting().enabled();
+                AlertRuleEngine.Sample sample = sampleSystemMetrics(instanceId, alerting);
                 sampleDatabaseMetrics(instanceId);
                 sampleInfrastructureMetrics(instanceId);
+                sparklineService.invalidate(instanceId);
+                responseVersionService.bump(ResponseVersionService.Source.SAMPLES, instanceId);
 
                 // Also check alerting thresholds even in schema-free mode
-                if (config.alerting().enabled()) {
+                if (sample != null) {
                     try {
-                        var stats = postgresService.getOverviewStats(instanceId);
-                        alertingService.checkAndAlert(instanceId, stats);
+                        alertingService.evaluate(instanceId, sample);
                     } catch (Exception e) {
                         LOG.debugf("Failed to check alerts for instance %s: %s", instanceId, e.getMessage());
                     }
@@ -112,33 +95,61 @@ public class InMemoryMetricsSampler {
 
     /**
      * Samples system-level metrics for a single instance and stores in memory.
+     * <p>
+     * When alerting is enabled the same query also returns the alerting
+     * columns, and the largest mean query time is read from
+     * pg_stat_statements if it is installed.
      *
      * @param instanceId the database instance identifier
+     * @param alerting whether to build a sample for the alert rules
+     * @return the alert sample, or null if alerting is disabled or sampling failed
      */
-    private void sampleSystemMetrics(String instanceId) {
-        try (Connection conn = dataSourceManager.getDataSource(instanceId).getConnection();
-             Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(SYSTEM_METRICS_SQL)) {
+    private AlertRuleEngine.Sample sampleSystemMetrics(String instanceId, boolean alerting) {
+        AlertRuleEngine.Sample sample = null;
+        try (Connection conn = dataSourceManager.getDataSource(instanceId).getConnection()) {
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(alerting ? SystemMetricsQuery.WITH_ALERTING_SQL : SystemMetricsQuery.SQL)) {
 
-            if (rs.next()) {
-                SystemMetricsHistory metrics = new SystemMetricsHistory();
-                metrics.setSampledAt(Instant.now());
-                metrics.setTotalConnections(rs.getInt("total_connections"));
-                metrics.setMaxConnections(rs.getInt("max_connections"));
-                metrics.setActiveQueries(rs.getInt("active_queries"));
-                metrics.setIdleConnections(rs.getInt("idle_connections"));
-                metrics.setIdleInTransaction(rs.getInt("idle_in_transaction"));
-                metrics.setBlockedQueries(rs.getInt("blocked_queries"));
-                metrics.setLongestQuerySeconds(getDoubleOrNull(rs, "longest_query_seconds"));
-                metrics.setLongestTransactionSeconds(getDoubleOrNull(rs, "longest_transaction_seconds"));
-                metrics.setCacheHitRatio(getDoubleOrNull(rs, "cache_hit_ratio"));
-                metrics.setTotalDatabaseSizeBytes(getLongOrNull(rs, "total_database_size_bytes"));
+                if (rs.next()) {
+                    SystemMetricsHistory metrics = new SystemMetricsHistory();
+                    metrics.setSampledAt(Instant.now());
+                    metrics.setTotalConnections(rs.getInt("total_connections"));
+                    metrics.setMaxConnections(rs.getInt("max_connections"));
+                    metrics.setActiveQueries(rs.getInt("active_queries"));
+                    metrics.setIdleConnections(rs.getInt("idle_connections"));
+                    metrics.setIdleInTransaction(rs.getInt("idle_in_transaction"));
+                    metrics.setBlockedQueries(rs.getInt("blocked_queries"));
+                    metrics.setLongestQuerySeconds(getDoubleOrNull(rs, "longest_query_seconds"));
+                    metrics.setLongestTransactionSeconds(getDoubleOrNull(rs, "longest_transaction_seconds"));
+                    metrics.setCacheHitRatio(getDoubleOrNull(rs, "cache_hit_ratio"));
+                    metrics.setTotalDatabaseSizeBytes(getLongOrNull(rs, "total_database_size_bytes"));
 
-                metricsStore.addSystemMetrics(instanceId, metrics);
+                    metricsStore.addSystemMetrics(instanceId, metrics);
+
+                    if (alerting) {
+                        sample = SystemMetricsQuery.readAlertSample(rs, metrics);
+                    }
+                }
+            }
+
+            if (sample != null) {
+                // pg_stat_statements is optional; without it the rule simply has no value
+                try (Statement stmt = conn.createStatement();
+                     ResultSet rs = stmt.executeQuery(SystemMetricsQuery.MAX_MEAN_TIME_SQL)) {
+                    if (rs.next()) {
+                        Double meanTime = getDoubleOrNull(rs, "max_mean_time_ms");
+                        if (meanTime != null) {
+                            sample.set(AlertRuleEngine.Metric.QUERY_MEAN_TIME_MS, meanTime);
+                        }
+                    }
+                } catch (SQLException e) {
+                    LOG.debugf("Could not read query mean time for %s: %s", instanceId, e.getMessage());
+                }
             }
         } catch (SQLException e) {
             LOG.warnf("Failed to sample system metrics for %s: %s", instanceId, e.getMessage());
         }
+        return sample;
     }
 
     /**
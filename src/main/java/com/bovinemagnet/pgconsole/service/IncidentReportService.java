@@ -3,17 +3,48 @@ package com.bovinemagnet.pgconsole.service;
 import com.bovinemagnet.pgconsole.model.Activity;
 import com.bovinemagnet.pgconsole.model.BlockingTree;
 import com.bovinemagnet.pgconsole.model.IncidentReport;
+import com.bovinemagnet.pgconsole.model.IncidentReport.Section;
 import com.bovinemagnet.pgconsole.model.LockInfo;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
 import com.bovinemagnet.pgconsole.model.WaitEventSummary;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 /**
  * Service for generating incident reports.
  * Captures a point-in-time snapshot of database state for analysis.
+ * <p>
+ * The report sections are captured concurrently against one shared capture
+ * timestamp, so they describe (nearly) the same moment instead of drifting
+ * apart over several seconds of sequential queries. Each section records its
+ * capture latency. Reports can be streamed to a {@link Writer} section by
+ * section as captures complete, rather than being formatted into one string.
+ * <p>
+ * A section captures into its own {@link SectionResult}, which is merged
+ * into the report by the thread waiting for it, and only if it finished in
+ * time. A section that times out and finishes later never touches the
+ * report.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -21,11 +52,64 @@ import java.util.List;
 @ApplicationScoped
 public class IncidentReportService {
 
+    private static final Logger LOG = Logger.getLogger(IncidentReportService.class);
+
     private static final int TOP_QUERIES_LIMIT = 20;
 
+    /** One thread per section, so a capture runs all sections at once. */
+    private static final int CAPTURE_THREADS = Section.values().length;
+
+    /** How long to wait for any one section before reporting it as timed out. */
+    private static final long SECTION_TIMEOUT_SECONDS = 30;
+
     @Inject
     PostgresService postgresService;
 
+    /** How long to wait for any one section; package-private for tests. */
+    Duration sectionTimeout = Duration.ofSeconds(SECTION_TIMEOUT_SECONDS);
+
+    private final ExecutorService captureExecutor = Executors.newFixedThreadPool(CAPTURE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "incident-capture");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * An incident report whose sections are still being captured.
+     *
+     * @param report the report being populated; its capture timestamp is shared by all sections
+     * @param sections each section's capture, merged into the report once awaited in time
+     */
+    public record Capture(IncidentReport report, Map<Section, CompletableFuture<SectionResult>> sections) {
+    }
+
+    /**
+     * What one section's capture produced.
+     *
+     * @param data sets the captured data on a report, or {@code null} if the capture failed
+     * @param error why the capture failed, or {@code null}
+     * @param millis the capture latency, or {@code null} if the section never ran
+     */
+    public record SectionResult(Consumer<IncidentReport> data, String error, Long millis) {
+
+        void mergeInto(IncidentReport report, Section section) {
+            if (data != null) {
+                data.accept(report);
+            }
+            if (error != null) {
+                report.recordSectionError(section, error);
+            }
+            if (millis != null) {
+                report.recordSectionCapture(section, millis);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        captureExecutor.shutdownNow();
+    }
+
     /**
      * Captures a comprehensive point-in-time incident report for the specified instance.
      * <p>
@@ -35,40 +119,114 @@ public class IncidentReportService {
      * <p>
      * The report limits slow queries to the top 20 by total execution time to keep report size
      * manageable whilst capturing the most impactful queries.
+     * <p>
+     * Sections are captured concurrently. A section that fails or times out is
+     * left empty and its error recorded on the report.
      *
      * @param instanceName the database instance identifier to capture
      * @param description optional description of the incident for context; may be null
      * @return complete incident report with all captured metrics and state information
      */
     public IncidentReport captureReport(String instanceName, String description) {
+        Capture capture = startCapture(instanceName, description);
+        for (Section section : Section.values()) {
+            awaitSection(capture, section);
+        }
+        return capture.report();
+    }
+
+    /**
+     * Starts capturing every section of an incident report concurrently and
+     * returns immediately.
+     * <p>
+     * The report's capture timestamp and ID are fixed before any section
+     * starts, so a caller can name an export before the capture finishes.
+     *
+     * @param instanceName the database instance identifier to capture
+     * @param description optional description of the incident for context; may be null
+     * @return the in-progress capture
+     */
+    public Capture startCapture(String instanceName, String description) {
         IncidentReport report = new IncidentReport(instanceName);
         report.setDescription(description);
 
-        // Capture overview stats
-        report.setOverviewStats(postgresService.getOverviewStats(instanceName));
+        Map<Section, CompletableFuture<SectionResult>> sections = new EnumMap<>(Section.class);
+        for (Section section : Section.values()) {
+            sections.put(section, captureSection(instanceName, section));
+        }
+        return new Capture(report, Collections.unmodifiableMap(sections));
+    }
 
-        // Capture current activity
-        report.setActivities(postgresService.getCurrentActivity(instanceName));
+    private CompletableFuture<SectionResult> captureSection(String instanceName, Section section) {
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long started = System.nanoTime();
+                Consumer<IncidentReport> data = null;
+                String error = null;
+                try {
+                    data = capture(instanceName, section);
+                } catch (RuntimeException e) {
+                    LOG.warnf(e, "Failed to capture %s for incident report on %s", section, instanceName);
+                    error = e.getClass().getSimpleName() + ": " + e.getMessage();
+                }
+                return new SectionResult(data, error, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            }, captureExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.completedFuture(
+                new SectionResult(null, "capture rejected: service is shutting down", null));
+        }
+    }
 
-        // Capture wait events
-        report.setWaitEvents(postgresService.getWaitEventSummary(instanceName));
+    /**
+     * Queries one section's data, without touching the report.
+     *
+     * @return sets the data on a report
+     */
+    private Consumer<IncidentReport> capture(String instanceName, Section section) {
+        return switch (section) {
+            case OVERVIEW -> set(IncidentReport::setOverviewStats, postgresService.getOverviewStats(instanceName));
+            case ACTIVITY -> set(IncidentReport::setActivities, postgresService.getCurrentActivity(instanceName));
+            case WAIT_EVENTS -> set(IncidentReport::setWaitEvents, postgresService.getWaitEventSummary(instanceName));
+            case BLOCKING_TREE -> set(IncidentReport::setBlockingTree, postgresService.getBlockingTree(instanceName));
+            case LOCKS -> set(IncidentReport::setLocks, postgresService.getLockInfo(instanceName));
+            case SLOW_QUERIES -> {
+                // Limited to reduce report size
+                List<SlowQuery> allQueries = postgresService.getSlowQueries(instanceName, "totalTime", "desc");
+                yield set(IncidentReport::setTopSlowQueries, allQueries.size() > TOP_QUERIES_LIMIT
+                    ? allQueries.subList(0, TOP_QUERIES_LIMIT)
+                    : allQueries);
+            }
+            case DATABASE_INFO -> set(IncidentReport::setDatabaseInfo, postgresService.getDatabaseInfo(instanceName));
+        };
+    }
 
-        // Capture blocking tree and locks
-        report.setBlockingTree(postgresService.getBlockingTree(instanceName));
-        report.setLocks(postgresService.getLockInfo(instanceName));
+    private static <T> Consumer<IncidentReport> set(BiConsumer<IncidentReport, T> setter, T value) {
+        return report -> setter.accept(report, value);
+    }
 
-        // Capture top slow queries (limited to reduce report size)
-        List<SlowQuery> allQueries = postgresService.getSlowQueries(instanceName, "totalTime", "desc");
-        if (allQueries.size() > TOP_QUERIES_LIMIT) {
-            report.setTopSlowQueries(allQueries.subList(0, TOP_QUERIES_LIMIT));
-        } else {
-            report.setTopSlowQueries(allQueries);
+    /**
+     * Waits for a section's capture and merges it into the report if it
+     * finishes in time.
+     *
+     * @return true if the section's data can be read; false if it timed out
+     */
+    private boolean awaitSection(Capture capture, Section section) {
+        try {
+            capture.sections().get(section).get(sectionTimeout.toMillis(), TimeUnit.MILLISECONDS)
+                .mergeInto(capture.report(), section);
+            return true;
+        } catch (TimeoutException e) {
+            capture.report().recordSectionError(section, "timed out after " + sectionTimeout.toMillis() + " ms");
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            capture.report().recordSectionError(section, "interrupted");
+            return false;
+        } catch (ExecutionException e) {
+            // Section tasks catch their own exceptions, so only an error gets here
+            capture.report().recordSectionError(section, String.valueOf(e.getCause()));
+            return true;
         }
-
-        // Capture database info
-        report.setDatabaseInfo(postgresService.getDatabaseInfo(instanceName));
-
-        return report;
     }
 
     /**
@@ -86,9 +244,74 @@ public class IncidentReportService {
      * @return formatted multi-line text report ready for export or logging
      */
     public String formatAsText(IncidentReport report) {
+        StringWriter out = new StringWriter();
+        try {
+            write(report, null, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Streams a report to a writer as its sections finish capturing.
+     * <p>
+     * Each section is written and flushed as soon as it and every section
+     * before it have been captured, so the export starts before the slowest
+     * section finishes and the formatted text is never held in full.
+     *
+     * @param capture the in-progress capture from {@link #startCapture(String, String)}
+     * @param out destination writer; flushed after each section, not closed
+     * @throws IOException if writing fails
+     */
+    public void writeAsText(Capture capture, Writer out) throws IOException {
+        write(capture.report(), capture, out);
+    }
+
+    private void write(IncidentReport report, Capture capture, Writer out) throws IOException {
         StringBuilder sb = new StringBuilder();
+        appendHeader(report, sb);
+        flush(sb, out);
+
+        for (Section section : Section.values()) {
+            boolean readable = capture == null || awaitSection(capture, section);
+            sb.append("-".repeat(80)).append("\n");
+            if (!readable) {
+                sb.append(section.getDisplayName().toUpperCase()).append("\n");
+                sb.append("-".repeat(80)).append("\n");
+            } else {
+                switch (section) {
+                    case OVERVIEW -> appendOverview(report, sb);
+                    case ACTIVITY -> appendActivity(report, sb);
+                    case WAIT_EVENTS -> appendWaitEvents(report, sb);
+                    case BLOCKING_TREE -> appendBlockingTree(report, sb);
+                    case LOCKS -> appendLocks(report, sb);
+                    case SLOW_QUERIES -> appendSlowQueries(report, sb);
+                    case DATABASE_INFO -> appendDatabaseInfo(report, sb);
+                }
+            }
+            String error = report.getSectionErrors().get(section);
+            if (error != null) {
+                sb.append("Capture failed: ").append(error).append("\n");
+            }
+            sb.append("\n");
+            flush(sb, out);
+        }
+
+        appendCaptureTimings(report, sb);
+        sb.append("=".repeat(80)).append("\n");
+        sb.append("END OF REPORT\n");
+        sb.append("=".repeat(80)).append("\n");
+        flush(sb, out);
+    }
+
+    private static void flush(StringBuilder sb, Writer out) throws IOException {
+        out.append(sb);
+        out.flush();
+        sb.setLength(0);
+    }
 
-        // Header
+    private void appendHeader(IncidentReport report, StringBuilder sb) {
         sb.append("=" .repeat(80)).append("\n");
         sb.append("INCIDENT REPORT: ").append(report.getReportId()).append("\n");
         sb.append("=" .repeat(80)).append("\n\n");
@@ -100,9 +323,9 @@ public class IncidentReportService {
             sb.append("Description: ").append(report.getDescription()).append("\n");
         }
         sb.append("\n");
+    }
 
-        // Overview Stats
-        sb.append("-".repeat(80)).append("\n");
+    private void appendOverview(IncidentReport report, StringBuilder sb) {
         sb.append("OVERVIEW STATS\n");
         sb.append("-".repeat(80)).append("\n");
         if (report.getOverviewStats() != null) {
@@ -114,10 +337,9 @@ public class IncidentReportService {
             sb.append(String.format("Cache Hit Ratio:   %s%n", stats.getCacheHitRatioFormatted()));
             sb.append(String.format("Database Size:     %s%n", stats.getDatabaseSize()));
         }
-        sb.append("\n");
+    }
 
-        // Current Activity
-        sb.append("-".repeat(80)).append("\n");
+    private void appendActivity(IncidentReport report, StringBuilder sb) {
         sb.append("CURRENT ACTIVITY (").append(report.getTotalConnections()).append(" connections)\n");
         sb.append("-".repeat(80)).append("\n");
         sb.append(String.format("Active: %d | Blocked: %d | Idle: %d%n%n",
@@ -138,9 +360,9 @@ public class IncidentReportService {
                 sb.append("\n");
             }
         }
+    }
 
-        // Wait Events
-        sb.append("-".repeat(80)).append("\n");
+    private void appendWaitEvents(IncidentReport report, StringBuilder sb) {
         sb.append("WAIT EVENTS\n");
         sb.append("-".repeat(80)).append("\n");
         if (report.getWaitEvents().isEmpty()) {
@@ -153,10 +375,9 @@ public class IncidentReportService {
                     we.getSessionCount()));
             }
         }
-        sb.append("\n");
+    }
 
-        // Blocking Tree
-        sb.append("-".repeat(80)).append("\n");
+    private void appendBlockingTree(IncidentReport report, StringBuilder sb) {
         sb.append("BLOCKING TREE\n");
         sb.append("-".repeat(80)).append("\n");
         if (report.getBlockingTree().isEmpty()) {
@@ -177,9 +398,9 @@ public class IncidentReportService {
                 sb.append("\n");
             }
         }
+    }
 
-        // Locks
-        sb.append("-".repeat(80)).append("\n");
+    private void appendLocks(IncidentReport report, StringBuilder sb) {
         sb.append("ACTIVE LOCKS (").append(report.getLocks().size()).append(" locks)\n");
         sb.append("-".repeat(80)).append("\n");
         int lockCount = 0;
@@ -191,10 +412,9 @@ public class IncidentReportService {
             sb.append(String.format("PID %d | %s | %s | Granted: %s%n",
                 lock.getPid(), lock.getLockType(), lock.getMode(), lock.isGranted() ? "Yes" : "No"));
         }
-        sb.append("\n");
+    }
 
-        // Top Slow Queries
-        sb.append("-".repeat(80)).append("\n");
+    private void appendSlowQueries(IncidentReport report, StringBuilder sb) {
         sb.append("TOP SLOW QUERIES (by total time)\n");
         sb.append("-".repeat(80)).append("\n");
         int queryNum = 1;
@@ -203,9 +423,9 @@ public class IncidentReportService {
                 queryNum++, q.getTotalCalls(), q.getTotalTimeFormatted(), q.getMeanTimeFormatted()));
             sb.append("   ").append(truncate(q.getQuery(), 150)).append("\n\n");
         }
+    }
 
-        // Database Info
-        sb.append("-".repeat(80)).append("\n");
+    private void appendDatabaseInfo(IncidentReport report, StringBuilder sb) {
         sb.append("DATABASE INFO\n");
         sb.append("-".repeat(80)).append("\n");
         if (report.getDatabaseInfo() != null) {
@@ -215,13 +435,24 @@ public class IncidentReportService {
             sb.append(String.format("Current Database:   %s%n", db.getCurrentDatabase()));
             sb.append(String.format("Current User:       %s%n", db.getCurrentUser()));
         }
+    }
 
+    private void appendCaptureTimings(IncidentReport report, StringBuilder sb) {
+        sb.append("-".repeat(80)).append("\n");
+        sb.append("CAPTURE TIMINGS (sections captured concurrently)\n");
+        sb.append("-".repeat(80)).append("\n");
+        long slowest = 0;
+        for (Section section : Section.values()) {
+            Long millis = report.getSectionCaptureMillis().get(section);
+            if (millis != null) {
+                slowest = Math.max(slowest, millis);
+                sb.append(String.format("%-20s %6d ms%n", section.getDisplayName(), millis));
+            } else {
+                sb.append(String.format("%-20s %9s%n", section.getDisplayName(), "-"));
+            }
+        }
+        sb.append(String.format("%-20s %6d ms%n", "Slowest section", slowest));
         sb.append("\n");
-        sb.append("=".repeat(80)).append("\n");
-        sb.append("END OF REPORT\n");
-        sb.append("=".repeat(80)).append("\n");
-
-        return sb.toString();
     }
 
     /**
@@ -0,0 +1,260 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
+import com.bovinemagnet.pgconsole.model.RelationCatalog.Index;
+import com.bovinemagnet.pgconsole.model.RelationCatalog.Table;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Finds duplicate, covered and overlapping indexes from the structure held in
+ * the instance's {@link CatalogSnapshotService} snapshot.
+ * <p>
+ * Comparing every pair of indexes on a table is quadratic, which matters on
+ * tables with many indexes and schemas with tens of thousands of them.
+ * Instead, the indexes of each table are grouped by access method and
+ * partial-index predicate, and each group is inserted into a trie keyed by
+ * index key. A key matches only if its column or expression, operator class
+ * and sort options all match. One walk of the trie then finds:
+ * <ul>
+ *   <li>{@link Kind#DUPLICATE} - indexes ending at the same node with the same
+ *       {@code INCLUDE} columns</li>
+ *   <li>{@link Kind#COVERED} - B-tree indexes whose keys lead a longer index
+ *       below them, or that have the same keys and fewer {@code INCLUDE}
+ *       columns</li>
+ *   <li>{@link Kind#PARTIAL_OVERLAP} - B-tree indexes that share leading keys
+ *       with another but diverge after them, which may be worth merging</li>
+ * </ul>
+ * The work is proportional to the number of indexes times their key count.
+ * Unique and primary key indexes are only reported as duplicates of another
+ * index with the same uniqueness, since a wider index does not enforce their
+ * constraint. Results are cached for each snapshot.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see RelationCatalog.Index
+ */
+@ApplicationScoped
+public class IndexOverlapService {
+
+    /**
+     * How a reported index relates to the index that makes it redundant.
+     */
+    public enum Kind {
+        /** Same method, keys, predicate and {@code INCLUDE} columns. */
+        DUPLICATE,
+        /** Its keys lead the related index, which also holds its {@code INCLUDE} columns. */
+        COVERED,
+        /** Shares leading keys with the related index, after which they diverge. */
+        PARTIAL_OVERLAP
+    }
+
+    private static final String BTREE = "btree";
+
+    /** Orders duplicate indexes by which to keep: primary, then unique, then most scanned, then oldest. */
+    private static final Comparator<Index> KEEP_ORDER = Comparator
+            .comparing((Index i) -> !i.isPrimary())
+            .thenComparing(i -> !i.isUnique())
+            .thenComparing(Comparator.comparingLong(Index::getScans).reversed())
+            .thenComparingLong(Index::getOid);
+
+    /**
+     * A reported index.
+     *
+     * @param kind how the index relates to {@code related}
+     * @param index the index that could be dropped or merged
+     * @param related the index that duplicates, covers or overlaps it
+     * @param sharedKeys the number of leading keys the two have in common
+     */
+    public record Finding(Kind kind, Index index, Index related, int sharedKeys) {
+    }
+
+    @Inject
+    CatalogSnapshotService catalogSnapshotService;
+
+    private final Map<String, Analysis> analyses = new ConcurrentHashMap<>();
+
+    private record Analysis(RelationCatalog catalog, List<Finding> findings) {
+    }
+
+    /**
+     * Returns the duplicate, covered and overlapping indexes of an instance,
+     * largest first.
+     *
+     * @param instanceName the PostgreSQL instance name
+     * @return the findings, at most one per reported index
+     */
+    public List<Finding> findOverlaps(String instanceName) {
+        RelationCatalog catalog = catalogSnapshotService.getCatalog(instanceName);
+        return analyses.compute(instanceName, (name, existing) ->
+                existing != null && existing.catalog() == catalog
+                        ? existing : new Analysis(catalog, analyse(catalog))).findings();
+    }
+
+    /**
+     * Analyses every table of a snapshot.
+     *
+     * @param catalog the snapshot
+     * @return the findings, largest reported index first
+     */
+    static List<Finding> analyse(RelationCatalog catalog) {
+        List<Finding> findings = new ArrayList<>();
+        for (Table table : catalog.tables()) {
+            List<Index> indexes = table.indexes();
+            if (indexes.size() < 2) {
+                continue;
+            }
+            Map<Group, Node> tries = new LinkedHashMap<>();
+            for (Index index : indexes) {
+                List<String> keys = index.getKeys();
+                if (keys.contains(null)) {
+                    // Expression text was not loaded, so the keys cannot be compared
+                    continue;
+                }
+                Node node = tries.computeIfAbsent(new Group(index.getMethod(), index.getPredicate()), g -> new Node());
+                for (int k = 0; k < keys.size(); k++) {
+                    KeyToken token = new KeyToken(keys.get(k), index.getKeyOpclass(k), index.getKeyOption(k));
+                    node = node.children.computeIfAbsent(token, t -> new Node());
+                }
+                node.terminals.add(index);
+            }
+            tries.forEach((group, root) -> walk(root, 0, BTREE.equals(group.method()), new HashSet<>(), findings));
+        }
+        findings.sort(Comparator.comparingLong((Finding f) -> f.index().getSizeBytes()).reversed());
+        return findings;
+    }
+
+    /**
+     * Reports the indexes at and below a node.
+     *
+     * @return the indexes ending at or below the node
+     */
+    private static List<Index> walk(Node node, int depth, boolean btree, Set<Long> reported, List<Finding> findings) {
+        List<Index> below = new ArrayList<>();
+        List<List<Index>> branches = new ArrayList<>();
+        for (Node child : node.children.values()) {
+            List<Index> branch = walk(child, depth + 1, btree, reported, findings);
+            if (!branch.isEmpty()) {
+                branches.add(branch);
+                below.addAll(branch);
+            }
+        }
+
+        for (Index index : node.terminals) {
+            if (index.isPrimary()) {
+                continue;
+            }
+            Finding finding = duplicateOf(index, node.terminals, depth);
+            if (finding == null && btree && !index.isUnique()) {
+                finding = coveringOf(index, node.terminals, below, depth);
+            }
+            if (finding != null) {
+                reported.add(index.getOid());
+                findings.add(finding);
+            }
+        }
+
+        // Branches that diverge after shared keys; a node with indexes of its own reports those as covered instead
+        if (btree && depth > 0 && node.terminals.isEmpty() && branches.size() > 1) {
+            List<Index> representatives = new ArrayList<>();
+            for (List<Index> branch : branches) {
+                branch.stream()
+                        .filter(index -> !reported.contains(index.getOid()) && !index.isUnique())
+                        .max(Comparator.comparingLong(Index::getSizeBytes))
+                        .ifPresent(representatives::add);
+            }
+            representatives.sort(Comparator.comparingLong(Index::getSizeBytes).reversed());
+            for (Index index : representatives.subList(Math.min(1, representatives.size()), representatives.size())) {
+                reported.add(index.getOid());
+                findings.add(new Finding(Kind.PARTIAL_OVERLAP, index, representatives.get(0), depth));
+            }
+        }
+
+        List<Index> subtree = new ArrayList<>(node.terminals.size() + below.size());
+        subtree.addAll(node.terminals);
+        subtree.addAll(below);
+        return subtree;
+    }
+
+    /**
+     * Finds the index that an index duplicates: the one with the same
+     * {@code INCLUDE} columns that is kept in preference, being primary,
+     * unique, more scanned or older.
+     */
+    private static Finding duplicateOf(Index index, List<Index> sameKeys, int depth) {
+        Set<String> include = Set.copyOf(index.getIncludeColumns());
+        Index keeper = index;
+        for (Index other : sameKeys) {
+            if (other.getOid() != index.getOid() && other.isUnique() == index.isUnique()
+                    && include.equals(Set.copyOf(other.getIncludeColumns()))
+                    && KEEP_ORDER.compare(other, keeper) < 0) {
+                keeper = other;
+            }
+        }
+        // A non-unique index is also a duplicate of a unique one on the same keys
+        if (keeper.getOid() == index.getOid() && !index.isUnique()) {
+            for (Index other : sameKeys) {
+                if (other.isUnique() && include.equals(Set.copyOf(other.getIncludeColumns()))) {
+                    keeper = other;
+                    break;
+                }
+            }
+        }
+        return keeper.getOid() != index.getOid() ? new Finding(Kind.DUPLICATE, index, keeper, depth) : null;
+    }
+
+    /**
+     * Finds the smallest index that covers an index: one with the same keys
+     * and more {@code INCLUDE} columns, or one whose leading keys are its keys.
+     */
+    private static Finding coveringOf(Index index, List<Index> sameKeys, List<Index> longer, int depth) {
+        Index best = null;
+        for (Index candidate : sameKeys) {
+            if (candidate.getIncludeColumns().size() > index.getIncludeColumns().size()
+                    && holdsIncludes(candidate, index)) {
+                best = smaller(best, candidate);
+            }
+        }
+        for (Index candidate : longer) {
+            if (holdsIncludes(candidate, index)) {
+                best = smaller(best, candidate);
+            }
+        }
+        return best != null ? new Finding(Kind.COVERED, index, best, depth) : null;
+    }
+
+    private static Index smaller(Index best, Index candidate) {
+        return best == null || candidate.getSizeBytes() < best.getSizeBytes() ? candidate : best;
+    }
+
+    private static boolean holdsIncludes(Index covering, Index covered) {
+        if (covered.getIncludeColumns().isEmpty()) {
+            return true;
+        }
+        Set<String> held = new HashSet<>(covering.getKeys());
+        held.addAll(covering.getIncludeColumns());
+        return held.containsAll(covered.getIncludeColumns());
+    }
+
+    /** Indexes that can only make each other redundant: same method and predicate. */
+    private record Group(String method, String predicate) {
+    }
+
+    /** One index key: its column or expression, operator class and sort options. */
+    private record KeyToken(String key, long opclass, short option) {
+    }
+
+    private static final class Node {
+        final Map<KeyToken, Node> children = new LinkedHashMap<>();
+        final List<Index> terminals = new ArrayList<>(1);
+    }
+}
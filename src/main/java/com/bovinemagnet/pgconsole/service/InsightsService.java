@@ -263,6 +263,7 @@ public class InsightsService {
 
             // Detect current anomalies
             anomalyDetectionService.detectAnomalies(instanceName);
+            recommendationService.invalidate(instanceName, UnifiedRecommendation.Source.ANOMALY);
 
             // Generate forecasts
             forecastingService.generateForecasts(instanceName, 7, 30);
@@ -0,0 +1,272 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import io.agroal.api.AgroalDataSource;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Connection pool of a registered instance, built on first use and closed
+ * when unused.
+ * <p>
+ * The underlying Agroal pool keeps no minimum, so its connections close once
+ * idle for the workload class's idle time. The pool itself, with its
+ * housekeeping thread, is closed by {@link #closeIfIdle(Instant)} once no
+ * connection has been taken for a while, and rebuilt by the next
+ * {@link #getConnection()}. This object stays valid throughout, so callers
+ * may hold on to it.
+ * <p>
+ * Every connection handed out holds one of the registry's permits until it
+ * is closed, capping connections in use across all registered instances.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see InstanceRegistry
+ */
+final class InstancePool implements DataSource {
+
+    private static final Logger LOG = Logger.getLogger(InstancePool.class);
+
+    /**
+     * The registry's cap on connections in use.
+     */
+    interface Permits {
+        /**
+         * Waits for a permit.
+         *
+         * @param requester the pool that will use it
+         * @throws SQLException if none was released in time
+         */
+        void acquire(InstancePool requester) throws SQLException;
+
+        void release();
+    }
+
+    /**
+     * Builds the underlying pool.
+     */
+    @FunctionalInterface
+    interface Factory {
+        AgroalDataSource create(RegisteredInstance instance) throws SQLException;
+    }
+
+    private final Factory factory;
+    private final Permits permits;
+
+    /** The registration; replaced when details that do not affect connecting change. */
+    private volatile RegisteredInstance instance;
+
+    // Guarded by this
+    private AgroalDataSource pool;
+    private int inUse;
+    private Instant lastUsed = Instant.now();
+    private boolean closed;
+
+    InstancePool(RegisteredInstance instance, Factory factory, Permits permits) {
+        this.instance = instance;
+        this.factory = factory;
+        this.permits = permits;
+    }
+
+    RegisteredInstance instance() {
+        return instance;
+    }
+
+    void update(RegisteredInstance instance) {
+        this.instance = instance;
+    }
+
+    /**
+     * Takes a connection, building the pool if it is not open. Waits for a
+     * permit first, so that a caller over the cap does not hold one of this
+     * instance's connections while it waits.
+     *
+     * @return a connection that returns its permit when closed
+     * @throws SQLException if no permit or connection was available in time,
+     *         or the instance has been removed
+     */
+    @Override
+    public Connection getConnection() throws SQLException {
+        permits.acquire(this);
+        AgroalDataSource current;
+        try {
+            synchronized (this) {
+                if (closed) {
+                    throw new SQLException("Instance " + instance.getName() + " is no longer registered");
+                }
+                if (pool == null) {
+                    pool = factory.create(instance);
+                    LOG.debugf("Opened connection pool for registered instance %s", instance.getName());
+                }
+                current = pool;
+                inUse++;
+                lastUsed = Instant.now();
+            }
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+        try {
+            return track(current.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            returned();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Registered instances connect with their registered credentials");
+    }
+
+    /**
+     * Closes the pool if no connection is in use and none has been taken
+     * since a cutoff.
+     *
+     * @param cutoff the last use before which the pool is closed
+     * @return {@code true} if the pool was closed
+     */
+    synchronized boolean closeIfIdle(Instant cutoff) {
+        if (pool == null || inUse > 0 || lastUsed.isAfter(cutoff)) {
+            return false;
+        }
+        pool.close();
+        pool = null;
+        LOG.debugf("Closed idle connection pool for registered instance %s", instance.getName());
+        return true;
+    }
+
+    /**
+     * Closes the pool's idle connections at once, to make room under the cap.
+     */
+    void flushIdle() {
+        AgroalDataSource current;
+        synchronized (this) {
+            current = pool;
+        }
+        if (current != null) {
+            current.flush(AgroalDataSource.FlushMode.IDLE);
+        }
+    }
+
+    /**
+     * Closes the pool for good, including connections still in use.
+     */
+    synchronized void close() {
+        closed = true;
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    /**
+     * Counts the connections the pool holds open, in use or idle.
+     *
+     * @return open connections, 0 if the pool is closed
+     */
+    int openConnections() {
+        AgroalDataSource current;
+        synchronized (this) {
+            current = pool;
+        }
+        if (current == null) {
+            return 0;
+        }
+        return (int) (current.getMetrics().activeCount() + current.getMetrics().availableCount());
+    }
+
+    synchronized boolean isOpen() {
+        return pool != null;
+    }
+
+    synchronized int inUse() {
+        return inUse;
+    }
+
+    synchronized Instant lastUsed() {
+        return lastUsed;
+    }
+
+    private void returned() {
+        synchronized (this) {
+            inUse--;
+            lastUsed = Instant.now();
+        }
+        permits.release();
+    }
+
+    /**
+     * Wraps a connection so that closing it, however often, returns its
+     * permit once.
+     */
+    private Connection track(Connection connection) {
+        AtomicBoolean open = new AtomicBoolean(true);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+                        try {
+                            connection.close();
+                        } finally {
+                            if (open.compareAndSet(true, false)) {
+                                returned();
+                            }
+                        }
+                        return null;
+                    }
+                    if ("isClosed".equals(method.getName()) && !open.get()) {
+                        return true;
+                    }
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public java.util.logging.Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        throw new SQLFeatureNotSupportedException();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> type) throws SQLException {
+        if (type.isInstance(this)) {
+            return type.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + type.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> type) {
+        return type.isInstance(this);
+    }
+}
@@ -0,0 +1,471 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import com.bovinemagnet.pgconsole.repository.RegisteredInstanceRepository;
+import com.bovinemagnet.pgconsole.util.CredentialCipher;
+import com.bovinemagnet.pgconsole.util.PostgresJdbcUrl;
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.AgroalConnectionPoolConfiguration;
+import io.agroal.api.configuration.supplier.AgroalConnectionFactoryConfigurationSupplier;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Instances registered at runtime, and their connection pools.
+ * <p>
+ * Registered instances are kept in {@code pgconsole.registered_instance} and
+ * monitored alongside the configured ones; {@link DataSourceManager} asks
+ * this registry for any instance it was not configured with. Each replica
+ * re-reads the table every {@code refresh-seconds}, so an instance
+ * registered or removed through one replica reaches the others without a
+ * restart.
+ * <p>
+ * Each instance gets an {@link InstancePool}, sized by its workload class,
+ * that opens no connection until first used, lets idle connections close,
+ * and is itself closed once unused for {@code pool-close-minutes}. The pool
+ * footprint therefore follows the instances actually being looked at or
+ * sampled rather than the size of the fleet. Connections in use across all
+ * registered instances are capped; a caller over the cap waits for one to be
+ * returned, and whenever the connections held open reach the cap, idle ones
+ * are closed to make room.
+ * <p>
+ * The registry can point pg-console at any host, so registering and
+ * removing instances needs security to be enabled, which makes the registry
+ * endpoints admin-only. A JDBC URL is reduced to its host, port, database
+ * and allowed parameters by {@link PostgresJdbcUrl}, and a password is
+ * stored encrypted with {@code credential-key}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see RegisteredInstanceRepository
+ * @see InstancePool
+ */
+@ApplicationScoped
+public class InstanceRegistry {
+
+    private static final Logger LOG = Logger.getLogger(InstanceRegistry.class);
+
+    /** Instance names appear in URLs and query parameters. */
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9_-]{0,62}");
+
+    /**
+     * Pool settings of a workload class.
+     *
+     * @param maxSize most connections per instance
+     * @param idleSeconds how long a connection may be idle before it is closed
+     * @param maxLifetimeMinutes how long a connection is kept
+     */
+    record PoolSettings(int maxSize, int idleSeconds, int maxLifetimeMinutes) {
+
+        /** Used for a class that is not configured, matching the configuration defaults. */
+        static final PoolSettings DEFAULTS = new PoolSettings(2, 30, 30);
+    }
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    RegisteredInstanceRepository repository;
+
+    /** Whether instances can be registered; package-private for tests. */
+    boolean active;
+
+    /** Whether the registry endpoints are admin-only, which changes need. */
+    boolean securityEnabled;
+
+    /** Encrypts stored passwords, or {@code null} if no key is configured. */
+    CredentialCipher credentials;
+
+    int maxTotalConnections = 100;
+    Duration acquisitionTimeout = Duration.ofSeconds(10);
+    Duration poolCloseAfter = Duration.ofMinutes(10);
+    String defaultWorkloadClass = "standard";
+    Set<String> configuredInstances = Set.of();
+
+    private Semaphore permits = new Semaphore(maxTotalConnections, true);
+
+    private final Map<String, InstancePool> pools = new ConcurrentHashMap<>();
+
+    /** Names of the enabled registered instances, sorted. */
+    private volatile List<String> names = List.of();
+
+    @PostConstruct
+    void init() {
+        InstanceConfig.RegistryConfig settings = config.registry();
+        active = settings.enabled() && config.schema().enabled();
+        securityEnabled = config.security().enabled();
+        credentials = active
+                ? settings.credentialKey().filter(key -> !key.isBlank()).map(CredentialCipher::new).orElse(null)
+                : null;
+        maxTotalConnections = Math.max(1, settings.maxTotalConnections());
+        acquisitionTimeout = Duration.ofSeconds(Math.max(1, settings.acquisitionTimeoutSeconds()));
+        poolCloseAfter = Duration.ofMinutes(Math.max(1, settings.poolCloseMinutes()));
+        defaultWorkloadClass = settings.defaultWorkloadClass();
+        configuredInstances = Arrays.stream(config.instances().split(","))
+                .map(String::trim)
+                .filter(s -> !s.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        permits = new Semaphore(maxTotalConnections, true);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        refresh();
+    }
+
+    /**
+     * Re-reads the registry, opening pools for new instances and closing
+     * those of removed ones, then closes pools that have gone unused.
+     */
+    @Scheduled(every = "${pg-console.registry.refresh-seconds:10}s",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refresh() {
+        if (!active) {
+            return;
+        }
+        try {
+            apply(repository.findAll());
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not read registered instances; keeping the last known: %s", e.getMessage());
+        }
+        closeIdlePools(Instant.now().minus(poolCloseAfter));
+    }
+
+    /**
+     * Brings the pools in line with the registered instances.
+     *
+     * @param registered every registered instance
+     */
+    synchronized void apply(List<RegisteredInstance> registered) {
+        Map<String, RegisteredInstance> wanted = new TreeMap<>();
+        for (RegisteredInstance instance : registered) {
+            if (!instance.isEnabled()) {
+                continue;
+            }
+            if (configuredInstances.contains(instance.getName())) {
+                LOG.warnf("Ignoring registered instance %s: an instance of that name is configured", instance.getName());
+                continue;
+            }
+            wanted.put(instance.getName(), instance);
+        }
+
+        pools.entrySet().removeIf(entry -> {
+            RegisteredInstance now = wanted.get(entry.getKey());
+            if (now != null && !now.connectsDifferentlyFrom(entry.getValue().instance())) {
+                entry.getValue().update(now);
+                return false;
+            }
+            entry.getValue().close();
+            LOG.infof(now == null ? "Stopped monitoring registered instance %s" : "Reconnecting registered instance %s",
+                    entry.getKey());
+            return true;
+        });
+        wanted.forEach((name, instance) -> pools.computeIfAbsent(name, n -> {
+            LOG.infof("Monitoring registered instance %s (%s)", name, instance.getWorkloadClass());
+            return new InstancePool(instance, this::createPool, fleetPermits);
+        }));
+        names = List.copyOf(wanted.keySet());
+    }
+
+    /**
+     * Registers an instance, or updates it if already registered, and starts
+     * monitoring it on this replica at once.
+     *
+     * @param instance the instance; an update without a password keeps the stored one
+     * @return the instance as stored
+     * @throws IllegalArgumentException if the instance is invalid
+     * @throws IllegalStateException if the registry or security is not enabled, or a
+     *         password is given without a credential key to encrypt it with
+     */
+    public RegisteredInstance register(RegisteredInstance instance) {
+        requireActive();
+        requireSecurity();
+        validate(instance);
+        instance.setEncryptedPassword(null);
+        if (instance.getPassword() != null) {
+            if (credentials == null) {
+                throw new IllegalStateException("Storing a password needs pg-console.registry.credential-key");
+            }
+            instance.setEncryptedPassword(credentials.encrypt(instance.getName(), instance.getPassword()));
+            instance.setPassword(null);
+        }
+        RegisteredInstance saved = repository.save(instance);
+        apply(repository.findAll());
+        return saved.copy();
+    }
+
+    /**
+     * Removes a registered instance, closing its pool.
+     *
+     * @param name the instance name
+     * @return {@code true} if it was registered
+     * @throws IllegalStateException if the registry or security is not enabled
+     */
+    public boolean remove(String name) {
+        requireActive();
+        requireSecurity();
+        boolean removed = repository.delete(name);
+        apply(repository.findAll());
+        return removed;
+    }
+
+    /**
+     * Lists the registered instances, including disabled ones.
+     *
+     * @return the instances, ordered by name
+     */
+    public List<RegisteredInstance> list() {
+        return active ? repository.findAll() : List.of();
+    }
+
+    /**
+     * Returns the names of the enabled registered instances.
+     *
+     * @return the names, sorted
+     */
+    public List<String> names() {
+        return names;
+    }
+
+    /**
+     * Returns the pool of a registered instance.
+     *
+     * @param name the instance name
+     * @return the pool, or {@code null} if no such instance is registered
+     */
+    public javax.sql.DataSource dataSource(String name) {
+        return pools.get(name);
+    }
+
+    /**
+     * Returns the display name of a registered instance.
+     *
+     * @param name the instance name
+     * @return the display name, or {@code null} if none was given or the
+     *         instance is not registered
+     */
+    public String displayName(String name) {
+        InstancePool pool = pools.get(name);
+        return pool != null ? pool.instance().getDisplayName() : null;
+    }
+
+    /**
+     * Summarises the pools of the registered instances.
+     *
+     * @return totals, and for each instance its class, whether its pool is
+     *         open and its connections
+     */
+    public Map<String, Object> poolStatus() {
+        List<Map<String, Object>> instances = new ArrayList<>();
+        int open = 0;
+        int openPools = 0;
+        for (String name : names) {
+            InstancePool pool = pools.get(name);
+            if (pool == null) {
+                continue;
+            }
+            int connections = pool.openConnections();
+            open += connections;
+            openPools += pool.isOpen() ? 1 : 0;
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", name);
+            entry.put("workloadClass", pool.instance().getWorkloadClass());
+            entry.put("open", pool.isOpen());
+            entry.put("connections", connections);
+            entry.put("inUse", pool.inUse());
+            entry.put("lastUsed", pool.lastUsed().toString());
+            instances.add(entry);
+        }
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("enabled", active);
+        status.put("maxTotalConnections", maxTotalConnections);
+        status.put("connectionsInUse", maxTotalConnections - permits.availablePermits());
+        status.put("connectionsOpen", open);
+        status.put("openPools", openPools);
+        status.put("instances", instances);
+        return status;
+    }
+
+    /**
+     * Returns the pool settings of a workload class.
+     *
+     * @param workloadClass the class name
+     * @return its configured settings, or the defaults
+     */
+    PoolSettings settingsOf(String workloadClass) {
+        InstanceConfig.WorkloadClassConfig configured = config.registry().workloadClasses().get(workloadClass);
+        if (configured == null) {
+            return PoolSettings.DEFAULTS;
+        }
+        return new PoolSettings(Math.max(1, configured.maxSize()), Math.max(1, configured.idleSeconds()),
+                Math.max(1, configured.maxLifetimeMinutes()));
+    }
+
+    /**
+     * Closes pools that have not handed out a connection since a cutoff.
+     *
+     * @param cutoff the last use before which pools are closed
+     * @return the number of pools closed
+     */
+    int closeIdlePools(Instant cutoff) {
+        int closed = 0;
+        for (InstancePool pool : pools.values()) {
+            if (pool.closeIfIdle(cutoff)) {
+                closed++;
+            }
+        }
+        if (closed > 0) {
+            LOG.debugf("Closed %d idle connection pools", closed);
+        }
+        return closed;
+    }
+
+    /**
+     * The cap on connections in use across registered instances.
+     */
+    final InstancePool.Permits fleetPermits = new InstancePool.Permits() {
+        @Override
+        public void acquire(InstancePool requester) throws SQLException {
+            try {
+                if (!permits.tryAcquire(acquisitionTimeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                    throw new SQLException("All " + maxTotalConnections
+                            + " connections to registered instances are in use");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted waiting for a connection to a registered instance", e);
+            }
+            // Idle connections elsewhere give way before another is opened past the cap
+            if (openConnections() >= maxTotalConnections) {
+                pools.values().stream()
+                        .filter(pool -> pool != requester)
+                        .forEach(InstancePool::flushIdle);
+            }
+        }
+
+        @Override
+        public void release() {
+            permits.release();
+        }
+    };
+
+    private int openConnections() {
+        int open = 0;
+        for (InstancePool pool : pools.values()) {
+            open += pool.openConnections();
+        }
+        return open;
+    }
+
+    /**
+     * Builds an Agroal pool for an instance. It starts empty and keeps no
+     * minimum, so idle connections are reaped down to none. The stored URL
+     * is checked again, as the table can be written other than through
+     * {@link #register(RegisteredInstance)}.
+     */
+    AgroalDataSource createPool(RegisteredInstance instance) throws SQLException {
+        PoolSettings settings = settingsOf(instance.getWorkloadClass());
+        String jdbcUrl;
+        try {
+            jdbcUrl = PostgresJdbcUrl.parse(instance.getJdbcUrl()).toString();
+        } catch (IllegalArgumentException e) {
+            throw new SQLException("Registered instance " + instance.getName() + " has an invalid URL: " + e.getMessage());
+        }
+        AgroalConnectionFactoryConfigurationSupplier connectionFactory = new AgroalConnectionFactoryConfigurationSupplier()
+                .connectionProviderClassName("org.postgresql.Driver")
+                .jdbcUrl(jdbcUrl)
+                .principal(new NamePrincipal(instance.getUsername()))
+                .jdbcProperty("ApplicationName", "pg-console");
+        if (instance.getEncryptedPassword() != null) {
+            if (credentials == null) {
+                throw new SQLException("Registered instance " + instance.getName()
+                        + " has a stored password, but pg-console.registry.credential-key is not set");
+            }
+            try {
+                connectionFactory.credential(new SimplePassword(
+                        credentials.decrypt(instance.getName(), instance.getEncryptedPassword())));
+            } catch (IllegalStateException e) {
+                throw new SQLException(e.getMessage(), e);
+            }
+        }
+
+        AgroalDataSourceConfigurationSupplier supplier = new AgroalDataSourceConfigurationSupplier()
+                .metricsEnabled(true)
+                .connectionPoolConfiguration(pool -> pool
+                        .initialSize(0)
+                        .minSize(0)
+                        .maxSize(settings.maxSize())
+                        .acquisitionTimeout(acquisitionTimeout)
+                        .reapTimeout(Duration.ofSeconds(settings.idleSeconds()))
+                        .maxLifetime(Duration.ofMinutes(settings.maxLifetimeMinutes()))
+                        .validationTimeout(Duration.ofMinutes(1))
+                        .connectionValidator(AgroalConnectionPoolConfiguration.ConnectionValidator.defaultValidator())
+                        .connectionFactoryConfiguration(connectionFactory));
+        return AgroalDataSource.from(supplier);
+    }
+
+    private void validate(RegisteredInstance instance) {
+        if (instance == null || instance.getName() == null || !NAME.matcher(instance.getName()).matches()) {
+            throw new IllegalArgumentException(
+                    "name must be 1 to 63 letters, digits, hyphens or underscores, starting with a letter or digit");
+        }
+        if (configuredInstances.contains(instance.getName()) || "default".equals(instance.getName())) {
+            throw new IllegalArgumentException("Instance " + instance.getName() + " is configured and cannot be registered");
+        }
+        instance.setJdbcUrl(PostgresJdbcUrl.parse(instance.getJdbcUrl()).toString());
+        if (instance.getUsername() == null || instance.getUsername().isBlank()) {
+            throw new IllegalArgumentException("username is required");
+        }
+        if (instance.getWorkloadClass() == null || instance.getWorkloadClass().isBlank()) {
+            instance.setWorkloadClass(defaultWorkloadClass);
+        } else if (!instance.getWorkloadClass().equals(defaultWorkloadClass)
+                && !config.registry().workloadClasses().containsKey(instance.getWorkloadClass())) {
+            throw new IllegalArgumentException("Unknown workload class " + instance.getWorkloadClass()
+                    + "; configured classes are " + new TreeMap<>(config.registry().workloadClasses()).keySet());
+        }
+    }
+
+    private void requireActive() {
+        if (!active) {
+            throw new IllegalStateException("The instance registry needs pg-console.registry.enabled and the pgconsole schema");
+        }
+    }
+
+    private void requireSecurity() {
+        if (!securityEnabled) {
+            throw new IllegalStateException(
+                    "Registering and removing instances needs pg-console.security.enabled, so that only admins can");
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        pools.values().forEach(InstancePool::close);
+        pools.clear();
+    }
+}
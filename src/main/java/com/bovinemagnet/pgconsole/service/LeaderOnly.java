@@ -0,0 +1,28 @@
+package com.bovinemagnet.pgconsole.service;
+
+import io.quarkus.scheduler.Scheduled;
+import io.quarkus.scheduler.ScheduledExecution;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Skips a scheduled job on every replica but the one holding its lease.
+ * <p>
+ * Used as {@code @Scheduled(skipExecutionIf = LeaderOnly.class)} on jobs that
+ * must run once per cluster. The job's {@code identity} names its lease.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see ClusterCoordinator#isLeader(String)
+ */
+@ApplicationScoped
+public class LeaderOnly implements Scheduled.SkipPredicate {
+
+    @Inject
+    ClusterCoordinator clusterCoordinator;
+
+    @Override
+    public boolean test(ScheduledExecution execution) {
+        return !clusterCoordinator.isLeader(execution.getTrigger().getId());
+    }
+}
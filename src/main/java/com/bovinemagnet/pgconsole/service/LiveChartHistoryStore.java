@@ -13,6 +13,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
 
 /**
  * In-memory store for live chart history data points.
@@ -169,6 +170,32 @@ public class LiveChartHistoryStore {
         return result;
     }
 
+    /**
+     * Passes each point of an instance sampled within a time range to an
+     * action, oldest first, without copying the points.
+     *
+     * @param instanceId the instance identifier
+     * @param start      start of the range (inclusive)
+     * @param end        end of the range (inclusive)
+     * @param action     receives each point
+     */
+    public void forEachPoint(String instanceId, Instant start, Instant end, Consumer<LiveChartHistoryPoint> action) {
+        ConcurrentLinkedDeque<LiveChartHistoryPoint> deque = instanceId != null ? historyMap.get(instanceId) : null;
+        if (deque == null) {
+            return;
+        }
+        for (LiveChartHistoryPoint p : deque) {
+            Instant sampledAt = p.getSampledAt();
+            if (sampledAt == null || sampledAt.isBefore(start)) {
+                continue;
+            }
+            if (sampledAt.isAfter(end)) {
+                break;
+            }
+            action.accept(p);
+        }
+    }
+
     /**
      * Gets the current number of stored points for an instance.
      *
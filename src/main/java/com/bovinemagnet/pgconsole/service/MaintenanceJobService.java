@@ -0,0 +1,646 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.MaintenanceJob;
+import com.bovinemagnet.pgconsole.model.MaintenanceJob.Status;
+import com.bovinemagnet.pgconsole.model.UnifiedRecommendation;
+import com.bovinemagnet.pgconsole.repository.MaintenanceJobRepository;
+import com.bovinemagnet.pgconsole.repository.MaintenanceWindowRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.jboss.logging.Logger;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs VACUUM, ANALYZE, REINDEX and CLUSTER commands as throttled background
+ * jobs.
+ * <p>
+ * A maintenance command can run for hours and saturate the disks of a busy
+ * server, so it is not run on the request thread. Instead:
+ * <ul>
+ *   <li>Submitted jobs wait in a bounded FIFO queue. With the schema enabled
+ *       the queue is also kept in {@code pgconsole.maintenance_job}, so queued
+ *       jobs are resumed after a restart.</li>
+ *   <li>A fixed pool of workers runs them, at most a set number at once on
+ *       any one instance. A job may also wait for a maintenance window
+ *       covering its instance.</li>
+ *   <li>Each job sets {@code vacuum_cost_delay}, {@code vacuum_cost_limit}
+ *       and {@code maintenance_work_mem} for its session, so that it yields
+ *       I/O to other sessions, and resets them before returning its
+ *       connection to the pool.</li>
+ *   <li>While jobs run, their progress is read from the
+ *       {@code pg_stat_progress_*} view for their command and pushed to
+ *       subscribers of the job.</li>
+ *   <li>A queued job is cancelled by removing it; a running one by
+ *       cancelling its backend.</li>
+ *   <li>With several replicas, each runs the jobs submitted to it. The queued
+ *       jobs of a replica that stops are adopted by the others, and its
+ *       running jobs marked as interrupted.</li>
+ * </ul>
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see MaintenanceJob
+ * @see MaintenanceJobRepository
+ */
+@ApplicationScoped
+public class MaintenanceJobService {
+
+    private static final Logger LOG = Logger.getLogger(MaintenanceJobService.class);
+
+    /** Retry-After hint when a job is refused. */
+    private static final long RETRY_AFTER_SECONDS = 30;
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    MaintenanceJobRepository jobRepository;
+
+    @Inject
+    MaintenanceWindowRepository windowRepository;
+
+    @Inject
+    CatalogSnapshotService catalogSnapshotService;
+
+    @Inject
+    UnifiedRecommendationService unifiedRecommendationService;
+
+    @Inject
+    ClusterCoordinator clusterCoordinator;
+
+    /** Jobs running at once across all instances; package-private for tests. */
+    int workers = 2;
+
+    /** Jobs running at once on one instance; package-private for tests. */
+    int maxPerInstance = 1;
+
+    /** Jobs that may wait to run; package-private for tests. */
+    int queueCapacity = 32;
+
+    /** Default session settings for jobs that do not set their own. */
+    int costDelayMs = 2;
+    int costLimit = 200;
+    int maintenanceWorkMemMb = 0;
+
+    /** How often progress is read and queued jobs reconsidered. */
+    Duration pollInterval = Duration.ofSeconds(2);
+
+    /** How long finished jobs are listed. */
+    Duration resultTtl = Duration.ofMinutes(60);
+
+    /** Whether jobs are recorded in the metadata schema; package-private for tests. */
+    boolean durable;
+
+    private final Map<String, MaintenanceJob> jobs = new ConcurrentHashMap<>();
+
+    // Guarded by this
+    private final Deque<MaintenanceJob> queue = new ArrayDeque<>();
+    private final Map<String, Integer> runningPerInstance = new HashMap<>();
+    private int running;
+
+    private ExecutorService workerPool;
+
+    private ScheduledExecutorService dispatcher;
+
+    /** Live replicas when jobs were last recovered, or null before; used by the dispatcher only. */
+    private Set<String> recoveredMembers;
+
+    @PostConstruct
+    void init() {
+        InstanceConfig.MaintenanceJobsConfig settings = config.maintenanceJobs();
+        workers = Math.max(1, settings.workers());
+        maxPerInstance = Math.max(1, settings.maxPerInstance());
+        queueCapacity = Math.max(1, settings.queueCapacity());
+        costDelayMs = Math.max(0, settings.costDelayMs());
+        costLimit = Math.max(0, settings.costLimit());
+        maintenanceWorkMemMb = Math.max(0, settings.maintenanceWorkMemMb());
+        pollInterval = Duration.ofSeconds(Math.max(1, settings.pollIntervalSeconds()));
+        resultTtl = Duration.ofMinutes(Math.max(1, settings.resultTtlMinutes()));
+        durable = config.schema().enabled();
+        start();
+    }
+
+    /**
+     * Creates the workers and dispatcher from the current settings, and
+     * resumes queued jobs if the queue is durable.
+     */
+    void start() {
+        workerPool = Executors.newFixedThreadPool(workers, daemonThreads("maintenance-job"));
+        dispatcher = Executors.newSingleThreadScheduledExecutor(daemonThreads("maintenance-dispatch"));
+        if (durable) {
+            dispatcher.execute(this::recoverIfNeeded);
+        }
+        long pollMillis = pollInterval.toMillis();
+        dispatcher.scheduleWithFixedDelay(this::tick, pollMillis, pollMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (dispatcher != null) {
+            dispatcher.shutdownNow();
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues a job.
+     *
+     * @param job a newly created job
+     * @return the queued job
+     * @throws IllegalArgumentException if the instance is unknown, the job has
+     *         no statement to run, or it waits for a maintenance window without
+     *         the schema to hold them
+     * @throws ServiceUnavailableException if the queue is full
+     */
+    public MaintenanceJob submit(MaintenanceJob job) {
+        if (job.getStatement() == null) {
+            throw new IllegalArgumentException(job.getTaskType() + " needs a target table");
+        }
+        if (job.isRequireWindow() && !durable) {
+            throw new IllegalArgumentException("Maintenance windows need the pgconsole schema to be enabled");
+        }
+        // Throws for an unknown instance rather than failing once dequeued
+        dataSourceManager.getDataSource(job.getInstanceName());
+        synchronized (this) {
+            if (queue.size() >= queueCapacity) {
+                LOG.warnf("Refusing maintenance job on %s: %d jobs already queued",
+                        job.getInstanceName(), queueCapacity);
+                throw new ServiceUnavailableException("Too many maintenance jobs queued; retry later",
+                        RETRY_AFTER_SECONDS);
+            }
+            if (durable) {
+                jobRepository.insert(job, clusterCoordinator.replicaId());
+            }
+            enqueue(job);
+        }
+        LOG.infof("Queued maintenance job %s on %s: %s", job.getId(), job.getInstanceName(), job.getStatement());
+        requestDispatch();
+        return job;
+    }
+
+    /**
+     * Creates a job id.
+     *
+     * @return a new unique id
+     */
+    public static String newJobId() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Looks up a job.
+     *
+     * @param id the job id
+     * @return the job, or {@code null} if unknown or expired
+     */
+    public MaintenanceJob getJob(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    /**
+     * Returns the jobs submitted to an instance that are queued, running or
+     * recently finished.
+     *
+     * @param instanceName the instance name, or {@code null} for every instance
+     * @return the jobs, most recently submitted first
+     */
+    public List<MaintenanceJob> getJobs(String instanceName) {
+        return jobs.values().stream()
+                .filter(job -> instanceName == null || instanceName.equals(job.getInstanceName()))
+                .sorted(Comparator.comparing(MaintenanceJob::getSubmittedAt).reversed())
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Cancels a job. A queued job is removed from the queue; a running job's
+     * backend is sent {@code pg_cancel_backend}, and the job finishes as
+     * cancelled once its command stops.
+     *
+     * @param job the job
+     * @return {@code false} if the job had already finished
+     */
+    public boolean cancel(MaintenanceJob job) {
+        if (!job.requestCancel()) {
+            return false;
+        }
+        boolean removed;
+        synchronized (this) {
+            removed = queue.remove(job);
+        }
+        if (removed) {
+            finish(job, Status.CANCELLED, "Cancelled before it started");
+            return true;
+        }
+        int pid = job.getBackendPid();
+        if (pid != 0 && job.getStatus() == Status.RUNNING) {
+            try (Connection conn = dataSourceManager.getDataSource(job.getInstanceName()).getConnection();
+                 PreparedStatement stmt = conn.prepareStatement("SELECT pg_cancel_backend(?)")) {
+                stmt.setInt(1, pid);
+                stmt.execute();
+                LOG.infof("Cancelling maintenance job %s (backend %d)", job.getId(), pid);
+            } catch (SQLException e) {
+                LOG.warnf("Could not cancel backend %d of maintenance job %s: %s", pid, job.getId(), e.getMessage());
+            }
+        }
+        // A job taken by a worker but not yet started sees the request before it runs
+        return true;
+    }
+
+    /**
+     * Adds a job to the queue without recording it.
+     */
+    synchronized void enqueue(MaintenanceJob job) {
+        jobs.put(job.getId(), job);
+        queue.addLast(job);
+    }
+
+    /**
+     * Takes the queued jobs that may start now, in submission order: while a
+     * worker is free, each job whose instance is below its running limit and,
+     * if it needs one, has a maintenance window open. Jobs that must wait keep
+     * their place, so a later job for another instance may start first.
+     *
+     * @return the jobs to run, already counted as running
+     */
+    synchronized List<MaintenanceJob> takeRunnable() {
+        List<MaintenanceJob> runnable = new ArrayList<>();
+        Map<String, Boolean> windowOpen = new HashMap<>();
+        Iterator<MaintenanceJob> it = queue.iterator();
+        while (running < workers && it.hasNext()) {
+            MaintenanceJob job = it.next();
+            String instance = job.getInstanceName();
+            if (runningPerInstance.getOrDefault(instance, 0) >= maxPerInstance) {
+                continue;
+            }
+            if (job.isRequireWindow() && !windowOpen.computeIfAbsent(instance, this::isWindowOpen)) {
+                continue;
+            }
+            it.remove();
+            runningPerInstance.merge(instance, 1, Integer::sum);
+            running++;
+            runnable.add(job);
+        }
+        return runnable;
+    }
+
+    /**
+     * Releases the running slot of a job taken by {@link #takeRunnable()}.
+     */
+    synchronized void release(MaintenanceJob job) {
+        runningPerInstance.computeIfPresent(job.getInstanceName(), (instance, count) -> count > 1 ? count - 1 : null);
+        running--;
+    }
+
+    /**
+     * Returns the number of jobs waiting to run.
+     *
+     * @return the queue length
+     */
+    public synchronized int queued() {
+        return queue.size();
+    }
+
+    private boolean isWindowOpen(String instanceName) {
+        try {
+            return windowRepository.isOpenFor(instanceName);
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not read maintenance windows for %s: %s", instanceName, e.getMessage());
+            return false;
+        }
+    }
+
+    private void requestDispatch() {
+        if (dispatcher == null) {
+            // Not started; queued jobs wait for the first tick
+            return;
+        }
+        try {
+            dispatcher.execute(this::dispatch);
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+        }
+    }
+
+    private void dispatch() {
+        for (MaintenanceJob job : takeRunnable()) {
+            try {
+                workerPool.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                release(job);
+                return;
+            }
+        }
+    }
+
+    private void tick() {
+        try {
+            pollProgress();
+        } catch (RuntimeException e) {
+            LOG.debugf(e, "Error reading maintenance job progress");
+        }
+        try {
+            dispatch();
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Error dispatching maintenance jobs");
+        }
+        recoverIfNeeded();
+        evictExpired();
+    }
+
+    /**
+     * Recovers jobs on startup, and again whenever a replica has left.
+     */
+    private void recoverIfNeeded() {
+        if (!durable) {
+            return;
+        }
+        if (recoveredMembers == null) {
+            recover(true);
+        } else if (clusterCoordinator.isActive()
+                && !clusterCoordinator.liveMembers().containsAll(recoveredMembers)) {
+            recover(false);
+        }
+    }
+
+    /**
+     * Fails the running jobs of stopped replicas and adopts their queued
+     * jobs. On startup the jobs left by this replica's previous run are
+     * included.
+     */
+    private void recover(boolean startup) {
+        Set<String> live = clusterCoordinator.liveMembers();
+        if (clusterCoordinator.isActive() && live.isEmpty()) {
+            // No heartbeat yet, so every replica would look stopped
+            return;
+        }
+        Set<String> keep = new HashSet<>(live);
+        if (startup) {
+            keep.remove(clusterCoordinator.replicaId());
+        }
+        try {
+            int interrupted = jobRepository.failInterrupted(keep);
+            if (interrupted > 0) {
+                LOG.warnf("Marked %d maintenance jobs interrupted by a restart as failed", interrupted);
+            }
+            List<MaintenanceJob> queued = jobRepository.adoptQueued(clusterCoordinator.replicaId(), keep);
+            // Jobs submitted here since startup are already queued
+            queued.removeIf(job -> jobs.containsKey(job.getId()));
+            queued.forEach(this::enqueue);
+            if (!queued.isEmpty()) {
+                LOG.infof("Resumed %d queued maintenance jobs", queued.size());
+                dispatch();
+            }
+            recoveredMembers = live;
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Could not resume queued maintenance jobs");
+        }
+    }
+
+    /**
+     * Runs a job on a worker thread.
+     */
+    private void run(MaintenanceJob job) {
+        Status finalStatus = Status.COMPLETED;
+        String message = null;
+        boolean recorded = true;
+        try {
+            if (job.isCancelRequested()) {
+                finalStatus = Status.CANCELLED;
+                message = "Cancelled before it started";
+                return;
+            }
+            DataSource ds = dataSourceManager.getDataSource(job.getInstanceName());
+            try (Connection conn = ds.getConnection()) {
+                // VACUUM cannot run in a transaction, so the settings are made for the session
+                conn.setAutoCommit(true);
+                job.markRunning(backendPid(conn));
+                if (!claimStart(job)) {
+                    finalStatus = Status.CANCELLED;
+                    message = "Taken over by another replica";
+                    recorded = false;
+                    return;
+                }
+                try {
+                    applySettings(conn, job);
+                    if (job.isCancelRequested()) {
+                        finalStatus = Status.CANCELLED;
+                        message = "Cancelled before it started";
+                        return;
+                    }
+                    LOG.infof("Running maintenance job %s on %s: %s", job.getId(), job.getInstanceName(),
+                            job.getStatement());
+                    try (Statement stmt = conn.createStatement()) {
+                        stmt.execute(job.getStatement());
+                    }
+                } finally {
+                    resetSettings(conn);
+                }
+            }
+            catalogSnapshotService.invalidate(job.getInstanceName());
+            unifiedRecommendationService.invalidate(job.getInstanceName(), UnifiedRecommendation.Source.TABLE_MAINTENANCE);
+            unifiedRecommendationService.invalidate(job.getInstanceName(), UnifiedRecommendation.Source.INDEX_ADVISOR);
+        } catch (SQLException | RuntimeException e) {
+            finalStatus = job.isCancelRequested() ? Status.CANCELLED : Status.FAILED;
+            message = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            if (finalStatus == Status.FAILED) {
+                LOG.errorf(e, "Maintenance job %s failed", job.getId());
+            }
+        } finally {
+            release(job);
+            if (recorded) {
+                finish(job, finalStatus, message);
+            } else {
+                job.markFinished(finalStatus, message);
+            }
+            requestDispatch();
+        }
+        LOG.infof("Maintenance job %s %s in %d ms", job.getId(), job.getStatus().name().toLowerCase(),
+                job.getDurationMs());
+    }
+
+    private void finish(MaintenanceJob job, Status finalStatus, String message) {
+        job.markFinished(finalStatus, message);
+        persist(job);
+    }
+
+    private void persist(MaintenanceJob job) {
+        if (!durable) {
+            return;
+        }
+        try {
+            jobRepository.markFinished(job);
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not record maintenance job %s: %s", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Records that a job has started, unless another replica has adopted it
+     * since it was queued here. If the start cannot be recorded the job runs
+     * anyway.
+     */
+    private boolean claimStart(MaintenanceJob job) {
+        if (!durable) {
+            return true;
+        }
+        try {
+            if (jobRepository.markRunning(job, clusterCoordinator.replicaId())) {
+                return true;
+            }
+            LOG.infof("Maintenance job %s was taken over by another replica", job.getId());
+            return false;
+        } catch (RuntimeException e) {
+            LOG.warnf("Could not record maintenance job %s: %s", job.getId(), e.getMessage());
+            return true;
+        }
+    }
+
+    private static int backendPid(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT pg_backend_pid()")) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    /**
+     * Sets the job's throttling and memory for its session. A zero cost limit
+     * or memory keeps the server setting; a zero delay disables throttling.
+     */
+    private void applySettings(Connection conn, MaintenanceJob job) throws SQLException {
+        int delay = job.getCostDelayMs() != null ? job.getCostDelayMs() : costDelayMs;
+        int limit = job.getCostLimit() != null ? job.getCostLimit() : costLimit;
+        int workMem = job.getMaintenanceWorkMemMb() != null ? job.getMaintenanceWorkMemMb() : maintenanceWorkMemMb;
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT set_config(?, ?, false)")) {
+            setConfig(stmt, "application_name", "pg-console maintenance " + job.getId());
+            setConfig(stmt, "vacuum_cost_delay", Math.max(0, delay) + "ms");
+            if (limit > 0) {
+                setConfig(stmt, "vacuum_cost_limit", Integer.toString(limit));
+            }
+            if (workMem > 0) {
+                setConfig(stmt, "maintenance_work_mem", workMem + "MB");
+            }
+        }
+    }
+
+    private static void setConfig(PreparedStatement stmt, String name, String value) throws SQLException {
+        stmt.setString(1, name);
+        stmt.setString(2, value);
+        stmt.execute();
+    }
+
+    /**
+     * Restores the pooled connection's settings. A failure here is logged, not
+     * thrown, so that it cannot mask the job's own outcome.
+     */
+    private static void resetSettings(Connection conn) {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.execute("RESET ALL");
+        } catch (SQLException e) {
+            LOG.warnf("Could not reset maintenance session settings: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads the progress of each running job from the view reporting its
+     * command, one connection per instance.
+     */
+    void pollProgress() {
+        Map<String, List<MaintenanceJob>> byInstance = jobs.values().stream()
+                .filter(job -> job.getStatus() == Status.RUNNING && job.getBackendPid() != 0)
+                .collect(Collectors.groupingBy(MaintenanceJob::getInstanceName));
+        byInstance.forEach((instance, runningJobs) -> {
+            try (Connection conn = dataSourceManager.getDataSource(instance).getConnection()) {
+                for (MaintenanceJob job : runningJobs) {
+                    readProgress(conn, job);
+                }
+            } catch (SQLException e) {
+                LOG.debugf("Could not read maintenance progress on %s: %s", instance, e.getMessage());
+            }
+        });
+    }
+
+    private static void readProgress(Connection conn, MaintenanceJob job) {
+        String sql = progressQuery(job);
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, job.getBackendPid());
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next()) {
+                    job.updateProgress(rs.getString(1), rs.getString(2), rs.getLong(3), rs.getLong(4));
+                }
+            }
+        } catch (SQLException e) {
+            // The view is missing on older servers; the job still runs without progress
+            LOG.debugf("Could not read progress of maintenance job %s: %s", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Returns the query reading a job's phase, relation and blocks processed
+     * from the progress view for its command.
+     */
+    static String progressQuery(MaintenanceJob job) {
+        String columns = switch (job.getTaskType()) {
+            case VACUUM -> "heap_blks_scanned, heap_blks_total FROM pg_stat_progress_vacuum";
+            case VACUUM_FULL, CLUSTER -> "heap_blks_scanned, heap_blks_total FROM pg_stat_progress_cluster";
+            case ANALYSE -> "sample_blks_scanned, sample_blks_total FROM pg_stat_progress_analyze";
+            case REINDEX -> "blocks_done, blocks_total FROM pg_stat_progress_create_index";
+        };
+        return "SELECT phase, relid::regclass::text, " + columns + " WHERE pid = ?";
+    }
+
+    /**
+     * Forgets finished jobs older than the result TTL. Their history remains
+     * in the queue table when it is durable.
+     */
+    void evictExpired() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> job.isFinished() && job.getCompletedAt().isBefore(cutoff));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -7,17 +7,19 @@ import com.bovinemagnet.pgconsole.model.LiveChartHistoryPoint;
 import com.bovinemagnet.pgconsole.model.MetricsSnapshot;
 import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
-import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
 import com.bovinemagnet.pgconsole.model.TimeSeriesResult;
 import com.bovinemagnet.pgconsole.repository.HistoryRepository;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * Bridge service that routes metrics history queries to either the in-memory
@@ -30,6 +32,11 @@ import java.util.List;
  * <p>
  * Also provides snapshot capture for the stopwatch feature and aggregated
  * metrics for the comparison window feature.
+ * <p>
+ * Persisted history is aggregated in SQL where only a summary is needed.
+ * Charts read their points through a server-side cursor, from the start of
+ * the requested window rather than the whole hour, without first building
+ * a list of history rows.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -108,26 +115,25 @@ public class MetricsHistoryBridgeService {
     }
 
     private TimeSeriesResult getConnectionsFromPersisted(String instanceId, int minutes) {
-        int hours = Math.max(1, (minutes + 59) / 60);
-        List<SystemMetricsHistory> history = historyRepository.getSystemMetricsHistory(instanceId, hours);
-
         TimeSeriesResult result = new TimeSeriesResult();
         result.setDataSource("persisted");
         result.setResolutionSeconds(config.history().intervalSeconds());
 
-        List<Long> timestamps = new ArrayList<>(history.size());
-        List<Double> active = new ArrayList<>(history.size());
-        List<Double> idle = new ArrayList<>(history.size());
-        List<Double> idleInTxn = new ArrayList<>(history.size());
+        List<Long> timestamps = new ArrayList<>();
+        List<Double> active = new ArrayList<>();
+        List<Double> idle = new ArrayList<>();
+        List<Double> idleInTxn = new ArrayList<>();
 
         Instant cutoff = Instant.now().minusSeconds((long) minutes * 60);
-        for (SystemMetricsHistory m : history) {
-            if (m.getSampledAt().isBefore(cutoff)) continue;
-            timestamps.add(m.getSampledAt().toEpochMilli());
-            active.add((double) m.getActiveQueries());
-            idle.add((double) m.getIdleConnections());
-            idleInTxn.add((double) m.getIdleInTransaction());
-        }
+        historyRepository.streamSystemMetrics(instanceId, cutoff, fetchSize(), rs -> {
+            while (rs.next()) {
+                timestamps.add(rs.getTimestamp("sampled_at").getTime());
+                active.add((double) rs.getInt("active_queries"));
+                idle.add((double) rs.getInt("idle_connections"));
+                idleInTxn.add((double) rs.getInt("idle_in_transaction"));
+            }
+            return null;
+        });
 
         result.setTimestamps(timestamps);
         result.addSeries("active", active);
@@ -187,9 +193,6 @@ public class MetricsHistoryBridgeService {
     }
 
     private TimeSeriesResult getTransactionsFromPersisted(String instanceId, int minutes) {
-        int hours = Math.max(1, (minutes + 59) / 60);
-        List<DatabaseMetricsHistory> history = historyRepository.getAggregatedDatabaseMetricsHistory(instanceId, hours);
-
         TimeSeriesResult result = new TimeSeriesResult();
         result.setDataSource("persisted");
         result.setResolutionSeconds(config.history().intervalSeconds());
@@ -199,25 +202,28 @@ public class MetricsHistoryBridgeService {
         List<Double> rollbacksRate = new ArrayList<>();
 
         Instant cutoff = Instant.now().minusSeconds((long) minutes * 60);
-        DatabaseMetricsHistory prev = null;
-
-        for (DatabaseMetricsHistory curr : history) {
-            if (curr.getSampledAt().isBefore(cutoff)) {
-                prev = curr;
-                continue;
-            }
-            if (prev != null) {
-                double seconds = Duration.between(prev.getSampledAt(), curr.getSampledAt()).toMillis() / 1000.0;
-                if (seconds > 0) {
-                    double cRate = Math.max(0, (curr.getXactCommit() - prev.getXactCommit()) / seconds);
-                    double rRate = Math.max(0, (curr.getXactRollback() - prev.getXactRollback()) / seconds);
-                    timestamps.add(curr.getSampledAt().toEpochMilli());
-                    commitsRate.add(Math.round(cRate * 10.0) / 10.0);
-                    rollbacksRate.add(Math.round(rRate * 10.0) / 10.0);
+        historyRepository.streamAggregatedDatabaseMetrics(instanceId, rateSeedCutoff(cutoff), fetchSize(), rs -> {
+            Instant prevAt = null;
+            long prevCommit = 0;
+            long prevRollback = 0;
+            while (rs.next()) {
+                Instant sampledAt = rs.getTimestamp("sampled_at").toInstant();
+                long commit = rs.getLong("xact_commit");
+                long rollback = rs.getLong("xact_rollback");
+                if (prevAt != null && !sampledAt.isBefore(cutoff)) {
+                    double seconds = Duration.between(prevAt, sampledAt).toMillis() / 1000.0;
+                    if (seconds > 0) {
+                        timestamps.add(sampledAt.toEpochMilli());
+                        commitsRate.add(roundedRate(commit - prevCommit, seconds));
+                        rollbacksRate.add(roundedRate(rollback - prevRollback, seconds));
+                    }
                 }
+                prevAt = sampledAt;
+                prevCommit = commit;
+                prevRollback = rollback;
             }
-            prev = curr;
-        }
+            return null;
+        });
 
         result.setTimestamps(timestamps);
         result.addSeries("commitsRate", commitsRate);
@@ -280,9 +286,6 @@ public class MetricsHistoryBridgeService {
     }
 
     private TimeSeriesResult getTuplesFromPersisted(String instanceId, int minutes) {
-        int hours = Math.max(1, (minutes + 59) / 60);
-        List<DatabaseMetricsHistory> history = historyRepository.getAggregatedDatabaseMetricsHistory(instanceId, hours);
-
         TimeSeriesResult result = new TimeSeriesResult();
         result.setDataSource("persisted");
         result.setResolutionSeconds(config.history().intervalSeconds());
@@ -293,27 +296,32 @@ public class MetricsHistoryBridgeService {
         List<Double> deletesRate = new ArrayList<>();
 
         Instant cutoff = Instant.now().minusSeconds((long) minutes * 60);
-        DatabaseMetricsHistory prev = null;
-
-        for (DatabaseMetricsHistory curr : history) {
-            if (curr.getSampledAt().isBefore(cutoff)) {
-                prev = curr;
-                continue;
-            }
-            if (prev != null) {
-                double seconds = Duration.between(prev.getSampledAt(), curr.getSampledAt()).toMillis() / 1000.0;
-                if (seconds > 0) {
-                    double iRate = Math.max(0, safeSubtract(curr.getTupInserted(), prev.getTupInserted()) / seconds);
-                    double uRate = Math.max(0, safeSubtract(curr.getTupUpdated(), prev.getTupUpdated()) / seconds);
-                    double dRate = Math.max(0, safeSubtract(curr.getTupDeleted(), prev.getTupDeleted()) / seconds);
-                    timestamps.add(curr.getSampledAt().toEpochMilli());
-                    insertsRate.add(Math.round(iRate * 10.0) / 10.0);
-                    updatesRate.add(Math.round(uRate * 10.0) / 10.0);
-                    deletesRate.add(Math.round(dRate * 10.0) / 10.0);
+        historyRepository.streamAggregatedDatabaseMetrics(instanceId, rateSeedCutoff(cutoff), fetchSize(), rs -> {
+            Instant prevAt = null;
+            Long prevInserted = null;
+            Long prevUpdated = null;
+            Long prevDeleted = null;
+            while (rs.next()) {
+                Instant sampledAt = rs.getTimestamp("sampled_at").toInstant();
+                Long inserted = longOrNull(rs, "tup_inserted");
+                Long updated = longOrNull(rs, "tup_updated");
+                Long deleted = longOrNull(rs, "tup_deleted");
+                if (prevAt != null && !sampledAt.isBefore(cutoff)) {
+                    double seconds = Duration.between(prevAt, sampledAt).toMillis() / 1000.0;
+                    if (seconds > 0) {
+                        timestamps.add(sampledAt.toEpochMilli());
+                        insertsRate.add(roundedRate(safeSubtract(inserted, prevInserted), seconds));
+                        updatesRate.add(roundedRate(safeSubtract(updated, prevUpdated), seconds));
+                        deletesRate.add(roundedRate(safeSubtract(deleted, prevDeleted), seconds));
+                    }
                 }
+                prevAt = sampledAt;
+                prevInserted = inserted;
+                prevUpdated = updated;
+                prevDeleted = deleted;
             }
-            prev = curr;
-        }
+            return null;
+        });
 
         result.setTimestamps(timestamps);
         result.addSeries("insertsRate", insertsRate);
@@ -365,25 +373,26 @@ public class MetricsHistoryBridgeService {
     }
 
     private TimeSeriesResult getCacheFromPersisted(String instanceId, int minutes) {
-        int hours = Math.max(1, (minutes + 59) / 60);
-        List<SystemMetricsHistory> history = historyRepository.getSystemMetricsHistory(instanceId, hours);
-
         TimeSeriesResult result = new TimeSeriesResult();
         result.setDataSource("persisted");
         result.setResolutionSeconds(config.history().intervalSeconds());
 
-        List<Long> timestamps = new ArrayList<>(history.size());
-        List<Double> bufferHit = new ArrayList<>(history.size());
-        List<Double> indexHit = new ArrayList<>(history.size());
+        List<Long> timestamps = new ArrayList<>();
+        List<Double> bufferHit = new ArrayList<>();
+        List<Double> indexHit = new ArrayList<>();
 
         Instant cutoff = Instant.now().minusSeconds((long) minutes * 60);
-        for (SystemMetricsHistory m : history) {
-            if (m.getSampledAt().isBefore(cutoff)) continue;
-            timestamps.add(m.getSampledAt().toEpochMilli());
-            bufferHit.add(m.getCacheHitRatio() != null ? Math.round(m.getCacheHitRatio() * 100.0) / 100.0 : 0.0);
-            // System metrics don't have separate index cache; use same value
-            indexHit.add(m.getCacheHitRatio() != null ? Math.round(m.getCacheHitRatio() * 100.0) / 100.0 : 0.0);
-        }
+        historyRepository.streamSystemMetrics(instanceId, cutoff, fetchSize(), rs -> {
+            while (rs.next()) {
+                double ratio = rs.getDouble("cache_hit_ratio");
+                double rounded = rs.wasNull() ? 0.0 : Math.round(ratio * 100.0) / 100.0;
+                timestamps.add(rs.getTimestamp("sampled_at").getTime());
+                bufferHit.add(rounded);
+                // System metrics don't have separate index cache; use same value
+                indexHit.add(rounded);
+            }
+            return null;
+        });
 
         result.setTimestamps(timestamps);
         result.addSeries("bufferHitRatio", bufferHit);
@@ -439,7 +448,10 @@ public class MetricsHistoryBridgeService {
     /**
      * Gets aggregated system metrics over a time window.
      * <p>
-     * Computes averages of key metrics from persisted history data.
+     * With persisted history the averages are computed in SQL, and rates come
+     * from the first and last database samples in the window, so no rows are
+     * loaded however long the window is. Without it, the in-memory store's
+     * points are folded into running totals; it holds at most 24 hours.
      * Used by the comparison window feature.
      *
      * @param instanceId the instance identifier
@@ -448,63 +460,22 @@ public class MetricsHistoryBridgeService {
      * @return aggregated metrics for the window
      */
     public AggregatedMetrics getAggregatedMetrics(String instanceId, Instant start, Instant end) {
-        AggregatedMetrics agg = new AggregatedMetrics();
-        agg.setWindowStart(start);
-        agg.setWindowEnd(end);
-
-        int hours = (int) Math.ceil(Duration.between(start, Instant.now()).toHours()) + 1;
-        List<SystemMetricsHistory> systemHistory = historyRepository.getSystemMetricsHistory(instanceId, hours);
-
-        // Filter to our window
-        List<SystemMetricsHistory> windowData = systemHistory.stream()
-                .filter(m -> !m.getSampledAt().isBefore(start) && !m.getSampledAt().isAfter(end))
-                .toList();
-
-        if (windowData.isEmpty()) {
-            agg.setSampleCount(0);
-            return agg;
+        if (!isPersistedStorageAvailable()) {
+            return getAggregatedMetricsFromMemory(instanceId, start, end);
         }
 
-        agg.setSampleCount(windowData.size());
-        agg.setAvgTotalConnections(windowData.stream().mapToDouble(SystemMetricsHistory::getTotalConnections).average().orElse(0));
-        agg.setAvgActiveQueries(windowData.stream().mapToDouble(SystemMetricsHistory::getActiveQueries).average().orElse(0));
-        agg.setAvgBlockedQueries(windowData.stream().mapToDouble(SystemMetricsHistory::getBlockedQueries).average().orElse(0));
-        agg.setAvgIdleInTransaction(windowData.stream().mapToDouble(SystemMetricsHistory::getIdleInTransaction).average().orElse(0));
-
-        double cacheSum = 0;
-        int cacheCount = 0;
-        for (SystemMetricsHistory m : windowData) {
-            if (m.getCacheHitRatio() != null) {
-                cacheSum += m.getCacheHitRatio();
-                cacheCount++;
-            }
+        AggregatedMetrics agg = historyRepository.aggregateSystemMetrics(instanceId, start, end);
+        if (agg.getSampleCount() == 0) {
+            return agg;
         }
-        agg.setAvgCacheHitRatio(cacheCount > 0 ? cacheSum / cacheCount : null);
-
-        Double avgLongest = windowData.stream()
-                .filter(m -> m.getLongestQuerySeconds() != null)
-                .mapToDouble(SystemMetricsHistory::getLongestQuerySeconds)
-                .average()
-                .orElse(0);
-        agg.setAvgLongestQuerySeconds(avgLongest);
-
-        Long avgSize = windowData.stream()
-                .filter(m -> m.getTotalDatabaseSizeBytes() != null)
-                .mapToLong(SystemMetricsHistory::getTotalDatabaseSizeBytes)
-                .reduce(0L, Long::sum);
-        long sizeCount = windowData.stream().filter(m -> m.getTotalDatabaseSizeBytes() != null).count();
-        agg.setAvgDatabaseSizeBytes(sizeCount > 0 ? avgSize / sizeCount : null);
 
         // Rate metrics (M20): system_metrics_history has no commit/tuple counters, so
         // derive the five rates from the cumulative pg_stat_database counters in
         // database_metrics_history as (last - first) / elapsed seconds over the window.
-        List<DatabaseMetricsHistory> dbWindow = historyRepository
-                .getAggregatedDatabaseMetricsHistory(instanceId, hours).stream()
-                .filter(m -> !m.getSampledAt().isBefore(start) && !m.getSampledAt().isAfter(end))
-                .toList();
-        if (dbWindow.size() >= 2) {
-            DatabaseMetricsHistory first = dbWindow.get(0);
-            DatabaseMetricsHistory last = dbWindow.get(dbWindow.size() - 1);
+        List<DatabaseMetricsHistory> bounds = historyRepository.getDatabaseCounterBounds(instanceId, start, end);
+        if (bounds.size() >= 2) {
+            DatabaseMetricsHistory first = bounds.get(0);
+            DatabaseMetricsHistory last = bounds.get(bounds.size() - 1);
             double seconds = Duration.between(first.getSampledAt(), last.getSampledAt()).toSeconds();
             if (seconds > 0) {
                 agg.setAvgCommitRate(rate(first.getXactCommit(), last.getXactCommit(), seconds));
@@ -518,6 +489,61 @@ public class MetricsHistoryBridgeService {
         return agg;
     }
 
+    private AggregatedMetrics getAggregatedMetricsFromMemory(String instanceId, Instant start, Instant end) {
+        MemoryWindow window = new MemoryWindow();
+        liveChartHistoryStore.forEachPoint(instanceId, start, end, window);
+
+        AggregatedMetrics agg = new AggregatedMetrics();
+        agg.setWindowStart(start);
+        agg.setWindowEnd(end);
+        agg.setSampleCount(window.count);
+        if (window.count == 0) {
+            return agg;
+        }
+
+        agg.setAvgTotalConnections((window.active + window.idle + window.idleInTransaction) / window.count);
+        agg.setAvgActiveQueries(window.active / window.count);
+        agg.setAvgIdleInTransaction(window.idleInTransaction / window.count);
+        agg.setAvgCacheHitRatio(window.bufferCacheHitRatio / window.count);
+
+        double seconds = Duration.between(window.first.getSampledAt(), window.last.getSampledAt()).toSeconds();
+        if (seconds > 0) {
+            agg.setAvgCommitRate(Math.max(0, window.last.getCommits() - window.first.getCommits()) / seconds);
+            agg.setAvgRollbackRate(Math.max(0, window.last.getRollbacks() - window.first.getRollbacks()) / seconds);
+            agg.setAvgInsertRate(Math.max(0, window.last.getInserted() - window.first.getInserted()) / seconds);
+            agg.setAvgUpdateRate(Math.max(0, window.last.getUpdated() - window.first.getUpdated()) / seconds);
+            agg.setAvgDeleteRate(Math.max(0, window.last.getDeleted() - window.first.getDeleted()) / seconds);
+        }
+        return agg;
+    }
+
+    /**
+     * Running totals of the in-memory points in a window, so that averaging
+     * them needs neither a copy of the points nor boxed values.
+     */
+    private static final class MemoryWindow implements Consumer<LiveChartHistoryPoint> {
+        int count;
+        double active;
+        double idle;
+        double idleInTransaction;
+        double bufferCacheHitRatio;
+        LiveChartHistoryPoint first;
+        LiveChartHistoryPoint last;
+
+        @Override
+        public void accept(LiveChartHistoryPoint point) {
+            if (first == null) {
+                first = point;
+            }
+            last = point;
+            count++;
+            active += point.getActive();
+            idle += point.getIdle();
+            idleInTransaction += point.getIdleInTransaction();
+            bufferCacheHitRatio += point.getBufferCacheHitRatio();
+        }
+    }
+
     /**
      * Computes a per-second rate from two cumulative counter readings. A negative
      * delta (a stats reset between samples) yields 0 rather than a nonsensical
@@ -534,6 +560,7 @@ public class MetricsHistoryBridgeService {
 
     /**
      * Returns the total data point count, combining in-memory and persisted counts.
+     * Persisted samples are counted in SQL.
      *
      * @param instanceId the instance identifier
      * @param minutes    the time window in minutes
@@ -543,10 +570,32 @@ public class MetricsHistoryBridgeService {
         if (minutes <= IN_MEMORY_THRESHOLD_MINUTES || !isPersistedStorageAvailable()) {
             return liveChartHistoryStore.getPointCount(instanceId);
         }
-        int hours = Math.max(1, (minutes + 59) / 60);
-        List<SystemMetricsHistory> history = historyRepository.getSystemMetricsHistory(instanceId, hours);
-        Instant cutoff = Instant.now().minusSeconds((long) minutes * 60);
-        return (int) history.stream().filter(m -> !m.getSampledAt().isBefore(cutoff)).count();
+        return historyRepository.countSystemMetrics(instanceId, Instant.now().minusSeconds((long) minutes * 60));
+    }
+
+    private int fetchSize() {
+        return config.history().exportFetchSize();
+    }
+
+    /**
+     * Returns how far back to read counters for a rate chart starting at the
+     * cutoff, so that the first point in the window has a previous sample.
+     */
+    private Instant rateSeedCutoff(Instant cutoff) {
+        return cutoff.minusSeconds(2L * config.history().intervalSeconds());
+    }
+
+    /**
+     * Converts a counter delta to a per-second rate rounded to one decimal
+     * place, treating a negative delta (a stats reset) as 0.
+     */
+    private static double roundedRate(double delta, double seconds) {
+        return Math.round(Math.max(0, delta / seconds) * 10.0) / 10.0;
+    }
+
+    private static Long longOrNull(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
     }
 
     /**
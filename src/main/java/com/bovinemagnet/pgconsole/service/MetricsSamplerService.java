@@ -6,6 +6,7 @@ import com.bovinemagnet.pgconsole.model.InfrastructureMetricsHistory;
 import com.bovinemagnet.pgconsole.model.QueryMetricsHistory;
 import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
 import com.bovinemagnet.pgconsole.repository.HistoryRepository;
+import com.bovinemagnet.pgconsole.repository.StatementHistoryRepository;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -13,6 +14,7 @@ import org.jboss.logging.Logger;
 
 import java.sql.*;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 /**
@@ -33,26 +35,42 @@ public class MetricsSamplerService {
     HistoryRepository historyRepository;
 
     @Inject
-    InstanceConfig config;
+    StatementHistoryRepository statementHistoryRepository;
 
     @Inject
-    PostgresService postgresService;
+    InstanceConfig config;
 
     @Inject
     AlertingService alertingService;
 
+    @Inject
+    SparklineService sparklineService;
+
+    @Inject
+    ResponseVersionService responseVersionService;
+
+    @Inject
+    ClusterCoordinator clusterCoordinator;
+
+    @Inject
+    StatementHeavyHitterService statementHeavyHitterService;
+
     /**
      * Samples system metrics every minute (configurable via cron).
-     * Iterates over all configured instances and captures system, query, and database metrics.
-     * Also performs alerting threshold checks if alerting is enabled.
+     * Iterates over all configured instances and captures system, query, and database metrics,
+     * and the heavy-hitter statements since the previous sample.
+     * Also evaluates the alerting rules against the sampled values if alerting is enabled.
      * <p>
      * This method is scheduled to run at regular intervals and will skip concurrent execution
      * to prevent overlapping runs. Failed sampling for individual instances is logged but
-     * does not prevent sampling of other instances.
+     * does not prevent sampling of other instances. When several replicas share
+     * the metadata database, each samples only the instances it owns.
      *
-     * @see #sampleSystemMetrics(String)
-     * @see #sampleQueryMetrics(String)
+     * @see ClusterCoordinator#owns(String)
+     * @see #sampleSystemMetrics(String, boolean)
+     * @see #sampleQueryMetrics(String, AlertRuleEngine.Sample)
      * @see #sampleDatabaseMetrics(String)
+     * @see StatementHeavyHitterService#sample(String)
      */
     @Scheduled(every = "${pg-console.history.interval-seconds:60}s",
                concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
@@ -64,17 +82,25 @@ public class MetricsSamplerService {
 
         List<String> instances = dataSourceManager.getAvailableInstances();
         for (String instanceId : instances) {
+            if (!clusterCoordinator.owns(instanceId)) {
+                statementHeavyHitterService.forget(instanceId);
+                continue;
+            }
             try {
-                sampleSystemMetrics(instanceId);
-                sampleQueryMetrics(instanceId);
+                AlertRuleEngine.Sample sample = sampleSystemMetrics(instanceId, config.alerting().enabled());
+                sampleQueryMetrics(instanceId, sample);
+                if (config.history().heavyHitters().enabled()) {
+                    statementHeavyHitterService.sample(instanceId);
+                }
                 sampleDatabaseMetrics(instanceId);
                 sampleInfrastructureMetrics(instanceId);
+                sparklineService.invalidate(instanceId);
+                responseVersionService.bump(ResponseVersionService.Source.SAMPLES, instanceId);
 
-                // Check alerting thresholds
-                if (config.alerting().enabled()) {
+                // Check alerting thresholds against the sample just collected
+                if (sample != null) {
                     try {
-                        var stats = postgresService.getOverviewStats(instanceId);
-                        alertingService.checkAndAlert(instanceId, stats);
+                        alertingService.evaluate(instanceId, sample);
                     } catch (Exception e) {
                         LOG.debugf("Failed to check alerts for instance %s: %s", instanceId, e.getMessage());
                     }
@@ -96,8 +122,9 @@ public class MetricsSamplerService {
      * This operation is performed once daily and skips concurrent execution to prevent
      * overlapping cleanup runs.
      */
-    @Scheduled(cron = "0 0 3 * * ?",
-               concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    @Scheduled(cron = "0 0 3 * * ?", identity = "history-cleanup",
+               concurrentExecution = Scheduled.ConcurrentExecution.SKIP,
+               skipExecutionIf = LeaderOnly.class)
     void cleanupOldData() {
         // Skip if schema is disabled (read-only mode) or history is disabled
         if (!config.schema().enabled() || !config.history().enabled()) {
@@ -107,6 +134,7 @@ public class MetricsSamplerService {
         try {
             int retentionDays = config.history().retentionDays();
             int deleted = historyRepository.deleteOldData(retentionDays);
+            deleted += statementHistoryRepository.deleteOlderThan(Instant.now().minus(retentionDays, ChronoUnit.DAYS));
             LOG.infof("Cleaned up %d old history records (retention: %d days)", deleted, retentionDays);
         } catch (Exception e) {
             LOG.error("Failed to cleanup old history data", e);
@@ -117,28 +145,15 @@ public class MetricsSamplerService {
      * Samples system-level metrics for a single instance.
      * Captures connection counts, active query counts, cache hit ratios, and database sizes.
      * <p>
-     * The metrics are persisted to the history repository for trend analysis and alerting.
+     * The metrics are persisted to the history repository for trend analysis. When alerting
+     * is enabled the same query also returns the columns the alert rules need.
      *
      * @param instanceId the database instance identifier
+     * @param alerting whether to build a sample for the alert rules
+     * @return the alert sample, or null if alerting is disabled or sampling failed
      */
-    private void sampleSystemMetrics(String instanceId) {
-        String sql = """
-            SELECT
-                (SELECT count(*) FROM pg_stat_activity) as total_connections,
-                (SELECT setting::int FROM pg_settings WHERE name = 'max_connections') as max_connections,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as active_queries,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle') as idle_connections,
-                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle in transaction') as idle_in_transaction,
-                (SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock') as blocked_queries,
-                (SELECT EXTRACT(EPOCH FROM max(now() - query_start)) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as longest_query_seconds,
-                (SELECT EXTRACT(EPOCH FROM max(now() - xact_start)) FROM pg_stat_activity WHERE xact_start IS NOT NULL) as longest_transaction_seconds,
-                (SELECT
-                    CASE WHEN sum(blks_hit) + sum(blks_read) > 0
-                    THEN (sum(blks_hit) * 100.0) / (sum(blks_hit) + sum(blks_read))
-                    ELSE 100.0 END
-                FROM pg_stat_database) as cache_hit_ratio,
-                (SELECT sum(pg_database_size(datname)) FROM pg_database WHERE datistemplate = false) as total_database_size_bytes
-            """;
+    private AlertRuleEngine.Sample sampleSystemMetrics(String instanceId, boolean alerting) {
+        String sql = alerting ? SystemMetricsQuery.WITH_ALERTING_SQL : SystemMetricsQuery.SQL;
 
         try (Connection conn = dataSourceManager.getDataSource(instanceId).getConnection();
              Statement stmt = conn.createStatement();
@@ -159,10 +174,15 @@ public class MetricsSamplerService {
                 metrics.setTotalDatabaseSizeBytes(getLongOrNull(rs, "total_database_size_bytes"));
 
                 historyRepository.saveSystemMetrics(instanceId, metrics);
+
+                if (alerting) {
+                    return SystemMetricsQuery.readAlertSample(rs, metrics);
+                }
             }
         } catch (SQLException e) {
             LOG.warnf(e, "Failed to sample system metrics for %s", instanceId);
         }
+        return null;
     }
 
     /**
@@ -172,10 +192,13 @@ public class MetricsSamplerService {
      * <p>
      * The number of top queries captured is configurable via {@code pg-console.history.top-queries}.
      * Queries containing 'pg_stat_statements' or 'pg_console' are excluded from capture.
+     * The largest mean execution time across all statements is read in the same query
+     * and recorded on the alert sample.
      *
      * @param instanceId the database instance identifier
+     * @param sample the alert sample to complete, or null if alerting is disabled
      */
-    private void sampleQueryMetrics(String instanceId) {
+    private void sampleQueryMetrics(String instanceId, AlertRuleEngine.Sample sample) {
         String sql = """
             SELECT
                 md5(query) as query_id,
@@ -189,7 +212,8 @@ public class MetricsSamplerService {
                 stddev_exec_time as stddev_time_ms,
                 shared_blks_hit,
                 shared_blks_read,
-                temp_blks_written
+                temp_blks_written,
+                (SELECT max(mean_exec_time) FROM pg_stat_statements WHERE calls > 0) as max_mean_time_ms
             FROM pg_stat_statements
             WHERE query NOT LIKE '%pg_stat_statements%'
               AND query NOT LIKE '%pg_console%'
@@ -203,7 +227,12 @@ public class MetricsSamplerService {
             stmt.setInt(1, config.history().topQueries());
 
             try (ResultSet rs = stmt.executeQuery()) {
+                boolean first = true;
                 while (rs.next()) {
+                    if (first && sample != null) {
+                        sample.set(AlertRuleEngine.Metric.QUERY_MEAN_TIME_MS, rs.getDouble("max_mean_time_ms"));
+                    }
+                    first = false;
                     QueryMetricsHistory metrics = new QueryMetricsHistory();
                     metrics.setSampledAt(Instant.now());
                     metrics.setQueryId(rs.getString("query_id"));
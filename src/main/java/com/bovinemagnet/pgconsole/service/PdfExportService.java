@@ -4,11 +4,16 @@ import com.bovinemagnet.pgconsole.model.ObjectDifference;
 import com.bovinemagnet.pgconsole.model.Runbook;
 import com.bovinemagnet.pgconsole.model.RunbookExecution;
 import com.bovinemagnet.pgconsole.model.SchemaComparisonResult;
+import com.openhtmltopdf.extend.FSCacheEx;
+import com.openhtmltopdf.extend.FSCacheValue;
+import com.openhtmltopdf.extend.impl.FSDefaultCacheStore;
 import com.openhtmltopdf.pdfboxout.PdfRendererBuilder;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.jboss.logging.Logger;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZoneId;
@@ -19,6 +24,10 @@ import java.time.format.DateTimeFormatter;
  * <p>
  * Uses OpenHTMLtoPDF to convert HTML to PDF format with proper
  * styling for print output including page breaks, headers, and footers.
+ * <p>
+ * Exports served over HTTP should go through {@link PdfRenderService}, which
+ * renders off the request thread within bounded memory; the
+ * {@code generate*Pdf} methods render synchronously into memory.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -28,6 +37,28 @@ public class PdfExportService {
 
     private static final Logger LOG = Logger.getLogger(PdfExportService.class);
 
+    /**
+     * Font metrics shared between renders. Without it every render re-reads
+     * the metrics of each font it lays out.
+     */
+    private final FSCacheEx<String, FSCacheValue> fontMetricsCache = new FSDefaultCacheStore();
+
+    /**
+     * Renders an XHTML document as PDF.
+     *
+     * @param html the document, as produced by the {@code generate*Html} methods
+     * @param out the destination; it is not closed
+     * @throws IOException if rendering or writing fails
+     */
+    public void renderPdf(String html, OutputStream out) throws IOException {
+        PdfRendererBuilder builder = new PdfRendererBuilder();
+        builder.useFastMode();
+        builder.useCacheStore(PdfRendererBuilder.CacheStore.PDF_FONT_METRICS, fontMetricsCache);
+        builder.withHtmlContent(html, null);
+        builder.toStream(out);
+        builder.run();
+    }
+
     /**
      * Generates a PDF document from a schema comparison result.
      *
@@ -40,11 +71,7 @@ public class PdfExportService {
         String html = generatePrintOptimisedHtml(result);
 
         try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useFastMode();
-            builder.withHtmlContent(html, null);
-            builder.toStream(os);
-            builder.run();
+            renderPdf(html, os);
 
             LOG.infof("PDF generated successfully, size: %d bytes", os.size());
             return os.toByteArray();
@@ -60,7 +87,7 @@ public class PdfExportService {
      * @param result the comparison result
      * @return HTML string optimised for PDF rendering
      */
-    private String generatePrintOptimisedHtml(SchemaComparisonResult result) {
+    public String generatePrintOptimisedHtml(SchemaComparisonResult result) {
         StringBuilder html = new StringBuilder();
 
         // XML declaration and DOCTYPE for XHTML
@@ -506,11 +533,7 @@ public class PdfExportService {
         String html = generateRunbookExecutionHtml(execution);
 
         try (ByteArrayOutputStream os = new ByteArrayOutputStream()) {
-            PdfRendererBuilder builder = new PdfRendererBuilder();
-            builder.useFastMode();
-            builder.withHtmlContent(html, null);
-            builder.toStream(os);
-            builder.run();
+            renderPdf(html, os);
 
             LOG.infof("PDF generated successfully for execution %d, size: %d bytes",
                     execution.getId(), os.size());
@@ -527,7 +550,7 @@ public class PdfExportService {
      * @param execution the runbook execution
      * @return HTML string optimised for PDF rendering
      */
-    private String generateRunbookExecutionHtml(RunbookExecution execution) {
+    public String generateRunbookExecutionHtml(RunbookExecution execution) {
         StringBuilder html = new StringBuilder();
         Runbook runbook = execution.getRunbook();
 
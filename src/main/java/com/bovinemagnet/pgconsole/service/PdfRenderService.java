@@ -0,0 +1,468 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.jboss.logging.Logger;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Renders PDF exports as background jobs within bounded threads and memory.
+ * <p>
+ * Rendering a large schema comparison can take many seconds and hundreds of
+ * megabytes, so exports are not rendered on the request thread. Instead:
+ * <ul>
+ *   <li>A fixed pool of workers renders jobs from a bounded queue.</li>
+ *   <li>Each job reserves an estimate of its memory use, proportional to
+ *       the length of its HTML, from a shared budget until it finishes.</li>
+ *   <li>A job that does not fit the queue or the budget is refused with
+ *       {@link ServiceUnavailableException} rather than risking the heap.</li>
+ *   <li>Documents are rendered to temporary files, which are streamed to the
+ *       client and deleted once downloaded or expired.</li>
+ * </ul>
+ * Jobs can be awaited, polled by id, or observed through their completion.
+ * A finished document is downloaded once: the first caller to
+ * {@link #claim(Job)} it streams it, and every other caller is refused.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see PdfExportService
+ */
+@ApplicationScoped
+public class PdfRenderService {
+
+    private static final Logger LOG = Logger.getLogger(PdfRenderService.class);
+
+    /**
+     * Heap estimated per character of HTML while a document is parsed, laid
+     * out and written. A deliberately conservative heuristic.
+     */
+    static final long BYTES_PER_HTML_CHAR = 24;
+
+    /** Smallest reservation for any job, covering the renderer's fixed overhead. */
+    static final long MIN_JOB_BYTES = 4L * 1024 * 1024;
+
+    /** Retry-After hint when a job is refused. */
+    private static final long RETRY_AFTER_SECONDS = 5;
+
+    /**
+     * Lifecycle of a render job.
+     */
+    public enum Status {
+        QUEUED,
+        RENDERING,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * A PDF render job.
+     * <p>
+     * Getters describe the job and are serialised as its status; the
+     * rendered document is read with {@link #openStream()}.
+     */
+    public static final class Job {
+
+        private final String id;
+        private final String filename;
+        private final long estimatedBytes;
+        private final Instant submittedAt = Instant.now();
+        private final CompletableFuture<Job> started = new CompletableFuture<>();
+        private final CompletableFuture<Job> completion = new CompletableFuture<>();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile long sizeBytes;
+        private volatile String error;
+        private volatile Path file;
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        Job(String id, String filename, long estimatedBytes) {
+            this.id = id;
+            this.filename = filename;
+            this.estimatedBytes = estimatedBytes;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getFilename() {
+            return filename;
+        }
+
+        public Status getStatus() {
+            return status;
+        }
+
+        public long getEstimatedBytes() {
+            return estimatedBytes;
+        }
+
+        public Instant getSubmittedAt() {
+            return submittedAt;
+        }
+
+        public Instant getStartedAt() {
+            return startedAt;
+        }
+
+        public Instant getCompletedAt() {
+            return completedAt;
+        }
+
+        /**
+         * Returns the size of the rendered document.
+         *
+         * @return bytes, or 0 until the job is done
+         */
+        public long getSizeBytes() {
+            return sizeBytes;
+        }
+
+        /**
+         * Returns why the job failed.
+         *
+         * @return the error message, or {@code null} unless the job failed
+         */
+        public String getError() {
+            return error;
+        }
+
+        public boolean isFinished() {
+            return status == Status.DONE || status == Status.FAILED;
+        }
+
+        /**
+         * Returns a future completed when rendering starts.
+         *
+         * @return the future, completed with this job
+         */
+        public CompletableFuture<Job> started() {
+            return started;
+        }
+
+        /**
+         * Returns a future completed when the job is done or has failed.
+         *
+         * @return the future, completed with this job
+         */
+        public CompletableFuture<Job> completion() {
+            return completion;
+        }
+
+        /**
+         * Opens the rendered document.
+         *
+         * @return a stream over the PDF; the caller closes it
+         * @throws IOException if the job is not done or its file has expired
+         */
+        public InputStream openStream() throws IOException {
+            Path rendered = file;
+            if (status != Status.DONE || rendered == null) {
+                throw new IOException("PDF job " + id + " has no document");
+            }
+            return Files.newInputStream(rendered);
+        }
+
+        void markRendering() {
+            startedAt = Instant.now();
+            status = Status.RENDERING;
+            started.complete(this);
+        }
+
+        void markDone(Path rendered, long size) {
+            file = rendered;
+            sizeBytes = size;
+            finish(Status.DONE);
+        }
+
+        void markFailed(String message) {
+            error = message;
+            finish(Status.FAILED);
+        }
+
+        private void finish(Status finalStatus) {
+            completedAt = Instant.now();
+            status = finalStatus;
+            started.complete(this);
+            completion.complete(this);
+        }
+
+        boolean claim() {
+            return status == Status.DONE && claimed.compareAndSet(false, true);
+        }
+
+        void deleteFile() {
+            Path rendered = file;
+            file = null;
+            deleteQuietly(rendered);
+        }
+    }
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    PdfExportService pdfExportService;
+
+    /** Concurrent renders; package-private for tests. */
+    int workers = 2;
+
+    /** Jobs that may wait for a worker; package-private for tests. */
+    int queueCapacity = 8;
+
+    /** Heap shared by queued and running jobs; package-private for tests. */
+    long memoryBudgetBytes = 256L * 1024 * 1024;
+
+    /** How long {@link #await(Job)} waits. */
+    Duration syncWait = Duration.ofSeconds(30);
+
+    /** How long finished jobs are kept. */
+    Duration resultTtl = Duration.ofMinutes(10);
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService cleaner = Executors.newSingleThreadScheduledExecutor(daemonThreads("pdf-cleaner"));
+
+    private ThreadPoolExecutor renderExecutor;
+
+    // Reservations in KiB, so a budget of several gigabytes still fits an int
+    private Semaphore memory;
+
+    private int budgetKib;
+
+    @PostConstruct
+    void init() {
+        InstanceConfig.PdfConfig pdf = config.pdf();
+        workers = Math.max(1, pdf.workers());
+        queueCapacity = Math.max(1, pdf.queueCapacity());
+        memoryBudgetBytes = Math.max(MIN_JOB_BYTES, pdf.memoryBudgetMb() * 1024L * 1024L);
+        syncWait = Duration.ofSeconds(Math.max(0, pdf.waitSeconds()));
+        resultTtl = Duration.ofMinutes(Math.max(1, pdf.resultTtlMinutes()));
+        start();
+    }
+
+    /**
+     * Creates the worker pool and memory budget from the current settings.
+     */
+    void start() {
+        renderExecutor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), daemonThreads("pdf-render"));
+        budgetKib = (int) Math.min(Integer.MAX_VALUE, memoryBudgetBytes / 1024);
+        memory = new Semaphore(budgetKib);
+        cleaner.scheduleWithFixedDelay(this::evictExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        cleaner.shutdownNow();
+        if (renderExecutor != null) {
+            renderExecutor.shutdownNow();
+        }
+        jobs.values().forEach(Job::deleteFile);
+        jobs.clear();
+    }
+
+    /**
+     * Queues an XHTML document for rendering.
+     *
+     * @param filename the download filename of the PDF
+     * @param html the document, as produced by {@link PdfExportService}
+     * @return the queued job
+     * @throws ServiceUnavailableException if the queue or memory budget is full
+     */
+    public Job submit(String filename, String html) {
+        int reservedKib = reservationKib(html.length());
+        if (!memory.tryAcquire(reservedKib)) {
+            LOG.warnf("Refusing PDF export %s: needs ~%d MB, %d MB of %d MB free", filename,
+                    reservedKib / 1024, memory.availablePermits() / 1024, budgetKib / 1024);
+            throw new ServiceUnavailableException("PDF export memory budget is exhausted; retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), filename, reservedKib * 1024L);
+        jobs.put(job.getId(), job);
+        try {
+            renderExecutor.execute(() -> render(job, html, reservedKib));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            memory.release(reservedKib);
+            LOG.warnf("Refusing PDF export %s: %d jobs already queued", filename, queueCapacity);
+            throw new ServiceUnavailableException("Too many PDF exports in progress; retry shortly",
+                    RETRY_AFTER_SECONDS);
+        }
+        LOG.debugf("Queued PDF job %s (%s, ~%d KB)", job.getId(), filename, reservedKib);
+        return job;
+    }
+
+    /**
+     * Waits for a job to finish, up to the configured synchronous wait.
+     *
+     * @param job the job
+     * @return the job, which may still be queued or rendering if the wait elapsed
+     */
+    public Job await(Job job) {
+        try {
+            job.completion().get(syncWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            LOG.debugf("PDF job %s still %s after %s; continuing in background", job.getId(), job.getStatus(), syncWait);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Jobs complete normally, including on failure
+        }
+        return job;
+    }
+
+    /**
+     * Returns a future completed when a job finishes or the synchronous wait
+     * elapses, whichever is first, without holding a thread meanwhile.
+     *
+     * @param job the job
+     * @return the future, completed with the job, which may still be queued or rendering
+     */
+    public CompletableFuture<Job> whenFinished(Job job) {
+        return job.completion().copy().completeOnTimeout(job, syncWait.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Looks up a job.
+     *
+     * @param id the job id
+     * @return the job, or {@code null} if unknown or expired
+     */
+    public Job getJob(String id) {
+        return id != null ? jobs.get(id) : null;
+    }
+
+    /**
+     * Claims a finished job's document for download. Only the first claim of
+     * a job succeeds, so a document is streamed at most once; the claimant
+     * {@linkplain #discard(Job) discards} the job once it has been sent.
+     *
+     * @param job the job
+     * @return true if the job is done and this call claimed it
+     */
+    public boolean claim(Job job) {
+        return job.claim();
+    }
+
+    /**
+     * Forgets a finished job and deletes its document, e.g. once downloaded.
+     *
+     * @param job the job
+     */
+    public void discard(Job job) {
+        if (job.isFinished() && jobs.remove(job.getId(), job)) {
+            job.deleteFile();
+        }
+    }
+
+    /**
+     * Returns the number of jobs queued or rendering.
+     *
+     * @return the in-flight job count
+     */
+    public int inFlight() {
+        return (int) jobs.values().stream().filter(job -> !job.isFinished()).count();
+    }
+
+    private void render(Job job, String html, int reservedKib) {
+        job.markRendering();
+        Path file = null;
+        String failure = null;
+        long size = 0;
+        try {
+            file = Files.createTempFile("pg-console-", ".pdf");
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                pdfExportService.renderPdf(html, out);
+            }
+            size = Files.size(file);
+        } catch (Exception e) {
+            LOG.errorf(e, "Failed to render PDF %s", job.getFilename());
+            deleteQuietly(file);
+            failure = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        } finally {
+            // Free the reservation before completing, so waiters can resubmit at once
+            memory.release(reservedKib);
+        }
+
+        if (failure != null) {
+            job.markFailed(failure);
+        } else {
+            job.markDone(file, size);
+            LOG.infof("PDF %s rendered in %d ms, size: %d bytes", job.getFilename(),
+                    Duration.between(job.getStartedAt(), job.getCompletedAt()).toMillis(), size);
+        }
+    }
+
+    /**
+     * Removes finished jobs older than the result TTL and deletes their files.
+     */
+    void evictExpired() {
+        Instant cutoff = Instant.now().minus(resultTtl);
+        jobs.values().removeIf(job -> {
+            if (job.isFinished() && job.getCompletedAt().isBefore(cutoff)) {
+                job.deleteFile();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Returns the reservation for a document, capped at the whole budget so
+     * that an oversized document can still run once nothing else is.
+     */
+    int reservationKib(int htmlLength) {
+        long bytes = Math.max(MIN_JOB_BYTES, htmlLength * BYTES_PER_HTML_CHAR);
+        return (int) Math.min(budgetKib, bytes / 1024);
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                LOG.warnf("Could not delete temporary PDF %s: %s", file, e.getMessage());
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
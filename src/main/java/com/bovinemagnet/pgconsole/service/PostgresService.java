@@ -17,21 +17,26 @@ import com.bovinemagnet.pgconsole.model.LiveChartData;
 import com.bovinemagnet.pgconsole.model.LockInfo;
 import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.PipelineRisk;
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
 import com.bovinemagnet.pgconsole.model.SlowQuery;
 import com.bovinemagnet.pgconsole.model.StatisticalFreshness;
+import com.bovinemagnet.pgconsole.model.TablePage;
 import com.bovinemagnet.pgconsole.model.TableStats;
 import com.bovinemagnet.pgconsole.model.ToastBloat;
 import com.bovinemagnet.pgconsole.model.WaitEventSummary;
 import com.bovinemagnet.pgconsole.model.WriteReadRatio;
 import com.bovinemagnet.pgconsole.model.XidWraparound;
+import com.bovinemagnet.pgconsole.util.PgSize;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.sql.*;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.stream.Collectors;
 import javax.sql.DataSource;
@@ -41,6 +46,10 @@ import org.jboss.logging.Logger;
 /**
  * Service for querying PostgreSQL statistics and metrics.
  * Supports multiple database instances via DataSourceManager.
+ * <p>
+ * The table and index analyses (TOAST bloat, index redundancy, statistics
+ * freshness, write/read ratio and HOT efficiency) are derived from the shared
+ * {@link CatalogSnapshotService} snapshot rather than queried per call.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -53,6 +62,15 @@ public class PostgresService {
 	@Inject
 	DataSourceManager dataSourceManager;
 
+	@Inject
+	CatalogSnapshotService catalogSnapshotService;
+
+	@Inject
+	TableBrowserService tableBrowserService;
+
+	@Inject
+	IndexOverlapService indexOverlapService;
+
 	@ConfigProperty(name = "pg-console.databases")
 	Optional<String> databaseFilter;
 
@@ -66,6 +84,26 @@ public class PostgresService {
 		return dataSourceManager.getDataSource(instanceName);
 	}
 
+	/**
+	 * Creates a statement that the driver cancels once it has run for the
+	 * given time.
+	 *
+	 * @param conn the connection
+	 * @param timeoutSeconds the query timeout, or 0 for none
+	 * @return the statement
+	 * @throws SQLException if the statement cannot be created
+	 */
+	private static Statement createStatement(Connection conn, int timeoutSeconds) throws SQLException {
+		Statement stmt = conn.createStatement();
+		try {
+			stmt.setQueryTimeout(timeoutSeconds);
+		} catch (SQLException e) {
+			stmt.close();
+			throw e;
+		}
+		return stmt;
+	}
+
 	/**
 	 * Retrieves the list of configured PostgreSQL instances with their connection status and metadata.
 	 *
@@ -132,6 +170,38 @@ public class PostgresService {
 	 * @see #getSlowQueryById(String, String)
 	 */
 	public List<SlowQuery> getSlowQueries(String instanceName, String sortBy, String order) {
+		try {
+			return readSlowQueries(instanceName, sortBy, order, 0);
+		} catch (SQLException e) {
+			LOG.warnf("Could not query pg_stat_statements on %s: %s", instanceName, e.getMessage());
+			return new ArrayList<>();
+		}
+	}
+
+	/**
+	 * Retrieves slow queries from pg_stat_statements for the specified instance,
+	 * failing rather than returning an empty list.
+	 * <p>
+	 * Used where an instance that cannot answer must be told apart from one
+	 * with no statements, such as fleet views.
+	 *
+	 * @param instanceName the name of the PostgreSQL instance to query
+	 * @param sortBy the column to sort by (e.g., "totalTime", "calls", "meanTime", "maxTime", "rows")
+	 * @param order the sort order ("asc" for ascending, "desc" for descending)
+	 * @param timeoutSeconds how long the query may run, or 0 for no limit
+	 * @return list of slow query records, limited to 100 results
+	 * @throws RuntimeException if pg_stat_statements is unavailable or the query fails or times out
+	 * @see #getSlowQueries(String, String, String)
+	 */
+	public List<SlowQuery> fetchSlowQueries(String instanceName, String sortBy, String order, int timeoutSeconds) {
+		try {
+			return readSlowQueries(instanceName, sortBy, order, timeoutSeconds);
+		} catch (SQLException e) {
+			throw new RuntimeException("Failed to query pg_stat_statements on " + instanceName + ": " + e.getMessage(), e);
+		}
+	}
+
+	private List<SlowQuery> readSlowQueries(String instanceName, String sortBy, String order, int timeoutSeconds) throws SQLException {
 		List<SlowQuery> queries = new ArrayList<>();
 		String orderClause = getOrderClause(sortBy, order);
 
@@ -161,7 +231,7 @@ public class PostgresService {
 			orderClause +
 			" LIMIT 100";
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(sql)) {
 			while (rs.next()) {
 				SlowQuery query = new SlowQuery();
 				query.setQueryId(rs.getString("queryid"));
@@ -182,8 +252,6 @@ public class PostgresService {
 				query.setDatabase(rs.getString("database"));
 				queries.add(query);
 			}
-		} catch (SQLException e) {
-			LOG.warnf("Could not query pg_stat_statements on %s: %s", instanceName, e.getMessage());
 		}
 
 		return queries;
@@ -445,74 +513,21 @@ public class PostgresService {
 	 * Retrieves table statistics from pg_stat_user_tables for the specified instance.
 	 * <p>
 	 * Returns statistics about user-defined tables, including scan counts, tuple operations,
-	 * and live/dead tuple counts. Excludes system catalogues.
+	 * and live/dead tuple counts, from the shared catalogue snapshot. This is the first page
+	 * of the {@link TableBrowserService} in its default order.
 	 *
 	 * @param instanceName the name of the PostgreSQL instance to query
 	 * @return list of table statistics, ordered by total tuples (live + dead) descending, limited to 50
-	 * @throws RuntimeException if the query fails
 	 */
 	public List<TableStats> getTableStats(String instanceName) {
-		List<TableStats> stats = new ArrayList<>();
-
-		String sql = """
-			SELECT
-			    schemaname,
-			    relname as tablename,
-			    seq_scan,
-			    seq_tup_read,
-			    COALESCE(idx_scan, 0) as idx_scan,
-			    COALESCE(idx_tup_fetch, 0) as idx_tup_fetch,
-			    n_tup_ins,
-			    n_tup_upd,
-			    n_tup_del,
-			    n_live_tup,
-			    n_dead_tup,
-			    last_vacuum,
-			    last_autovacuum,
-			    last_analyze,
-			    last_autoanalyze
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema')
-			ORDER BY (n_live_tup + n_dead_tup) DESC
-			LIMIT 50
-			""";
-
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				TableStats stat = new TableStats();
-				stat.setSchemaName(rs.getString("schemaname"));
-				stat.setTableName(rs.getString("tablename"));
-				stat.setSeqScan(rs.getLong("seq_scan"));
-				stat.setSeqTupRead(rs.getLong("seq_tup_read"));
-				stat.setIdxScan(rs.getLong("idx_scan"));
-				stat.setIdxTupFetch(rs.getLong("idx_tup_fetch"));
-				stat.setnTupIns(rs.getLong("n_tup_ins"));
-				stat.setnTupUpd(rs.getLong("n_tup_upd"));
-				stat.setnTupDel(rs.getLong("n_tup_del"));
-				stat.setnLiveTup(rs.getLong("n_live_tup"));
-				stat.setnDeadTup(rs.getLong("n_dead_tup"));
-				java.sql.Timestamp lvTs = rs.getTimestamp("last_vacuum");
-				if (lvTs != null) stat.setLastVacuum(lvTs.toLocalDateTime());
-				java.sql.Timestamp lavTs = rs.getTimestamp("last_autovacuum");
-				if (lavTs != null) stat.setLastAutovacuum(lavTs.toLocalDateTime());
-				java.sql.Timestamp laTs = rs.getTimestamp("last_analyze");
-				if (laTs != null) stat.setLastAnalyze(laTs.toLocalDateTime());
-				java.sql.Timestamp laaTs = rs.getTimestamp("last_autoanalyze");
-				if (laaTs != null) stat.setLastAutoanalyze(laaTs.toLocalDateTime());
-				stats.add(stat);
-			}
-		} catch (SQLException e) {
-			throw new RuntimeException("Failed to query table stats on " + instanceName, e);
-		}
-
-		return stats;
+		return tableBrowserService.browse(instanceName, TableBrowserService.Sort.TUPLES, null, null, null,
+			TablePage.DEFAULT_LIMIT).getTables();
 	}
 
 	/**
 	 * Retrieves table statistics from pg_stat_user_tables for the default instance.
 	 *
 	 * @return list of table statistics, ordered by total tuples descending, limited to 50
-	 * @throws RuntimeException if the query fails
 	 * @see #getTableStats(String)
 	 */
 	public List<TableStats> getTableStats() {
@@ -599,6 +614,20 @@ public class PostgresService {
 	 * @throws RuntimeException if any critical query fails
 	 */
 	public OverviewStats getOverviewStats(String instanceName) {
+		return getOverviewStats(instanceName, 0);
+	}
+
+	/**
+	 * Retrieves overview statistics for the specified instance, with each of
+	 * its queries cancelled by the driver once it has run for the given time.
+	 *
+	 * @param instanceName the name of the PostgreSQL instance to query
+	 * @param timeoutSeconds how long each query may run, or 0 for no limit
+	 * @return overview statistics aggregating multiple metrics
+	 * @throws RuntimeException if any critical query fails or times out
+	 * @see #getOverviewStats(String)
+	 */
+	public OverviewStats getOverviewStats(String instanceName, int timeoutSeconds) {
 		OverviewStats stats = new OverviewStats();
 
 		// Get connection counts and max connections
@@ -610,7 +639,7 @@ public class PostgresService {
 			    (SELECT count(*) FROM pg_stat_activity WHERE cardinality(pg_blocking_pids(pid)) > 0) as blocked_queries
 			""";
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(connectionsSql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(connectionsSql)) {
 			if (rs.next()) {
 				stats.setConnectionsUsed(rs.getInt("connections_used"));
 				stats.setConnectionsMax(rs.getInt("max_connections"));
@@ -623,7 +652,7 @@ public class PostgresService {
 
 		// Get PostgreSQL version
 		String versionSql = "SELECT version()";
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(versionSql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(versionSql)) {
 			if (rs.next()) {
 				String fullVersion = rs.getString(1);
 				// Extract just the major version (e.g., "PostgreSQL 16.2")
@@ -655,7 +684,7 @@ public class PostgresService {
 			    ) as longest_duration
 			""";
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(longestQuerySql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(longestQuerySql)) {
 			if (rs.next()) {
 				stats.setLongestQueryDuration(rs.getString("longest_duration"));
 			}
@@ -673,7 +702,7 @@ public class PostgresService {
 			WHERE datname = current_database()
 			""";
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(cacheSql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(cacheSql)) {
 			if (rs.next()) {
 				stats.setCacheHitRatio(rs.getDouble("cache_hit_ratio"));
 			}
@@ -686,7 +715,7 @@ public class PostgresService {
 			SELECT pg_size_pretty(pg_database_size(current_database())) as db_size
 			""";
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sizeSql)) {
+		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = createStatement(conn, timeoutSeconds); ResultSet rs = stmt.executeQuery(sizeSql)) {
 			if (rs.next()) {
 				stats.setDatabaseSize(rs.getString("db_size"));
 			}
@@ -694,59 +723,38 @@ public class PostgresService {
 			stats.setDatabaseSize("Unknown");
 		}
 
-		// Get top 10 tables by size
-		String tablesSql = """
-			SELECT
-			    schemaname,
-			    relname as tablename,
-			    pg_size_pretty(pg_total_relation_size(schemaname || '.' || relname)) as size,
-			    pg_total_relation_size(schemaname || '.' || relname) as size_bytes
-			FROM pg_stat_user_tables
-			ORDER BY pg_total_relation_size(schemaname || '.' || relname) DESC
-			LIMIT 10
-			""";
-
+		// Get top 10 tables and indexes by size from the catalogue snapshot
 		List<OverviewStats.TableSize> tables = new ArrayList<>();
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(tablesSql)) {
-			while (rs.next()) {
-				OverviewStats.TableSize table = new OverviewStats.TableSize();
-				table.setSchemaName(rs.getString("schemaname"));
-				table.setTableName(rs.getString("tablename"));
-				table.setSize(rs.getString("size"));
-				table.setSizeBytes(rs.getLong("size_bytes"));
-				tables.add(table);
-			}
-		} catch (SQLException e) {
-			// Ignore - empty list is fine
+		for (TableStats largest : tableBrowserService.browse(instanceName, TableBrowserService.Sort.SIZE,
+				"desc", null, null, 10).getTables()) {
+			OverviewStats.TableSize table = new OverviewStats.TableSize();
+			table.setSchemaName(largest.getSchemaName());
+			table.setTableName(largest.getTableName());
+			table.setSize(largest.getTotalSize());
+			table.setSizeBytes(largest.getTotalSizeBytes());
+			tables.add(table);
 		}
 		stats.setTopTablesBySize(tables);
 
-		// Get top 10 indexes by size
-		String indexesSql = """
-			SELECT
-			    schemaname,
-			    indexrelname as indexname,
-			    relname as tablename,
-			    pg_size_pretty(pg_relation_size(indexrelid)) as size,
-			    pg_relation_size(indexrelid) as size_bytes
-			FROM pg_stat_user_indexes
-			ORDER BY pg_relation_size(indexrelid) DESC
-			LIMIT 10
-			""";
-
-		List<OverviewStats.IndexSize> indexes = new ArrayList<>();
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(indexesSql)) {
-			while (rs.next()) {
-				OverviewStats.IndexSize index = new OverviewStats.IndexSize();
-				index.setSchemaName(rs.getString("schemaname"));
-				index.setIndexName(rs.getString("indexname"));
-				index.setTableName(rs.getString("tablename"));
-				index.setSize(rs.getString("size"));
-				index.setSizeBytes(rs.getLong("size_bytes"));
-				indexes.add(index);
+		// Keep the ten largest in a min-heap rather than sorting every index
+		PriorityQueue<RelationCatalog.Index> largestIndexes =
+			new PriorityQueue<>(Comparator.comparingLong(RelationCatalog.Index::getSizeBytes));
+		for (RelationCatalog.Index index : catalogSnapshotService.getCatalog(instanceName).indexes()) {
+			largestIndexes.offer(index);
+			if (largestIndexes.size() > 10) {
+				largestIndexes.poll();
 			}
-		} catch (SQLException e) {
-			// Ignore - empty list is fine
+		}
+		List<OverviewStats.IndexSize> indexes = new ArrayList<>();
+		while (!largestIndexes.isEmpty()) {
+			RelationCatalog.Index largest = largestIndexes.poll();
+			OverviewStats.IndexSize index = new OverviewStats.IndexSize();
+			index.setSchemaName(largest.table().getSchemaName());
+			index.setIndexName(largest.getName());
+			index.setTableName(largest.table().getName());
+			index.setSize(PgSize.pretty(largest.getSizeBytes()));
+			index.setSizeBytes(largest.getSizeBytes());
+			indexes.add(0, index);
 		}
 		stats.setTopIndexesBySize(indexes);
 
@@ -762,7 +770,7 @@ public class PostgresService {
 			""";
 
 		try (Connection conn = getDataSource(instanceName).getConnection();
-		     Statement stmt = conn.createStatement();
+		     Statement stmt = createStatement(conn, timeoutSeconds);
 		     ResultSet rs = stmt.executeQuery(deadlockSql)) {
 			if (rs.next()) {
 				long deadlocks = rs.getLong("total_deadlocks");
@@ -795,7 +803,7 @@ public class PostgresService {
 			""";
 
 		try (Connection conn = getDataSource(instanceName).getConnection();
-		     Statement stmt = conn.createStatement();
+		     Statement stmt = createStatement(conn, timeoutSeconds);
 		     ResultSet rs = stmt.executeQuery(replicationLagSql)) {
 			if (rs.next()) {
 				stats.setReplicationLagSeconds(rs.getDouble("lag_seconds"));
@@ -824,7 +832,7 @@ public class PostgresService {
 			""";
 
 		try (Connection conn = getDataSource(instanceName).getConnection();
-		     Statement stmt = conn.createStatement();
+		     Statement stmt = createStatement(conn, timeoutSeconds);
 		     ResultSet rs = stmt.executeQuery(bloatSql)) {
 			if (rs.next()) {
 				double bloatPercent = rs.getDouble("bloat_percent");
@@ -850,7 +858,7 @@ public class PostgresService {
 			""";
 
 		try (Connection conn = getDataSource(instanceName).getConnection();
-		     Statement stmt = conn.createStatement();
+		     Statement stmt = createStatement(conn, timeoutSeconds);
 		     ResultSet rs = stmt.executeQuery(xidSql)) {
 			if (rs.next()) {
 				stats.setXidWraparoundPercent(rs.getDouble("wraparound_percent"));
@@ -869,7 +877,7 @@ public class PostgresService {
 			""";
 
 		try (Connection conn = getDataSource(instanceName).getConnection();
-		     Statement stmt = conn.createStatement();
+		     Statement stmt = createStatement(conn, timeoutSeconds);
 		     ResultSet rs = stmt.executeQuery(queryTimeSql)) {
 			if (rs.next()) {
 				double meanTime = rs.getDouble("max_mean_time_ms");
@@ -1664,39 +1672,22 @@ public class PostgresService {
 	public List<ToastBloat> getToastBloat(String instanceName) {
 		List<ToastBloat> bloats = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    c.relnamespace::regnamespace::text as schema_name,
-			    c.relname as table_name,
-			    pg_relation_size(c.oid) as main_table_bytes,
-			    COALESCE(pg_relation_size(c.reltoastrelid), 0) as toast_table_bytes,
-			    pg_total_relation_size(c.oid) as total_bytes,
-			    t.relname as toast_table_name,
-			    COALESCE(pg_stat_get_live_tuples(c.reltoastrelid), 0) as toast_live_tuples,
-			    COALESCE(pg_stat_get_dead_tuples(c.reltoastrelid), 0) as toast_dead_tuples
-			FROM pg_class c
-			LEFT JOIN pg_class t ON c.reltoastrelid = t.oid
-			WHERE c.relkind = 'r'
-			  AND c.reltoastrelid != 0
-			  AND c.relnamespace::regnamespace::text NOT IN ('pg_catalog', 'information_schema', 'pg_toast')
-			ORDER BY pg_relation_size(c.reltoastrelid) DESC NULLS LAST
-			LIMIT 50
-			""";
+		List<RelationCatalog.Table> tables = catalogSnapshotService.getCatalog(instanceName).tables().stream()
+			.filter(t -> t.getToastName() != null)
+			.sorted(Comparator.comparingLong(RelationCatalog.Table::getToastSizeBytes).reversed())
+			.limit(50)
+			.toList();
 
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				ToastBloat bloat = new ToastBloat();
-				bloat.setSchemaName(rs.getString("schema_name"));
-				bloat.setTableName(rs.getString("table_name"));
-				bloat.setMainTableSizeBytes(rs.getLong("main_table_bytes"));
-				bloat.setToastTableSizeBytes(rs.getLong("toast_table_bytes"));
-				bloat.setToastTableName(rs.getString("toast_table_name"));
-				bloat.setnLiveTup(rs.getLong("toast_live_tuples"));
-				bloat.setnDeadTup(rs.getLong("toast_dead_tuples"));
-				bloats.add(bloat);
-			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to query TOAST bloat on %s: %s", instanceName, e.getMessage());
+		for (RelationCatalog.Table table : tables) {
+			ToastBloat bloat = new ToastBloat();
+			bloat.setSchemaName(table.getSchemaName());
+			bloat.setTableName(table.getName());
+			bloat.setMainTableSizeBytes(table.getRelationSizeBytes());
+			bloat.setToastTableSizeBytes(table.getToastSizeBytes());
+			bloat.setToastTableName(table.getToastName());
+			bloat.setnLiveTup(table.getToastLiveTuples());
+			bloat.setnDeadTup(table.getToastDeadTuples());
+			bloats.add(bloat);
 		}
 
 		return bloats;
@@ -1717,71 +1708,53 @@ public class PostgresService {
 	/**
 	 * Retrieves redundant and overlapping index analysis for the specified instance.
 	 * <p>
-	 * Identifies indexes that are potentially redundant because they duplicate
-	 * or are subsets of other indexes on the same table.
+	 * Reports indexes that duplicate another, whose keys lead a longer index
+	 * on the same table, or that share leading keys with another index before
+	 * diverging. Indexes are only compared with those of the same access
+	 * method and partial-index predicate, and keys must match in operator
+	 * class and sort order as well as column. See {@link IndexOverlapService}.
 	 *
 	 * @param instanceName the name of the PostgreSQL instance to query
-	 * @return list of index redundancy findings
+	 * @return list of index redundancy findings, largest index first
 	 */
 	public List<IndexRedundancy> getIndexRedundancy(String instanceName) {
 		List<IndexRedundancy> redundancies = new ArrayList<>();
 
-		String sql = """
-			WITH index_cols AS (
-			    SELECT
-			        i.indexrelid,
-			        i.indrelid,
-			        i.indkey::int[] as col_array,
-			        pg_get_indexdef(i.indexrelid) as index_def,
-			        c.relname as index_name,
-			        t.relname as table_name,
-			        n.nspname as schema_name,
-			        pg_relation_size(i.indexrelid) as index_size,
-			        COALESCE(s.idx_scan, 0) as idx_scan,
-			        COALESCE(s.idx_tup_read, 0) as idx_tup_read
-			    FROM pg_index i
-			    JOIN pg_class c ON i.indexrelid = c.oid
-			    JOIN pg_class t ON i.indrelid = t.oid
-			    JOIN pg_namespace n ON t.relnamespace = n.oid
-			    LEFT JOIN pg_stat_user_indexes s ON i.indexrelid = s.indexrelid
-			    WHERE n.nspname NOT IN ('pg_catalog', 'information_schema')
-			      AND NOT i.indisprimary
-			)
-			SELECT
-			    a.schema_name,
-			    a.table_name,
-			    a.index_name,
-			    a.index_def,
-			    a.index_size,
-			    a.idx_scan,
-			    b.index_name as overlapping_index,
-			    b.index_def as overlapping_def,
-			    b.index_size as overlapping_size,
-			    b.idx_scan as overlapping_idx_scan,
-			    'OVERLAPPING' as redundancy_type
-			FROM index_cols a
-			JOIN index_cols b ON a.indrelid = b.indrelid
-			    AND a.indexrelid != b.indexrelid
-			    AND a.col_array[1:array_length(b.col_array, 1)] = b.col_array
-			    AND array_length(a.col_array, 1) > array_length(b.col_array, 1)
-			ORDER BY a.index_size DESC
-			LIMIT 50
-			""";
-
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				IndexRedundancy redundancy = new IndexRedundancy();
-				redundancy.setSchemaName(rs.getString("schema_name"));
-				redundancy.setTableName(rs.getString("table_name"));
-				redundancy.setIndexName(rs.getString("index_name"));
-				redundancy.setIndexSizeBytes(rs.getLong("index_size"));
-				redundancy.setIndexScans(rs.getLong("idx_scan"));
-				redundancy.setRelatedIndexName(rs.getString("overlapping_index"));
-				redundancy.setRedundancyType(IndexRedundancy.RedundancyType.OVERLAPPING);
-				redundancies.add(redundancy);
+		for (IndexOverlapService.Finding finding : indexOverlapService.findOverlaps(instanceName)) {
+			if (redundancies.size() == 50) {
+				break;
+			}
+			RelationCatalog.Index index = finding.index();
+			RelationCatalog.Index related = finding.related();
+			IndexRedundancy redundancy = new IndexRedundancy();
+			redundancy.setSchemaName(index.table().getSchemaName());
+			redundancy.setTableName(index.table().getName());
+			redundancy.setTableSizeBytes(index.table().getTableSizeBytes());
+			redundancy.setIndexName(index.getName());
+			redundancy.setIndexColumns(index.getKeys());
+			redundancy.setIndexSizeBytes(index.getSizeBytes());
+			redundancy.setIndexScans(index.getScans());
+			redundancy.setRelatedIndexName(related.getName());
+			redundancy.setRelatedIndexColumns(related.getKeys());
+			redundancy.setRelatedIndexSizeBytes(related.getSizeBytes());
+			switch (finding.kind()) {
+				case DUPLICATE -> {
+					redundancy.setRedundancyType(IndexRedundancy.RedundancyType.DUPLICATE);
+					redundancy.setRecommendation("Drop " + index.getName() + "; it duplicates " + related.getName());
+				}
+				case COVERED -> {
+					redundancy.setRedundancyType(IndexRedundancy.RedundancyType.OVERLAPPING);
+					redundancy.setRecommendation("Consider dropping " + index.getName() + "; "
+						+ related.getName() + " can serve the same lookups");
+				}
+				case PARTIAL_OVERLAP -> {
+					redundancy.setRedundancyType(IndexRedundancy.RedundancyType.PARTIAL_OVERLAP);
+					redundancy.setRecommendation("Review whether " + index.getName() + " and " + related.getName()
+						+ " could be merged; they share " + finding.sharedKeys() + " leading "
+						+ (finding.sharedKeys() == 1 ? "key" : "keys"));
+				}
 			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to query index redundancy on %s: %s", instanceName, e.getMessage());
+			redundancies.add(redundancy);
 		}
 
 		return redundancies;
@@ -1811,47 +1784,21 @@ public class PostgresService {
 	public List<StatisticalFreshness> getStatisticalFreshness(String instanceName) {
 		List<StatisticalFreshness> results = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    schemaname as schema_name,
-			    relname as table_name,
-			    n_live_tup as live_tuples,
-			    n_dead_tup as dead_tuples,
-			    n_mod_since_analyze as modified_since_analyze,
-			    last_analyze,
-			    last_autoanalyze,
-			    GREATEST(last_analyze, last_autoanalyze) as last_stats_update,
-			    n_tup_ins + n_tup_upd + n_tup_del as total_modifications,
-			    CASE
-			        WHEN n_live_tup = 0 THEN 0
-			        ELSE ROUND(100.0 * n_mod_since_analyze / GREATEST(n_live_tup, 1), 2)
-			    END as percent_modified
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema')
-			ORDER BY n_mod_since_analyze DESC NULLS LAST
-			LIMIT 100
-			""";
-
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				StatisticalFreshness freshness = new StatisticalFreshness();
-				freshness.setSchemaName(rs.getString("schema_name"));
-				freshness.setTableName(rs.getString("table_name"));
-				freshness.setnLiveTup(rs.getLong("live_tuples"));
-				freshness.setnDeadTup(rs.getLong("dead_tuples"));
-				freshness.setnModSinceAnalyze(rs.getLong("modified_since_analyze"));
+		List<RelationCatalog.Table> tables = catalogSnapshotService.getCatalog(instanceName).tables().stream()
+			.sorted(Comparator.comparingLong(RelationCatalog.Table::getModsSinceAnalyse).reversed())
+			.limit(100)
+			.toList();
 
-				Timestamp lastAnalyze = rs.getTimestamp("last_analyze");
-				freshness.setLastAnalyze(lastAnalyze != null ? lastAnalyze.toInstant() : null);
-
-				Timestamp lastAutoanalyze = rs.getTimestamp("last_autoanalyze");
-				freshness.setLastAutoanalyze(lastAutoanalyze != null ? lastAutoanalyze.toInstant() : null);
-
-				// Note: last_stats_update, total_modifications, percent_modified are calculated
-				results.add(freshness);
-			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to query statistical freshness on %s: %s", instanceName, e.getMessage());
+		for (RelationCatalog.Table table : tables) {
+			StatisticalFreshness freshness = new StatisticalFreshness();
+			freshness.setSchemaName(table.getSchemaName());
+			freshness.setTableName(table.getName());
+			freshness.setnLiveTup(table.getLiveTuples());
+			freshness.setnDeadTup(table.getDeadTuples());
+			freshness.setnModSinceAnalyze(table.getModsSinceAnalyse());
+			freshness.setLastAnalyze(table.getLastAnalyse());
+			freshness.setLastAutoanalyze(table.getLastAutoAnalyse());
+			results.add(freshness);
 		}
 
 		return results;
@@ -1881,44 +1828,26 @@ public class PostgresService {
 	public List<WriteReadRatio> getWriteReadRatio(String instanceName) {
 		List<WriteReadRatio> results = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    schemaname as schema_name,
-			    relname as table_name,
-			    seq_scan,
-			    seq_tup_read,
-			    COALESCE(idx_scan, 0) as idx_scan,
-			    COALESCE(idx_tup_fetch, 0) as idx_tup_fetch,
-			    n_tup_ins as inserts,
-			    n_tup_upd as updates,
-			    n_tup_del as deletes,
-			    n_tup_ins + n_tup_upd + n_tup_del as total_writes,
-			    seq_scan + COALESCE(idx_scan, 0) as total_scans,
-			    n_live_tup as live_tuples
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema')
-			ORDER BY (n_tup_ins + n_tup_upd + n_tup_del + seq_scan + COALESCE(idx_scan, 0)) DESC
-			LIMIT 100
-			""";
-
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				WriteReadRatio ratio = new WriteReadRatio();
-				ratio.setSchemaName(rs.getString("schema_name"));
-				ratio.setTableName(rs.getString("table_name"));
-				ratio.setSeqScan(rs.getLong("seq_scan"));
-				ratio.setSeqTupRead(rs.getLong("seq_tup_read"));
-				ratio.setIdxScan(rs.getLong("idx_scan"));
-				ratio.setIdxTupFetch(rs.getLong("idx_tup_fetch"));
-				ratio.setnTupIns(rs.getLong("inserts"));
-				ratio.setnTupUpd(rs.getLong("updates"));
-				ratio.setnTupDel(rs.getLong("deletes"));
-				ratio.setnLiveTup(rs.getLong("live_tuples"));
-				// Note: total_writes and total_scans are calculated by the model
-				results.add(ratio);
-			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to query write/read ratio on %s: %s", instanceName, e.getMessage());
+		List<RelationCatalog.Table> tables = catalogSnapshotService.getCatalog(instanceName).tables().stream()
+			.sorted(Comparator.comparingLong((RelationCatalog.Table t) -> t.getInserts() + t.getUpdates() + t.getDeletes()
+				+ t.getSeqScans() + t.getIdxScans()).reversed())
+			.limit(100)
+			.toList();
+
+		for (RelationCatalog.Table table : tables) {
+			WriteReadRatio ratio = new WriteReadRatio();
+			ratio.setSchemaName(table.getSchemaName());
+			ratio.setTableName(table.getName());
+			ratio.setSeqScan(table.getSeqScans());
+			ratio.setSeqTupRead(table.getSeqTupRead());
+			ratio.setIdxScan(table.getIdxScans());
+			ratio.setIdxTupFetch(table.getIdxTupFetch());
+			ratio.setnTupIns(table.getInserts());
+			ratio.setnTupUpd(table.getUpdates());
+			ratio.setnTupDel(table.getDeletes());
+			ratio.setnLiveTup(table.getLiveTuples());
+			// Note: total_writes and total_scans are calculated by the model
+			results.add(ratio);
 		}
 
 		return results;
@@ -1948,40 +1877,22 @@ public class PostgresService {
 	public List<HotUpdateEfficiency> getHotEfficiency(String instanceName) {
 		List<HotUpdateEfficiency> results = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    schemaname as schema_name,
-			    relname as table_name,
-			    n_tup_upd as total_updates,
-			    n_tup_hot_upd as hot_updates,
-			    CASE
-			        WHEN n_tup_upd = 0 THEN 100.0
-			        ELSE ROUND(100.0 * n_tup_hot_upd / n_tup_upd, 2)
-			    END as hot_ratio_percent,
-			    n_live_tup as live_tuples,
-			    n_dead_tup as dead_tuples,
-			    pg_total_relation_size(schemaname || '.' || relname) as table_size_bytes
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema')
-			  AND n_tup_upd > 0
-			ORDER BY n_tup_upd DESC
-			LIMIT 100
-			""";
-
-		try (Connection conn = getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				HotUpdateEfficiency efficiency = new HotUpdateEfficiency();
-				efficiency.setSchemaName(rs.getString("schema_name"));
-				efficiency.setTableName(rs.getString("table_name"));
-				efficiency.setnTupUpd(rs.getLong("total_updates"));
-				efficiency.setnTupHotUpd(rs.getLong("hot_updates"));
-				efficiency.setnLiveTup(rs.getLong("live_tuples"));
-				efficiency.setnDeadTup(rs.getLong("dead_tuples"));
-				efficiency.setTableSizeBytes(rs.getLong("table_size_bytes"));
-				results.add(efficiency);
-			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to query HOT efficiency on %s: %s", instanceName, e.getMessage());
+		List<RelationCatalog.Table> tables = catalogSnapshotService.getCatalog(instanceName).tables().stream()
+			.filter(t -> t.getUpdates() > 0)
+			.sorted(Comparator.comparingLong(RelationCatalog.Table::getUpdates).reversed())
+			.limit(100)
+			.toList();
+
+		for (RelationCatalog.Table table : tables) {
+			HotUpdateEfficiency efficiency = new HotUpdateEfficiency();
+			efficiency.setSchemaName(table.getSchemaName());
+			efficiency.setTableName(table.getName());
+			efficiency.setnTupUpd(table.getUpdates());
+			efficiency.setnTupHotUpd(table.getHotUpdates());
+			efficiency.setnLiveTup(table.getLiveTuples());
+			efficiency.setnDeadTup(table.getDeadTuples());
+			efficiency.setTableSizeBytes(table.getTotalSizeBytes());
+			results.add(efficiency);
 		}
 
 		return results;
@@ -76,7 +76,7 @@ public class ReportService {
      * @see #getDueReports()
      * @see #sendReport(ScheduledReport)
      */
-    @Scheduled(every = "60s", identity = "report-scheduler")
+    @Scheduled(every = "60s", identity = "report-scheduler", skipExecutionIf = LeaderOnly.class)
     public void processScheduledReports() {
         if (!reportsEnabled) {
             return;
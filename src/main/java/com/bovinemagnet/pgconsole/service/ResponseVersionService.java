@@ -0,0 +1,258 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks versions of the data behind dashboard and API responses so that
+ * conditional requests can be answered with {@code 304 Not Modified} before
+ * any database access or rendering.
+ * <p>
+ * Each {@link Source} carries a version per instance, advanced by whatever
+ * refreshes it: the metrics samplers after each tick, the unified
+ * recommendation service when an instance's snapshot changes, and the
+ * catalogue snapshot service when it reloads an instance's relation
+ * catalogue. A response's {@link Validator} combines the versions of the
+ * sources it is built from with a time bucket of
+ * {@code pg-console.conditional-get.max-age-seconds}, so responses whose
+ * sources are not versioned in a given deployment (for example with sampling
+ * disabled) are still rebuilt at least that often.
+ * <p>
+ * The entity tags are weak: the response body is regenerated from live
+ * queries, so two responses with the same tag are equivalent rather than
+ * byte-identical.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ApplicationScoped
+public class ResponseVersionService {
+
+    static final String REQUESTS_METRIC = "pgconsole.http.conditional.requests";
+
+    static final String HIT_RATIO_METRIC = "pgconsole.http.conditional.hit.ratio";
+
+    private static final DateTimeFormatter HTTP_DATE =
+            DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss 'GMT'", Locale.ENGLISH).withZone(ZoneOffset.UTC);
+
+    /**
+     * A versioned source of response data.
+     */
+    public enum Source {
+        /** Metrics sampled from the instance on each sampler tick. */
+        SAMPLES,
+        /** The instance's unified recommendation snapshot. */
+        RECOMMENDATIONS,
+        /** The instance's relation catalogue snapshot of table and index statistics. */
+        CATALOG
+    }
+
+    /**
+     * The version of one source, and when it was last advanced.
+     */
+    private record Version(long number, long modifiedMillis) {
+    }
+
+    private record VersionKey(Source source, String instance) {
+    }
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /** Wall clock for versions and time buckets; package-private for tests. */
+    LongSupplier clock = System::currentTimeMillis;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final Map<VersionKey, Version> versions = new ConcurrentHashMap<>();
+
+    /** Latest version of each source across all instances. */
+    private final Map<Source, Version> latest = new ConcurrentHashMap<>();
+
+    private final Map<String, Counter[]> routeCounters = new ConcurrentHashMap<>();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    /** Distinguishes tags issued before a restart, when every version starts again. */
+    private long bootMillis;
+
+    @PostConstruct
+    void init() {
+        bootMillis = clock.getAsLong();
+        meterRegistry.gauge(HIT_RATIO_METRIC, this, ResponseVersionService::getHitRatio);
+    }
+
+    /**
+     * Advances the version of a source for an instance, invalidating every
+     * tag issued for responses built from it.
+     *
+     * @param source the refreshed source
+     * @param instance the instance it was refreshed for
+     */
+    public void bump(Source source, String instance) {
+        Version version = new Version(sequence.incrementAndGet(), clock.getAsLong());
+        versions.put(new VersionKey(source, instance), version);
+        latest.merge(source, version, (current, next) -> next.number() > current.number() ? next : current);
+    }
+
+    /**
+     * Returns the validator for a response built from the given sources.
+     * <p>
+     * An instance that none of the sources has been versioned for, such as
+     * the {@code default} alias, follows the latest version of each source
+     * across all instances.
+     *
+     * @param variant identifies the response, typically its path and query
+     * @param instance the instance the response is for
+     * @param sources the sources the response is built from
+     * @return the response validator
+     */
+    public Validator validator(String variant, String instance, Source... sources) {
+        long now = clock.getAsLong();
+        long maxAgeMillis = Math.max(1, config.conditionalGet().maxAgeSeconds()) * 1000L;
+        long bucket = now / maxAgeMillis;
+
+        StringBuilder tag = new StringBuilder(48)
+                .append(Long.toHexString(bootMillis))
+                .append('-').append(Integer.toHexString(variant.hashCode()))
+                .append('-').append(Long.toHexString(bucket));
+        long lastModified = Math.max(bootMillis, bucket * maxAgeMillis);
+        for (Source source : sources) {
+            Version version = versions.get(new VersionKey(source, instance));
+            if (version == null) {
+                version = latest.get(source);
+            }
+            tag.append('-').append(source.name().charAt(0));
+            if (version != null) {
+                tag.append(Long.toHexString(version.number()));
+                lastModified = Math.max(lastModified, version.modifiedMillis());
+            } else {
+                tag.append('0');
+            }
+        }
+        return new Validator(tag.toString(), Math.min(lastModified, now));
+    }
+
+    /**
+     * Records a conditional request answered with {@code 304 Not Modified}.
+     *
+     * @param route the resource method answering the request
+     */
+    public void recordHit(String route) {
+        hits.incrementAndGet();
+        counters(route)[0].increment();
+    }
+
+    /**
+     * Records a versioned request that had to be built in full.
+     *
+     * @param route the resource method answering the request
+     */
+    public void recordMiss(String route) {
+        misses.incrementAndGet();
+        counters(route)[1].increment();
+    }
+
+    /**
+     * Returns the share of versioned requests answered with
+     * {@code 304 Not Modified} since startup.
+     *
+     * @return the hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        long hitCount = hits.get();
+        long total = hitCount + misses.get();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private Counter[] counters(String route) {
+        return routeCounters.computeIfAbsent(route, r -> new Counter[] {
+                meterRegistry.counter(REQUESTS_METRIC, "route", r, "outcome", "hit"),
+                meterRegistry.counter(REQUESTS_METRIC, "route", r, "outcome", "miss")
+        });
+    }
+
+    /**
+     * Validators for one response: a weak entity tag and a last-modified time.
+     *
+     * @param tag the opaque entity tag, without quotes or weak prefix
+     * @param lastModifiedMillis when the response's data last changed
+     */
+    public record Validator(String tag, long lastModifiedMillis) {
+
+        /**
+         * Returns the value of the {@code ETag} header.
+         *
+         * @return the weak entity tag
+         */
+        public String etag() {
+            return "W/\"" + tag + "\"";
+        }
+
+        /**
+         * Returns the value of the {@code Last-Modified} header.
+         *
+         * @return the last-modified time as an HTTP date
+         */
+        public String lastModified() {
+            return HTTP_DATE.format(Instant.ofEpochMilli(lastModifiedMillis));
+        }
+
+        /**
+         * Returns whether a client's cached copy is still current.
+         * <p>
+         * {@code If-None-Match} is compared weakly and takes precedence;
+         * {@code If-Modified-Since} is only consulted without it.
+         *
+         * @param ifNoneMatch the {@code If-None-Match} header, or {@code null}
+         * @param ifModifiedSince the {@code If-Modified-Since} header, or {@code null}
+         * @return {@code true} if the request can be answered with 304
+         */
+        public boolean matches(String ifNoneMatch, String ifModifiedSince) {
+            if (ifNoneMatch != null) {
+                String quoted = "\"" + tag + "\"";
+                for (String candidate : ifNoneMatch.split(",")) {
+                    String value = candidate.trim();
+                    if (value.equals("*")) {
+                        return true;
+                    }
+                    if (value.startsWith("W/")) {
+                        value = value.substring(2);
+                    }
+                    if (value.equals(quoted)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            if (ifModifiedSince != null) {
+                try {
+                    Instant since = DateTimeFormatter.RFC_1123_DATE_TIME.parse(ifModifiedSince.trim(), Instant::from);
+                    return lastModifiedMillis / 1000 <= since.getEpochSecond();
+                } catch (DateTimeException e) {
+                    return false;
+                }
+            }
+            return false;
+        }
+    }
+}
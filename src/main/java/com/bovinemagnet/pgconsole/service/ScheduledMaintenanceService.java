@@ -1,5 +1,7 @@
 package com.bovinemagnet.pgconsole.service;
 
+import com.bovinemagnet.pgconsole.model.MaintenanceJob;
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
 import com.bovinemagnet.pgconsole.model.ScheduledMaintenance;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -31,6 +33,12 @@ public class ScheduledMaintenanceService {
     @Inject
     DataSourceManager dataSourceManager;
 
+    @Inject
+    CatalogSnapshotService catalogSnapshotService;
+
+    @Inject
+    MaintenanceJobService maintenanceJobService;
+
     /**
      * Get all scheduled maintenance tasks.
      *
@@ -311,62 +319,47 @@ public class ScheduledMaintenanceService {
     }
 
     /**
-     * Execute a maintenance task immediately.
+     * Queues a maintenance task to run now.
      *
      * @param instanceName the PostgreSQL instance name
      * @param taskId the task ID
-     * @return execution result
+     * @return the queued job, or {@code null} if the task was not found
+     * @see #executeTask(String, ScheduledMaintenance)
      */
-    public MaintenanceResult executeTask(String instanceName, long taskId) {
+    public MaintenanceJob executeTask(String instanceName, long taskId) {
         ScheduledMaintenance task = getTask(instanceName, taskId);
         if (task == null) {
-            return new MaintenanceResult(false, "Task not found", 0);
+            return null;
         }
 
         return executeTask(instanceName, task);
     }
 
     /**
-     * Execute a maintenance task.
+     * Queues a maintenance task to run as a throttled background job.
+     * <p>
+     * The task's last run and execution history are recorded once the job
+     * finishes.
      *
      * @param instanceName the PostgreSQL instance name
      * @param task the task to execute
-     * @return execution result
+     * @return the queued job
+     * @throws IllegalArgumentException if the task's type needs a table it does not name
+     * @throws jakarta.ws.rs.ServiceUnavailableException if the job queue is full
      */
-    public MaintenanceResult executeTask(String instanceName, ScheduledMaintenance task) {
-        long startTime = System.currentTimeMillis();
-        String status = "SUCCESS";
-        String message = "";
-
-        try {
-            DataSource ds = dataSourceManager.getDataSource(instanceName);
-
-            String sql = buildMaintenanceSQL(task);
-            if (sql == null) {
-                return new MaintenanceResult(false, "Unknown task type: " + task.getTaskType(), 0);
-            }
-
-            LOG.infof("Executing maintenance task: %s - %s", task.getName(), sql);
-
-            try (Connection conn = ds.getConnection();
-                 Statement stmt = conn.createStatement()) {
-
-                stmt.execute(sql);
-                message = "Completed successfully";
-            }
-
-        } catch (SQLException e) {
-            status = "FAILED";
-            message = e.getMessage();
-            LOG.errorf(e, "Error executing maintenance task %s", task.getName());
-        }
-
-        long duration = System.currentTimeMillis() - startTime;
-
-        // Update task status
-        updateTaskExecution(instanceName, task.getId(), status, duration);
-
-        return new MaintenanceResult("SUCCESS".equals(status), message, duration);
+    public MaintenanceJob executeTask(String instanceName, ScheduledMaintenance task) {
+        MaintenanceJob job = new MaintenanceJob(MaintenanceJobService.newJobId(), instanceName, task.getTaskType(),
+                task.getTargetSchema(), task.getTargetTable(), Instant.now());
+        job.setTaskId(task.getId());
+        job.setSubmittedBy(task.getCreatedBy());
+
+        LOG.infof("Queueing maintenance task: %s - %s", task.getName(), job.getStatement());
+        maintenanceJobService.submit(job);
+
+        job.completion().thenAccept(finished -> updateTaskExecution(instanceName, task.getId(),
+                finished.getStatus() == MaintenanceJob.Status.COMPLETED ? "SUCCESS" : "FAILED",
+                finished.getDurationMs()));
+        return job;
     }
 
     /**
@@ -379,64 +372,25 @@ public class ScheduledMaintenanceService {
     public List<TableMaintenanceNeed> getTablesNeedingMaintenance(String instanceName, long deadTupleThreshold) {
         List<TableMaintenanceNeed> tables = new ArrayList<>();
 
-        try {
-            DataSource ds = dataSourceManager.getDataSource(instanceName);
-
-            String sql = """
-                SELECT
-                    schemaname,
-                    relname,
-                    n_dead_tup,
-                    n_live_tup,
-                    CASE WHEN n_live_tup > 0
-                         THEN round((n_dead_tup::numeric / n_live_tup) * 100, 2)
-                         ELSE 0 END as dead_ratio,
-                    last_vacuum,
-                    last_autovacuum,
-                    last_analyze,
-                    last_autoanalyze
-                FROM pg_stat_user_tables
-                WHERE n_dead_tup >= ?
-                ORDER BY n_dead_tup DESC
-                LIMIT 50
-                """;
-
-            try (Connection conn = ds.getConnection();
-                 PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-                stmt.setLong(1, deadTupleThreshold);
-
-                try (ResultSet rs = stmt.executeQuery()) {
-                    while (rs.next()) {
-                        TableMaintenanceNeed need = new TableMaintenanceNeed();
-                        need.setSchemaName(rs.getString("schemaname"));
-                        need.setTableName(rs.getString("relname"));
-                        need.setDeadTuples(rs.getLong("n_dead_tup"));
-                        need.setLiveTuples(rs.getLong("n_live_tup"));
-                        need.setDeadRatio(rs.getDouble("dead_ratio"));
-
-                        Timestamp lastVacuum = rs.getTimestamp("last_vacuum");
-                        if (lastVacuum != null) {
-                            need.setLastVacuum(lastVacuum.toInstant());
-                        }
-
-                        Timestamp lastAutoVacuum = rs.getTimestamp("last_autovacuum");
-                        if (lastAutoVacuum != null) {
-                            need.setLastAutoVacuum(lastAutoVacuum.toInstant());
-                        }
-
-                        Timestamp lastAnalyze = rs.getTimestamp("last_analyze");
-                        if (lastAnalyze != null) {
-                            need.setLastAnalyze(lastAnalyze.toInstant());
-                        }
-
-                        tables.add(need);
-                    }
-                }
-            }
-
-        } catch (SQLException e) {
-            LOG.debugf(e, "Error getting tables needing maintenance");
+        List<RelationCatalog.Table> candidates = catalogSnapshotService.getCatalog(instanceName).tables().stream()
+            .filter(t -> t.getDeadTuples() >= deadTupleThreshold)
+            .sorted(Comparator.comparingLong(RelationCatalog.Table::getDeadTuples).reversed())
+            .limit(50)
+            .toList();
+
+        for (RelationCatalog.Table table : candidates) {
+            TableMaintenanceNeed need = new TableMaintenanceNeed();
+            need.setSchemaName(table.getSchemaName());
+            need.setTableName(table.getName());
+            need.setDeadTuples(table.getDeadTuples());
+            need.setLiveTuples(table.getLiveTuples());
+            need.setDeadRatio(table.getLiveTuples() > 0
+                ? Math.round((double) table.getDeadTuples() / table.getLiveTuples() * 10_000) / 100.0
+                : 0);
+            need.setLastVacuum(table.getLastVacuum());
+            need.setLastAutoVacuum(table.getLastAutoVacuum());
+            need.setLastAnalyze(table.getLastAnalyse());
+            tables.add(need);
         }
 
         return tables;
@@ -628,49 +582,6 @@ public class ScheduledMaintenanceService {
         return task;
     }
 
-    private String buildMaintenanceSQL(ScheduledMaintenance task) {
-        if (task.getTaskType() == null) {
-            return null;
-        }
-
-        String target = task.getTargetTable() != null ?
-                quoteIdent(task.getTargetSchema()) + "." + quoteIdent(task.getTargetTable()) :
-                null;
-
-        return switch (task.getTaskType()) {
-            case VACUUM -> target != null ? "VACUUM " + target : "VACUUM";
-            case VACUUM_FULL -> target != null ? "VACUUM FULL " + target : "VACUUM FULL";
-            case ANALYSE -> target != null ? "ANALYZE " + target : "ANALYZE";
-            case REINDEX -> {
-                if (target != null) {
-                    yield "REINDEX TABLE " + target;
-                } else if (task.getTargetSchema() != null) {
-                    yield "REINDEX SCHEMA " + quoteIdent(task.getTargetSchema());
-                } else {
-                    yield "REINDEX DATABASE";
-                }
-            }
-            case CLUSTER -> target != null ? "CLUSTER " + target : null;
-        };
-    }
-
-    /**
-     * Quotes a SQL identifier, doubling any embedded double-quote.
-     * <p>
-     * Plain {@code String.format("\"%s\"", name)} is not injection-safe: a name
-     * containing a {@code "} breaks out of the quotes. Doubling embedded quotes
-     * follows {@code quote_ident} semantics so the identifier stays inert.
-     *
-     * @param identifier the raw identifier (may be null)
-     * @return the safely quoted identifier
-     */
-    private String quoteIdent(String identifier) {
-        if (identifier == null) {
-            return "\"\"";
-        }
-        return "\"" + identifier.replace("\"", "\"\"") + "\"";
-    }
-
     private void updateTaskExecution(String instanceName, long taskId, String status, long durationMs) {
         try {
             DataSource ds = dataSourceManager.getDataSource(instanceName);
@@ -744,11 +655,6 @@ public class ScheduledMaintenanceService {
         return days;
     }
 
-    /**
-     * Result of a maintenance operation.
-     */
-    public record MaintenanceResult(boolean success, String message, long durationMs) {}
-
     /**
      * Table needing maintenance.
      */
@@ -6,15 +6,21 @@ import com.bovinemagnet.pgconsole.model.InfrastructureMetricsHistory;
 import com.bovinemagnet.pgconsole.model.QueryMetricsHistory;
 import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
 import com.bovinemagnet.pgconsole.repository.HistoryRepository;
+import com.bovinemagnet.pgconsole.util.Lttb;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Service for generating SVG sparkline charts.
@@ -44,6 +50,21 @@ public class SparklineService {
     public static final String COLOUR_DANGER = "#dc3545";
     public static final String COLOUR_INFO = "#0dcaf0";
 
+    /**
+     * Upper bound on how long a rendered sparkline is served without a new sample
+     * arriving. Samplers invalidate on every tick; this only bounds staleness when
+     * sampling stops and the time window slides past old points.
+     */
+    private static final long CACHE_MAX_AGE_MILLIS = 60_000;
+
+    /** Cap on cached renders; the cache is cleared when exceeded. */
+    private static final int CACHE_MAX_ENTRIES = 5_000;
+
+    /**
+     * Rendered SVGs keyed by (instance, metric, window, size).
+     */
+    private final ConcurrentHashMap<CacheKey, CachedSvg> renderCache = new ConcurrentHashMap<>();
+
     /**
      * Generates a sparkline SVG from a list of values using the primary colour.
      * <p>
@@ -66,7 +87,8 @@ public class SparklineService {
      * <p>
      * This method creates a line chart sparkline with automatic scaling and includes
      * a dot marker at the last data point. Values are normalised to fit within the
-     * specified dimensions with a 1-pixel margin.
+     * specified dimensions with a 1-pixel margin. Series longer than the pixel width
+     * are downsampled with {@link Lttb} first, since extra points cannot be drawn.
      *
      * @param values the list of numeric values to plot; must contain at least 2 values
      * @param width the width of the SVG in pixels
@@ -75,47 +97,31 @@ public class SparklineService {
      * @return an SVG string representing the sparkline, or an empty sparkline if values is null or too small
      */
     public String generateSparkline(List<Double> values, int width, int height, String colour) {
-        if (values == null) {
-            return generateEmptySparkline(width, height);
-        }
         // Gappy history data can contain nulls (e.g. a metric was unavailable for a sample);
-        // drop them so arithmetic and mapToDouble(Double::doubleValue) don't NPE.
-        values = values.stream().filter(Objects::nonNull).toList();
-        if (values.size() < 2) {
+        // toArray drops them so the arithmetic below doesn't NPE.
+        double[] data = toArray(values);
+        if (data.length < 2) {
             return generateEmptySparkline(width, height);
         }
 
-        double max = values.stream().mapToDouble(Double::doubleValue).max().orElse(1.0);
-        double min = values.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-        double range = max - min;
-        if (range == 0) range = 1.0;
-
-        StringBuilder path = new StringBuilder();
-        double step = (double) width / (values.size() - 1);
+        Scale scale = Scale.of(data, width, height);
+        int[] indices = Lttb.selectIndices(data, data.length, width);
 
-        for (int i = 0; i < values.size(); i++) {
-            double x = i * step;
-            double normalizedValue = (values.get(i) - min) / range;
-            double y = height - (normalizedValue * (height - 2)) - 1; // Leave 1px margin
-
-            if (i == 0) {
-                path.append("M ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-            } else {
-                path.append(" L ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-            }
-        }
+        StringBuilder svg = new StringBuilder(96 + indices.length * 16);
+        appendSvgOpen(svg, width, height, "sparkline");
+        svg.append("<path d=\"");
+        appendLinePath(svg, data, indices, scale, "M ");
+        svg.append("\" fill=\"none\" stroke=\"").append(colour)
+           .append("\" stroke-width=\"1.5\" stroke-linecap=\"round\" stroke-linejoin=\"round\"/>");
 
         // Add current value dot at the end
-        double lastX = (values.size() - 1) * step;
-        double lastY = height - ((values.get(values.size() - 1) - min) / range * (height - 2)) - 1;
-
-        return String.format(java.util.Locale.ROOT, 
-            "<svg width=\"%d\" height=\"%d\" class=\"sparkline\" xmlns=\"http://www.w3.org/2000/svg\">" +
-            "<path d=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"1.5\" stroke-linecap=\"round\" stroke-linejoin=\"round\"/>" +
-            "<circle cx=\"%.2f\" cy=\"%.2f\" r=\"2\" fill=\"%s\"/>" +
-            "</svg>",
-            width, height, path.toString(), colour, lastX, lastY, colour
-        );
+        int last = data.length - 1;
+        svg.append("<circle cx=\"");
+        appendCoordinate(svg, scale.x(last));
+        svg.append("\" cy=\"");
+        appendCoordinate(svg, scale.y(data[last]));
+        svg.append("\" r=\"2\" fill=\"").append(colour).append("\"/></svg>");
+        return svg.toString();
     }
 
     /**
@@ -123,7 +129,8 @@ public class SparklineService {
      * <p>
      * Creates a sparkline with a filled area underneath the line, useful for showing
      * cumulative or volume-based metrics. The area is rendered with 20% opacity to
-     * allow overlaying multiple sparklines.
+     * allow overlaying multiple sparklines. Long series are downsampled with
+     * {@link Lttb} to the pixel width.
      *
      * @param values the list of numeric values to plot; must contain at least 2 values
      * @param width the width of the SVG in pixels
@@ -132,44 +139,25 @@ public class SparklineService {
      * @return an SVG string representing the area sparkline, or an empty sparkline if values is null or too small
      */
     public String generateAreaSparkline(List<Double> values, int width, int height, String colour) {
-        if (values == null || values.size() < 2) {
+        double[] data = toArray(values);
+        if (data.length < 2) {
             return generateEmptySparkline(width, height);
         }
 
-        double max = values.stream().mapToDouble(Double::doubleValue).max().orElse(1.0);
-        double min = values.stream().mapToDouble(Double::doubleValue).min().orElse(0.0);
-        double range = max - min;
-        if (range == 0) range = 1.0;
-
-        StringBuilder linePath = new StringBuilder();
-        StringBuilder areaPath = new StringBuilder();
-        double step = (double) width / (values.size() - 1);
-
-        areaPath.append("M 0 ").append(height);
+        Scale scale = Scale.of(data, width, height);
+        int[] indices = Lttb.selectIndices(data, data.length, width);
 
-        for (int i = 0; i < values.size(); i++) {
-            double x = i * step;
-            double normalizedValue = (values.get(i) - min) / range;
-            double y = height - (normalizedValue * (height - 2)) - 1;
-
-            if (i == 0) {
-                linePath.append("M ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-                areaPath.append(" L ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-            } else {
-                linePath.append(" L ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-                areaPath.append(" L ").append(String.format(java.util.Locale.ROOT, "%.2f", x)).append(" ").append(String.format(java.util.Locale.ROOT, "%.2f", y));
-            }
-        }
-
-        areaPath.append(" L ").append(width).append(" ").append(height).append(" Z");
-
-        return String.format(java.util.Locale.ROOT, 
-            "<svg width=\"%d\" height=\"%d\" class=\"sparkline\" xmlns=\"http://www.w3.org/2000/svg\">" +
-            "<path d=\"%s\" fill=\"%s\" fill-opacity=\"0.2\"/>" +
-            "<path d=\"%s\" fill=\"none\" stroke=\"%s\" stroke-width=\"1.5\" stroke-linecap=\"round\" stroke-linejoin=\"round\"/>" +
-            "</svg>",
-            width, height, areaPath.toString(), colour, linePath.toString(), colour
-        );
+        StringBuilder svg = new StringBuilder(128 + indices.length * 32);
+        appendSvgOpen(svg, width, height, "sparkline");
+        svg.append("<path d=\"M 0 ").append(height);
+        appendLinePath(svg, data, indices, scale, " L ");
+        svg.append(" L ").append(width).append(' ').append(height).append(" Z\" fill=\"").append(colour)
+           .append("\" fill-opacity=\"0.2\"/>");
+        svg.append("<path d=\"");
+        appendLinePath(svg, data, indices, scale, "M ");
+        svg.append("\" fill=\"none\" stroke=\"").append(colour)
+           .append("\" stroke-width=\"1.5\" stroke-linecap=\"round\" stroke-linejoin=\"round\"/></svg>");
+        return svg.toString();
     }
 
     /**
@@ -184,12 +172,98 @@ public class SparklineService {
      * @return an SVG string representing an empty sparkline placeholder
      */
     public String generateEmptySparkline(int width, int height) {
-        return String.format(java.util.Locale.ROOT, 
-            "<svg width=\"%d\" height=\"%d\" class=\"sparkline sparkline-empty\" xmlns=\"http://www.w3.org/2000/svg\">" +
-            "<line x1=\"0\" y1=\"%d\" x2=\"%d\" y2=\"%d\" stroke=\"#6c757d\" stroke-width=\"1\" stroke-dasharray=\"2,2\" opacity=\"0.5\"/>" +
-            "</svg>",
-            width, height, height / 2, width, height / 2
-        );
+        StringBuilder svg = new StringBuilder(256);
+        appendSvgOpen(svg, width, height, "sparkline sparkline-empty");
+        svg.append("<line x1=\"0\" y1=\"").append(height / 2)
+           .append("\" x2=\"").append(width)
+           .append("\" y2=\"").append(height / 2)
+           .append("\" stroke=\"#6c757d\" stroke-width=\"1\" stroke-dasharray=\"2,2\" opacity=\"0.5\"/></svg>");
+        return svg.toString();
+    }
+
+    // --- SVG building helpers ---
+
+    /**
+     * Maps series indices and values onto sparkline pixel coordinates.
+     */
+    private record Scale(double min, double range, double step, int height) {
+
+        static Scale of(double[] data, int width, int height) {
+            double min = data[0];
+            double max = data[0];
+            for (double v : data) {
+                if (v < min) min = v;
+                if (v > max) max = v;
+            }
+            double range = max - min;
+            if (range == 0) range = 1.0;
+            return new Scale(min, range, (double) width / (data.length - 1), height);
+        }
+
+        double x(int index) {
+            return index * step;
+        }
+
+        double y(double value) {
+            // Leave 1px margin
+            return height - ((value - min) / range * (height - 2)) - 1;
+        }
+    }
+
+    /**
+     * Copies non-null values into a primitive array.
+     */
+    private static double[] toArray(List<Double> values) {
+        if (values == null) {
+            return new double[0];
+        }
+        double[] data = new double[values.size()];
+        int n = 0;
+        for (Double v : values) {
+            if (v != null) {
+                data[n++] = v;
+            }
+        }
+        return n == data.length ? data : Arrays.copyOf(data, n);
+    }
+
+    private static void appendSvgOpen(StringBuilder svg, int width, int height, String cssClass) {
+        svg.append("<svg width=\"").append(width)
+           .append("\" height=\"").append(height)
+           .append("\" class=\"").append(cssClass)
+           .append("\" xmlns=\"http://www.w3.org/2000/svg\">");
+    }
+
+    /**
+     * Appends "{firstCommand}x y L x y ..." for the selected points.
+     */
+    private static void appendLinePath(StringBuilder svg, double[] data, int[] indices, Scale scale,
+                                       String firstCommand) {
+        for (int i = 0; i < indices.length; i++) {
+            svg.append(i == 0 ? firstCommand : " L ");
+            appendCoordinate(svg, scale.x(indices[i]));
+            svg.append(' ');
+            appendCoordinate(svg, scale.y(data[indices[i]]));
+        }
+    }
+
+    /**
+     * Appends a coordinate with two decimal places and a dot separator,
+     * equivalent to {@code String.format(Locale.ROOT, "%.2f", value)} without
+     * the formatter overhead.
+     */
+    static void appendCoordinate(StringBuilder sb, double value) {
+        long scaled = Math.round(value * 100);
+        if (scaled < 0) {
+            sb.append('-');
+            scaled = -scaled;
+        }
+        sb.append(scaled / 100).append('.');
+        long fraction = scaled % 100;
+        if (fraction < 10) {
+            sb.append('0');
+        }
+        sb.append(fraction);
     }
 
     // --- Convenience methods for common sparkline types ---
@@ -209,11 +283,7 @@ public class SparklineService {
      * @return an SVG string representing the connections trend sparkline
      */
     public String getConnectionsSparkline(String instanceId, int hours, int width, int height) {
-        List<SystemMetricsHistory> history = getSystemMetricsHistory(instanceId, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getTotalConnections())
-            .toList();
-        return generateAreaSparkline(values, width, height, COLOUR_PRIMARY);
+        return renderSystemSparkline(instanceId, SystemSparkline.CONNECTIONS, hours, width, height);
     }
 
     /**
@@ -246,11 +316,7 @@ public class SparklineService {
      * @return an SVG string representing the active queries trend sparkline
      */
     public String getActiveQueriesSparkline(String instanceId, int hours, int width, int height) {
-        List<SystemMetricsHistory> history = getSystemMetricsHistory(instanceId, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getActiveQueries())
-            .toList();
-        return generateAreaSparkline(values, width, height, COLOUR_SUCCESS);
+        return renderSystemSparkline(instanceId, SystemSparkline.ACTIVE_QUERIES, hours, width, height);
     }
 
     /**
@@ -282,11 +348,7 @@ public class SparklineService {
      * @return an SVG string representing the blocked queries trend sparkline
      */
     public String getBlockedQueriesSparkline(String instanceId, int hours, int width, int height) {
-        List<SystemMetricsHistory> history = getSystemMetricsHistory(instanceId, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getBlockedQueries())
-            .toList();
-        return generateAreaSparkline(values, width, height, COLOUR_DANGER);
+        return renderSystemSparkline(instanceId, SystemSparkline.BLOCKED_QUERIES, hours, width, height);
     }
 
     /**
@@ -318,11 +380,7 @@ public class SparklineService {
      * @return an SVG string representing the cache hit ratio trend sparkline
      */
     public String getCacheHitRatioSparkline(String instanceId, int hours, int width, int height) {
-        List<SystemMetricsHistory> history = getSystemMetricsHistory(instanceId, hours);
-        List<Double> values = history.stream()
-            .map(h -> h.getCacheHitRatio() != null ? h.getCacheHitRatio() : 100.0)
-            .toList();
-        return generateSparkline(values, width, height, COLOUR_INFO);
+        return renderSystemSparkline(instanceId, SystemSparkline.CACHE_HIT_RATIO, hours, width, height);
     }
 
     /**
@@ -353,11 +411,13 @@ public class SparklineService {
      * @return an SVG string representing the query mean time trend sparkline
      */
     public String getQueryMeanTimeSparkline(String instanceId, String queryId, int hours, int width, int height) {
-        List<QueryMetricsHistory> history = historyRepository.getQueryMetricsHistory(instanceId, queryId, hours);
-        List<Double> values = history.stream()
-            .map(QueryMetricsHistory::getMeanTimeMs)
-            .toList();
-        return generateSparkline(values, width, height, COLOUR_WARNING);
+        return cached(new CacheKey(instanceId, "query-mean-time:" + queryId, hours, width, height), () -> {
+            List<QueryMetricsHistory> history = historyRepository.getQueryMetricsHistory(instanceId, queryId, hours);
+            List<Double> values = history.stream()
+                .map(QueryMetricsHistory::getMeanTimeMs)
+                .toList();
+            return generateSparkline(values, width, height, COLOUR_WARNING);
+        });
     }
 
     /**
@@ -389,11 +449,13 @@ public class SparklineService {
      * @return an SVG string representing the query calls trend sparkline
      */
     public String getQueryCallsSparkline(String instanceId, String queryId, int hours, int width, int height) {
-        List<QueryMetricsHistory> history = historyRepository.getQueryMetricsHistory(instanceId, queryId, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getTotalCalls())
-            .toList();
-        return generateSparkline(values, width, height, COLOUR_PRIMARY);
+        return cached(new CacheKey(instanceId, "query-calls:" + queryId, hours, width, height), () -> {
+            List<QueryMetricsHistory> history = historyRepository.getQueryMetricsHistory(instanceId, queryId, hours);
+            List<Double> values = history.stream()
+                .map(h -> (double) h.getTotalCalls())
+                .toList();
+            return generateSparkline(values, width, height, COLOUR_PRIMARY);
+        });
     }
 
     /**
@@ -411,6 +473,222 @@ public class SparklineService {
         return getQueryCallsSparkline("default", queryId, hours, width, height);
     }
 
+    // --- Render cache and batch rendering ---
+
+    /**
+     * Cache key for a rendered sparkline.
+     */
+    private record CacheKey(String instanceId, String metric, int hours, int width, int height) {
+    }
+
+    /**
+     * A rendered sparkline and when it was rendered.
+     */
+    private record CachedSvg(String svg, long renderedAtMillis) {
+    }
+
+    /**
+     * System-history sparklines, keyed by the metric name used by the batch API.
+     */
+    private enum SystemSparkline {
+        CONNECTIONS("connections", true, COLOUR_PRIMARY, h -> (double) h.getTotalConnections()),
+        ACTIVE_QUERIES("active-queries", true, COLOUR_SUCCESS, h -> (double) h.getActiveQueries()),
+        BLOCKED_QUERIES("blocked-queries", true, COLOUR_DANGER, h -> (double) h.getBlockedQueries()),
+        IDLE_CONNECTIONS("idle-connections", true, COLOUR_WARNING, h -> (double) h.getIdleConnections()),
+        // Missing or null values default to 100%
+        CACHE_HIT_RATIO("cache-hit-ratio", false, COLOUR_INFO,
+                h -> h.getCacheHitRatio() != null ? h.getCacheHitRatio() : 100.0);
+
+        final String key;
+        final boolean area;
+        final String colour;
+        final Function<SystemMetricsHistory, Double> extractor;
+
+        SystemSparkline(String key, boolean area, String colour, Function<SystemMetricsHistory, Double> extractor) {
+            this.key = key;
+            this.area = area;
+            this.colour = colour;
+            this.extractor = extractor;
+        }
+
+        static SystemSparkline fromKey(String key) {
+            for (SystemSparkline s : values()) {
+                if (s.key.equals(key)) {
+                    return s;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Infrastructure-history sparklines (per-second rates of cumulative counters).
+     */
+    private enum InfrastructureSparkline {
+        WAL_BYTES_RATE("wal-bytes-rate", true, COLOUR_PRIMARY, InfrastructureMetricsHistory::getWalBytes),
+        WAL_RECORDS_RATE("wal-records-rate", true, COLOUR_SUCCESS, InfrastructureMetricsHistory::getWalRecords),
+        CHECKPOINTS_TIMED("checkpoints-timed", false, COLOUR_PRIMARY, InfrastructureMetricsHistory::getCheckpointsTimed),
+        CHECKPOINTS_REQ("checkpoints-req", false, COLOUR_WARNING, InfrastructureMetricsHistory::getCheckpointsReq),
+        BUFFERS_ALLOC_RATE("buffers-alloc-rate", true, COLOUR_INFO, InfrastructureMetricsHistory::getBuffersAlloc);
+
+        final String key;
+        final boolean area;
+        final String colour;
+        final Function<InfrastructureMetricsHistory, Long> extractor;
+
+        InfrastructureSparkline(String key, boolean area, String colour,
+                                Function<InfrastructureMetricsHistory, Long> extractor) {
+            this.key = key;
+            this.area = area;
+            this.colour = colour;
+            this.extractor = extractor;
+        }
+
+        static InfrastructureSparkline fromKey(String key) {
+            for (InfrastructureSparkline s : values()) {
+                if (s.key.equals(key)) {
+                    return s;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Returns the metric names accepted by {@link #getSparklines(String, Collection, int, int, int)}.
+     *
+     * @return supported metric names, system metrics first
+     */
+    public List<String> getBatchMetricNames() {
+        List<String> names = new ArrayList<>();
+        for (SystemSparkline s : SystemSparkline.values()) {
+            names.add(s.key);
+        }
+        for (InfrastructureSparkline s : InfrastructureSparkline.values()) {
+            names.add(s.key);
+        }
+        return names;
+    }
+
+    /**
+     * Renders several instance-level sparklines in one call.
+     * <p>
+     * Cached renders are reused; for the rest, system and infrastructure history is
+     * fetched at most once each and shared between metrics, rather than once per
+     * sparkline. Unknown metric names are skipped.
+     *
+     * @param instanceId the database instance identifier
+     * @param metrics    metric names (see {@link #getBatchMetricNames()})
+     * @param hours      the number of hours of history to retrieve
+     * @param width      the width of each SVG in pixels
+     * @param height     the height of each SVG in pixels
+     * @return SVG strings keyed by metric name, in request order
+     */
+    public Map<String, String> getSparklines(String instanceId, Collection<String> metrics,
+                                             int hours, int width, int height) {
+        Map<String, String> result = new LinkedHashMap<>();
+        List<SystemMetricsHistory> systemHistory = null;
+        List<InfrastructureMetricsHistory> infrastructureHistory = null;
+
+        for (String metric : metrics) {
+            CacheKey key = new CacheKey(instanceId, metric, hours, width, height);
+            String svg = lookup(key);
+            if (svg == null) {
+                SystemSparkline system = SystemSparkline.fromKey(metric);
+                InfrastructureSparkline infrastructure = InfrastructureSparkline.fromKey(metric);
+                if (system != null) {
+                    if (systemHistory == null) {
+                        systemHistory = getSystemMetricsHistory(instanceId, hours);
+                    }
+                    svg = render(system, systemHistory, width, height);
+                } else if (infrastructure != null) {
+                    if (infrastructureHistory == null) {
+                        infrastructureHistory = getInfrastructureMetricsHistory(instanceId, hours);
+                    }
+                    svg = render(infrastructure, infrastructureHistory, width, height);
+                } else {
+                    continue;
+                }
+                store(key, svg);
+            }
+            result.put(metric, svg);
+        }
+        return result;
+    }
+
+    /**
+     * Drops all cached sparklines for an instance.
+     * <p>
+     * Called by the samplers whenever a new sample has been recorded, so the next
+     * render picks it up.
+     *
+     * @param instanceId the database instance identifier
+     */
+    public void invalidate(String instanceId) {
+        renderCache.keySet().removeIf(key -> key.instanceId().equals(instanceId));
+    }
+
+    /**
+     * Drops all cached sparklines.
+     */
+    public void clearCache() {
+        renderCache.clear();
+    }
+
+    private String renderSystemSparkline(String instanceId, SystemSparkline metric, int hours, int width, int height) {
+        return cached(new CacheKey(instanceId, metric.key, hours, width, height),
+                () -> render(metric, getSystemMetricsHistory(instanceId, hours), width, height));
+    }
+
+    private String renderInfrastructureSparkline(String instanceId, InfrastructureSparkline metric,
+                                                 int hours, int width, int height) {
+        return cached(new CacheKey(instanceId, metric.key, hours, width, height),
+                () -> render(metric, getInfrastructureMetricsHistory(instanceId, hours), width, height));
+    }
+
+    private String render(SystemSparkline metric, List<SystemMetricsHistory> history, int width, int height) {
+        List<Double> values = history.stream().map(metric.extractor).toList();
+        return metric.area
+                ? generateAreaSparkline(values, width, height, metric.colour)
+                : generateSparkline(values, width, height, metric.colour);
+    }
+
+    private String render(InfrastructureSparkline metric, List<InfrastructureMetricsHistory> history,
+                          int width, int height) {
+        List<Double> rates = computeRates(history, metric.extractor, InfrastructureMetricsHistory::getSampledAt);
+        return metric.area
+                ? generateAreaSparkline(rates, width, height, metric.colour)
+                : generateSparkline(rates, width, height, metric.colour);
+    }
+
+    private String cached(CacheKey key, Supplier<String> renderer) {
+        String svg = lookup(key);
+        if (svg == null) {
+            svg = renderer.get();
+            store(key, svg);
+        }
+        return svg;
+    }
+
+    private String lookup(CacheKey key) {
+        CachedSvg entry = renderCache.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() - entry.renderedAtMillis() > CACHE_MAX_AGE_MILLIS) {
+            renderCache.remove(key, entry);
+            return null;
+        }
+        return entry.svg();
+    }
+
+    private void store(CacheKey key, String svg) {
+        if (renderCache.size() >= CACHE_MAX_ENTRIES) {
+            renderCache.clear();
+        }
+        renderCache.put(key, new CachedSvg(svg, System.currentTimeMillis()));
+    }
+
     // --- Helper methods for data source routing ---
 
     /**
@@ -529,94 +807,114 @@ public class SparklineService {
      * Generates a commit rate sparkline for a database.
      */
     public String getDatabaseCommitRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getXactCommit, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        return cached(new CacheKey(instanceId, "db-commit-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getXactCommit, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        });
     }
 
     /**
      * Generates a rollback rate sparkline for a database.
      */
     public String getDatabaseRollbackRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getXactRollback, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_DANGER);
+        return cached(new CacheKey(instanceId, "db-rollback-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getXactRollback, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_DANGER);
+        });
     }
 
     /**
      * Generates a tuple insert rate sparkline for a database.
      */
     public String getDatabaseTupleInsertRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupInserted, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        return cached(new CacheKey(instanceId, "db-tuple-insert-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupInserted, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        });
     }
 
     /**
      * Generates a tuple update rate sparkline for a database.
      */
     public String getDatabaseTupleUpdateRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupUpdated, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_PRIMARY);
+        return cached(new CacheKey(instanceId, "db-tuple-update-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupUpdated, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_PRIMARY);
+        });
     }
 
     /**
      * Generates a tuple delete rate sparkline for a database.
      */
     public String getDatabaseTupleDeleteRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupDeleted, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_DANGER);
+        return cached(new CacheKey(instanceId, "db-tuple-delete-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupDeleted, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_DANGER);
+        });
     }
 
     /**
      * Generates a tuple fetch rate sparkline for a database.
      */
     public String getDatabaseTupleFetchRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupFetched, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_INFO);
+        return cached(new CacheKey(instanceId, "db-tuple-fetch-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getTupFetched, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_INFO);
+        });
     }
 
     /**
      * Generates a cache hits rate sparkline for a database.
      */
     public String getDatabaseBlocksHitRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getBlksHit, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        return cached(new CacheKey(instanceId, "db-blocks-hit-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getBlksHit, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        });
     }
 
     /**
      * Generates a disk reads rate sparkline for a database.
      */
     public String getDatabaseBlocksReadRateSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> rates = computeRates(history, DatabaseMetricsHistory::getBlksRead, DatabaseMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_WARNING);
+        return cached(new CacheKey(instanceId, "db-blocks-read-rate:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> rates = computeRates(history, DatabaseMetricsHistory::getBlksRead, DatabaseMetricsHistory::getSampledAt);
+            return generateAreaSparkline(rates, width, height, COLOUR_WARNING);
+        });
     }
 
     /**
      * Generates a cache hit ratio sparkline for a database (direct value, not rate).
      */
     public String getDatabaseCacheHitRatioSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> values = history.stream()
-            .map(h -> h.getCacheHitRatio() != null ? h.getCacheHitRatio() : 100.0)
-            .toList();
-        return generateSparkline(values, width, height, COLOUR_INFO);
+        return cached(new CacheKey(instanceId, "db-cache-hit-ratio:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> values = history.stream()
+                .map(h -> h.getCacheHitRatio() != null ? h.getCacheHitRatio() : 100.0)
+                .toList();
+            return generateSparkline(values, width, height, COLOUR_INFO);
+        });
     }
 
     /**
      * Generates a connections sparkline for a database (direct value, not rate).
      */
     public String getDatabaseConnectionsSparkline(String instanceId, String dbName, int hours, int width, int height) {
-        List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getNumBackends())
-            .toList();
-        return generateAreaSparkline(values, width, height, COLOUR_PRIMARY);
+        return cached(new CacheKey(instanceId, "db-connections:" + dbName, hours, width, height), () -> {
+            List<DatabaseMetricsHistory> history = getDatabaseMetricsHistory(instanceId, dbName, hours);
+            List<Double> values = history.stream()
+                .map(h -> (double) h.getNumBackends())
+                .toList();
+            return generateAreaSparkline(values, width, height, COLOUR_PRIMARY);
+        });
     }
 
     // --- System-level idle connections sparkline ---
@@ -625,11 +923,7 @@ public class SparklineService {
      * Generates an idle connections sparkline from system history.
      */
     public String getIdleConnectionsSparkline(String instanceId, int hours, int width, int height) {
-        List<SystemMetricsHistory> history = getSystemMetricsHistory(instanceId, hours);
-        List<Double> values = history.stream()
-            .map(h -> (double) h.getIdleConnections())
-            .toList();
-        return generateAreaSparkline(values, width, height, COLOUR_WARNING);
+        return renderSystemSparkline(instanceId, SystemSparkline.IDLE_CONNECTIONS, hours, width, height);
     }
 
     // --- WAL sparkline methods ---
@@ -638,18 +932,14 @@ public class SparklineService {
      * Generates a WAL bytes/sec rate sparkline.
      */
     public String getWalBytesRateSparkline(String instanceId, int hours, int width, int height) {
-        List<InfrastructureMetricsHistory> history = getInfrastructureMetricsHistory(instanceId, hours);
-        List<Double> rates = computeRates(history, InfrastructureMetricsHistory::getWalBytes, InfrastructureMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_PRIMARY);
+        return renderInfrastructureSparkline(instanceId, InfrastructureSparkline.WAL_BYTES_RATE, hours, width, height);
     }
 
     /**
      * Generates a WAL records/sec rate sparkline.
      */
     public String getWalRecordsRateSparkline(String instanceId, int hours, int width, int height) {
-        List<InfrastructureMetricsHistory> history = getInfrastructureMetricsHistory(instanceId, hours);
-        List<Double> rates = computeRates(history, InfrastructureMetricsHistory::getWalRecords, InfrastructureMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_SUCCESS);
+        return renderInfrastructureSparkline(instanceId, InfrastructureSparkline.WAL_RECORDS_RATE, hours, width, height);
     }
 
     // --- Checkpoint sparkline methods ---
@@ -658,26 +948,20 @@ public class SparklineService {
      * Generates a timed checkpoints rate sparkline.
      */
     public String getCheckpointsTimedSparkline(String instanceId, int hours, int width, int height) {
-        List<InfrastructureMetricsHistory> history = getInfrastructureMetricsHistory(instanceId, hours);
-        List<Double> rates = computeRates(history, InfrastructureMetricsHistory::getCheckpointsTimed, InfrastructureMetricsHistory::getSampledAt);
-        return generateSparkline(rates, width, height, COLOUR_PRIMARY);
+        return renderInfrastructureSparkline(instanceId, InfrastructureSparkline.CHECKPOINTS_TIMED, hours, width, height);
     }
 
     /**
      * Generates a requested checkpoints rate sparkline.
      */
     public String getCheckpointsReqSparkline(String instanceId, int hours, int width, int height) {
-        List<InfrastructureMetricsHistory> history = getInfrastructureMetricsHistory(instanceId, hours);
-        List<Double> rates = computeRates(history, InfrastructureMetricsHistory::getCheckpointsReq, InfrastructureMetricsHistory::getSampledAt);
-        return generateSparkline(rates, width, height, COLOUR_WARNING);
+        return renderInfrastructureSparkline(instanceId, InfrastructureSparkline.CHECKPOINTS_REQ, hours, width, height);
     }
 
     /**
      * Generates a buffers allocated rate sparkline.
      */
     public String getBuffersAllocRateSparkline(String instanceId, int hours, int width, int height) {
-        List<InfrastructureMetricsHistory> history = getInfrastructureMetricsHistory(instanceId, hours);
-        List<Double> rates = computeRates(history, InfrastructureMetricsHistory::getBuffersAlloc, InfrastructureMetricsHistory::getSampledAt);
-        return generateAreaSparkline(rates, width, height, COLOUR_INFO);
+        return renderInfrastructureSparkline(instanceId, InfrastructureSparkline.BUFFERS_ALLOC_RATE, hours, width, height);
     }
 }
@@ -0,0 +1,270 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.StatementActivity;
+import com.bovinemagnet.pgconsole.model.StatementInterval;
+import com.bovinemagnet.pgconsole.model.StatementMetric;
+import com.bovinemagnet.pgconsole.model.StatementWindow;
+import com.bovinemagnet.pgconsole.repository.StatementHistoryRepository;
+import com.bovinemagnet.pgconsole.util.TopN;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tracks the heavy-hitter statements of each instance from one sample to the next.
+ * <p>
+ * The history sampler keeps the statements with the most cumulative execution
+ * time, so a statement that is busy for only a few minutes, such as a new
+ * query during a deploy, rarely makes it. Instead, each sample here reads the
+ * counters of every {@code pg_stat_statements} entry, without query text, and
+ * subtracts the previous sample's to find what each statement did in between.
+ * The top {@code heavy-hitters.top-k} statements by time, calls and I/O are
+ * kept, together with each metric's floor: the largest value of any statement
+ * that was not kept.
+ * <p>
+ * Every kept value is exact, so merging intervals over a window bounds each
+ * statement's total the way merged Space-Saving summaries do: at least the sum
+ * of the intervals in which it was kept, and at most that plus the floors of
+ * the rest. The previous counters are held in memory, one entry per statement,
+ * which {@code pg_stat_statements.max} bounds.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see StatementHistoryRepository
+ * @see MetricsSamplerService
+ */
+@ApplicationScoped
+public class StatementHeavyHitterService {
+
+    private static final Logger LOG = Logger.getLogger(StatementHeavyHitterService.class);
+
+    private static final String COUNTERS_SQL = """
+        SELECT
+            md5(query) AS query_id,
+            SUM(total_exec_time) AS time_ms,
+            SUM(calls) AS calls,
+            SUM(shared_blks_read + temp_blks_read + temp_blks_written) AS io_blocks
+        FROM pg_stat_statements
+        WHERE query NOT LIKE '%pg_stat_statements%'
+          AND query NOT LIKE '%pg_console%'
+        GROUP BY md5(query)
+        """;
+
+    private static final String TEXT_SQL = """
+        SELECT DISTINCT ON (md5(query)) md5(query) AS query_id, query
+        FROM pg_stat_statements
+        WHERE md5(query) = ANY (?)
+        """;
+
+    /**
+     * One instance's counters at its previous sample.
+     */
+    private record Baseline(Instant sampledAt, Map<String, StatementActivity> counters) {
+    }
+
+    @Inject
+    InstanceConfig config;
+
+    @Inject
+    DataSourceManager dataSourceManager;
+
+    @Inject
+    StatementHistoryRepository statementHistoryRepository;
+
+    private final Map<String, Baseline> baselines = new ConcurrentHashMap<>();
+
+    /**
+     * Samples an instance's statements and saves the heavy hitters since its
+     * previous sample. The first sample of an instance only records its
+     * counters. Failures are logged rather than thrown.
+     *
+     * @param instanceId the instance to sample
+     */
+    public void sample(String instanceId) {
+        Instant sampledAt = Instant.now();
+        StatementInterval interval;
+
+        try (Connection conn = dataSourceManager.getDataSource(instanceId).getConnection()) {
+            Map<String, StatementActivity> counters = new HashMap<>();
+            try (Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(COUNTERS_SQL)) {
+                while (rs.next()) {
+                    String queryId = rs.getString("query_id");
+                    counters.put(queryId, new StatementActivity(queryId, rs.getDouble("time_ms"),
+                            rs.getLong("calls"), rs.getLong("io_blocks")));
+                }
+            }
+
+            interval = advance(instanceId, sampledAt, counters, config.history().heavyHitters().topK());
+            if (interval == null) {
+                return;
+            }
+            readQueryTexts(conn, interval.getHeavyHitters());
+        } catch (SQLException e) {
+            LOG.warnf(e, "Failed to sample statement activity for %s", instanceId);
+            return;
+        }
+
+        try {
+            statementHistoryRepository.saveInterval(instanceId, interval);
+        } catch (RuntimeException e) {
+            LOG.warnf(e, "Failed to save statement activity for %s", instanceId);
+        }
+    }
+
+    /**
+     * Forgets an instance's counters, for example when another replica takes
+     * over sampling it. Its next sample here starts afresh.
+     *
+     * @param instanceId the instance
+     */
+    public void forget(String instanceId) {
+        baselines.remove(instanceId);
+    }
+
+    /**
+     * Finds an instance's top statements over a window.
+     *
+     * @param instanceId the instance
+     * @param metric the metric to rank by
+     * @param from start of the window, inclusive
+     * @param to end of the window, exclusive
+     * @param limit how many statements to return
+     * @return the window's totals and top statements with their bounds
+     */
+    public StatementWindow topStatements(String instanceId, StatementMetric metric, Instant from, Instant to,
+                                         int limit) {
+        return statementHistoryRepository.findTopStatements(instanceId, metric, from, to, limit);
+    }
+
+    /**
+     * Records an instance's counters and returns what changed since the
+     * previous call; package-private for tests.
+     * <p>
+     * A statement whose calls went down was reset or evicted and re-added
+     * since the previous sample, so its current counters are all new.
+     *
+     * @param instanceId the instance
+     * @param sampledAt when the counters were read
+     * @param counters the cumulative counters, by query id
+     * @param topK how many statements to keep per metric
+     * @return the interval, or {@code null} if this is the instance's first sample
+     */
+    StatementInterval advance(String instanceId, Instant sampledAt, Map<String, StatementActivity> counters,
+                              int topK) {
+        Baseline previous = baselines.put(instanceId, new Baseline(sampledAt, counters));
+        if (previous == null) {
+            return null;
+        }
+
+        StatementInterval interval = new StatementInterval();
+        interval.setSampledAt(sampledAt);
+        interval.setIntervalSeconds(Duration.between(previous.sampledAt(), sampledAt).toMillis() / 1000.0);
+        StatementActivity totals = interval.getTotals();
+        List<TopN<StatementActivity>> tops = new ArrayList<>();
+        // Every metric keeps at most topK, so the first statement a metric ranks outside
+        // the combined kept set, which gives its floor, is within this many
+        int ranked = topK * StatementMetric.values().length + 1;
+        for (StatementMetric metric : StatementMetric.values()) {
+            tops.add(new TopN<>(ranked, Comparator.comparingDouble(metric::valueOf)));
+        }
+
+        int active = 0;
+        for (StatementActivity current : counters.values()) {
+            StatementActivity before = previous.counters().get(current.getQueryId());
+            StatementActivity delta = before == null || current.getCalls() < before.getCalls()
+                    ? new StatementActivity(current.getQueryId(), current.getTimeMs(), current.getCalls(),
+                            current.getIoBlocks())
+                    : new StatementActivity(current.getQueryId(),
+                            Math.max(0, current.getTimeMs() - before.getTimeMs()),
+                            current.getCalls() - before.getCalls(),
+                            Math.max(0, current.getIoBlocks() - before.getIoBlocks()));
+            if (delta.getCalls() == 0 && delta.getTimeMs() == 0 && delta.getIoBlocks() == 0) {
+                continue;
+            }
+            active++;
+            totals.setTimeMs(totals.getTimeMs() + delta.getTimeMs());
+            totals.setCalls(totals.getCalls() + delta.getCalls());
+            totals.setIoBlocks(totals.getIoBlocks() + delta.getIoBlocks());
+            for (TopN<StatementActivity> top : tops) {
+                top.offer(delta);
+            }
+        }
+        interval.setStatements(active);
+
+        Map<String, StatementActivity> kept = new LinkedHashMap<>();
+        StatementMetric[] metrics = StatementMetric.values();
+        List<List<StatementActivity>> rankings = new ArrayList<>();
+        for (int i = 0; i < metrics.length; i++) {
+            List<StatementActivity> ranking = tops.get(i).toList();
+            rankings.add(ranking);
+            for (int rank = 0; rank < Math.min(topK, ranking.size()); rank++) {
+                StatementActivity statement = ranking.get(rank);
+                if (metrics[i].valueOf(statement) <= 0) {
+                    break;
+                }
+                kept.putIfAbsent(statement.getQueryId(), statement);
+            }
+        }
+
+        // A floor is the largest value of a statement that no metric kept
+        StatementActivity floors = interval.getFloors();
+        for (int i = 0; i < metrics.length; i++) {
+            double floor = 0;
+            for (StatementActivity statement : rankings.get(i)) {
+                if (!kept.containsKey(statement.getQueryId())) {
+                    floor = Math.max(0, metrics[i].valueOf(statement));
+                    break;
+                }
+            }
+            switch (metrics[i]) {
+                case TIME -> floors.setTimeMs(floor);
+                case CALLS -> floors.setCalls((long) floor);
+                case IO -> floors.setIoBlocks((long) floor);
+            }
+        }
+        interval.getHeavyHitters().addAll(kept.values());
+        return interval;
+    }
+
+    private static void readQueryTexts(Connection conn, List<StatementActivity> statements) throws SQLException {
+        if (statements.isEmpty()) {
+            return;
+        }
+        Map<String, StatementActivity> byId = new HashMap<>();
+        for (StatementActivity statement : statements) {
+            byId.put(statement.getQueryId(), statement);
+        }
+        Array ids = conn.createArrayOf("text", byId.keySet().toArray());
+        try (PreparedStatement stmt = conn.prepareStatement(TEXT_SQL)) {
+            stmt.setArray(1, ids);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    StatementActivity statement = byId.get(rs.getString("query_id"));
+                    if (statement != null) {
+                        statement.setQueryText(rs.getString("query"));
+                    }
+                }
+            }
+        } finally {
+            ids.free();
+        }
+    }
+}
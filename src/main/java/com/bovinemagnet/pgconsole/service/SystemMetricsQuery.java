@@ -0,0 +1,146 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Metric;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * System metrics query shared by {@link MetricsSamplerService} and
+ * {@link InMemoryMetricsSampler}.
+ * <p>
+ * When alerting is enabled the samplers use {@link #WITH_ALERTING_SQL}, which
+ * adds the extra columns the alert rules need to the same round trip, so
+ * alerting no longer runs its own probes against each instance.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+final class SystemMetricsQuery {
+
+    /**
+     * System metrics sampled on every tick.
+     */
+    static final String SQL = """
+            SELECT
+                (SELECT count(*) FROM pg_stat_activity) as total_connections,
+                (SELECT setting::int FROM pg_settings WHERE name = 'max_connections') as max_connections,
+                (SELECT count(*) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as active_queries,
+                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle') as idle_connections,
+                (SELECT count(*) FROM pg_stat_activity WHERE state = 'idle in transaction') as idle_in_transaction,
+                (SELECT count(*) FROM pg_stat_activity WHERE wait_event_type = 'Lock') as blocked_queries,
+                (SELECT EXTRACT(EPOCH FROM max(now() - query_start)) FROM pg_stat_activity WHERE state = 'active' AND query NOT LIKE '%pg_stat_activity%') as longest_query_seconds,
+                (SELECT EXTRACT(EPOCH FROM max(now() - xact_start)) FROM pg_stat_activity WHERE xact_start IS NOT NULL) as longest_transaction_seconds,
+                (SELECT
+                    CASE WHEN sum(blks_hit) + sum(blks_read) > 0
+                    THEN (sum(blks_hit) * 100.0) / (sum(blks_hit) + sum(blks_read))
+                    ELSE 100.0 END
+                FROM pg_stat_database) as cache_hit_ratio,
+                (SELECT sum(pg_database_size(datname)) FROM pg_database WHERE datistemplate = false) as total_database_size_bytes
+            """;
+
+    /**
+     * System metrics plus the deadlock, replication, XID and bloat columns
+     * evaluated by the alert rules.
+     */
+    static final String WITH_ALERTING_SQL = SQL.stripTrailing() + """
+            ,
+                (SELECT COALESCE(sum(deadlocks), 0) FROM pg_stat_database WHERE datname IS NOT NULL) as total_deadlocks,
+                (SELECT EXTRACT(EPOCH FROM now() - min(stats_reset)) FROM pg_stat_database WHERE datname IS NOT NULL) as stats_age_seconds,
+                (SELECT EXTRACT(EPOCH FROM max(replay_lag)) FROM pg_stat_replication) as replication_lag_seconds,
+                xid.datname as xid_database,
+                xid.wraparound_percent,
+                bloat.table_name as bloat_table_name,
+                bloat.bloat_percent
+            FROM (SELECT 1) AS sample
+            LEFT JOIN LATERAL (
+                SELECT datname, round(100 * age(datfrozenxid)::numeric / 2147483647, 2) as wraparound_percent
+                FROM pg_database
+                WHERE datname NOT LIKE 'template%'
+                ORDER BY age(datfrozenxid) DESC
+                LIMIT 1
+            ) xid ON true
+            LEFT JOIN LATERAL (
+                SELECT
+                    s.schemaname || '.' || s.relname as table_name,
+                    round(100 * (1 - (s.n_live_tup::float * 0.05) / NULLIF(c.relpages * 8192, 0))::numeric, 2) as bloat_percent
+                FROM pg_stat_user_tables s
+                JOIN pg_class c ON c.oid = s.relid
+                WHERE c.relpages > 0
+                ORDER BY bloat_percent DESC NULLS LAST
+                LIMIT 1
+            ) bloat ON true
+            """;
+
+    /**
+     * Largest mean execution time in pg_stat_statements, for samplers that
+     * do not already read it.
+     */
+    static final String MAX_MEAN_TIME_SQL = """
+            SELECT max(mean_exec_time) as max_mean_time_ms
+            FROM pg_stat_statements
+            WHERE calls > 0
+            """;
+
+    private SystemMetricsQuery() {
+    }
+
+    /**
+     * Builds an alert sample from a row of {@link #WITH_ALERTING_SQL} and
+     * the system metrics already read from it.
+     * <p>
+     * The deadlock rate is deadlocks per whole hour since the statistics were
+     * last reset, and is unavailable within the first hour.
+     *
+     * @param rs result set positioned on the sampled row
+     * @param metrics the system metrics read from the same row
+     * @return the sample, with the query mean time left unavailable
+     * @throws SQLException if a column cannot be read
+     */
+    static AlertRuleEngine.Sample readAlertSample(ResultSet rs, SystemMetricsHistory metrics) throws SQLException {
+        AlertRuleEngine.Sample sample = new AlertRuleEngine.Sample();
+        int used = metrics.getTotalConnections();
+        int max = metrics.getMaxConnections();
+        sample.set(Metric.CONNECTIONS_USED, used)
+            .set(Metric.MAX_CONNECTIONS, max)
+            .set(Metric.CONNECTION_PERCENT, max > 0 ? (int) ((used * 100.0) / max) : 0)
+            .set(Metric.ACTIVE_QUERIES, metrics.getActiveQueries())
+            .set(Metric.BLOCKED_QUERIES, metrics.getBlockedQueries())
+            .set(Metric.IDLE_IN_TRANSACTION, metrics.getIdleInTransaction())
+            .set(Metric.LONGEST_QUERY_SECONDS, valueOrNaN(metrics.getLongestQuerySeconds()))
+            .set(Metric.LONGEST_TRANSACTION_SECONDS, valueOrNaN(metrics.getLongestTransactionSeconds()))
+            .set(Metric.CACHE_HIT_RATIO, valueOrNaN(metrics.getCacheHitRatio()));
+
+        long deadlocks = rs.getLong("total_deadlocks");
+        sample.set(Metric.DEADLOCK_COUNT, deadlocks);
+        double statsAge = doubleOrNaN(rs, "stats_age_seconds");
+        if (deadlocks == 0) {
+            sample.set(Metric.DEADLOCKS_PER_HOUR, 0);
+        } else if (statsAge >= 3600) {
+            sample.set(Metric.DEADLOCKS_PER_HOUR, (double) deadlocks / Math.floor(statsAge / 3600));
+        }
+
+        sample.set(Metric.REPLICATION_LAG_SECONDS, doubleOrNaN(rs, "replication_lag_seconds"));
+
+        double xidPercent = doubleOrNaN(rs, "wraparound_percent");
+        sample.set(Metric.XID_WRAPAROUND_PERCENT, xidPercent);
+        sample.setXidWraparoundDatabase(rs.getString("xid_database"));
+
+        double bloatPercent = doubleOrNaN(rs, "bloat_percent");
+        if (bloatPercent > 0) {
+            sample.set(Metric.TABLE_BLOAT_PERCENT, bloatPercent);
+            sample.setMaxBloatTableName(rs.getString("bloat_table_name"));
+        }
+        return sample;
+    }
+
+    private static double doubleOrNaN(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? Double.NaN : value;
+    }
+
+    private static double valueOrNaN(Double value) {
+        return value != null ? value : Double.NaN;
+    }
+}
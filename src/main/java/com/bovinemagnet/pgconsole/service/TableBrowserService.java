@@ -0,0 +1,353 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
+import com.bovinemagnet.pgconsole.model.RelationCatalog.Table;
+import com.bovinemagnet.pgconsole.model.TablePage;
+import com.bovinemagnet.pgconsole.model.TableStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Serves the table statistics browser: sorted, searchable, keyset-paginated
+ * pages over the instance's {@link CatalogSnapshotService} snapshot.
+ * <p>
+ * For each snapshot the service keeps the lower-cased qualified table names
+ * for searching and, per sort column, the table rows in sorted order, built
+ * the first time that column is requested. A page is then a binary search
+ * for the cursor followed by a walk along the sorted rows, so its cost
+ * depends on the page size rather than the number of tables. Searching
+ * matches a substring of {@code schema.table}, which also covers prefixes of
+ * either name.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see TablePage
+ */
+@ApplicationScoped
+public class TableBrowserService {
+
+    /** Largest page size a request may ask for. */
+    public static final int MAX_LIMIT = 500;
+
+    /**
+     * Columns the browser can sort by.
+     */
+    public enum Sort {
+        /** Live plus dead tuples. */
+        TUPLES("tuples", true, t -> t.getLiveTuples() + t.getDeadTuples()),
+        /** Total size including indexes and TOAST. */
+        SIZE("size", true, Table::getTotalSizeBytes),
+        /** Dead tuples as a percentage of all tuples. */
+        DEAD_RATIO("dead-ratio", true, TableBrowserService::deadTupleRatio),
+        /** Sequential scans. */
+        SEQ_SCANS("seq-scans", true, Table::getSeqScans),
+        /** Rows inserted, updated and deleted since statistics were reset. */
+        WRITES("writes", true, t -> t.getInserts() + t.getUpdates() + t.getDeletes()),
+        /** Qualified table name. */
+        NAME("name", false, null);
+
+        private final String param;
+        private final boolean descendingByDefault;
+        private final ToDoubleFunction<Table> key;
+
+        Sort(String param, boolean descendingByDefault, ToDoubleFunction<Table> key) {
+            this.param = param;
+            this.descendingByDefault = descendingByDefault;
+            this.key = key;
+        }
+
+        /** @return the query parameter value naming this column */
+        public String param() {
+            return param;
+        }
+
+        /**
+         * Looks up a sort column by its query parameter value.
+         *
+         * @param param the parameter value, may be {@code null}
+         * @return the column, or {@link #TUPLES} if none matches
+         */
+        public static Sort fromParam(String param) {
+            for (Sort sort : values()) {
+                if (sort.param.equals(param)) {
+                    return sort;
+                }
+            }
+            return TUPLES;
+        }
+    }
+
+    @Inject
+    CatalogSnapshotService catalogSnapshotService;
+
+    private final Map<String, BrowseIndex> indexes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns one page of table statistics.
+     *
+     * @param instanceName the PostgreSQL instance name
+     * @param sort the column to sort by
+     * @param direction {@code asc} or {@code desc}; anything else uses the column's default order
+     * @param search text to match in {@code schema.table}, may be {@code null}
+     * @param after the cursor of the previous page's last row, or {@code null} for the first page
+     * @param limit the page size, clamped to between 1 and {@value #MAX_LIMIT}
+     * @return the page
+     * @throws IllegalArgumentException if the cursor is malformed, or was issued for another
+     *         sort column or direction
+     */
+    public TablePage browse(String instanceName, Sort sort, String direction, String search,
+                            String after, int limit) {
+        boolean descending = !"asc".equalsIgnoreCase(direction)
+                && ("desc".equalsIgnoreCase(direction) || sort.descendingByDefault);
+        String needle = search != null ? search.strip() : "";
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        BrowseIndex index = index(instanceName);
+        RelationCatalog catalog = index.catalog();
+        int[] order = index.order(sort);
+        Cursor cursor = Cursor.decode(after);
+        if (cursor != null && !cursor.fits(sort, descending)) {
+            throw new IllegalArgumentException("The cursor was issued for sort=" + cursor.sort().param()
+                    + " and dir=" + (cursor.descending() ? "desc" : "asc") + ", not for sort=" + sort.param()
+                    + " and dir=" + (descending ? "desc" : "asc"));
+        }
+
+        // Walk from the row after the cursor in the requested direction
+        int step = descending ? -1 : 1;
+        int position;
+        if (cursor == null) {
+            position = descending ? order.length - 1 : 0;
+        } else {
+            int lower = lowerBound(index, sort, order, cursor);
+            position = descending ? lower - 1 : upperBound(index, sort, order, cursor, lower);
+        }
+
+        List<TableStats> tables = new ArrayList<>(Math.min(pageSize, order.length));
+        String nextCursor = null;
+        int lastRow = -1;
+        String lowerNeedle = needle.toLowerCase(Locale.ROOT);
+        for (; position >= 0 && position < order.length; position += step) {
+            int row = order[position];
+            if (!index.matches(row, lowerNeedle)) {
+                continue;
+            }
+            if (tables.size() == pageSize) {
+                nextCursor = Cursor.of(index, sort, descending, lastRow).encode();
+                break;
+            }
+            tables.add(toTableStats(catalog.tables().get(row)));
+            lastRow = row;
+        }
+
+        int matchCount = needle.isEmpty() ? order.length : index.count(lowerNeedle);
+        return new TablePage(tables, sort.param(), descending, needle, cursor != null ? after : null,
+                pageSize, matchCount, nextCursor);
+    }
+
+    /**
+     * Converts a snapshot table into the statistics shown by the browser.
+     *
+     * @param table the snapshot table
+     * @return the table statistics
+     */
+    static TableStats toTableStats(Table table) {
+        TableStats stat = new TableStats();
+        stat.setSchemaName(table.getSchemaName());
+        stat.setTableName(table.getName());
+        stat.setSeqScan(table.getSeqScans());
+        stat.setSeqTupRead(table.getSeqTupRead());
+        stat.setIdxScan(table.getIdxScans());
+        stat.setIdxTupFetch(table.getIdxTupFetch());
+        stat.setnTupIns(table.getInserts());
+        stat.setnTupUpd(table.getUpdates());
+        stat.setnTupDel(table.getDeletes());
+        stat.setnLiveTup(table.getLiveTuples());
+        stat.setnDeadTup(table.getDeadTuples());
+        stat.setTotalSizeBytes(table.getTotalSizeBytes());
+        stat.setLastVacuum(localDateTime(table.getLastVacuum()));
+        stat.setLastAutovacuum(localDateTime(table.getLastAutoVacuum()));
+        stat.setLastAnalyze(localDateTime(table.getLastAnalyse()));
+        stat.setLastAutoanalyze(localDateTime(table.getLastAutoAnalyse()));
+        return stat;
+    }
+
+    private BrowseIndex index(String instanceName) {
+        RelationCatalog catalog = catalogSnapshotService.getCatalog(instanceName);
+        return indexes.compute(instanceName, (name, existing) ->
+                existing != null && existing.catalog() == catalog ? existing : new BrowseIndex(catalog));
+    }
+
+    /** First position whose row sorts at or after the cursor. */
+    private static int lowerBound(BrowseIndex index, Sort sort, int[] order, Cursor cursor) {
+        int low = 0;
+        int high = order.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (index.compare(sort, order[mid], cursor) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /** First position whose row sorts after the cursor, given its lower bound. */
+    private static int upperBound(BrowseIndex index, Sort sort, int[] order, Cursor cursor, int lower) {
+        return lower < order.length && index.compare(sort, order[lower], cursor) == 0 ? lower + 1 : lower;
+    }
+
+    private static double deadTupleRatio(Table table) {
+        long total = table.getLiveTuples() + table.getDeadTuples();
+        return total == 0 ? 0 : (double) table.getDeadTuples() / total * 100.0;
+    }
+
+    private static LocalDateTime localDateTime(Instant instant) {
+        return instant != null ? LocalDateTime.ofInstant(instant, ZoneId.systemDefault()) : null;
+    }
+
+    /**
+     * Search names and sorted row orders for one snapshot.
+     */
+    private static final class BrowseIndex {
+
+        private final RelationCatalog catalog;
+        private final String[] names;
+        private final String[] searchNames;
+        private final Map<Sort, int[]> orders = new ConcurrentHashMap<>();
+        private final Map<Sort, double[]> keys = new ConcurrentHashMap<>();
+
+        BrowseIndex(RelationCatalog catalog) {
+            this.catalog = catalog;
+            int count = catalog.getTableCount();
+            names = new String[count];
+            searchNames = new String[count];
+            for (int row = 0; row < count; row++) {
+                Table table = catalog.tables().get(row);
+                names[row] = table.getSchemaName() + "." + table.getName();
+                searchNames[row] = names[row].toLowerCase(Locale.ROOT);
+            }
+        }
+
+        RelationCatalog catalog() {
+            return catalog;
+        }
+
+        boolean matches(int row, String needle) {
+            return needle.isEmpty() || searchNames[row].contains(needle);
+        }
+
+        int count(String needle) {
+            int count = 0;
+            for (String name : searchNames) {
+                if (name.contains(needle)) {
+                    count++;
+                }
+            }
+            return count;
+        }
+
+        /** Rows in ascending order of the column, ties broken by oid. */
+        int[] order(Sort sort) {
+            return orders.computeIfAbsent(sort, s -> {
+                Comparator<Integer> byColumn = s.key == null
+                        ? Comparator.comparing(row -> names[row])
+                        : Comparator.comparingDouble(row -> key(s, row));
+                Integer[] rows = new Integer[catalog.getTableCount()];
+                Arrays.setAll(rows, row -> row);
+                Arrays.sort(rows, byColumn.thenComparingLong(row -> catalog.tables().get(row).getOid()));
+                return Arrays.stream(rows).mapToInt(Integer::intValue).toArray();
+            });
+        }
+
+        double key(Sort sort, int row) {
+            return keys.computeIfAbsent(sort, s -> {
+                double[] values = new double[catalog.getTableCount()];
+                Arrays.setAll(values, r -> s.key.applyAsDouble(catalog.tables().get(r)));
+                return values;
+            })[row];
+        }
+
+        /** Compares a row with a cursor in ascending order. */
+        int compare(Sort sort, int row, Cursor cursor) {
+            int byColumn = sort.key == null
+                    ? names[row].compareTo(cursor.name())
+                    : Double.compare(key(sort, row), cursor.value());
+            return byColumn != 0 ? byColumn : Long.compare(catalog.tables().get(row).getOid(), cursor.oid());
+        }
+    }
+
+    /**
+     * The sort position of a page's last row: the order it was issued for,
+     * and the row's sort value and oid, which stay meaningful when the
+     * snapshot is reloaded between pages.
+     */
+    private record Cursor(Sort sort, boolean descending, long oid, double value, String name) {
+
+        static Cursor of(BrowseIndex index, Sort sort, boolean descending, int row) {
+            long oid = index.catalog().tables().get(row).getOid();
+            return sort.key == null
+                    ? new Cursor(sort, descending, oid, 0, index.names[row])
+                    : new Cursor(sort, descending, oid, index.key(sort, row), null);
+        }
+
+        /** @return whether the cursor was issued for this sort column and direction */
+        boolean fits(Sort sort, boolean descending) {
+            return this.sort == sort && this.descending == descending;
+        }
+
+        String encode() {
+            String text = sort.param() + ":" + (descending ? "desc" : "asc") + ":" + oid + ":"
+                    + (name != null ? "n:" + name : "v:" + value);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        /**
+         * @return the cursor, or {@code null} if absent
+         * @throws IllegalArgumentException if the cursor is malformed
+         */
+        static Cursor decode(String encoded) {
+            if (encoded == null || encoded.isBlank()) {
+                return null;
+            }
+            try {
+                String text = new String(Base64.getUrlDecoder().decode(encoded), StandardCharsets.UTF_8);
+                String[] parts = text.split(":", 5);
+                Sort sort = Arrays.stream(Sort.values())
+                        .filter(candidate -> candidate.param().equals(parts[0]))
+                        .findFirst()
+                        .orElseThrow();
+                boolean descending = switch (parts[1]) {
+                    case "desc" -> true;
+                    case "asc" -> false;
+                    default -> throw new IllegalArgumentException(parts[1]);
+                };
+                long oid = Long.parseLong(parts[2]);
+                if (parts[3].equals("n") && sort.key == null) {
+                    return new Cursor(sort, descending, oid, 0, parts[4]);
+                }
+                if (parts[3].equals("v") && sort.key != null) {
+                    return new Cursor(sort, descending, oid, Double.parseDouble(parts[4]), null);
+                }
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | NoSuchElementException e) {
+                // Reported below
+            }
+            throw new IllegalArgumentException("Malformed cursor: " + encoded);
+        }
+    }
+}
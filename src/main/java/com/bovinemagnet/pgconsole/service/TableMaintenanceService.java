@@ -1,25 +1,25 @@
 package com.bovinemagnet.pgconsole.service;
 
+import com.bovinemagnet.pgconsole.model.RelationCatalog.Table;
 import com.bovinemagnet.pgconsole.model.TableMaintenanceRecommendation;
 import com.bovinemagnet.pgconsole.model.TableMaintenanceRecommendation.MaintenanceType;
 import com.bovinemagnet.pgconsole.model.TableMaintenanceRecommendation.Severity;
+import com.bovinemagnet.pgconsole.util.PgSize;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import java.sql.Connection;
-import java.sql.ResultSet;
-import java.sql.SQLException;
-import java.sql.Statement;
-import java.sql.Timestamp;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
-import org.jboss.logging.Logger;
+import java.util.Set;
+import java.util.stream.Stream;
 
 /**
  * Service for analysing table health and providing maintenance recommendations.
  * <p>
- * Monitors PostgreSQL table statistics to identify maintenance requirements including:
+ * Monitors PostgreSQL table statistics, read from the shared
+ * {@link CatalogSnapshotService} snapshot, to identify maintenance requirements including:
  * <ul>
  *   <li>Tables with excessive dead tuples requiring VACUUM</li>
  *   <li>Tables with outdated statistics requiring ANALYSE</li>
@@ -39,8 +39,6 @@ import org.jboss.logging.Logger;
 @ApplicationScoped
 public class TableMaintenanceService {
 
-	private static final Logger LOG = Logger.getLogger(TableMaintenanceService.class);
-
 	// Thresholds for recommendations
 	private static final double CRITICAL_DEAD_TUPLE_RATIO = 0.3; // 30% dead tuples
 	private static final double HIGH_DEAD_TUPLE_RATIO = 0.2; // 20% dead tuples
@@ -51,9 +49,10 @@ public class TableMaintenanceService {
 	private static final double HIGH_BLOAT_THRESHOLD = 50.0; // 50% bloat
 	private static final double MEDIUM_BLOAT_THRESHOLD = 25.0; // 25% bloat
 	private static final long MIN_TABLE_SIZE = 1_000_000; // Only flag tables > 1MB
+	private static final Set<String> EXCLUDED_SCHEMAS = Set.of("pg_catalog", "information_schema", "pgconsole");
 
 	@Inject
-	DataSourceManager dataSourceManager;
+	CatalogSnapshotService catalogSnapshotService;
 
 	/**
 	 * Retrieves all maintenance recommendations for a database instance.
@@ -90,8 +89,9 @@ public class TableMaintenanceService {
 	/**
 	 * Identifies tables with excessive dead tuples requiring VACUUM.
 	 * <p>
-	 * Analyses {@code pg_stat_user_tables} to find tables where dead tuple ratios
-	 * or absolute dead tuple counts exceed configured thresholds:
+	 * Analyses the table statistics in the instance's catalogue snapshot to find
+	 * tables where dead tuple ratios or absolute dead tuple counts exceed
+	 * configured thresholds:
 	 * <ul>
 	 *   <li>CRITICAL: ≥{@value #CRITICAL_DEAD_TUPLE_RATIO} ratio or ≥{@value #CRITICAL_DEAD_TUPLES} dead tuples</li>
 	 *   <li>HIGH: ≥{@value #HIGH_DEAD_TUPLE_RATIO} ratio</li>
@@ -108,75 +108,44 @@ public class TableMaintenanceService {
 	public List<TableMaintenanceRecommendation> findTablesNeedingVacuum(String instanceName) {
 		List<TableMaintenanceRecommendation> recommendations = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    schemaname,
-			    relname as tablename,
-			    n_live_tup,
-			    n_dead_tup,
-			    CASE WHEN n_live_tup + n_dead_tup > 0
-			        THEN n_dead_tup::float / (n_live_tup + n_dead_tup)
-			        ELSE 0
-			    END as dead_tuple_ratio,
-			    pg_size_pretty(pg_table_size(schemaname || '.' || relname)) as table_size,
-			    pg_table_size(schemaname || '.' || relname) as table_size_bytes,
-			    last_vacuum,
-			    last_autovacuum,
-			    last_analyze,
-			    last_autoanalyze
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema', 'pgconsole')
-			  AND n_live_tup + n_dead_tup > 100
-			ORDER BY dead_tuple_ratio DESC, n_dead_tup DESC
-			LIMIT 100
-			""";
-
-		try (Connection conn = dataSourceManager.getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			while (rs.next()) {
-				double deadTupleRatio = rs.getDouble("dead_tuple_ratio");
-				long deadTuples = rs.getLong("n_dead_tup");
-				long tableSizeBytes = rs.getLong("table_size_bytes");
-
-				// Skip if dead tuple ratio is below threshold
-				if (deadTupleRatio < MEDIUM_DEAD_TUPLE_RATIO && deadTuples < CRITICAL_DEAD_TUPLES) {
-					continue;
-				}
-
-				// Skip small tables unless they have critical dead tuple counts
-				if (tableSizeBytes < MIN_TABLE_SIZE && deadTuples < CRITICAL_DEAD_TUPLES) {
-					continue;
-				}
-
-				Severity severity;
-				if (deadTupleRatio >= CRITICAL_DEAD_TUPLE_RATIO || deadTuples >= CRITICAL_DEAD_TUPLES) {
-					severity = Severity.CRITICAL;
-				} else if (deadTupleRatio >= HIGH_DEAD_TUPLE_RATIO) {
-					severity = Severity.HIGH;
-				} else {
-					severity = Severity.MEDIUM;
-				}
+		List<Table> candidates = userTables(instanceName)
+			.filter(t -> t.getLiveTuples() + t.getDeadTuples() > 100)
+			.sorted(Comparator.comparingDouble(TableMaintenanceService::deadTupleRatio).reversed()
+				.thenComparing(Comparator.comparingLong(Table::getDeadTuples).reversed()))
+			.limit(100)
+			.toList();
+
+		for (Table table : candidates) {
+			double deadTupleRatio = deadTupleRatio(table);
+			long deadTuples = table.getDeadTuples();
+			long tableSizeBytes = table.getTableSizeBytes();
+
+			// Skip if dead tuple ratio is below threshold
+			if (deadTupleRatio < MEDIUM_DEAD_TUPLE_RATIO && deadTuples < CRITICAL_DEAD_TUPLES) {
+				continue;
+			}
 
-				TableMaintenanceRecommendation rec = new TableMaintenanceRecommendation();
-				rec.setSchemaName(rs.getString("schemaname"));
-				rec.setTableName(rs.getString("tablename"));
-				rec.setType(MaintenanceType.VACUUM);
-				rec.setSeverity(severity);
+			// Skip small tables unless they have critical dead tuple counts
+			if (tableSizeBytes < MIN_TABLE_SIZE && deadTuples < CRITICAL_DEAD_TUPLES) {
+				continue;
+			}
 
-				rec.setLiveTuples(rs.getLong("n_live_tup"));
-				rec.setDeadTuples(deadTuples);
-				rec.setDeadTupleRatio(deadTupleRatio);
-				rec.setTableSize(rs.getString("table_size"));
-				rec.setTableSizeBytes(tableSizeBytes);
+			Severity severity;
+			if (deadTupleRatio >= CRITICAL_DEAD_TUPLE_RATIO || deadTuples >= CRITICAL_DEAD_TUPLES) {
+				severity = Severity.CRITICAL;
+			} else if (deadTupleRatio >= HIGH_DEAD_TUPLE_RATIO) {
+				severity = Severity.HIGH;
+			} else {
+				severity = Severity.MEDIUM;
+			}
 
-				setVacuumAnalyseTimestamps(rs, rec);
+			TableMaintenanceRecommendation rec = newRecommendation(table, MaintenanceType.VACUUM, severity);
+			rec.setDeadTupleRatio(deadTupleRatio);
 
-				rec.setRecommendation("Run VACUUM on this table");
-				rec.setRationale(String.format("%.1f%% dead tuples (%,d dead of %,d total). Table size: %s.", deadTupleRatio * 100, deadTuples, rec.getLiveTuples() + deadTuples, rec.getTableSize()));
+			rec.setRecommendation("Run VACUUM on this table");
+			rec.setRationale(String.format("%.1f%% dead tuples (%,d dead of %,d total). Table size: %s.", deadTupleRatio * 100, deadTuples, rec.getLiveTuples() + deadTuples, rec.getTableSize()));
 
-				recommendations.add(rec);
-			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to find tables needing vacuum for %s: %s", instanceName, e.getMessage());
+			recommendations.add(rec);
 		}
 
 		return recommendations;
@@ -185,8 +154,9 @@ public class TableMaintenanceService {
 	/**
 	 * Identifies tables with outdated statistics requiring ANALYSE.
 	 * <p>
-	 * Examines {@code pg_stat_user_tables} to find tables where statistics are stale
-	 * based on last analyse timestamp and modification counts. Severity is assigned as:
+	 * Examines the table statistics in the instance's catalogue snapshot to find
+	 * tables where statistics are stale based on last analyse timestamp and
+	 * modification counts. Severity is assigned as:
 	 * <ul>
 	 *   <li>HIGH: Never analysed, or &gt;{@value #OVERDUE_ANALYSE_DAYS}×3 days since last analyse</li>
 	 *   <li>MEDIUM: &gt;{@value #OVERDUE_ANALYSE_DAYS} days since last analyse</li>
@@ -203,108 +173,55 @@ public class TableMaintenanceService {
 	public List<TableMaintenanceRecommendation> findTablesNeedingAnalyse(String instanceName) {
 		List<TableMaintenanceRecommendation> recommendations = new ArrayList<>();
 
-		String sql = """
-			SELECT
-			    schemaname,
-			    relname as tablename,
-			    n_live_tup,
-			    n_dead_tup,
-			    pg_size_pretty(pg_table_size(schemaname || '.' || relname)) as table_size,
-			    pg_table_size(schemaname || '.' || relname) as table_size_bytes,
-			    last_vacuum,
-			    last_autovacuum,
-			    last_analyze,
-			    last_autoanalyze,
-			    n_mod_since_analyze
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema', 'pgconsole')
-			  AND n_live_tup > 1000
-			  AND pg_table_size(schemaname || '.' || relname) >= ?
-			ORDER BY
-			    CASE
-			        WHEN last_analyze IS NULL AND last_autoanalyze IS NULL THEN 0
-			        ELSE 1
-			    END,
-			    GREATEST(COALESCE(last_analyze, '1970-01-01'::timestamp),
-			             COALESCE(last_autoanalyze, '1970-01-01'::timestamp)) ASC
-			LIMIT 50
-			""";
-
-		try (Connection conn = dataSourceManager.getDataSource(instanceName).getConnection(); var stmt = conn.prepareStatement(sql)) {
-			stmt.setLong(1, MIN_TABLE_SIZE);
-
-			try (ResultSet rs = stmt.executeQuery()) {
-				Instant now = Instant.now();
-
-				while (rs.next()) {
-					Timestamp lastAnalyse = rs.getTimestamp("last_analyze");
-					Timestamp lastAutoAnalyse = rs.getTimestamp("last_autoanalyze");
-					long modsSinceAnalyse = rs.getLong("n_mod_since_analyze");
-
-					// Determine effective last analyse
-					Instant effectiveLastAnalyse = null;
-					if (lastAnalyse != null) {
-						effectiveLastAnalyse = lastAnalyse.toInstant();
-					}
-					if (lastAutoAnalyse != null) {
-						Instant autoAnalyseInstant = lastAutoAnalyse.toInstant();
-						if (effectiveLastAnalyse == null || autoAnalyseInstant.isAfter(effectiveLastAnalyse)) {
-							effectiveLastAnalyse = autoAnalyseInstant;
-						}
-					}
-
-					// Skip if recently analysed and low modifications
-					if (effectiveLastAnalyse != null) {
-						long daysSinceAnalyse = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
-						long liveTuples = rs.getLong("n_live_tup");
-						double modRatio = liveTuples > 0 ? (double) modsSinceAnalyse / liveTuples : 0;
-
-						if (daysSinceAnalyse < OVERDUE_ANALYSE_DAYS && modRatio < 0.1) {
-							continue;
-						}
-					}
-
-					Severity severity;
-					if (effectiveLastAnalyse == null) {
-						severity = Severity.HIGH;
-					} else {
-						long daysSinceAnalyse = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
-						if (daysSinceAnalyse > OVERDUE_ANALYSE_DAYS * 3) {
-							severity = Severity.HIGH;
-						} else if (daysSinceAnalyse > OVERDUE_ANALYSE_DAYS) {
-							severity = Severity.MEDIUM;
-						} else {
-							severity = Severity.LOW;
-						}
-					}
-
-					TableMaintenanceRecommendation rec = new TableMaintenanceRecommendation();
-					rec.setSchemaName(rs.getString("schemaname"));
-					rec.setTableName(rs.getString("tablename"));
-					rec.setType(MaintenanceType.ANALYSE);
-					rec.setSeverity(severity);
-
-					rec.setLiveTuples(rs.getLong("n_live_tup"));
-					rec.setDeadTuples(rs.getLong("n_dead_tup"));
-					rec.setTableSize(rs.getString("table_size"));
-					rec.setTableSizeBytes(rs.getLong("table_size_bytes"));
-
-					setVacuumAnalyseTimestamps(rs, rec);
-
-					rec.setRecommendation("Run ANALYSE on this table");
-
-					if (effectiveLastAnalyse == null) {
-						rec.setRationale("Table has never been analysed. Statistics may be outdated.");
-					} else {
-						long daysSince = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
-						rec.setRationale(String.format("Last analysed %d days ago. %,d modifications since then.", daysSince, modsSinceAnalyse));
-					}
-
-					recommendations.add(rec);
+		// Never analysed first, then least recently analysed
+		List<Table> candidates = userTables(instanceName)
+			.filter(t -> t.getLiveTuples() > 1000 && t.getTableSizeBytes() >= MIN_TABLE_SIZE)
+			.sorted(Comparator.comparing(Table::getLastAnalysedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+			.limit(50)
+			.toList();
+
+		Instant now = Instant.now();
+		for (Table table : candidates) {
+			Instant effectiveLastAnalyse = table.getLastAnalysedAt();
+			long modsSinceAnalyse = table.getModsSinceAnalyse();
+
+			// Skip if recently analysed and low modifications
+			if (effectiveLastAnalyse != null) {
+				long daysSinceAnalyse = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
+				long liveTuples = table.getLiveTuples();
+				double modRatio = liveTuples > 0 ? (double) modsSinceAnalyse / liveTuples : 0;
+
+				if (daysSinceAnalyse < OVERDUE_ANALYSE_DAYS && modRatio < 0.1) {
+					continue;
+				}
+			}
+
+			Severity severity;
+			if (effectiveLastAnalyse == null) {
+				severity = Severity.HIGH;
+			} else {
+				long daysSinceAnalyse = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
+				if (daysSinceAnalyse > OVERDUE_ANALYSE_DAYS * 3) {
+					severity = Severity.HIGH;
+				} else if (daysSinceAnalyse > OVERDUE_ANALYSE_DAYS) {
+					severity = Severity.MEDIUM;
+				} else {
+					severity = Severity.LOW;
 				}
 			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to find tables needing analyse for %s: %s", instanceName, e.getMessage());
+
+			TableMaintenanceRecommendation rec = newRecommendation(table, MaintenanceType.ANALYSE, severity);
+
+			rec.setRecommendation("Run ANALYSE on this table");
+
+			if (effectiveLastAnalyse == null) {
+				rec.setRationale("Table has never been analysed. Statistics may be outdated.");
+			} else {
+				long daysSince = ChronoUnit.DAYS.between(effectiveLastAnalyse, now);
+				rec.setRationale(String.format("Last analysed %d days ago. %,d modifications since then.", daysSince, modsSinceAnalyse));
+			}
+
+			recommendations.add(rec);
 		}
 
 		return recommendations;
@@ -334,77 +251,39 @@ public class TableMaintenanceService {
 	public List<TableMaintenanceRecommendation> findBloatedTables(String instanceName) {
 		List<TableMaintenanceRecommendation> recommendations = new ArrayList<>();
 
-		// Simple bloat estimate based on dead tuples vs expected size
-		String sql = """
-			SELECT
-			    schemaname,
-			    relname as tablename,
-			    n_live_tup,
-			    n_dead_tup,
-			    pg_size_pretty(pg_table_size(schemaname || '.' || relname)) as table_size,
-			    pg_table_size(schemaname || '.' || relname) as table_size_bytes,
-			    last_vacuum,
-			    last_autovacuum,
-			    last_analyze,
-			    last_autoanalyze,
-			    CASE WHEN n_live_tup > 0
-			        THEN (n_dead_tup::float / n_live_tup) * 100
-			        ELSE 0
-			    END as estimated_bloat_percent
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema', 'pgconsole')
-			  AND n_live_tup > 10000
-			  AND pg_table_size(schemaname || '.' || relname) >= ?
-			  AND (n_dead_tup::float / NULLIF(n_live_tup, 0)) > 0.25
-			ORDER BY estimated_bloat_percent DESC
-			LIMIT 20
-			""";
-
-		try (Connection conn = dataSourceManager.getDataSource(instanceName).getConnection(); var stmt = conn.prepareStatement(sql)) {
-			stmt.setLong(1, MIN_TABLE_SIZE * 10); // Only flag tables > 10MB for VACUUM FULL
-
-			try (ResultSet rs = stmt.executeQuery()) {
-				while (rs.next()) {
-					double bloatPercent = rs.getDouble("estimated_bloat_percent");
-
-					if (bloatPercent < MEDIUM_BLOAT_THRESHOLD) {
-						continue;
-					}
-
-					Severity severity;
-					if (bloatPercent >= HIGH_BLOAT_THRESHOLD) {
-						severity = Severity.HIGH;
-					} else {
-						severity = Severity.MEDIUM;
-					}
-
-					TableMaintenanceRecommendation rec = new TableMaintenanceRecommendation();
-					rec.setSchemaName(rs.getString("schemaname"));
-					rec.setTableName(rs.getString("tablename"));
-					rec.setType(MaintenanceType.VACUUM_FULL);
-					rec.setSeverity(severity);
-
-					rec.setLiveTuples(rs.getLong("n_live_tup"));
-					rec.setDeadTuples(rs.getLong("n_dead_tup"));
-					rec.setTableSize(rs.getString("table_size"));
-					rec.setTableSizeBytes(rs.getLong("table_size_bytes"));
-					rec.setEstimatedBloatPercent(bloatPercent);
-
-					// Estimate bloat size
-					long tableSizeBytes = rs.getLong("table_size_bytes");
-					long estimatedBloatBytes = (long) (tableSizeBytes * (bloatPercent / (100 + bloatPercent)));
-					rec.setEstimatedBloatSize(formatBytes(estimatedBloatBytes));
-
-					setVacuumAnalyseTimestamps(rs, rec);
-
-					rec.setRecommendation("Consider VACUUM FULL (requires exclusive lock)");
-					rec.setRationale(String.format("Estimated %.0f%% bloat (~%s). Regular VACUUM cannot reclaim this space.", bloatPercent, rec.getEstimatedBloatSize()));
-
-					recommendations.add(rec);
-				}
+		// Simple bloat estimate based on dead tuples vs expected size; only flag tables > 10MB for VACUUM FULL
+		List<Table> candidates = userTables(instanceName)
+			.filter(t -> t.getLiveTuples() > 10000 && t.getTableSizeBytes() >= MIN_TABLE_SIZE * 10)
+			.filter(t -> (double) t.getDeadTuples() / t.getLiveTuples() > 0.25)
+			.sorted(Comparator.comparingDouble(TableMaintenanceService::estimatedBloatPercent).reversed())
+			.limit(20)
+			.toList();
+
+		for (Table table : candidates) {
+			double bloatPercent = estimatedBloatPercent(table);
+
+			if (bloatPercent < MEDIUM_BLOAT_THRESHOLD) {
+				continue;
 			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to find bloated tables for %s: %s", instanceName, e.getMessage());
+
+			Severity severity;
+			if (bloatPercent >= HIGH_BLOAT_THRESHOLD) {
+				severity = Severity.HIGH;
+			} else {
+				severity = Severity.MEDIUM;
+			}
+
+			TableMaintenanceRecommendation rec = newRecommendation(table, MaintenanceType.VACUUM_FULL, severity);
+			rec.setEstimatedBloatPercent(bloatPercent);
+
+			// Estimate bloat size
+			long estimatedBloatBytes = (long) (table.getTableSizeBytes() * (bloatPercent / (100 + bloatPercent)));
+			rec.setEstimatedBloatSize(formatBytes(estimatedBloatBytes));
+
+			rec.setRecommendation("Consider VACUUM FULL (requires exclusive lock)");
+			rec.setRationale(String.format("Estimated %.0f%% bloat (~%s). Regular VACUUM cannot reclaim this space.", bloatPercent, rec.getEstimatedBloatSize()));
+
+			recommendations.add(rec);
 		}
 
 		return recommendations;
@@ -422,47 +301,60 @@ public class TableMaintenanceService {
 	 */
 	public MaintenanceSummary getSummary(String instanceName) {
 		MaintenanceSummary summary = new MaintenanceSummary();
+		Instant analyseOverdueBefore = Instant.now().minus(OVERDUE_ANALYSE_DAYS, ChronoUnit.DAYS);
 
-		String sql = """
-			SELECT
-			    COUNT(*) FILTER (WHERE n_dead_tup::float / NULLIF(n_live_tup + n_dead_tup, 0) > 0.1) as tables_needing_vacuum,
-			    COUNT(*) FILTER (WHERE last_analyze IS NULL AND last_autoanalyze IS NULL) as never_analysed,
-			    COUNT(*) FILTER (WHERE
-			        GREATEST(COALESCE(last_analyze, '1970-01-01'::timestamp),
-			                 COALESCE(last_autoanalyze, '1970-01-01'::timestamp))
-			        < NOW() - INTERVAL '7 days'
-			    ) as analyse_overdue,
-			    COUNT(*) as total_tables,
-			    COALESCE(SUM(n_dead_tup), 0) as total_dead_tuples
-			FROM pg_stat_user_tables
-			WHERE schemaname NOT IN ('pg_catalog', 'information_schema', 'pgconsole')
-			""";
-
-		try (Connection conn = dataSourceManager.getDataSource(instanceName).getConnection(); Statement stmt = conn.createStatement(); ResultSet rs = stmt.executeQuery(sql)) {
-			if (rs.next()) {
-				summary.setTablesNeedingVacuum(rs.getInt("tables_needing_vacuum"));
-				summary.setTablesNeverAnalysed(rs.getInt("never_analysed"));
-				summary.setTablesAnalyseOverdue(rs.getInt("analyse_overdue"));
-				summary.setTotalTables(rs.getInt("total_tables"));
-				summary.setTotalDeadTuples(rs.getLong("total_dead_tuples"));
+		userTables(instanceName).forEach(table -> {
+			if (deadTupleRatio(table) > 0.1) {
+				summary.setTablesNeedingVacuum(summary.getTablesNeedingVacuum() + 1);
 			}
-		} catch (SQLException e) {
-			LOG.warnf("Failed to get maintenance summary for %s: %s", instanceName, e.getMessage());
-		}
+			Instant lastAnalysedAt = table.getLastAnalysedAt();
+			if (lastAnalysedAt == null) {
+				summary.setTablesNeverAnalysed(summary.getTablesNeverAnalysed() + 1);
+			}
+			if (lastAnalysedAt == null || lastAnalysedAt.isBefore(analyseOverdueBefore)) {
+				summary.setTablesAnalyseOverdue(summary.getTablesAnalyseOverdue() + 1);
+			}
+			summary.setTotalTables(summary.getTotalTables() + 1);
+			summary.setTotalDeadTuples(summary.getTotalDeadTuples() + table.getDeadTuples());
+		});
 
 		return summary;
 	}
 
-	private void setVacuumAnalyseTimestamps(ResultSet rs, TableMaintenanceRecommendation rec) throws SQLException {
-		Timestamp lastVacuum = rs.getTimestamp("last_vacuum");
-		Timestamp lastAutoVacuum = rs.getTimestamp("last_autovacuum");
-		Timestamp lastAnalyse = rs.getTimestamp("last_analyze");
-		Timestamp lastAutoAnalyse = rs.getTimestamp("last_autoanalyze");
+	/**
+	 * Streams the instance's tables outside the system and console schemas.
+	 */
+	private Stream<Table> userTables(String instanceName) {
+		return catalogSnapshotService.getCatalog(instanceName).tables().stream()
+			.filter(t -> !EXCLUDED_SCHEMAS.contains(t.getSchemaName()));
+	}
+
+	private static double deadTupleRatio(Table table) {
+		long total = table.getLiveTuples() + table.getDeadTuples();
+		return total > 0 ? (double) table.getDeadTuples() / total : 0;
+	}
+
+	private static double estimatedBloatPercent(Table table) {
+		return table.getLiveTuples() > 0 ? ((double) table.getDeadTuples() / table.getLiveTuples()) * 100 : 0;
+	}
 
-		if (lastVacuum != null) rec.setLastVacuum(lastVacuum.toInstant());
-		if (lastAutoVacuum != null) rec.setLastAutoVacuum(lastAutoVacuum.toInstant());
-		if (lastAnalyse != null) rec.setLastAnalyse(lastAnalyse.toInstant());
-		if (lastAutoAnalyse != null) rec.setLastAutoAnalyse(lastAutoAnalyse.toInstant());
+	private static TableMaintenanceRecommendation newRecommendation(Table table, MaintenanceType type, Severity severity) {
+		TableMaintenanceRecommendation rec = new TableMaintenanceRecommendation();
+		rec.setSchemaName(table.getSchemaName());
+		rec.setTableName(table.getName());
+		rec.setType(type);
+		rec.setSeverity(severity);
+
+		rec.setLiveTuples(table.getLiveTuples());
+		rec.setDeadTuples(table.getDeadTuples());
+		rec.setTableSize(PgSize.pretty(table.getTableSizeBytes()));
+		rec.setTableSizeBytes(table.getTableSizeBytes());
+
+		rec.setLastVacuum(table.getLastVacuum());
+		rec.setLastAutoVacuum(table.getLastAutoVacuum());
+		rec.setLastAnalyse(table.getLastAnalyse());
+		rec.setLastAutoAnalyse(table.getLastAutoAnalyse());
+		return rec;
 	}
 
 	private String formatBytes(long bytes) {
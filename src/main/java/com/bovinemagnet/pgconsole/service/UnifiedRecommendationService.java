@@ -1,11 +1,24 @@
 package com.bovinemagnet.pgconsole.service;
 
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
 import com.bovinemagnet.pgconsole.model.*;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
 import java.util.stream.Collectors;
 import javax.sql.DataSource;
 import org.jboss.logging.Logger;
@@ -15,6 +28,15 @@ import org.jboss.logging.Logger;
  * <p>
  * Collects recommendations from Index Advisor, Table Maintenance,
  * Query Regression, and Anomaly Detection into a single prioritised list.
+ * <p>
+ * Sources are collected concurrently, each under its own deadline, and
+ * cached per instance with their own TTL and stale-while-revalidate window.
+ * All views (full list, by source, by severity, top N and summary counts)
+ * are served from one merged snapshot per instance, so a page that asks for
+ * several of them triggers at most one collection. Events that change a
+ * source's data, such as a finished maintenance job, call
+ * {@link #invalidate(String, UnifiedRecommendation.Source)} so the next
+ * request collects it afresh.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -24,6 +46,9 @@ public class UnifiedRecommendationService {
 
 	private static final Logger LOG = Logger.getLogger(UnifiedRecommendationService.class);
 
+	@Inject
+	InstanceConfig config;
+
 	@Inject
 	DataSourceManager dataSourceManager;
 
@@ -39,62 +64,87 @@ public class UnifiedRecommendationService {
 	@Inject
 	AnomalyDetectionService anomalyDetectionService;
 
+	@Inject
+	ResponseVersionService responseVersionService;
+
 	/**
-	 * Get all unified recommendations for an instance, sorted by priority.
+	 * Cache and deadline policy for one recommendation source.
+	 * <p>
+	 * A result younger than {@code ttlMillis} is served as-is. Up to
+	 * {@code maxStaleMillis} it is still served, while a background refresh
+	 * runs (stale-while-revalidate). Beyond that, or when nothing is cached,
+	 * the caller waits for a fresh result up to {@code deadlineMillis}.
 	 *
-	 * @param instanceName the PostgreSQL instance name
-	 * @return list of unified recommendations
+	 * @param ttlMillis      freshness period
+	 * @param maxStaleMillis maximum age at which a stale result is still served
+	 * @param deadlineMillis how long a caller waits for a fresh result
 	 */
-	public List<UnifiedRecommendation> getRecommendations(String instanceName) {
-		List<UnifiedRecommendation> recommendations = new ArrayList<>();
+	record SourcePolicy(long ttlMillis, long maxStaleMillis, long deadlineMillis) {
+		/** Policy of a source that is not configured. */
+		static final SourcePolicy DEFAULTS = new SourcePolicy(300_000, 1_800_000, 10_000);
+	}
 
-		// Collect from Index Advisor
-		try {
-			List<IndexRecommendation> indexRecs = indexAdvisorService.getRecommendations(instanceName);
-			for (IndexRecommendation ir : indexRecs) {
-				recommendations.add(convertIndexRecommendation(instanceName, ir));
-			}
-		} catch (Exception e) {
-			LOG.debugf(e, "Error getting index recommendations");
-		}
+	private record SourceKey(String instanceName, UnifiedRecommendation.Source source) {
+	}
 
-		// Collect from Table Maintenance
-		try {
-			List<TableMaintenanceRecommendation> maintRecs = tableMaintenanceService.getRecommendations(instanceName);
-			for (TableMaintenanceRecommendation mr : maintRecs) {
-				recommendations.add(convertMaintenanceRecommendation(instanceName, mr));
-			}
-		} catch (Exception e) {
-			LOG.debugf(e, "Error getting maintenance recommendations");
-		}
+	private record SourceResult(List<UnifiedRecommendation> recommendations, long fetchedAtMillis, long generation) {
+	}
 
-		// Collect from Query Regression
-		try {
-			List<QueryRegression> regressions = queryRegressionService.detectRegressions(instanceName, 24, 50);
-			for (QueryRegression qr : regressions) {
-				recommendations.add(convertQueryRegression(instanceName, qr));
-			}
-		} catch (Exception e) {
-			LOG.debugf(e, "Error getting query regressions");
-		}
+	/**
+	 * Merged, prioritised recommendations for one instance, built from the
+	 * source results identified by {@code generations}.
+	 */
+	private record Snapshot(List<UnifiedRecommendation> recommendations,
+							Map<UnifiedRecommendation.Severity, Integer> summary,
+							long[] generations) {
+	}
 
-		// Collect from Anomaly Detection
-		try {
-			List<DetectedAnomaly> anomalies = anomalyDetectionService.getOpenAnomalies(instanceName);
-			for (DetectedAnomaly anomaly : anomalies) {
-				recommendations.add(convertAnomaly(instanceName, anomaly));
-			}
-		} catch (Exception e) {
-			LOG.debugf(e, "Error getting anomalies");
-		}
+	/** Per-source policies; package-private so tests can shorten them. */
+	Map<UnifiedRecommendation.Source, SourcePolicy> policies;
 
-		// Add config tuning suggestions
-		recommendations.addAll(getConfigTuningSuggestions(instanceName));
+	/** Wall clock for cache ages; package-private so tests can control time. */
+	LongSupplier clock = System::currentTimeMillis;
 
-		// Sort by priority score (descending)
-		recommendations.sort((a, b) -> Integer.compare(b.getPriorityScore(), a.getPriorityScore()));
+	private ExecutorService collector;
 
-		return recommendations;
+	private final ConcurrentHashMap<SourceKey, SourceResult> sourceCache = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<SourceKey, CompletableFuture<SourceResult>> inFlight = new ConcurrentHashMap<>();
+
+	private final ConcurrentHashMap<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+	private final AtomicLong generationCounter = new AtomicLong();
+
+	@PostConstruct
+	void init() {
+		InstanceConfig.RecommendationsConfig settings = config.recommendations();
+		policies = policiesOf(settings);
+		collector = Executors.newFixedThreadPool(Math.max(1, settings.collectorThreads()), runnable -> {
+			Thread thread = new Thread(runnable, "recommendation-collector");
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	@PreDestroy
+	void shutdown() {
+		if (collector != null) {
+			collector.shutdownNow();
+		}
+	}
+
+	/**
+	 * Get all unified recommendations for an instance, sorted by priority.
+	 * <p>
+	 * Sources are collected concurrently and cached individually; see
+	 * {@link SourcePolicy}. A source that misses its deadline contributes its
+	 * last known result, or nothing, and completes in the background.
+	 *
+	 * @param instanceName the PostgreSQL instance name
+	 * @return list of unified recommendations
+	 */
+	public List<UnifiedRecommendation> getRecommendations(String instanceName) {
+		return new ArrayList<>(snapshot(instanceName).recommendations());
 	}
 
 	/**
@@ -105,7 +155,7 @@ public class UnifiedRecommendationService {
 	 * @return filtered list of recommendations
 	 */
 	public List<UnifiedRecommendation> getRecommendationsBySource(String instanceName, UnifiedRecommendation.Source source) {
-		return getRecommendations(instanceName)
+		return snapshot(instanceName).recommendations()
 			.stream()
 			.filter(r -> r.getSource() == source)
 			.collect(Collectors.toList());
@@ -119,7 +169,7 @@ public class UnifiedRecommendationService {
 	 * @return filtered list of recommendations
 	 */
 	public List<UnifiedRecommendation> getRecommendationsBySeverity(String instanceName, UnifiedRecommendation.Severity severity) {
-		return getRecommendations(instanceName)
+		return snapshot(instanceName).recommendations()
 			.stream()
 			.filter(r -> r.getSeverity().getWeight() >= severity.getWeight())
 			.collect(Collectors.toList());
@@ -133,7 +183,7 @@ public class UnifiedRecommendationService {
 	 * @return top recommendations
 	 */
 	public List<UnifiedRecommendation> getTopRecommendations(String instanceName, int limit) {
-		return getRecommendations(instanceName).stream().limit(limit).collect(Collectors.toList());
+		return snapshot(instanceName).recommendations().stream().limit(limit).collect(Collectors.toList());
 	}
 
 	/**
@@ -143,16 +193,213 @@ public class UnifiedRecommendationService {
 	 * @return map of severity to count
 	 */
 	public Map<UnifiedRecommendation.Severity, Integer> getSummary(String instanceName) {
+		return new EnumMap<>(snapshot(instanceName).summary());
+	}
+
+	/**
+	 * Discards the cached result of one source for an instance, for example
+	 * after an event that changes its data, so the next request collects it
+	 * afresh. The other sources keep their cached results.
+	 *
+	 * @param instanceName the PostgreSQL instance name
+	 * @param source the source whose data changed
+	 */
+	public void invalidate(String instanceName, UnifiedRecommendation.Source source) {
+		sourceCache.remove(new SourceKey(instanceName, source));
+		snapshots.remove(instanceName);
+		responseVersionService.bump(ResponseVersionService.Source.RECOMMENDATIONS, instanceName);
+	}
+
+	// Snapshot collection
+
+	/**
+	 * Returns the current snapshot for an instance, collecting any sources
+	 * whose cached result is missing or too stale.
+	 */
+	private Snapshot snapshot(String instanceName) {
+		UnifiedRecommendation.Source[] sources = UnifiedRecommendation.Source.values();
+		SourceResult[] results = new SourceResult[sources.length];
+		List<CompletableFuture<SourceResult>> pending = new ArrayList<>(Collections.nCopies(sources.length, null));
+		long now = clock.getAsLong();
+
+		// Serve fresh and stale results, and start every required fetch before waiting on any
+		for (int i = 0; i < sources.length; i++) {
+			SourceKey key = new SourceKey(instanceName, sources[i]);
+			SourcePolicy policy = policies.get(sources[i]);
+			SourceResult cached = sourceCache.get(key);
+			long age = cached != null ? now - cached.fetchedAtMillis() : Long.MAX_VALUE;
+
+			if (age <= policy.ttlMillis()) {
+				results[i] = cached;
+			} else if (age <= policy.maxStaleMillis()) {
+				results[i] = cached;
+				refresh(key);
+			} else {
+				results[i] = cached;
+				pending.set(i, refresh(key));
+			}
+		}
+
+		long started = System.nanoTime();
+		for (int i = 0; i < sources.length; i++) {
+			CompletableFuture<SourceResult> future = pending.get(i);
+			if (future == null) {
+				continue;
+			}
+			long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+			long remaining = Math.max(0, policies.get(sources[i]).deadlineMillis() - elapsedMillis);
+			try {
+				results[i] = future.get(remaining, TimeUnit.MILLISECONDS);
+			} catch (TimeoutException e) {
+				LOG.debugf("%s recommendations for %s missed the %d ms deadline; completing in the background",
+					sources[i], instanceName, policies.get(sources[i]).deadlineMillis());
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			} catch (ExecutionException e) {
+				LOG.debugf(e.getCause(), "Error collecting %s recommendations", sources[i]);
+			}
+		}
+
+		long[] generations = new long[sources.length];
+		for (int i = 0; i < sources.length; i++) {
+			generations[i] = results[i] != null ? results[i].generation() : -1;
+		}
+
+		Snapshot current = snapshots.get(instanceName);
+		if (current != null && Arrays.equals(current.generations(), generations)) {
+			return current;
+		}
+
+		Snapshot built = buildSnapshot(results, generations);
+		snapshots.put(instanceName, built);
+		responseVersionService.bump(ResponseVersionService.Source.RECOMMENDATIONS, instanceName);
+		return built;
+	}
+
+	private Snapshot buildSnapshot(SourceResult[] results, long[] generations) {
+		List<UnifiedRecommendation> recommendations = new ArrayList<>();
+		for (SourceResult result : results) {
+			if (result != null) {
+				recommendations.addAll(result.recommendations());
+			}
+		}
+
+		// Sort by priority score (descending)
+		recommendations.sort((a, b) -> Integer.compare(b.getPriorityScore(), a.getPriorityScore()));
+
 		Map<UnifiedRecommendation.Severity, Integer> summary = new EnumMap<>(UnifiedRecommendation.Severity.class);
 		for (UnifiedRecommendation.Severity s : UnifiedRecommendation.Severity.values()) {
 			summary.put(s, 0);
 		}
-
-		for (UnifiedRecommendation rec : getRecommendations(instanceName)) {
+		for (UnifiedRecommendation rec : recommendations) {
 			summary.merge(rec.getSeverity(), 1, Integer::sum);
 		}
 
-		return summary;
+		return new Snapshot(List.copyOf(recommendations), Collections.unmodifiableMap(summary), generations);
+	}
+
+	/**
+	 * Starts collecting a source in the background, or joins a collection
+	 * already in flight for the same instance and source.
+	 */
+	private CompletableFuture<SourceResult> refresh(SourceKey key) {
+		CompletableFuture<SourceResult> created = new CompletableFuture<>();
+		CompletableFuture<SourceResult> existing = inFlight.putIfAbsent(key, created);
+		if (existing != null) {
+			return existing;
+		}
+
+		try {
+			collector.execute(() -> {
+				try {
+					SourceResult result = new SourceResult(
+						List.copyOf(collect(key)), clock.getAsLong(), generationCounter.incrementAndGet());
+					sourceCache.put(key, result);
+					created.complete(result);
+				} catch (Exception e) {
+					LOG.debugf(e, "Error getting %s recommendations", key.source());
+					created.complete(recordFailure(key));
+				} finally {
+					inFlight.remove(key, created);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			inFlight.remove(key, created);
+			created.completeExceptionally(e);
+		}
+		return created;
+	}
+
+	/**
+	 * Keeps a still-servable previous result after a failed collection;
+	 * otherwise caches an empty result so the failure is not retried on
+	 * every request.
+	 */
+	private SourceResult recordFailure(SourceKey key) {
+		SourceResult previous = sourceCache.get(key);
+		long now = clock.getAsLong();
+		if (previous != null && now - previous.fetchedAtMillis() <= policies.get(key.source()).maxStaleMillis()) {
+			return previous;
+		}
+		SourceResult empty = new SourceResult(List.of(), now, generationCounter.incrementAndGet());
+		sourceCache.put(key, empty);
+		return empty;
+	}
+
+	/**
+	 * Collects and converts the recommendations of one source.
+	 */
+	private List<UnifiedRecommendation> collect(SourceKey key) {
+		String instanceName = key.instanceName();
+		List<UnifiedRecommendation> recommendations = new ArrayList<>();
+
+		switch (key.source()) {
+			case INDEX_ADVISOR -> {
+				for (IndexRecommendation ir : indexAdvisorService.getRecommendations(instanceName)) {
+					recommendations.add(convertIndexRecommendation(instanceName, ir));
+				}
+			}
+			case TABLE_MAINTENANCE -> {
+				for (TableMaintenanceRecommendation mr : tableMaintenanceService.getRecommendations(instanceName)) {
+					recommendations.add(convertMaintenanceRecommendation(instanceName, mr));
+				}
+			}
+			case QUERY_REGRESSION -> {
+				for (QueryRegression qr : queryRegressionService.detectRegressions(instanceName, 24, 50)) {
+					recommendations.add(convertQueryRegression(instanceName, qr));
+				}
+			}
+			case ANOMALY -> {
+				for (DetectedAnomaly anomaly : anomalyDetectionService.getOpenAnomalies(instanceName)) {
+					recommendations.add(convertAnomaly(instanceName, anomaly));
+				}
+			}
+			case CONFIG_TUNING -> recommendations.addAll(getConfigTuningSuggestions(instanceName));
+		}
+
+		return recommendations;
+	}
+
+	/**
+	 * Builds the policy of every source from its configuration, keyed by the
+	 * source name in kebab case; package-private for tests.
+	 */
+	static Map<UnifiedRecommendation.Source, SourcePolicy> policiesOf(InstanceConfig.RecommendationsConfig settings) {
+		Map<UnifiedRecommendation.Source, SourcePolicy> policies = new EnumMap<>(UnifiedRecommendation.Source.class);
+		for (UnifiedRecommendation.Source source : UnifiedRecommendation.Source.values()) {
+			String name = source.name().toLowerCase(Locale.ROOT).replace('_', '-');
+			InstanceConfig.RecommendationSourceConfig configured = settings.sources().get(name);
+			if (configured == null) {
+				policies.put(source, SourcePolicy.DEFAULTS);
+				continue;
+			}
+			long ttlMillis = Math.max(0, configured.ttlSeconds()) * 1000L;
+			policies.put(source, new SourcePolicy(ttlMillis,
+				Math.max(ttlMillis, configured.maxStaleSeconds() * 1000L),
+				Math.max(0, configured.deadlineMs())));
+		}
+		return policies;
 	}
 
 	/**
@@ -0,0 +1,69 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+/**
+ * Reads bits, most significant first, from a byte array written by
+ * {@link BitOutput}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+final class BitInput {
+
+	private final byte[] data;
+	private long position;
+
+	/**
+	 * Creates a reader over the given bytes.
+	 *
+	 * @param data the encoded bytes
+	 */
+	BitInput(byte[] data) {
+		this.data = data;
+	}
+
+	/**
+	 * Reads a single bit.
+	 *
+	 * @return the bit
+	 * @throws IllegalStateException if the input is exhausted
+	 */
+	boolean readBit() {
+		return readBits(1) != 0;
+	}
+
+	/**
+	 * Reads {@code count} bits as an unsigned value.
+	 *
+	 * @param count the number of bits, 0 to 64
+	 * @return the bits, right-aligned
+	 * @throws IllegalStateException if the input is exhausted
+	 */
+	long readBits(int count) {
+		long result = 0;
+		while (count > 0) {
+			int index = (int) (position >>> 3);
+			if (index >= data.length) {
+				throw new IllegalStateException("Truncated archive column");
+			}
+			int available = 8 - (int) (position & 7);
+			int take = Math.min(available, count);
+			int bits = ((data[index] & 0xFF) >>> (available - take)) & ((1 << take) - 1);
+			result = (result << take) | bits;
+			position += take;
+			count -= take;
+		}
+		return result;
+	}
+
+	/**
+	 * Reads {@code count} bits as a two's complement signed value.
+	 *
+	 * @param count the number of bits, 1 to 64
+	 * @return the sign-extended value
+	 * @throws IllegalStateException if the input is exhausted
+	 */
+	long readSigned(int count) {
+		long value = readBits(count);
+		return count == 64 ? value : (value << (64 - count)) >> (64 - count);
+	}
+}
@@ -0,0 +1,82 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import java.io.ByteArrayOutputStream;
+
+/**
+ * Growable bit buffer written most-significant bit first.
+ * <p>
+ * Bits are gathered in a 64-bit accumulator and spilled to the byte buffer a
+ * word at a time, so the compressed column encoders pay one shift and mask
+ * per value rather than one call per bit.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see BitInput
+ */
+final class BitOutput {
+
+	private final ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+	private long accumulator;
+	private int pending;
+
+	/**
+	 * Writes a single bit.
+	 *
+	 * @param bit the bit to write
+	 */
+	void writeBit(boolean bit) {
+		writeBits(bit ? 1 : 0, 1);
+	}
+
+	/**
+	 * Writes the low {@code count} bits of a value, most significant first.
+	 *
+	 * @param value the value; bits above {@code count} are ignored
+	 * @param count the number of bits, 0 to 64
+	 */
+	void writeBits(long value, int count) {
+		if (count == 0) {
+			return;
+		}
+		if (count < 64) {
+			value &= (1L << count) - 1;
+		}
+		int free = 64 - pending;
+		if (count <= free) {
+			accumulator = count == 64 ? value : (accumulator << count) | value;
+			pending += count;
+			if (pending == 64) {
+				spill();
+			}
+		} else {
+			int rest = count - free;
+			writeBits(value >>> rest, free);
+			writeBits(value, rest);
+		}
+	}
+
+	/**
+	 * Returns the bits written so far, padded with zero bits to a whole byte.
+	 *
+	 * @return the encoded bytes
+	 */
+	byte[] toByteArray() {
+		ByteArrayOutputStream result = new ByteArrayOutputStream(bytes.size() + 8);
+		result.writeBytes(bytes.toByteArray());
+		if (pending > 0) {
+			long aligned = accumulator << (64 - pending);
+			for (int i = 0; i < (pending + 7) / 8; i++) {
+				result.write((int) (aligned >>> (56 - 8 * i)));
+			}
+		}
+		return result.toByteArray();
+	}
+
+	private void spill() {
+		for (int shift = 56; shift >= 0; shift -= 8) {
+			bytes.write((int) (accumulator >>> shift));
+		}
+		accumulator = 0;
+		pending = 0;
+	}
+}
@@ -0,0 +1,243 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Column encoders of the history archive.
+ * <p>
+ * Each method encodes the first {@code count} values of one column into a
+ * self-contained byte array, or decodes them again:
+ * <ul>
+ *   <li><b>Timestamps</b> are stored as delta-of-delta. Samples arrive at a
+ *       steady interval, so most rows cost one bit.</li>
+ *   <li><b>Doubles</b> use Gorilla XOR compression. A value equal to its
+ *       predecessor costs one bit; a small change stores only the bits that
+ *       differ.</li>
+ *   <li><b>Integers</b> are zig-zag varint deltas. Cumulative counters grow
+ *       slowly between samples, so most deltas fit in one or two bytes.</li>
+ *   <li><b>Text</b> is dictionary encoded. Query text repeats on every
+ *       sample, so each distinct string is stored once per chunk.</li>
+ * </ul>
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchive
+ */
+final class ColumnCodec {
+
+	private ColumnCodec() {
+	}
+
+	// --- Timestamps: delta-of-delta -------------------------------------------------
+
+	static byte[] encodeTimestamps(long[] values, int count) {
+		if (count == 0) {
+			return new byte[0];
+		}
+		BitOutput out = new BitOutput();
+		out.writeBits(values[0], 64);
+		long previousDelta = 0;
+		for (int i = 1; i < count; i++) {
+			long delta = values[i] - values[i - 1];
+			long dod = delta - previousDelta;
+			previousDelta = delta;
+			if (dod == 0) {
+				out.writeBit(false);
+			} else if (fits(dod, 7)) {
+				out.writeBits(0b10, 2);
+				out.writeBits(dod, 7);
+			} else if (fits(dod, 9)) {
+				out.writeBits(0b110, 3);
+				out.writeBits(dod, 9);
+			} else if (fits(dod, 12)) {
+				out.writeBits(0b1110, 4);
+				out.writeBits(dod, 12);
+			} else if (fits(dod, 32)) {
+				out.writeBits(0b11110, 5);
+				out.writeBits(dod, 32);
+			} else {
+				out.writeBits(0b11111, 5);
+				out.writeBits(dod, 64);
+			}
+		}
+		return out.toByteArray();
+	}
+
+	static long[] decodeTimestamps(byte[] data, int count) {
+		long[] values = new long[count];
+		if (count == 0) {
+			return values;
+		}
+		BitInput in = new BitInput(data);
+		values[0] = in.readBits(64);
+		long delta = 0;
+		for (int i = 1; i < count; i++) {
+			long dod;
+			if (!in.readBit()) {
+				dod = 0;
+			} else if (!in.readBit()) {
+				dod = in.readSigned(7);
+			} else if (!in.readBit()) {
+				dod = in.readSigned(9);
+			} else if (!in.readBit()) {
+				dod = in.readSigned(12);
+			} else if (!in.readBit()) {
+				dod = in.readSigned(32);
+			} else {
+				dod = in.readSigned(64);
+			}
+			delta += dod;
+			values[i] = values[i - 1] + delta;
+		}
+		return values;
+	}
+
+	private static boolean fits(long value, int bits) {
+		long limit = 1L << (bits - 1);
+		return value >= -limit && value < limit;
+	}
+
+	// --- Doubles: Gorilla XOR -------------------------------------------------------
+
+	static byte[] encodeDoubles(double[] values, int count) {
+		if (count == 0) {
+			return new byte[0];
+		}
+		BitOutput out = new BitOutput();
+		long previous = Double.doubleToRawLongBits(values[0]);
+		out.writeBits(previous, 64);
+		int windowLeading = -1;
+		int windowTrailing = 0;
+		for (int i = 1; i < count; i++) {
+			long current = Double.doubleToRawLongBits(values[i]);
+			long xor = current ^ previous;
+			previous = current;
+			if (xor == 0) {
+				out.writeBit(false);
+				continue;
+			}
+			out.writeBit(true);
+			int leading = Math.min(Long.numberOfLeadingZeros(xor), 31);
+			int trailing = Long.numberOfTrailingZeros(xor);
+			if (windowLeading >= 0 && leading >= windowLeading && trailing >= windowTrailing) {
+				// The changed bits fit the previous window
+				out.writeBit(false);
+				out.writeBits(xor >>> windowTrailing, 64 - windowLeading - windowTrailing);
+			} else {
+				int significant = 64 - leading - trailing;
+				out.writeBit(true);
+				out.writeBits(leading, 5);
+				out.writeBits(significant == 64 ? 0 : significant, 6);
+				out.writeBits(xor >>> trailing, significant);
+				windowLeading = leading;
+				windowTrailing = trailing;
+			}
+		}
+		return out.toByteArray();
+	}
+
+	static double[] decodeDoubles(byte[] data, int count) {
+		double[] values = new double[count];
+		if (count == 0) {
+			return values;
+		}
+		BitInput in = new BitInput(data);
+		long previous = in.readBits(64);
+		values[0] = Double.longBitsToDouble(previous);
+		int windowLeading = 0;
+		int windowTrailing = 0;
+		for (int i = 1; i < count; i++) {
+			if (in.readBit()) {
+				if (in.readBit()) {
+					windowLeading = (int) in.readBits(5);
+					int significant = (int) in.readBits(6);
+					if (significant == 0) {
+						significant = 64;
+					}
+					windowTrailing = 64 - windowLeading - significant;
+				}
+				int significant = 64 - windowLeading - windowTrailing;
+				previous ^= in.readBits(significant) << windowTrailing;
+			}
+			values[i] = Double.longBitsToDouble(previous);
+		}
+		return values;
+	}
+
+	// --- Integers: zig-zag varint deltas --------------------------------------------
+
+	static byte[] encodeLongs(long[] values, int count) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(count * 2);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			long previous = 0;
+			for (int i = 0; i < count; i++) {
+				HistoryArchive.writeVarLong(out, HistoryArchive.zigZag(values[i] - previous));
+				previous = values[i];
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	static long[] decodeLongs(byte[] data, int count) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		long[] values = new long[count];
+		long previous = 0;
+		for (int i = 0; i < count; i++) {
+			previous += HistoryArchive.unZigZag(HistoryArchive.readVarLong(in));
+			values[i] = previous;
+		}
+		return values;
+	}
+
+	// --- Text: dictionary -----------------------------------------------------------
+
+	static byte[] encodeText(String[] values, int count) {
+		Map<String, Integer> dictionary = new HashMap<>();
+		ByteArrayOutputStream entries = new ByteArrayOutputStream();
+		ByteArrayOutputStream codes = new ByteArrayOutputStream(count);
+		try {
+			DataOutputStream entriesOut = new DataOutputStream(entries);
+			DataOutputStream codesOut = new DataOutputStream(codes);
+			for (int i = 0; i < count; i++) {
+				Integer code = dictionary.get(values[i]);
+				if (code == null) {
+					code = dictionary.size();
+					dictionary.put(values[i], code);
+					HistoryArchive.writeString(entriesOut, values[i]);
+				}
+				HistoryArchive.writeVarLong(codesOut, code);
+			}
+
+			ByteArrayOutputStream result = new ByteArrayOutputStream(entries.size() + codes.size() + 5);
+			DataOutputStream out = new DataOutputStream(result);
+			HistoryArchive.writeVarLong(out, dictionary.size());
+			entries.writeTo(out);
+			codes.writeTo(out);
+			return result.toByteArray();
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	static String[] decodeText(byte[] data, int count) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+		String[] dictionary = new String[HistoryArchive.readVarInt(in, count)];
+		for (int i = 0; i < dictionary.length; i++) {
+			dictionary[i] = HistoryArchive.readString(in);
+		}
+		String[] values = new String[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = dictionary[HistoryArchive.readVarInt(in, dictionary.length - 1)];
+		}
+		return values;
+	}
+}
@@ -0,0 +1,174 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Types;
+
+/**
+ * Layout and primitives of the columnar history archive format.
+ * <p>
+ * An archive is a header, a sequence of chunks and a footer index:
+ * <pre>
+ * header  := MAGIC VERSION
+ * chunk   := 'C' varint(length) body
+ * body    := string(table) string(instance) varint(rows) varint(columns) column*
+ * column  := string(name) type flags [null bitmap] varint(length) encoded values
+ * footer  := 'F' varint(entries) entry* int64(footer offset) FOOTER_MAGIC
+ * entry   := string(table) string(instance) int64(min µs) int64(max µs) varint(rows) int64(offset) varint(length)
+ * </pre>
+ * Each chunk holds up to {@link #CHUNK_ROWS} rows of one table for one
+ * instance, stored column by column. Values are encoded by {@link ColumnCodec}
+ * according to their {@link ColumnType}. The footer lets a reader find the
+ * chunks for an instance and time range without decoding the others; a
+ * streaming reader can ignore it and read chunks in order.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchiveWriter
+ * @see HistoryArchiveReader
+ */
+public final class HistoryArchive {
+
+	/** Conventional file extension for history archives. */
+	public static final String FILE_EXTENSION = "pgch";
+
+	/** Media type used when archives are served over HTTP. */
+	public static final String MEDIA_TYPE = "application/vnd.pgconsole.history-archive";
+
+	static final byte[] MAGIC = "PGCHIST".getBytes(StandardCharsets.US_ASCII);
+	static final byte[] FOOTER_MAGIC = "PGCF".getBytes(StandardCharsets.US_ASCII);
+	static final int VERSION = 1;
+	static final int CHUNK_MARKER = 'C';
+	static final int FOOTER_MARKER = 'F';
+
+	/** Maximum rows per chunk; bounds the memory used to encode or decode one. */
+	static final int CHUNK_ROWS = 4096;
+
+	/** Largest encoded chunk a reader accepts, to reject corrupt lengths early. */
+	static final int MAX_CHUNK_BYTES = 64 * 1024 * 1024;
+
+	/** Length of the fixed trailer: footer offset and footer magic. */
+	static final int TRAILER_BYTES = 8 + 4;
+
+	private HistoryArchive() {
+	}
+
+	/**
+	 * Physical encoding of a column.
+	 */
+	enum ColumnType {
+		/** Timestamps as epoch microseconds, delta-of-delta encoded. */
+		TIMESTAMP(Types.TIMESTAMP),
+		/** Integers, zig-zag varint deltas. */
+		LONG(Types.BIGINT),
+		/** Doubles, Gorilla XOR encoded. */
+		DOUBLE(Types.DOUBLE),
+		/** Text, dictionary encoded. */
+		TEXT(Types.VARCHAR);
+
+		private final int sqlType;
+
+		ColumnType(int sqlType) {
+			this.sqlType = sqlType;
+		}
+
+		/**
+		 * Returns the JDBC type used when writing values of this column back to the database.
+		 *
+		 * @return the {@link Types} constant
+		 */
+		int sqlType() {
+			return sqlType;
+		}
+
+		/**
+		 * Chooses the encoding for a JDBC column type.
+		 *
+		 * @param jdbcType the {@link Types} constant of the column
+		 * @return the encoding
+		 */
+		static ColumnType forJdbcType(int jdbcType) {
+			return switch (jdbcType) {
+				case Types.TIMESTAMP, Types.TIMESTAMP_WITH_TIMEZONE -> TIMESTAMP;
+				case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT -> LONG;
+				case Types.REAL, Types.FLOAT, Types.DOUBLE, Types.NUMERIC, Types.DECIMAL -> DOUBLE;
+				default -> TEXT;
+			};
+		}
+	}
+
+	/**
+	 * Footer index entry locating one chunk.
+	 *
+	 * @param table the history table name, as in {@code HistoryTable}
+	 * @param instance the instance the rows belong to
+	 * @param minMicros earliest sample time in the chunk, epoch microseconds
+	 * @param maxMicros latest sample time in the chunk, epoch microseconds
+	 * @param rows number of rows in the chunk
+	 * @param offset byte offset of the chunk marker from the start of the archive
+	 * @param length length of the chunk, including marker and length prefix
+	 */
+	public record IndexEntry(String table, String instance, long minMicros, long maxMicros, int rows, long offset, int length) {
+
+		/**
+		 * Returns whether the chunk may contain samples in a time range.
+		 *
+		 * @param fromMicros inclusive start, epoch microseconds
+		 * @param toMicros exclusive end, epoch microseconds
+		 * @return true if the chunk overlaps the range
+		 */
+		public boolean overlaps(long fromMicros, long toMicros) {
+			return minMicros < toMicros && maxMicros >= fromMicros;
+		}
+	}
+
+	static void writeVarLong(DataOutput out, long value) throws IOException {
+		while ((value & ~0x7FL) != 0) {
+			out.writeByte((int) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		out.writeByte((int) value);
+	}
+
+	static long readVarLong(DataInput in) throws IOException {
+		long result = 0;
+		for (int shift = 0; shift < 64; shift += 7) {
+			byte b = in.readByte();
+			result |= (long) (b & 0x7F) << shift;
+			if ((b & 0x80) == 0) {
+				return result;
+			}
+		}
+		throw new IOException("Malformed varint in history archive");
+	}
+
+	static int readVarInt(DataInput in, int max) throws IOException {
+		long value = readVarLong(in);
+		if (value < 0 || value > max) {
+			throw new IOException("Value " + value + " out of range in history archive");
+		}
+		return (int) value;
+	}
+
+	static long zigZag(long value) {
+		return (value << 1) ^ (value >> 63);
+	}
+
+	static long unZigZag(long value) {
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	static void writeString(DataOutput out, String value) throws IOException {
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarLong(out, bytes.length);
+		out.write(bytes);
+	}
+
+	static String readString(DataInput in) throws IOException {
+		byte[] bytes = new byte[readVarInt(in, MAX_CHUNK_BYTES)];
+		in.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
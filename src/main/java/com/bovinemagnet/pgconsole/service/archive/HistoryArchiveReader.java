@@ -0,0 +1,153 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.IndexEntry;
+
+import java.io.BufferedInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a history archive.
+ * <p>
+ * A stream can be read chunk by chunk with {@link #next()}, holding one
+ * chunk in memory at a time. A file can instead be opened at its footer
+ * with {@link #readIndex(Path)} and individual chunks read with
+ * {@link #readChunk(Path, IndexEntry)}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchiveWriter
+ */
+final class HistoryArchiveReader {
+
+	private final DataInputStream in;
+	private boolean done;
+
+	/**
+	 * Opens an archive stream and checks its header.
+	 *
+	 * @param in the archive stream; it is not closed by the reader
+	 * @throws IOException if the stream is not a supported history archive
+	 */
+	HistoryArchiveReader(InputStream in) throws IOException {
+		this.in = new DataInputStream(in instanceof BufferedInputStream ? in : new BufferedInputStream(in));
+		checkHeader(this.in);
+	}
+
+	/**
+	 * Reads the next chunk.
+	 *
+	 * @return the chunk, or {@code null} once the footer is reached
+	 * @throws IOException if the archive is malformed or truncated
+	 */
+	HistoryChunk next() throws IOException {
+		if (done) {
+			return null;
+		}
+		int marker;
+		try {
+			marker = in.readUnsignedByte();
+		} catch (EOFException e) {
+			throw new IOException("History archive is truncated: no footer", e);
+		}
+		if (marker == HistoryArchive.FOOTER_MARKER) {
+			done = true;
+			return null;
+		}
+		if (marker != HistoryArchive.CHUNK_MARKER) {
+			throw new IOException("Unexpected marker " + marker + " in history archive");
+		}
+		byte[] body = new byte[HistoryArchive.readVarInt(in, HistoryArchive.MAX_CHUNK_BYTES)];
+		in.readFully(body);
+		return HistoryChunk.decode(body);
+	}
+
+	/**
+	 * Reads the footer index of an archive file without reading its chunks.
+	 *
+	 * @param file the archive file
+	 * @return the index entries, in file order
+	 * @throws IOException if the file is not a complete history archive
+	 */
+	static List<IndexEntry> readIndex(Path file) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+			long length = raf.length();
+			if (length < HistoryArchive.MAGIC.length + 1 + HistoryArchive.TRAILER_BYTES) {
+				throw new IOException("Not a history archive: " + file);
+			}
+			raf.seek(0);
+			checkHeader(raf);
+
+			raf.seek(length - HistoryArchive.TRAILER_BYTES);
+			long footerOffset = raf.readLong();
+			byte[] magic = new byte[HistoryArchive.FOOTER_MAGIC.length];
+			raf.readFully(magic);
+			if (!Arrays.equals(magic, HistoryArchive.FOOTER_MAGIC) || footerOffset < 0
+					|| footerOffset >= length - HistoryArchive.TRAILER_BYTES) {
+				throw new IOException("History archive footer is missing or corrupt: " + file);
+			}
+
+			raf.seek(footerOffset);
+			if (raf.readUnsignedByte() != HistoryArchive.FOOTER_MARKER) {
+				throw new IOException("History archive footer is missing or corrupt: " + file);
+			}
+			int count = HistoryArchive.readVarInt(raf, Integer.MAX_VALUE);
+			List<IndexEntry> entries = new ArrayList<>(Math.min(count, 1 << 16));
+			for (int i = 0; i < count; i++) {
+				entries.add(new IndexEntry(
+					HistoryArchive.readString(raf),
+					HistoryArchive.readString(raf),
+					raf.readLong(),
+					raf.readLong(),
+					HistoryArchive.readVarInt(raf, HistoryArchive.CHUNK_ROWS),
+					raf.readLong(),
+					HistoryArchive.readVarInt(raf, HistoryArchive.MAX_CHUNK_BYTES + 16)));
+			}
+			return entries;
+		}
+	}
+
+	/**
+	 * Reads a single chunk of an archive file located through its index.
+	 *
+	 * @param file the archive file
+	 * @param entry the chunk's index entry
+	 * @return the decoded chunk
+	 * @throws IOException if the chunk is malformed
+	 */
+	static HistoryChunk readChunk(Path file, IndexEntry entry) throws IOException {
+		try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+			raf.seek(entry.offset());
+			if (raf.readUnsignedByte() != HistoryArchive.CHUNK_MARKER) {
+				throw new IOException("No chunk at offset " + entry.offset() + " in " + file);
+			}
+			byte[] body = new byte[HistoryArchive.readVarInt(raf, HistoryArchive.MAX_CHUNK_BYTES)];
+			raf.readFully(body);
+			return HistoryChunk.decode(body);
+		}
+	}
+
+	private static void checkHeader(DataInput in) throws IOException {
+		byte[] magic = new byte[HistoryArchive.MAGIC.length];
+		try {
+			in.readFully(magic);
+			if (!Arrays.equals(magic, HistoryArchive.MAGIC)) {
+				throw new IOException("Not a history archive");
+			}
+			int version = in.readUnsignedByte();
+			if (version != HistoryArchive.VERSION) {
+				throw new IOException("Unsupported history archive version " + version);
+			}
+		} catch (EOFException e) {
+			throw new IOException("Not a history archive", e);
+		}
+	}
+}
@@ -0,0 +1,239 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository.HistoryTable;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.ColumnType;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.IndexEntry;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Exports stored history to the columnar archive format and imports it again.
+ * <p>
+ * Export streams each history table through a database cursor into chunks of
+ * up to {@link HistoryArchive#CHUNK_ROWS} rows, so at most one chunk per
+ * table is held in memory. Import reads the archive one chunk at a time and
+ * inserts each chunk in a single batch, which lets one pg-console seed
+ * another's history, e.g. a capacity-planning copy.
+ * <p>
+ * Row ids are not archived: imported rows get new ids. Importing the same
+ * archive twice duplicates its rows.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchive
+ */
+@ApplicationScoped
+public class HistoryArchiveService {
+
+	private static final Logger LOG = Logger.getLogger(HistoryArchiveService.class);
+
+	/**
+	 * Outcome of an export or import.
+	 *
+	 * @param chunks the number of chunks written or read
+	 * @param rowsByTable rows per history table
+	 */
+	public record Summary(int chunks, Map<HistoryTable, Long> rowsByTable) {
+
+		/**
+		 * Returns the total number of rows across all tables.
+		 *
+		 * @return the row count
+		 */
+		public long totalRows() {
+			return rowsByTable.values().stream().mapToLong(Long::longValue).sum();
+		}
+	}
+
+	@Inject
+	InstanceConfig config;
+
+	@Inject
+	HistoryRepository historyRepository;
+
+	/**
+	 * Writes an archive of the given history tables to a stream.
+	 *
+	 * @param instanceId the instance to export, or {@code null} for all instances
+	 * @param from inclusive start of the range
+	 * @param to exclusive end of the range
+	 * @param tables the tables to include
+	 * @param out the destination; it is flushed but not closed
+	 * @return what was written
+	 * @throws IOException if writing fails
+	 */
+	public Summary exportArchive(String instanceId, Instant from, Instant to, Collection<HistoryTable> tables,
+								 OutputStream out) throws IOException {
+		HistoryArchiveWriter writer = new HistoryArchiveWriter(out);
+		Map<HistoryTable, Long> rows = new EnumMap<>(HistoryTable.class);
+		int fetchSize = config.history().exportFetchSize();
+
+		try {
+			for (HistoryTable table : tables) {
+				long count = historyRepository.streamHistory(table, instanceId, from, to, fetchSize,
+					rs -> writeChunks(table, rs, writer));
+				rows.put(table, count);
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+
+		int chunks = writer.finish().size();
+		LOG.infof("Archived %d history rows in %d chunks for %s", rows.values().stream().mapToLong(Long::longValue).sum(),
+			chunks, instanceId != null ? instanceId : "all instances");
+		return new Summary(chunks, rows);
+	}
+
+	/**
+	 * Imports every chunk of an archive stream into the history tables.
+	 *
+	 * @param in the archive stream; it is not closed
+	 * @param targetInstance the instance to import the rows as, or {@code null}
+	 *                       to keep the instance recorded in the archive
+	 * @return what was imported
+	 * @throws IOException if the archive is malformed or names an unknown table
+	 */
+	public Summary importArchive(InputStream in, String targetInstance) throws IOException {
+		HistoryArchiveReader reader = new HistoryArchiveReader(in);
+		Map<HistoryTable, Long> rows = new EnumMap<>(HistoryTable.class);
+		int chunks = 0;
+
+		HistoryChunk chunk;
+		while ((chunk = reader.next()) != null) {
+			HistoryTable table = tableOf(chunk);
+			String instance = targetInstance != null ? targetInstance : chunk.instance();
+			List<Object[]> batch = new ArrayList<>(chunk.rowCount());
+			for (int row = 0; row < chunk.rowCount(); row++) {
+				batch.add(chunk.row(row));
+			}
+			int inserted;
+			try {
+				inserted = historyRepository.insertHistoryRows(table, instance, chunk.columnNames(), chunk.sqlTypes(), batch);
+			} catch (IllegalArgumentException e) {
+				throw new IOException(e.getMessage(), e);
+			}
+			rows.merge(table, (long) inserted, Long::sum);
+			chunks++;
+		}
+
+		LOG.infof("Imported %d history rows from %d archive chunks", rows.values().stream().mapToLong(Long::longValue).sum(), chunks);
+		return new Summary(chunks, rows);
+	}
+
+	/**
+	 * Reads the footer index of an archive file.
+	 *
+	 * @param file the archive file
+	 * @return the chunk index
+	 * @throws IOException if the file is not a complete history archive
+	 */
+	public List<IndexEntry> readIndex(Path file) throws IOException {
+		return HistoryArchiveReader.readIndex(file);
+	}
+
+	/**
+	 * Parses a comma-separated list of history table names, as accepted by
+	 * the archive endpoint and CLI command.
+	 *
+	 * @param tables the list, e.g. {@code system,query}; blank for all tables
+	 * @return the selected tables
+	 * @throws IllegalArgumentException if a name is not recognised
+	 */
+	public static Set<HistoryTable> parseTables(String tables) {
+		if (tables == null || tables.isBlank()) {
+			return EnumSet.allOf(HistoryTable.class);
+		}
+		List<String> unknown = new ArrayList<>();
+		Set<HistoryTable> selected = EnumSet.noneOf(HistoryTable.class);
+		for (String name : tables.split(",")) {
+			String trimmed = name.trim();
+			if (trimmed.isEmpty()) {
+				continue;
+			}
+			try {
+				selected.add(HistoryTable.valueOf(trimmed.toUpperCase(Locale.ROOT)));
+			} catch (IllegalArgumentException e) {
+				unknown.add(trimmed);
+			}
+		}
+		if (!unknown.isEmpty() || selected.isEmpty()) {
+			throw new IllegalArgumentException("Unknown history tables: " + unknown
+				+ " (expected system, query, database, infrastructure)");
+		}
+		return selected;
+	}
+
+	private long writeChunks(HistoryTable table, ResultSet rs, HistoryArchiveWriter writer) throws SQLException {
+		ResultSetMetaData meta = rs.getMetaData();
+		List<String> names = new ArrayList<>();
+		List<ColumnType> types = new ArrayList<>();
+		List<Integer> indexes = new ArrayList<>();
+		int instanceColumn = -1;
+		for (int i = 1; i <= meta.getColumnCount(); i++) {
+			String name = meta.getColumnLabel(i);
+			if ("instance_id".equals(name)) {
+				instanceColumn = i;
+			} else if (!"id".equals(name)) {
+				names.add(name);
+				types.add(ColumnType.forJdbcType(meta.getColumnType(i)));
+				indexes.add(i);
+			}
+		}
+		if (instanceColumn < 0) {
+			throw new SQLException(table.getTableName() + " has no instance_id column");
+		}
+		int[] jdbcColumns = indexes.stream().mapToInt(Integer::intValue).toArray();
+
+		long rows = 0;
+		HistoryChunk chunk = null;
+		try {
+			while (rs.next()) {
+				String instance = rs.getString(instanceColumn);
+				if (chunk == null || chunk.isFull() || !Objects.equals(chunk.instance(), instance)) {
+					if (chunk != null) {
+						writer.write(chunk);
+					}
+					chunk = HistoryChunk.create(table.name(), instance, names, types);
+				}
+				chunk.appendRow(rs, jdbcColumns);
+				rows++;
+			}
+			if (chunk != null) {
+				writer.write(chunk);
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return rows;
+	}
+
+	private static HistoryTable tableOf(HistoryChunk chunk) throws IOException {
+		try {
+			return HistoryTable.valueOf(chunk.table());
+		} catch (IllegalArgumentException e) {
+			throw new IOException("History archive contains unknown table " + chunk.table(), e);
+		}
+	}
+}
@@ -0,0 +1,96 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.IndexEntry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a history archive to a stream one chunk at a time.
+ * <p>
+ * Only the footer index is kept in memory, so the archive can be streamed
+ * straight to an HTTP response or file.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see HistoryArchiveReader
+ */
+final class HistoryArchiveWriter {
+
+	private final DataOutputStream out;
+	private final List<IndexEntry> index = new ArrayList<>();
+	private long position;
+	private boolean finished;
+
+	/**
+	 * Starts an archive on the given stream and writes its header.
+	 *
+	 * @param out the destination; it is not closed by the writer
+	 * @throws IOException if writing fails
+	 */
+	HistoryArchiveWriter(OutputStream out) throws IOException {
+		this.out = new DataOutputStream(out);
+		this.out.write(HistoryArchive.MAGIC);
+		this.out.writeByte(HistoryArchive.VERSION);
+		position = HistoryArchive.MAGIC.length + 1;
+	}
+
+	/**
+	 * Appends a chunk. Empty chunks are skipped.
+	 *
+	 * @param chunk the chunk to write
+	 * @throws IOException if writing fails
+	 */
+	void write(HistoryChunk chunk) throws IOException {
+		if (finished) {
+			throw new IllegalStateException("History archive is already finished");
+		}
+		if (chunk.isEmpty()) {
+			return;
+		}
+		byte[] body = chunk.encode();
+		ByteArrayOutputStream prefix = new ByteArrayOutputStream(6);
+		DataOutputStream prefixOut = new DataOutputStream(prefix);
+		prefixOut.writeByte(HistoryArchive.CHUNK_MARKER);
+		HistoryArchive.writeVarLong(prefixOut, body.length);
+
+		int length = prefix.size() + body.length;
+		index.add(new IndexEntry(chunk.table(), chunk.instance(), chunk.minMicros(), chunk.maxMicros(),
+			chunk.rowCount(), position, length));
+		prefix.writeTo(out);
+		out.write(body);
+		position += length;
+	}
+
+	/**
+	 * Writes the footer index and flushes the stream.
+	 *
+	 * @return the index of the chunks written
+	 * @throws IOException if writing fails
+	 */
+	List<IndexEntry> finish() throws IOException {
+		if (!finished) {
+			finished = true;
+			long footerOffset = position;
+			out.writeByte(HistoryArchive.FOOTER_MARKER);
+			HistoryArchive.writeVarLong(out, index.size());
+			for (IndexEntry entry : index) {
+				HistoryArchive.writeString(out, entry.table());
+				HistoryArchive.writeString(out, entry.instance());
+				out.writeLong(entry.minMicros());
+				out.writeLong(entry.maxMicros());
+				HistoryArchive.writeVarLong(out, entry.rows());
+				out.writeLong(entry.offset());
+				HistoryArchive.writeVarLong(out, entry.length());
+			}
+			out.writeLong(footerOffset);
+			out.write(HistoryArchive.FOOTER_MAGIC);
+			out.flush();
+		}
+		return List.copyOf(index);
+	}
+}
@@ -0,0 +1,380 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.ColumnType;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+/**
+ * Up to {@link HistoryArchive#CHUNK_ROWS} rows of one history table for one
+ * instance, held column by column in primitive arrays.
+ * <p>
+ * Nulls are tracked per column and left out of the encoded values, so a
+ * sparse column (e.g. WAL statistics before PostgreSQL 14) costs little more
+ * than its null bitmap.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+final class HistoryChunk {
+
+	private static final int FLAG_HAS_NULLS = 1;
+
+	private final String table;
+	private final String instance;
+	private final String[] names;
+	private final ColumnType[] types;
+	private final long[][] longs;
+	private final double[][] doubles;
+	private final String[][] texts;
+	private final boolean[][] nulls;
+	private final int timeColumn;
+	private final int capacity;
+	private int rowCount;
+
+	private HistoryChunk(String table, String instance, String[] names, ColumnType[] types, int capacity) {
+		this.table = table;
+		this.instance = instance;
+		this.names = names;
+		this.types = types;
+		this.longs = new long[names.length][];
+		this.doubles = new double[names.length][];
+		this.texts = new String[names.length][];
+		this.nulls = new boolean[names.length][capacity];
+		this.capacity = capacity;
+		int time = -1;
+		for (int c = 0; c < names.length; c++) {
+			switch (types[c]) {
+				case TIMESTAMP, LONG -> longs[c] = new long[capacity];
+				case DOUBLE -> doubles[c] = new double[capacity];
+				case TEXT -> texts[c] = new String[capacity];
+			}
+			if (types[c] == ColumnType.TIMESTAMP && (time < 0 || "sampled_at".equals(names[c]))) {
+				time = c;
+			}
+		}
+		this.timeColumn = time;
+	}
+
+	/**
+	 * Creates an empty chunk to be filled with {@link #appendRow}.
+	 *
+	 * @param table the history table name
+	 * @param instance the instance the rows belong to
+	 * @param names the column names
+	 * @param types the column encodings
+	 * @return an empty chunk
+	 */
+	static HistoryChunk create(String table, String instance, List<String> names, List<ColumnType> types) {
+		return new HistoryChunk(table, instance, names.toArray(String[]::new), types.toArray(ColumnType[]::new),
+			HistoryArchive.CHUNK_ROWS);
+	}
+
+	/**
+	 * Appends the current row of a result set.
+	 *
+	 * @param rs the result set, positioned on a row
+	 * @param jdbcColumns the result set column index of each chunk column
+	 * @throws SQLException if reading the row fails
+	 * @throws IllegalStateException if the chunk is full
+	 */
+	void appendRow(ResultSet rs, int[] jdbcColumns) throws SQLException {
+		if (isFull()) {
+			throw new IllegalStateException("History chunk is full");
+		}
+		int row = rowCount++;
+		for (int c = 0; c < names.length; c++) {
+			int column = jdbcColumns[c];
+			switch (types[c]) {
+				case TIMESTAMP -> {
+					Timestamp ts = rs.getTimestamp(column);
+					nulls[c][row] = ts == null;
+					longs[c][row] = ts == null ? 0 : toMicros(ts);
+				}
+				case LONG -> {
+					longs[c][row] = rs.getLong(column);
+					nulls[c][row] = rs.wasNull();
+				}
+				case DOUBLE -> {
+					doubles[c][row] = rs.getDouble(column);
+					nulls[c][row] = rs.wasNull();
+				}
+				case TEXT -> {
+					texts[c][row] = rs.getString(column);
+					nulls[c][row] = texts[c][row] == null;
+				}
+			}
+		}
+	}
+
+	boolean isFull() {
+		return rowCount == capacity;
+	}
+
+	boolean isEmpty() {
+		return rowCount == 0;
+	}
+
+	String table() {
+		return table;
+	}
+
+	String instance() {
+		return instance;
+	}
+
+	int rowCount() {
+		return rowCount;
+	}
+
+	List<String> columnNames() {
+		return List.of(names);
+	}
+
+	/**
+	 * Returns the JDBC type of each column, for writing rows back.
+	 *
+	 * @return the {@link java.sql.Types} constants
+	 */
+	int[] sqlTypes() {
+		int[] sqlTypes = new int[types.length];
+		for (int c = 0; c < types.length; c++) {
+			sqlTypes[c] = types[c].sqlType();
+		}
+		return sqlTypes;
+	}
+
+	/**
+	 * Returns a row as JDBC values: {@link Timestamp}, {@link Long},
+	 * {@link Double}, {@link String} or {@code null}.
+	 *
+	 * @param row the row index
+	 * @return the row values in column order
+	 */
+	Object[] row(int row) {
+		Object[] values = new Object[names.length];
+		for (int c = 0; c < names.length; c++) {
+			if (nulls[c][row]) {
+				continue;
+			}
+			values[c] = switch (types[c]) {
+				case TIMESTAMP -> fromMicros(longs[c][row]);
+				case LONG -> longs[c][row];
+				case DOUBLE -> doubles[c][row];
+				case TEXT -> texts[c][row];
+			};
+		}
+		return values;
+	}
+
+	/**
+	 * Returns the earliest sample time in the chunk.
+	 *
+	 * @return epoch microseconds, or {@link Long#MAX_VALUE} if there is no sample time
+	 */
+	long minMicros() {
+		long min = Long.MAX_VALUE;
+		for (int row = 0; timeColumn >= 0 && row < rowCount; row++) {
+			if (!nulls[timeColumn][row]) {
+				min = Math.min(min, longs[timeColumn][row]);
+			}
+		}
+		return min;
+	}
+
+	/**
+	 * Returns the latest sample time in the chunk.
+	 *
+	 * @return epoch microseconds, or {@link Long#MIN_VALUE} if there is no sample time
+	 */
+	long maxMicros() {
+		long max = Long.MIN_VALUE;
+		for (int row = 0; timeColumn >= 0 && row < rowCount; row++) {
+			if (!nulls[timeColumn][row]) {
+				max = Math.max(max, longs[timeColumn][row]);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * Encodes the chunk body.
+	 *
+	 * @return the encoded body, without the chunk marker or length
+	 */
+	byte[] encode() {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(rowCount * names.length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		try {
+			HistoryArchive.writeString(out, table);
+			HistoryArchive.writeString(out, instance);
+			HistoryArchive.writeVarLong(out, rowCount);
+			HistoryArchive.writeVarLong(out, names.length);
+			for (int c = 0; c < names.length; c++) {
+				HistoryArchive.writeString(out, names[c]);
+				out.writeByte(types[c].ordinal());
+
+				int present = 0;
+				byte[] bitmap = new byte[(rowCount + 7) / 8];
+				for (int row = 0; row < rowCount; row++) {
+					if (nulls[c][row]) {
+						bitmap[row >>> 3] |= (byte) (0x80 >>> (row & 7));
+					} else {
+						present++;
+					}
+				}
+				boolean hasNulls = present < rowCount;
+				out.writeByte(hasNulls ? FLAG_HAS_NULLS : 0);
+				if (hasNulls) {
+					out.write(bitmap);
+				}
+
+				byte[] encoded = encodeColumn(c, present);
+				HistoryArchive.writeVarLong(out, encoded.length);
+				out.write(encoded);
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return bytes.toByteArray();
+	}
+
+	private byte[] encodeColumn(int c, int present) {
+		boolean dense = present == rowCount;
+		return switch (types[c]) {
+			case TIMESTAMP -> ColumnCodec.encodeTimestamps(dense ? longs[c] : compact(longs[c], c, present), present);
+			case LONG -> ColumnCodec.encodeLongs(dense ? longs[c] : compact(longs[c], c, present), present);
+			case DOUBLE -> ColumnCodec.encodeDoubles(dense ? doubles[c] : compact(doubles[c], c, present), present);
+			case TEXT -> ColumnCodec.encodeText(dense ? texts[c] : compact(texts[c], c, present), present);
+		};
+	}
+
+	private long[] compact(long[] values, int c, int present) {
+		long[] result = new long[present];
+		for (int row = 0, i = 0; row < rowCount; row++) {
+			if (!nulls[c][row]) {
+				result[i++] = values[row];
+			}
+		}
+		return result;
+	}
+
+	private double[] compact(double[] values, int c, int present) {
+		double[] result = new double[present];
+		for (int row = 0, i = 0; row < rowCount; row++) {
+			if (!nulls[c][row]) {
+				result[i++] = values[row];
+			}
+		}
+		return result;
+	}
+
+	private String[] compact(String[] values, int c, int present) {
+		String[] result = new String[present];
+		for (int row = 0, i = 0; row < rowCount; row++) {
+			if (!nulls[c][row]) {
+				result[i++] = values[row];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes a chunk body written by {@link #encode()}.
+	 *
+	 * @param body the encoded body
+	 * @return the decoded chunk
+	 * @throws IOException if the body is malformed
+	 */
+	static HistoryChunk decode(byte[] body) throws IOException {
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(body));
+		try {
+			String table = HistoryArchive.readString(in);
+			String instance = HistoryArchive.readString(in);
+			int rows = HistoryArchive.readVarInt(in, HistoryArchive.CHUNK_ROWS);
+			int columns = HistoryArchive.readVarInt(in, 1024);
+			String[] names = new String[columns];
+			ColumnType[] types = new ColumnType[columns];
+			boolean[][] nulls = new boolean[columns][];
+			byte[][] encoded = new byte[columns][];
+			int[] present = new int[columns];
+
+			for (int c = 0; c < columns; c++) {
+				names[c] = HistoryArchive.readString(in);
+				int type = in.readUnsignedByte();
+				if (type >= ColumnType.values().length) {
+					throw new IOException("Unknown column type " + type + " in history archive");
+				}
+				types[c] = ColumnType.values()[type];
+				nulls[c] = new boolean[rows];
+				present[c] = rows;
+				if ((in.readUnsignedByte() & FLAG_HAS_NULLS) != 0) {
+					byte[] bitmap = new byte[(rows + 7) / 8];
+					in.readFully(bitmap);
+					for (int row = 0; row < rows; row++) {
+						if ((bitmap[row >>> 3] & (0x80 >>> (row & 7))) != 0) {
+							nulls[c][row] = true;
+							present[c]--;
+						}
+					}
+				}
+				encoded[c] = new byte[HistoryArchive.readVarInt(in, body.length)];
+				in.readFully(encoded[c]);
+			}
+
+			HistoryChunk chunk = new HistoryChunk(table, instance, names, types, Math.max(rows, 1));
+			chunk.rowCount = rows;
+			for (int c = 0; c < columns; c++) {
+				System.arraycopy(nulls[c], 0, chunk.nulls[c], 0, rows);
+				switch (types[c]) {
+					case TIMESTAMP -> expand(ColumnCodec.decodeTimestamps(encoded[c], present[c]), chunk.longs[c], nulls[c]);
+					case LONG -> expand(ColumnCodec.decodeLongs(encoded[c], present[c]), chunk.longs[c], nulls[c]);
+					case DOUBLE -> {
+						double[] values = ColumnCodec.decodeDoubles(encoded[c], present[c]);
+						for (int row = 0, i = 0; row < rows; row++) {
+							if (!nulls[c][row]) {
+								chunk.doubles[c][row] = values[i++];
+							}
+						}
+					}
+					case TEXT -> {
+						String[] values = ColumnCodec.decodeText(encoded[c], present[c]);
+						for (int row = 0, i = 0; row < rows; row++) {
+							if (!nulls[c][row]) {
+								chunk.texts[c][row] = values[i++];
+							}
+						}
+					}
+				}
+			}
+			return chunk;
+		} catch (IllegalStateException e) {
+			throw new IOException("Corrupt history archive chunk: " + e.getMessage(), e);
+		}
+	}
+
+	private static void expand(long[] values, long[] target, boolean[] nulls) {
+		for (int row = 0, i = 0; row < nulls.length; row++) {
+			if (!nulls[row]) {
+				target[row] = values[i++];
+			}
+		}
+	}
+
+	static long toMicros(Timestamp ts) {
+		return Math.floorDiv(ts.getTime(), 1000L) * 1_000_000L + ts.getNanos() / 1000;
+	}
+
+	static Timestamp fromMicros(long micros) {
+		Timestamp ts = new Timestamp(Math.floorDiv(micros, 1_000_000L) * 1000L);
+		ts.setNanos((int) Math.floorMod(micros, 1_000_000L) * 1000);
+		return ts;
+	}
+}
@@ -7,6 +7,7 @@ import com.bovinemagnet.pgconsole.model.NotificationResult;
 import com.bovinemagnet.pgconsole.repository.ActiveAlertRepository;
 import com.bovinemagnet.pgconsole.repository.AlertSilenceRepository;
 import com.bovinemagnet.pgconsole.repository.MaintenanceWindowRepository;
+import com.bovinemagnet.pgconsole.service.LeaderOnly;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
@@ -97,11 +98,11 @@ public class AlertManagementService {
 		alertRepository.save(alert);
 		LOG.infof("Fired new alert: %s [%s] - %s", alertId, severity, alertType);
 
-		// Dispatch notifications
+		// Queue notifications; delivery continues in the background
 		if (escalationPolicyId != null) {
 			escalationService.assignPolicyAndNotify(alert, escalationPolicyId);
 		} else {
-			dispatcher.dispatch(alert);
+			dispatcher.dispatchAsync(alert);
 		}
 
 		return alert;
@@ -383,7 +384,7 @@ public class AlertManagementService {
 	 * Cleans up old resolved alerts and expired silences.
 	 * Runs daily.
 	 */
-	@Scheduled(cron = "0 0 2 * * ?")
+	@Scheduled(cron = "0 0 2 * * ?", identity = "alert-cleanup", skipExecutionIf = LeaderOnly.class)
 	public void cleanupOldData() {
 		int deletedAlerts = alertRepository.deleteOlderThan(30);
 		int deletedSilences = silenceRepository.deleteExpiredOlderThan(7);
@@ -0,0 +1,261 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.NotificationChannel;
+import com.bovinemagnet.pgconsole.repository.NotificationHistoryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import org.jboss.logging.Logger;
+
+/**
+ * Lock-free per-channel rate limiter for notifications.
+ * <p>
+ * Each channel's {@code rateLimitPerHour} is enforced with the generic cell
+ * rate algorithm (GCRA), the single-timestamp form of a token bucket. A bucket
+ * holds one {@link AtomicLong}, the theoretical arrival time of the next
+ * notification, and a decision is a single compare-and-set, so checks never
+ * lock and do not touch the database.
+ * <p>
+ * By default a channel may send its whole hourly allowance back to back and
+ * then refills at the hourly rate. The burst can be narrowed, and each alert
+ * type can be given its own bucket within a channel, via
+ * {@link InstanceConfig.RateLimitConfig}.
+ * <p>
+ * A channel's bucket is seeded from its notification history the first time
+ * it is used, so a restart does not reset the allowance. Decisions and
+ * available tokens are exported as Micrometer metrics:
+ * <ul>
+ *   <li>{@code pgconsole.notification.ratelimit.decisions} - counter tagged
+ *       with {@code channel}, {@code scope} ({@code channel} or
+ *       {@code alert_type}) and {@code outcome} ({@code allowed} or
+ *       {@code limited})</li>
+ *   <li>{@code pgconsole.notification.ratelimit.tokens} - gauge of the tokens
+ *       currently available to each channel</li>
+ * </ul>
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see NotificationDispatcher
+ */
+@ApplicationScoped
+public class ChannelRateLimiter {
+
+	private static final Logger LOG = Logger.getLogger(ChannelRateLimiter.class);
+
+	private static final long HOUR_NANOS = TimeUnit.HOURS.toNanos(1);
+
+	static final String DECISIONS_METRIC = "pgconsole.notification.ratelimit.decisions";
+
+	static final String TOKENS_METRIC = "pgconsole.notification.ratelimit.tokens";
+
+	@Inject
+	InstanceConfig config;
+
+	@Inject
+	NotificationHistoryRepository historyRepository;
+
+	@Inject
+	MeterRegistry meterRegistry;
+
+	/** Monotonic time source in nanoseconds; package-private for tests. */
+	LongSupplier clock = System::nanoTime;
+
+	private final Map<Long, Bucket> channelBuckets = new ConcurrentHashMap<>();
+
+	private final Map<AlertTypeKey, Bucket> alertTypeBuckets = new ConcurrentHashMap<>();
+
+	private record AlertTypeKey(long channelId, String alertType) {}
+
+	/**
+	 * GCRA state for one bucket.
+	 * <p>
+	 * A notification is allowed when, after advancing the theoretical arrival
+	 * time by one emission interval, it lies no more than {@code burst}
+	 * intervals ahead of now. A denial is counted here; an admission is
+	 * counted by the caller once every bucket involved has admitted it.
+	 */
+	static final class Bucket {
+
+		final int perHour;
+		final int burst;
+		final long intervalNanos;
+		final long limitNanos;
+		final AtomicLong theoreticalArrival;
+		final Counter allowed;
+		final Counter limited;
+
+		Bucket(int perHour, int burst, long theoreticalArrival, Counter allowed, Counter limited) {
+			this.perHour = perHour;
+			this.burst = burst;
+			this.intervalNanos = HOUR_NANOS / perHour;
+			this.limitNanos = intervalNanos * burst;
+			this.theoreticalArrival = new AtomicLong(theoreticalArrival);
+			this.allowed = allowed;
+			this.limited = limited;
+		}
+
+		boolean tryAcquire(long now) {
+			while (true) {
+				long current = theoreticalArrival.get();
+				long next = Math.max(current - now, 0) + intervalNanos;
+				if (next > limitNanos) {
+					limited.increment();
+					return false;
+				}
+				if (theoreticalArrival.compareAndSet(current, now + next)) {
+					return true;
+				}
+			}
+		}
+
+		/**
+		 * Returns a token taken by {@link #tryAcquire(long)} that was not used.
+		 */
+		void release() {
+			theoreticalArrival.addAndGet(-intervalNanos);
+		}
+
+		double availableTokens(long now) {
+			long ahead = Math.max(theoreticalArrival.get() - now, 0);
+			return (double) (limitNanos - ahead) / intervalNanos;
+		}
+
+		boolean matches(int perHour, int burst) {
+			return this.perHour == perHour && this.burst == burst;
+		}
+	}
+
+	/**
+	 * Takes a token for a notification to a channel.
+	 * <p>
+	 * When per-alert-type buckets are enabled, both the alert type's bucket
+	 * and the channel's bucket must have a token.
+	 *
+	 * @param channel the channel to notify
+	 * @param alertType the alert type, or null if unknown
+	 * @return true if the notification may be sent, false if it is rate limited
+	 */
+	public boolean tryAcquire(NotificationChannel channel, String alertType) {
+		int perHour = channel.getRateLimitPerHour();
+		if (perHour <= 0 || channel.getId() == null) {
+			return true;
+		}
+
+		long now = clock.getAsLong();
+		InstanceConfig.RateLimitConfig settings = config.alerting().rateLimit();
+
+		Bucket typeBucket = null;
+		int perTypePerHour = settings.perAlertTypePerHour();
+		if (perTypePerHour > 0 && alertType != null) {
+			typeBucket = alertTypeBucket(channel.getId(), alertType, perTypePerHour, now);
+			if (!typeBucket.tryAcquire(now)) {
+				return false;
+			}
+		}
+
+		Bucket channelBucket = channelBucket(channel.getId(), perHour, burstFor(perHour, settings.burst()), now);
+		if (!channelBucket.tryAcquire(now)) {
+			if (typeBucket != null) {
+				typeBucket.release();
+			}
+			return false;
+		}
+		channelBucket.allowed.increment();
+		if (typeBucket != null) {
+			typeBucket.allowed.increment();
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the tokens currently available to a channel.
+	 *
+	 * @param channelId the channel ID
+	 * @return available tokens, or NaN if the channel has not been used yet
+	 */
+	public double getAvailableTokens(Long channelId) {
+		Bucket bucket = channelBuckets.get(channelId);
+		return bucket != null ? bucket.availableTokens(clock.getAsLong()) : Double.NaN;
+	}
+
+	/**
+	 * Discards the buckets for a channel, e.g. after it is deleted.
+	 *
+	 * @param channelId the channel ID
+	 */
+	public void forget(Long channelId) {
+		channelBuckets.remove(channelId);
+		alertTypeBuckets.keySet().removeIf(key -> key.channelId() == channelId);
+	}
+
+	private Bucket channelBucket(long channelId, int perHour, int burst, long now) {
+		Bucket bucket = channelBuckets.get(channelId);
+		if (bucket == null) {
+			// Seed outside the map so the history query never blocks other channels
+			Bucket seeded = new Bucket(perHour, burst, seedArrival(channelId, perHour, burst, now), decisions(channelId, "channel", "allowed"), decisions(channelId, "channel", "limited"));
+			bucket = channelBuckets.putIfAbsent(channelId, seeded);
+			if (bucket == null) {
+				meterRegistry.gauge(TOKENS_METRIC, Tags.of("channel", String.valueOf(channelId)), this, limiter -> limiter.getAvailableTokens(channelId));
+				bucket = seeded;
+			}
+		}
+		if (bucket.matches(perHour, burst)) {
+			return bucket;
+		}
+		// The channel's limit or the burst changed: keep the tokens already used
+		return channelBuckets.compute(channelId, (id, existing) -> resize(existing, perHour, burst, now, channelId, "channel"));
+	}
+
+	private Bucket alertTypeBucket(long channelId, String alertType, int perHour, long now) {
+		AlertTypeKey key = new AlertTypeKey(channelId, alertType);
+		Bucket bucket = alertTypeBuckets.get(key);
+		if (bucket != null && bucket.matches(perHour, perHour)) {
+			return bucket;
+		}
+		return alertTypeBuckets.compute(key, (k, existing) -> resize(existing, perHour, perHour, now, channelId, "alert_type"));
+	}
+
+	private Bucket resize(Bucket existing, int perHour, int burst, long now, long channelId, String scope) {
+		if (existing == null) {
+			return new Bucket(perHour, burst, now, decisions(channelId, scope, "allowed"), decisions(channelId, scope, "limited"));
+		}
+		if (existing.matches(perHour, burst)) {
+			return existing;
+		}
+		return rebuild(existing, perHour, burst, now);
+	}
+
+	private static Bucket rebuild(Bucket existing, int perHour, int burst, long now) {
+		long used = Math.max(existing.theoreticalArrival.get() - now, 0) / existing.intervalNanos;
+		Bucket rebuilt = new Bucket(perHour, burst, now, existing.allowed, existing.limited);
+		rebuilt.theoreticalArrival.set(now + Math.min(used, burst) * rebuilt.intervalNanos);
+		return rebuilt;
+	}
+
+	private long seedArrival(long channelId, int perHour, int burst, long now) {
+		int sentLastHour;
+		try {
+			sentLastHour = historyRepository.getCountLastHour(channelId);
+		} catch (RuntimeException e) {
+			LOG.debugf(e, "Could not read notification history for channel %d, starting with a full bucket", channelId);
+			sentLastHour = 0;
+		}
+		return now + Math.min(sentLastHour, burst) * (HOUR_NANOS / perHour);
+	}
+
+	private Counter decisions(long channelId, String scope, String outcome) {
+		return meterRegistry.counter(DECISIONS_METRIC, "channel", String.valueOf(channelId), "scope", scope, "outcome", outcome);
+	}
+
+	private static int burstFor(int perHour, int configuredBurst) {
+		return configuredBurst > 0 ? Math.min(configuredBurst, perHour) : perHour;
+	}
+}
@@ -0,0 +1,77 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.model.ActiveAlert;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Builds the single notification sent to a channel when several alerts
+ * escalate to the same tier in one escalation pass.
+ * <p>
+ * The digest is an {@link ActiveAlert} so every {@link NotificationSender}
+ * can deliver it unchanged. It carries the highest severity of the alerts it
+ * covers, and its message lists each alert, up to {@link #MAX_LISTED}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see EscalationService
+ */
+final class EscalationDigest {
+
+	/** Alert type of digest notifications. */
+	static final String ALERT_TYPE = "ESCALATION_DIGEST";
+
+	/** Alerts listed individually in a digest message before the remainder is summarised. */
+	static final int MAX_LISTED = 20;
+
+	private static final List<String> SEVERITY_ORDER = List.of("CRITICAL", "HIGH", "MEDIUM", "LOW");
+
+	private EscalationDigest() {
+	}
+
+	/**
+	 * Builds a digest alert for alerts escalating to a tier.
+	 *
+	 * @param alerts the escalated alerts, at least one
+	 * @param tier the tier being notified
+	 * @param channelId the channel the digest is for, used to keep digest IDs unique
+	 * @return the digest alert
+	 */
+	static ActiveAlert of(List<ActiveAlert> alerts, int tier, Long channelId) {
+		String severity = alerts.get(0).getAlertSeverity();
+		String instance = alerts.get(0).getInstanceName();
+		StringBuilder message = new StringBuilder();
+		message.append(alerts.size()).append(" alerts escalated to tier ").append(tier).append(':');
+
+		for (int i = 0; i < alerts.size(); i++) {
+			ActiveAlert alert = alerts.get(i);
+			if (rank(alert.getAlertSeverity()) < rank(severity)) {
+				severity = alert.getAlertSeverity();
+			}
+			if (!Objects.equals(instance, alert.getInstanceName())) {
+				instance = null;
+			}
+			if (i < MAX_LISTED) {
+				message.append("\n- [").append(alert.getAlertSeverity()).append("] ")
+					.append(alert.getInstanceName()).append(": ")
+					.append(alert.getAlertType()).append(" - ")
+					.append(alert.getAlertMessage());
+			}
+		}
+		if (alerts.size() > MAX_LISTED) {
+			message.append("\n... and ").append(alerts.size() - MAX_LISTED).append(" more");
+		}
+
+		String alertId = "digest-t" + tier + "-c" + channelId + "-" + System.currentTimeMillis();
+		ActiveAlert digest = new ActiveAlert(alertId, ALERT_TYPE, severity != null ? severity : "HIGH", message.toString());
+		digest.setInstanceName(instance != null ? instance : "multiple instances");
+		digest.setCurrentEscalationTier(tier);
+		return digest;
+	}
+
+	private static int rank(String severity) {
+		int rank = severity != null ? SEVERITY_ORDER.indexOf(severity.toUpperCase(Locale.ROOT)) : -1;
+		return rank >= 0 ? rank : SEVERITY_ORDER.size();
+	}
+}
@@ -3,15 +3,21 @@ package com.bovinemagnet.pgconsole.service.notification;
 import com.bovinemagnet.pgconsole.model.ActiveAlert;
 import com.bovinemagnet.pgconsole.model.EscalationPolicy;
 import com.bovinemagnet.pgconsole.model.EscalationPolicy.EscalationTier;
-import com.bovinemagnet.pgconsole.model.NotificationResult;
+import com.bovinemagnet.pgconsole.model.NotificationChannel;
 import com.bovinemagnet.pgconsole.repository.ActiveAlertRepository;
 import com.bovinemagnet.pgconsole.repository.EscalationPolicyRepository;
+import com.bovinemagnet.pgconsole.repository.NotificationChannelRepository;
+import com.bovinemagnet.pgconsole.service.LeaderOnly;
 import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 import org.jboss.logging.Logger;
 
 /**
@@ -25,6 +31,7 @@ import org.jboss.logging.Logger;
  *   <li>Automatic escalation based on time thresholds</li>
  *   <li>Policy-based routing to notification channels</li>
  *   <li>Repeat cycles for continued escalation</li>
+ *   <li>Batched escalation passes with one digest per channel and tier</li>
  * </ul>
  *
  * @author Paul Snow
@@ -41,6 +48,9 @@ public class EscalationService {
 	@Inject
 	EscalationPolicyRepository policyRepository;
 
+	@Inject
+	NotificationChannelRepository channelRepository;
+
 	@Inject
 	NotificationDispatcher dispatcher;
 
@@ -49,8 +59,13 @@ public class EscalationService {
 	 * <p>
 	 * This method is scheduled to run periodically and checks for
 	 * unacknowledged alerts that have exceeded their escalation delay.
+	 * The whole pass is batched: policies and channels are loaded once into
+	 * an in-memory index, each channel receives one digest per tier rather
+	 * than one message per alert, and the new tiers are written with a
+	 * single update.
 	 */
-	@Scheduled(every = "60s", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+	@Scheduled(every = "60s", identity = "escalation",
+			concurrentExecution = Scheduled.ConcurrentExecution.SKIP, skipExecutionIf = LeaderOnly.class)
 	public void processEscalations() {
 		List<ActiveAlert> alertsToEscalate = alertRepository.findDueForEscalation();
 
@@ -61,34 +76,105 @@ public class EscalationService {
 
 		LOG.infof("Processing %d alerts for escalation", alertsToEscalate.size());
 
-		for (ActiveAlert alert : alertsToEscalate) {
+		escalateBatch(alertsToEscalate);
+	}
+
+	/**
+	 * Escalates a batch of alerts to their next tiers.
+	 *
+	 * @param alerts the alerts due for escalation
+	 * @return handles to the deliveries, one per channel and tier
+	 */
+	List<NotificationDelivery> escalateBatch(List<ActiveAlert> alerts) {
+		Map<Long, EscalationPolicy> policies = policyRepository.findEnabledById();
+		Map<Long, NotificationChannel> channels = new HashMap<>();
+		for (NotificationChannel channel : channelRepository.findAll()) {
+			channels.put(channel.getId(), channel);
+		}
+
+		// tier -> channel -> alerts escalating to that tier on that channel
+		Map<Integer, Map<NotificationChannel, List<ActiveAlert>>> groups = new TreeMap<>();
+		Map<Long, Integer> newTiers = new LinkedHashMap<>();
+
+		for (ActiveAlert alert : alerts) {
 			try {
-				escalateAlert(alert);
+				EscalationTier nextTier = nextTier(alert, alert.getEscalationPolicyId() != null ? policies.get(alert.getEscalationPolicyId()) : null);
+				if (nextTier == null) {
+					continue;
+				}
+
+				Map<NotificationChannel, List<ActiveAlert>> byChannel = groups.computeIfAbsent(nextTier.getTierOrder(), tier -> new LinkedHashMap<>());
+				if (nextTier.getChannelIds() != null) {
+					for (Long channelId : nextTier.getChannelIds()) {
+						NotificationChannel channel = channels.get(channelId);
+						if (channel != null) {
+							byChannel.computeIfAbsent(channel, c -> new ArrayList<>()).add(alert);
+						}
+					}
+				}
+
+				alert.setCurrentEscalationTier(nextTier.getTierOrder());
+				alert.setLastNotificationAt(Instant.now());
+				newTiers.put(alert.getId(), nextTier.getTierOrder());
 			} catch (Exception e) {
 				LOG.errorf(e, "Failed to escalate alert %s", alert.getAlertId());
 			}
 		}
+
+		List<NotificationDelivery> deliveries = new ArrayList<>();
+		for (Map.Entry<Integer, Map<NotificationChannel, List<ActiveAlert>>> group : groups.entrySet()) {
+			if (!group.getValue().isEmpty()) {
+				deliveries.addAll(dispatcher.dispatchEscalationDigestsAsync(group.getKey(), group.getValue()));
+			}
+		}
+
+		alertRepository.updateEscalationTiers(newTiers);
+		return deliveries;
 	}
 
 	/**
 	 * Escalates an alert to the next tier in its escalation policy.
 	 *
 	 * @param alert the alert to escalate
-	 * @return list of notification results from the escalated tier
+	 * @return handle to the deliveries for the escalated tier
 	 */
-	public List<NotificationResult> escalateAlert(ActiveAlert alert) {
-		List<NotificationResult> results = new ArrayList<>();
+	public NotificationDelivery escalateAlert(ActiveAlert alert) {
+		NotificationDelivery results = NotificationDelivery.empty(alert.getAlertId());
 
 		if (alert.getEscalationPolicyId() == null) {
 			LOG.debugf("Alert %s has no escalation policy", alert.getAlertId());
 			return results;
 		}
 
-		EscalationPolicy policy = policyRepository.findById(alert.getEscalationPolicyId()).orElse(null);
+		EscalationTier nextTier = nextTier(alert, policyRepository.findById(alert.getEscalationPolicyId()).orElse(null));
+		if (nextTier == null) {
+			return results;
+		}
+
+		// Send notifications to all channels in the tier
+		if (nextTier.getChannelIds() != null && !nextTier.getChannelIds().isEmpty()) {
+			results = dispatcher.dispatchToChannelsAsync(alert, nextTier.getChannelIds(), nextTier.getTierOrder());
+		}
 
+		// Update alert escalation state
+		alert.setCurrentEscalationTier(nextTier.getTierOrder());
+		alert.setLastNotificationAt(Instant.now());
+		alertRepository.update(alert);
+
+		return results;
+	}
+
+	/**
+	 * Works out the tier an alert escalates to next.
+	 *
+	 * @param alert the alert
+	 * @param policy the alert's policy, or null if it was not found
+	 * @return the next tier, or null if the alert should not escalate
+	 */
+	private EscalationTier nextTier(ActiveAlert alert, EscalationPolicy policy) {
 		if (policy == null || !policy.isEnabled()) {
 			LOG.debugf("Escalation policy not found or disabled for alert %s", alert.getAlertId());
-			return results;
+			return null;
 		}
 
 		int currentTier = alert.getCurrentEscalationTier();
@@ -102,7 +188,7 @@ public class EscalationService {
 				currentTier = 0;
 			} else {
 				LOG.infof("Alert %s has exhausted all escalation tiers", alert.getAlertId());
-				return results;
+				return null;
 			}
 		}
 
@@ -110,27 +196,11 @@ public class EscalationService {
 		EscalationTier nextTier = policy.getNextTier(currentTier);
 		if (nextTier == null) {
 			LOG.warnf("No next tier found for alert %s at tier %d", alert.getAlertId(), currentTier);
-			return results;
+			return null;
 		}
 
 		LOG.infof("Escalating alert %s from tier %d to tier %d", alert.getAlertId(), currentTier, nextTier.getTierOrder());
-
-		// Send notifications to all channels in the tier
-		if (nextTier.getChannelIds() != null && !nextTier.getChannelIds().isEmpty()) {
-			results = dispatcher.dispatchToChannels(alert, nextTier.getChannelIds());
-
-			// Set escalation tier in results
-			for (NotificationResult result : results) {
-				result.setEscalationTier(nextTier.getTierOrder());
-			}
-		}
-
-		// Update alert escalation state
-		alert.setCurrentEscalationTier(nextTier.getTierOrder());
-		alert.setLastNotificationAt(Instant.now());
-		alertRepository.update(alert);
-
-		return results;
+		return nextTier;
 	}
 
 	/**
@@ -138,10 +208,10 @@ public class EscalationService {
 	 *
 	 * @param alert the alert to assign
 	 * @param policyId the escalation policy ID
-	 * @return notification results from the first tier
+	 * @return handle to the deliveries for the first tier
 	 */
-	public List<NotificationResult> assignPolicyAndNotify(ActiveAlert alert, Long policyId) {
-		List<NotificationResult> results = new ArrayList<>();
+	public NotificationDelivery assignPolicyAndNotify(ActiveAlert alert, Long policyId) {
+		NotificationDelivery results = NotificationDelivery.empty(alert.getAlertId());
 
 		EscalationPolicy policy = policyRepository.findById(policyId).orElse(null);
 		if (policy == null || !policy.isEnabled()) {
@@ -162,11 +232,7 @@ public class EscalationService {
 
 		// Send to first tier channels
 		if (firstTier.getChannelIds() != null && !firstTier.getChannelIds().isEmpty()) {
-			results = dispatcher.dispatchToChannels(alert, firstTier.getChannelIds());
-
-			for (NotificationResult result : results) {
-				result.setEscalationTier(1);
-			}
+			results = dispatcher.dispatchToChannelsAsync(alert, firstTier.getChannelIds(), 1);
 		}
 
 		// Update alert state
@@ -0,0 +1,142 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.model.NotificationResult;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Handle to an asynchronous notification dispatch.
+ * <p>
+ * Returned by the {@code *Async} methods of {@link NotificationDispatcher} as
+ * soon as the alert has been queued for each matching channel. Each channel
+ * delivers independently, including its retries, so the handle exposes both
+ * the overall completion and whichever results have arrived so far.
+ * <p>
+ * Channels that were skipped without sending (for example because they were
+ * rate limited) are already complete when the handle is returned.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ * @see NotificationDispatcher
+ */
+public final class NotificationDelivery {
+
+    private final String alertId;
+    private final List<CompletableFuture<NotificationResult>> channelResults;
+    private final CompletableFuture<List<NotificationResult>> completion;
+
+    NotificationDelivery(String alertId, List<CompletableFuture<NotificationResult>> channelResults) {
+        this.alertId = alertId;
+        this.channelResults = List.copyOf(channelResults);
+        this.completion = CompletableFuture
+            .allOf(this.channelResults.toArray(new CompletableFuture<?>[0]))
+            .handle((ignored, error) -> collect(this.channelResults));
+    }
+
+    /**
+     * Creates a handle for a dispatch that sent nothing, e.g. a suppressed alert.
+     *
+     * @param alertId the alert identifier
+     * @return a completed, empty delivery
+     */
+    static NotificationDelivery empty(String alertId) {
+        return new NotificationDelivery(alertId, List.of());
+    }
+
+    /**
+     * Returns the identifier of the dispatched alert.
+     *
+     * @return the alert ID
+     */
+    public String getAlertId() {
+        return alertId;
+    }
+
+    /**
+     * Returns the number of channels the alert was routed to.
+     *
+     * @return channel count, including channels that were skipped
+     */
+    public int getChannelCount() {
+        return channelResults.size();
+    }
+
+    /**
+     * Checks whether every channel has finished delivering, including retries.
+     *
+     * @return true when all results are available
+     */
+    public boolean isDone() {
+        return completion.isDone();
+    }
+
+    /**
+     * Returns a future completing with every channel's final result.
+     *
+     * @return future of all results
+     */
+    public CompletableFuture<List<NotificationResult>> completion() {
+        return completion;
+    }
+
+    /**
+     * Returns the results of channels that have already finished.
+     *
+     * @return completed results, possibly empty
+     */
+    public List<NotificationResult> getCompletedResults() {
+        List<CompletableFuture<NotificationResult>> done = new ArrayList<>();
+        for (CompletableFuture<NotificationResult> future : channelResults) {
+            if (future.isDone()) {
+                done.add(future);
+            }
+        }
+        return collect(done);
+    }
+
+    /**
+     * Waits for every channel to finish.
+     *
+     * @return all results
+     */
+    public List<NotificationResult> join() {
+        return completion.join();
+    }
+
+    /**
+     * Waits up to a timeout for every channel to finish.
+     *
+     * @param timeout maximum time to wait
+     * @return all results, or only the completed ones if the timeout elapsed
+     */
+    public List<NotificationResult> await(Duration timeout) {
+        try {
+            return completion.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return getCompletedResults();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return getCompletedResults();
+        } catch (ExecutionException e) {
+            return getCompletedResults();
+        }
+    }
+
+    private static List<NotificationResult> collect(List<CompletableFuture<NotificationResult>> futures) {
+        List<NotificationResult> results = new ArrayList<>(futures.size());
+        for (CompletableFuture<NotificationResult> future : futures) {
+            // Channels that sent nothing (e.g. no sender for a resolution) complete with null
+            NotificationResult result = future.isCompletedExceptionally() ? null : future.getNow(null);
+            if (result != null) {
+                results.add(result);
+            }
+        }
+        return results;
+    }
+}
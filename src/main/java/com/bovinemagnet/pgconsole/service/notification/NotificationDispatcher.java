@@ -1,5 +1,6 @@
 package com.bovinemagnet.pgconsole.service.notification;
 
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
 import com.bovinemagnet.pgconsole.model.ActiveAlert;
 import com.bovinemagnet.pgconsole.model.NotificationChannel;
 import com.bovinemagnet.pgconsole.model.NotificationResult;
@@ -7,14 +8,31 @@ import com.bovinemagnet.pgconsole.repository.AlertSilenceRepository;
 import com.bovinemagnet.pgconsole.repository.MaintenanceWindowRepository;
 import com.bovinemagnet.pgconsole.repository.NotificationChannelRepository;
 import com.bovinemagnet.pgconsole.repository.NotificationHistoryRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Instance;
 import jakarta.inject.Inject;
-import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import org.jboss.logging.Logger;
 
@@ -28,6 +46,17 @@ import org.jboss.logging.Logger;
  *   <li>Routing to appropriate channel senders</li>
  *   <li>Recording notification history</li>
  * </ul>
+ * <p>
+ * Delivery is asynchronous. Each channel has a bounded queue drained by a
+ * worker from a shared pool, so a slow webhook only delays its own channel.
+ * Failed sends are retried with exponential backoff, and history rows and
+ * last-used timestamps are written in batches. The {@code *Async} methods
+ * return a {@link NotificationDelivery} handle immediately; the synchronous
+ * variants wait for it. On shutdown every handle completes: deliveries not
+ * sent within the grace period complete as failed.
+ * <p>
+ * Queue sizes, threads, retries and history batching are configured under
+ * {@code pg-console.alerting.notifications}.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -37,6 +66,11 @@ public class NotificationDispatcher {
 
 	private static final Logger LOG = Logger.getLogger(NotificationDispatcher.class);
 
+	private static final String SHUTTING_DOWN = "Notification dispatcher is shutting down";
+
+	@Inject
+	InstanceConfig config;
+
 	@Inject
 	NotificationChannelRepository channelRepository;
 
@@ -52,33 +86,288 @@ public class NotificationDispatcher {
 	@Inject
 	Instance<NotificationSender> senders;
 
+	@Inject
+	ChannelRateLimiter rateLimiter;
+
 	// Cache for sender lookup by channel type
 	private Map<NotificationChannel.ChannelType, NotificationSender> senderMap;
 
-	// Rate limiting tracking: channelId -> list of recent send timestamps
-	private final Map<Long, List<Instant>> rateLimitTracker = new ConcurrentHashMap<>();
+	/** Maximum deliveries queued per channel; further deliveries fail fast. */
+	private int channelQueueCapacity;
+
+	/** Pending history rows that trigger an immediate flush. */
+	private int historyBatchSize;
+
+	/** Interval between history flushes when the batch size is not reached. */
+	private long historyFlushIntervalMillis;
+
+	/** How long queued deliveries may still be sent on shutdown. */
+	private long shutdownMillis;
+
+	/** Total send attempts per delivery, including the first; package-private for tests. */
+	int maxAttempts;
+
+	/** Delay before the first retry, doubled for each further retry; package-private for tests. */
+	long initialBackoffMillis;
+
+	/** Upper bound on the retry delay; package-private for tests. */
+	long maxBackoffMillis;
+
+	private ExecutorService deliveryExecutor;
+
+	private ScheduledExecutorService scheduler;
+
+	/** Set once the shutdown grace period has passed; workers then stop sending. */
+	private volatile boolean stopping;
+
+	// Per-channel delivery queues: channelId -> queue drained by at most one worker at a time
+	private final Map<Long, ChannelQueue> channelQueues = new ConcurrentHashMap<>();
+
+	// Deliveries waiting out a retry backoff; their channels are paused until the retry runs
+	private final Set<Delivery> awaitingRetry = ConcurrentHashMap.newKeySet();
+
+	// History rows and last-used channel IDs awaiting the next batched write
+	private final Queue<NotificationResult> pendingHistory = new ConcurrentLinkedQueue<>();
+	private final AtomicInteger pendingHistoryCount = new AtomicInteger();
+	private final Set<Long> pendingLastUsed = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+	private enum Kind {
+		ALERT,
+		RESOLUTION
+	}
+
+	/**
+	 * One alert or resolution to deliver to one channel.
+	 * <p>
+	 * For an escalation digest, {@code alert} is the digest and
+	 * {@code digestOf} lists the alerts it covers; otherwise it is null.
+	 */
+	private record Delivery(NotificationChannel channel, ActiveAlert alert, Kind kind, Integer escalationTier, List<ActiveAlert> digestOf, int attempt, CompletableFuture<NotificationResult> result) {
+
+		Delivery nextAttempt() {
+			return new Delivery(channel, alert, kind, escalationTier, digestOf, attempt + 1, result);
+		}
+	}
+
+	/**
+	 * Bounded queue of deliveries for one channel.
+	 * <p>
+	 * A channel is drained by at most one worker at a time, so deliveries to
+	 * a channel stay in order while different channels send concurrently on
+	 * the shared pool. A failed delivery is retried before anything queued
+	 * behind it: the channel stays paused, holding its drain, for the backoff.
+	 * Deliveries arriving meanwhile queue up to the capacity and fail fast
+	 * beyond it.
+	 */
+	private final class ChannelQueue {
+
+		private final BlockingQueue<Delivery> queue;
+		private final AtomicBoolean draining = new AtomicBoolean();
+
+		ChannelQueue(int capacity) {
+			this.queue = new ArrayBlockingQueue<>(capacity);
+		}
+
+		boolean offer(Delivery delivery) {
+			if (!queue.offer(delivery)) {
+				return false;
+			}
+			if (draining.compareAndSet(false, true)) {
+				submit(null);
+			}
+			return true;
+		}
+
+		/**
+		 * Submits a drain, starting with {@code resumed} if a retry is due.
+		 * The caller holds the draining flag.
+		 */
+		private void submit(Delivery resumed) {
+			try {
+				deliveryExecutor.execute(new DrainTask(this, resumed));
+			} catch (RejectedExecutionException e) {
+				if (resumed != null) {
+					resumed.result().complete(failedResult(resumed, SHUTTING_DOWN));
+				}
+				draining.set(false);
+				failQueued();
+			}
+		}
+
+		private void drain(Delivery resumed) {
+			boolean paused = false;
+			try {
+				Delivery delivery = resumed != null ? resumed : queue.poll();
+				while (delivery != null) {
+					if (stopping) {
+						delivery.result().complete(failedResult(delivery, SHUTTING_DOWN));
+						break;
+					}
+					if (deliver(delivery, this)) {
+						paused = true;
+						return;
+					}
+					delivery = queue.poll();
+				}
+			} finally {
+				if (!paused) {
+					draining.set(false);
+					if (stopping) {
+						failQueued();
+					} else if (!queue.isEmpty() && draining.compareAndSet(false, true)) {
+						submit(null);
+					}
+				}
+			}
+		}
+
+		/**
+		 * Keeps the channel paused and resumes its drain with {@code retry}
+		 * after the backoff.
+		 *
+		 * @return false if the retry could not be scheduled
+		 */
+		private boolean retryAfter(Delivery retry, long backoffMillis) {
+			awaitingRetry.add(retry);
+			try {
+				scheduler.schedule(() -> {
+					if (awaitingRetry.remove(retry)) {
+						submit(retry);
+					}
+				}, backoffMillis, TimeUnit.MILLISECONDS);
+				return true;
+			} catch (RejectedExecutionException e) {
+				awaitingRetry.remove(retry);
+				return false;
+			}
+		}
+
+		private void failQueued() {
+			Delivery delivery;
+			while ((delivery = queue.poll()) != null) {
+				delivery.result().complete(failedResult(delivery, SHUTTING_DOWN));
+			}
+		}
+	}
 
 	/**
-	 * Dispatches an alert to all matching enabled channels.
+	 * Drains one channel on the delivery pool. Named so that a drain still
+	 * queued at shutdown can fail the retry it was to resume.
+	 */
+	private record DrainTask(ChannelQueue channel, Delivery resumed) implements Runnable {
+
+		@Override
+		public void run() {
+			channel.drain(resumed);
+		}
+	}
+
+	@PostConstruct
+	void init() {
+		InstanceConfig.NotificationConfig settings = config.alerting().notifications();
+		channelQueueCapacity = Math.max(1, settings.queueCapacity());
+		historyBatchSize = Math.max(1, settings.historyBatchSize());
+		historyFlushIntervalMillis = Math.max(100, settings.historyFlushIntervalMs());
+		shutdownMillis = Math.max(0, settings.shutdownSeconds()) * 1000L;
+		maxAttempts = Math.max(1, settings.maxAttempts());
+		initialBackoffMillis = Math.max(1, settings.initialBackoffMs());
+		maxBackoffMillis = Math.max(initialBackoffMillis, settings.maxBackoffMs());
+		deliveryExecutor = Executors.newFixedThreadPool(Math.max(1, settings.deliveryThreads()), daemonThreads("notification-delivery"));
+		scheduler = Executors.newSingleThreadScheduledExecutor(daemonThreads("notification-scheduler"));
+	}
+
+	/**
+	 * Stops delivery, completing every outstanding delivery handle.
+	 * <p>
+	 * Retries can no longer run, so deliveries waiting for one fail at once.
+	 * Queued deliveries are still sent for up to the shutdown grace period;
+	 * those left after it fail, so no caller of a synchronous dispatch method
+	 * is left waiting.
+	 */
+	@PreDestroy
+	void shutdown() {
+		scheduler.shutdownNow();
+		failAwaitingRetry();
+
+		deliveryExecutor.shutdown();
+		try {
+			if (!deliveryExecutor.awaitTermination(shutdownMillis, TimeUnit.MILLISECONDS)) {
+				stopping = true;
+				abandon(deliveryExecutor.shutdownNow());
+				if (!deliveryExecutor.awaitTermination(1, TimeUnit.SECONDS)) {
+					LOG.warn("Notification delivery threads did not stop; their current sends complete on their own");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			stopping = true;
+			abandon(deliveryExecutor.shutdownNow());
+		}
+
+		stopping = true;
+		failAwaitingRetry();
+		for (ChannelQueue queue : channelQueues.values()) {
+			queue.failQueued();
+		}
+		flushHistory();
+	}
+
+	private void abandon(List<Runnable> drains) {
+		for (Runnable task : drains) {
+			if (task instanceof DrainTask drain && drain.resumed() != null) {
+				drain.resumed().result().complete(failedResult(drain.resumed(), SHUTTING_DOWN));
+			}
+		}
+	}
+
+	private void failAwaitingRetry() {
+		for (Delivery delivery : awaitingRetry) {
+			if (awaitingRetry.remove(delivery)) {
+				delivery.result().complete(failedResult(delivery, SHUTTING_DOWN));
+			}
+		}
+	}
+
+	/**
+	 * Dispatches an alert to all matching enabled channels and waits for delivery.
 	 *
 	 * @param alert the alert to dispatch
 	 * @return list of notification results from all channels
+	 * @see #dispatchAsync(ActiveAlert)
 	 */
 	public List<NotificationResult> dispatch(ActiveAlert alert) {
-		List<NotificationResult> results = new ArrayList<>();
+		List<NotificationResult> results = dispatchAsync(alert).join();
+		flushHistory();
+		return results;
+	}
 
+	/**
+	 * Queues an alert for delivery to all matching enabled channels and returns
+	 * immediately.
+	 * <p>
+	 * Each channel sends on its own bounded queue, concurrently with other
+	 * channels, retrying failures with exponential backoff. History and
+	 * last-used timestamps are written in batches.
+	 *
+	 * @param alert the alert to dispatch
+	 * @return handle to the per-channel deliveries
+	 */
+	public NotificationDelivery dispatchAsync(ActiveAlert alert) {
 		// Check for maintenance window suppression
 		if (isInMaintenanceWindow(alert)) {
 			LOG.debugf("Alert %s suppressed by maintenance window", alert.getAlertId());
-			return results;
+			return NotificationDelivery.empty(alert.getAlertId());
 		}
 
 		// Check for alert silences
 		if (isSilenced(alert)) {
 			LOG.debugf("Alert %s suppressed by silence rule", alert.getAlertId());
-			return results;
+			return NotificationDelivery.empty(alert.getAlertId());
 		}
 
+		List<CompletableFuture<NotificationResult>> results = new ArrayList<>();
+
 		// Get all enabled channels
 		List<NotificationChannel> channels = channelRepository.findEnabled();
 
@@ -89,54 +378,51 @@ public class NotificationDispatcher {
 			}
 
 			// Check rate limiting
-			if (isRateLimited(channel)) {
+			if (isRateLimited(channel, alert)) {
 				LOG.warnf("Channel %s rate limited, skipping alert %s", channel.getName(), alert.getAlertId());
-				results.add(createRateLimitedResult(channel, alert));
+				results.add(CompletableFuture.completedFuture(createRateLimitedResult(channel, alert)));
 				continue;
 			}
 
-			// Send notification
-			NotificationResult result = sendToChannel(channel, alert);
-			results.add(result);
-
-			// Record in history
-			historyRepository.save(result);
-
-			// Update rate limit tracker
-			trackSend(channel.getId());
-
-			// Update channel last used timestamp
-			if (result.isSuccess()) {
-				channelRepository.updateLastUsed(channel.getId());
-			}
+			results.add(enqueue(channel, alert, Kind.ALERT, null));
 		}
 
-		LOG.infof("Dispatched alert %s to %d channels, %d successful", alert.getAlertId(), results.size(), results.stream().filter(NotificationResult::isSuccess).count());
+		LOG.infof("Queued alert %s for %d channels", alert.getAlertId(), results.size());
 
-		return results;
+		return new NotificationDelivery(alert.getAlertId(), results);
 	}
 
 	/**
-	 * Dispatches an alert to specific channels by ID.
+	 * Dispatches an alert to specific channels by ID and waits for delivery.
 	 *
 	 * @param alert the alert to dispatch
 	 * @param channelIds list of channel IDs to send to
 	 * @return list of notification results
+	 * @see #dispatchToChannelsAsync(ActiveAlert, List, Integer)
 	 */
 	public List<NotificationResult> dispatchToChannels(ActiveAlert alert, List<Long> channelIds) {
-		List<NotificationResult> results = new ArrayList<>();
+		List<NotificationResult> results = dispatchToChannelsAsync(alert, channelIds, null).join();
+		flushHistory();
+		return results;
+	}
 
+	/**
+	 * Queues an alert for delivery to specific channels by ID and returns immediately.
+	 *
+	 * @param alert the alert to dispatch
+	 * @param channelIds list of channel IDs to send to
+	 * @param escalationTier escalation tier recorded on each result, or null
+	 * @return handle to the per-channel deliveries
+	 */
+	public NotificationDelivery dispatchToChannelsAsync(ActiveAlert alert, List<Long> channelIds, Integer escalationTier) {
 		// Escalation must honour the same alert-level suppression as dispatch():
 		// a silenced or maintenance-window alert must not page on every tier.
-		if (isInMaintenanceWindow(alert)) {
-			LOG.debugf("Escalation for alert %s suppressed by maintenance window", alert.getAlertId());
-			return results;
-		}
-		if (isSilenced(alert)) {
-			LOG.debugf("Escalation for alert %s suppressed by silence rule", alert.getAlertId());
-			return results;
+		if (isSuppressed(alert)) {
+			return NotificationDelivery.empty(alert.getAlertId());
 		}
 
+		List<CompletableFuture<NotificationResult>> results = new ArrayList<>();
+
 		for (Long channelId : channelIds) {
 			channelRepository
 				.findById(channelId)
@@ -148,35 +434,108 @@ public class NotificationDispatcher {
 					if (!channelMatchesAlert(channel, alert)) {
 						return;
 					}
-					if (isRateLimited(channel)) {
+					if (isRateLimited(channel, alert)) {
 						LOG.warnf("Channel %s rate limited, skipping escalation for alert %s", channel.getName(), alert.getAlertId());
-						results.add(createRateLimitedResult(channel, alert));
+						NotificationResult rateLimited = createRateLimitedResult(channel, alert);
+						rateLimited.setEscalationTier(escalationTier);
+						results.add(CompletableFuture.completedFuture(rateLimited));
 						return;
 					}
 
-					NotificationResult result = sendToChannel(channel, alert);
-					results.add(result);
-					historyRepository.save(result);
-					trackSend(channel.getId());
-
-					if (result.isSuccess()) {
-						channelRepository.updateLastUsed(channel.getId());
-					}
+					results.add(enqueue(channel, alert, Kind.ALERT, escalationTier));
 				});
 		}
 
-		return results;
+		return new NotificationDelivery(alert.getAlertId(), results);
+	}
+
+	/**
+	 * Queues escalation notifications for many alerts, sending each channel
+	 * one digest per tier instead of one message per alert.
+	 * <p>
+	 * Maintenance windows and silences are checked once per alert, and each
+	 * channel's filters are applied to the alerts routed to it. A channel
+	 * left with a single alert receives that alert as a normal notification;
+	 * a channel with several receives one {@link EscalationDigest}, which
+	 * uses a single rate limit token. History records a row for every alert
+	 * the digest covered. A channel whose sender
+	 * {@linkplain NotificationSender#tracksAlertsIndividually() tracks alerts
+	 * individually}, such as PagerDuty, is sent each alert on its own, so
+	 * every escalation updates the alert's own incident and its resolution
+	 * clears it.
+	 *
+	 * @param escalationTier the tier being notified
+	 * @param alertsByChannel alerts escalating to this tier, grouped by channel
+	 * @return one handle per digest or single alert that was sent or rate limited
+	 */
+	public List<NotificationDelivery> dispatchEscalationDigestsAsync(int escalationTier, Map<NotificationChannel, List<ActiveAlert>> alertsByChannel) {
+		Map<String, Boolean> suppressed = new HashMap<>();
+		List<NotificationDelivery> deliveries = new ArrayList<>();
+
+		for (Map.Entry<NotificationChannel, List<ActiveAlert>> entry : alertsByChannel.entrySet()) {
+			NotificationChannel channel = entry.getKey();
+			if (!channel.isEnabled()) {
+				continue;
+			}
+
+			List<ActiveAlert> alerts = new ArrayList<>();
+			for (ActiveAlert alert : entry.getValue()) {
+				if (!suppressed.computeIfAbsent(alert.getAlertId(), id -> isSuppressed(alert)) && channelMatchesAlert(channel, alert)) {
+					alerts.add(alert);
+				}
+			}
+			if (alerts.isEmpty()) {
+				continue;
+			}
+
+			NotificationSender sender = getSender(channel.getChannelType());
+			if (alerts.size() == 1 || (sender != null && sender.tracksAlertsIndividually())) {
+				for (ActiveAlert alert : alerts) {
+					deliveries.add(escalate(channel, alert, escalationTier, null));
+				}
+			} else {
+				deliveries.add(escalate(channel, EscalationDigest.of(alerts, escalationTier, channel.getId()), escalationTier, List.copyOf(alerts)));
+			}
+		}
+		return deliveries;
+	}
+
+	private NotificationDelivery escalate(NotificationChannel channel, ActiveAlert notified, int escalationTier, List<ActiveAlert> digestOf) {
+		CompletableFuture<NotificationResult> result;
+		if (isRateLimited(channel, notified)) {
+			LOG.warnf("Channel %s rate limited, skipping tier %d escalation of %s", channel.getName(), escalationTier, notified.getAlertId());
+			NotificationResult rateLimited = createRateLimitedResult(channel, notified);
+			rateLimited.setEscalationTier(escalationTier);
+			result = CompletableFuture.completedFuture(rateLimited);
+		} else {
+			result = enqueue(channel, notified, Kind.ALERT, escalationTier, digestOf);
+		}
+		return new NotificationDelivery(notified.getAlertId(), List.of(result));
 	}
 
 	/**
-	 * Sends a resolution notification for a resolved alert.
+	 * Sends a resolution notification for a resolved alert and waits for delivery.
 	 *
 	 * @param alert the resolved alert
 	 * @param channelIds channels to notify (or all if empty)
 	 * @return list of notification results
+	 * @see #dispatchResolutionAsync(ActiveAlert, List)
 	 */
 	public List<NotificationResult> dispatchResolution(ActiveAlert alert, List<Long> channelIds) {
-		List<NotificationResult> results = new ArrayList<>();
+		List<NotificationResult> results = dispatchResolutionAsync(alert, channelIds).join();
+		flushHistory();
+		return results;
+	}
+
+	/**
+	 * Queues a resolution notification for a resolved alert and returns immediately.
+	 *
+	 * @param alert the resolved alert
+	 * @param channelIds channels to notify (or all if empty)
+	 * @return handle to the per-channel deliveries
+	 */
+	public NotificationDelivery dispatchResolutionAsync(ActiveAlert alert, List<Long> channelIds) {
+		List<CompletableFuture<NotificationResult>> results = new ArrayList<>();
 
 		List<NotificationChannel> channels;
 		if (channelIds == null || channelIds.isEmpty()) {
@@ -196,21 +555,19 @@ public class NotificationDispatcher {
 				continue;
 			}
 
-			// Guard each channel so one failing sender (e.g. a PagerDuty no-op)
-			// cannot abort resolution for the remaining channels or 500 the request.
-			try {
-				NotificationSender sender = getSender(channel.getChannelType());
-				if (sender != null) {
-					NotificationResult result = sender.sendResolution(channel, alert);
-					results.add(result);
-					historyRepository.save(result);
-				}
-			} catch (Exception e) {
-				LOG.errorf(e, "Failed to send resolution to channel %s", channel.getName());
-			}
+			results.add(enqueue(channel, alert, Kind.RESOLUTION, null));
 		}
 
-		return results;
+		return new NotificationDelivery(alert.getAlertId(), results);
+	}
+
+	/**
+	 * Drops the rate limiter state kept for a channel that has been deleted.
+	 *
+	 * @param channelId the deleted channel's ID
+	 */
+	public void forgetChannel(Long channelId) {
+		rateLimiter.forget(channelId);
 	}
 
 	/**
@@ -312,6 +669,175 @@ public class NotificationDispatcher {
 		return retryResults;
 	}
 
+	// Delivery pipeline
+
+	private CompletableFuture<NotificationResult> enqueue(NotificationChannel channel, ActiveAlert alert, Kind kind, Integer escalationTier) {
+		return enqueue(channel, alert, kind, escalationTier, null);
+	}
+
+	private CompletableFuture<NotificationResult> enqueue(NotificationChannel channel, ActiveAlert alert, Kind kind, Integer escalationTier, List<ActiveAlert> digestOf) {
+		Delivery delivery = new Delivery(channel, alert, kind, escalationTier, digestOf, 1, new CompletableFuture<>());
+		ChannelQueue queue = channelQueues.computeIfAbsent(channel.getId(), id -> new ChannelQueue(channelQueueCapacity));
+		if (!queue.offer(delivery)) {
+			LOG.warnf("Delivery queue for channel %s is full, dropping alert %s", channel.getName(), alert.getAlertId());
+			NotificationResult dropped = failedResult(delivery, "Delivery queue full");
+			recordHistory(delivery, dropped, false);
+			delivery.result().complete(dropped);
+		}
+		return delivery.result();
+	}
+
+	/**
+	 * Sends one delivery on a worker thread, scheduling a retry with
+	 * exponential backoff if it fails and attempts remain.
+	 *
+	 * @return true if a retry was scheduled and the channel is paused until it runs
+	 */
+	private boolean deliver(Delivery delivery, ChannelQueue queue) {
+		NotificationChannel channel = delivery.channel();
+		ActiveAlert alert = delivery.alert();
+
+		NotificationResult result;
+		if (delivery.kind() == Kind.RESOLUTION) {
+			result = sendResolutionToChannel(channel, alert);
+		} else {
+			result = sendToChannel(channel, alert);
+		}
+
+		boolean sent = result != null && result.isSuccess();
+		boolean retryable = getSender(channel.getChannelType()) != null;
+		if (!sent && retryable && delivery.attempt() < maxAttempts && !stopping) {
+			long backoff = backoffMillis(delivery.attempt());
+			LOG.debugf("Delivery of alert %s to channel %s failed (attempt %d of %d), retrying in %d ms", alert.getAlertId(), channel.getName(), delivery.attempt(), maxAttempts, backoff);
+			if (queue.retryAfter(delivery.nextAttempt(), backoff)) {
+				return true;
+			}
+			// Shutting down: report the failure
+		}
+
+		if (result != null) {
+			result.setEscalationTier(delivery.escalationTier());
+			recordHistory(delivery, result, sent && delivery.kind() == Kind.ALERT);
+		}
+		delivery.result().complete(result);
+		return false;
+	}
+
+	long backoffMillis(int attempt) {
+		long base = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(attempt - 1, 20));
+		// Up to 20% jitter so retries to a recovering endpoint do not arrive together
+		return base + ThreadLocalRandom.current().nextLong(base / 5 + 1);
+	}
+
+	/**
+	 * Sends a resolution, returning null when nothing could be sent.
+	 */
+	private NotificationResult sendResolutionToChannel(NotificationChannel channel, ActiveAlert alert) {
+		// Guard each channel so one failing sender (e.g. a PagerDuty no-op)
+		// cannot abort resolution for the remaining channels or 500 the request.
+		try {
+			NotificationSender sender = getSender(channel.getChannelType());
+			return sender != null ? sender.sendResolution(channel, alert) : null;
+		} catch (Exception e) {
+			LOG.errorf(e, "Failed to send resolution to channel %s", channel.getName());
+			return null;
+		}
+	}
+
+	private NotificationResult failedResult(Delivery delivery, String message) {
+		NotificationChannel channel = delivery.channel();
+		ActiveAlert alert = delivery.alert();
+		NotificationResult result = NotificationResult.failure(channel.getId(), channel.getName(), channel.getChannelType(), alert.getAlertId(), message)
+			.withAlertDetails(alert.getAlertType(), alert.getAlertSeverity(), alert.getAlertMessage(), alert.getInstanceName());
+		result.setEscalationTier(delivery.escalationTier());
+		return result;
+	}
+
+	// Batched history
+
+	/**
+	 * Records a delivery's result, with one row per covered alert for a digest
+	 * so each alert's history shows the notification.
+	 */
+	private void recordHistory(Delivery delivery, NotificationResult result, boolean markLastUsed) {
+		if (delivery.digestOf() == null) {
+			recordHistory(result, markLastUsed);
+			return;
+		}
+		for (ActiveAlert alert : delivery.digestOf()) {
+			NotificationResult row = result.isSuccess()
+				? NotificationResult.success(result.getChannelId(), result.getChannelName(), result.getChannelType(), alert.getAlertId())
+				: NotificationResult.failure(result.getChannelId(), result.getChannelName(), result.getChannelType(), alert.getAlertId(), result.getErrorMessage());
+			row.withAlertDetails(alert.getAlertType(), alert.getAlertSeverity(), alert.getAlertMessage(), alert.getInstanceName());
+			row.setResponseCode(result.getResponseCode());
+			row.setEscalationTier(result.getEscalationTier());
+			recordHistory(row, markLastUsed);
+		}
+	}
+
+	private void recordHistory(NotificationResult result, boolean markLastUsed) {
+		pendingHistory.add(result);
+		if (markLastUsed) {
+			pendingLastUsed.add(result.getChannelId());
+		}
+		ensureFlushScheduled();
+		if (pendingHistoryCount.incrementAndGet() >= historyBatchSize) {
+			try {
+				scheduler.execute(this::flushHistory);
+			} catch (RejectedExecutionException e) {
+				flushHistory();
+			}
+		}
+	}
+
+	private void ensureFlushScheduled() {
+		if (flushScheduled.compareAndSet(false, true)) {
+			try {
+				scheduler.scheduleWithFixedDelay(this::flushHistory, historyFlushIntervalMillis, historyFlushIntervalMillis, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				flushScheduled.set(false);
+			}
+		}
+	}
+
+	/**
+	 * Writes pending history rows and last-used timestamps in one batch each.
+	 */
+	synchronized void flushHistory() {
+		List<NotificationResult> batch = new ArrayList<>();
+		NotificationResult result;
+		while ((result = pendingHistory.poll()) != null) {
+			batch.add(result);
+		}
+		pendingHistoryCount.addAndGet(-batch.size());
+
+		List<Long> lastUsed = new ArrayList<>(pendingLastUsed);
+		pendingLastUsed.removeAll(lastUsed);
+
+		if (!batch.isEmpty()) {
+			try {
+				historyRepository.saveAll(batch);
+			} catch (RuntimeException e) {
+				LOG.errorf(e, "Failed to record %d notification history rows", batch.size());
+			}
+		}
+		if (!lastUsed.isEmpty()) {
+			try {
+				channelRepository.updateLastUsed(lastUsed);
+			} catch (RuntimeException e) {
+				LOG.errorf(e, "Failed to update last used time for channels %s", lastUsed);
+			}
+		}
+	}
+
+	private static ThreadFactory daemonThreads(String name) {
+		return runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		};
+	}
+
 	private NotificationResult sendToChannel(NotificationChannel channel, ActiveAlert alert) {
 		// Test-mode channels are logged only, never actually sent.
 		if (channel.isTestMode()) {
@@ -379,6 +905,18 @@ public class NotificationDispatcher {
 		return true;
 	}
 
+	private boolean isSuppressed(ActiveAlert alert) {
+		if (isInMaintenanceWindow(alert)) {
+			LOG.debugf("Escalation for alert %s suppressed by maintenance window", alert.getAlertId());
+			return true;
+		}
+		if (isSilenced(alert)) {
+			LOG.debugf("Escalation for alert %s suppressed by silence rule", alert.getAlertId());
+			return true;
+		}
+		return false;
+	}
+
 	private boolean isInMaintenanceWindow(ActiveAlert alert) {
 		return maintenanceWindowRepository.shouldSuppress(alert.getInstanceName(), alert.getAlertType());
 	}
@@ -387,22 +925,8 @@ public class NotificationDispatcher {
 		return alertSilenceRepository.isSilenced(alert.getAlertType(), alert.getAlertSeverity(), alert.getInstanceName(), alert.getAlertMessage());
 	}
 
-	private boolean isRateLimited(NotificationChannel channel) {
-		int rateLimit = channel.getRateLimitPerHour();
-		if (rateLimit <= 0) {
-			return false;
-		}
-
-		int sentLastHour = historyRepository.getCountLastHour(channel.getId());
-		return sentLastHour >= rateLimit;
-	}
-
-	private void trackSend(Long channelId) {
-		rateLimitTracker.computeIfAbsent(channelId, k -> new ArrayList<>()).add(Instant.now());
-
-		// Clean up old entries (older than 1 hour)
-		Instant oneHourAgo = Instant.now().minusSeconds(3600);
-		rateLimitTracker.get(channelId).removeIf(t -> t.isBefore(oneHourAgo));
+	private boolean isRateLimited(NotificationChannel channel, ActiveAlert alert) {
+		return !rateLimiter.tryAcquire(channel, alert.getAlertType());
 	}
 
 	private NotificationResult createRateLimitedResult(NotificationChannel channel, ActiveAlert alert) {
@@ -49,6 +49,20 @@ public interface NotificationSender {
 		return send(channel, alert);
 	}
 
+	/**
+	 * Returns whether the platform tracks each alert as its own incident,
+	 * keyed by the alert, until a resolution for that alert clears it.
+	 * <p>
+	 * Such channels are sent each escalated alert on its own rather than an
+	 * {@link EscalationDigest}, whose key would match no alert and so would
+	 * never be resolved.
+	 *
+	 * @return true if alerts must be sent individually
+	 */
+	default boolean tracksAlertsIndividually() {
+		return false;
+	}
+
 	/**
 	 * Validates the channel configuration.
 	 *
@@ -36,6 +36,15 @@ public class PagerDutyNotificationSender extends AbstractNotificationSender {
 		return NotificationChannel.ChannelType.PAGERDUTY;
 	}
 
+	/**
+	 * PagerDuty opens one incident per dedup key, which is derived from the
+	 * alert and resolved with it.
+	 */
+	@Override
+	public boolean tracksAlertsIndividually() {
+		return true;
+	}
+
 	@Override
 	public NotificationResult send(NotificationChannel channel, ActiveAlert alert) {
 		PagerDutyConfig config = channel.getPagerDutyConfig();
@@ -0,0 +1,57 @@
+package com.bovinemagnet.pgconsole.util;
+
+/**
+ * Helpers for negotiating a response's content coding from a request's
+ * {@code Accept-Encoding} header.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class AcceptEncoding {
+
+    private AcceptEncoding() {
+    }
+
+    /**
+     * Returns whether an {@code Accept-Encoding} header allows a content coding.
+     * <p>
+     * A coding listed by name takes precedence over the {@code *} wildcard,
+     * and either is refused by a zero quality value such as {@code q=0} or
+     * {@code q=0.000}.
+     *
+     * @param acceptEncoding the header value, or {@code null}
+     * @param coding the content coding, such as {@code gzip}
+     * @return {@code true} if the coding is listed, or matched by {@code *}, with a non-zero quality
+     */
+    public static boolean accepts(String acceptEncoding, String coding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String entry : acceptEncoding.split(",")) {
+            String[] parts = entry.trim().split(";");
+            String name = parts[0].trim();
+            if (name.equalsIgnoreCase(coding)) {
+                return allowed(parts);
+            }
+            if (name.equals("*")) {
+                wildcard = allowed(parts);
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+
+    private static boolean allowed(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].replace(" ", "");
+            if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) > 0;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
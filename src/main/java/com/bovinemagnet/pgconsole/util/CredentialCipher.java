@@ -0,0 +1,108 @@
+package com.bovinemagnet.pgconsole.util;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts credentials stored in the metadata schema with AES-GCM.
+ * <p>
+ * Each value is encrypted with a fresh 96-bit nonce and bound to the name of
+ * the record it belongs to, so a value copied to another record does not
+ * decrypt. Encrypted values are {@code v1:} followed by the Base64 of the
+ * nonce and ciphertext. The key is given as Base64 of 16, 24 or 32 bytes,
+ * for example from {@code openssl rand -base64 32}, and must be the same on
+ * every replica.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class CredentialCipher {
+
+    private static final String PREFIX = "v1:";
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int NONCE_BYTES = 12;
+    private static final int TAG_BITS = 128;
+
+    private final SecretKeySpec key;
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Creates a cipher from a Base64 key.
+     *
+     * @param base64Key the key
+     * @throws IllegalArgumentException if the key is not Base64 of 16, 24 or 32 bytes
+     */
+    public CredentialCipher(String base64Key) {
+        byte[] bytes;
+        try {
+            bytes = Base64.getDecoder().decode(base64Key.strip());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("The credential key is not Base64", e);
+        }
+        if (bytes.length != 16 && bytes.length != 24 && bytes.length != 32) {
+            throw new IllegalArgumentException("The credential key must be 16, 24 or 32 bytes, not " + bytes.length);
+        }
+        this.key = new SecretKeySpec(bytes, "AES");
+    }
+
+    /**
+     * Encrypts a credential.
+     *
+     * @param owner the name of the record the credential belongs to
+     * @param plaintext the credential
+     * @return the encrypted value
+     */
+    public String encrypt(String owner, String plaintext) {
+        byte[] nonce = new byte[NONCE_BYTES];
+        random.nextBytes(nonce);
+        try {
+            Cipher cipher = cipher(Cipher.ENCRYPT_MODE, nonce, owner);
+            byte[] sealed = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+            byte[] out = ByteBuffer.allocate(nonce.length + sealed.length).put(nonce).put(sealed).array();
+            return PREFIX + Base64.getEncoder().encodeToString(out);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Could not encrypt a credential", e);
+        }
+    }
+
+    /**
+     * Decrypts a credential.
+     *
+     * @param owner the name of the record the credential belongs to
+     * @param encrypted the value returned by {@link #encrypt(String, String)}
+     * @return the credential
+     * @throws IllegalStateException if the value is malformed, was encrypted with another
+     *         key or belongs to another record
+     */
+    public String decrypt(String owner, String encrypted) {
+        if (encrypted == null || !encrypted.startsWith(PREFIX)) {
+            throw new IllegalStateException("The stored credential of " + owner + " is not an encrypted value");
+        }
+        try {
+            byte[] in = Base64.getDecoder().decode(encrypted.substring(PREFIX.length()));
+            if (in.length <= NONCE_BYTES) {
+                throw new IllegalStateException("The stored credential of " + owner + " is truncated");
+            }
+            byte[] nonce = new byte[NONCE_BYTES];
+            System.arraycopy(in, 0, nonce, 0, NONCE_BYTES);
+            Cipher cipher = cipher(Cipher.DECRYPT_MODE, nonce, owner);
+            return new String(cipher.doFinal(in, NONCE_BYTES, in.length - NONCE_BYTES), StandardCharsets.UTF_8);
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new IllegalStateException("Could not decrypt the stored credential of " + owner
+                    + "; it may have been encrypted with another key", e);
+        }
+    }
+
+    private Cipher cipher(int mode, byte[] nonce, String owner) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+        cipher.init(mode, key, new GCMParameterSpec(TAG_BITS, nonce));
+        cipher.updateAAD(owner.getBytes(StandardCharsets.UTF_8));
+        return cipher;
+    }
+}
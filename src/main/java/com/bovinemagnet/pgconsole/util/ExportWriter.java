@@ -0,0 +1,311 @@
+package com.bovinemagnet.pgconsole.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes tabular export data row by row as CSV or newline-delimited JSON.
+ * <p>
+ * Nothing is buffered beyond the current row, so an export of any size runs
+ * in constant memory when the rows come from a streaming source such as a
+ * cursor-backed {@link ResultSet}. CSV cells are escaped with {@link CsvCell};
+ * timestamps are written as ISO-8601 instants in both formats.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public abstract class ExportWriter {
+
+    /**
+     * Supported export formats.
+     */
+    public enum Format {
+        /** RFC 4180 CSV with a header row. */
+        CSV("csv", "text/csv"),
+        /** One JSON object per line, keyed by column name. */
+        NDJSON("ndjson", "application/x-ndjson");
+
+        private final String extension;
+        private final String mediaType;
+
+        Format(String extension, String mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Returns the file extension for this format, without a leading dot.
+         *
+         * @return the file extension
+         */
+        public String getExtension() {
+            return extension;
+        }
+
+        /**
+         * Returns the HTTP media type for this format.
+         *
+         * @return the media type
+         */
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        /**
+         * Looks up a format by name, ignoring case.
+         *
+         * @param name the format name, e.g. {@code csv} or {@code ndjson}
+         * @return the format, or {@code null} if the name is not recognised
+         */
+        public static Format fromName(String name) {
+            if (name == null) {
+                return null;
+            }
+            for (Format format : values()) {
+                if (format.extension.equalsIgnoreCase(name.trim())) {
+                    return format;
+                }
+            }
+            return null;
+        }
+    }
+
+    /** Destination of the export. */
+    protected final Writer out;
+
+    /** Column names, set by {@link #begin(List)}. */
+    protected List<String> columns = List.of();
+
+    private long rowCount;
+
+    /**
+     * Creates a writer that writes to the given destination.
+     *
+     * @param out the destination; callers should supply a buffered writer
+     */
+    protected ExportWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Creates a writer for the given format.
+     *
+     * @param format the export format
+     * @param out the destination; callers should supply a buffered writer
+     * @return a new export writer
+     */
+    public static ExportWriter of(Format format, Writer out) {
+        return format == Format.NDJSON ? new NdjsonWriter(out) : new CsvWriter(out);
+    }
+
+    /**
+     * Starts the export with the given columns.
+     *
+     * @param columns the column names, in row order
+     * @throws UncheckedIOException if writing fails
+     */
+    public void begin(List<String> columns) {
+        this.columns = List.copyOf(columns);
+        try {
+            writeHeader();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes one row. Values must be in the order given to {@link #begin(List)}.
+     *
+     * @param values the row values; {@code null} elements are written as empty or JSON null
+     * @throws UncheckedIOException if writing fails
+     */
+    public void row(Object... values) {
+        try {
+            writeRow(values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        rowCount++;
+    }
+
+    /**
+     * Writes every remaining row of a result set, using its column labels as
+     * the export columns.
+     *
+     * @param rs the result set, positioned before the first row
+     * @return the number of rows written
+     * @throws SQLException if reading the result set fails
+     * @throws UncheckedIOException if writing fails
+     */
+    public long writeAll(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int count = meta.getColumnCount();
+        List<String> labels = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            labels.add(meta.getColumnLabel(i));
+        }
+        begin(labels);
+
+        long start = rowCount;
+        Object[] values = new Object[count];
+        while (rs.next()) {
+            for (int i = 0; i < count; i++) {
+                values[i] = rs.getObject(i + 1);
+            }
+            row(values);
+        }
+        return rowCount - start;
+    }
+
+    /**
+     * Flushes any buffered output to the destination.
+     *
+     * @throws UncheckedIOException if flushing fails
+     */
+    public void flush() {
+        try {
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Returns the number of rows written so far.
+     *
+     * @return the row count
+     */
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Writes the header for {@link #columns}, if the format has one.
+     *
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeHeader() throws IOException;
+
+    /**
+     * Writes one row of values.
+     *
+     * @param values the row values
+     * @throws IOException if writing fails
+     */
+    protected abstract void writeRow(Object[] values) throws IOException;
+
+    /**
+     * Converts a JDBC value to its export text. Timestamps become ISO-8601
+     * instants and floating-point values use a locale-independent form.
+     *
+     * @param value the value, not null
+     * @return the text form
+     */
+    static String text(Object value) {
+        if (value instanceof Timestamp ts) {
+            return ts.toInstant().toString();
+        }
+        if (value instanceof Double || value instanceof Float) {
+            return String.format(Locale.ROOT, "%s", value);
+        }
+        return value.toString();
+    }
+
+    private static final class CsvWriter extends ExportWriter {
+
+        CsvWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        protected void writeHeader() throws IOException {
+            writeRow(columns.toArray());
+        }
+
+        @Override
+        protected void writeRow(Object[] values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                Object value = values[i];
+                if (value instanceof Number || value instanceof Boolean) {
+                    out.write(text(value));
+                } else if (value != null) {
+                    out.write(CsvCell.escape(text(value)));
+                }
+            }
+            out.write('\n');
+        }
+    }
+
+    private static final class NdjsonWriter extends ExportWriter {
+
+        NdjsonWriter(Writer out) {
+            super(out);
+        }
+
+        @Override
+        protected void writeHeader() {
+            // Each line is self-describing
+        }
+
+        @Override
+        protected void writeRow(Object[] values) throws IOException {
+            out.write('{');
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    out.write(',');
+                }
+                writeString(columns.get(i));
+                out.write(':');
+                Object value = values[i];
+                if (value == null) {
+                    out.write("null");
+                } else if (value instanceof Boolean) {
+                    out.write(value.toString());
+                } else if (value instanceof Number number && isFinite(number)) {
+                    out.write(text(number));
+                } else {
+                    writeString(text(value));
+                }
+            }
+            out.write("}\n");
+        }
+
+        private static boolean isFinite(Number number) {
+            return !(number instanceof Double d && !Double.isFinite(d))
+                && !(number instanceof Float f && !Float.isFinite(f));
+        }
+
+        private void writeString(String value) throws IOException {
+            out.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '"' -> out.write("\\\"");
+                    case '\\' -> out.write("\\\\");
+                    case '\n' -> out.write("\\n");
+                    case '\r' -> out.write("\\r");
+                    case '\t' -> out.write("\\t");
+                    default -> {
+                        if (c < 0x20) {
+                            out.write(String.format("\\u%04x", (int) c));
+                        } else {
+                            out.write(c);
+                        }
+                    }
+                }
+            }
+            out.write('"');
+        }
+    }
+}
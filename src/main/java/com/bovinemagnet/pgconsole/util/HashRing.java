@@ -0,0 +1,114 @@
+package com.bovinemagnet.pgconsole.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Consistent hash ring assigning keys to members.
+ * <p>
+ * Each member is placed at a number of pseudo-random points (virtual nodes)
+ * on a 64-bit ring, and a key belongs to the member at the first point at or
+ * after the key's hash, wrapping around. When a member joins or leaves, only
+ * the keys between its points and their predecessors move, roughly
+ * {@code 1/n} of them, and every other key keeps its member.
+ * <p>
+ * The hash is FNV-1a over the UTF-8 bytes followed by a 64-bit finaliser, so
+ * that every JVM computes the same ring from the same members. Rings are
+ * immutable.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class HashRing {
+
+    private static final HashRing EMPTY = new HashRing(new TreeMap<>(), Set.of());
+
+    private final NavigableMap<Long, String> points;
+    private final Set<String> members;
+
+    private HashRing(NavigableMap<Long, String> points, Set<String> members) {
+        this.points = points;
+        this.members = members;
+    }
+
+    /**
+     * Returns a ring with no members.
+     *
+     * @return the empty ring
+     */
+    public static HashRing empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a ring.
+     *
+     * @param members the members; duplicates are ignored
+     * @param virtualNodes points per member, at least 1
+     * @return the ring
+     */
+    public static HashRing of(Collection<String> members, int virtualNodes) {
+        if (members.isEmpty()) {
+            return EMPTY;
+        }
+        Set<String> sorted = new TreeSet<>(members);
+        NavigableMap<Long, String> points = new TreeMap<>();
+        for (String member : sorted) {
+            for (int v = 0; v < Math.max(1, virtualNodes); v++) {
+                // On the rare collision the smaller member keeps the point, in every JVM alike
+                points.merge(hash(member + "#" + v), member, (a, b) -> a.compareTo(b) <= 0 ? a : b);
+            }
+        }
+        return new HashRing(points, Set.copyOf(sorted));
+    }
+
+    /**
+     * Returns the member a key belongs to.
+     *
+     * @param key the key
+     * @return the member, or {@code null} if the ring is empty
+     */
+    public String ownerOf(String key) {
+        if (points.isEmpty()) {
+            return null;
+        }
+        Map.Entry<Long, String> point = points.ceilingEntry(hash(key));
+        return point != null ? point.getValue() : points.firstEntry().getValue();
+    }
+
+    /**
+     * Returns the members of the ring.
+     *
+     * @return the members
+     */
+    public Set<String> members() {
+        return members;
+    }
+
+    public boolean isEmpty() {
+        return members.isEmpty();
+    }
+
+    /**
+     * Hashes a string to a well-mixed 64-bit value.
+     */
+    static long hash(String value) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        // MurmurHash3 finaliser, so that similar keys land far apart
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
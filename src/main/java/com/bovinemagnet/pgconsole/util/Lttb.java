@@ -0,0 +1,86 @@
+package com.bovinemagnet.pgconsole.util;
+
+/**
+ * Largest-Triangle-Three-Buckets (LTTB) downsampling for evenly spaced series.
+ * <p>
+ * Picks a subset of points that preserves the visual shape of a line chart:
+ * the first and last points are always kept, and from each intermediate
+ * bucket the point forming the largest triangle with the previously selected
+ * point and the average of the next bucket is chosen. Spikes and troughs
+ * therefore survive, unlike naive striding or averaging.
+ * <p>
+ * The x coordinate of each point is its index, which matches how sparklines
+ * lay out samples.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class Lttb {
+
+    private Lttb() {
+    }
+
+    /**
+     * Selects the indices of at most {@code threshold} representative points.
+     *
+     * @param values    the series values; only the first {@code count} are used
+     * @param count     number of valid values in {@code values}
+     * @param threshold maximum number of points to keep (values below 3 keep everything)
+     * @return ascending indices into {@code values}; all indices when no downsampling is needed
+     */
+    public static int[] selectIndices(double[] values, int count, int threshold) {
+        if (threshold < 3 || count <= threshold) {
+            int[] all = new int[count];
+            for (int i = 0; i < count; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (count - 2) / (threshold - 2);
+        int a = 0;
+        selected[0] = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket is the third vertex of the triangle
+            int nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, count);
+            double avgX = 0;
+            double avgY = 0;
+            int nextLength = nextEnd - nextStart;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            if (nextLength > 0) {
+                avgX /= nextLength;
+                avgY /= nextLength;
+            } else {
+                avgX = count - 1;
+                avgY = values[count - 1];
+            }
+
+            // Pick the point in the current bucket with the largest triangle area
+            int start = (int) Math.floor(bucket * bucketSize) + 1;
+            int end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+            double ax = a;
+            double ay = values[a];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (values[i] - ay) - (ax - i) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+
+            selected[bucket + 1] = maxIndex;
+            a = maxIndex;
+        }
+
+        selected[threshold - 1] = count - 1;
+        return selected;
+    }
+}
@@ -0,0 +1,44 @@
+package com.bovinemagnet.pgconsole.util;
+
+/**
+ * Formats byte counts exactly as PostgreSQL's {@code pg_size_pretty} does, so
+ * sizes computed in Java read the same as sizes formatted by the server.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class PgSize {
+
+    private static final String[] UNITS = {"bytes", "kB", "MB", "GB", "TB", "PB"};
+
+    private PgSize() {
+    }
+
+    /**
+     * Formats a size in bytes, e.g. {@code 9 bytes}, {@code 12 kB} or {@code 1536 MB}.
+     * <p>
+     * Like {@code pg_size_pretty}, each unit is used until the value reaches
+     * 10240 of it, and values above bytes are rounded half away from zero.
+     *
+     * @param bytes the size in bytes
+     * @return the formatted size
+     */
+    public static String pretty(long bytes) {
+        long size = bytes;
+        if (Math.abs(size) < 10 * 1024) {
+            return size + " " + UNITS[0];
+        }
+        // Keep one extra bit for half-rounding in the units above bytes
+        size /= 512;
+        for (int unit = 1; ; unit++) {
+            if (unit == UNITS.length - 1 || Math.abs(size) < 20 * 1024 - 1) {
+                return halfRounded(size) + " " + UNITS[unit];
+            }
+            size /= 1024;
+        }
+    }
+
+    private static long halfRounded(long value) {
+        return (value + (value < 0 ? -1 : 1)) / 2;
+    }
+}
@@ -0,0 +1,178 @@
+package com.bovinemagnet.pgconsole.util;
+
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A PostgreSQL JDBC URL taken from an untrusted source, reduced to a host,
+ * port, database and a small set of connection parameters.
+ * <p>
+ * The PostgreSQL driver accepts properties in the URL that load classes or
+ * read files on the server ({@code socketFactory}, {@code sslfactory},
+ * {@code sslrootcert}, {@code sslkey}), or that change the session
+ * ({@code options}). A URL is therefore only accepted in the form
+ * {@code jdbc:postgresql://host[:port]/database[?parameters]}, with
+ * parameters from {@link #ALLOWED_PARAMETERS} whose values are validated.
+ * Keys and values are URL-decoded first, as the driver does, so
+ * percent-encoding cannot smuggle another property past the check.
+ * {@link #toString()} rebuilds the URL from the parsed parts.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class PostgresJdbcUrl {
+
+    /** Default PostgreSQL port, used when the URL gives none. */
+    public static final int DEFAULT_PORT = 5432;
+
+    /** Parameters a URL may carry, with the values each accepts. */
+    public static final Map<String, Pattern> ALLOWED_PARAMETERS;
+
+    static {
+        Pattern seconds = Pattern.compile("\\d{1,6}");
+        Pattern bool = Pattern.compile("true|false");
+        Map<String, Pattern> allowed = new TreeMap<>();
+        allowed.put("sslmode", Pattern.compile("disable|allow|prefer|require|verify-ca|verify-full"));
+        allowed.put("gssEncMode", Pattern.compile("disable|allow|prefer|require"));
+        allowed.put("connectTimeout", seconds);
+        allowed.put("loginTimeout", seconds);
+        allowed.put("socketTimeout", seconds);
+        allowed.put("tcpKeepAlive", bool);
+        allowed.put("targetServerType", Pattern.compile("any|primary|secondary|preferPrimary|preferSecondary"));
+        ALLOWED_PARAMETERS = Collections.unmodifiableMap(allowed);
+    }
+
+    private static final Pattern URL = Pattern.compile(
+            "jdbc:postgresql://(?<host>[^/:\\[\\]?#]+|\\[[0-9A-Fa-f:.]+])(?::(?<port>\\d{1,5}))?/(?<database>[^/?#]+)(?:\\?(?<query>[^#]*))?");
+
+    private static final Pattern HOST_NAME = Pattern.compile(
+            "(?=.{1,253}$)[A-Za-z0-9](?:[A-Za-z0-9-]{0,61}[A-Za-z0-9])?(?:\\.[A-Za-z0-9](?:[A-Za-z0-9-]{0,61}[A-Za-z0-9])?)*");
+
+    private final String host;
+    private final int port;
+    private final String database;
+    private final Map<String, String> parameters;
+
+    private PostgresJdbcUrl(String host, int port, String database, Map<String, String> parameters) {
+        this.host = host;
+        this.port = port;
+        this.database = database;
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    /**
+     * Parses and validates a JDBC URL.
+     *
+     * @param url the URL, may be {@code null}
+     * @return the parsed URL
+     * @throws IllegalArgumentException if the URL is not of the accepted form, or carries
+     *         a parameter that is not allowed or has an invalid value
+     */
+    public static PostgresJdbcUrl parse(String url) {
+        Matcher matcher = url != null ? URL.matcher(url.strip()) : null;
+        if (matcher == null || !matcher.matches()) {
+            throw new IllegalArgumentException(
+                    "jdbcUrl must be of the form jdbc:postgresql://host[:port]/database[?parameters]");
+        }
+
+        String host = matcher.group("host");
+        if (!host.startsWith("[") && !HOST_NAME.matcher(host).matches()) {
+            throw new IllegalArgumentException("jdbcUrl has an invalid host: " + host);
+        }
+
+        int port = DEFAULT_PORT;
+        if (matcher.group("port") != null) {
+            port = Integer.parseInt(matcher.group("port"));
+            if (port < 1 || port > 65535) {
+                throw new IllegalArgumentException("jdbcUrl has an invalid port: " + port);
+            }
+        }
+
+        String database = decode(matcher.group("database"));
+        if (database.isEmpty() || database.length() > 63 || database.chars().anyMatch(Character::isISOControl)) {
+            throw new IllegalArgumentException("jdbcUrl has an invalid database name");
+        }
+
+        Map<String, String> parameters = new LinkedHashMap<>();
+        String query = matcher.group("query");
+        if (query != null && !query.isEmpty()) {
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int equals = pair.indexOf('=');
+                String key = decode(equals < 0 ? pair : pair.substring(0, equals));
+                String value = equals < 0 ? "" : decode(pair.substring(equals + 1));
+                Pattern allowed = ALLOWED_PARAMETERS.get(key);
+                if (allowed == null) {
+                    throw new IllegalArgumentException("jdbcUrl parameter " + key
+                            + " is not allowed; allowed parameters are " + ALLOWED_PARAMETERS.keySet());
+                }
+                if (!allowed.matcher(value).matches()) {
+                    throw new IllegalArgumentException("jdbcUrl parameter " + key + " has an invalid value: " + value);
+                }
+                if (parameters.put(key, value) != null) {
+                    throw new IllegalArgumentException("jdbcUrl parameter " + key + " is given more than once");
+                }
+            }
+        }
+        return new PostgresJdbcUrl(host, port, database, parameters);
+    }
+
+    /** @return the host name, or a bracketed IPv6 address */
+    public String getHost() {
+        return host;
+    }
+
+    /** @return the port */
+    public int getPort() {
+        return port;
+    }
+
+    /** @return the database name */
+    public String getDatabase() {
+        return database;
+    }
+
+    /** @return the connection parameters, in the order given */
+    public Map<String, String> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * Returns the URL rebuilt from its parsed parts, with the port always
+     * given and the database name and parameters encoded.
+     *
+     * @return the JDBC URL
+     */
+    @Override
+    public String toString() {
+        StringBuilder url = new StringBuilder("jdbc:postgresql://")
+                .append(host).append(':').append(port).append('/').append(encode(database));
+        char separator = '?';
+        for (Map.Entry<String, String> parameter : parameters.entrySet()) {
+            url.append(separator).append(parameter.getKey()).append('=').append(encode(parameter.getValue()));
+            separator = '&';
+        }
+        return url.toString();
+    }
+
+    private static String decode(String text) {
+        try {
+            return URLDecoder.decode(text, StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("jdbcUrl is not correctly percent-encoded", e);
+        }
+    }
+
+    private static String encode(String text) {
+        return URLEncoder.encode(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,73 @@
+package com.bovinemagnet.pgconsole.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the highest-ranked {@code n} items offered, in {@code O(n)} memory.
+ * <p>
+ * The items are held in a min-heap whose head is the lowest-ranked item
+ * kept; an offered item replaces the head only if it ranks above it. Merging
+ * {@code k} sorted lists therefore costs {@code O(k n log n)} at most, and
+ * nothing beyond the {@code n} winners is retained. Not thread-safe.
+ *
+ * @param <T> the item type
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+public final class TopN<T> {
+
+    private final int limit;
+    private final Comparator<? super T> ranking;
+    private final PriorityQueue<T> heap;
+
+    /**
+     * Creates an empty selection.
+     *
+     * @param limit how many items to keep; 0 keeps none
+     * @param ranking orders items so that higher-ranked items compare greater
+     */
+    public TopN(int limit, Comparator<? super T> ranking) {
+        this.limit = Math.max(0, limit);
+        this.ranking = ranking;
+        this.heap = new PriorityQueue<>(Math.max(1, this.limit), ranking);
+    }
+
+    /**
+     * Offers an item.
+     *
+     * @param item the item
+     * @return {@code true} if the item is kept for now; {@code false} if it
+     *         ranks no higher than every kept item, in which case no item
+     *         ranked below it in the same list can be kept either
+     */
+    public boolean offer(T item) {
+        if (heap.size() < limit) {
+            heap.add(item);
+            return true;
+        }
+        if (limit == 0 || ranking.compare(item, heap.peek()) <= 0) {
+            return false;
+        }
+        heap.poll();
+        heap.add(item);
+        return true;
+    }
+
+    /**
+     * Returns the kept items, highest-ranked first.
+     *
+     * @return a new list of at most {@code limit} items
+     */
+    public List<T> toList() {
+        List<T> items = new ArrayList<>(heap);
+        items.sort(ranking.reversed());
+        return items;
+    }
+
+    public int size() {
+        return heap.size();
+    }
+}
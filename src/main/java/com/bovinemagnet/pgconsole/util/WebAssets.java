@@ -0,0 +1,109 @@
+package com.bovinemagnet.pgconsole.util;
+
+import io.quarkus.qute.TemplateExtension;
+import org.jboss.logging.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Locates the content-hashed static assets built from {@code src/main/web}.
+ * <p>
+ * The {@code bundleWebAssets} Gradle task minifies each shared stylesheet and
+ * script, names it after a hash of its content (for example
+ * {@code app.3f2a9c0d41be.css}), writes gzip and, where available, brotli
+ * variants beside it, and records the names in a manifest on the classpath.
+ * Templates refer to assets by their source name through the {@code assets}
+ * namespace:
+ * <pre>{@code
+ * <link href="{assets:url('app.css')}" rel="stylesheet">
+ * }</pre>
+ * Because a changed asset gets a new URL, the assets can be cached by
+ * browsers and the service worker indefinitely.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@TemplateExtension(namespace = "assets")
+public final class WebAssets {
+
+    private static final Logger LOG = Logger.getLogger(WebAssets.class);
+
+    /**
+     * URL path the assets are served under.
+     */
+    public static final String PATH = "/assets/";
+
+    /**
+     * Classpath directory holding the built assets and their manifest.
+     */
+    public static final String ROOT = "web-assets/";
+
+    private static final String MANIFEST = ROOT + "manifest.properties";
+
+    private static volatile Map<String, String> manifest;
+
+    private WebAssets() {
+    }
+
+    /**
+     * Returns the URL of an asset.
+     *
+     * @param name the asset's source name, such as {@code app.css}
+     * @return the content-hashed URL, or the unhashed URL if the asset was not built
+     */
+    public static String url(String name) {
+        String file = manifest().get(name);
+        return PATH + (file != null ? file : name);
+    }
+
+    /**
+     * Returns the built assets by source name.
+     *
+     * @return an unmodifiable map of source name to content-hashed file name
+     */
+    public static Map<String, String> manifest() {
+        Map<String, String> current = manifest;
+        if (current == null) {
+            current = loadManifest();
+            manifest = current;
+        }
+        return current;
+    }
+
+    /**
+     * Returns whether a file name is a built asset.
+     *
+     * @param file the content-hashed file name
+     * @return {@code true} if the manifest lists it
+     */
+    public static boolean isPublished(String file) {
+        return manifest().containsValue(file);
+    }
+
+    private static Map<String, String> loadManifest() {
+        try (InputStream in = Thread.currentThread().getContextClassLoader().getResourceAsStream(MANIFEST)) {
+            if (in == null) {
+                LOG.warnf("Web asset manifest %s not found; run the bundleWebAssets Gradle task", MANIFEST);
+                return Map.of();
+            }
+            Properties properties = new Properties();
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                properties.load(reader);
+            }
+            Map<String, String> files = new TreeMap<>();
+            properties.stringPropertyNames().forEach(name -> files.put(name, properties.getProperty(name)));
+            return Collections.unmodifiableMap(files);
+        } catch (IOException e) {
+            LOG.warnf("Failed to read web asset manifest %s: %s", MANIFEST, e.getMessage());
+            return Map.of();
+        }
+    }
+}
@@ -6,9 +6,14 @@
  * @version 0.0.0
  */
 
-const CACHE_NAME = 'pg-console-v1';
-const SHELL_CACHE = 'pg-console-shell-v1';
-const DATA_CACHE = 'pg-console-data-v1';
+const CACHE_NAME = 'pg-console-v2';
+const SHELL_CACHE = 'pg-console-shell-v2';
+const DATA_CACHE = 'pg-console-data-v2';
+const ASSET_CACHE = 'pg-console-assets-v2';
+
+// Content-hashed console styles and scripts, listed by the server
+const ASSET_PREFIX = '/assets/';
+const ASSET_MANIFEST = '/assets/manifest.json';
 
 // Static assets to cache for the app shell
 const SHELL_ASSETS = [
@@ -61,6 +66,7 @@ self.addEventListener('install', (event) => {
                     )
                 );
             })
+            .then(() => precacheAssets())
             .then(() => {
                 console.log('[ServiceWorker] App shell cached');
                 return self.skipWaiting();
@@ -83,7 +89,8 @@ self.addEventListener('activate', (event) => {
                             // Remove old cache versions
                             return cacheName.startsWith('pg-console-') &&
                                    cacheName !== SHELL_CACHE &&
-                                   cacheName !== DATA_CACHE;
+                                   cacheName !== DATA_CACHE &&
+                                   cacheName !== ASSET_CACHE;
                         })
                         .map((cacheName) => {
                             console.log('[ServiceWorker] Removing old cache:', cacheName);
@@ -100,6 +107,7 @@ self.addEventListener('activate', (event) => {
 
 /**
  * Fetch event - serve from cache, fallback to network
+ * Uses network-first for auto-refresh fragments
  * Uses stale-while-revalidate strategy for pages
  * Uses cache-first for static assets
  */
@@ -122,6 +130,19 @@ self.addEventListener('fetch', (event) => {
         return;
     }
 
+    // Content-hashed assets never change - serve from cache
+    if (url.origin === self.location.origin && url.pathname.startsWith(ASSET_PREFIX) &&
+            url.pathname !== ASSET_MANIFEST) {
+        event.respondWith(cacheFirstAsset(event.request));
+        return;
+    }
+
+    // Auto-refresh fragments must show current data, not the previous refresh
+    if (url.searchParams.has('fragment')) {
+        event.respondWith(networkFirst(event.request));
+        return;
+    }
+
     // For page routes - use stale-while-revalidate
     if (isPageRoute(url.pathname)) {
         event.respondWith(staleWhileRevalidate(event.request));
@@ -178,6 +199,73 @@ async function cacheFirst(request) {
     }
 }
 
+/**
+ * Cache the current content-hashed assets listed by the server.
+ * Failure is not fatal: assets are then cached on first use.
+ */
+async function precacheAssets() {
+    try {
+        const response = await fetch(ASSET_MANIFEST, { cache: 'no-store' });
+        if (!response.ok) {
+            return;
+        }
+        const manifest = await response.json();
+        const cache = await caches.open(ASSET_CACHE);
+        await Promise.allSettled(manifest.assets.map(url => cacheAsset(cache, url)));
+    } catch (error) {
+        console.warn('[ServiceWorker] Failed to precache assets', error);
+    }
+}
+
+/**
+ * Cache-first for content-hashed assets, caching misses on first use
+ */
+async function cacheFirstAsset(request) {
+    const cache = await caches.open(ASSET_CACHE);
+    const cached = await cache.match(request);
+    if (cached) {
+        return cached;
+    }
+
+    try {
+        return await cacheAsset(cache, request.url);
+    } catch (error) {
+        console.warn('[ServiceWorker] Network request failed:', request.url);
+        return new Response('Offline', { status: 503 });
+    }
+}
+
+/**
+ * Fetch and cache one asset, evicting older builds of the same file.
+ * Hashed names look like app.3f2a9c0d41be.css, so the stem is app and the
+ * extension .css.
+ */
+async function cacheAsset(cache, url) {
+    const response = await fetch(url);
+    if (!response.ok) {
+        return response;
+    }
+    await cache.put(url, response.clone());
+
+    const path = new URL(url, self.location.origin).pathname;
+    const family = assetFamily(path);
+    const keys = await cache.keys();
+    await Promise.all(keys
+        .filter(key => {
+            const keyPath = new URL(key.url).pathname;
+            return keyPath !== path && assetFamily(keyPath) === family;
+        })
+        .map(key => cache.delete(key)));
+    return response;
+}
+
+/**
+ * The asset's name without its content hash, e.g. /assets/app.css
+ */
+function assetFamily(pathname) {
+    return pathname.replace(/\.[0-9a-f]{12}(\.[a-z]+)$/, '$1');
+}
+
 /**
  * Network-first strategy: try network, then cache
  */
@@ -0,0 +1,30 @@
+-- Queue of maintenance jobs (VACUUM, ANALYZE, REINDEX, CLUSTER) run in the background.
+-- Queued jobs survive a restart and are picked up again; a job left RUNNING by a
+-- process that stopped is marked FAILED at startup, as its connection has gone.
+CREATE TABLE IF NOT EXISTS pgconsole.maintenance_job (
+    id                      VARCHAR(36) PRIMARY KEY,
+    instance_id             VARCHAR(255) NOT NULL,
+    task_id                 BIGINT,
+    task_type               VARCHAR(20) NOT NULL,
+    target_schema           TEXT,
+    target_table            TEXT,
+    require_window          BOOLEAN NOT NULL DEFAULT FALSE,
+    cost_delay_ms           INT,
+    cost_limit              INT,
+    maintenance_work_mem_mb INT,
+    status                  VARCHAR(20) NOT NULL DEFAULT 'QUEUED'
+        CHECK (status IN ('QUEUED', 'RUNNING', 'COMPLETED', 'FAILED', 'CANCELLED')),
+    submitted_by            TEXT,
+    submitted_at            TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    started_at              TIMESTAMP WITH TIME ZONE,
+    completed_at            TIMESTAMP WITH TIME ZONE,
+    backend_pid             INT,
+    error_message           TEXT
+);
+
+CREATE INDEX IF NOT EXISTS idx_maintenance_job_instance_submitted
+    ON pgconsole.maintenance_job (instance_id, submitted_at DESC);
+
+CREATE INDEX IF NOT EXISTS idx_maintenance_job_unfinished
+    ON pgconsole.maintenance_job (submitted_at)
+    WHERE status IN ('QUEUED', 'RUNNING');
@@ -0,0 +1,24 @@
+-- Coordination of several pg-console replicas sharing this schema.
+--
+-- Each replica upserts its row in cluster_member on every heartbeat; replicas whose
+-- heartbeat is older than the member timeout are considered gone. Jobs that must run
+-- on one replica only are guarded by a row in cluster_lease, which its holder renews
+-- and another replica may take once it has expired. Both use the database clock, so
+-- replicas need not agree on the time.
+CREATE TABLE IF NOT EXISTS pgconsole.cluster_member (
+    replica_id  VARCHAR(255) PRIMARY KEY,
+    host_name   TEXT,
+    started_at  TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    last_seen   TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
+
+CREATE TABLE IF NOT EXISTS pgconsole.cluster_lease (
+    name        VARCHAR(255) PRIMARY KEY,
+    holder      VARCHAR(255) NOT NULL,
+    acquired_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    expires_at  TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+-- The replica whose queue holds a maintenance job. Queued jobs of a replica that is
+-- gone are adopted by another, and only the claiming replica may start a job.
+ALTER TABLE pgconsole.maintenance_job ADD COLUMN IF NOT EXISTS claimed_by VARCHAR(255);
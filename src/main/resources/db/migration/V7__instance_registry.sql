@@ -0,0 +1,18 @@
+-- Instances registered at runtime, in addition to those configured in pg-console.instances.
+--
+-- Every replica reads this table, so an instance registered through one replica is
+-- monitored by all of them without a restart. Connection pools for these instances are
+-- created on first use and closed again when idle. The workload class names a pool
+-- profile configured under pg-console.registry.workload-class. A password is stored only
+-- encrypted with pg-console.registry.credential-key, which the database never sees.
+CREATE TABLE IF NOT EXISTS pgconsole.registered_instance (
+    name                VARCHAR(63) PRIMARY KEY,
+    display_name        VARCHAR(255),
+    jdbc_url            TEXT NOT NULL,
+    username            VARCHAR(255) NOT NULL,
+    encrypted_password  TEXT,
+    workload_class      VARCHAR(63) NOT NULL DEFAULT 'standard',
+    enabled             BOOLEAN NOT NULL DEFAULT TRUE,
+    created_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW(),
+    updated_at          TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,34 @@
+-- Heavy-hitter statements per sampling interval.
+--
+-- Each sample computes what every pg_stat_statements entry did since the previous sample
+-- and keeps the top statements by execution time, by calls and by I/O. The interval row
+-- records the totals across all statements and, per metric, the floor: the largest value
+-- of any statement that was not kept. A statement's total over a window therefore lies
+-- between the sum of its kept values and that sum plus the floors of the intervals in
+-- which it was not kept.
+CREATE TABLE IF NOT EXISTS pgconsole.statement_interval (
+    instance_id       TEXT NOT NULL,
+    sampled_at        TIMESTAMP WITH TIME ZONE NOT NULL,
+    interval_seconds  DOUBLE PRECISION NOT NULL,
+    statements        INTEGER NOT NULL,
+    total_time_ms     DOUBLE PRECISION NOT NULL,
+    total_calls       BIGINT NOT NULL,
+    total_io_blocks   BIGINT NOT NULL,
+    floor_time_ms     DOUBLE PRECISION NOT NULL,
+    floor_calls       BIGINT NOT NULL,
+    floor_io_blocks   BIGINT NOT NULL,
+    PRIMARY KEY (instance_id, sampled_at)
+);
+
+CREATE TABLE IF NOT EXISTS pgconsole.statement_heavy_hitter (
+    instance_id  TEXT NOT NULL,
+    sampled_at   TIMESTAMP WITH TIME ZONE NOT NULL,
+    query_id     TEXT NOT NULL,
+    query_text   TEXT,
+    time_ms      DOUBLE PRECISION NOT NULL,
+    calls        BIGINT NOT NULL,
+    io_blocks    BIGINT NOT NULL,
+    PRIMARY KEY (instance_id, sampled_at, query_id),
+    FOREIGN KEY (instance_id, sampled_at)
+        REFERENCES pgconsole.statement_interval (instance_id, sampled_at) ON DELETE CASCADE
+);
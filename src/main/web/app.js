@@ -0,0 +1,512 @@
+/**
+ * PostgreSQL Console scripts shared by every page.
+ *
+ * Built by the bundleWebAssets Gradle task into a minified, content-hashed
+ * resource served from /assets with immutable caching.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+
+// ============================================
+// Screen Reader Announcements
+// ============================================
+function announce(message) {
+    const announcer = document.getElementById('sr-announcer');
+    if (announcer) {
+        announcer.textContent = message;
+        setTimeout(() => { announcer.textContent = ''; }, 1000);
+    }
+}
+
+// ============================================
+// Sidebar Toggle
+// ============================================
+(function() {
+    const sidebar = document.getElementById('sidebar');
+    const sidebarToggle = document.getElementById('sidebarToggle');
+    const sidebarOverlay = document.getElementById('sidebarOverlay');
+    const mobileMenuBtn = document.getElementById('mobileMenuBtn');
+    const mobileMoreBtn = document.getElementById('mobileMoreBtn');
+
+    function toggleSidebarCollapse() {
+        const isCollapsed = document.documentElement.classList.toggle('sidebar-collapsed');
+        localStorage.setItem('pg-console-sidebar-collapsed', isCollapsed);
+        announce(isCollapsed ? 'Sidebar collapsed' : 'Sidebar expanded');
+    }
+
+    function toggleMobileSidebar() {
+        const isShowing = sidebar.classList.toggle('show');
+        mobileMenuBtn.setAttribute('aria-expanded', isShowing);
+        announce(isShowing ? 'Navigation menu opened' : 'Navigation menu closed');
+    }
+
+    function closeMobileSidebar() {
+        sidebar.classList.remove('show');
+        mobileMenuBtn.setAttribute('aria-expanded', 'false');
+    }
+
+    sidebarToggle.addEventListener('click', toggleSidebarCollapse);
+    sidebarToggle.addEventListener('keydown', function(e) {
+        if (e.key === 'Enter' || e.key === ' ') {
+            e.preventDefault();
+            toggleSidebarCollapse();
+        }
+    });
+
+    mobileMenuBtn.addEventListener('click', toggleMobileSidebar);
+    mobileMoreBtn.addEventListener('click', toggleMobileSidebar);
+    sidebarOverlay.addEventListener('click', closeMobileSidebar);
+
+    // Close sidebar on navigation (mobile)
+    sidebar.querySelectorAll('.nav-link').forEach(function(link) {
+        link.addEventListener('click', function() {
+            if (window.innerWidth < 992) {
+                closeMobileSidebar();
+            }
+        });
+    });
+
+    // Highlight active nav link
+    const currentPath = window.location.pathname;
+    document.querySelectorAll('.nav-link, .mobile-nav-link').forEach(function(link) {
+        const href = link.getAttribute('href');
+        if (href) {
+            const linkPath = href.split('?')[0];
+            if (linkPath === currentPath || (currentPath === '/' && linkPath === '/')) {
+                link.classList.add('active');
+                link.setAttribute('aria-current', 'page');
+            }
+        }
+    });
+
+    // Escape key closes mobile sidebar
+    document.addEventListener('keydown', function(e) {
+        if (e.key === 'Escape' && sidebar.classList.contains('show')) {
+            closeMobileSidebar();
+        }
+    });
+})();
+
+// ============================================
+// Collapsible Navigation Sections
+// ============================================
+(function() {
+    const STORAGE_KEY = 'pg-console-nav-collapsed';
+
+    // Load collapsed state from localStorage
+    function getCollapsedSections() {
+        try {
+            const stored = localStorage.getItem(STORAGE_KEY);
+            return stored ? JSON.parse(stored) : [];
+        } catch (e) {
+            return [];
+        }
+    }
+
+    // Save collapsed state to localStorage
+    function saveCollapsedSections(sections) {
+        try {
+            localStorage.setItem(STORAGE_KEY, JSON.stringify(sections));
+        } catch (e) {
+            // Ignore storage errors
+        }
+    }
+
+    // Toggle section collapsed state
+    function toggleSection(sectionElement) {
+        const sectionName = sectionElement.getAttribute('data-section');
+        if (!sectionName) return;
+
+        const isCollapsed = sectionElement.classList.toggle('collapsed');
+        const collapsedSections = getCollapsedSections();
+
+        if (isCollapsed) {
+            if (!collapsedSections.includes(sectionName)) {
+                collapsedSections.push(sectionName);
+            }
+            announce(sectionName + ' section collapsed');
+        } else {
+            const index = collapsedSections.indexOf(sectionName);
+            if (index > -1) {
+                collapsedSections.splice(index, 1);
+            }
+            announce(sectionName + ' section expanded');
+        }
+
+        saveCollapsedSections(collapsedSections);
+    }
+
+    // Initialise collapsed sections from localStorage
+    const collapsedSections = getCollapsedSections();
+    document.querySelectorAll('.nav-section[data-section]').forEach(function(section) {
+        const sectionName = section.getAttribute('data-section');
+        if (collapsedSections.includes(sectionName)) {
+            section.classList.add('collapsed');
+        }
+
+        // Add click handler to section title
+        const title = section.querySelector('.nav-section-title');
+        if (title) {
+            title.addEventListener('click', function(e) {
+                // Don't toggle if sidebar is collapsed (icons only mode)
+                if (document.documentElement.classList.contains('sidebar-collapsed')) {
+                    return;
+                }
+                e.preventDefault();
+                toggleSection(section);
+            });
+
+            // Keyboard accessibility
+            title.setAttribute('tabindex', '0');
+            title.setAttribute('role', 'button');
+            title.setAttribute('aria-expanded', !section.classList.contains('collapsed'));
+            title.addEventListener('keydown', function(e) {
+                if (e.key === 'Enter' || e.key === ' ') {
+                    if (!document.documentElement.classList.contains('sidebar-collapsed')) {
+                        e.preventDefault();
+                        toggleSection(section);
+                        title.setAttribute('aria-expanded', !section.classList.contains('collapsed'));
+                    }
+                }
+            });
+        }
+    });
+
+    // Auto-expand section containing the active link and scroll into view
+    const activeLink = document.querySelector('.nav-link.active');
+    if (activeLink) {
+        const parentSection = activeLink.closest('.nav-section[data-section]');
+        if (parentSection && parentSection.classList.contains('collapsed')) {
+            // Expand the parent section
+            parentSection.classList.remove('collapsed');
+            const sectionName = parentSection.getAttribute('data-section');
+            const title = parentSection.querySelector('.nav-section-title');
+            if (title) {
+                title.setAttribute('aria-expanded', 'true');
+            }
+            // Update localStorage to reflect expanded state
+            const index = collapsedSections.indexOf(sectionName);
+            if (index > -1) {
+                collapsedSections.splice(index, 1);
+                saveCollapsedSections(collapsedSections);
+            }
+        }
+        // Scroll the active link into view after a brief delay for CSS transitions
+        setTimeout(function() {
+            activeLink.scrollIntoView({ block: 'center', behavior: 'smooth' });
+        }, 100);
+    }
+})();
+
+// ============================================
+// View Mode Toggle (Compact/Comfortable)
+// ============================================
+(function() {
+    const viewModeToggle = document.getElementById('viewModeToggle');
+    const icon = viewModeToggle.querySelector('i');
+
+    function updateIcon() {
+        const isCompact = document.documentElement.classList.contains('compact-view');
+        icon.className = isCompact ? 'bi bi-arrows-expand' : 'bi bi-arrows-collapse';
+    }
+
+    updateIcon();
+
+    viewModeToggle.addEventListener('click', function() {
+        const isCompact = document.documentElement.classList.toggle('compact-view');
+        localStorage.setItem('pg-console-compact-view', isCompact);
+        updateIcon();
+        announce(isCompact ? 'Compact view enabled' : 'Comfortable view enabled');
+    });
+})();
+
+// ============================================
+// High Contrast Toggle
+// ============================================
+(function() {
+    const contrastToggle = document.getElementById('contrastToggle');
+    if (!contrastToggle) return;
+
+    contrastToggle.addEventListener('click', function() {
+        const isHighContrast = document.documentElement.classList.toggle('high-contrast');
+        localStorage.setItem('pg-console-high-contrast', isHighContrast);
+        announce(isHighContrast ? 'High contrast mode enabled' : 'High contrast mode disabled');
+    });
+})();
+
+// ============================================
+// Theme Toggle
+// ============================================
+(function() {
+    const themeToggle = document.getElementById('themeToggle');
+    const themeIcon = document.getElementById('themeIcon');
+
+    function updateThemeIcon() {
+        const currentTheme = document.documentElement.getAttribute('data-bs-theme');
+        themeIcon.innerHTML = currentTheme === 'dark'
+            ? '<i class="bi bi-sun-fill" aria-hidden="true"></i>'
+            : '<i class="bi bi-moon-fill" aria-hidden="true"></i>';
+    }
+
+    updateThemeIcon();
+
+    themeToggle.addEventListener('click', function(e) {
+        e.preventDefault();
+        const currentTheme = document.documentElement.getAttribute('data-bs-theme');
+        const newTheme = currentTheme === 'dark' ? 'light' : 'dark';
+        document.documentElement.setAttribute('data-bs-theme', newTheme);
+        localStorage.setItem('pg-console-theme', newTheme);
+        updateThemeIcon();
+        announce(newTheme === 'dark' ? 'Dark theme enabled' : 'Light theme enabled');
+    });
+})();
+
+// ============================================
+// Auto-refresh Control
+// ============================================
+(function() {
+    const refreshIcon = document.getElementById('refreshIcon');
+    const refreshItems = document.querySelectorAll('[data-refresh]');
+    let countdownTimer = null;
+    let countdown = 0;
+
+    function getRefreshableContent() {
+        return document.getElementById('refreshable-content');
+    }
+
+    function updateRefreshUI(seconds) {
+        if (seconds === 0) {
+            refreshIcon.innerHTML = '<i class="bi bi-pause-fill" aria-hidden="true"></i>';
+        } else {
+            refreshIcon.innerHTML = '<i class="bi bi-arrow-clockwise" aria-hidden="true"></i>';
+        }
+    }
+
+    function startCountdown(seconds) {
+        countdown = seconds;
+        if (countdownTimer) clearInterval(countdownTimer);
+        countdownTimer = setInterval(function() {
+            countdown--;
+            if (countdown <= 0) {
+                countdown = seconds;
+                const content = getRefreshableContent();
+                if (content) {
+                    htmx.trigger(content, 'refresh');
+                    announce('Dashboard refreshed');
+                }
+            }
+        }, 1000);
+    }
+
+    function setRefreshRate(seconds) {
+        localStorage.setItem('pg-console-refresh', seconds);
+        updateRefreshUI(seconds);
+
+        if (countdownTimer) {
+            clearInterval(countdownTimer);
+            countdownTimer = null;
+        }
+
+        if (seconds > 0) {
+            startCountdown(seconds);
+            announce('Auto-refresh set to ' + seconds + ' seconds');
+        } else {
+            announce('Auto-refresh disabled');
+        }
+    }
+
+    // Initialise from localStorage
+    const savedRefresh = parseInt(localStorage.getItem('pg-console-refresh') || '0', 10);
+    setRefreshRate(savedRefresh);
+
+    // Handle dropdown clicks
+    refreshItems.forEach(function(item) {
+        item.addEventListener('click', function(e) {
+            e.preventDefault();
+            const seconds = parseInt(this.getAttribute('data-refresh'), 10);
+            setRefreshRate(seconds);
+        });
+    });
+})();
+
+// ============================================
+// Pull to Refresh (Mobile)
+// ============================================
+(function() {
+    if (window.innerWidth >= 992) return;
+
+    const pullIndicator = document.getElementById('pullIndicator');
+    const mainContent = document.getElementById('main-content');
+    let startY = 0;
+    let pulling = false;
+
+    mainContent.addEventListener('touchstart', function(e) {
+        if (window.scrollY === 0) {
+            startY = e.touches[0].clientY;
+            pulling = true;
+        }
+    }, { passive: true });
+
+    mainContent.addEventListener('touchmove', function(e) {
+        if (!pulling) return;
+        const currentY = e.touches[0].clientY;
+        const diff = currentY - startY;
+
+        if (diff > 60 && window.scrollY === 0) {
+            pullIndicator.classList.add('visible');
+        }
+    }, { passive: true });
+
+    mainContent.addEventListener('touchend', function() {
+        if (pullIndicator.classList.contains('visible')) {
+            pullIndicator.classList.add('refreshing');
+            const content = document.getElementById('refreshable-content');
+            if (content) {
+                htmx.trigger(content, 'refresh');
+            }
+            setTimeout(function() {
+                pullIndicator.classList.remove('visible', 'refreshing');
+                announce('Page refreshed');
+            }, 1000);
+        }
+        pulling = false;
+    });
+})();
+
+// ============================================
+// Global Keyboard Shortcuts
+// ============================================
+(function() {
+    const shortcuts = {
+        'g': { path: '/', label: 'Dashboard' },
+        'a': { path: '/activity', label: 'Activity' },
+        'q': { path: '/slow-queries', label: 'Slow Queries' },
+        'l': { path: '/locks', label: 'Locks' },
+        'k': { path: '/deadlocks', label: 'Deadlocks' },
+        't': { path: '/tables', label: 'Tables' },
+        'd': { path: '/databases', label: 'Databases' },
+        'i': { path: '/index-advisor', label: 'Index Advisor' },
+        'r': { path: '/replication', label: 'Replication' },
+        'w': { path: '/wait-events', label: 'Wait Events' },
+        'c': { path: '/dashboards/custom', label: 'Custom Dashboards' },
+        'b': { path: '/about', label: 'About' },
+        '/': { action: 'focus-search', label: 'Focus Search' },
+        '?': { action: 'help', label: 'Keyboard Help' },
+        'Escape': { action: 'close-modal', label: 'Close Modal' }
+    };
+
+    // Check if shortcuts are enabled (default: true)
+    const shortcutsEnabled = localStorage.getItem('pg-console-keyboard-shortcuts') !== 'false';
+
+    document.addEventListener('keydown', function(e) {
+        if (!shortcutsEnabled) return;
+
+        // Ignore if typing in form fields
+        const activeTag = document.activeElement.tagName;
+        const isEditable = document.activeElement.isContentEditable;
+        if (['INPUT', 'TEXTAREA', 'SELECT'].includes(activeTag) || isEditable) {
+            // Allow Escape to blur input
+            if (e.key === 'Escape') {
+                document.activeElement.blur();
+            }
+            return;
+        }
+
+        // Ignore if modifier keys pressed (except for ?)
+        if (e.ctrlKey || e.metaKey || e.altKey) return;
+
+        const shortcut = shortcuts[e.key];
+        if (!shortcut) return;
+
+        e.preventDefault();
+
+        if (shortcut.action === 'help') {
+            const modalEl = document.getElementById('keyboardHelpModal');
+            if (modalEl) {
+                const modal = bootstrap.Modal.getOrCreateInstance(modalEl);
+                modal.toggle();
+            }
+        } else if (shortcut.action === 'close-modal') {
+            // Close any open Bootstrap modal
+            const openModal = document.querySelector('.modal.show');
+            if (openModal) {
+                const modal = bootstrap.Modal.getInstance(openModal);
+                if (modal) modal.hide();
+            }
+        } else if (shortcut.action === 'focus-search') {
+            // Focus the search input if present
+            const searchInput = document.querySelector('input[type="search"], input[name="search"], #search');
+            if (searchInput) {
+                searchInput.focus();
+                searchInput.select();
+            }
+        } else if (shortcut.path) {
+            // Navigate, preserving instance query param
+            const params = new URLSearchParams(window.location.search);
+            const instanceParam = params.get('instance');
+            let url = shortcut.path;
+            if (instanceParam) {
+                url += '?instance=' + encodeURIComponent(instanceParam);
+            }
+            window.location.href = url;
+            announce('Navigating to ' + shortcut.label);
+        }
+    });
+})();
+
+// ============================================
+// Register Service Worker (PWA)
+// ============================================
+if ('serviceWorker' in navigator) {
+    window.addEventListener('load', function() {
+        navigator.serviceWorker.register('/sw.js')
+            .then(function(registration) {
+                console.log('ServiceWorker registered:', registration.scope);
+            })
+            .catch(function(error) {
+                console.log('ServiceWorker registration failed:', error);
+            });
+    });
+}
+// ============================================
+// Query Preview Click-to-Expand
+// ============================================
+document.addEventListener('click', function(e) {
+    var preview = e.target.closest('.query-preview');
+    if (preview) {
+        preview.classList.toggle('expanded');
+    }
+});
+
+// ============================================
+// Table Filter (client-side row filtering)
+// ============================================
+function initTableFilters() {
+    document.querySelectorAll('.table-filter-input').forEach(function(input) {
+        if (input.dataset.filterBound) return;
+        input.dataset.filterBound = 'true';
+
+        input.addEventListener('input', function() {
+            var filter = this.value.toLowerCase();
+            // Find first table in the refreshable content area
+            var container = document.getElementById('refreshable-content') || document.querySelector('main') || document.body;
+            var tbody = container.querySelector('table tbody');
+            if (!tbody) return;
+            var rows = tbody.querySelectorAll('tr');
+            var visibleCount = 0;
+            rows.forEach(function(row) {
+                var text = row.textContent.toLowerCase();
+                var match = !filter || text.indexOf(filter) !== -1;
+                row.style.display = match ? '' : 'none';
+                if (match) visibleCount++;
+            });
+            var badge = input.parentElement.querySelector('.filter-count');
+            if (badge) {
+                badge.textContent = visibleCount + ' / ' + rows.length;
+            }
+        });
+    });
+}
+document.addEventListener('DOMContentLoaded', initTableFilters);
+document.addEventListener('htmx:afterSettle', initTableFilters);
@@ -0,0 +1,110 @@
+package com.bovinemagnet.pgconsole.model;
+
+import com.bovinemagnet.pgconsole.model.MaintenanceJob.Status;
+import com.bovinemagnet.pgconsole.model.ScheduledMaintenance.TaskType;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for MaintenanceJob model class.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+class MaintenanceJobTest {
+
+    private static MaintenanceJob job(TaskType type, String schema, String table) {
+        return new MaintenanceJob("job-1", "default", type, schema, table, Instant.now());
+    }
+
+    @Test
+    void testStatementForTable() {
+        assertEquals("VACUUM \"public\".\"orders\"", job(TaskType.VACUUM, "public", "orders").getStatement());
+        assertEquals("VACUUM FULL \"sales\".\"orders\"", job(TaskType.VACUUM_FULL, "sales", "orders").getStatement());
+        assertEquals("ANALYZE \"public\".\"orders\"", job(TaskType.ANALYSE, null, "orders").getStatement());
+        assertEquals("REINDEX TABLE \"public\".\"orders\"", job(TaskType.REINDEX, "public", "orders").getStatement());
+        assertEquals("CLUSTER \"public\".\"orders\"", job(TaskType.CLUSTER, "public", "orders").getStatement());
+    }
+
+    @Test
+    void testStatementWithoutTable() {
+        assertEquals("VACUUM", job(TaskType.VACUUM, null, null).getStatement());
+        assertEquals("REINDEX SCHEMA \"sales\"", job(TaskType.REINDEX, "sales", null).getStatement());
+        assertEquals("REINDEX DATABASE", job(TaskType.REINDEX, null, null).getStatement());
+        assertNull(job(TaskType.CLUSTER, "public", null).getStatement());
+    }
+
+    @Test
+    void testStatementQuotesEmbeddedQuotes() {
+        assertEquals("ANALYZE \"public\".\"x\"\"; DROP TABLE t; --\"",
+                job(TaskType.ANALYSE, "public", "x\"; DROP TABLE t; --").getStatement());
+    }
+
+    @Test
+    void testProgressOnlyWhileRunning() {
+        MaintenanceJob job = job(TaskType.VACUUM, "public", "orders");
+        job.updateProgress("scanning heap", "orders", 50, 200);
+        assertNull(job.getPhase());
+        assertNull(job.getProgressPercent());
+
+        job.markRunning(4242);
+        job.updateProgress("scanning heap", "orders", 50, 200);
+        assertEquals(Status.RUNNING, job.getStatus());
+        assertEquals(4242, job.getBackendPid());
+        assertEquals("scanning heap", job.getPhase());
+        assertEquals(25.0, job.getProgressPercent());
+    }
+
+    @Test
+    void testListenersSeeChangesUntilFinished() {
+        MaintenanceJob job = job(TaskType.VACUUM, null, null);
+        List<Status> seen = new ArrayList<>();
+        job.subscribe(changed -> seen.add(changed.getStatus()));
+
+        job.markRunning(1);
+        job.updateProgress("scanning heap", "orders", 1, 10);
+        job.updateProgress("scanning heap", "orders", 1, 10);
+        job.markFinished(Status.COMPLETED, null);
+
+        assertEquals(List.of(Status.RUNNING, Status.RUNNING, Status.COMPLETED), seen);
+        assertTrue(job.completion().isDone());
+        assertTrue(job.isFinished());
+    }
+
+    @Test
+    void testFailingListenerIsDropped() {
+        MaintenanceJob job = job(TaskType.VACUUM, null, null);
+        List<Status> seen = new ArrayList<>();
+        job.subscribe(changed -> {
+            throw new IllegalStateException("closed");
+        });
+        job.subscribe(changed -> seen.add(changed.getStatus()));
+
+        job.markRunning(1);
+        job.markFinished(Status.FAILED, "boom");
+
+        assertEquals(List.of(Status.RUNNING, Status.FAILED), seen);
+        assertEquals("boom", job.getError());
+    }
+
+    @Test
+    void testMarkFinishedRejectsUnfinishedStatus() {
+        MaintenanceJob job = job(TaskType.VACUUM, null, null);
+        assertThrows(IllegalArgumentException.class, () -> job.markFinished(Status.RUNNING, null));
+    }
+
+    @Test
+    void testRequestCancel() {
+        MaintenanceJob job = job(TaskType.VACUUM, null, null);
+        assertTrue(job.requestCancel());
+        assertTrue(job.isCancelRequested());
+
+        job.markFinished(Status.CANCELLED, null);
+        assertFalse(job.requestCancel());
+    }
+}
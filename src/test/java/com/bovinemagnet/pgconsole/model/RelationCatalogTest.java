@@ -0,0 +1,106 @@
+package com.bovinemagnet.pgconsole.model;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests the columnar relation catalogue snapshot.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("RelationCatalog")
+class RelationCatalogTest {
+
+    private static RelationCatalog sample() {
+        RelationCatalog.Builder builder = RelationCatalog.builder(1, 1);
+        builder.addTable(100, "public", "orders")
+            .sizes(8192, 16384)
+            .tuples(500, 20, 7)
+            .maintenance(null, Instant.ofEpochMilli(1000), Instant.ofEpochMilli(3000), Instant.ofEpochMilli(2000));
+        builder.addTable(200, "public", "customers").sizes(4096, 4096);
+        builder.addTable(300, "audit", "events")
+            .toast("pg_toast_300", 32768, 10, 2);
+        builder.addIndex(101, 100, "orders_pkey", new String[] {"id"}, true, true, 2048, 40, 80);
+        builder.addIndex(102, 100, "orders_customer_idx", new String[] {"customer_id", null}, false, false, 1024, 0, 0);
+        builder.addIndex(301, 300, "events_at_idx", new String[] {"at"}, false, false, 512, 3, 9);
+        return builder.build(42L, 7L);
+    }
+
+    @Test
+    @DisplayName("An empty catalogue has no tables or indexes")
+    void empty() {
+        RelationCatalog catalog = RelationCatalog.empty();
+
+        assertThat(catalog.tables()).isEmpty();
+        assertThat(catalog.indexes()).isEmpty();
+        assertThat(catalog.table(1)).isNull();
+    }
+
+    @Test
+    @DisplayName("Tables are found by oid and expose their statistics")
+    void tableLookup() {
+        RelationCatalog catalog = sample();
+
+        assertThat(catalog.getTableCount()).isEqualTo(3);
+        assertThat(catalog.getLoadedAtMillis()).isEqualTo(42L);
+        assertThat(catalog.getFingerprint()).isEqualTo(7L);
+        assertThat(catalog.table(250)).isNull();
+
+        RelationCatalog.Table orders = catalog.table(100);
+        assertThat(orders.getName()).isEqualTo("orders");
+        assertThat(orders.getLiveTuples()).isEqualTo(500);
+        assertThat(orders.getDeadTuples()).isEqualTo(20);
+        assertThat(orders.getModsSinceAnalyse()).isEqualTo(7);
+        assertThat(orders.getLastVacuum()).isNull();
+        assertThat(orders.getLastAnalysedAt()).isEqualTo(Instant.ofEpochMilli(3000));
+        assertThat(catalog.table(200).getLastAnalysedAt()).isNull();
+        assertThat(catalog.table(300).getToastSizeBytes()).isEqualTo(32768);
+        assertThat(catalog.table(200).getToastName()).isNull();
+    }
+
+    @Test
+    @DisplayName("Indexes are grouped under their table and summed into its size")
+    void indexesPerTable() {
+        RelationCatalog catalog = sample();
+        RelationCatalog.Table orders = catalog.table(100);
+
+        assertThat(orders.indexes()).extracting(RelationCatalog.Index::getName)
+            .containsExactly("orders_pkey", "orders_customer_idx");
+        assertThat(catalog.table(200).indexes()).isEmpty();
+        assertThat(orders.getIndexesSizeBytes()).isEqualTo(3072);
+        assertThat(orders.getTotalSizeBytes()).isEqualTo(16384 + 3072);
+
+        RelationCatalog.Index pkey = orders.indexes().get(0);
+        assertThat(pkey.isPrimary()).isTrue();
+        assertThat(pkey.isUnique()).isTrue();
+        assertThat(pkey.table().getOid()).isEqualTo(100);
+        assertThat(orders.indexes().get(1).getColumns()).containsExactly("customer_id", null);
+        assertThat(catalog.indexes()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Indexes on tables outside the snapshot are skipped")
+    void unknownTable() {
+        RelationCatalog.Builder builder = RelationCatalog.builder(1, 1);
+        builder.addTable(100, "public", "orders");
+
+        assertThat(builder.addIndex(201, 200, "gone_idx", new String[] {"id"}, false, false, 0, 0, 0)).isFalse();
+        assertThat(builder.build(0, 0).getIndexCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Tables must be added in ascending oid order")
+    void tableOrder() {
+        RelationCatalog.Builder builder = RelationCatalog.builder(2, 0);
+        builder.addTable(200, "public", "b");
+
+        assertThatThrownBy(() -> builder.addTable(100, "public", "a"))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
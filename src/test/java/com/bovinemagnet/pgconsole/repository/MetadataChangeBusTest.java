@@ -0,0 +1,89 @@
+package com.bovinemagnet.pgconsole.repository;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests when {@link MetadataCache} keeps its copy and when
+ * {@link MetadataChangeBus} drops it, without a database.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("MetadataChangeBus")
+class MetadataChangeBusTest {
+
+    private final MetadataChangeBus bus = new MetadataChangeBus();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private MetadataCache<List<Integer>> cache(String topic) {
+        return bus.cache(topic, () -> List.of(loads.incrementAndGet()));
+    }
+
+    @Test
+    @DisplayName("Reads go to the database while changes cannot be heard")
+    void notListening() {
+        MetadataCache<List<Integer>> cache = cache("notification_channel");
+
+        assertThat(cache.get()).containsExactly(1);
+        assertThat(cache.get()).containsExactly(2);
+        assertThat(cache.peek()).isNull();
+    }
+
+    @Test
+    @DisplayName("A loaded copy is kept until its table changes")
+    void keptUntilPublished() {
+        bus.listening = true;
+        MetadataCache<List<Integer>> cache = cache("notification_channel");
+        MetadataCache<List<Integer>> other = cache("escalation_policy");
+
+        assertThat(cache.get()).containsExactly(1);
+        assertThat(cache.get()).containsExactly(1);
+        assertThat(other.get()).containsExactly(2);
+
+        bus.publish("notification_channel");
+
+        assertThat(cache.peek()).isNull();
+        assertThat(cache.get()).containsExactly(3);
+        assertThat(other.get()).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("Another replica's notification drops only the copy of its table")
+    void receivesOtherReplicas() {
+        bus.listening = true;
+        MetadataCache<List<Integer>> cache = cache("comparison_profile");
+        cache.get();
+
+        bus.receive("comparison_profile:some-other-replica");
+        assertThat(cache.peek()).isNull();
+
+        cache.get();
+        bus.receive("unrelated_table:some-other-replica");
+        assertThat(cache.peek()).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("A load overlapping a change is returned but not kept")
+    void overlappingLoadDiscarded() {
+        bus.listening = true;
+        MetadataCache<List<Integer>> cache = bus.cache("escalation_policy", () -> {
+            int load = loads.incrementAndGet();
+            if (load == 1) {
+                // The table changes while the first load is reading it
+                bus.publish("escalation_policy");
+            }
+            return List.of(load);
+        });
+
+        assertThat(cache.get()).containsExactly(1);
+        assertThat(cache.peek()).isNull();
+        assertThat(cache.get()).containsExactly(2);
+        assertThat(cache.peek()).containsExactly(2);
+    }
+}
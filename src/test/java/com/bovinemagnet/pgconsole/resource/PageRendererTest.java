@@ -0,0 +1,90 @@
+package com.bovinemagnet.pgconsole.resource;
+
+import com.bovinemagnet.pgconsole.service.DataSourceManager;
+import com.bovinemagnet.pgconsole.service.FeatureToggleService;
+import io.quarkus.qute.Template;
+import io.quarkus.qute.TemplateInstance;
+import io.vertx.core.http.HttpServerRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link PageRenderer}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PageRenderer")
+class PageRendererTest {
+
+    @Mock
+    HttpServerRequest request;
+
+    @Mock
+    DataSourceManager dataSourceManager;
+
+    @Mock
+    FeatureToggleService featureToggleService;
+
+    @Mock
+    Template template;
+
+    @InjectMocks
+    PageRenderer pages;
+
+    @Test
+    @DisplayName("Refresh requests render only the fragment, without layout data")
+    void rendersFragment() {
+        Template.Fragment fragment = mock(Template.Fragment.class);
+        TemplateInstance fragmentInstance = mock(TemplateInstance.class);
+        when(request.getParam(PageRenderer.FRAGMENT_PARAM)).thenReturn(PageRenderer.REFRESHABLE);
+        when(template.getFragment(PageRenderer.REFRESHABLE)).thenReturn(fragment);
+        when(fragment.instance()).thenReturn(fragmentInstance);
+
+        assertThat(pages.page(template)).isSameAs(fragmentInstance);
+        verifyNoInteractions(dataSourceManager, featureToggleService);
+    }
+
+    @Test
+    @DisplayName("Page requests render the full page with the instance list and toggles")
+    void rendersFullPage() {
+        TemplateInstance page = mock(TemplateInstance.class);
+        when(template.data(anyString(), any())).thenReturn(page);
+        when(page.data(anyString(), any())).thenReturn(page);
+        when(dataSourceManager.getInstanceInfoList()).thenReturn(List.of());
+        when(featureToggleService.getAllToggles()).thenReturn(Map.of());
+
+        assertThat(pages.page(template)).isSameAs(page);
+        verify(template).data("instances", List.of());
+        verify(page).data("toggles", Map.of());
+    }
+
+    @Test
+    @DisplayName("Templates without the fragment fall back to the full page")
+    void fallsBackWithoutFragment() {
+        TemplateInstance page = mock(TemplateInstance.class);
+        when(request.getParam(PageRenderer.FRAGMENT_PARAM)).thenReturn(PageRenderer.REFRESHABLE);
+        when(template.getFragment(PageRenderer.REFRESHABLE)).thenReturn(null);
+        when(template.data(anyString(), any())).thenReturn(page);
+        when(page.data(anyString(), any())).thenReturn(page);
+
+        assertThat(pages.page(template)).isSameAs(page);
+        verify(dataSourceManager).getInstanceInfoList();
+    }
+}
@@ -5,10 +5,13 @@ import io.quarkus.test.junit.TestProfile;
 import org.junit.jupiter.api.Test;
 
 import static io.restassured.RestAssured.given;
+import static io.restassured.config.DecoderConfig.decoderConfig;
+import static io.restassured.config.RestAssuredConfig.config;
 import static org.hamcrest.Matchers.*;
 
 /**
- * Tests for PWA static resources (manifest.json, service worker, icons).
+ * Tests for PWA static resources (manifest.json, service worker, icons) and
+ * the content-hashed console assets.
  *
  * @author Paul Snow
  * @version 0.0.0
@@ -158,4 +161,53 @@ class StaticResourcesTest {
                     .contentType(containsString("image/png"));
         }
     }
+
+    @Test
+    void testAssetManifestListsHashedAssets() {
+        given()
+            .when().get("/assets/manifest.json")
+            .then()
+                .statusCode(200)
+                .header("Cache-Control", "no-cache")
+                .body("assets", hasItem(matchesPattern("/assets/app\\.[0-9a-f]{12}\\.css")))
+                .body("assets", hasItem(matchesPattern("/assets/app\\.[0-9a-f]{12}\\.js")));
+    }
+
+    @Test
+    void testHashedAssetIsImmutableAndCompressed() {
+        String css = given()
+            .when().get("/assets/manifest.json")
+            .then()
+                .statusCode(200)
+                .extract().jsonPath().getList("assets", String.class).stream()
+                .filter(url -> url.endsWith(".css"))
+                .findFirst().orElseThrow();
+
+        given()
+            .config(config().decoderConfig(decoderConfig().noContentDecoders()))
+            .header("Accept-Encoding", "gzip")
+            .when().get(css)
+            .then()
+                .statusCode(200)
+                .contentType(containsString("text/css"))
+                .header("Cache-Control", containsString("immutable"))
+                .header("Vary", "Accept-Encoding")
+                .header("Content-Encoding", "gzip");
+
+        given()
+            .header("Accept-Encoding", "identity")
+            .when().get(css)
+            .then()
+                .statusCode(200)
+                .header("Content-Encoding", nullValue())
+                .body(containsString("--sidebar-width"));
+    }
+
+    @Test
+    void testUnknownAssetNotFound() {
+        given()
+            .when().get("/assets/app.000000000000.css")
+            .then()
+                .statusCode(404);
+    }
 }
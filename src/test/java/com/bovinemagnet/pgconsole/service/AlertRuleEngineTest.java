@@ -0,0 +1,174 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Comparator;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Metric;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Rule;
+import com.bovinemagnet.pgconsole.service.AlertRuleEngine.Sample;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for {@link AlertRuleEngine}.
+ * <p>
+ * Covers the pending/firing state machine, for-durations, hysteresis and
+ * unavailable metrics.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("AlertRuleEngine")
+class AlertRuleEngineTest {
+
+    private final List<String> fired = new ArrayList<>();
+
+    private int evaluate(AlertRuleEngine engine, Metric metric, double value, long nowMillis) {
+        return engine.evaluate("default", new Sample().set(metric, value), nowMillis,
+            (rule, v, newlyFiring) -> {
+                if (newlyFiring) {
+                    fired.add(rule.alertType());
+                }
+            });
+    }
+
+    @Test
+    @DisplayName("An immediate rule fires on the first breaching sample")
+    void immediateRuleFires() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            Rule.immediate("HIGH_CONNECTIONS", "Connections", Metric.CONNECTION_PERCENT, Comparator.GREATER_OR_EQUAL, 90, null)));
+
+        assertThat(evaluate(engine, Metric.CONNECTION_PERCENT, 89, 0)).isZero();
+        assertThat(evaluate(engine, Metric.CONNECTION_PERCENT, 90, 1_000)).isEqualTo(1);
+        assertThat(fired).containsExactly("HIGH_CONNECTIONS");
+        assertThat(engine.getFiring("default")).containsExactly("HIGH_CONNECTIONS");
+    }
+
+    @Test
+    @DisplayName("A rule with a for-duration stays pending until the breach has lasted long enough")
+    void forDurationDelaysFiring() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            new Rule("SLOW", "Slow", Metric.LONGEST_QUERY_SECONDS, Comparator.GREATER, 60, 120_000, 0, null)));
+
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 61, 0);
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 75, 60_000);
+        assertThat(engine.getPending("default")).containsExactly("SLOW");
+        assertThat(fired).isEmpty();
+
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 80, 120_000);
+        assertThat(fired).containsExactly("SLOW");
+        assertThat(engine.getPending("default")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A recovery resets the pending timer")
+    void recoveryResetsPending() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            new Rule("SLOW", "Slow", Metric.LONGEST_QUERY_SECONDS, Comparator.GREATER, 60, 120_000, 0, null)));
+
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 61, 0);
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 10, 60_000);
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 61, 90_000);
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 61, 150_000);
+
+        assertThat(fired).isEmpty();
+        evaluate(engine, Metric.LONGEST_QUERY_SECONDS, 61, 210_000);
+        assertThat(fired).containsExactly("SLOW");
+    }
+
+    @Test
+    @DisplayName("Hysteresis keeps an upper-limit rule firing until the value drops clear of the threshold")
+    void hysteresisHoldsUpperLimitRule() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            new Rule("HIGH_CONNECTIONS", "Connections", Metric.CONNECTION_PERCENT, Comparator.GREATER_OR_EQUAL, 90, 0, 5, null)));
+
+        evaluate(engine, Metric.CONNECTION_PERCENT, 92, 0);
+        evaluate(engine, Metric.CONNECTION_PERCENT, 87, 1_000);
+        assertThat(engine.getFiring("default")).containsExactly("HIGH_CONNECTIONS");
+
+        evaluate(engine, Metric.CONNECTION_PERCENT, 84, 2_000);
+        assertThat(engine.getFiring("default")).isEmpty();
+
+        evaluate(engine, Metric.CONNECTION_PERCENT, 91, 3_000);
+        assertThat(fired).containsExactly("HIGH_CONNECTIONS", "HIGH_CONNECTIONS");
+    }
+
+    @Test
+    @DisplayName("Hysteresis applies in the other direction for lower-limit rules")
+    void hysteresisHoldsLowerLimitRule() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            new Rule("LOW_CACHE_HIT", "Cache", Metric.CACHE_HIT_RATIO, Comparator.LESS, 90, 0, 2, null)));
+
+        evaluate(engine, Metric.CACHE_HIT_RATIO, 85, 0);
+        evaluate(engine, Metric.CACHE_HIT_RATIO, 91, 1_000);
+        assertThat(engine.getFiring("default")).containsExactly("LOW_CACHE_HIT");
+
+        evaluate(engine, Metric.CACHE_HIT_RATIO, 92.5, 2_000);
+        assertThat(engine.getFiring("default")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Unavailable metrics neither breach nor hold a rule")
+    void nanNeverBreaches() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            Rule.immediate("HIGH_REPLICATION_LAG", "Lag", Metric.REPLICATION_LAG_SECONDS, Comparator.GREATER_OR_EQUAL, 0, null)));
+
+        assertThat(evaluate(engine, Metric.REPLICATION_LAG_SECONDS, Double.NaN, 0)).isZero();
+        evaluate(engine, Metric.REPLICATION_LAG_SECONDS, 10, 1_000);
+        assertThat(engine.getFiring("default")).containsExactly("HIGH_REPLICATION_LAG");
+
+        evaluate(engine, Metric.REPLICATION_LAG_SECONDS, Double.NaN, 2_000);
+        assertThat(engine.getFiring("default")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A firing rule is reported on every breaching sample but is only newly firing once")
+    void firingRuleIsReReported() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            Rule.immediate("BLOCKED_QUERIES", "Blocked", Metric.BLOCKED_QUERIES, Comparator.GREATER_OR_EQUAL, 5, null)));
+        List<Boolean> reports = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            engine.evaluate("default", new Sample().set(Metric.BLOCKED_QUERIES, 7), i * 1_000L,
+                (rule, value, newlyFiring) -> reports.add(newlyFiring));
+        }
+
+        assertThat(reports).containsExactly(true, false, false);
+    }
+
+    @Test
+    @DisplayName("Instances are tracked independently")
+    void instancesAreIndependent() {
+        AlertRuleEngine engine = new AlertRuleEngine(List.of(
+            Rule.immediate("BLOCKED_QUERIES", "Blocked", Metric.BLOCKED_QUERIES, Comparator.GREATER_OR_EQUAL, 5, null)));
+
+        engine.evaluate("primary", new Sample().set(Metric.BLOCKED_QUERIES, 7), 0, (rule, value, newlyFiring) -> { });
+        engine.evaluate("replica", new Sample().set(Metric.BLOCKED_QUERIES, 1), 0, (rule, value, newlyFiring) -> { });
+
+        assertThat(engine.getFiring("primary")).containsExactly("BLOCKED_QUERIES");
+        assertThat(engine.getFiring("replica")).isEmpty();
+
+        engine.forget("primary");
+        assertThat(engine.getFiring("primary")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Rules without a formatter get a generic message")
+    void genericMessage() {
+        Rule rule = new Rule("CUSTOM", "Custom", Metric.IDLE_IN_TRANSACTION, Comparator.GREATER, 10, 0, 0, null);
+
+        assertThat(rule.formatMessage(new Sample(), 12)).contains("idle-in-transaction").contains("> 10");
+    }
+
+    @Test
+    @DisplayName("Metrics and comparators are looked up by their configuration names")
+    void lookups() {
+        assertThat(Metric.fromName("xid-wraparound-percent")).isEqualTo(Metric.XID_WRAPAROUND_PERCENT);
+        assertThat(Metric.fromName("no-such-metric")).isNull();
+        assertThat(Comparator.fromSymbol(" <= ")).isEqualTo(Comparator.LESS_OR_EQUAL);
+        assertThat(Comparator.fromSymbol("==")).isNull();
+    }
+}
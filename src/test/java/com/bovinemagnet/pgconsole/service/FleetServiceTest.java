@@ -0,0 +1,216 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.OverviewStats;
+import com.bovinemagnet.pgconsole.model.SlowQuery;
+import com.bovinemagnet.pgconsole.service.FleetService.FleetQuery;
+import com.bovinemagnet.pgconsole.service.FleetService.InstanceResult;
+import com.bovinemagnet.pgconsole.service.FleetService.Status;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests concurrent fan-out, per-instance and per-request deadlines and the
+ * merged top queries in {@link FleetService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("FleetService")
+class FleetServiceTest {
+
+    @Mock
+    DataSourceManager dataSourceManager;
+
+    @Mock
+    PostgresService postgresService;
+
+    @InjectMocks
+    FleetService fleetService;
+
+    @BeforeEach
+    void setUp() {
+        fleetService.start(4, 400, 5_000);
+        lenient().when(dataSourceManager.getDisplayName(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fleetService.shutdown();
+    }
+
+    private static SlowQuery query(String id, double totalTime) {
+        SlowQuery query = TestDataFactory.createSlowQuery(id, "SELECT " + id);
+        query.setTotalTime(totalTime);
+        return query;
+    }
+
+    @Test
+    @DisplayName("Queries instances concurrently")
+    void concurrent() {
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("a", "b", "c"));
+        when(postgresService.getOverviewStats(anyString(), anyInt())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return TestDataFactory.createOverviewStats();
+        });
+        List<InstanceResult<OverviewStats>> results = new ArrayList<>();
+
+        long started = System.nanoTime();
+        fleetService.overview(results::add);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(500);
+        assertThat(results).hasSize(3).allSatisfy(result -> {
+            assertThat(result.status()).isEqualTo(Status.OK);
+            assertThat(result.data()).isNotNull();
+        });
+    }
+
+    @Test
+    @DisplayName("Reports a slow instance as timed out without waiting for it")
+    void slowInstanceTimesOut() {
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("fast", "slow"));
+        when(postgresService.getOverviewStats("fast", 1)).thenReturn(TestDataFactory.createOverviewStats());
+        when(postgresService.getOverviewStats("slow", 1)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return TestDataFactory.createOverviewStats();
+        });
+        List<InstanceResult<OverviewStats>> results = new ArrayList<>();
+
+        long started = System.nanoTime();
+        fleetService.overview(results::add);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(2_000);
+        assertThat(results).extracting(InstanceResult::instance).containsExactly("fast", "slow");
+        assertThat(results.get(1).status()).isEqualTo(Status.TIMEOUT);
+        assertThat(results.get(1).data()).isNull();
+    }
+
+    @Test
+    @DisplayName("Times out a query still waiting for a thread without running it")
+    void queuedInstanceTimesOut() {
+        fleetService.shutdown();
+        fleetService.start(1, 300, 5_000);
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("slow", "queued"));
+        when(postgresService.getOverviewStats("slow", 1)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return TestDataFactory.createOverviewStats();
+        });
+        List<InstanceResult<OverviewStats>> results = new ArrayList<>();
+
+        long started = System.nanoTime();
+        fleetService.overview(results::add);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(2_000);
+        assertThat(results).extracting(InstanceResult::status).containsOnly(Status.TIMEOUT);
+        assertThat(results).extracting(InstanceResult::instance).containsExactlyInAnyOrder("slow", "queued");
+        verify(postgresService, never()).getOverviewStats("queued", 1);
+    }
+
+    @Test
+    @DisplayName("Stops waiting for every instance at the request deadline")
+    void requestDeadline() {
+        fleetService.shutdown();
+        fleetService.start(4, 10_000, 300);
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("fast", "slow"));
+        when(postgresService.getOverviewStats("fast", 1)).thenReturn(TestDataFactory.createOverviewStats());
+        when(postgresService.getOverviewStats("slow", 1)).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return TestDataFactory.createOverviewStats();
+        });
+        List<InstanceResult<OverviewStats>> results = new ArrayList<>();
+
+        long started = System.nanoTime();
+        fleetService.overview(results::add);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(elapsedMillis).isLessThan(2_000);
+        assertThat(results).extracting(InstanceResult::status).containsExactly(Status.OK, Status.TIMEOUT);
+    }
+
+    @Test
+    @DisplayName("Reports a failing instance and still returns the others")
+    void failingInstance() {
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("up", "down"));
+        when(postgresService.getOverviewStats("up", 1)).thenReturn(TestDataFactory.createOverviewStats());
+        when(postgresService.getOverviewStats("down", 1)).thenThrow(new RuntimeException("connection refused"));
+        List<InstanceResult<OverviewStats>> results = new ArrayList<>();
+
+        fleetService.overview(results::add);
+
+        Map<String, InstanceResult<OverviewStats>> byInstance = results.stream()
+                .collect(Collectors.toMap(InstanceResult::instance, Function.identity()));
+        assertThat(byInstance.get("up").status()).isEqualTo(Status.OK);
+        assertThat(byInstance.get("down").status()).isEqualTo(Status.ERROR);
+        assertThat(byInstance.get("down").error()).isEqualTo("connection refused");
+    }
+
+    @Test
+    @DisplayName("Merges the top queries of every instance, highest first")
+    void mergesTopQueries() {
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("a", "b"));
+        when(postgresService.fetchSlowQueries("a", "totalTime", "desc", 1))
+                .thenReturn(List.of(query("a1", 900), query("a2", 300), query("a3", 100)));
+        when(postgresService.fetchSlowQueries("b", "totalTime", "desc", 1))
+                .thenReturn(List.of(query("b1", 500), query("b2", 400)));
+        List<InstanceResult<Integer>> results = new ArrayList<>();
+
+        List<FleetQuery> top = fleetService.topQueries("totalTime", 3, results::add);
+
+        assertThat(top).extracting(FleetQuery::queryId).containsExactly("a1", "b1", "b2");
+        assertThat(top).extracting(FleetQuery::instance).containsExactly("a", "b", "b");
+        assertThat(results).extracting(InstanceResult::data).containsExactlyInAnyOrder(3, 2);
+    }
+
+    @Test
+    @DisplayName("Reports an instance whose top queries fail as an error, not as empty")
+    void failingTopQueries() {
+        when(dataSourceManager.getAvailableInstances()).thenReturn(List.of("a", "b"));
+        when(postgresService.fetchSlowQueries("a", "totalTime", "desc", 1)).thenReturn(List.of(query("a1", 900)));
+        when(postgresService.fetchSlowQueries("b", "totalTime", "desc", 1))
+                .thenThrow(new RuntimeException("pg_stat_statements is not installed"));
+        List<InstanceResult<Integer>> results = new ArrayList<>();
+
+        List<FleetQuery> top = fleetService.topQueries("totalTime", 3, results::add);
+
+        Map<String, InstanceResult<Integer>> byInstance = results.stream()
+                .collect(Collectors.toMap(InstanceResult::instance, Function.identity()));
+        assertThat(top).extracting(FleetQuery::queryId).containsExactly("a1");
+        assertThat(byInstance.get("a").status()).isEqualTo(Status.OK);
+        assertThat(byInstance.get("b").status()).isEqualTo(Status.ERROR);
+        assertThat(byInstance.get("b").error()).isEqualTo("pg_stat_statements is not installed");
+        assertThat(byInstance.get("b").data()).isNull();
+    }
+
+    @Test
+    @DisplayName("Rejects an unsupported sort")
+    void rejectsSort() {
+        assertThat(FleetService.supportsSort("meanTime")).isTrue();
+        assertThatThrownBy(() -> fleetService.topQueries("query", 10, result -> { }))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
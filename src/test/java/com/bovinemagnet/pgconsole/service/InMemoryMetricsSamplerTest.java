@@ -1,7 +1,6 @@
 package com.bovinemagnet.pgconsole.service;
 
 import com.bovinemagnet.pgconsole.config.InstanceConfig;
-import com.bovinemagnet.pgconsole.model.OverviewStats;
 import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -60,6 +59,12 @@ class InMemoryMetricsSamplerTest {
     @Mock
     AlertingService alertingService;
 
+    @Mock
+    SparklineService sparklineService;
+
+    @Mock
+    ResponseVersionService responseVersionService;
+
     @Mock
     DataSource dataSource;
 
@@ -337,15 +342,13 @@ class InMemoryMetricsSamplerTest {
             when(resultSet.next()).thenReturn(true);
             mockResultSetValues();
 
-            OverviewStats mockStats = new OverviewStats();
-            when(postgresService.getOverviewStats("test-instance")).thenReturn(mockStats);
-
             // Act
             metricsSampler.sampleInMemoryMetrics();
 
-            // Assert
-            verify(postgresService).getOverviewStats("test-instance");
-            verify(alertingService).checkAndAlert("test-instance", mockStats);
+            // Assert - alerts are evaluated from the sample, without overview queries
+            verify(statement).executeQuery(SystemMetricsQuery.WITH_ALERTING_SQL);
+            verify(alertingService).evaluate(eq("test-instance"), any(AlertRuleEngine.Sample.class));
+            verify(postgresService, never()).getOverviewStats(anyString());
         }
 
         @Test
@@ -366,8 +369,8 @@ class InMemoryMetricsSamplerTest {
             metricsSampler.sampleInMemoryMetrics();
 
             // Assert
-            verify(postgresService, never()).getOverviewStats(anyString());
-            verify(alertingService, never()).checkAndAlert(anyString(), any());
+            verify(statement, never()).executeQuery(SystemMetricsQuery.WITH_ALERTING_SQL);
+            verify(alertingService, never()).evaluate(anyString(), any());
         }
 
         @Test
@@ -385,8 +388,8 @@ class InMemoryMetricsSamplerTest {
             mockResultSetValues();
 
             // Alert checking throws exception
-            when(postgresService.getOverviewStats("test-instance"))
-                    .thenThrow(new RuntimeException("Failed to get stats"));
+            doThrow(new RuntimeException("Failed to evaluate alerts"))
+                    .when(alertingService).evaluate(eq("test-instance"), any());
 
             // Act & Assert - should not throw
             metricsSampler.sampleInMemoryMetrics();
@@ -0,0 +1,165 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.IncidentReport;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.BrokenBarrierException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests concurrent section capture, per-section latency and streamed output
+ * in {@link IncidentReportService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IncidentReportService capture")
+class IncidentReportServiceTest {
+
+    @Mock
+    PostgresService postgresService;
+
+    @InjectMocks
+    IncidentReportService incidentReportService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(postgresService.getOverviewStats("db1")).thenReturn(TestDataFactory.createOverviewStats());
+        lenient().when(postgresService.getCurrentActivity("db1")).thenReturn(List.of(TestDataFactory.createActivity()));
+        lenient().when(postgresService.getWaitEventSummary("db1")).thenReturn(List.of());
+        lenient().when(postgresService.getBlockingTree("db1")).thenReturn(List.of());
+        lenient().when(postgresService.getLockInfo("db1"))
+            .thenReturn(List.of(TestDataFactory.createLockInfo("relation", "AccessShareLock", true)));
+        lenient().when(postgresService.getSlowQueries("db1", "totalTime", "desc")).thenReturn(List.of());
+        lenient().when(postgresService.getDatabaseInfo("db1")).thenReturn(null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        incidentReportService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Sections are captured concurrently")
+    void sectionsCapturedConcurrently() {
+        // Every query waits until all of them are in flight, so a sequential capture would break the barrier
+        CyclicBarrier allInFlight = new CyclicBarrier(IncidentReport.Section.values().length);
+        when(postgresService.getOverviewStats("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return TestDataFactory.createOverviewStats();
+        });
+        when(postgresService.getCurrentActivity("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return List.of(TestDataFactory.createActivity());
+        });
+        when(postgresService.getWaitEventSummary("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return List.of();
+        });
+        when(postgresService.getBlockingTree("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return List.of();
+        });
+        when(postgresService.getLockInfo("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return List.of();
+        });
+        when(postgresService.getSlowQueries("db1", "totalTime", "desc")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return List.of();
+        });
+        when(postgresService.getDatabaseInfo("db1")).thenAnswer(invocation -> {
+            await(allInFlight);
+            return null;
+        });
+
+        IncidentReport report = incidentReportService.captureReport("db1", "slow checkout");
+
+        assertThat(report.getSectionErrors()).isEmpty();
+        assertThat(report.getOverviewStats()).isNotNull();
+        assertThat(report.getActivities()).hasSize(1);
+        assertThat(report.getSectionCaptureMillis()).containsOnlyKeys(IncidentReport.Section.values());
+    }
+
+    @Test
+    @DisplayName("A section that times out is left out of the report even when it finishes later")
+    void timedOutSectionIsNotMerged() throws Exception {
+        incidentReportService.sectionTimeout = Duration.ofMillis(100);
+        CountDownLatch release = new CountDownLatch(1);
+        when(postgresService.getLockInfo("db1")).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(TestDataFactory.createLockInfo("relation", "AccessExclusiveLock", false));
+        });
+
+        IncidentReportService.Capture capture = incidentReportService.startCapture("db1", "stuck lock query");
+        incidentReportService.writeAsText(capture, new StringWriter());
+        release.countDown();
+        capture.sections().get(IncidentReport.Section.LOCKS).get(5, TimeUnit.SECONDS);
+
+        IncidentReport report = capture.report();
+        assertThat(report.getLocks()).isEmpty();
+        assertThat(report.getSectionErrors().get(IncidentReport.Section.LOCKS)).startsWith("timed out");
+        assertThat(report.getSectionCaptureMillis()).doesNotContainKey(IncidentReport.Section.LOCKS);
+        assertThat(report.getActivities()).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("A failing section is recorded and does not abort the report")
+    void failingSectionIsRecorded() {
+        when(postgresService.getLockInfo("db1")).thenThrow(new IllegalStateException("lock query failed"));
+
+        IncidentReport report = incidentReportService.captureReport("db1", null);
+
+        assertThat(report.getOverviewStats()).isNotNull();
+        assertThat(report.getLocks()).isEmpty();
+        assertThat(report.getSectionErrors())
+            .containsEntry(IncidentReport.Section.LOCKS, "IllegalStateException: lock query failed");
+        assertThat(incidentReportService.formatAsText(report)).contains("Capture failed: IllegalStateException");
+    }
+
+    @Test
+    @DisplayName("Streamed output matches the formatted report and includes capture timings")
+    void streamedOutputMatchesFormattedReport() throws IOException {
+        IncidentReportService.Capture capture = incidentReportService.startCapture("db1", "streamed");
+
+        StringWriter out = new StringWriter();
+        incidentReportService.writeAsText(capture, out);
+
+        assertThat(out.toString())
+            .isEqualTo(incidentReportService.formatAsText(capture.report()))
+            .startsWith("=".repeat(80))
+            .contains("INCIDENT REPORT: " + capture.report().getReportId())
+            .contains("CURRENT ACTIVITY (1 connections)")
+            .contains("ACTIVE LOCKS (1 locks)")
+            .contains("CAPTURE TIMINGS")
+            .endsWith("END OF REPORT\n" + "=".repeat(80) + "\n");
+    }
+
+    private static void await(CyclicBarrier barrier) {
+        try {
+            barrier.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException("Sections were not all in flight at once", e);
+        }
+    }
+}
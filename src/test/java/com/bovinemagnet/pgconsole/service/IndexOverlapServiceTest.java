@@ -0,0 +1,230 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
+import com.bovinemagnet.pgconsole.service.IndexOverlapService.Finding;
+import com.bovinemagnet.pgconsole.service.IndexOverlapService.Kind;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests duplicate, covered and overlapping index detection in {@link IndexOverlapService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IndexOverlapService")
+class IndexOverlapServiceTest {
+
+    @Mock
+    CatalogSnapshotService catalogSnapshotService;
+
+    @InjectMocks
+    IndexOverlapService service;
+
+    /**
+     * Builds a snapshot of one table, public.orders, whose indexes are added
+     * by the test with oids from 101.
+     */
+    private static final class Orders {
+
+        private final RelationCatalog.Builder builder = RelationCatalog.builder(1, 8);
+        private long nextOid = 101;
+
+        Orders() {
+            builder.addTable(100, "public", "orders").sizes(65536, 0);
+        }
+
+        Orders index(String name, long sizeBytes, String... columns) {
+            builder.addIndex(nextOid++, 100, name, columns, false, false, sizeBytes, 0, 0);
+            return this;
+        }
+
+        Orders unique(String name, boolean primary, String... columns) {
+            builder.addIndex(nextOid++, 100, name, columns, primary, true, 1024, 0, 0);
+            return this;
+        }
+
+        Orders scanned(String name, long scans, String... columns) {
+            builder.addIndex(nextOid++, 100, name, columns, false, false, 1024, scans, 0);
+            return this;
+        }
+
+        Orders structure(String method, long[] opclasses, short[] options, String[] expressions,
+                         String[] include, String predicate) {
+            builder.structure(method, opclasses, options, expressions, include, predicate);
+            return this;
+        }
+
+        List<Finding> analyse() {
+            return IndexOverlapService.analyse(builder.build(0, 0));
+        }
+    }
+
+    private static String describe(Finding finding) {
+        return finding.kind() + " " + finding.index().getName() + " -> " + finding.related().getName();
+    }
+
+    @Test
+    @DisplayName("Identical indexes are duplicates, keeping the most scanned")
+    void exactDuplicate() {
+        List<Finding> findings = new Orders()
+                .scanned("orders_a_idx", 0, "a")
+                .scanned("orders_a_idx1", 12, "a")
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("DUPLICATE orders_a_idx -> orders_a_idx1");
+    }
+
+    @Test
+    @DisplayName("A unique index on the primary key's columns duplicates the primary key")
+    void duplicateOfPrimaryKey() {
+        List<Finding> findings = new Orders()
+                .unique("orders_pkey", true, "id")
+                .unique("orders_id_key", false, "id")
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("DUPLICATE orders_id_key -> orders_pkey");
+    }
+
+    @Test
+    @DisplayName("An index leading a longer index is covered by it")
+    void prefixCovered() {
+        List<Finding> findings = new Orders()
+                .index("orders_a_idx", 1024, "a")
+                .index("orders_a_b_idx", 2048, "a", "b")
+                .index("orders_a_b_c_idx", 4096, "a", "b", "c")
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("COVERED orders_a_b_idx -> orders_a_b_c_idx",
+                        "COVERED orders_a_idx -> orders_a_b_idx");
+        assertThat(findings.get(0).sharedKeys()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("A unique index is not covered by a wider index, which does not enforce its constraint")
+    void uniqueNotCovered() {
+        List<Finding> findings = new Orders()
+                .unique("orders_a_key", false, "a")
+                .index("orders_a_b_idx", 2048, "a", "b")
+                .analyse();
+
+        assertThat(findings).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A covering index must hold the INCLUDE columns of the index it covers")
+    void includeColumns() {
+        long[] opclass = {0};
+        short[] option = {0};
+        List<Finding> findings = new Orders()
+                .index("orders_a_incl_b", 1024, "a")
+                .structure("btree", opclass, option, null, new String[] {"b"}, null)
+                .index("orders_a_incl_c", 1024, "a")
+                .structure("btree", opclass, option, null, new String[] {"c"}, null)
+                .index("orders_a_b_idx", 2048, "a", "b")
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("COVERED orders_a_incl_b -> orders_a_b_idx");
+    }
+
+    @Test
+    @DisplayName("Indexes with different predicates, operator classes or sort orders are not compared")
+    void differentStructure() {
+        List<Finding> findings = new Orders()
+                .index("orders_a_idx", 1024, "a")
+                .index("orders_a_open_idx", 1024, "a")
+                .structure("btree", new long[] {0}, new short[] {0}, null, new String[0], "(status = 'open'::text)")
+                .index("orders_a_pattern_idx", 1024, "a")
+                .structure("btree", new long[] {10044}, new short[] {0}, null, new String[0], null)
+                .index("orders_a_desc_idx", 1024, "a")
+                .structure("btree", new long[] {0}, new short[] {3}, null, new String[0], null)
+                .analyse();
+
+        assertThat(findings).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Expression keys are compared by their text")
+    void expressionKeys() {
+        String[] lowerEmail = {"lower(email)"};
+        List<Finding> findings = new Orders()
+                .index("orders_lower_email_idx", 1024, (String) null)
+                .structure("btree", new long[] {0}, new short[] {0}, lowerEmail, new String[0], null)
+                .index("orders_lower_email_idx1", 1024, (String) null)
+                .structure("btree", new long[] {0}, new short[] {0}, lowerEmail, new String[0], null)
+                .index("orders_unknown_idx", 1024, (String) null)
+                .index("orders_unknown_idx1", 1024, (String) null)
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("DUPLICATE orders_lower_email_idx1 -> orders_lower_email_idx");
+    }
+
+    @Test
+    @DisplayName("B-tree indexes diverging after shared leading keys partially overlap")
+    void partialOverlap() {
+        List<Finding> findings = new Orders()
+                .index("orders_a_b_idx", 4096, "a", "b")
+                .index("orders_a_c_idx", 2048, "a", "c")
+                .index("orders_x_y_idx", 1024, "x", "y")
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("PARTIAL_OVERLAP orders_a_c_idx -> orders_a_b_idx");
+        assertThat(findings.get(0).sharedKeys()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Other access methods are only reported as exact duplicates")
+    void ginDuplicatesOnly() {
+        long[] opclasses = {0, 0};
+        short[] options = {0, 0};
+        List<Finding> findings = new Orders()
+                .index("orders_tags_idx", 1024, "tags")
+                .structure("gin", new long[] {0}, new short[] {0}, null, new String[0], null)
+                .index("orders_tags_idx1", 2048, "tags")
+                .structure("gin", new long[] {0}, new short[] {0}, null, new String[0], null)
+                .index("orders_tags_attrs_idx", 4096, "tags", "attrs")
+                .structure("gin", opclasses, options, null, new String[0], null)
+                .index("orders_tags_notes_idx", 4096, "tags", "notes")
+                .structure("gin", opclasses, options, null, new String[0], null)
+                .analyse();
+
+        assertThat(findings).extracting(IndexOverlapServiceTest::describe)
+                .containsExactly("DUPLICATE orders_tags_idx1 -> orders_tags_idx");
+    }
+
+    @Test
+    @DisplayName("Findings are cached until the snapshot is reloaded")
+    void cachedPerSnapshot() {
+        RelationCatalog.Builder builder = RelationCatalog.builder(1, 2);
+        builder.addTable(100, "public", "orders");
+        builder.addIndex(101, 100, "orders_a_idx", new String[] {"a"}, false, false, 1024, 0, 0);
+        builder.addIndex(102, 100, "orders_a_idx1", new String[] {"a"}, false, false, 1024, 0, 0);
+        RelationCatalog catalog = builder.build(0, 0);
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog);
+
+        List<Finding> first = service.findOverlaps("default");
+        List<Finding> second = service.findOverlaps("default");
+
+        assertThat(first).hasSize(1);
+        assertThat(second).isSameAs(first);
+
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(RelationCatalog.empty());
+        assertThat(service.findOverlaps("default")).isEmpty();
+    }
+}
@@ -0,0 +1,124 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import io.agroal.api.AgroalDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the lazy pool and connection cap of a registered instance in
+ * {@link InstancePool}, with the Agroal pool mocked.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("InstancePool")
+class InstancePoolTest {
+
+    private final Semaphore cap = new Semaphore(1);
+    private final AtomicInteger built = new AtomicInteger();
+    private AgroalDataSource agroal;
+    private InstancePool pool;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        agroal = mock(AgroalDataSource.class);
+        when(agroal.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        RegisteredInstance instance = new RegisteredInstance();
+        instance.setName("replica-7");
+        pool = new InstancePool(instance, registered -> {
+            built.incrementAndGet();
+            return agroal;
+        }, new InstancePool.Permits() {
+            @Override
+            public void acquire(InstancePool requester) throws SQLException {
+                if (!cap.tryAcquire()) {
+                    throw new SQLException("cap reached");
+                }
+            }
+
+            @Override
+            public void release() {
+                cap.release();
+            }
+        });
+    }
+
+    @Test
+    @DisplayName("Opens no pool until a connection is taken")
+    void lazy() throws SQLException {
+        assertThat(pool.isOpen()).isFalse();
+        assertThat(built).hasValue(0);
+
+        try (Connection ignored = pool.getConnection()) {
+            assertThat(pool.isOpen()).isTrue();
+            assertThat(pool.inUse()).isEqualTo(1);
+        }
+        assertThat(built).hasValue(1);
+        assertThat(pool.inUse()).isZero();
+    }
+
+    @Test
+    @DisplayName("A connection holds its permit until closed, and returns it once")
+    void permitReturnedOnce() throws SQLException {
+        Connection connection = pool.getConnection();
+        assertThat(cap.availablePermits()).isZero();
+        assertThatThrownBy(pool::getConnection).isInstanceOf(SQLException.class).hasMessage("cap reached");
+
+        connection.close();
+        connection.close();
+
+        assertThat(cap.availablePermits()).isEqualTo(1);
+        assertThat(connection.isClosed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Closes an idle pool but not one in use, and rebuilds it on next use")
+    void closesWhenIdle() throws SQLException {
+        Connection connection = pool.getConnection();
+        assertThat(pool.closeIfIdle(Instant.now().plusSeconds(60))).isFalse();
+
+        connection.close();
+        assertThat(pool.closeIfIdle(Instant.now().minusSeconds(60))).isFalse();
+        assertThat(pool.closeIfIdle(Instant.now().plusSeconds(60))).isTrue();
+        verify(agroal).close();
+        assertThat(pool.isOpen()).isFalse();
+
+        pool.getConnection().close();
+        assertThat(built).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Refuses connections once removed, without keeping a permit")
+    void closedForGood() {
+        pool.close();
+
+        assertThatThrownBy(pool::getConnection).isInstanceOf(SQLException.class)
+                .hasMessageContaining("no longer registered");
+        assertThat(cap.availablePermits()).isEqualTo(1);
+        assertThat(built).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Returns the permit when the instance refuses a connection")
+    void failedConnect() throws SQLException {
+        when(agroal.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        assertThatThrownBy(pool::getConnection).hasMessage("connection refused");
+        assertThat(cap.availablePermits()).isEqualTo(1);
+        assertThat(pool.inUse()).isZero();
+    }
+}
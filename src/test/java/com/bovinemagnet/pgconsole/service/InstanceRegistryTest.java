@@ -0,0 +1,120 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.RegisteredInstance;
+import com.bovinemagnet.pgconsole.repository.RegisteredInstanceRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the checks {@link InstanceRegistry} makes before an instance is
+ * stored: security, the JDBC URL, and password encryption.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("InstanceRegistry registration")
+class InstanceRegistryTest {
+
+    private static final String KEY = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+
+    private InstanceRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = new InstanceRegistry();
+        registry.config = mock(InstanceConfig.class, RETURNS_DEEP_STUBS);
+        registry.repository = mock(RegisteredInstanceRepository.class);
+        when(registry.config.registry().enabled()).thenReturn(true);
+        when(registry.config.registry().maxTotalConnections()).thenReturn(10);
+        when(registry.config.registry().acquisitionTimeoutSeconds()).thenReturn(1);
+        when(registry.config.registry().poolCloseMinutes()).thenReturn(10);
+        when(registry.config.registry().defaultWorkloadClass()).thenReturn("standard");
+        when(registry.config.registry().workloadClasses()).thenReturn(Map.of());
+        when(registry.config.registry().credentialKey()).thenReturn(Optional.of(KEY));
+        when(registry.config.schema().enabled()).thenReturn(true);
+        when(registry.config.security().enabled()).thenReturn(true);
+        when(registry.config.instances()).thenReturn("default");
+        when(registry.repository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(registry.repository.findAll()).thenReturn(List.of());
+    }
+
+    private static RegisteredInstance instance(String jdbcUrl, String password) {
+        RegisteredInstance instance = new RegisteredInstance();
+        instance.setName("orders-eu-3");
+        instance.setJdbcUrl(jdbcUrl);
+        instance.setUsername("pgconsole");
+        instance.setPassword(password);
+        return instance;
+    }
+
+    @Test
+    @DisplayName("Registering and removing need security to be enabled")
+    void refusedWithoutSecurity() {
+        when(registry.config.security().enabled()).thenReturn(false);
+        registry.init();
+
+        assertThatThrownBy(() -> registry.register(instance("jdbc:postgresql://db/orders", null)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("pg-console.security.enabled");
+        assertThatThrownBy(() -> registry.remove("orders-eu-3"))
+                .isInstanceOf(IllegalStateException.class);
+        verify(registry.repository, never()).save(any());
+        verify(registry.repository, never()).delete(any());
+    }
+
+    @Test
+    @DisplayName("A URL with driver properties outside the allowlist is rejected")
+    void driverPropertiesRejected() {
+        registry.init();
+
+        assertThatThrownBy(() -> registry.register(
+                instance("jdbc:postgresql://db/orders?socketFactory=java.io.FileOutputStream", null)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("socketFactory");
+        verify(registry.repository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("The password is stored encrypted and the URL rebuilt from its parts")
+    void passwordEncrypted() {
+        registry.init();
+
+        registry.register(instance("jdbc:postgresql://db/orders?sslmode=require", "secret"));
+
+        ArgumentCaptor<RegisteredInstance> saved = ArgumentCaptor.forClass(RegisteredInstance.class);
+        verify(registry.repository).save(saved.capture());
+        assertThat(saved.getValue().getPassword()).isNull();
+        assertThat(saved.getValue().getEncryptedPassword()).startsWith("v1:").doesNotContain("secret");
+        assertThat(registry.credentials.decrypt("orders-eu-3", saved.getValue().getEncryptedPassword()))
+                .isEqualTo("secret");
+        assertThat(saved.getValue().getJdbcUrl()).isEqualTo("jdbc:postgresql://db:5432/orders?sslmode=require");
+    }
+
+    @Test
+    @DisplayName("A password cannot be stored without a credential key")
+    void passwordNeedsKey() {
+        when(registry.config.registry().credentialKey()).thenReturn(Optional.empty());
+        registry.init();
+
+        assertThatThrownBy(() -> registry.register(instance("jdbc:postgresql://db/orders", "secret")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("credential-key");
+        verify(registry.repository, never()).save(any());
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -186,6 +187,36 @@ class LiveChartHistoryStoreTest {
         }
     }
 
+    @Nested
+    @DisplayName("forEachPoint tests")
+    class ForEachPointTests {
+
+        @Test
+        @DisplayName("should visit only points within the range, oldest first")
+        void forEachPoint_withinRange_visitsInOrder() {
+            Instant now = Instant.now();
+            store.addPoint("test", createPoint(now.minusSeconds(90), 1.0, 100.0, 90.0));
+            store.addPoint("test", createPoint(now.minusSeconds(60), 2.0, 200.0, 91.0));
+            store.addPoint("test", createPoint(now.minusSeconds(30), 3.0, 300.0, 92.0));
+            store.addPoint("test", createPoint(now, 4.0, 400.0, 93.0));
+
+            List<Double> visited = new ArrayList<>();
+            store.forEachPoint("test", now.minusSeconds(60), now.minusSeconds(30),
+                    point -> visited.add(point.getActive()));
+
+            assertThat(visited).containsExactly(2.0, 3.0);
+        }
+
+        @Test
+        @DisplayName("should visit nothing for an unknown instance")
+        void forEachPoint_unknownInstance_visitsNothing() {
+            List<LiveChartHistoryPoint> visited = new ArrayList<>();
+            store.forEachPoint("unknown", Instant.EPOCH, Instant.now(), visited::add);
+
+            assertThat(visited).isEmpty();
+        }
+    }
+
     @Nested
     @DisplayName("getPointCount tests")
     class GetPointCountTests {
@@ -0,0 +1,213 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.MaintenanceJob;
+import com.bovinemagnet.pgconsole.model.MaintenanceJob.Status;
+import com.bovinemagnet.pgconsole.model.ScheduledMaintenance.TaskType;
+import com.bovinemagnet.pgconsole.repository.MaintenanceJobRepository;
+import com.bovinemagnet.pgconsole.repository.MaintenanceWindowRepository;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests queueing, limits and cancellation in {@link MaintenanceJobService}.
+ * Jobs are taken from the queue directly, without starting the workers.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MaintenanceJobService")
+class MaintenanceJobServiceTest {
+
+    @Mock
+    DataSourceManager dataSourceManager;
+
+    @Mock
+    MaintenanceJobRepository jobRepository;
+
+    @Mock
+    MaintenanceWindowRepository windowRepository;
+
+    @Mock
+    CatalogSnapshotService catalogSnapshotService;
+
+    @Mock
+    UnifiedRecommendationService unifiedRecommendationService;
+
+    @Mock
+    ClusterCoordinator clusterCoordinator;
+
+    @InjectMocks
+    MaintenanceJobService service;
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private MaintenanceJob job(String instance, TaskType type, String table) {
+        return new MaintenanceJob("job-" + ids.incrementAndGet(), instance, type, "public", table,
+                Instant.now().plusMillis(ids.get()));
+    }
+
+    @Test
+    @DisplayName("Runs one job per instance at a time, in submission order")
+    void perInstanceLimit() {
+        service.workers = 4;
+        service.maxPerInstance = 1;
+        MaintenanceJob a1 = job("a", TaskType.VACUUM, "orders");
+        MaintenanceJob a2 = job("a", TaskType.ANALYSE, "orders");
+        MaintenanceJob b1 = job("b", TaskType.VACUUM, "orders");
+        service.enqueue(a1);
+        service.enqueue(a2);
+        service.enqueue(b1);
+
+        assertThat(service.takeRunnable()).containsExactly(a1, b1);
+        assertThat(service.takeRunnable()).isEmpty();
+
+        service.release(a1);
+        assertThat(service.takeRunnable()).containsExactly(a2);
+        assertThat(service.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Runs no more jobs than there are workers")
+    void workerLimit() {
+        service.workers = 1;
+        service.maxPerInstance = 2;
+        MaintenanceJob first = job("a", TaskType.VACUUM, "orders");
+        MaintenanceJob second = job("b", TaskType.VACUUM, "orders");
+        service.enqueue(first);
+        service.enqueue(second);
+
+        assertThat(service.takeRunnable()).containsExactly(first);
+        assertThat(service.takeRunnable()).isEmpty();
+
+        service.release(first);
+        assertThat(service.takeRunnable()).containsExactly(second);
+    }
+
+    @Test
+    @DisplayName("A job needing a maintenance window waits for one without holding up other instances")
+    void waitsForWindow() {
+        MaintenanceJob gated = job("a", TaskType.VACUUM_FULL, "orders");
+        gated.setRequireWindow(true);
+        MaintenanceJob other = job("b", TaskType.VACUUM, "orders");
+        service.enqueue(gated);
+        service.enqueue(other);
+        when(windowRepository.isOpenFor("a")).thenReturn(false, true);
+
+        assertThat(service.takeRunnable()).containsExactly(other);
+        assertThat(service.takeRunnable()).containsExactly(gated);
+    }
+
+    @Test
+    @DisplayName("A job needing a window waits if the windows cannot be read")
+    void windowReadFailure() {
+        MaintenanceJob gated = job("a", TaskType.VACUUM, "orders");
+        gated.setRequireWindow(true);
+        service.enqueue(gated);
+        when(windowRepository.isOpenFor("a")).thenThrow(new RuntimeException("metadata down"));
+
+        assertThat(service.takeRunnable()).isEmpty();
+        assertThat(service.queued()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Rejects a command that needs a table it was not given")
+    void rejectsClusterWithoutTable() {
+        assertThatThrownBy(() -> service.submit(job("a", TaskType.CLUSTER, null)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.queued()).isZero();
+    }
+
+    @Test
+    @DisplayName("Rejects waiting for a window without the schema")
+    void rejectsWindowWithoutSchema() {
+        MaintenanceJob gated = job("a", TaskType.VACUUM, "orders");
+        gated.setRequireWindow(true);
+
+        assertThatThrownBy(() -> service.submit(gated)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Refuses jobs once the queue is full")
+    void queueFull() {
+        service.queueCapacity = 2;
+        service.submit(job("a", TaskType.VACUUM, "orders"));
+        service.submit(job("a", TaskType.VACUUM, "items"));
+
+        assertThatThrownBy(() -> service.submit(job("a", TaskType.VACUUM, "users")))
+                .isInstanceOf(ServiceUnavailableException.class);
+        assertThat(service.queued()).isEqualTo(2);
+        verify(jobRepository, never()).insert(any(), any());
+    }
+
+    @Test
+    @DisplayName("Records submitted jobs when the queue is durable")
+    void durableSubmit() {
+        service.durable = true;
+        when(clusterCoordinator.replicaId()).thenReturn("replica-1");
+        MaintenanceJob job = job("a", TaskType.ANALYSE, "orders");
+
+        service.submit(job);
+
+        verify(jobRepository).insert(job, "replica-1");
+        assertThat(service.getJob(job.getId())).isSameAs(job);
+    }
+
+    @Test
+    @DisplayName("Cancelling a queued job removes it and finishes it as cancelled")
+    void cancelQueued() {
+        MaintenanceJob job = job("a", TaskType.VACUUM, "orders");
+        service.enqueue(job);
+
+        assertThat(service.cancel(job)).isTrue();
+
+        assertThat(job.getStatus()).isEqualTo(Status.CANCELLED);
+        assertThat(job.completion()).isDone();
+        assertThat(service.takeRunnable()).isEmpty();
+        assertThat(service.cancel(job)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reads progress from the view reporting each command")
+    void progressViews() {
+        assertThat(MaintenanceJobService.progressQuery(job("a", TaskType.VACUUM, "t")))
+                .contains("pg_stat_progress_vacuum");
+        assertThat(MaintenanceJobService.progressQuery(job("a", TaskType.VACUUM_FULL, "t")))
+                .contains("pg_stat_progress_cluster");
+        assertThat(MaintenanceJobService.progressQuery(job("a", TaskType.CLUSTER, "t")))
+                .contains("pg_stat_progress_cluster");
+        assertThat(MaintenanceJobService.progressQuery(job("a", TaskType.ANALYSE, "t")))
+                .contains("pg_stat_progress_analyze");
+        assertThat(MaintenanceJobService.progressQuery(job("a", TaskType.REINDEX, "t")))
+                .contains("pg_stat_progress_create_index");
+    }
+
+    @Test
+    @DisplayName("Lists an instance's jobs, most recent first")
+    void listsJobs() {
+        MaintenanceJob older = job("a", TaskType.VACUUM, "orders");
+        MaintenanceJob newer = job("a", TaskType.ANALYSE, "orders");
+        MaintenanceJob elsewhere = job("b", TaskType.VACUUM, "orders");
+        service.enqueue(older);
+        service.enqueue(newer);
+        service.enqueue(elsewhere);
+
+        assertThat(service.getJobs("a")).containsExactly(newer, older);
+        assertThat(service.getJobs(null)).hasSize(3);
+    }
+}
@@ -0,0 +1,133 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.AggregatedMetrics;
+import com.bovinemagnet.pgconsole.model.DatabaseMetricsHistory;
+import com.bovinemagnet.pgconsole.model.LiveChartHistoryPoint;
+import com.bovinemagnet.pgconsole.repository.HistoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the window aggregation of {@link MetricsHistoryBridgeService}.
+ * <p>
+ * Tests that persisted windows are aggregated by the repository and that
+ * in-memory windows are folded without touching it.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MetricsHistoryBridgeService aggregation")
+class MetricsHistoryBridgeServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant END = START.plusSeconds(3600);
+
+    @Mock
+    HistoryRepository historyRepository;
+
+    @Mock
+    InstanceConfig config;
+
+    @Mock
+    InstanceConfig.SchemaConfig schemaConfig;
+
+    @Mock
+    InstanceConfig.HistoryConfig historyConfig;
+
+    @InjectMocks
+    MetricsHistoryBridgeService bridgeService;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(config.schema()).thenReturn(schemaConfig);
+        lenient().when(config.history()).thenReturn(historyConfig);
+    }
+
+    private static DatabaseMetricsHistory counters(Instant sampledAt, long commits, long inserted) {
+        DatabaseMetricsHistory m = new DatabaseMetricsHistory();
+        m.setSampledAt(sampledAt);
+        m.setXactCommit(commits);
+        m.setXactRollback(0);
+        m.setTupInserted(inserted);
+        return m;
+    }
+
+    private static LiveChartHistoryPoint point(Instant sampledAt, double active, double commits) {
+        return new LiveChartHistoryPoint(sampledAt, active, 10.0, 2.0, commits, 0.0,
+                0.0, 0.0, 0.0, 99.0, 98.0);
+    }
+
+    @Test
+    @DisplayName("Aggregates persisted windows in the repository and derives rates from the bounds")
+    void persisted() {
+        when(schemaConfig.enabled()).thenReturn(true);
+        when(historyConfig.enabled()).thenReturn(true);
+        AggregatedMetrics averages = new AggregatedMetrics();
+        averages.setSampleCount(60);
+        averages.setAvgActiveQueries(4.5);
+        when(historyRepository.aggregateSystemMetrics("db", START, END)).thenReturn(averages);
+        when(historyRepository.getDatabaseCounterBounds("db", START, END)).thenReturn(List.of(
+                counters(START, 1_000, 500), counters(START.plusSeconds(100), 6_000, 700)));
+
+        AggregatedMetrics agg = bridgeService.getAggregatedMetrics("db", START, END);
+
+        assertThat(agg.getSampleCount()).isEqualTo(60);
+        assertThat(agg.getAvgActiveQueries()).isEqualTo(4.5);
+        assertThat(agg.getAvgCommitRate()).isEqualTo(50.0);
+        assertThat(agg.getAvgInsertRate()).isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Skips the counter query for an empty persisted window")
+    void persistedEmpty() {
+        when(schemaConfig.enabled()).thenReturn(true);
+        when(historyConfig.enabled()).thenReturn(true);
+        when(historyRepository.aggregateSystemMetrics("db", START, END)).thenReturn(new AggregatedMetrics());
+
+        AggregatedMetrics agg = bridgeService.getAggregatedMetrics("db", START, END);
+
+        assertThat(agg.getSampleCount()).isZero();
+        verify(historyRepository, never()).getDatabaseCounterBounds(anyString(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Folds in-memory points when history is not persisted")
+    void inMemory() {
+        when(schemaConfig.enabled()).thenReturn(false);
+        LiveChartHistoryStore store = new LiveChartHistoryStore();
+        store.addPoint("db", point(START.minusSeconds(5), 100.0, 0.0));
+        store.addPoint("db", point(START, 2.0, 1_000.0));
+        store.addPoint("db", point(START.plusSeconds(10), 4.0, 1_500.0));
+        store.addPoint("db", point(START.plusSeconds(20), 6.0, 2_000.0));
+        bridgeService.liveChartHistoryStore = store;
+
+        AggregatedMetrics agg = bridgeService.getAggregatedMetrics("db", START, END);
+
+        assertThat(agg.getSampleCount()).isEqualTo(3);
+        assertThat(agg.getAvgActiveQueries()).isEqualTo(4.0);
+        assertThat(agg.getAvgTotalConnections()).isEqualTo(16.0);
+        assertThat(agg.getAvgCacheHitRatio()).isCloseTo(99.0, within(1e-9));
+        assertThat(agg.getAvgCommitRate()).isEqualTo(50.0);
+        verifyNoInteractions(historyRepository);
+    }
+}
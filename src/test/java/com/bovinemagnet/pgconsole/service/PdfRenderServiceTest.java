@@ -0,0 +1,205 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.service.PdfRenderService.Job;
+import com.bovinemagnet.pgconsole.service.PdfRenderService.Status;
+import jakarta.ws.rs.ServiceUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Tests the bounded queue, memory admission, job lifecycle and download
+ * claims of {@link PdfRenderService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PdfRenderService")
+class PdfRenderServiceTest {
+
+    private static final byte[] DOCUMENT = "%PDF-1.4 test".getBytes(StandardCharsets.US_ASCII);
+
+    @Mock
+    PdfExportService pdfExportService;
+
+    @InjectMocks
+    PdfRenderService renderService;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        renderService.syncWait = Duration.ofSeconds(5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        renderService.shutdown();
+    }
+
+    @Test
+    @DisplayName("Renders to a temporary file that is deleted once discarded")
+    void rendersToFile() throws Exception {
+        renderWith(false);
+        renderService.start();
+
+        Job job = renderService.await(renderService.submit("report.pdf", "<html/>"));
+
+        assertThat(job.getStatus()).isEqualTo(Status.DONE);
+        assertThat(job.getSizeBytes()).isEqualTo(DOCUMENT.length);
+        try (InputStream in = job.openStream()) {
+            assertThat(in.readAllBytes()).isEqualTo(DOCUMENT);
+        }
+        assertThat(renderService.getJob(job.getId())).isSameAs(job);
+
+        renderService.discard(job);
+
+        assertThat(renderService.getJob(job.getId())).isNull();
+        assertThatThrownBy(job::openStream).isInstanceOf(IOException.class);
+    }
+
+    @Test
+    @DisplayName("A document is claimed for download only once")
+    void claimsOnce() throws Exception {
+        renderWith(true);
+        renderService.start();
+        Job job = renderService.submit("report.pdf", "<html/>");
+
+        assertThat(renderService.claim(job)).isFalse();
+
+        release.countDown();
+        renderService.await(job);
+
+        assertThat(renderService.claim(job)).isTrue();
+        assertThat(renderService.claim(job)).isFalse();
+        renderService.discard(job);
+        assertThat(renderService.getJob(job.getId())).isNull();
+    }
+
+    @Test
+    @DisplayName("Waiting for a job completes with it still rendering once the wait elapses")
+    void whenFinishedTimesOut() throws Exception {
+        renderWith(true);
+        renderService.syncWait = Duration.ofMillis(50);
+        renderService.start();
+        Job job = renderService.submit("report.pdf", "<html/>");
+
+        assertThat(renderService.whenFinished(job).get(5, TimeUnit.SECONDS).isFinished()).isFalse();
+        assertThat(job.completion()).isNotDone();
+
+        release.countDown();
+        assertThat(job.completion().get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(Status.DONE);
+    }
+
+    @Test
+    @DisplayName("Refuses jobs beyond the memory budget until memory is released")
+    void memoryAdmission() throws Exception {
+        renderWith(true);
+        renderService.workers = 4;
+        renderService.memoryBudgetBytes = 2 * PdfRenderService.MIN_JOB_BYTES;
+        renderService.start();
+
+        Job first = renderService.submit("a.pdf", "<html/>");
+        renderService.submit("b.pdf", "<html/>");
+
+        assertThatThrownBy(() -> renderService.submit("c.pdf", "<html/>"))
+            .isInstanceOf(ServiceUnavailableException.class)
+            .hasMessageContaining("memory");
+
+        release.countDown();
+        first.completion().get(5, TimeUnit.SECONDS);
+        assertThat(renderService.await(renderService.submit("d.pdf", "<html/>")).getStatus()).isEqualTo(Status.DONE);
+    }
+
+    @Test
+    @DisplayName("A document larger than the budget reserves the whole budget")
+    void oversizedDocument() {
+        renderService.memoryBudgetBytes = 64L * 1024 * 1024;
+        renderService.start();
+
+        assertThat(renderService.reservationKib(10)).isEqualTo((int) (PdfRenderService.MIN_JOB_BYTES / 1024));
+        assertThat(renderService.reservationKib(1_000_000)).isEqualTo((int) (1_000_000 * PdfRenderService.BYTES_PER_HTML_CHAR / 1024));
+        assertThat(renderService.reservationKib(100_000_000)).isEqualTo(64 * 1024);
+    }
+
+    @Test
+    @DisplayName("Refuses jobs once every worker is busy and the queue is full")
+    void boundedQueue() throws Exception {
+        renderWith(true);
+        renderService.workers = 1;
+        renderService.queueCapacity = 1;
+        renderService.start();
+
+        Job running = renderService.submit("a.pdf", "<html/>");
+        running.started().get(5, TimeUnit.SECONDS);
+        Job queued = renderService.submit("b.pdf", "<html/>");
+
+        assertThat(queued.getStatus()).isEqualTo(Status.QUEUED);
+        assertThat(renderService.inFlight()).isEqualTo(2);
+        assertThatThrownBy(() -> renderService.submit("c.pdf", "<html/>"))
+            .isInstanceOf(ServiceUnavailableException.class)
+            .hasMessageContaining("Too many");
+    }
+
+    @Test
+    @DisplayName("Failed renders report their error and free their reservation")
+    void failedRender() throws Exception {
+        doThrow(new IOException("bad markup")).when(pdfExportService).renderPdf(anyString(), any(OutputStream.class));
+        renderService.memoryBudgetBytes = PdfRenderService.MIN_JOB_BYTES;
+        renderService.start();
+
+        Job job = renderService.await(renderService.submit("a.pdf", "<html>"));
+
+        assertThat(job.getStatus()).isEqualTo(Status.FAILED);
+        assertThat(job.getError()).isEqualTo("bad markup");
+        assertThatThrownBy(job::openStream).isInstanceOf(IOException.class);
+        // The whole budget is free again
+        assertThat(renderService.await(renderService.submit("b.pdf", "<html>")).isFinished()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Expired jobs are evicted")
+    void evictsExpiredJobs() throws Exception {
+        renderWith(false);
+        renderService.start();
+        Job job = renderService.await(renderService.submit("a.pdf", "<html/>"));
+
+        renderService.resultTtl = Duration.ofSeconds(-1);
+        renderService.evictExpired();
+
+        assertThat(renderService.getJob(job.getId())).isNull();
+        assertThatThrownBy(job::openStream).isInstanceOf(IOException.class);
+    }
+
+    private void renderWith(boolean blockUntilReleased) throws IOException {
+        doAnswer(invocation -> {
+            if (blockUntilReleased) {
+                release.await(5, TimeUnit.SECONDS);
+            }
+            invocation.<OutputStream>getArgument(1).write(DOCUMENT);
+            return null;
+        }).when(pdfExportService).renderPdf(anyString(), any(OutputStream.class));
+    }
+}
@@ -0,0 +1,117 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Source;
+import com.bovinemagnet.pgconsole.service.ResponseVersionService.Validator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the response versions and validators of {@link ResponseVersionService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("ResponseVersionService")
+class ResponseVersionServiceTest {
+
+    private static final String TABLES = "/api/v1/tables{instance=[prod]}";
+
+    private ResponseVersionService versions;
+    private SimpleMeterRegistry registry;
+    private final AtomicLong now = new AtomicLong(1_700_000_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        versions = new ResponseVersionService();
+        versions.config = mock(InstanceConfig.class, RETURNS_DEEP_STUBS);
+        when(versions.config.conditionalGet().maxAgeSeconds()).thenReturn(30);
+        versions.meterRegistry = registry;
+        versions.clock = now::get;
+        versions.init();
+    }
+
+    @Test
+    @DisplayName("A validator is stable until one of its sources is refreshed")
+    void stableUntilRefreshed() {
+        versions.bump(Source.SAMPLES, "prod");
+        Validator first = versions.validator(TABLES, "prod", Source.SAMPLES);
+        now.addAndGet(1_000);
+
+        assertThat(versions.validator(TABLES, "prod", Source.SAMPLES)).isEqualTo(first);
+
+        versions.bump(Source.RECOMMENDATIONS, "prod");
+        versions.bump(Source.SAMPLES, "staging");
+        assertThat(versions.validator(TABLES, "prod", Source.SAMPLES).tag())
+            .as("other sources and other instances")
+            .isEqualTo(first.tag());
+
+        now.addAndGet(1_000);
+        versions.bump(Source.SAMPLES, "prod");
+        Validator refreshed = versions.validator(TABLES, "prod", Source.SAMPLES);
+        assertThat(refreshed.tag()).isNotEqualTo(first.tag());
+        assertThat(refreshed.lastModifiedMillis()).isEqualTo(now.get());
+    }
+
+    @Test
+    @DisplayName("Validators expire after the maximum age without a refresh")
+    void expiresAfterMaxAge() {
+        Validator first = versions.validator(TABLES, "prod", Source.SAMPLES);
+
+        now.addAndGet(30_000);
+
+        assertThat(versions.validator(TABLES, "prod", Source.SAMPLES).tag()).isNotEqualTo(first.tag());
+    }
+
+    @Test
+    @DisplayName("Unversioned instance aliases follow the latest refresh of any instance")
+    void aliasFollowsLatest() {
+        Validator first = versions.validator(TABLES, "default", Source.SAMPLES);
+
+        versions.bump(Source.SAMPLES, "prod");
+
+        assertThat(versions.validator(TABLES, "default", Source.SAMPLES).tag()).isNotEqualTo(first.tag());
+    }
+
+    @Test
+    @DisplayName("If-None-Match is compared weakly and takes precedence over If-Modified-Since")
+    void matchesConditionalHeaders() {
+        versions.bump(Source.SAMPLES, "prod");
+        Validator validator = versions.validator(TABLES, "prod", Source.SAMPLES);
+
+        assertThat(validator.etag()).startsWith("W/\"").endsWith("\"");
+        assertThat(validator.matches(validator.etag(), null)).isTrue();
+        assertThat(validator.matches("\"other\", \"" + validator.tag() + "\"", null)).isTrue();
+        assertThat(validator.matches("*", null)).isTrue();
+        assertThat(validator.matches("W/\"other\"", validator.lastModified())).isFalse();
+
+        assertThat(validator.matches(null, validator.lastModified())).isTrue();
+        assertThat(validator.matches(null, "Thu, 01 Jan 1970 00:00:00 GMT")).isFalse();
+        assertThat(validator.matches(null, "yesterday")).isFalse();
+        assertThat(validator.matches(null, null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Hits and misses are counted per route")
+    void countsHitsAndMisses() {
+        versions.recordHit("ApiResource.getTables");
+        versions.recordHit("ApiResource.getTables");
+        versions.recordMiss("ApiResource.getTables");
+        versions.recordMiss("ApiResource.getOverview");
+
+        assertThat(registry.counter(ResponseVersionService.REQUESTS_METRIC,
+            "route", "ApiResource.getTables", "outcome", "hit").count()).isEqualTo(2.0);
+        assertThat(versions.getHitRatio()).isEqualTo(0.5);
+        assertThat(registry.get(ResponseVersionService.HIT_RATIO_METRIC).gauge().value()).isEqualTo(0.5);
+    }
+}
@@ -0,0 +1,123 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.SystemMetricsHistory;
+import com.bovinemagnet.pgconsole.testutil.TestDataFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests sparkline render caching, batch rendering and pixel-width downsampling.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SparklineService caching and batching")
+class SparklineServiceCacheTest {
+
+    @Mock
+    InMemoryMetricsStore inMemoryMetricsStore;
+
+    @Mock
+    InstanceConfig config;
+
+    @Mock
+    InstanceConfig.SchemaConfig schemaConfig;
+
+    @InjectMocks
+    SparklineService sparklineService;
+
+    private List<SystemMetricsHistory> history;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(config.schema()).thenReturn(schemaConfig);
+        lenient().when(schemaConfig.enabled()).thenReturn(false);
+        history = TestDataFactory.createSystemMetricsSeries(50, Instant.parse("2026-01-01T00:00:00Z"),
+                Duration.ofSeconds(30), 42L);
+        lenient().when(inMemoryMetricsStore.getSystemMetricsHistory(eq("db1"), anyInt())).thenReturn(history);
+    }
+
+    @Test
+    @DisplayName("A repeated render is served from the cache")
+    void repeatedRenderIsCached() {
+        String first = sparklineService.getConnectionsSparkline("db1", 1, 120, 30);
+        String second = sparklineService.getConnectionsSparkline("db1", 1, 120, 30);
+
+        assertThat(second).isEqualTo(first);
+        verify(inMemoryMetricsStore, times(1)).getSystemMetricsHistory("db1", 1);
+    }
+
+    @Test
+    @DisplayName("Invalidating an instance forces a fresh render")
+    void invalidateForcesRefetch() {
+        sparklineService.getConnectionsSparkline("db1", 1, 120, 30);
+        sparklineService.invalidate("db1");
+        sparklineService.getConnectionsSparkline("db1", 1, 120, 30);
+
+        verify(inMemoryMetricsStore, times(2)).getSystemMetricsHistory("db1", 1);
+    }
+
+    @Test
+    @DisplayName("Batch rendering fetches history once and matches the single-metric renders")
+    void batchSharesOneFetch() {
+        Map<String, String> batch = sparklineService.getSparklines("db1",
+                List.of("connections", "active-queries", "cache-hit-ratio", "no-such-metric"), 1, 120, 30);
+
+        assertThat(batch).containsOnlyKeys("connections", "active-queries", "cache-hit-ratio");
+        verify(inMemoryMetricsStore, times(1)).getSystemMetricsHistory("db1", 1);
+
+        // Single-metric calls are now cache hits with identical output
+        assertThat(sparklineService.getActiveQueriesSparkline("db1", 1, 120, 30))
+                .isEqualTo(batch.get("active-queries"));
+        verify(inMemoryMetricsStore, times(1)).getSystemMetricsHistory("db1", 1);
+    }
+
+    @Test
+    @DisplayName("A series longer than the width is downsampled to one point per pixel")
+    void longSeriesDownsampled() {
+        List<Double> values = new java.util.ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            values.add((double) (i % 37));
+        }
+
+        String svg = sparklineService.generateSparkline(values, 120, 30);
+
+        int segments = svg.split(" L ").length;
+        assertThat(segments).isEqualTo(120);
+    }
+
+    @Test
+    @DisplayName("Coordinates are rendered with two decimals")
+    void coordinatesHaveTwoDecimals() {
+        StringBuilder sb = new StringBuilder();
+        SparklineService.appendCoordinate(sb, 3.14159);
+        sb.append('|');
+        SparklineService.appendCoordinate(sb, 7.0);
+        sb.append('|');
+        SparklineService.appendCoordinate(sb, 0.05);
+        sb.append('|');
+        SparklineService.appendCoordinate(sb, -1.5);
+
+        assertThat(sb.toString()).isEqualTo("3.14|7.00|0.05|-1.50");
+    }
+}
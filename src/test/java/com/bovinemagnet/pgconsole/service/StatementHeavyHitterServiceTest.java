@@ -0,0 +1,125 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.StatementActivity;
+import com.bovinemagnet.pgconsole.model.StatementInterval;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the interval deltas, heavy-hitter selection and floors of
+ * {@link StatementHeavyHitterService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("StatementHeavyHitterService")
+class StatementHeavyHitterServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+
+    private final StatementHeavyHitterService service = new StatementHeavyHitterService();
+
+    private static Map<String, StatementActivity> counters(StatementActivity... statements) {
+        Map<String, StatementActivity> counters = new HashMap<>();
+        for (StatementActivity statement : statements) {
+            counters.put(statement.getQueryId(), statement);
+        }
+        return counters;
+    }
+
+    private static StatementActivity statement(String id, double timeMs, long calls, long ioBlocks) {
+        return new StatementActivity(id, timeMs, calls, ioBlocks);
+    }
+
+    private static StatementActivity kept(StatementInterval interval, String id) {
+        return interval.getHeavyHitters().stream()
+                .filter(statement -> statement.getQueryId().equals(id))
+                .findFirst()
+                .orElse(null);
+    }
+
+    @Test
+    @DisplayName("The first sample only records the counters")
+    void firstSample() {
+        assertThat(service.advance("db", START, counters(statement("a", 100, 10, 5)), 2)).isNull();
+    }
+
+    @Test
+    @DisplayName("Computes what each statement did since the previous sample")
+    void deltas() {
+        service.advance("db", START, counters(statement("old", 5000, 500, 50), statement("idle", 10, 1, 0)), 2);
+
+        StatementInterval interval = service.advance("db", START.plusSeconds(60),
+                counters(statement("old", 5100, 510, 52), statement("idle", 10, 1, 0),
+                        statement("new", 900, 3, 40)), 2);
+
+        assertThat(interval.getIntervalSeconds()).isEqualTo(60.0);
+        assertThat(interval.getStatements()).isEqualTo(2);
+        assertThat(interval.getTotals().getTimeMs()).isEqualTo(1000.0);
+        assertThat(interval.getTotals().getCalls()).isEqualTo(13);
+        assertThat(interval.getTotals().getIoBlocks()).isEqualTo(42);
+        // The statement with the most cumulative time did less than the new one
+        assertThat(kept(interval, "new").getTimeMs()).isEqualTo(900.0);
+        assertThat(kept(interval, "old").getTimeMs()).isEqualTo(100.0);
+        assertThat(kept(interval, "idle")).isNull();
+    }
+
+    @Test
+    @DisplayName("Treats a statement whose calls went down as reset")
+    void reset() {
+        service.advance("db", START, counters(statement("a", 5000, 500, 50)), 2);
+
+        StatementInterval interval = service.advance("db", START.plusSeconds(60),
+                counters(statement("a", 40, 4, 1)), 2);
+
+        assertThat(kept(interval, "a").getCalls()).isEqualTo(4);
+        assertThat(kept(interval, "a").getTimeMs()).isEqualTo(40.0);
+    }
+
+    @Test
+    @DisplayName("Keeps the top statements per metric, with floors taken from statements no metric kept")
+    void floors() {
+        service.advance("db", START, counters(), 1);
+
+        StatementInterval interval = service.advance("db", START.plusSeconds(60), counters(
+                statement("slow", 900, 1, 0),
+                statement("chatty", 50, 400, 0),
+                statement("scan", 300, 2, 8000),
+                statement("quiet", 10, 3, 5)), 1);
+
+        assertThat(interval.getHeavyHitters()).extracting(StatementActivity::getQueryId)
+                .containsExactlyInAnyOrder("slow", "chatty", "scan");
+        // scan is second by time but kept for its I/O, so quiet gives the time floor
+        assertThat(interval.getFloors().getTimeMs()).isEqualTo(10.0);
+        assertThat(interval.getFloors().getCalls()).isEqualTo(3);
+        assertThat(interval.getFloors().getIoBlocks()).isEqualTo(5);
+    }
+
+    @Test
+    @DisplayName("Has no floor when every active statement is kept")
+    void noFloor() {
+        service.advance("db", START, counters(), 5);
+
+        StatementInterval interval = service.advance("db", START.plusSeconds(60),
+                counters(statement("a", 10, 1, 0), statement("b", 20, 2, 0)), 5);
+
+        assertThat(interval.getHeavyHitters()).hasSize(2);
+        assertThat(interval.getFloors().getTimeMs()).isZero();
+        assertThat(interval.getFloors().getIoBlocks()).isZero();
+    }
+
+    @Test
+    @DisplayName("Starts afresh after forgetting an instance")
+    void forget() {
+        service.advance("db", START, counters(statement("a", 100, 10, 5)), 2);
+        service.forget("db");
+
+        assertThat(service.advance("db", START.plusSeconds(60), counters(statement("a", 200, 20, 5)), 2)).isNull();
+    }
+}
@@ -0,0 +1,140 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.model.RelationCatalog;
+import com.bovinemagnet.pgconsole.model.TablePage;
+import com.bovinemagnet.pgconsole.model.TableStats;
+import com.bovinemagnet.pgconsole.service.TableBrowserService.Sort;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests sorting, searching and keyset pagination in {@link TableBrowserService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TableBrowserService paging")
+class TableBrowserServiceTest {
+
+    @Mock
+    CatalogSnapshotService catalogSnapshotService;
+
+    @InjectMocks
+    TableBrowserService service;
+
+    /**
+     * Tables t000 to t(count-1), even ones in sales and odd ones in billing, with
+     * sizes repeating every ten so the sort has ties, followed by extra tables
+     * given as {@code schema.table}.
+     */
+    private static RelationCatalog catalog(int count, String... extras) {
+        RelationCatalog.Builder builder = RelationCatalog.builder(count + extras.length, 0);
+        for (int i = 0; i < count; i++) {
+            builder.addTable(1000 + i, i % 2 == 0 ? "sales" : "billing", String.format("t%03d", i))
+                    .sizes(0, (i % 10) * 1024L)
+                    .tuples(100, i, 0);
+        }
+        for (int i = 0; i < extras.length; i++) {
+            String[] name = extras[i].split("\\.");
+            builder.addTable(5000 + i, name[0], name[1]);
+        }
+        return builder.build(0, 0);
+    }
+
+    private static List<String> names(List<TableStats> tables) {
+        return tables.stream().map(t -> t.getSchemaName() + "." + t.getTableName()).toList();
+    }
+
+    @Test
+    @DisplayName("Following cursors visits every table once in sort order")
+    void pagesCoverAllTables() {
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(95));
+
+        List<TableStats> seen = new ArrayList<>();
+        String after = null;
+        int pages = 0;
+        do {
+            TablePage page = service.browse("default", Sort.SIZE, null, null, after, 20);
+            seen.addAll(page.getTables());
+            after = page.getNextCursor();
+            pages++;
+        } while (after != null);
+
+        assertThat(pages).isEqualTo(5);
+        assertThat(seen).hasSize(95);
+        assertThat(names(seen)).doesNotHaveDuplicates();
+        assertThat(seen).extracting(TableStats::getTotalSizeBytes)
+                .isSortedAccordingTo((a, b) -> Long.compare(b, a));
+    }
+
+    @Test
+    @DisplayName("Search matches a substring of schema.table, ignoring case")
+    void searchFiltersAndCounts() {
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(40));
+
+        TablePage page = service.browse("default", Sort.NAME, null, "  BILLING.T01", null, 3);
+
+        assertThat(page.getMatchCount()).isEqualTo(5);
+        assertThat(names(page.getTables())).containsExactly("billing.t011", "billing.t013", "billing.t015");
+        TablePage next = service.browse("default", Sort.NAME, null, page.getSearch(), page.getNextCursor(), 3);
+        assertThat(names(next.getTables())).containsExactly("billing.t017", "billing.t019");
+        assertThat(next.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Sort direction can be reversed")
+    void reverseDirection() {
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(30));
+
+        TablePage page = service.browse("default", Sort.TUPLES, "asc", null, null, 3);
+
+        assertThat(page.isDescending()).isFalse();
+        assertThat(page.getTables()).extracting(TableStats::getnDeadTup).containsExactly(0L, 1L, 2L);
+    }
+
+    @Test
+    @DisplayName("A cursor keeps its place when the snapshot gains a table")
+    void cursorSurvivesReload() {
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(10));
+        TablePage first = service.browse("default", Sort.NAME, "asc", null, null, 4);
+        assertThat(names(first.getTables()))
+                .containsExactly("billing.t001", "billing.t003", "billing.t005", "billing.t007");
+
+        // billing.t000 sorts before the cursor, billing.t008 after it
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(10, "billing.t000", "billing.t008"));
+        TablePage second = service.browse("default", Sort.NAME, "asc", null, first.getNextCursor(), 4);
+
+        assertThat(names(second.getTables()))
+                .containsExactly("billing.t008", "billing.t009", "sales.t000", "sales.t002");
+    }
+
+    @Test
+    @DisplayName("A malformed cursor, or one issued for another sort or direction, is rejected")
+    void badCursor() {
+        when(catalogSnapshotService.getCatalog("default")).thenReturn(catalog(10));
+        String nameCursor = service.browse("default", Sort.NAME, null, null, null, 2).getNextCursor();
+        String sizeCursor = service.browse("default", Sort.SIZE, null, null, null, 2).getNextCursor();
+
+        assertThatThrownBy(() -> service.browse("default", Sort.SIZE, null, null, "not-a-cursor", 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.browse("default", Sort.SIZE, null, null, nameCursor, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.browse("default", Sort.TUPLES, null, null, sizeCursor, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> service.browse("default", Sort.SIZE, "asc", null, sizeCursor, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(service.browse("default", Sort.SIZE, "desc", null, sizeCursor, 2).isFirstPage()).isFalse();
+    }
+}
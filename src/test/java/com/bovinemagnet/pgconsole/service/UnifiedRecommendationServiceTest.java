@@ -0,0 +1,195 @@
+package com.bovinemagnet.pgconsole.service;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.DetectedAnomaly;
+import com.bovinemagnet.pgconsole.model.UnifiedRecommendation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests concurrent collection, per-source caching and deadlines in
+ * {@link UnifiedRecommendationService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UnifiedRecommendationService collection and caching")
+class UnifiedRecommendationServiceTest {
+
+    @Mock
+    InstanceConfig config;
+
+    @Mock
+    InstanceConfig.RecommendationsConfig recommendationsConfig;
+
+    @Mock
+    DataSourceManager dataSourceManager;
+
+    @Mock
+    IndexAdvisorService indexAdvisorService;
+
+    @Mock
+    TableMaintenanceService tableMaintenanceService;
+
+    @Mock
+    QueryRegressionService queryRegressionService;
+
+    @Mock
+    AnomalyDetectionService anomalyDetectionService;
+
+    @Mock
+    ResponseVersionService responseVersionService;
+
+    @InjectMocks
+    UnifiedRecommendationService service;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @BeforeEach
+    void setUp() {
+        when(config.recommendations()).thenReturn(recommendationsConfig);
+        when(recommendationsConfig.collectorThreads()).thenReturn(4);
+        when(recommendationsConfig.sources()).thenReturn(Map.of());
+        service.init();
+        service.clock = now::get;
+        lenient().when(indexAdvisorService.getRecommendations(anyString())).thenReturn(List.of());
+        lenient().when(tableMaintenanceService.getRecommendations(anyString())).thenReturn(List.of());
+        lenient().when(queryRegressionService.detectRegressions(anyString(), anyInt(), anyInt())).thenReturn(List.of());
+        lenient().when(dataSourceManager.getDataSource(anyString())).thenThrow(new IllegalStateException("no database"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("All views on one page share a single collection")
+    void viewsShareOneSnapshot() {
+        when(anomalyDetectionService.getOpenAnomalies("db1"))
+            .thenReturn(List.of(anomaly("connections", DetectedAnomaly.Severity.HIGH)));
+
+        List<UnifiedRecommendation> all = service.getRecommendations("db1");
+        Map<UnifiedRecommendation.Severity, Integer> summary = service.getSummary("db1");
+        List<UnifiedRecommendation> top = service.getTopRecommendations("db1", 5);
+        List<UnifiedRecommendation> anomalies =
+            service.getRecommendationsBySource("db1", UnifiedRecommendation.Source.ANOMALY);
+
+        assertThat(all).hasSize(1);
+        assertThat(summary.get(UnifiedRecommendation.Severity.HIGH)).isEqualTo(1);
+        assertThat(top).hasSize(1);
+        assertThat(anomalies).extracting(UnifiedRecommendation::getTitle).containsExactly("Anomaly: connections");
+
+        verify(anomalyDetectionService, times(1)).getOpenAnomalies("db1");
+        verify(indexAdvisorService, times(1)).getRecommendations("db1");
+        verify(queryRegressionService, times(1)).detectRegressions("db1", 24, 50);
+    }
+
+    @Test
+    @DisplayName("A stale source is served while it is refreshed in the background")
+    void staleWhileRevalidate() {
+        when(anomalyDetectionService.getOpenAnomalies("db1"))
+            .thenReturn(List.of(anomaly("connections", DetectedAnomaly.Severity.HIGH)))
+            .thenReturn(List.of());
+
+        assertThat(service.getRecommendations("db1")).hasSize(1);
+
+        // Past the anomaly TTL but within its stale window
+        UnifiedRecommendationService.SourcePolicy policy =
+            service.policies.get(UnifiedRecommendation.Source.ANOMALY);
+        now.addAndGet(policy.ttlMillis() + 1);
+
+        assertThat(service.getRecommendations("db1")).hasSize(1);
+        verify(anomalyDetectionService, timeout(2_000).times(2)).getOpenAnomalies("db1");
+    }
+
+    @Test
+    @DisplayName("A source that misses its deadline does not hold up the others")
+    void slowSourceMissesDeadline() {
+        service.policies.put(UnifiedRecommendation.Source.ANOMALY,
+            new UnifiedRecommendationService.SourcePolicy(60_000, 300_000, 50));
+        when(anomalyDetectionService.getOpenAnomalies("db1")).thenAnswer(invocation -> {
+            Thread.sleep(1_000);
+            return List.of(anomaly("connections", DetectedAnomaly.Severity.HIGH));
+        });
+
+        long started = System.nanoTime();
+        List<UnifiedRecommendation> recommendations = service.getRecommendations("db1");
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+
+        assertThat(recommendations).isEmpty();
+        assertThat(elapsedMillis).isLessThan(900);
+    }
+
+    @Test
+    @DisplayName("A failing source contributes nothing and is not retried within its TTL")
+    void failingSourceIsCachedAsEmpty() {
+        when(anomalyDetectionService.getOpenAnomalies("db1")).thenThrow(new IllegalStateException("boom"));
+
+        assertThat(service.getRecommendations("db1")).isEmpty();
+        assertThat(service.getRecommendations("db1")).isEmpty();
+
+        verify(anomalyDetectionService, times(1)).getOpenAnomalies("db1");
+    }
+
+    @Test
+    @DisplayName("An invalidated source is collected afresh within its TTL")
+    void invalidateSource() {
+        when(anomalyDetectionService.getOpenAnomalies("db1"))
+            .thenReturn(List.of(anomaly("connections", DetectedAnomaly.Severity.HIGH)))
+            .thenReturn(List.of());
+
+        assertThat(service.getRecommendations("db1")).hasSize(1);
+        service.invalidate("db1", UnifiedRecommendation.Source.ANOMALY);
+
+        assertThat(service.getRecommendations("db1")).isEmpty();
+        verify(anomalyDetectionService, times(2)).getOpenAnomalies("db1");
+        verify(indexAdvisorService, times(1)).getRecommendations("db1");
+    }
+
+    @Test
+    @DisplayName("Policies come from each source's configuration, or the defaults")
+    void policiesFromConfiguration() {
+        InstanceConfig.RecommendationSourceConfig anomalySource = mock(InstanceConfig.RecommendationSourceConfig.class);
+        when(anomalySource.ttlSeconds()).thenReturn(60);
+        when(anomalySource.maxStaleSeconds()).thenReturn(300);
+        when(anomalySource.deadlineMs()).thenReturn(5_000);
+        when(recommendationsConfig.sources()).thenReturn(Map.of("anomaly", anomalySource));
+
+        Map<UnifiedRecommendation.Source, UnifiedRecommendationService.SourcePolicy> policies =
+            UnifiedRecommendationService.policiesOf(recommendationsConfig);
+
+        assertThat(policies.get(UnifiedRecommendation.Source.ANOMALY))
+            .isEqualTo(new UnifiedRecommendationService.SourcePolicy(60_000, 300_000, 5_000));
+        assertThat(policies.get(UnifiedRecommendation.Source.CONFIG_TUNING))
+            .isEqualTo(UnifiedRecommendationService.SourcePolicy.DEFAULTS);
+    }
+
+    private static DetectedAnomaly anomaly(String metric, DetectedAnomaly.Severity severity) {
+        DetectedAnomaly anomaly = new DetectedAnomaly();
+        anomaly.setMetricName(metric);
+        anomaly.setSeverity(severity);
+        return anomaly;
+    }
+}
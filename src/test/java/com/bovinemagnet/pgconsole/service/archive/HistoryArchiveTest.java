@@ -0,0 +1,195 @@
+package com.bovinemagnet.pgconsole.service.archive;
+
+import com.bovinemagnet.pgconsole.repository.HistoryRepository.HistoryTable;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.ColumnType;
+import com.bovinemagnet.pgconsole.service.archive.HistoryArchive.IndexEntry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for the columnar history archive format.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("HistoryArchive")
+class HistoryArchiveTest {
+
+    private static final Instant START = Instant.parse("2026-01-02T03:04:05Z");
+
+    private static final List<String> NAMES = List.of("sampled_at", "query_text", "total_calls", "mean_time_ms");
+    private static final List<ColumnType> TYPES =
+        List.of(ColumnType.TIMESTAMP, ColumnType.TEXT, ColumnType.LONG, ColumnType.DOUBLE);
+
+    @Test
+    @DisplayName("Column codecs round-trip irregular and extreme values")
+    void codecsRoundTrip() throws IOException {
+        long[] timestamps = {1_000_000L, 1_060_000L, 1_120_000L, 1_120_001L, 5_000_000_000L, -7L, Long.MAX_VALUE / 2};
+        assertThat(ColumnCodec.decodeTimestamps(ColumnCodec.encodeTimestamps(timestamps, timestamps.length),
+            timestamps.length)).containsExactly(timestamps);
+
+        double[] doubles = {1.5, 1.5, 1.75, -0.0, Double.NaN, Double.MAX_VALUE, Double.MIN_VALUE, 0.1 + 0.2};
+        double[] decodedDoubles = ColumnCodec.decodeDoubles(ColumnCodec.encodeDoubles(doubles, doubles.length),
+            doubles.length);
+        for (int i = 0; i < doubles.length; i++) {
+            assertThat(Double.doubleToRawLongBits(decodedDoubles[i])).isEqualTo(Double.doubleToRawLongBits(doubles[i]));
+        }
+
+        long[] longs = {0L, 10L, 5L, Long.MIN_VALUE, Long.MAX_VALUE, 42L};
+        assertThat(ColumnCodec.decodeLongs(ColumnCodec.encodeLongs(longs, longs.length), longs.length))
+            .containsExactly(longs);
+
+        String[] texts = {"SELECT 1", "SELECT 2", "SELECT 1", "", "SELECT 1 -- ünïcode"};
+        assertThat(ColumnCodec.decodeText(ColumnCodec.encodeText(texts, texts.length), texts.length))
+            .containsExactly(texts);
+    }
+
+    @Test
+    @DisplayName("Regular sample times and repeated text compress to a fraction of their size")
+    void regularSamplesCompress() {
+        long[] timestamps = new long[HistoryArchive.CHUNK_ROWS];
+        String[] texts = new String[HistoryArchive.CHUNK_ROWS];
+        for (int i = 0; i < timestamps.length; i++) {
+            timestamps[i] = 1_700_000_000_000_000L + i * 60_000_000L;
+            texts[i] = "SELECT * FROM orders WHERE customer_id = $" + (i % 4);
+        }
+
+        // One bit per steady sample against eight bytes uncompressed
+        assertThat(ColumnCodec.encodeTimestamps(timestamps, timestamps.length)).hasSizeLessThan(600);
+        // Four dictionary entries and one byte per row
+        assertThat(ColumnCodec.encodeText(texts, texts.length)).hasSizeLessThan(HistoryArchive.CHUNK_ROWS + 256);
+    }
+
+    @Test
+    @DisplayName("Chunks with nulls round-trip through an archive stream")
+    void streamRoundTrip() throws Exception {
+        HistoryChunk chunk = chunk("prod", 3);
+        appendRow(chunk, null, null, null, null);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HistoryArchiveWriter writer = new HistoryArchiveWriter(bytes);
+        writer.write(chunk);
+        writer.write(HistoryChunk.create(HistoryTable.QUERY.name(), "empty", NAMES, TYPES));
+        List<IndexEntry> index = writer.finish();
+
+        assertThat(index).hasSize(1);
+        HistoryArchiveReader reader = new HistoryArchiveReader(new ByteArrayInputStream(bytes.toByteArray()));
+        HistoryChunk decoded = reader.next();
+        assertThat(reader.next()).isNull();
+
+        assertThat(decoded.table()).isEqualTo("QUERY");
+        assertThat(decoded.instance()).isEqualTo("prod");
+        assertThat(decoded.columnNames()).isEqualTo(NAMES);
+        assertThat(decoded.rowCount()).isEqualTo(4);
+        for (int row = 0; row < 4; row++) {
+            assertThat(decoded.row(row)).containsExactly(chunk.row(row));
+        }
+        assertThat(decoded.row(1)).containsExactly(
+            Timestamp.from(START.plusSeconds(60)), "SELECT 1", 11L, 1.5);
+        assertThat(decoded.row(3)).containsOnlyNulls();
+    }
+
+    @Test
+    @DisplayName("Footer index locates chunks by instance and time")
+    void footerIndex(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("history." + HistoryArchive.FILE_EXTENSION);
+        HistoryChunk prod = chunk("prod", 10);
+        HistoryChunk staging = chunk("staging", 5);
+        try (var out = Files.newOutputStream(file)) {
+            HistoryArchiveWriter writer = new HistoryArchiveWriter(out);
+            writer.write(prod);
+            writer.write(staging);
+            writer.finish();
+        }
+
+        List<IndexEntry> index = HistoryArchiveReader.readIndex(file);
+
+        assertThat(index).extracting(IndexEntry::instance).containsExactly("prod", "staging");
+        IndexEntry entry = index.get(1);
+        assertThat(entry.rows()).isEqualTo(5);
+        assertThat(entry.minMicros()).isEqualTo(micros(0));
+        assertThat(entry.maxMicros()).isEqualTo(micros(240));
+        assertThat(entry.overlaps(micros(300), micros(600))).isFalse();
+        assertThat(entry.overlaps(micros(100), micros(200))).isTrue();
+
+        HistoryChunk decoded = HistoryArchiveReader.readChunk(file, entry);
+        assertThat(decoded.instance()).isEqualTo("staging");
+        assertThat(decoded.row(4)).containsExactly(staging.row(4));
+    }
+
+    @Test
+    @DisplayName("Truncated or foreign input is rejected")
+    void rejectsMalformedInput() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        HistoryArchiveWriter writer = new HistoryArchiveWriter(bytes);
+        writer.write(chunk("prod", 100));
+        writer.finish();
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() / 2);
+
+        assertThatThrownBy(() -> new HistoryArchiveReader(new ByteArrayInputStream(truncated)).next())
+            .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> new HistoryArchiveReader(new ByteArrayInputStream("id,name\n".getBytes())))
+            .isInstanceOf(IOException.class)
+            .hasMessageContaining("Not a history archive");
+    }
+
+    @Test
+    @DisplayName("Table lists are parsed case-insensitively and unknown names rejected")
+    void parsesTables() {
+        assertThat(HistoryArchiveService.parseTables(null)).containsExactlyInAnyOrder(HistoryTable.values());
+        assertThat(HistoryArchiveService.parseTables("Query, system"))
+            .containsExactlyInAnyOrder(HistoryTable.QUERY, HistoryTable.SYSTEM);
+        assertThatThrownBy(() -> HistoryArchiveService.parseTables("query,locks"))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("locks");
+    }
+
+    private static HistoryChunk chunk(String instance, int rows) throws Exception {
+        HistoryChunk chunk = HistoryChunk.create(HistoryTable.QUERY.name(), instance, NAMES, TYPES);
+        for (int i = 0; i < rows; i++) {
+            appendRow(chunk, Timestamp.from(START.plusSeconds(60L * i)), "SELECT " + (i % 2), 10L + i, 1.5 * (i % 3));
+        }
+        return chunk;
+    }
+
+    private static long micros(long secondsAfterStart) {
+        return HistoryChunk.toMicros(Timestamp.from(START.plusSeconds(secondsAfterStart)));
+    }
+
+    /**
+     * Appends one row through a minimal result set that serves the given values.
+     */
+    private static void appendRow(HistoryChunk chunk, Object... values) throws Exception {
+        boolean[] lastNull = new boolean[1];
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                if (method.getName().equals("wasNull")) {
+                    return lastNull[0];
+                }
+                Object value = values[(Integer) args[0] - 1];
+                lastNull[0] = value == null;
+                return switch (method.getName()) {
+                    case "getLong" -> value == null ? 0L : value;
+                    case "getDouble" -> value == null ? 0.0 : value;
+                    default -> value;
+                };
+            });
+        chunk.appendRow(rs, new int[] {1, 2, 3, 4});
+    }
+}
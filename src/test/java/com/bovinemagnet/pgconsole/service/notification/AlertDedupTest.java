@@ -46,8 +46,8 @@ class AlertDedupTest {
         ActiveAlert second = service.fireAlert("CPU", "HIGH", "cpu high", "prod", null);
 
         assertThat(second).isSameAs(first);
-        // save() and dispatch() happened exactly once — only for the first fire.
+        // save() and dispatchAsync() happened exactly once — only for the first fire.
         verify(service.alertRepository, times(1)).save(any());
-        verify(service.dispatcher, times(1)).dispatch(any());
+        verify(service.dispatcher, times(1)).dispatchAsync(any());
     }
 }
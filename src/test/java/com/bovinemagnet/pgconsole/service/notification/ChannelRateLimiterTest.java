@@ -0,0 +1,186 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.NotificationChannel;
+import com.bovinemagnet.pgconsole.repository.NotificationHistoryRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Tests the GCRA token buckets in {@link ChannelRateLimiter}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("ChannelRateLimiter")
+class ChannelRateLimiterTest {
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private ChannelRateLimiter limiter;
+    private SimpleMeterRegistry registry;
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        limiter = new ChannelRateLimiter();
+        limiter.config = mock(InstanceConfig.class, RETURNS_DEEP_STUBS);
+        limiter.historyRepository = mock(NotificationHistoryRepository.class);
+        limiter.meterRegistry = registry;
+        limiter.clock = now::get;
+    }
+
+    private NotificationChannel channel(long id, int perHour) {
+        NotificationChannel channel = new NotificationChannel("channel-" + id, NotificationChannel.ChannelType.SLACK);
+        channel.setId(id);
+        channel.setRateLimitPerHour(perHour);
+        return channel;
+    }
+
+    private int acquireAll(NotificationChannel channel, String alertType, int attempts) {
+        int allowed = 0;
+        for (int i = 0; i < attempts; i++) {
+            if (limiter.tryAcquire(channel, alertType)) {
+                allowed++;
+            }
+        }
+        return allowed;
+    }
+
+    @Test
+    @DisplayName("A channel may use its hourly limit at once, then refills at the hourly rate")
+    void hourlyLimitThenRefill() {
+        NotificationChannel channel = channel(1L, 60);
+
+        assertThat(acquireAll(channel, "CPU", 100)).isEqualTo(60);
+
+        now.addAndGet(MINUTE_NANOS);
+        assertThat(acquireAll(channel, "CPU", 5)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("A zero limit means unlimited")
+    void zeroLimitIsUnlimited() {
+        assertThat(acquireAll(channel(1L, 0), "CPU", 1_000)).isEqualTo(1_000);
+        verify(limiter.historyRepository, times(0)).getCountLastHour(anyLong());
+    }
+
+    @Test
+    @DisplayName("The configured burst caps back-to-back sends")
+    void burstCapsBackToBackSends() {
+        when(limiter.config.alerting().rateLimit().burst()).thenReturn(5);
+        NotificationChannel channel = channel(1L, 60);
+
+        assertThat(acquireAll(channel, "CPU", 20)).isEqualTo(5);
+
+        now.addAndGet(2 * MINUTE_NANOS);
+        assertThat(acquireAll(channel, "CPU", 20)).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Recent history is counted when a channel's bucket is first created")
+    void seededFromHistory() {
+        when(limiter.historyRepository.getCountLastHour(1L)).thenReturn(58);
+
+        assertThat(acquireAll(channel(1L, 60), "CPU", 10)).isEqualTo(2);
+        assertThat(acquireAll(channel(1L, 60), "CPU", 10)).isZero();
+        verify(limiter.historyRepository, times(1)).getCountLastHour(1L);
+    }
+
+    @Test
+    @DisplayName("Per-alert-type buckets stop one alert type using the whole channel")
+    void perAlertTypeBuckets() {
+        when(limiter.config.alerting().rateLimit().perAlertTypePerHour()).thenReturn(3);
+        NotificationChannel channel = channel(1L, 10);
+
+        assertThat(acquireAll(channel, "CPU", 10)).isEqualTo(3);
+        assertThat(acquireAll(channel, "DISK", 10)).isEqualTo(3);
+        assertThat(acquireAll(channel, "LOCKS", 10)).isEqualTo(3);
+        // The channel has one token left; a limited type must not take it
+        assertThat(acquireAll(channel, "CPU", 10)).isZero();
+        assertThat(acquireAll(channel, "REPLICATION", 10)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Changing a channel's limit keeps the tokens already used")
+    void limitChangeKeepsUsage() {
+        NotificationChannel channel = channel(1L, 10);
+        assertThat(acquireAll(channel, "CPU", 8)).isEqualTo(8);
+
+        channel.setRateLimitPerHour(20);
+        assertThat(acquireAll(channel, "CPU", 20)).isEqualTo(12);
+    }
+
+    @Test
+    @DisplayName("Concurrent callers never exceed the limit")
+    void concurrentCallersRespectLimit() throws InterruptedException {
+        NotificationChannel channel = channel(1L, 500);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                allowed.addAndGet(acquireAll(channel, "CPU", 200));
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(allowed).hasValue(500);
+    }
+
+    @Test
+    @DisplayName("Decisions and available tokens are exported as metrics")
+    void metricsExported() {
+        NotificationChannel channel = channel(7L, 4);
+        acquireAll(channel, "CPU", 6);
+
+        assertThat(registry.get(ChannelRateLimiter.DECISIONS_METRIC)
+            .tags("channel", "7", "scope", "channel", "outcome", "allowed").counter().count()).isEqualTo(4.0);
+        assertThat(registry.get(ChannelRateLimiter.DECISIONS_METRIC)
+            .tags("channel", "7", "scope", "channel", "outcome", "limited").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get(ChannelRateLimiter.TOKENS_METRIC).tags("channel", "7").gauge().value()).isZero();
+
+        now.addAndGet(15 * MINUTE_NANOS);
+        assertThat(limiter.getAvailableTokens(7L)).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("An alert type's token returned after a channel denial is not counted as allowed")
+    void releasedTypeTokenNotCountedAsAllowed() {
+        when(limiter.config.alerting().rateLimit().perAlertTypePerHour()).thenReturn(5);
+        NotificationChannel channel = channel(7L, 2);
+
+        assertThat(acquireAll(channel, "CPU", 4)).isEqualTo(2);
+
+        assertThat(registry.get(ChannelRateLimiter.DECISIONS_METRIC)
+            .tags("channel", "7", "scope", "alert_type", "outcome", "allowed").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get(ChannelRateLimiter.DECISIONS_METRIC)
+            .tags("channel", "7", "scope", "channel", "outcome", "limited").counter().count()).isEqualTo(2.0);
+    }
+}
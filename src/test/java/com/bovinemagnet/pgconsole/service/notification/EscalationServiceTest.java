@@ -0,0 +1,150 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.model.ActiveAlert;
+import com.bovinemagnet.pgconsole.model.EscalationPolicy;
+import com.bovinemagnet.pgconsole.model.EscalationPolicy.EscalationTier;
+import com.bovinemagnet.pgconsole.model.NotificationChannel;
+import com.bovinemagnet.pgconsole.repository.ActiveAlertRepository;
+import com.bovinemagnet.pgconsole.repository.EscalationPolicyRepository;
+import com.bovinemagnet.pgconsole.repository.NotificationChannelRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the batched escalation pass in {@link EscalationService}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("EscalationService batched escalation")
+class EscalationServiceTest {
+
+    private EscalationService service;
+    private NotificationChannel slack;
+    private NotificationChannel pager;
+
+    @BeforeEach
+    void setUp() {
+        service = new EscalationService();
+        service.alertRepository = mock(ActiveAlertRepository.class);
+        service.policyRepository = mock(EscalationPolicyRepository.class);
+        service.channelRepository = mock(NotificationChannelRepository.class);
+        service.dispatcher = mock(NotificationDispatcher.class);
+
+        slack = channel(1L);
+        pager = channel(2L);
+        when(service.channelRepository.findAll()).thenReturn(List.of(slack, pager));
+
+        EscalationPolicy policy = new EscalationPolicy("on-call");
+        policy.setId(10L);
+        policy.setEnabled(true);
+        policy.addTier(tier(1, 1L));
+        policy.addTier(tier(2, 1L, 2L));
+        when(service.policyRepository.findEnabledById()).thenReturn(Map.of(10L, policy));
+    }
+
+    private static NotificationChannel channel(long id) {
+        NotificationChannel channel = new NotificationChannel("channel-" + id, NotificationChannel.ChannelType.SLACK);
+        channel.setId(id);
+        channel.setEnabled(true);
+        return channel;
+    }
+
+    private static EscalationTier tier(int order, Long... channelIds) {
+        EscalationTier tier = new EscalationTier(order, 5);
+        tier.setChannelIds(new ArrayList<>(List.of(channelIds)));
+        return tier;
+    }
+
+    private static ActiveAlert alert(long id, int currentTier) {
+        ActiveAlert alert = new ActiveAlert("alert-" + id, "CPU", "HIGH", "cpu high");
+        alert.setId(id);
+        alert.setEscalationPolicyId(10L);
+        alert.setCurrentEscalationTier(currentTier);
+        return alert;
+    }
+
+    @Test
+    @DisplayName("Alerts escalating to the same tier are grouped per channel")
+    @SuppressWarnings("unchecked")
+    void alertsGroupedPerChannelAndTier() {
+        List<ActiveAlert> alerts = List.of(alert(1, 1), alert(2, 1), alert(3, 0));
+        when(service.alertRepository.findDueForEscalation()).thenReturn(alerts);
+
+        service.processEscalations();
+
+        ArgumentCaptor<Map<NotificationChannel, List<ActiveAlert>>> tierTwo = ArgumentCaptor.forClass(Map.class);
+        verify(service.dispatcher).dispatchEscalationDigestsAsync(eq(2), tierTwo.capture());
+        assertThat(tierTwo.getValue()).containsOnlyKeys(slack, pager);
+        assertThat(tierTwo.getValue().get(slack)).extracting(ActiveAlert::getAlertId).containsExactly("alert-1", "alert-2");
+        assertThat(tierTwo.getValue().get(pager)).extracting(ActiveAlert::getAlertId).containsExactly("alert-1", "alert-2");
+
+        ArgumentCaptor<Map<NotificationChannel, List<ActiveAlert>>> tierOne = ArgumentCaptor.forClass(Map.class);
+        verify(service.dispatcher).dispatchEscalationDigestsAsync(eq(1), tierOne.capture());
+        assertThat(tierOne.getValue()).containsOnlyKeys(slack);
+    }
+
+    @Test
+    @DisplayName("Policies and channels are loaded once and tiers are written in one batch")
+    @SuppressWarnings("unchecked")
+    void singleLoadAndBatchUpdate() {
+        when(service.alertRepository.findDueForEscalation()).thenReturn(List.of(alert(1, 0), alert(2, 1), alert(3, 1)));
+
+        service.processEscalations();
+
+        verify(service.policyRepository, times(1)).findEnabledById();
+        verify(service.policyRepository, never()).findById(anyLong());
+        verify(service.channelRepository, times(1)).findAll();
+        verify(service.channelRepository, never()).findById(anyLong());
+        verify(service.alertRepository, never()).update(any());
+
+        ArgumentCaptor<Map<Long, Integer>> tiers = ArgumentCaptor.forClass(Map.class);
+        verify(service.alertRepository).updateEscalationTiers(tiers.capture());
+        assertThat(tiers.getValue()).containsExactlyInAnyOrderEntriesOf(Map.of(1L, 1, 2L, 2, 3L, 2));
+    }
+
+    @Test
+    @DisplayName("Alerts whose policy is missing or exhausted are not escalated")
+    @SuppressWarnings("unchecked")
+    void missingOrExhaustedPoliciesSkipped() {
+        ActiveAlert orphan = alert(1, 0);
+        orphan.setEscalationPolicyId(99L);
+        ActiveAlert exhausted = alert(2, 2);
+        when(service.alertRepository.findDueForEscalation()).thenReturn(List.of(orphan, exhausted));
+
+        service.processEscalations();
+
+        verify(service.dispatcher, never()).dispatchEscalationDigestsAsync(anyInt(), any());
+        ArgumentCaptor<Map<Long, Integer>> tiers = ArgumentCaptor.forClass(Map.class);
+        verify(service.alertRepository).updateEscalationTiers(tiers.capture());
+        assertThat(tiers.getValue()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Nothing is loaded when no alerts are due")
+    void nothingDue() {
+        when(service.alertRepository.findDueForEscalation()).thenReturn(List.of());
+
+        service.processEscalations();
+
+        verify(service.policyRepository, never()).findEnabledById();
+        verify(service.channelRepository, never()).findAll();
+    }
+}
@@ -0,0 +1,330 @@
+package com.bovinemagnet.pgconsole.service.notification;
+
+import com.bovinemagnet.pgconsole.config.InstanceConfig;
+import com.bovinemagnet.pgconsole.model.ActiveAlert;
+import com.bovinemagnet.pgconsole.model.NotificationChannel;
+import com.bovinemagnet.pgconsole.model.NotificationResult;
+import com.bovinemagnet.pgconsole.repository.AlertSilenceRepository;
+import com.bovinemagnet.pgconsole.repository.MaintenanceWindowRepository;
+import com.bovinemagnet.pgconsole.repository.NotificationChannelRepository;
+import com.bovinemagnet.pgconsole.repository.NotificationHistoryRepository;
+import jakarta.enterprise.inject.Instance;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.RETURNS_DEEP_STUBS;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies the asynchronous delivery pipeline in {@link NotificationDispatcher}:
+ * per-channel concurrency, retries with backoff, batched history writes and
+ * shutdown.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("NotificationDispatcher delivery pipeline")
+class NotificationDispatcherPipelineTest {
+
+    private NotificationDispatcher dispatcher;
+    private NotificationSender slackSender;
+    private NotificationSender teamsSender;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        dispatcher = new NotificationDispatcher();
+        dispatcher.config = mock(InstanceConfig.class, RETURNS_DEEP_STUBS);
+        InstanceConfig.NotificationConfig settings = dispatcher.config.alerting().notifications();
+        when(settings.queueCapacity()).thenReturn(200);
+        when(settings.deliveryThreads()).thenReturn(8);
+        when(settings.maxAttempts()).thenReturn(3);
+        when(settings.historyBatchSize()).thenReturn(50);
+        when(settings.historyFlushIntervalMs()).thenReturn(2_000);
+        when(settings.shutdownSeconds()).thenReturn(1);
+        dispatcher.init();
+        dispatcher.channelRepository = mock(NotificationChannelRepository.class);
+        dispatcher.historyRepository = mock(NotificationHistoryRepository.class);
+        dispatcher.maintenanceWindowRepository = mock(MaintenanceWindowRepository.class);
+        dispatcher.alertSilenceRepository = mock(AlertSilenceRepository.class);
+        dispatcher.rateLimiter = mock(ChannelRateLimiter.class);
+        when(dispatcher.rateLimiter.tryAcquire(any(), any())).thenReturn(true);
+        dispatcher.initialBackoffMillis = 10;
+        dispatcher.maxBackoffMillis = 50;
+
+        slackSender = mock(NotificationSender.class);
+        when(slackSender.getChannelType()).thenReturn(NotificationChannel.ChannelType.SLACK);
+        teamsSender = mock(NotificationSender.class);
+        when(teamsSender.getChannelType()).thenReturn(NotificationChannel.ChannelType.TEAMS);
+
+        dispatcher.senders = mock(Instance.class);
+        when(dispatcher.senders.iterator()).thenAnswer(invocation -> List.of(slackSender, teamsSender).iterator());
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    private ActiveAlert alert() {
+        return new ActiveAlert("cpu-prod", "CPU", "HIGH", "cpu high");
+    }
+
+    private NotificationChannel channel(long id, NotificationChannel.ChannelType type) {
+        NotificationChannel channel = new NotificationChannel("channel-" + id, type);
+        channel.setId(id);
+        channel.setEnabled(true);
+        return channel;
+    }
+
+    private static NotificationResult success(NotificationChannel channel, ActiveAlert alert) {
+        return NotificationResult.success(channel.getId(), channel.getName(), channel.getChannelType(), alert.getAlertId());
+    }
+
+    private static NotificationResult failure(NotificationChannel channel, ActiveAlert alert) {
+        return NotificationResult.failure(channel.getId(), channel.getName(), channel.getChannelType(), alert.getAlertId(), "HTTP 503");
+    }
+
+    @Test
+    @DisplayName("Dispatching returns before any channel has been sent to")
+    void dispatchAsyncReturnsImmediately() throws InterruptedException {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(slack));
+        CountDownLatch release = new CountDownLatch(1);
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return success(slack, invocation.getArgument(1));
+        });
+
+        NotificationDelivery delivery = dispatcher.dispatchAsync(alert());
+
+        assertThat(delivery.isDone()).isFalse();
+        assertThat(delivery.getChannelCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(delivery.await(Duration.ofSeconds(5))).extracting(NotificationResult::isSuccess).containsExactly(true);
+    }
+
+    @Test
+    @DisplayName("A slow channel does not delay delivery to another channel")
+    void slowChannelDoesNotBlockOthers() {
+        NotificationChannel teams = channel(1L, NotificationChannel.ChannelType.TEAMS);
+        NotificationChannel slack = channel(2L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(teams, slack));
+        when(teamsSender.send(eq(teams), any())).thenAnswer(invocation -> {
+            Thread.sleep(500);
+            return success(teams, invocation.getArgument(1));
+        });
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> success(slack, invocation.getArgument(1)));
+
+        NotificationDelivery delivery = dispatcher.dispatchAsync(alert());
+
+        verify(slackSender, timeout(300)).send(eq(slack), any());
+        assertThat(delivery.isDone()).isFalse();
+        assertThat(delivery.join()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A failed send is retried with backoff until it succeeds")
+    void failedSendIsRetried() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(slack));
+        AtomicInteger attempts = new AtomicInteger();
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation ->
+            attempts.incrementAndGet() < 3 ? failure(slack, invocation.getArgument(1)) : success(slack, invocation.getArgument(1)));
+
+        List<NotificationResult> results = dispatcher.dispatch(alert());
+
+        assertThat(attempts).hasValue(3);
+        assertThat(results).extracting(NotificationResult::isSuccess).containsExactly(true);
+    }
+
+    @Test
+    @DisplayName("Retries stop after the configured number of attempts")
+    void retriesAreBounded() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(slack));
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> failure(slack, invocation.getArgument(1)));
+
+        List<NotificationResult> results = dispatcher.dispatch(alert());
+
+        verify(slackSender, times(3)).send(eq(slack), any());
+        assertThat(results).extracting(NotificationResult::isSuccess).containsExactly(false);
+        verify(dispatcher.channelRepository, never()).updateLastUsed(1L);
+    }
+
+    @Test
+    @DisplayName("A retry is sent before later deliveries to the same channel")
+    void retryKeepsChannelOrder() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(slack));
+        dispatcher.initialBackoffMillis = 200;
+        dispatcher.maxBackoffMillis = 200;
+        List<String> sent = new CopyOnWriteArrayList<>();
+        AtomicInteger cpuAttempts = new AtomicInteger();
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> {
+            ActiveAlert alert = invocation.getArgument(1);
+            sent.add(alert.getAlertId());
+            boolean fail = alert.getAlertId().equals("cpu-prod") && cpuAttempts.incrementAndGet() == 1;
+            return fail ? failure(slack, alert) : success(slack, alert);
+        });
+
+        NotificationDelivery cpu = dispatcher.dispatchAsync(alert());
+        verify(slackSender, timeout(1_000)).send(eq(slack), any());
+        NotificationDelivery disk = dispatcher.dispatchAsync(new ActiveAlert("disk-prod", "DISK", "HIGH", "disk full"));
+
+        assertThat(cpu.join()).extracting(NotificationResult::isSuccess).containsExactly(true);
+        assertThat(disk.join()).extracting(NotificationResult::isSuccess).containsExactly(true);
+        assertThat(sent).containsExactly("cpu-prod", "cpu-prod", "disk-prod");
+    }
+
+    @Test
+    @DisplayName("Shutting down completes deliveries waiting for a retry and those queued behind them")
+    void shutdownCompletesPendingDeliveries() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(slack));
+        dispatcher.initialBackoffMillis = 60_000;
+        dispatcher.maxBackoffMillis = 60_000;
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> failure(slack, invocation.getArgument(1)));
+
+        NotificationDelivery cpu = dispatcher.dispatchAsync(alert());
+        verify(slackSender, timeout(1_000)).send(eq(slack), any());
+        NotificationDelivery disk = dispatcher.dispatchAsync(new ActiveAlert("disk-prod", "DISK", "HIGH", "disk full"));
+
+        dispatcher.shutdown();
+
+        assertThat(cpu.await(Duration.ofSeconds(1))).extracting(NotificationResult::isSuccess).containsExactly(false);
+        assertThat(disk.await(Duration.ofSeconds(1))).extracting(NotificationResult::getErrorMessage)
+            .containsExactly("Notification dispatcher is shutting down");
+        verify(slackSender, times(1)).send(eq(slack), any());
+    }
+
+    @Test
+    @DisplayName("History and last-used updates are written as batches")
+    @SuppressWarnings("unchecked")
+    void historyIsBatched() {
+        NotificationChannel teams = channel(1L, NotificationChannel.ChannelType.TEAMS);
+        NotificationChannel slack = channel(2L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(teams, slack));
+        when(teamsSender.send(eq(teams), any())).thenAnswer(invocation -> success(teams, invocation.getArgument(1)));
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> success(slack, invocation.getArgument(1)));
+
+        dispatcher.dispatch(alert());
+
+        ArgumentCaptor<List<NotificationResult>> history = ArgumentCaptor.forClass(List.class);
+        verify(dispatcher.historyRepository, atLeastOnce()).saveAll(history.capture());
+        assertThat(history.getAllValues().stream().mapToInt(List::size).sum()).isEqualTo(2);
+        verify(dispatcher.historyRepository, never()).save(any());
+
+        ArgumentCaptor<Collection<Long>> lastUsed = ArgumentCaptor.forClass(Collection.class);
+        verify(dispatcher.channelRepository, atLeastOnce()).updateLastUsed(lastUsed.capture());
+        assertThat(lastUsed.getAllValues().stream().flatMap(Collection::stream)).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Escalation tier is recorded before history is written")
+    void escalationTierIsRecordedInHistory() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        when(dispatcher.channelRepository.findById(1L)).thenReturn(Optional.of(slack));
+        when(slackSender.send(eq(slack), any())).thenAnswer(invocation -> success(slack, invocation.getArgument(1)));
+
+        List<NotificationResult> results = dispatcher.dispatchToChannelsAsync(alert(), List.of(1L), 2).join();
+        dispatcher.flushHistory();
+
+        assertThat(results).extracting(NotificationResult::getEscalationTier).containsExactly(2);
+        verify(dispatcher.historyRepository).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Escalating several alerts sends one digest per channel and records history for each alert")
+    @SuppressWarnings("unchecked")
+    void escalationDigestPerChannel() {
+        NotificationChannel slack = channel(1L, NotificationChannel.ChannelType.SLACK);
+        ActiveAlert cpu = new ActiveAlert("cpu-prod", "CPU", "HIGH", "cpu high");
+        ActiveAlert disk = new ActiveAlert("disk-prod", "DISK", "CRITICAL", "disk full");
+        ArgumentCaptor<ActiveAlert> sent = ArgumentCaptor.forClass(ActiveAlert.class);
+        when(slackSender.send(eq(slack), sent.capture())).thenAnswer(invocation -> success(slack, invocation.getArgument(1)));
+
+        List<NotificationDelivery> deliveries = dispatcher.dispatchEscalationDigestsAsync(2, Map.of(slack, List.of(cpu, disk)));
+        deliveries.forEach(NotificationDelivery::join);
+        dispatcher.flushHistory();
+
+        assertThat(deliveries).hasSize(1);
+        verify(slackSender, times(1)).send(eq(slack), any());
+        assertThat(sent.getValue().getAlertType()).isEqualTo(EscalationDigest.ALERT_TYPE);
+        assertThat(sent.getValue().getAlertSeverity()).isEqualTo("CRITICAL");
+        assertThat(sent.getValue().getAlertMessage()).contains("cpu high").contains("disk full");
+        verify(dispatcher.rateLimiter, times(1)).tryAcquire(any(), any());
+
+        ArgumentCaptor<List<NotificationResult>> history = ArgumentCaptor.forClass(List.class);
+        verify(dispatcher.historyRepository, atLeastOnce()).saveAll(history.capture());
+        assertThat(history.getAllValues().stream().flatMap(List::stream))
+            .extracting(NotificationResult::getAlertId, NotificationResult::getEscalationTier)
+            .containsExactlyInAnyOrder(tuple("cpu-prod", 2), tuple("disk-prod", 2));
+    }
+
+    @Test
+    @DisplayName("Escalations to PagerDuty keep each alert's dedup key across ticks and resolve it")
+    @SuppressWarnings("unchecked")
+    void pagerDutyEscalationsKeepDedupKeys() {
+        List<String> payloads = new CopyOnWriteArrayList<>();
+        HttpResponse<String> accepted = mock(HttpResponse.class);
+        when(accepted.statusCode()).thenReturn(202);
+        PagerDutyNotificationSender pagerDuty = new PagerDutyNotificationSender() {
+            @Override
+            protected HttpResponse<String> sendHttpPost(String url, String jsonBody, Map<String, String> headers) {
+                payloads.add(jsonBody);
+                return accepted;
+            }
+        };
+        when(dispatcher.senders.iterator()).thenAnswer(invocation -> List.<NotificationSender>of(slackSender, pagerDuty).iterator());
+        NotificationChannel channel = channel(1L, NotificationChannel.ChannelType.PAGERDUTY);
+        NotificationChannel.PagerDutyConfig config = new NotificationChannel.PagerDutyConfig();
+        config.setRoutingKey("0123456789abcdef0123456789abcdef");
+        config.setAutoResolve(true);
+        channel.setPagerDutyConfig(config);
+        when(dispatcher.channelRepository.findEnabled()).thenReturn(List.of(channel));
+        ActiveAlert cpu = new ActiveAlert("cpu-prod", "CPU", "HIGH", "cpu high");
+        ActiveAlert disk = new ActiveAlert("disk-prod", "DISK", "CRITICAL", "disk full");
+
+        List<String> firstTick = dispatcher.dispatchEscalationDigestsAsync(2, Map.of(channel, List.of(cpu, disk))).stream()
+            .flatMap(delivery -> delivery.join().stream()).map(NotificationResult::getDedupKey).toList();
+        List<String> secondTick = dispatcher.dispatchEscalationDigestsAsync(2, Map.of(channel, List.of(cpu, disk))).stream()
+            .flatMap(delivery -> delivery.join().stream()).map(NotificationResult::getDedupKey).toList();
+        dispatcher.dispatchResolution(cpu, null);
+        dispatcher.dispatchResolution(disk, null);
+
+        assertThat(firstTick).hasSize(2).doesNotHaveDuplicates().doesNotContainNull();
+        assertThat(secondTick).containsExactlyInAnyOrderElementsOf(firstTick);
+        assertThat(payloads).hasSize(6).noneMatch(payload -> payload.contains(EscalationDigest.ALERT_TYPE));
+        for (String dedupKey : firstTick) {
+            assertThat(payloads).filteredOn(payload -> payload.contains("\"dedup_key\":\"" + dedupKey + "\""))
+                .extracting(payload -> payload.contains("\"event_action\":\"resolve\""))
+                .containsExactly(false, false, true);
+        }
+    }
+}
@@ -2,7 +2,10 @@ package com.bovinemagnet.pgconsole.testutil;
 
 import com.bovinemagnet.pgconsole.model.*;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 
@@ -295,4 +298,99 @@ public final class TestDataFactory {
         channel.setConfig("{\"recipients\": " + java.util.Arrays.toString(recipients) + "}");
         return channel;
     }
+
+    // =========================================================================
+    // TableSchema
+    // =========================================================================
+
+    /**
+     * Creates a TableSchema with an id primary key, the given number of extra
+     * columns and a secondary index. Use {@link #createSchema} for tables
+     * linked by foreign keys.
+     */
+    public static TableSchema createTableSchema(String schemaName, String tableName, int columnCount) {
+        TableSchema table = new TableSchema(schemaName, tableName);
+        table.setOwner("test_user");
+        table.getColumns().add(TableSchema.ColumnDefinition.builder()
+            .columnName("id").dataType("bigint").nullable(false).identity("ALWAYS").position(1).build());
+        String[] types = {"text", "integer", "timestamp with time zone", "numeric(12,2)", "boolean", "jsonb"};
+        for (int c = 0; c < columnCount; c++) {
+            table.getColumns().add(TableSchema.ColumnDefinition.builder()
+                .columnName("col_" + c)
+                .dataType(types[c % types.length])
+                .nullable(c % 3 != 0)
+                .defaultValue(c % 4 == 0 ? "0" : null)
+                .position(c + 2)
+                .build());
+        }
+        table.setPrimaryKey(new TableSchema.PrimaryKeyDefinition(tableName + "_pkey", List.of("id")));
+        table.getIndexes().add(TableSchema.IndexDefinition.builder()
+            .indexName(tableName + "_col_0_idx")
+            .indexType("btree")
+            .columns(List.of("col_0"))
+            .build());
+        return table;
+    }
+
+    /**
+     * Creates a schema of {@code tableCount} tables, each with {@code columnsPerTable}
+     * extra columns, chained together by foreign keys.
+     */
+    public static List<TableSchema> createSchema(String schemaName, int tableCount, int columnsPerTable) {
+        List<TableSchema> tables = new ArrayList<>(tableCount);
+        for (int t = 0; t < tableCount; t++) {
+            TableSchema table = createTableSchema(schemaName, "table_" + t, columnsPerTable);
+            if (t > 0) {
+                table.getForeignKeys().add(TableSchema.ForeignKeyDefinition.builder()
+                    .constraintName("table_" + t + "_parent_fk")
+                    .columns(List.of("col_1"))
+                    .referencedSchema(schemaName)
+                    .referencedTable("table_" + (t - 1))
+                    .referencedColumns(List.of("id"))
+                    .onDelete("CASCADE")
+                    .build());
+            }
+            tables.add(table);
+        }
+        return tables;
+    }
+
+    // =========================================================================
+    // SystemMetricsHistory
+    // =========================================================================
+
+    /**
+     * Creates a SystemMetricsHistory sample with plausible values derived from
+     * {@code i}, with noise drawn from {@code random}.
+     */
+    public static SystemMetricsHistory createSystemMetricsHistory(Instant sampledAt, int i, Random random) {
+        SystemMetricsHistory m = new SystemMetricsHistory();
+        m.setSampledAt(sampledAt);
+        m.setTotalConnections(40 + (int) (20 * Math.sin(i / 50.0)) + random.nextInt(5));
+        m.setMaxConnections(100);
+        m.setActiveQueries(5 + random.nextInt(10));
+        m.setIdleConnections(20 + random.nextInt(10));
+        m.setIdleInTransaction(random.nextInt(3));
+        m.setBlockedQueries(i % 97 == 0 ? 3 : 0);
+        m.setLongestQuerySeconds(random.nextDouble() * 30);
+        m.setLongestTransactionSeconds(random.nextDouble() * 60);
+        m.setCacheHitRatio(97.0 + random.nextDouble() * 3);
+        m.setTotalDatabaseSizeBytes(1_000_000_000L + i * 4096L);
+        return m;
+    }
+
+    /**
+     * Creates a time-ordered series of {@code count} samples, the first at
+     * {@code start} and the rest spaced {@code interval} apart. The same seed
+     * and start always give the same series.
+     */
+    public static List<SystemMetricsHistory> createSystemMetricsSeries(int count, Instant start, Duration interval,
+                                                                       long seed) {
+        Random random = new Random(seed);
+        List<SystemMetricsHistory> series = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            series.add(createSystemMetricsHistory(start.plus(interval.multipliedBy(i)), i, random));
+        }
+        return series;
+    }
 }
@@ -0,0 +1,33 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AcceptEncodingTest {
+
+    @Test
+    void acceptsListedCoding() {
+        assertThat(AcceptEncoding.accepts("br, gzip, deflate", "gzip")).isTrue();
+        assertThat(AcceptEncoding.accepts("GZIP;q=0.5", "gzip")).isTrue();
+    }
+
+    @Test
+    void refusesMissingHeaderOrUnlistedCoding() {
+        assertThat(AcceptEncoding.accepts(null, "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("identity", "gzip")).isFalse();
+    }
+
+    @Test
+    void refusesZeroQuality() {
+        assertThat(AcceptEncoding.accepts("gzip;q=0", "gzip")).isFalse();
+        assertThat(AcceptEncoding.accepts("gzip; q=0.000", "gzip")).isFalse();
+    }
+
+    @Test
+    void namedCodingTakesPrecedenceOverWildcard() {
+        assertThat(AcceptEncoding.accepts("*", "br")).isTrue();
+        assertThat(AcceptEncoding.accepts("*, br;q=0", "br")).isFalse();
+        assertThat(AcceptEncoding.accepts("*;q=0, gzip", "gzip")).isTrue();
+    }
+}
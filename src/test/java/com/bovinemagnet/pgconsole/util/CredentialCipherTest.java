@@ -0,0 +1,41 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CredentialCipherTest {
+
+    private static final String KEY = "MDEyMzQ1Njc4OWFiY2RlZjAxMjM0NTY3ODlhYmNkZWY=";
+    private static final String OTHER_KEY = "ZmVkY2JhOTg3NjU0MzIxMGZlZGNiYTk4NzY1NDMyMTA=";
+
+    @Test
+    void roundTripsWithoutStoringThePlaintext() {
+        CredentialCipher cipher = new CredentialCipher(KEY);
+
+        String encrypted = cipher.encrypt("orders-eu-3", "secret");
+
+        assertThat(encrypted).startsWith("v1:").doesNotContain("secret");
+        assertThat(cipher.encrypt("orders-eu-3", "secret")).isNotEqualTo(encrypted);
+        assertThat(cipher.decrypt("orders-eu-3", encrypted)).isEqualTo("secret");
+    }
+
+    @Test
+    void refusesAnotherOwnerOrKey() {
+        String encrypted = new CredentialCipher(KEY).encrypt("orders-eu-3", "secret");
+
+        assertThatThrownBy(() -> new CredentialCipher(KEY).decrypt("orders-eu-4", encrypted))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new CredentialCipher(OTHER_KEY).decrypt("orders-eu-3", encrypted))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new CredentialCipher(KEY).decrypt("orders-eu-3", "secret"))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void rejectsKeysOfTheWrongLength() {
+        assertThatThrownBy(() -> new CredentialCipher("c2hvcnQ=")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new CredentialCipher("not base64!")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
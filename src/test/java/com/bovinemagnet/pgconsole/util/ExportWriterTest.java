@@ -0,0 +1,87 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for {@link ExportWriter}.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("ExportWriter")
+class ExportWriterTest {
+
+    private static final Instant SAMPLED_AT = Instant.parse("2026-01-02T03:04:05Z");
+
+    @Test
+    @DisplayName("CSV has a header row and escapes text cells")
+    void csvRows() {
+        StringWriter out = new StringWriter();
+        ExportWriter writer = ExportWriter.of(ExportWriter.Format.CSV, out);
+
+        writer.begin(List.of("instance_id", "sampled_at", "query_text", "calls", "mean_ms"));
+        writer.row("prod", Timestamp.from(SAMPLED_AT), "SELECT a, b FROM t", 12L, 1.5);
+        writer.row("prod", null, "=cmd()", 0L, null);
+
+        assertThat(out.toString()).isEqualTo(
+            "instance_id,sampled_at,query_text,calls,mean_ms\n"
+                + "prod,2026-01-02T03:04:05Z,\"SELECT a, b FROM t\",12,1.5\n"
+                + "prod,,'=cmd(),0,\n");
+        assertThat(writer.getRowCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("NDJSON writes one object per row with typed values")
+    void ndjsonRows() {
+        StringWriter out = new StringWriter();
+        ExportWriter writer = ExportWriter.of(ExportWriter.Format.NDJSON, out);
+
+        writer.begin(List.of("query", "calls", "ratio", "active", "at"));
+        writer.row("SELECT \"x\"\n\tFROM t", 3, Double.NaN, true, Timestamp.from(SAMPLED_AT));
+        writer.row(null, 4, 0.25, false, null);
+
+        assertThat(out.toString()).isEqualTo(
+            "{\"query\":\"SELECT \\\"x\\\"\\n\\tFROM t\",\"calls\":3,\"ratio\":\"NaN\",\"active\":true,\"at\":\"2026-01-02T03:04:05Z\"}\n"
+                + "{\"query\":null,\"calls\":4,\"ratio\":0.25,\"active\":false,\"at\":null}\n");
+    }
+
+    @Test
+    @DisplayName("A result set is written using its column labels")
+    void writesResultSet() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        ResultSetMetaData meta = mock(ResultSetMetaData.class);
+        when(rs.getMetaData()).thenReturn(meta);
+        when(meta.getColumnCount()).thenReturn(2);
+        when(meta.getColumnLabel(1)).thenReturn("pid");
+        when(meta.getColumnLabel(2)).thenReturn("state");
+        when(rs.next()).thenReturn(true, true, false);
+        when(rs.getObject(1)).thenReturn(101, 102);
+        when(rs.getObject(2)).thenReturn("active", "idle in transaction");
+
+        StringWriter out = new StringWriter();
+        long rows = ExportWriter.of(ExportWriter.Format.CSV, out).writeAll(rs);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString()).isEqualTo("pid,state\n101,active\n102,idle in transaction\n");
+    }
+
+    @Test
+    @DisplayName("Formats are looked up by name")
+    void formatLookup() {
+        assertThat(ExportWriter.Format.fromName("NDJSON")).isEqualTo(ExportWriter.Format.NDJSON);
+        assertThat(ExportWriter.Format.fromName("csv").getMediaType()).isEqualTo("text/csv");
+        assertThat(ExportWriter.Format.fromName("xml")).isNull();
+    }
+}
@@ -0,0 +1,83 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the consistent hash ring used to share instances between replicas.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("HashRing")
+class HashRingTest {
+
+    private static final int KEYS = 10_000;
+
+    private static Map<String, String> assign(HashRing ring) {
+        Map<String, String> owners = new HashMap<>();
+        for (int i = 0; i < KEYS; i++) {
+            owners.put("instance-" + i, ring.ownerOf("instance-" + i));
+        }
+        return owners;
+    }
+
+    @Test
+    @DisplayName("An empty ring owns nothing")
+    void emptyRing() {
+        assertThat(HashRing.of(List.of(), 16).ownerOf("default")).isNull();
+        assertThat(HashRing.empty().isEmpty()).isTrue();
+    }
+
+    @Test
+    @DisplayName("The same members give the same owners whatever their order")
+    void deterministic() {
+        HashRing first = HashRing.of(List.of("a", "b", "c"), 64);
+        HashRing second = HashRing.of(List.of("c", "a", "b", "a"), 64);
+
+        assertThat(assign(first)).isEqualTo(assign(second));
+        assertThat(second.members()).containsExactlyInAnyOrder("a", "b", "c");
+    }
+
+    @Test
+    @DisplayName("Keys are shared roughly evenly")
+    void balanced() {
+        Map<String, Integer> counts = new HashMap<>();
+        assign(HashRing.of(List.of("a", "b", "c", "d"), 128)).values()
+                .forEach(owner -> counts.merge(owner, 1, Integer::sum));
+
+        assertThat(counts).hasSize(4);
+        assertThat(counts.values()).allSatisfy(count -> assertThat(count).isBetween(KEYS / 4 * 7 / 10, KEYS / 4 * 13 / 10));
+    }
+
+    @Test
+    @DisplayName("Adding a member moves only the keys it takes")
+    void addMovesOnlyToNewMember() {
+        Map<String, String> before = assign(HashRing.of(List.of("a", "b", "c"), 128));
+        Map<String, String> after = assign(HashRing.of(List.of("a", "b", "c", "d"), 128));
+
+        long moved = before.keySet().stream().filter(key -> !before.get(key).equals(after.get(key))).count();
+        assertThat(before.keySet())
+                .filteredOn(key -> !before.get(key).equals(after.get(key)))
+                .allSatisfy(key -> assertThat(after.get(key)).isEqualTo("d"));
+        assertThat(moved).isBetween((long) KEYS / 4 * 7 / 10, (long) KEYS / 4 * 13 / 10);
+    }
+
+    @Test
+    @DisplayName("Removing a member moves only its keys")
+    void removeMovesOnlyItsKeys() {
+        Map<String, String> before = assign(HashRing.of(List.of("a", "b", "c"), 128));
+        Map<String, String> after = assign(HashRing.of(List.of("a", "c"), 128));
+
+        assertThat(before.keySet())
+                .filteredOn(key -> !before.get(key).equals("b"))
+                .allSatisfy(key -> assertThat(after.get(key)).isEqualTo(before.get(key)));
+        assertThat(after.values()).doesNotContain("b");
+    }
+}
@@ -0,0 +1,59 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests Largest-Triangle-Three-Buckets downsampling.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("Lttb downsampling")
+class LttbTest {
+
+    @Test
+    @DisplayName("A series no longer than the threshold is returned whole")
+    void shortSeriesUnchanged() {
+        int[] indices = Lttb.selectIndices(new double[]{1, 2, 3, 4}, 4, 10);
+        assertThat(indices).containsExactly(0, 1, 2, 3);
+    }
+
+    @Test
+    @DisplayName("Only the first count values are considered")
+    void respectsCount() {
+        int[] indices = Lttb.selectIndices(new double[]{1, 2, 3, 0, 0}, 3, 10);
+        assertThat(indices).containsExactly(0, 1, 2);
+    }
+
+    @Test
+    @DisplayName("A long series is reduced to the threshold, keeping first and last points")
+    void reducesToThreshold() {
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = Math.sin(i / 100.0);
+        }
+
+        int[] indices = Lttb.selectIndices(values, values.length, 120);
+
+        assertThat(indices).hasSize(120);
+        assertThat(indices[0]).isZero();
+        assertThat(indices[119]).isEqualTo(9_999);
+        for (int i = 1; i < indices.length; i++) {
+            assertThat(indices[i]).isGreaterThan(indices[i - 1]);
+        }
+    }
+
+    @Test
+    @DisplayName("A single spike in a flat series survives downsampling")
+    void preservesSpike() {
+        double[] values = new double[5_000];
+        values[2_345] = 100;
+
+        int[] indices = Lttb.selectIndices(values, values.length, 50);
+
+        assertThat(indices).contains(2_345);
+    }
+}
@@ -0,0 +1,47 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests that {@link PgSize} formats sizes as {@code pg_size_pretty} does.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("PgSize formatting")
+class PgSizeTest {
+
+    @Test
+    @DisplayName("Sizes under 10 kB are shown in bytes")
+    void bytes() {
+        assertThat(PgSize.pretty(0)).isEqualTo("0 bytes");
+        assertThat(PgSize.pretty(10239)).isEqualTo("10239 bytes");
+    }
+
+    @Test
+    @DisplayName("Each larger unit takes over at 10240 of the smaller unit")
+    void unitBoundaries() {
+        assertThat(PgSize.pretty(10240)).isEqualTo("10 kB");
+        assertThat(PgSize.pretty(10239L * 1024)).isEqualTo("10239 kB");
+        assertThat(PgSize.pretty(10240L * 1024)).isEqualTo("10 MB");
+        assertThat(PgSize.pretty(1536L * 1024 * 1024)).isEqualTo("1536 MB");
+        assertThat(PgSize.pretty(5L * 1024 * 1024 * 1024 * 1024)).isEqualTo("5120 GB");
+    }
+
+    @Test
+    @DisplayName("Values are rounded half away from zero")
+    void rounding() {
+        assertThat(PgSize.pretty(10752)).isEqualTo("11 kB");
+        assertThat(PgSize.pretty(10751)).isEqualTo("10 kB");
+        assertThat(PgSize.pretty(-10752)).isEqualTo("-11 kB");
+    }
+
+    @Test
+    @DisplayName("Petabytes are the largest unit")
+    void largestUnit() {
+        assertThat(PgSize.pretty(Long.MAX_VALUE)).isEqualTo("8192 PB");
+    }
+}
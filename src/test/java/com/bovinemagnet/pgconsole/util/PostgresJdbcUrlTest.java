@@ -0,0 +1,62 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PostgresJdbcUrlTest {
+
+    @Test
+    void parsesHostPortAndDatabase() {
+        PostgresJdbcUrl url = PostgresJdbcUrl.parse("jdbc:postgresql://orders-eu-3.db.internal:6432/orders");
+
+        assertThat(url.getHost()).isEqualTo("orders-eu-3.db.internal");
+        assertThat(url.getPort()).isEqualTo(6432);
+        assertThat(url.getDatabase()).isEqualTo("orders");
+        assertThat(url.getParameters()).isEmpty();
+    }
+
+    @Test
+    void rebuildsWithDefaultPortAndAllowedParameters() {
+        PostgresJdbcUrl url = PostgresJdbcUrl.parse("jdbc:postgresql://[::1]/orders?sslmode=verify-full&connectTimeout=5");
+
+        assertThat(url.toString()).isEqualTo("jdbc:postgresql://[::1]:5432/orders?sslmode=verify-full&connectTimeout=5");
+    }
+
+    @Test
+    void rejectsDriverPropertiesOutsideTheAllowlist() {
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse(
+                "jdbc:postgresql://db/orders?socketFactory=org.springframework.context.support.ClassPathXmlApplicationContext"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("socketFactory");
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db/orders?sslrootcert=/etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db/orders?options=-c%20search_path%3Devil"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsPercentEncodedParameterNames() {
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db/orders?ssl%66actory=x"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("sslfactory");
+    }
+
+    @Test
+    void rejectsInvalidValuesAndRepeatedParameters() {
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db/orders?sslmode=maybe"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db/orders?sslmode=require&sslmode=disable"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void rejectsUrlsWithoutAHostOrDatabase() {
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse(null)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql:orders")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db:5432/")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db:70000/orders")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> PostgresJdbcUrl.parse("jdbc:postgresql://db,evil/orders")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,88 @@
+package com.bovinemagnet.pgconsole.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the bounded top-N selection used to merge results across instances.
+ *
+ * @author Paul Snow
+ * @version 0.0.0
+ */
+@DisplayName("TopN")
+class TopNTest {
+
+    @Test
+    @DisplayName("Keeps the highest items, highest first")
+    void keepsHighest() {
+        TopN<Integer> top = new TopN<>(3, Comparator.naturalOrder());
+        for (int value : new int[]{5, 1, 9, 3, 7, 2}) {
+            top.offer(value);
+        }
+
+        assertThat(top.toList()).containsExactly(9, 7, 5);
+        assertThat(top.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Returns every item when fewer than the limit are offered")
+    void underLimit() {
+        TopN<Integer> top = new TopN<>(10, Comparator.naturalOrder());
+        top.offer(2);
+        top.offer(4);
+
+        assertThat(top.toList()).containsExactly(4, 2);
+    }
+
+    @Test
+    @DisplayName("Rejects an item once it ranks below every kept item")
+    void rejectsLower() {
+        TopN<Integer> top = new TopN<>(2, Comparator.naturalOrder());
+
+        assertThat(top.offer(10)).isTrue();
+        assertThat(top.offer(8)).isTrue();
+        assertThat(top.offer(8)).isFalse();
+        assertThat(top.offer(9)).isTrue();
+        assertThat(top.toList()).containsExactly(10, 9);
+    }
+
+    @Test
+    @DisplayName("A limit of zero keeps nothing")
+    void zeroLimit() {
+        TopN<Integer> top = new TopN<>(0, Comparator.naturalOrder());
+
+        assertThat(top.offer(1)).isFalse();
+        assertThat(top.toList()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Merging sorted lists matches sorting everything")
+    void mergesSortedLists() {
+        Random random = new Random(42);
+        List<Integer> all = new ArrayList<>();
+        TopN<Integer> top = new TopN<>(25, Comparator.naturalOrder());
+        for (int list = 0; list < 40; list++) {
+            List<Integer> values = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                values.add(random.nextInt(1_000_000));
+            }
+            values.sort(Comparator.reverseOrder());
+            all.addAll(values);
+            for (int value : values) {
+                if (!top.offer(value)) {
+                    break;
+                }
+            }
+        }
+
+        all.sort(Comparator.reverseOrder());
+        assertThat(top.toList()).isEqualTo(all.subList(0, 25));
+    }
+}